@@ -236,6 +236,17 @@ class DDMReader
 		return terminateChainOnErr;
 	}
 
+	/**
+	 * Whether bytes of a following request have already been read from the
+	 * socket into the buffer
+	 *
+	 * @return true if the buffer holds unparsed data
+	 */
+	protected boolean hasBufferedData()
+	{
+		return pos < count;
+	}
+
 	/**
 	 * Next DSS has same correlator as current DSS
 	 *
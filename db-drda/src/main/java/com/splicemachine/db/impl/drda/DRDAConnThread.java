@@ -255,6 +255,9 @@ class DRDAConnThread extends Thread {
 		this.logConnections = logConnections;
         this.pendingStatementTimeout = -1;
 		initialize();
+		// a session resumed from the session selector has state to restore
+		if (session.state != Session.INIT)
+			initializeForSession();
     }
 
 	/**
@@ -305,6 +308,8 @@ class DRDAConnThread extends Thread {
                                 // DDMReader.fill(), which will happen
                                 // only when timeSlice is set.
                             }
+                            if (parkIfIdle())
+                                break;
 							currentTimeSlice = getTimeSlice();
 						} while ((currentTimeSlice <= 0)  || 
 							(System.currentTimeMillis() - timeStart < currentTimeSlice));
@@ -351,6 +356,33 @@ class DRDAConnThread extends Thread {
 		server.removeThread(this);
 
 	}
+	/**
+	 * Hand the current session to the server's session selector if it is
+	 * established and its client has not sent another request yet, so that
+	 * idle connections do not hold a thread. Sessions with state that lives
+	 * in this thread between requests (XA, a deferred reset, a pending
+	 * statement timeout) are kept.
+	 *
+	 * @return true if the session was parked and this thread is free
+	 */
+	private boolean parkIfIdle() throws IOException
+	{
+		if (!server.isParkingIdleSessions() ||
+			session == null ||
+			session.state != Session.CHKSEC ||
+			session.clientSocket.getChannel() == null ||
+			appRequester.isXARequester() ||
+			deferredReset ||
+			pendingStatementTimeout >= 0 ||
+			reader.hasBufferedData() ||
+			sockis.available() > 0)
+			return false;
+
+		server.parkSession(session);
+		session = null;
+		return true;
+	}
+
 	/**
 	 * Get input stream
 	 *
@@ -652,13 +684,16 @@ class DRDAConnThread extends Thread {
 		database = session.database;
 		appRequester = session.appRequester;
 
-		// set sqlamLevel
-		if (session.state == Session.ATTEXC)
+		// set sqlamLevel; a resumed session may be in any later state
+		if (session.state != Session.INIT && appRequester != null)
 			sqlamLevel = appRequester.getManagerLevel(CodePoint.SQLAM);
 
-        /* All sessions MUST start as EBCDIC */
-        reader.setEbcdicCcsid();
-        writer.setEbcdicCcsid();
+        /* All sessions MUST start as EBCDIC, a resumed session keeps what
+         * it negotiated after ACCSEC */
+        if (session.utf8Ccsid)
+            switchToUtf8();
+        else
+            switchToEbcdic();
 	}
 	/**      
 	 * In initial state for a session, 
@@ -1001,7 +1036,8 @@ class DRDAConnThread extends Thread {
 					writeACCSECRD(securityCheckCode); 
 					
 					/* ACCSECRD is the last reply that is mandatorily in EBCDIC */
-					if (appRequester.supportsUtf8Ccsid()) {
+					session.utf8Ccsid = appRequester.supportsUtf8Ccsid();
+					if (session.utf8Ccsid) {
 					    switchToUtf8();
 					} else {
 					    /* This thread might serve several requests.
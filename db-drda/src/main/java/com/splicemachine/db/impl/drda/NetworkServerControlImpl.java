@@ -35,6 +35,7 @@ import java.io.OutputStream;
 import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import javax.net.SocketFactory;
@@ -44,6 +45,7 @@ import javax.net.ssl.SSLSocket;
 import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.SSLServerSocketFactory;
 import java.net.UnknownHostException;
+import java.nio.channels.ServerSocketChannel;
 import java.nio.charset.Charset;
 import java.security.Permission;
 import java.security.AccessController;
@@ -277,6 +279,9 @@ public final class NetworkServerControlImpl {
 										// and changing timeSlice
 
 	private boolean keepAlive = true;   // keepAlive value for client socket 
+	private boolean parkIdleSessions;	// hand idle sessions to sessionSelector
+	private SessionSelector sessionSelector;	// holds idle sessions, null when not parking
+	private Object dispatchSync = new Object();	// serializes dispatchSession()
 	private int minPoolSize;			//minimum pool size for pooled connections
 	private int maxPoolSize;			//maximum pool size for pooled connections
 	private Object poolSync = new Object();	// object to use for syning reading
@@ -673,6 +678,13 @@ public final class NetworkServerControlImpl {
 		switch (getSSLMode()) {
 		case SSL_OFF:
 		default:
+			if (parkIdleSessions) {
+				// Sockets accepted from a channel can be parked on a selector
+				ServerSocketChannel channel = ServerSocketChannel.open();
+				channel.socket().bind(new InetSocketAddress(hostAddress,
+															portNumber), 0);
+				return channel.socket();
+			}
 			ServerSocketFactory sf =
 				ServerSocketFactory.getDefault();
 			return sf.createServerSocket(portNumber
@@ -773,6 +785,11 @@ public final class NetworkServerControlImpl {
 			break;
 		}
 
+		if (parkIdleSessions && getSSLMode() == SSL_OFF) {
+			sessionSelector = new SessionSelector(this);
+			sessionSelector.start();
+		}
+
         // First, register any MBeans. We do this before we start accepting
         // connections from the clients to ease testing of JMX (DERBY-3689).
         // This way we know that once we can connect to the network server,
@@ -850,6 +867,10 @@ public final class NetworkServerControlImpl {
 	 			}
 	 		}
 
+			if (sessionSelector != null) {
+				sessionSelector.close();
+			}
+
 			synchronized (threadList)
 			{
 	 			//interupt any connection threads still active
@@ -3083,6 +3104,12 @@ public final class NetworkServerControlImpl {
 		if (propval != null && 
 			StringUtil.SQLEqualsIgnoreCase(propval,"false"))
 			keepAlive = false;
+
+		propval = PropertyUtil.getSystemProperty(
+			Property.DRDA_PROP_PARKIDLESESSIONS);
+		if (propval != null &&
+			StringUtil.SQLEqualsIgnoreCase(propval,"true"))
+			parkIdleSessions = true;
 		
 		propval = PropertyUtil.getSystemProperty( 
 			Property.DRDA_PROP_HOSTNAME);
@@ -3897,6 +3924,7 @@ public final class NetworkServerControlImpl {
 		retval.put(Property.DRDA_PROP_PORTNUMBER, new Integer(portNumber).toString());
 		retval.put(Property.DRDA_PROP_HOSTNAME, hostArg);
 		retval.put(Property.DRDA_PROP_KEEPALIVE, new Boolean(keepAlive).toString());
+		retval.put(Property.DRDA_PROP_PARKIDLESESSIONS, new Boolean(parkIdleSessions).toString());
 
 		String tracedir = getTraceDirectory();
 		if (tracedir != null)
@@ -3970,40 +3998,55 @@ public final class NetworkServerControlImpl {
 
 		sessionTable.put(new Integer(connectionNumber), session);
 
-		// Check whether there are enough free threads to service all the
-		// threads in the run queue in addition to the newly added session.
-		boolean enoughThreads;
-		synchronized (runQueue) {
-			enoughThreads = (runQueue.size() < freeThreads);
-		}
-		// No need to hold the synchronization on runQueue any longer than
-		// this. Since no other threads can make runQueue grow, and no other
-		// threads will reduce the number of free threads without removing
-		// sessions from runQueue, (runQueue.size() < freeThreads) cannot go
-		// from true to false until addSession() returns.
-
-		DRDAConnThread thread = null;
-
-		// try to start a new thread if we don't have enough free threads
-		if (!enoughThreads) {
-			// Synchronize on threadsSync to ensure that the value of
-			// maxThreads doesn't change until the new thread is added to
-			// threadList.
-			synchronized (threadsSync) {
-				// only start a new thread if we have no maximum number of
-				// threads or the maximum number of threads is not exceeded
-				if ((maxThreads == 0) || (threadList.size() < maxThreads)) {
-					thread = new DRDAConnThread(session, this, getTimeSlice(),
-												getLogConnections());
-					threadList.add(thread);
-					thread.start();
+		dispatchSession(session);
+	}
+
+	/**
+	 * Hand a session which has a request waiting to a connection thread.
+	 * Called from <code>addSession()</code> for new sessions and from the
+	 * <code>SessionSelector</code> for parked sessions which became readable,
+	 * so it is serialized on <code>dispatchSync</code>.
+	 *
+	 * @param session the session to run
+	 */
+	void dispatchSession(Session session) {
+		synchronized (dispatchSync) {
+			// Check whether there are enough free threads to service all the
+			// threads in the run queue in addition to the newly added session.
+			boolean enoughThreads;
+			synchronized (runQueue) {
+				enoughThreads = (runQueue.size() < freeThreads);
+			}
+			// No need to hold the synchronization on runQueue any longer than
+			// this. Since no other threads can make runQueue grow (dispatchSync
+			// keeps out the session selector), and no other
+			// threads will reduce the number of free threads without removing
+			// sessions from runQueue, (runQueue.size() < freeThreads) cannot go
+			// from true to false until dispatchSession() returns.
+
+			DRDAConnThread thread = null;
+
+			// try to start a new thread if we don't have enough free threads
+			if (!enoughThreads) {
+				// Synchronize on threadsSync to ensure that the value of
+				// maxThreads doesn't change until the new thread is added to
+				// threadList.
+				synchronized (threadsSync) {
+					// only start a new thread if we have no maximum number of
+					// threads or the maximum number of threads is not exceeded
+					if ((maxThreads == 0) || (threadList.size() < maxThreads)) {
+						thread = new DRDAConnThread(session, this, getTimeSlice(),
+													getLogConnections());
+						threadList.add(thread);
+						thread.start();
+					}
 				}
 			}
-		}
 
-		// add the session to the run queue if we didn't start a new thread
-		if (thread == null) {
-			runQueueAdd(session);
+			// add the session to the run queue if we didn't start a new thread
+			if (thread == null) {
+				runQueueAdd(session);
+			}
 		}
 	}
 
@@ -4092,6 +4135,28 @@ public final class NetworkServerControlImpl {
     int getRunQueueSize() {
         return runQueue.size();
     }
+
+    int getParkedSessionCount() {
+        return sessionSelector == null ? 0 : sessionSelector.getParkedCount();
+    }
+
+	/**
+	 * Whether connection threads should park sessions they find idle.
+	 */
+	boolean isParkingIdleSessions() {
+		return sessionSelector != null;
+	}
+
+	/**
+	 * Give an idle session to the session selector. The calling connection
+	 * thread must drop the session; it comes back through
+	 * <code>dispatchSession()</code> once the client sends its next request.
+	 *
+	 * @param session an established session with nothing left to read
+	 */
+	void parkSession(Session session) {
+		sessionSelector.park(session);
+	}
     
     int getThreadListSize() {
         return threadList.size();
@@ -278,7 +278,8 @@ class NetworkServerMBeanImpl implements NetworkServerMBean {
     public int getConnectionCount() {
         checkMonitor();
         
-        return getActiveConnectionCount() + getWaitingConnectionCount();
+        return getActiveConnectionCount() + getWaitingConnectionCount() +
+                getParkedConnectionCount();
     }
     
     public int getActiveConnectionCount() {
@@ -292,6 +293,12 @@ class NetworkServerMBeanImpl implements NetworkServerMBean {
         
         return server.getRunQueueSize();
     }
+
+    public int getParkedConnectionCount() {
+        checkMonitor();
+
+        return server.getParkedSessionCount();
+    }
     
     public int getConnectionThreadPoolSize() {
         checkMonitor();
@@ -72,6 +72,7 @@ class Session
 	protected int qryinsid;				// unique identifier for each query
 	protected LocalizedResource langUtil;		// localization information for command session
 										// client
+	protected boolean utf8Ccsid;		// whether UTF-8 was negotiated after ACCSEC
 
 	private	Hashtable	dbtable;		// Table of databases accessed in this session
 	private NetworkServerControlImpl nsctrl;        // NetworkServerControlImpl needed for logging
@@ -0,0 +1,156 @@
+/*
+ * Apache Derby is a subproject of the Apache DB project, and is licensed under
+ * the Apache License, Version 2.0 (the "License"); you may not use these files
+ * except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Splice Machine, Inc. has modified this file.
+ *
+ * All Splice Machine modifications are Copyright 2012 - 2016 Splice Machine, Inc.,
+ * and are licensed to you under the License; you may not use this file except in
+ * compliance with the License.
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ */
+
+
+package com.splicemachine.db.impl.drda;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds established sessions which have no request in flight, so that an
+ * idle connection costs a selector registration rather than a
+ * <code>DRDAConnThread</code>. When the client sends its next request the
+ * session is switched back to blocking mode and dispatched to the connection
+ * thread pool, where <code>DDMReader</code> parses the request chain as
+ * before. Parked sessions are closed by the server along with the rest of
+ * the session table.
+ */
+final class SessionSelector extends Thread {
+
+	private final NetworkServerControlImpl server;
+	private final Selector selector;
+	// sessions handed over by connection threads, registered by this thread
+	private final ConcurrentLinkedQueue<Session> pending =
+		new ConcurrentLinkedQueue<Session>();
+	private final AtomicInteger parked = new AtomicInteger();
+	private volatile boolean closed;
+
+	SessionSelector(NetworkServerControlImpl server) throws IOException {
+		NetworkServerControlImpl.setUniqueThreadName(this, "DRDASessionSelector");
+		setDaemon(true);
+		this.server = server;
+		this.selector = Selector.open();
+	}
+
+	/**
+	 * Park a session until its client sends more data. The caller must not
+	 * touch the session afterwards.
+	 *
+	 * @param session an established session whose socket has a channel
+	 */
+	void park(Session session) {
+		parked.incrementAndGet();
+		pending.add(session);
+		selector.wakeup();
+	}
+
+	/**
+	 * @return the number of sessions currently parked
+	 */
+	int getParkedCount() {
+		return parked.get();
+	}
+
+	/**
+	 * Stop selecting. Parked sessions stay in the server's session table and
+	 * are closed there.
+	 */
+	void close() {
+		closed = true;
+		selector.wakeup();
+	}
+
+	public void run() {
+		List<Session> ready = new ArrayList<Session>();
+		while (!closed) {
+			try {
+				selector.select();
+				register();
+
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					key.cancel();
+					ready.add((Session) key.attachment());
+				}
+				if (ready.isEmpty())
+					continue;
+
+				// flush the cancelled keys so the channels can block again
+				selector.selectNow();
+				for (Session session : ready) {
+					resume(session);
+				}
+			} catch (Exception e) {
+				if (!closed)
+					server.consoleExceptionPrintTrace(e);
+			} finally {
+				ready.clear();
+			}
+		}
+		try {
+			selector.close();
+		} catch (IOException ioe) {
+			// shutting down
+		}
+	}
+
+	private void register() {
+		Session session;
+		while ((session = pending.poll()) != null) {
+			SocketChannel channel = session.clientSocket.getChannel();
+			try {
+				channel.configureBlocking(false);
+				channel.register(selector, SelectionKey.OP_READ, session);
+			} catch (ClosedChannelException cce) {
+				// closed underneath us, e.g. by shutdown
+				parked.decrementAndGet();
+			} catch (IOException ioe) {
+				// let a connection thread find out about the broken socket
+				resume(session);
+			}
+		}
+	}
+
+	private void resume(Session session) {
+		parked.decrementAndGet();
+		try {
+			session.clientSocket.getChannel().configureBlocking(true);
+		} catch (IOException ioe) {
+			// the connection thread will see the failure when it reads
+		}
+		server.dispatchSession(session);
+	}
+}
@@ -270,7 +270,7 @@ public interface NetworkServerMBean {
     
     /**
      * <p>
-     * Gets the total number of current connections (waiting or active) to the
+     * Gets the total number of current connections (waiting, active or parked) to the
      * Network Server.</p>
      * <p>
      * Requires <code>SystemPermission("server", "monitor")</code> if a security
@@ -279,6 +279,7 @@ public interface NetworkServerMBean {
      * @return the number of current connections
      * @see #getActiveConnectionCount()
      * @see #getWaitingConnectionCount()
+     * @see #getParkedConnectionCount()
      */
     public int getConnectionCount();
 
@@ -324,6 +325,21 @@ public interface NetworkServerMBean {
      * @see #getDrdaTimeSlice()
      */
     public int getWaitingConnectionCount();
+
+    /**
+     * <p>
+     * Gets the number of connections which are parked because no request is
+     * in flight on them. This number will always be 0 unless
+     * <code>derby.drda.parkIdleSessions</code> is enabled. Parked connections
+     * do not hold a connection thread.</p>
+     * <p>
+     * Requires <code>SystemPermission("server", "monitor")</code> if a security
+     * manager is installed.</p>
+     * 
+     * @return the number of parked connections
+     * @see #getActiveConnectionCount()
+     */
+    public int getParkedConnectionCount();
     
     /**
      * <p>
@@ -1928,6 +1928,14 @@ public interface ResultSetFactory {
 
     public NoPutResultSet getExplainResultSet(NoPutResultSet source, Activation activation, int resultSetNumber) throws StandardException;
 
+    /**
+     * An explain result set which, when {@code analyze} is set, executes the statement and reports the
+     * runtime statistics of each operation alongside the plan.
+     */
+    public NoPutResultSet getExplainResultSet(ResultSet source, Activation activation, int resultSetNumber, boolean analyze) throws StandardException;
+
+    public NoPutResultSet getExplainResultSet(NoPutResultSet source, Activation activation, int resultSetNumber, boolean analyze) throws StandardException;
+
     /**
      * Export
      */
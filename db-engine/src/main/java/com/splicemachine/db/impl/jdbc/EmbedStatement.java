@@ -32,6 +32,8 @@ import com.splicemachine.db.iapi.sql.PreparedStatement;
 import com.splicemachine.db.iapi.sql.ResultSet;
 import com.splicemachine.db.iapi.sql.ParameterValueSet;
 import com.splicemachine.db.iapi.sql.conn.LanguageConnectionContext;
+import com.splicemachine.db.iapi.sql.dictionary.DataDictionary;
+import com.splicemachine.db.iapi.error.ExceptionSeverity;
 import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.jdbc.EngineStatement;
 import java.sql.SQLException;
@@ -39,6 +41,9 @@ import java.sql.SQLWarning;
 import java.sql.Statement;
 import java.util.Vector;
 import com.splicemachine.db.iapi.util.InterruptStatus;
+import com.splicemachine.db.impl.sql.AutoParameterizedStatement;
+import com.splicemachine.db.impl.sql.GenericStatement;
+import com.splicemachine.db.impl.sql.catalog.DataDictionaryCache;
 /*
  We would import these, but have name-overlap
 import java.sql.Statement;
@@ -607,14 +612,19 @@ public class EmbedStatement extends ConnectionChild implements EngineStatement {
             SQLText = sql;
 
             try {
-                Activation activation;
+                Activation activation = null;
                 try {
-                    PreparedStatement preparedStatement = lcc.prepareInternalStatement
-                            (lcc.getDefaultSchema(), sql, resultSetConcurrency ==
-                                    java.sql.ResultSet.CONCUR_READ_ONLY, false);
-                    activation =
-                            preparedStatement.getActivation(lcc, resultSetType ==
-                                    java.sql.ResultSet.TYPE_SCROLL_INSENSITIVE);
+                    boolean forReadOnly = resultSetConcurrency == java.sql.ResultSet.CONCUR_READ_ONLY;
+                    boolean scrollInsensitive = resultSetType == java.sql.ResultSet.TYPE_SCROLL_INSENSITIVE;
+                    DataDictionary dd = lcc.getDataDictionary();
+                    if (dd != null && dd.getDataDictionaryCache().isAutoParameterize())
+                        activation = getAutoParameterizedActivation(sql, forReadOnly, scrollInsensitive,
+                                dd.getDataDictionaryCache());
+                    if (activation == null) {
+                        PreparedStatement preparedStatement = lcc.prepareInternalStatement
+                                (lcc.getDefaultSchema(), sql, forReadOnly, false);
+                        activation = preparedStatement.getActivation(lcc, scrollInsensitive);
+                    }
                     checkRequiresCallableStatement(activation);
                     InterruptStatus.restoreIntrFlagIfSeen(lcc);
                 } catch (Throwable t) {
@@ -636,6 +646,51 @@ public class EmbedStatement extends ConnectionChild implements EngineStatement {
         }
     }
 
+    /**
+     * Compile the statement with its literals replaced by parameters, so that statements
+     * which differ only in their literal values share one cached plan, and bind the
+     * literals to a new activation.
+     *
+     * @return the bound activation, or null if the statement should be compiled as written
+     */
+    private Activation getAutoParameterizedActivation(String sql, boolean forReadOnly,
+                                                      boolean scrollInsensitive,
+                                                      DataDictionaryCache ddCache) throws StandardException, SQLException {
+        AutoParameterizedStatement parameterized = AutoParameterizedStatement.parameterize(sql);
+        if (parameterized == null)
+            return null;
+
+        GenericStatement gs = new GenericStatement(lcc.getDefaultSchema(), parameterized.getText(), forReadOnly);
+        if (ddCache.autoParameterizeFailureCacheFind(gs)) {
+            ddCache.recordAutoParameterizeFallback();
+            return null;
+        }
+
+        PreparedStatement preparedStatement;
+        try {
+            preparedStatement = lcc.prepareInternalStatement
+                    (lcc.getDefaultSchema(), parameterized.getText(), forReadOnly, false);
+        } catch (StandardException se) {
+            if (se.getSeverity() > ExceptionSeverity.STATEMENT_SEVERITY)
+                throw se;
+            // The statement as written reports its own errors. Clean up after the failed
+            // compile as for any other statement error, but leave the transaction open.
+            localConn.handleException(se, false);
+            ddCache.autoParameterizeFailureCacheAdd(gs);
+            ddCache.recordAutoParameterizeFallback();
+            return null;
+        }
+
+        Activation activation = preparedStatement.getActivation(lcc, scrollInsensitive);
+        if (!parameterized.bind(preparedStatement, activation)) {
+            activation.close();
+            ddCache.recordAutoParameterizeFallback();
+            return null;
+        }
+        ddCache.recordAutoParameterized();
+        return activation;
+    }
+
     /**
      * JDBC 3.0
      * <p/>
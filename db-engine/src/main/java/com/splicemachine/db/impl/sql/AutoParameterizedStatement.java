@@ -0,0 +1,472 @@
+/*
+ * Apache Derby is a subproject of the Apache DB project, and is licensed under
+ * the Apache License, Version 2.0 (the "License"); you may not use these files
+ * except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Splice Machine, Inc. has modified this file.
+ *
+ * All Splice Machine modifications are Copyright 2012 - 2016 Splice Machine, Inc.,
+ * and are licensed to you under the License; you may not use this file except in
+ * compliance with the License.
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.splicemachine.db.impl.sql;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.Activation;
+import com.splicemachine.db.iapi.sql.ParameterValueSet;
+import com.splicemachine.db.iapi.sql.PreparedStatement;
+import com.splicemachine.db.iapi.types.DataTypeDescriptor;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.iapi.types.SQLChar;
+import com.splicemachine.db.iapi.types.SQLDecimal;
+import com.splicemachine.db.iapi.types.SQLDouble;
+import com.splicemachine.db.iapi.types.SQLInteger;
+import com.splicemachine.db.iapi.types.SQLLongint;
+
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A statement whose literals have been replaced with parameter markers, along with the values
+ * of those literals.
+ * <p>
+ * Statements which differ only in their literal values normalize to the same text, and so share
+ * one entry in the statement cache, which is invalidated through the usual dependencies. Only
+ * literals whose type is decided by their surroundings are replaced: a complete operand on the
+ * right of a comparison, an element of an IN list, a BETWEEN bound and a value of a single row
+ * INSERT. Any other literal (in a select list, in arithmetic, as a function argument...) is left
+ * in place, since turning it into a parameter could change the type of its expression or make
+ * the statement invalid.
+ */
+public final class AutoParameterizedStatement{
+    private static final int IDENTIFIER=0;
+    private static final int DELIMITED_IDENTIFIER=1;
+    private static final int NUMBER=2;
+    private static final int STRING=3;
+    private static final int HEX_STRING=4;
+    private static final int SYMBOL=5;
+    private static final int PARAMETER=6;
+
+    /*
+     * Derby's limits on literals. Longer literals are left in place, for the parser to reject
+     */
+    private static final int MAX_DECIMAL_PRECISION=31;
+    private static final int MAX_DOUBLE_LENGTH=30;
+    private static final int MAX_STRING_LENGTH=32672;
+
+    private static final Set<String> STATEMENT_KEYWORDS=set("SELECT","INSERT","UPDATE","DELETE");
+    private static final Set<String> QUERY_KEYWORDS=set("SELECT","VALUES","WITH");
+    private static final Set<String> COMPARISONS=set("=","<",">","<=",">=","<>","!=");
+    private static final Set<String> TWO_CHARACTER_SYMBOLS=set("<=",">=","<>","!=","||");
+    /*
+     * Keywords which may directly follow a complete operand of a comparison
+     */
+    private static final Set<String> OPERAND_TERMINATORS=set("AND","OR","WHERE","ON","JOIN","INNER","LEFT",
+            "RIGHT","FULL","CROSS","NATURAL","GROUP","HAVING","ORDER","UNION","EXCEPT","INTERSECT","FETCH",
+            "OFFSET","FOR","WITH","WHEN","THEN","ELSE","END");
+
+    private final String text;
+    private final DataValueDescriptor[] values;
+    private final int[] jdbcTypes;
+
+    private AutoParameterizedStatement(String text,DataValueDescriptor[] values,int[] jdbcTypes){
+        this.text=text;
+        this.values=values;
+        this.jdbcTypes=jdbcTypes;
+    }
+
+    /**
+     * @return the statement text, with the replaced literals as parameter markers
+     */
+    public String getText(){
+        return text;
+    }
+
+    /**
+     * @return the values of the replaced literals, in parameter order
+     */
+    public DataValueDescriptor[] getValues(){
+        return values;
+    }
+
+    /**
+     * Replace the literals of a statement with parameter markers.
+     *
+     * @param sql the statement text
+     * @return the parameterized statement, or null if the statement is not a query or DML statement,
+     * already has parameters, or has no literal which can be replaced
+     */
+    public static AutoParameterizedStatement parameterize(String sql){
+        List<Token> tokens=tokenize(sql);
+        if(tokens==null)
+            return null;
+        int first=0;
+        while(first<tokens.size() && tokens.get(first).isSymbol("("))
+            first++;
+        if(first==tokens.size() || !STATEMENT_KEYWORDS.contains(tokens.get(first).keyword()))
+            return null;
+        for(Token token : tokens){
+            if(token.type==PARAMETER)
+                return null;
+        }
+
+        //the token index just past the literal which starts at each position, or 0
+        int[] literalEnds=new int[tokens.size()];
+        for(int i=1;i<tokens.size();i++){
+            Token token=tokens.get(i);
+            if(token.type==SYMBOL && COMPARISONS.contains(token.text)){
+                if(!endsOperand(tokens.get(i-1)))
+                    continue;
+                int end=literalEnd(tokens,i+1);
+                if(end>0 && followsOperand(tokens,end))
+                    literalEnds[i+1]=end;
+            }else if(token.isKeyword("IN") && i+1<tokens.size() && tokens.get(i+1).isSymbol("(")){
+                int close=closingParen(tokens,i+1);
+                if(close>0)
+                    markElements(tokens,i+1,close,literalEnds);
+            }else if(token.isKeyword("BETWEEN")){
+                int lowEnd=literalEnd(tokens,i+1);
+                if(lowEnd<0 || lowEnd==tokens.size() || !tokens.get(lowEnd).isKeyword("AND"))
+                    continue;
+                int highEnd=literalEnd(tokens,lowEnd+1);
+                if(highEnd>0 && followsOperand(tokens,highEnd)){
+                    literalEnds[i+1]=lowEnd;
+                    literalEnds[lowEnd+1]=highEnd;
+                }
+            }
+        }
+        if(tokens.get(first).isKeyword("INSERT"))
+            markInsertValues(tokens,first,literalEnds);
+
+        StringBuilder text=new StringBuilder(sql.length());
+        List<DataValueDescriptor> values=new ArrayList<>();
+        int[] jdbcTypes=new int[tokens.size()];
+        int copied=0;
+        for(int i=0;i<tokens.size();i++){
+            if(literalEnds[i]==0)
+                continue;
+            Token literal=tokens.get(literalEnds[i]-1);
+            boolean negative=literalEnds[i]-i==2 && tokens.get(i).isSymbol("-");
+            DataValueDescriptor value=literal.type==STRING?stringValue(literal):numericValue(literal,negative);
+            if(value==null)
+                continue;
+            jdbcTypes[values.size()]=literal.type==STRING?Types.CHAR:numericType(value);
+            values.add(value);
+            text.append(sql,copied,tokens.get(i).start).append('?');
+            copied=literal.end;
+            i=literalEnds[i]-1;
+        }
+        if(values.isEmpty())
+            return null;
+        text.append(sql,copied,sql.length());
+        return new AutoParameterizedStatement(text.toString(),
+                values.toArray(new DataValueDescriptor[values.size()]),
+                Arrays.copyOf(jdbcTypes,values.size()));
+    }
+
+    /**
+     * Set the literal values as the parameters of an activation of the parameterized statement.
+     *
+     * @param ps the compiled parameterized statement
+     * @param activation an activation of {@code ps}
+     * @return false if a literal cannot be held exactly by the type inferred for its parameter,
+     * in which case the statement must be compiled as written
+     */
+    public boolean bind(PreparedStatement ps,Activation activation){
+        DataTypeDescriptor[] types=ps.getParameterTypes();
+        ParameterValueSet pvs=activation.getParameterValueSet();
+        if(types==null || pvs==null || types.length!=values.length || pvs.getParameterCount()!=values.length)
+            return false;
+        try{
+            for(int i=0;i<values.length;i++){
+                DataTypeDescriptor type=types[i];
+                if(type==null || !type.comparable(DataTypeDescriptor.getBuiltInDataTypeDescriptor(jdbcTypes[i],false)))
+                    return false;
+                DataValueDescriptor parameter=pvs.getParameterForSet(i);
+                type.normalize(values[i],parameter);
+                if(parameter.compare(values[i])!=0)
+                    return false;
+            }
+        }catch(StandardException se){
+            //the literal does not convert to the parameter's type
+            return false;
+        }
+        return true;
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    /**
+     * @return the index just past the literal (optionally signed, if numeric) starting at {@code i}, or -1
+     */
+    private static int literalEnd(List<Token> tokens,int i){
+        if(i>=tokens.size())
+            return -1;
+        Token token=tokens.get(i);
+        if(token.type==NUMBER || token.type==STRING)
+            return i+1;
+        if((token.isSymbol("-") || token.isSymbol("+")) && i+1<tokens.size() && tokens.get(i+1).type==NUMBER)
+            return i+2;
+        return -1;
+    }
+
+    private static boolean endsOperand(Token token){
+        return (token.type==IDENTIFIER && !token.isKeyword("NULL"))
+                || token.type==DELIMITED_IDENTIFIER
+                || token.isSymbol(")");
+    }
+
+    private static boolean followsOperand(List<Token> tokens,int i){
+        if(i==tokens.size())
+            return true;
+        Token token=tokens.get(i);
+        return token.isSymbol(")") || token.isSymbol(",") || token.isSymbol(";")
+                || OPERAND_TERMINATORS.contains(token.keyword());
+    }
+
+    /**
+     * @return the index of the parenthesis closing the one at {@code open}, or -1
+     */
+    private static int closingParen(List<Token> tokens,int open){
+        int depth=0;
+        for(int i=open;i<tokens.size();i++){
+            Token token=tokens.get(i);
+            if(token.isSymbol("("))
+                depth++;
+            else if(token.isSymbol(")") && --depth==0)
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Mark the elements of a parenthesized list which consist of a single literal.
+     */
+    private static void markElements(List<Token> tokens,int open,int close,int[] literalEnds){
+        if(QUERY_KEYWORDS.contains(tokens.get(open+1).keyword()))
+            return;
+        int elementStart=open+1;
+        int depth=0;
+        for(int i=open+1;i<=close;i++){
+            Token token=tokens.get(i);
+            if(token.isSymbol("("))
+                depth++;
+            else if(token.isSymbol(")") && i<close)
+                depth--;
+            else if(depth==0 && (i==close || token.isSymbol(","))){
+                if(literalEnd(tokens,elementStart)==i)
+                    literalEnds[elementStart]=i;
+                elementStart=i+1;
+            }
+        }
+    }
+
+    /**
+     * Mark the literal values of an INSERT with a single row VALUES clause.
+     */
+    private static void markInsertValues(List<Token> tokens,int first,int[] literalEnds){
+        int depth=0;
+        for(int i=first;i<tokens.size();i++){
+            Token token=tokens.get(i);
+            if(token.isSymbol("("))
+                depth++;
+            else if(token.isSymbol(")"))
+                depth--;
+            else if(depth==0 && token.isKeyword("VALUES")){
+                if(i+1==tokens.size() || !tokens.get(i+1).isSymbol("("))
+                    return;
+                int close=closingParen(tokens,i+1);
+                if(close<0)
+                    return;
+                int rest=tokens.size()-close-1;
+                if(rest==0 || (rest==1 && tokens.get(close+1).isSymbol(";")))
+                    markElements(tokens,i+1,close,literalEnds);
+                return;
+            }
+        }
+    }
+
+    private static DataValueDescriptor stringValue(Token literal){
+        if(literal.text.length()>MAX_STRING_LENGTH)
+            return null;
+        return new SQLChar(literal.text);
+    }
+
+    private static DataValueDescriptor numericValue(Token literal,boolean negative){
+        String value=negative?"-"+literal.text:literal.text;
+        try{
+            if(literal.text.indexOf('E')>=0 || literal.text.indexOf('e')>=0){
+                if(literal.text.length()>MAX_DOUBLE_LENGTH)
+                    return null;
+                double d=Double.parseDouble(value);
+                return Double.isInfinite(d)?null:new SQLDouble(d);
+            }
+            if(literal.text.indexOf('.')>=0){
+                BigDecimal d=new BigDecimal(value);
+                return d.precision()>MAX_DECIMAL_PRECISION?null:new SQLDecimal(d);
+            }
+            long l=Long.parseLong(value);
+            if(l>=Integer.MIN_VALUE && l<=Integer.MAX_VALUE)
+                return new SQLInteger((int)l);
+            return new SQLLongint(l);
+        }catch(NumberFormatException | StandardException e){
+            //too large for a BIGINT, or otherwise out of range; leave it to the parser
+            return null;
+        }
+    }
+
+    private static int numericType(DataValueDescriptor value){
+        if(value instanceof SQLInteger)
+            return Types.INTEGER;
+        if(value instanceof SQLLongint)
+            return Types.BIGINT;
+        if(value instanceof SQLDecimal)
+            return Types.DECIMAL;
+        return Types.DOUBLE;
+    }
+
+    /**
+     * Split a statement into tokens, skipping whitespace and comments.
+     *
+     * @return the tokens, or null if the statement has an unterminated string, identifier or comment
+     */
+    private static List<Token> tokenize(String sql){
+        List<Token> tokens=new ArrayList<>();
+        int length=sql.length();
+        int i=0;
+        while(i<length){
+            char c=sql.charAt(i);
+            if(Character.isWhitespace(c)){
+                i++;
+            }else if(c=='-' && i+1<length && sql.charAt(i+1)=='-'){
+                while(i<length && sql.charAt(i)!='\n' && sql.charAt(i)!='\r')
+                    i++;
+            }else if(c=='/' && i+1<length && sql.charAt(i+1)=='*'){
+                int depth=0;
+                do{
+                    if(sql.startsWith("/*",i)){
+                        depth++;
+                        i+=2;
+                    }else if(sql.startsWith("*/",i)){
+                        depth--;
+                        i+=2;
+                    }else
+                        i++;
+                }while(depth>0 && i<length);
+                if(depth>0)
+                    return null;
+            }else if(c=='\'' || c=='"'){
+                StringBuilder value=new StringBuilder();
+                int start=i++;
+                while(true){
+                    if(i==length)
+                        return null;
+                    char next=sql.charAt(i++);
+                    if(next==c){
+                        if(i==length || sql.charAt(i)!=c)
+                            break;
+                        i++;
+                    }
+                    value.append(next);
+                }
+                int type=c=='"'?DELIMITED_IDENTIFIER:STRING;
+                if(type==STRING && !tokens.isEmpty()){
+                    Token previous=tokens.get(tokens.size()-1);
+                    if(previous.end==start && previous.isKeyword("X")){
+                        tokens.remove(tokens.size()-1);
+                        start=previous.start;
+                        type=HEX_STRING;
+                    }
+                }
+                tokens.add(new Token(type,start,i,value.toString()));
+            }else if(Character.isDigit(c) || (c=='.' && i+1<length && Character.isDigit(sql.charAt(i+1)))){
+                int start=i;
+                while(i<length && Character.isDigit(sql.charAt(i)))
+                    i++;
+                if(i<length && sql.charAt(i)=='.'){
+                    i++;
+                    while(i<length && Character.isDigit(sql.charAt(i)))
+                        i++;
+                }
+                if(i+1<length && (sql.charAt(i)=='E' || sql.charAt(i)=='e')){
+                    int exponent=i+1;
+                    if(exponent+1<length && (sql.charAt(exponent)=='+' || sql.charAt(exponent)=='-'))
+                        exponent++;
+                    if(exponent<length && Character.isDigit(sql.charAt(exponent))){
+                        i=exponent;
+                        while(i<length && Character.isDigit(sql.charAt(i)))
+                            i++;
+                    }
+                }
+                tokens.add(new Token(NUMBER,start,i,sql.substring(start,i)));
+            }else if(Character.isLetter(c) || c=='_'){
+                int start=i;
+                while(i<length && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i)=='_'))
+                    i++;
+                tokens.add(new Token(IDENTIFIER,start,i,sql.substring(start,i).toUpperCase(Locale.ENGLISH)));
+            }else if(c=='?'){
+                tokens.add(new Token(PARAMETER,i,i+1,"?"));
+                i++;
+            }else{
+                int end=i+2<=length && TWO_CHARACTER_SYMBOLS.contains(sql.substring(i,i+2))?i+2:i+1;
+                tokens.add(new Token(SYMBOL,i,end,sql.substring(i,end)));
+                i=end;
+            }
+        }
+        return tokens;
+    }
+
+    private static Set<String> set(String... elements){
+        return new HashSet<>(Arrays.asList(elements));
+    }
+
+    private static class Token{
+        final int type;
+        final int start;
+        final int end;
+        /*
+         * upper cased for identifiers, unescaped for strings and delimited identifiers
+         */
+        final String text;
+
+        Token(int type,int start,int end,String text){
+            this.type=type;
+            this.start=start;
+            this.end=end;
+            this.text=text;
+        }
+
+        boolean isSymbol(String symbol){
+            return type==SYMBOL && text.equals(symbol);
+        }
+
+        boolean isKeyword(String keyword){
+            return type==IDENTIFIER && text.equals(keyword);
+        }
+
+        String keyword(){
+            return type==IDENTIFIER?text:null;
+        }
+    }
+}
@@ -194,6 +194,10 @@ public class GenericStatement implements Statement{
 
     public String getCompilationSchema(){ return compilationSchema.getDescriptorName(); }
 
+    boolean isForReadOnly(){ return isForReadOnly; }
+
+    int getPrepareIsolationLevel(){ return prepareIsolationLevel; }
+
     /**
      * Return the {@link PreparedStatement} currently associated with this
      * statement.
@@ -389,7 +393,21 @@ public class GenericStatement implements Statement{
                 cc.setReliability(CompilerContext.INTERNAL_SQL_LEGAL);
             }
 
+            DataDictionary dd=lcc.getDataDictionary();
+            PersistentPlanStore planStore=null;
+            String planVersion=null;
+            if(cacheMe && !internalSQL && dd!=null){
+                planStore=dd.getDataDictionaryCache().getPlanStore();
+                if(planStore!=null)
+                    planVersion=planStore.compileVersion(lcc);
+            }
+
+            long compileStart=System.nanoTime();
             fourPhasePrepare(lcc,paramDefaults,timestamps,beginTimestamp,foundInCache,cc);
+            if(dd!=null)
+                dd.getDataDictionaryCache().recordStatementCompile(System.nanoTime()-compileStart);
+            if(planVersion!=null)
+                planStore.save(this,preparedStmt,planVersion,lcc);
         }catch(StandardException se){
             if(foundInCache)
                 ((GenericLanguageConnectionContext)lcc).removeStatement(this);
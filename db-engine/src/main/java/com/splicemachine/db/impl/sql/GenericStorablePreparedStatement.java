@@ -117,8 +117,10 @@ public class GenericStorablePreparedStatement extends GenericPreparedStatement
      */
     @Override
     public void loadGeneratedClass() throws StandardException {
-        LanguageConnectionContext lcc = (LanguageConnectionContext) ContextService.getContext
-                (LanguageConnectionContext.CONTEXT_ID);
+        loadGeneratedClass((LanguageConnectionContext) ContextService.getContext(LanguageConnectionContext.CONTEXT_ID));
+    }
+
+    void loadGeneratedClass(LanguageConnectionContext lcc) throws StandardException {
         ClassFactory classFactory = lcc.getLanguageConnectionFactory().getClassFactory();
         GeneratedClass gc = classFactory.loadGeneratedClass(className, byteCode);
        /* No special try catch logic to write out bad classes here.  We don't expect any problems, and in any
@@ -126,6 +128,23 @@ public class GenericStorablePreparedStatement extends GenericPreparedStatement
         setActivationClass(gc);
     }
 
+    /**
+     * Finish a statement which was read back from its external form outside of the data dictionary: restore
+     * the cursor state which compilation derives from the cursor info, load the activation class and mark
+     * the statement valid.
+     */
+    void completeLoad(LanguageConnectionContext lcc) throws StandardException {
+        CursorInfo cursorInfo = (CursorInfo) getCursorInfo();
+        if (resultDesc != null && cursorInfo != null) {
+            targetTable = cursorInfo.targetTable;
+            targetColumns = cursorInfo.targetColumns;
+            updateColumns = cursorInfo.updateColumns;
+            updateMode = cursorInfo.updateMode;
+        }
+        loadGeneratedClass(lcc);
+        setValid();
+    }
+
     @Override
     public ExecPreparedStatement getClone() throws StandardException {
         GenericStorablePreparedStatement clone = new GenericStorablePreparedStatement(statement);
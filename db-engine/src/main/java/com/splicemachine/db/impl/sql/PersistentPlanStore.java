@@ -0,0 +1,301 @@
+/*
+ * Apache Derby is a subproject of the Apache DB project, and is licensed under
+ * the Apache License, Version 2.0 (the "License"); you may not use these files
+ * except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Splice Machine, Inc. has modified this file.
+ *
+ * All Splice Machine modifications are Copyright 2012 - 2016 Splice Machine, Inc.,
+ * and are licensed to you under the License; you may not use this file except in
+ * compliance with the License.
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.splicemachine.db.impl.sql;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.services.io.ArrayUtil;
+import com.splicemachine.db.iapi.services.io.FormatIdInputStream;
+import com.splicemachine.db.iapi.services.io.FormatIdOutputStream;
+import com.splicemachine.db.iapi.sql.conn.LanguageConnectionContext;
+import com.splicemachine.db.iapi.sql.depend.DependencyManager;
+import com.splicemachine.db.iapi.sql.depend.Provider;
+import com.splicemachine.db.iapi.sql.depend.ProviderInfo;
+import com.splicemachine.db.iapi.sql.dictionary.DataDictionary;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps compiled statements (their plan objects and generated activation class bytes) on local disk, so
+ * that a restarted server can fill its statement cache without compiling again.
+ * <p>
+ * Each entry is a file named after the statement's cache identity (compilation schema, text, read only flag
+ * and isolation level) and is stamped with the version of the data dictionary it was compiled against. An
+ * entry is only written when the dictionary version did not move while the statement compiled, and is only
+ * read back while the version is unchanged, so any DDL on the cluster retires every entry written before it.
+ * Entries are read back through the same external form as stored prepared statements, and their providers
+ * are re-registered with the dependency manager so that later DDL invalidates them like any other plan.
+ * <p>
+ * Statements compiled under SQL authorization are never persisted, since the permissions they require are
+ * not part of their external form.
+ */
+public class PersistentPlanStore {
+    private static final Logger LOG = Logger.getLogger(PersistentPlanStore.class);
+    private static final String ENTRY_SUFFIX = ".plan";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Source of the data dictionary version which entries are stamped with. The version is asked for on every
+     * statement cache miss, so it should be cheap to get; it covers statistics as well as schema changes,
+     * since both are published as DDL changes.
+     */
+    public interface VersionSource {
+        /**
+         * @return a token which changes whenever the data dictionary (including its statistics) does, or null if
+         * none is available
+         */
+        String currentVersion() throws StandardException;
+    }
+
+    private final File directory;
+    private final VersionSource versionSource;
+    private final int maxEntries;
+    private final Set<String> entries = ConcurrentHashMap.newKeySet();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong saves = new AtomicLong();
+
+    public PersistentPlanStore(File directory,VersionSource versionSource,int maxEntries) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("Unable to create plan directory " + directory);
+        this.directory = directory;
+        this.versionSource = versionSource;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Index the entries already on disk, discarding those written against an older data dictionary.
+     *
+     * @return the number of entries which can be loaded
+     */
+    public int warm() throws StandardException {
+        String version = versionSource.currentVersion();
+        File[] files = directory.listFiles();
+        if (files == null)
+            return 0;
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(TEMP_SUFFIX)) {
+                // left behind by a save which did not finish
+                delete(file);
+                continue;
+            }
+            if (!name.endsWith(ENTRY_SUFFIX))
+                continue;
+            if (version != null && version.equals(readVersion(file)))
+                entries.add(name);
+            else
+                delete(file);
+        }
+        if (LOG.isInfoEnabled())
+            LOG.info("Found " + entries.size() + " compiled plans in " + directory);
+        return entries.size();
+    }
+
+    /**
+     * @return the version a statement compiled now would be stamped with, or null if the statement should
+     * be neither saved nor loaded
+     */
+    public String compileVersion(LanguageConnectionContext lcc) throws StandardException {
+        if (lcc.usesSqlAuthorization())
+            return null;
+        DataDictionary dd = lcc.getDataDictionary();
+        if (dd == null || !dd.canUseCache(null))
+            return null;
+        return versionSource.currentVersion();
+    }
+
+    /**
+     * Write a freshly compiled statement. Failures are logged, since the statement itself is usable.
+     *
+     * @param version the version returned by {@link #compileVersion} before the statement was compiled
+     */
+    public void save(GenericStatement statement,
+                     GenericStorablePreparedStatement ps,
+                     String version,
+                     LanguageConnectionContext lcc) {
+        if (version == null || ps.referencesSessionSchema() || ps.getCompileTimeWarnings() != null)
+            return;
+        List requiredPermissions = ps.getRequiredPermissionsList();
+        if (requiredPermissions != null && !requiredPermissions.isEmpty())
+            return;
+        String name = entryName(statement);
+        if (!entries.contains(name) && entries.size() >= maxEntries)
+            return;
+
+        File temp = null;
+        try {
+            // a DDL change which happened while we compiled may not be reflected in the plan
+            if (!version.equals(compileVersion(lcc)))
+                return;
+            ProviderInfo[] providers = lcc.getDataDictionary().getDependencyManager().getPersistentProviderInfos(ps);
+
+            temp = File.createTempFile(name, TEMP_SUFFIX, directory);
+            try (FormatIdOutputStream out = new FormatIdOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                out.writeUTF(version);
+                writeIdentity(out, statement);
+                ArrayUtil.writeArray(out, providers);
+                ps.writeExternal(out);
+            }
+            Files.move(temp.toPath(), new File(directory, name).toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            temp = null;
+            entries.add(name);
+            saves.incrementAndGet();
+        } catch (IOException | StandardException | RuntimeException e) {
+            LOG.warn("Unable to persist compiled plan for " + statement, e);
+        } finally {
+            if (temp != null)
+                delete(temp);
+        }
+    }
+
+    /**
+     * Read back a statement compiled by this or an earlier server.
+     *
+     * @return a valid prepared statement whose dependencies are registered, or null if there is no usable entry
+     */
+    public GenericStorablePreparedStatement load(GenericStatement statement,LanguageConnectionContext lcc) throws StandardException {
+        String name = entryName(statement);
+        if (!entries.contains(name))
+            return null;
+        String version = compileVersion(lcc);
+        if (version == null)
+            return null;
+
+        DataDictionary dd = lcc.getDataDictionary();
+        DependencyManager dm = dd.getDependencyManager();
+        File file = new File(directory, name);
+        GenericStorablePreparedStatement ps = null;
+        try (FormatIdInputStream in = new FormatIdInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (!version.equals(in.readUTF())) {
+                discard(name);
+                return null;
+            }
+            if (!matchesIdentity(in, statement))
+                return null; // a different statement which happens to share the name
+            Object[] providers = ArrayUtil.readObjectArray(in);
+            ps = new GenericStorablePreparedStatement(statement);
+            ps.readExternal(in);
+
+            if (providers != null) {
+                for (Object o : providers) {
+                    ProviderInfo info = (ProviderInfo) o;
+                    Provider provider = (Provider) info.getDependableFinder().getDependable(dd, info.getObjectId());
+                    if (provider == null) {
+                        dm.clearDependencies(lcc, ps);
+                        discard(name);
+                        return null;
+                    }
+                    dm.addDependency(ps, provider, lcc.getContextManager());
+                }
+            }
+            ps.completeLoad(lcc);
+            loads.incrementAndGet();
+            return ps;
+        } catch (IOException | ClassNotFoundException | StandardException | RuntimeException e) {
+            LOG.warn("Unable to load compiled plan for " + statement + ", discarding it", e);
+            if (ps != null)
+                dm.clearDependencies(lcc, ps);
+            discard(name);
+            return null;
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getLoads() {
+        return loads.get();
+    }
+
+    public long getSaves() {
+        return saves.get();
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    private static String entryName(GenericStatement statement) {
+        StringBuilder key = new StringBuilder();
+        key.append(statement.getCompilationSchema()).append('\u0000')
+                .append(statement.isForReadOnly()).append('\u0000')
+                .append(statement.getPrepareIsolationLevel()).append('\u0000')
+                .append(statement.getSource());
+        return UUID.nameUUIDFromBytes(key.toString().getBytes(StandardCharsets.UTF_8)) + ENTRY_SUFFIX;
+    }
+
+    private static void writeIdentity(FormatIdOutputStream out,GenericStatement statement) throws IOException {
+        out.writeUTF(statement.getCompilationSchema());
+        out.writeBoolean(statement.isForReadOnly());
+        out.writeInt(statement.getPrepareIsolationLevel());
+        byte[] text = statement.getSource().getBytes(StandardCharsets.UTF_8);
+        out.writeInt(text.length);
+        out.write(text);
+    }
+
+    private static boolean matchesIdentity(FormatIdInputStream in,GenericStatement statement) throws IOException {
+        if (!statement.getCompilationSchema().equals(in.readUTF())
+                || statement.isForReadOnly() != in.readBoolean()
+                || statement.getPrepareIsolationLevel() != in.readInt())
+            return false;
+        byte[] text = new byte[in.readInt()];
+        in.readFully(text);
+        return statement.getSource().equals(new String(text, StandardCharsets.UTF_8));
+    }
+
+    private static String readVersion(File file) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            return in.readUTF();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void discard(String name) {
+        entries.remove(name);
+        delete(new File(directory, name));
+    }
+
+    private static void delete(File file) {
+        if (!file.delete() && file.exists())
+            LOG.warn("Unable to delete compiled plan " + file);
+    }
+}
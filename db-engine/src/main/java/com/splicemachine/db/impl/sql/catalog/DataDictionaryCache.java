@@ -39,6 +39,7 @@ import com.splicemachine.db.iapi.store.access.TransactionController;
 import com.splicemachine.db.iapi.store.access.conglomerate.Conglomerate;
 import com.splicemachine.db.impl.sql.GenericStatement;
 import com.splicemachine.db.impl.sql.GenericStorablePreparedStatement;
+import com.splicemachine.db.impl.sql.PersistentPlanStore;
 import org.apache.log4j.Logger;
 import org.spark_project.guava.cache.Cache;
 import org.spark_project.guava.cache.CacheBuilder;
@@ -48,6 +49,8 @@ import org.spark_project.guava.cache.RemovalNotification;
 import javax.management.MXBean;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  *
@@ -65,12 +68,23 @@ public class DataDictionaryCache {
     private Cache<UUID, SPSDescriptor> storedPreparedStatementCache;
     private Cache<Long,Conglomerate> conglomerateCache;
     private Cache<GenericStatement,GenericStorablePreparedStatement> statementCache;
+    private Cache<GenericStatement,Boolean> autoParameterizeFailureCache;
     private Cache<String,SchemaDescriptor> schemaCache;
     private Cache<String,Optional<RoleGrantDescriptor>> roleCache;
     private int tdCacheSize;
     private int stmtCacheSize;
     private int permissionsCacheSize;
+    private boolean autoParameterize;
     private DataDictionary dd;
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+    private final AtomicLong statementCompiles = new AtomicLong();
+    private final AtomicLong statementCompileNanos = new AtomicLong();
+    private final AtomicLong autoParameterizedExecutions = new AtomicLong();
+    private final AtomicLong autoParameterizeFallbacks = new AtomicLong();
+    private final AtomicLong ddlCacheBypasses = new AtomicLong();
+    private final DataDictionaryCacheIFace management = new DataDictionaryCacheManagement();
+    private volatile PersistentPlanStore planStore;
 
 
     public DataDictionaryCache(Properties startParams,DataDictionary dd) throws StandardException {
@@ -90,6 +104,9 @@ public class DataDictionaryCache {
         permissionsCacheSize=PropertyUtil.intPropertyValue(Property.LANG_PERMISSIONS_CACHE_SIZE, value,
                 0, Integer.MAX_VALUE, Property.LANG_PERMISSIONS_CACHE_SIZE_DEFAULT);
 
+        value=PropertyUtil.getPropertyFromSet(startParams,Property.LANG_AUTO_PARAMETERIZE);
+        autoParameterize=value==null?Property.LANG_AUTO_PARAMETERIZE_DEFAULT:Boolean.parseBoolean(value.trim());
+
         RemovalListener<Object,Dependent> dependentInvalidator = new RemovalListener<Object, Dependent>() {
             @Override
             public void onRemoval(RemovalNotification<Object, Dependent> removalNotification) {
@@ -112,6 +129,7 @@ public class DataDictionaryCache {
         partitionStatisticsCache = CacheBuilder.newBuilder().maximumSize(8092).build();
         conglomerateCache = CacheBuilder.newBuilder().maximumSize(1024).build();
         statementCache = CacheBuilder.newBuilder().maximumSize(1024).removalListener(dependentInvalidator).build();
+        autoParameterizeFailureCache = CacheBuilder.newBuilder().maximumSize(1024).build();
         schemaCache = CacheBuilder.newBuilder().maximumSize(1024).build();
         roleCache = CacheBuilder.newBuilder().maximumSize(100).build();
         permissionsCache=CacheBuilder.newBuilder().maximumSize(permissionsCacheSize).build();
@@ -119,7 +137,7 @@ public class DataDictionaryCache {
     }
 
     public TableDescriptor nameTdCacheFind(TableKey tableKey) throws StandardException {
-        if (!dd.canUseCache(null))
+        if (!canUseCache(null))
             return null;
         if (LOG.isDebugEnabled())
             LOG.debug("nameTdCacheFind " + tableKey);
@@ -127,7 +145,7 @@ public class DataDictionaryCache {
     }
 
     public void nameTdCacheAdd(TableKey tableKey, TableDescriptor td) throws StandardException {
-        if (!dd.canUseCache(null))
+        if (!canUseCache(null))
             return;
         if (LOG.isDebugEnabled())
             LOG.debug("nameTdCacheAdd " + tableKey + " : " + td);
@@ -143,7 +161,7 @@ public class DataDictionaryCache {
     }
 
     public TableDescriptor oidTdCacheFind(UUID tableID) throws StandardException {
-        if (!dd.canUseCache(null))
+        if (!canUseCache(null))
             return null;
         TableDescriptor td =  oidTdCache.getIfPresent(tableID);
         if (LOG.isDebugEnabled())
@@ -154,7 +172,7 @@ public class DataDictionaryCache {
     }
 
     public void oidTdCacheAdd(UUID tableID, TableDescriptor td) throws StandardException {
-        if (!dd.canUseCache(null))
+        if (!canUseCache(null))
             return;
         if (LOG.isDebugEnabled())
             LOG.debug("oidTdCacheAdd " + tableID + " : " + td);
@@ -171,7 +189,7 @@ public class DataDictionaryCache {
 
 
     public List<PartitionStatisticsDescriptor> partitionStatisticsCacheFind(Long conglomID) throws StandardException {
-        if (!dd.canUseCache(null))
+        if (!canUseCache(null))
             return null;
         if (LOG.isDebugEnabled())
             LOG.debug("partitionStatisticsCacheFind " + conglomID);
@@ -179,7 +197,7 @@ public class DataDictionaryCache {
     }
 
     public void partitionStatisticsCacheAdd(Long conglomID, List<PartitionStatisticsDescriptor> list) throws StandardException {
-        if (!dd.canUseCache(null))
+        if (!canUseCache(null))
             return;
         if (LOG.isDebugEnabled())
             LOG.debug("partitionStatisticsCacheAdd " + conglomID);
@@ -193,7 +211,7 @@ public class DataDictionaryCache {
     }
 
     public void permissionCacheAdd(PermissionsDescriptor key, PermissionsDescriptor permissions) throws StandardException {
-        if (!dd.canUseCache(null))
+        if (!canUseCache(null))
             return;
         if (LOG.isDebugEnabled())
             LOG.debug("permissionCacheAdd " + key);
@@ -209,7 +227,7 @@ public class DataDictionaryCache {
     }
 
     public PermissionsDescriptor permissionCacheFind(PermissionsDescriptor desc) throws StandardException {
-        if (!dd.canUseCache(null))
+        if (!canUseCache(null))
             return null;
         if (LOG.isDebugEnabled())
             LOG.debug("permissionCacheFind " + desc);
@@ -233,7 +251,7 @@ public class DataDictionaryCache {
     }
 
     public void storedPreparedStatementCacheAdd(SPSDescriptor desc) throws StandardException {
-        if (!dd.canUseCache(null))
+        if (!canUseCache(null))
             return;
         if (LOG.isDebugEnabled())
             LOG.debug("storedPreparedStatementCacheAdd " + desc);
@@ -241,7 +259,7 @@ public class DataDictionaryCache {
     }
 
     public SPSDescriptor storedPreparedStatementCacheFind(UUID uuid) throws StandardException {
-        if (!dd.canUseCache(null))
+        if (!canUseCache(null))
             return null;
         if (LOG.isDebugEnabled())
             LOG.debug("storedPreparedStatementCacheFind " + uuid);
@@ -250,7 +268,7 @@ public class DataDictionaryCache {
 
 
     public Conglomerate conglomerateCacheFind(TransactionController xactMgr,Long conglomId) throws StandardException {
-        if (!dd.canUseCache(xactMgr) && conglomId>=DataDictionary.FIRST_USER_TABLE_NUMBER)
+        if (conglomId>=DataDictionary.FIRST_USER_TABLE_NUMBER && !canUseCache(xactMgr))
             // Use cache even if dd says we can't as long as it's a system table (conglomID is < FIRST_USER_TABLE_NUMBER)
             return null;
         if (LOG.isDebugEnabled())
@@ -263,7 +281,7 @@ public class DataDictionaryCache {
     }
 
     public void conglomerateCacheAdd(Long conglomId, Conglomerate conglomerate,TransactionController xactMgr) throws StandardException {
-        if (!dd.canUseCache(xactMgr))
+        if (!canUseCache(xactMgr))
             return;
         if (LOG.isDebugEnabled())
             LOG.debug("conglomerateCacheAdd " + conglomId + " : " + conglomerate);
@@ -282,7 +300,7 @@ public class DataDictionaryCache {
 
 
     public SchemaDescriptor schemaCacheFind(String schemaName) throws StandardException {
-        if (!dd.canUseCache(null))
+        if (!canUseCache(null))
             return null;
         if (LOG.isDebugEnabled())
             LOG.debug("schemaCacheFind " + schemaName);
@@ -290,7 +308,7 @@ public class DataDictionaryCache {
     }
 
     public void schemaCacheAdd(String schemaName, SchemaDescriptor descriptor) throws StandardException {
-        if (!dd.canUseCache(null))
+        if (!canUseCache(null))
             return;
         if (LOG.isDebugEnabled())
             LOG.debug("schemaCacheAdd " + schemaName + " : " + descriptor);
@@ -316,7 +334,7 @@ public class DataDictionaryCache {
     }
 
     public SequenceUpdater sequenceGeneratorCacheFind(String uuid) throws StandardException {
-        if (!dd.canUseCache(null))
+        if (!canUseCache(null))
             return null;
         if (LOG.isDebugEnabled())
             LOG.debug("sequenceGeneratorCacheFind " + uuid);
@@ -335,6 +353,7 @@ public class DataDictionaryCache {
         storedPreparedStatementCache.invalidateAll();
         schemaCache.invalidateAll();
         statementCache.invalidateAll();
+        autoParameterizeFailureCache.invalidateAll();
         roleCache.invalidateAll();
     }
 
@@ -346,6 +365,7 @@ public class DataDictionaryCache {
         sequenceGeneratorCache.invalidateAll();
         permissionsCache.invalidateAll();
         statementCache.invalidateAll();
+        autoParameterizeFailureCache.invalidateAll();
         roleCache.invalidateAll();
     }
 
@@ -365,10 +385,11 @@ public class DataDictionaryCache {
         if (LOG.isDebugEnabled())
             LOG.debug("clearStatementCache ");
         statementCache.invalidateAll();
+        autoParameterizeFailureCache.invalidateAll();
     }
 
     public void statementCacheAdd(GenericStatement gs, GenericStorablePreparedStatement gsp) throws StandardException {
-        if (!dd.canUseCache(null))
+        if (!canUseCache(null))
             return;
         if (LOG.isDebugEnabled())
             LOG.debug("statementCacheAdd " + gs.toString());
@@ -376,16 +397,87 @@ public class DataDictionaryCache {
     }
 
     public GenericStorablePreparedStatement statementCacheFind(GenericStatement gs) throws StandardException {
-        if (!dd.canUseCache(null))
+        if (!canUseCache(null))
             return null;
         GenericStorablePreparedStatement gsps = statementCache.getIfPresent(gs);
+        if (gsps != null)
+            statementCacheHits.incrementAndGet();
+        else
+            statementCacheMisses.incrementAndGet();
         if (LOG.isDebugEnabled())
             LOG.debug("statementCacheFind " + gs.toString() +(gsps != null ? " found" : " null"));
         return gsps;
     }
 
+    /**
+     * @return true if literals of statements executed without parameters should be replaced with
+     * parameters before the statement cache is consulted.
+     */
+    public boolean isAutoParameterize() {
+        return autoParameterize;
+    }
+
+    public void recordStatementCompile(long elapsedNanos) {
+        statementCompiles.incrementAndGet();
+        statementCompileNanos.addAndGet(elapsedNanos);
+    }
+
+    /**
+     * Remember that the parameterized form of a statement failed to compile, so that later executions
+     * compile the statement as written straight away.
+     */
+    public void autoParameterizeFailureCacheAdd(GenericStatement gs) throws StandardException {
+        if (!canUseCache(null))
+            return;
+        if (LOG.isDebugEnabled())
+            LOG.debug("autoParameterizeFailureCacheAdd " + gs.toString());
+        autoParameterizeFailureCache.put(gs,Boolean.TRUE);
+    }
+
+    /**
+     * @return true if the parameterized form of a statement is known to fail to compile.
+     */
+    public boolean autoParameterizeFailureCacheFind(GenericStatement gs) throws StandardException {
+        if (!canUseCache(null))
+            return false;
+        return autoParameterizeFailureCache.getIfPresent(gs) != null;
+    }
+
+    public void recordAutoParameterized() {
+        autoParameterizedExecutions.incrementAndGet();
+    }
+
+    public void recordAutoParameterizeFallback() {
+        autoParameterizeFallbacks.incrementAndGet();
+    }
+
+    /**
+     * Whether the current transaction may use the caches, counting every time in-flight DDL keeps it away from them.
+     */
+    private boolean canUseCache(TransactionController xactMgr) throws StandardException {
+        if (dd.canUseCache(xactMgr))
+            return true;
+        ddlCacheBypasses.incrementAndGet();
+        return false;
+    }
+
+    public DataDictionaryCacheIFace getManagement() {
+        return management;
+    }
+
+    /**
+     * @return the store backing the statement cache across restarts, or null if plans are not persisted.
+     */
+    public PersistentPlanStore getPlanStore() {
+        return planStore;
+    }
+
+    public void setPlanStore(PersistentPlanStore planStore) {
+        this.planStore = planStore;
+    }
+
     public void roleCacheAdd(String roleName, Optional<RoleGrantDescriptor> optional) throws StandardException {
-        if (!dd.canUseCache(null))
+        if (!canUseCache(null))
             return;
         if (LOG.isDebugEnabled())
             LOG.debug("roleCacheAdd " + roleName);
@@ -393,7 +485,7 @@ public class DataDictionaryCache {
     }
 
     public Optional<RoleGrantDescriptor> roleCacheFind(String roleName) throws StandardException {
-        if (!dd.canUseCache(null))
+        if (!canUseCache(null))
             return null;
         if (LOG.isDebugEnabled())
             LOG.debug("roleCacheFind " + roleName);
@@ -408,10 +500,116 @@ public class DataDictionaryCache {
 
 
 
+    public class DataDictionaryCacheManagement implements DataDictionaryCacheIFace {
+
+        @Override
+        public boolean isAutoParameterize() {
+            return autoParameterize;
+        }
+
+        @Override
+        public long getStatementCacheSize() {
+            return statementCache.size();
+        }
+
+        @Override
+        public long getStatementCacheHits() {
+            return statementCacheHits.get();
+        }
+
+        @Override
+        public long getStatementCacheMisses() {
+            return statementCacheMisses.get();
+        }
+
+        @Override
+        public long getStatementCompiles() {
+            return statementCompiles.get();
+        }
+
+        @Override
+        public long getStatementCompileTimeMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(statementCompileNanos.get());
+        }
+
+        @Override
+        public long getAutoParameterizedExecutions() {
+            return autoParameterizedExecutions.get();
+        }
+
+        @Override
+        public long getAutoParameterizeFallbacks() {
+            return autoParameterizeFallbacks.get();
+        }
+
+        @Override
+        public long getDDLCacheBypasses() {
+            return ddlCacheBypasses.get();
+        }
+
+        @Override
+        public int getPersistedPlanCount() {
+            PersistentPlanStore store = planStore;
+            return store == null ? 0 : store.size();
+        }
+
+        @Override
+        public long getPersistedPlanLoads() {
+            PersistentPlanStore store = planStore;
+            return store == null ? 0 : store.getLoads();
+        }
+
+        @Override
+        public long getPersistedPlanSaves() {
+            PersistentPlanStore store = planStore;
+            return store == null ? 0 : store.getSaves();
+        }
+    }
+
     @MXBean
     @SuppressWarnings("UnusedDeclaration")
     public interface DataDictionaryCacheIFace {
 
+        boolean isAutoParameterize();
+
+        long getStatementCacheSize();
+
+        long getStatementCacheHits();
+
+        long getStatementCacheMisses();
+
+        long getStatementCompiles();
+
+        long getStatementCompileTimeMillis();
+
+        /**
+         * @return the number of statements which were executed with their literals replaced by parameters
+         */
+        long getAutoParameterizedExecutions();
+
+        /**
+         * @return the number of statements which were compiled as written because their parameterized
+         * form failed to compile or could not hold the literal values exactly
+         */
+        long getAutoParameterizeFallbacks();
+
+        /**
+         * @return the number of cache lookups and additions which went to the dictionary instead because
+         * DDL was in flight
+         */
+        long getDDLCacheBypasses();
+
+        /**
+         * @return the number of compiled plans currently held on disk
+         */
+        int getPersistedPlanCount();
+
+        /**
+         * @return the number of statement cache misses which were satisfied from disk instead of compiling
+         */
+        long getPersistedPlanLoads();
+
+        long getPersistedPlanSaves();
     }
 
 }
\ No newline at end of file
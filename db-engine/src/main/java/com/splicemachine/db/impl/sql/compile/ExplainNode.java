@@ -47,6 +47,10 @@ import java.util.Collection;
 public class ExplainNode extends DMLStatementNode {
 
     StatementNode node;
+    /*
+     * Whether to execute the statement and report the runtime statistics of each operation (EXPLAIN ANALYZE)
+     */
+    boolean analyze;
 
     int activationKind() { return StatementNode.NEED_NOTHING_ACTIVATION; }
 
@@ -54,6 +58,15 @@ public class ExplainNode extends DMLStatementNode {
 
     public void init(Object statementNode) { node = (StatementNode)statementNode; }
 
+    public void init(Object statementNode, Object analyze) {
+        init(statementNode);
+        this.analyze = (Boolean)analyze;
+    }
+
+    public boolean isAnalyze() {
+        return analyze;
+    }
+
     /**
      * Used by splice. Provides direct access to the node underlying the explain node.
      * @return the root of the actual execution plan.
@@ -79,16 +92,20 @@ public class ExplainNode extends DMLStatementNode {
          * Explain Operations should always use the control side (since they don't actually move any data).
          * If you don't set this here, and if the underlying tablescan is believed to cost more than a
          * certain fixed number, then we will perform the Explain in Spark, which will be brutal and useless.
-         * This forces us to use control-side execution
+         * This forces us to use control-side execution.
+         *
+         * EXPLAIN ANALYZE does execute the statement, so it runs wherever the statement itself would.
          */
-        getCompilerContext().setDataSetProcessorType(CompilerContext.DataSetProcessorType.FORCED_CONTROL);
+        if (!analyze)
+            getCompilerContext().setDataSetProcessorType(CompilerContext.DataSetProcessorType.FORCED_CONTROL);
         acb.pushGetResultSetFactoryExpression(mb);
         // parameter
         node.generate(acb, mb);
         acb.pushThisAsActivation(mb);
         int resultSetNumber = getCompilerContext().getNextResultSetNumber();
         mb.push(resultSetNumber);
-        mb.callMethod(VMOpcode.INVOKEINTERFACE,null, "getExplainResultSet", ClassName.NoPutResultSet, 3);
+        mb.push(analyze);
+        mb.callMethod(VMOpcode.INVOKEINTERFACE,null, "getExplainResultSet", ClassName.NoPutResultSet, 4);
     }
 
     @Override
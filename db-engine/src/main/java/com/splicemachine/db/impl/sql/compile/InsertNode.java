@@ -78,7 +78,7 @@ import com.splicemachine.db.iapi.util.ReuseFactory;
  * After optimizing, ...
  */
 public final class InsertNode extends DMLModStatementNode {
-    public enum InsertMode {INSERT,UPSERT};
+    public enum InsertMode {INSERT,UPSERT,BULK_IMPORT};
     public InsertMode insertMode = InsertMode.INSERT;
 
     public static final String INSERT_MODE = "insertMode";
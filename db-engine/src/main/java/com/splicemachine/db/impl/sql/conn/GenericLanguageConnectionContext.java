@@ -61,6 +61,8 @@ import com.splicemachine.db.iapi.util.IdUtil;
 import com.splicemachine.db.iapi.util.InterruptStatus;
 import com.splicemachine.db.impl.sql.GenericStatement;
 import com.splicemachine.db.impl.sql.GenericStorablePreparedStatement;
+import com.splicemachine.db.impl.sql.PersistentPlanStore;
+import com.splicemachine.db.impl.sql.catalog.DataDictionaryCache;
 import com.splicemachine.db.impl.sql.compile.CompilerContextImpl;
 import com.splicemachine.db.impl.sql.execute.*;
 import java.util.*;
@@ -1198,10 +1200,15 @@ public class GenericLanguageConnectionContext extends ContextImpl implements Lan
      * @throws StandardException thrown if lookup goes wrong.
      */
     public PreparedStatement lookupStatement(GenericStatement statement) throws StandardException{
-        GenericStorablePreparedStatement ps = getDataDictionary().getDataDictionaryCache().statementCacheFind(statement);
+        DataDictionaryCache cache = getDataDictionary().getDataDictionaryCache();
+        GenericStorablePreparedStatement ps = cache.statementCacheFind(statement);
         if (ps==null) {
-            ps = new GenericStorablePreparedStatement(statement);
-            getDataDictionary().getDataDictionaryCache().statementCacheAdd(statement,ps);
+            PersistentPlanStore planStore = cache.getPlanStore();
+            if (planStore!=null)
+                ps = planStore.load(statement,this);
+            if (ps==null)
+                ps = new GenericStorablePreparedStatement(statement);
+            cache.statementCacheAdd(statement,ps);
         }
         synchronized(ps){
             if(ps.upToDate()){
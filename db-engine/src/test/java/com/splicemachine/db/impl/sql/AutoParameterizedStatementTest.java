@@ -0,0 +1,96 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.splicemachine.db.impl.sql;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.iapi.types.SQLChar;
+import com.splicemachine.db.iapi.types.SQLDecimal;
+import com.splicemachine.db.iapi.types.SQLDouble;
+import com.splicemachine.db.iapi.types.SQLInteger;
+import com.splicemachine.db.iapi.types.SQLLongint;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AutoParameterizedStatementTest {
+
+    @Test
+    public void replacesComparisonOperands() throws StandardException {
+        AutoParameterizedStatement aps = AutoParameterizedStatement.parameterize(
+                "select * from t where a = 1 and b <> 'it''s' or c >= -2.50");
+        Assert.assertEquals("select * from t where a = ? and b <> ? or c >= ?", aps.getText());
+        assertValues(aps, new SQLInteger(1), new SQLChar("it's"), new SQLDecimal("-2.50"));
+    }
+
+    @Test
+    public void statementsDifferingInLiteralsShareText() {
+        Assert.assertEquals(AutoParameterizedStatement.parameterize("select a from t where b = 10").getText(),
+                AutoParameterizedStatement.parameterize("select a from t where b = 20").getText());
+    }
+
+    @Test
+    public void replacesInListsAndBetweenBounds() throws StandardException {
+        AutoParameterizedStatement aps = AutoParameterizedStatement.parameterize(
+                "select * from t where a in (1, 5000000000, b) and c between 1e3 and 2 order by a");
+        Assert.assertEquals("select * from t where a in (?, ?, b) and c between ? and ? order by a", aps.getText());
+        assertValues(aps, new SQLInteger(1), new SQLLongint(5000000000L), new SQLDouble(1000d), new SQLInteger(2));
+    }
+
+    @Test
+    public void replacesSingleRowInsertValues() throws StandardException {
+        AutoParameterizedStatement aps = AutoParameterizedStatement.parameterize(
+                "insert into t (a, b, c) values (1, 'x', default)");
+        Assert.assertEquals("insert into t (a, b, c) values (?, ?, default)", aps.getText());
+        assertValues(aps, new SQLInteger(1), new SQLChar("x"));
+
+        Assert.assertNull("Multi-row inserts should be left alone",
+                AutoParameterizedStatement.parameterize("insert into t values (1), (2)"));
+    }
+
+    @Test
+    public void leavesLiteralsWhichDecideTheirExpressionType() {
+        Assert.assertNull(AutoParameterizedStatement.parameterize("select 1, 'a' from t"));
+        Assert.assertNull(AutoParameterizedStatement.parameterize("select * from t where a = 1 + b"));
+        Assert.assertNull(AutoParameterizedStatement.parameterize("select * from t where a = substr(b, 1, 2)"));
+        Assert.assertNull(AutoParameterizedStatement.parameterize("select * from t where 1 = 1"));
+        Assert.assertNull(AutoParameterizedStatement.parameterize("select * from t where a = X'FF'"));
+        Assert.assertNull(AutoParameterizedStatement.parameterize("select * from t where a in (select 1 from u)"));
+    }
+
+    @Test
+    public void leavesCommentsAndDelimitedIdentifiersAlone() {
+        AutoParameterizedStatement aps = AutoParameterizedStatement.parameterize(
+                "select \"a = 1\" from t --splice-properties index=null\n where /* b = 2 */ c = 3");
+        Assert.assertEquals("select \"a = 1\" from t --splice-properties index=null\n where /* b = 2 */ c = ?",
+                aps.getText());
+    }
+
+    @Test
+    public void ignoresOtherStatements() {
+        Assert.assertNull(AutoParameterizedStatement.parameterize("call syscs_util.foo(1)"));
+        Assert.assertNull(AutoParameterizedStatement.parameterize("create view v as select * from t where a = 1"));
+        Assert.assertNull(AutoParameterizedStatement.parameterize("select * from t where a = ? and b = 1"));
+        Assert.assertNull(AutoParameterizedStatement.parameterize("select * from t where a = 'unterminated"));
+    }
+
+    private static void assertValues(AutoParameterizedStatement aps, DataValueDescriptor... expected) throws StandardException {
+        DataValueDescriptor[] values = aps.getValues();
+        Assert.assertEquals("Incorrect number of values", expected.length, values.length);
+        for (int i = 0; i < expected.length; i++) {
+            Assert.assertEquals("Incorrect type of value " + i, expected[i].getClass(), values[i].getClass());
+            Assert.assertEquals("Incorrect value " + i, 0, expected[i].compare(values[i]));
+        }
+    }
+}
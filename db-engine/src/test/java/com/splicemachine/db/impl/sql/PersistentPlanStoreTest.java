@@ -0,0 +1,178 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.splicemachine.db.impl.sql;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.services.loader.ClassFactory;
+import com.splicemachine.db.iapi.services.loader.GeneratedClass;
+import com.splicemachine.db.iapi.sql.conn.LanguageConnectionContext;
+import com.splicemachine.db.iapi.sql.conn.LanguageConnectionFactory;
+import com.splicemachine.db.iapi.sql.depend.Dependent;
+import com.splicemachine.db.iapi.sql.depend.DependencyManager;
+import com.splicemachine.db.iapi.sql.depend.ProviderInfo;
+import com.splicemachine.db.iapi.sql.dictionary.DataDictionary;
+import com.splicemachine.db.iapi.sql.dictionary.SchemaDescriptor;
+import com.splicemachine.db.iapi.store.access.TransactionController;
+import com.splicemachine.db.iapi.util.ByteArray;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PersistentPlanStoreTest {
+    private static final byte[] CLASS_BYTES = new byte[]{(byte)0xCA, (byte)0xFE, (byte)0xBA, (byte)0xBE};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final LanguageConnectionContext lcc = mock(LanguageConnectionContext.class);
+    private final ClassFactory classFactory = mock(ClassFactory.class);
+    private final GeneratedClass activationClass = mock(GeneratedClass.class);
+    private final SchemaDescriptor schema = mock(SchemaDescriptor.class);
+    private String version = "v1";
+    private final PersistentPlanStore.VersionSource versionSource = new PersistentPlanStore.VersionSource() {
+        @Override
+        public String currentVersion() {
+            return version;
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        DataDictionary dd = mock(DataDictionary.class);
+        DependencyManager dm = mock(DependencyManager.class);
+        LanguageConnectionFactory lcf = mock(LanguageConnectionFactory.class);
+        when(lcc.getDataDictionary()).thenReturn(dd);
+        when(lcc.getLanguageConnectionFactory()).thenReturn(lcf);
+        when(lcf.getClassFactory()).thenReturn(classFactory);
+        when(dd.canUseCache(any(TransactionController.class))).thenReturn(true);
+        when(dd.getDependencyManager()).thenReturn(dm);
+        when(dm.getPersistentProviderInfos(any(Dependent.class))).thenReturn(new ProviderInfo[0]);
+        when(activationClass.getName()).thenReturn("com.splicemachine.db.exe.ac1");
+        when(classFactory.loadGeneratedClass(eq("com.splicemachine.db.exe.ac1"), any(ByteArray.class))).thenReturn(activationClass);
+        when(schema.getDescriptorName()).thenReturn("APP");
+    }
+
+    @Test
+    public void savedPlanLoadsBackAfterRestart() throws Exception {
+        File directory = folder.getRoot();
+        PersistentPlanStore store = new PersistentPlanStore(directory, versionSource, 10);
+        GenericStatement statement = statement("select * from t");
+        store.save(statement, compiled(statement), store.compileVersion(lcc), lcc);
+        Assert.assertEquals(1, store.size());
+        Assert.assertEquals(1l, store.getSaves());
+
+        PersistentPlanStore restarted = new PersistentPlanStore(directory, versionSource, 10);
+        Assert.assertEquals("The saved plan should be found on restart", 1, restarted.warm());
+        GenericStorablePreparedStatement loaded = restarted.load(statement("select * from t"), lcc);
+        Assert.assertNotNull("The saved plan should load", loaded);
+        Assert.assertTrue("A loaded plan should be valid", loaded.isValid());
+        Assert.assertSame(activationClass, loaded.getActivationClass());
+        Assert.assertEquals(1l, restarted.getLoads());
+    }
+
+    @Test
+    public void otherStatementsAreNotLoaded() throws Exception {
+        PersistentPlanStore store = new PersistentPlanStore(folder.getRoot(), versionSource, 10);
+        GenericStatement statement = statement("select * from t");
+        store.save(statement, compiled(statement), store.compileVersion(lcc), lcc);
+
+        Assert.assertNull(store.load(statement("select * from u"), lcc));
+        Assert.assertNull("A read only statement is a different statement",
+                store.load(new GenericStatement(schema, "select * from t", false), lcc));
+    }
+
+    @Test
+    public void changedVersionRetiresPlansOnRestart() throws Exception {
+        File directory = folder.getRoot();
+        PersistentPlanStore store = new PersistentPlanStore(directory, versionSource, 10);
+        GenericStatement statement = statement("select * from t");
+        store.save(statement, compiled(statement), store.compileVersion(lcc), lcc);
+
+        version = "v2";
+        PersistentPlanStore restarted = new PersistentPlanStore(directory, versionSource, 10);
+        Assert.assertEquals("The plan was compiled against an older dictionary", 0, restarted.warm());
+        Assert.assertNull(restarted.load(statement, lcc));
+        File[] remaining = directory.listFiles();
+        Assert.assertTrue("The stale plan should have been deleted", remaining == null || remaining.length == 0);
+    }
+
+    @Test
+    public void changedVersionRetiresLoadedPlans() throws Exception {
+        PersistentPlanStore store = new PersistentPlanStore(folder.getRoot(), versionSource, 10);
+        GenericStatement statement = statement("select * from t");
+        store.save(statement, compiled(statement), store.compileVersion(lcc), lcc);
+
+        version = "v2";
+        Assert.assertNull("The plan was compiled against an older dictionary", store.load(statement, lcc));
+        Assert.assertEquals("The stale plan should be discarded", 0, store.size());
+        verify(classFactory, never()).loadGeneratedClass(any(String.class), any(ByteArray.class));
+    }
+
+    @Test
+    public void planIsNotSavedWhenTheVersionMovesDuringCompilation() throws Exception {
+        PersistentPlanStore store = new PersistentPlanStore(folder.getRoot(), versionSource, 10);
+        GenericStatement statement = statement("select * from t");
+        String compileVersion = store.compileVersion(lcc);
+        version = "v2"; // e.g. statistics were collected while the statement compiled
+        store.save(statement, compiled(statement), compileVersion, lcc);
+        Assert.assertEquals(0, store.size());
+        Assert.assertNull(store.load(statement, lcc));
+    }
+
+    @Test
+    public void nothingIsPersistedUnderSqlAuthorization() throws Exception {
+        when(lcc.usesSqlAuthorization()).thenReturn(true);
+        PersistentPlanStore store = new PersistentPlanStore(folder.getRoot(), versionSource, 10);
+        Assert.assertNull(store.compileVersion(lcc));
+        GenericStatement statement = statement("select * from t");
+        store.save(statement, compiled(statement), store.compileVersion(lcc), lcc);
+        Assert.assertEquals(0, store.size());
+    }
+
+    @Test
+    public void storeIsBounded() throws Exception {
+        PersistentPlanStore store = new PersistentPlanStore(folder.getRoot(), versionSource, 1);
+        GenericStatement first = statement("select * from t");
+        GenericStatement second = statement("select * from u");
+        store.save(first, compiled(first), store.compileVersion(lcc), lcc);
+        store.save(second, compiled(second), store.compileVersion(lcc), lcc);
+        Assert.assertEquals(1, store.size());
+        Assert.assertNull(store.load(second, lcc));
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private GenericStatement statement(String text) {
+        return new GenericStatement(schema, text, true);
+    }
+
+    private GenericStorablePreparedStatement compiled(GenericStatement statement) throws StandardException {
+        GenericStorablePreparedStatement ps = new GenericStorablePreparedStatement(statement);
+        ps.getByteCodeSaver().setBytes(CLASS_BYTES);
+        ps.setActivationClass(activationClass);
+        return ps;
+    }
+}
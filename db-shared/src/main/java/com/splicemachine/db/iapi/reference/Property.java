@@ -667,6 +667,17 @@ public interface Property {
 	String STATEMENT_CACHE_SIZE = "derby.language.statementCacheSize";
 	int STATEMENT_CACHE_SIZE_DEFAULT = 100;
 
+	/**
+	 * If true, literals in statements executed through java.sql.Statement are
+	 * replaced with parameters before the statement cache is consulted, so
+	 * statements which differ only in their literal values share one compiled
+	 * plan. Database. Static.
+	 * <p>
+	 * Externally visible.
+	 */
+	String LANG_AUTO_PARAMETERIZE = "derby.language.autoParameterize";
+	boolean LANG_AUTO_PARAMETERIZE_DEFAULT = false;
+
 	/**
 	 * Tells if the system stored procedures should be updated during database boot up.
 	 * Default is false.  System property.  Loaded once (static initializer).
@@ -1081,6 +1092,15 @@ public interface Property {
 	 * client socket setKeepAlive value
 	 */
 	public final static String DRDA_PROP_KEEPALIVE = "derby.drda.keepAlive";
+
+	/**
+	 * db.drda.parkIdleSessions
+	 *
+	 *<BR>
+	 * If true, sessions with no request in flight are handed to a selector
+	 * thread instead of holding a connection thread. Ignored when SSL is on.
+	 */
+	public final static String DRDA_PROP_PARKIDLESESSIONS = "derby.drda.parkIdleSessions";
 	
 
     /**
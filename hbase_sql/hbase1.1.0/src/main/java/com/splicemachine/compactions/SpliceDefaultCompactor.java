@@ -240,6 +240,7 @@ public class SpliceDefaultCompactor extends DefaultCompactor {
         StoreFile.Writer writer = null;
         List<Path> newFiles =new ArrayList<>();
         boolean cleanSeqId = false;
+        SICompactionState state = null;
         IOException e = null;
         try {
             InternalScanner scanner = null;
@@ -253,9 +254,7 @@ public class SpliceDefaultCompactor extends DefaultCompactor {
                 }
                 if (needsSI(store.getTableName())) {
                     SIDriver driver=SIDriver.driver();
-                    SICompactionState state = new SICompactionState(driver.getTxnSupplier(),
-                            driver.getRollForward(),
-                            driver.getConfiguration().getActiveTransactionCacheSize());
+                    state = SICompactionState.forCompaction(driver,request.isAllFiles());
                     scanner = new SICompactionScanner(state,scanner);
                 }
                 if (scanner == null) {
@@ -296,6 +295,8 @@ public class SpliceDefaultCompactor extends DefaultCompactor {
                     if (e != null) {
                         writer.close();
                     } else {
+                        if (state != null)
+                            HRegionUtil.appendSIFileInfo(writer, state);
                         writer.appendMetadata(fd.maxSeqId, request.isAllFiles());
                         writer.close();
                         newFiles.add(writer.getPath());
@@ -27,6 +27,7 @@ import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.Watcher;
 import org.apache.zookeeper.ZooDefs;
+import org.apache.zookeeper.data.Stat;
 
 import java.io.IOException;
 import java.util.Collection;
@@ -94,6 +95,21 @@ class DDLZookeeperClient {
         }
     }
 
+    /**
+     * The change parent's creation zxid and child version together change every time a change node is
+     * created or deleted, and survive restarts of the cluster.
+     */
+    String getChangeVersion() throws StandardException {
+        try {
+            Stat stat = ZkUtils.getRecoverableZooKeeper().exists(changePath, false);
+            if (stat == null)
+                return null;
+            return stat.getCzxid() + "-" + stat.getCversion();
+        } catch (KeeperException | InterruptedException e) {
+            throw Exceptions.parseException(e);
+        }
+    }
+
     List<String> getFinishedServers(String changeId, Watcher watcher) throws StandardException {
         try {
             return ZkUtils.getChildren(changePath+ "/" + changeId, watcher);
@@ -59,6 +59,11 @@ public class ZooKeeperDDLCommunicator implements DDLCommunicator{
         zkClient.deleteChangeNode(changeId);
     }
 
+    @Override
+    public String getChangeVersion() throws StandardException{
+        return zkClient.getChangeVersion();
+    }
+
 
     /* ****************************************************************************************************************/
     /*private helper classes*/
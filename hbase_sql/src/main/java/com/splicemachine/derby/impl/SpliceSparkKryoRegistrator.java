@@ -49,6 +49,7 @@ import com.splicemachine.derby.stream.function.*;
 import com.splicemachine.derby.stream.spark.HBasePartitioner;
 import com.splicemachine.derby.stream.spark.RowPartition;
 import com.splicemachine.derby.stream.spark.SparkOperationContext;
+import com.splicemachine.derby.stream.spark.SparkOperationStatistics;
 import com.splicemachine.derby.utils.kryo.DataValueDescriptorSerializer;
 import com.splicemachine.kvpair.KVPair;
 import com.splicemachine.pipeline.client.BulkWrite;
@@ -703,6 +704,8 @@ public class SpliceSparkKryoRegistrator implements KryoRegistrator, KryoPool.Kry
         instance.register(MapFunction.class,EXTERNALIZABLE_SERIALIZER);
         instance.register(RowTransformFunction.class,EXTERNALIZABLE_SERIALIZER);
         instance.register(TxnViewDecoderFunction.class,EXTERNALIZABLE_SERIALIZER);
+        instance.register(OperationStatisticsFunction.class,EXTERNALIZABLE_SERIALIZER);
+        instance.register(SparkOperationStatistics.class,EXTERNALIZABLE_SERIALIZER);
 
 
     }
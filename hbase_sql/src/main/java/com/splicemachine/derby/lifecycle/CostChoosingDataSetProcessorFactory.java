@@ -28,6 +28,8 @@ import com.splicemachine.db.impl.sql.execute.BaseActivation;
 import com.splicemachine.derby.iapi.sql.execute.DataSetProcessorFactory;
 import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
 import com.splicemachine.derby.stream.control.ControlDataSetProcessor;
+import com.splicemachine.derby.stream.control.LocalParallelDataSetProcessor;
+import com.splicemachine.derby.stream.control.spill.SpillBudget;
 import com.splicemachine.derby.stream.iapi.DataSetProcessor;
 import com.splicemachine.derby.stream.iapi.DistributedDataSetProcessor;
 import com.splicemachine.derby.stream.spark.HregionDataSetProcessor;
@@ -62,12 +64,12 @@ public class CostChoosingDataSetProcessorFactory implements DataSetProcessorFact
              */
             if (LOG.isTraceEnabled())
                 SpliceLogUtils.trace(LOG, "chooseProcessor(): localProcessor for op %s", op==null?"null":op.getName());
-            return new ControlDataSetProcessor(driver.getTxnSupplier(), driver.getTransactor(), driver.getOperationFactory());
+            return new ControlDataSetProcessor(driver.getTxnSupplier(), driver.getTransactor(), driver.getOperationFactory(), spillBudget(activation));
         }
 
         switch(activation.getLanguageConnectionContext().getDataSetProcessorType()){
             case FORCED_CONTROL:
-                return new ControlDataSetProcessor(driver.getTxnSupplier(), driver.getTransactor(), driver.getOperationFactory());
+                return new ControlDataSetProcessor(driver.getTxnSupplier(), driver.getTransactor(), driver.getOperationFactory(), spillBudget(activation));
             case FORCED_SPARK:
                 return new SparkDataSetProcessor();
             default:
@@ -75,14 +77,16 @@ public class CostChoosingDataSetProcessorFactory implements DataSetProcessorFact
         }
         if (((BaseActivation)activation).useSpark())
             return new SparkDataSetProcessor();
-        return new ControlDataSetProcessor(driver.getTxnSupplier(), driver.getTransactor(), driver.getOperationFactory());
+        if (driver.getConfiguration().getLocalScanParallelism() > 1)
+            return new LocalParallelDataSetProcessor(driver.getTxnSupplier(), driver.getTransactor(), driver.getOperationFactory(), spillBudget(activation));
+        return new ControlDataSetProcessor(driver.getTxnSupplier(), driver.getTransactor(), driver.getOperationFactory(), spillBudget(activation));
     }
 
     @Override
     public DataSetProcessor localProcessor(@Nullable Activation activation,@Nullable SpliceOperation op){
         if (LOG.isTraceEnabled())
             SpliceLogUtils.trace(LOG, "localProcessor(): localProcessor provided for op %s", op==null?"null":op.getName());
-        return new ControlDataSetProcessor(driver.getTxnSupplier(), driver.getTransactor(), driver.getOperationFactory());
+        return new ControlDataSetProcessor(driver.getTxnSupplier(), driver.getTransactor(), driver.getOperationFactory(), spillBudget(activation));
     }
 
     @Override
@@ -93,12 +97,12 @@ public class CostChoosingDataSetProcessorFactory implements DataSetProcessorFact
             /*
              * We are running in a distributed node, use the bulk processor to avoid saturating HBase
              */
-            return new HregionDataSetProcessor(driver.getTxnSupplier(), driver.getTransactor(), driver.getOperationFactory());
+            return new HregionDataSetProcessor(driver.getTxnSupplier(), driver.getTransactor(), driver.getOperationFactory(), spillBudget(activation));
         } else {
             /*
              * We are running in control node, use a control side processor with less startup cost
              */
-            return new ControlDataSetProcessor(driver.getTxnSupplier(), driver.getTransactor(), driver.getOperationFactory());
+            return new ControlDataSetProcessor(driver.getTxnSupplier(), driver.getTransactor(), driver.getOperationFactory(), spillBudget(activation));
 
         }
     }
@@ -110,6 +114,10 @@ public class CostChoosingDataSetProcessorFactory implements DataSetProcessorFact
         return new SparkDataSetProcessor();
     }
 
+    private SpillBudget spillBudget(@Nullable Activation activation){
+        return SpillBudget.forQuery(activation,driver.getConfiguration());
+    }
+
     private boolean allowsDistributedExecution(){ // corresponds to master_dataset isRunningOnSpark
         if(Thread.currentThread().getName().contains("DRDAConn")) return true; //we are on the derby execution thread
         else if(Thread.currentThread().getName().startsWith("olap-worker")) return true; //we are on the OlapServer thread
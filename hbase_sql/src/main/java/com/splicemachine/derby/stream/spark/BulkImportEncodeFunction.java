@@ -0,0 +1,99 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.splicemachine.derby.stream.spark;
+
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.ddl.DDLMessage;
+import com.splicemachine.derby.impl.sql.execute.index.IndexTransformer;
+import com.splicemachine.derby.stream.output.WriteReadUtils;
+import com.splicemachine.derby.stream.output.insert.InsertPipelineWriter;
+import com.splicemachine.derby.utils.marshall.PairEncoder;
+import com.splicemachine.kvpair.KVPair;
+import org.apache.spark.api.java.function.PairFlatMapFunction;
+import scala.Tuple2;
+import scala.util.Either;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * Encodes the rows of a bulk import as they would be written to the table, along with the entry of each
+ * of the table's indexes for the row. Each pair is tagged with the position of its conglomerate: 0 for the
+ * table, and i+1 for the i-th index.
+ */
+public class BulkImportEncodeFunction implements PairFlatMapFunction<Iterator<Either<Exception, ExecRow>>, Integer, KVPair>, Serializable{
+    private static final long serialVersionUID=1l;
+
+    private final int[] pkCols;
+    private final String tableVersion;
+    private final int[] execRowTypeFormatIds;
+    private final byte[][] indexes;
+
+    public BulkImportEncodeFunction(int[] pkCols,String tableVersion,int[] execRowTypeFormatIds,byte[][] indexes){
+        this.pkCols=pkCols;
+        this.tableVersion=tableVersion;
+        this.execRowTypeFormatIds=execRowTypeFormatIds;
+        this.indexes=indexes;
+    }
+
+    @Override
+    public Iterator<Tuple2<Integer, KVPair>> call(final Iterator<Either<Exception, ExecRow>> rows) throws Exception{
+        ExecRow execRowDefinition=WriteReadUtils.getExecRowFromTypeFormatIds(execRowTypeFormatIds);
+        final PairEncoder encoder=new PairEncoder(InsertPipelineWriter.getKeyEncoder(pkCols,tableVersion,execRowDefinition),
+                InsertPipelineWriter.getRowHash(pkCols,tableVersion,execRowDefinition),KVPair.Type.INSERT);
+        final IndexTransformer[] transformers=new IndexTransformer[indexes.length];
+        for(int i=0;i<indexes.length;i++){
+            transformers[i]=new IndexTransformer(DDLMessage.TentativeIndex.parseFrom(indexes[i]));
+        }
+
+        return new Iterator<Tuple2<Integer, KVPair>>(){
+            private final ArrayDeque<Tuple2<Integer, KVPair>> pending=new ArrayDeque<>(transformers.length+1);
+
+            @Override
+            public boolean hasNext(){
+                return !pending.isEmpty() || rows.hasNext();
+            }
+
+            @Override
+            public Tuple2<Integer, KVPair> next(){
+                if(pending.isEmpty())
+                    encode(rows.next());
+                return pending.poll();
+            }
+
+            @Override
+            public void remove(){
+                throw new UnsupportedOperationException();
+            }
+
+            private void encode(Either<Exception, ExecRow> row){
+                if(row.isLeft())
+                    throw new RuntimeException(row.left().get());
+                try{
+                    KVPair kvPair=encoder.encode(row.right().get());
+                    pending.add(new Tuple2<>(0,kvPair));
+                    for(int i=0;i<transformers.length;i++){
+                        KVPair indexPair=transformers[i].translate(kvPair);
+                        indexPair.setType(KVPair.Type.INSERT);
+                        pending.add(new Tuple2<>(i+1,indexPair));
+                    }
+                }catch(Exception e){
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.stream.spark;
+
+import com.splicemachine.access.HConfiguration;
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.pipeline.ErrorState;
+import com.splicemachine.pipeline.constraint.ConstraintContext;
+import com.splicemachine.si.constants.SIConstants;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.io.compress.Compression;
+import org.apache.hadoop.hbase.io.encoding.DataBlockEncoding;
+import org.apache.hadoop.hbase.io.hfile.CacheConfig;
+import org.apache.hadoop.hbase.io.hfile.HFileContext;
+import org.apache.hadoop.hbase.io.hfile.HFileContextBuilder;
+import org.apache.hadoop.hbase.regionserver.BloomType;
+import org.apache.hadoop.hbase.regionserver.HRegionUtil;
+import org.apache.hadoop.hbase.regionserver.StoreFile;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.spark.TaskContext;
+import org.apache.spark.api.java.function.FlatMapFunction;
+import scala.Tuple2;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * Writes one partition of sorted (row key, packed row) pairs to a store file in the bulk load's
+ * staging directory, laid out as {@code <staging>/<family>/<partition>} for LoadIncrementalHFiles.
+ *
+ * A committed load writes every row with a commit timestamp cell and a data cell, both at the load's
+ * timestamp, and marks the file fully resolved so that reads and compactions skip the transaction lookup.
+ * Otherwise the timestamp is the id of the writing transaction, and rows are resolved like any other write
+ * once it commits. Returns the number of rows written.
+ *
+ * Two rows with the same key would silently shadow one another, so they fail the load as a unique violation
+ * of the given constraint.
+ */
+public class BulkLoadHFileFunction implements FlatMapFunction<Iterator<Tuple2<byte[], byte[]>>, Long>{
+    private final String stagingDirectory;
+    private final long timestamp;
+    private final boolean committed;
+    private final String compression;
+    private final int blockSize;
+    private final String dataBlockEncoding;
+    private final String bloomType;
+    private final ConstraintContext uniqueConstraint;
+
+    public BulkLoadHFileFunction(String stagingDirectory,long timestamp,boolean committed,String compression,
+                                 int blockSize,String dataBlockEncoding,String bloomType,
+                                 ConstraintContext uniqueConstraint){
+        this.stagingDirectory=stagingDirectory;
+        this.timestamp=timestamp;
+        this.committed=committed;
+        this.compression=compression;
+        this.blockSize=blockSize;
+        this.dataBlockEncoding=dataBlockEncoding;
+        this.bloomType=bloomType;
+        this.uniqueConstraint=uniqueConstraint;
+    }
+
+    @Override
+    public Iterator<Long> call(Iterator<Tuple2<byte[], byte[]>> rows) throws Exception{
+        if(!rows.hasNext())
+            return Collections.singletonList(0l).iterator();
+
+        TaskContext task=TaskContext.get();
+        Configuration conf=HConfiguration.unwrapDelegate();
+        Path familyDir=new Path(stagingDirectory,SIConstants.DEFAULT_FAMILY_NAME);
+        // attempts write aside and the first to finish is renamed into place; LoadIncrementalHFiles skips "_" names
+        Path attemptFile=new Path(new Path(familyDir,"_tmp"),task.partitionId()+"-"+task.attemptNumber());
+        Path partitionFile=new Path(familyDir,Integer.toString(task.partitionId()));
+        FileSystem fs=familyDir.getFileSystem(conf);
+
+        long rowCount=writeStoreFile(rows,conf,fs,attemptFile);
+        if(!fs.rename(attemptFile,partitionFile)){
+            // another attempt of this partition already wrote it
+            fs.delete(attemptFile,false);
+        }
+        return Collections.singletonList(rowCount).iterator();
+    }
+
+    /**
+     * Writes the rows to a new store file at {@code file}, returning the number of rows written.
+     */
+    long writeStoreFile(Iterator<Tuple2<byte[], byte[]>> rows,Configuration conf,FileSystem fs,Path file) throws IOException, StandardException{
+        HFileContext context=new HFileContextBuilder()
+                .withCompression(Compression.getCompressionAlgorithmByName(compression))
+                .withBlockSize(blockSize)
+                .withDataBlockEncoding(DataBlockEncoding.valueOf(dataBlockEncoding))
+                .build();
+        StoreFile.Writer writer=new StoreFile.WriterBuilder(conf,new CacheConfig(conf),fs)
+                .withFilePath(file)
+                .withComparator(KeyValue.COMPARATOR)
+                .withBloomType(BloomType.valueOf(bloomType))
+                .withFileContext(context)
+                .build();
+        byte[] commitTimestamp=Bytes.toBytes(timestamp);
+        long rowCount=0;
+        try{
+            byte[] previous=null;
+            while(rows.hasNext()){
+                Tuple2<byte[], byte[]> row=rows.next();
+                byte[] rowKey=row._1();
+                if(previous!=null && Bytes.equals(previous,rowKey))
+                    throw ErrorState.LANG_DUPLICATE_KEY_CONSTRAINT.newException((Object[])uniqueConstraint.getMessages());
+                if(committed)
+                    writer.append(new KeyValue(rowKey,SIConstants.DEFAULT_FAMILY_BYTES,
+                            SIConstants.SNAPSHOT_ISOLATION_COMMIT_TIMESTAMP_COLUMN_BYTES,timestamp,commitTimestamp));
+                writer.append(new KeyValue(rowKey,SIConstants.DEFAULT_FAMILY_BYTES,
+                        SIConstants.PACKED_COLUMN_BYTES,timestamp,row._2()));
+                previous=rowKey;
+                rowCount++;
+            }
+            writer.appendFileInfo(StoreFile.BULKLOAD_TIME_KEY,Bytes.toBytes(System.currentTimeMillis()));
+            writer.appendFileInfo(StoreFile.MAJOR_COMPACTION_KEY,Bytes.toBytes(false));
+            if(committed)
+                HRegionUtil.appendSIFileInfo(writer,true,timestamp,timestamp,false);
+        }finally{
+            writer.close();
+        }
+        return rowCount;
+    }
+}
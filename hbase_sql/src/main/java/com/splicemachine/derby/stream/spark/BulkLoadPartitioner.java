@@ -0,0 +1,68 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.stream.spark;
+
+import com.splicemachine.primitives.Bytes;
+import org.apache.spark.Partitioner;
+
+import java.util.Arrays;
+
+/**
+ * Partitions row keys by the region of the destination table they fall into, so that each
+ * partition of a bulk load becomes a store file for a single region.
+ */
+public class BulkLoadPartitioner extends Partitioner{
+    private final byte[][] startKeys;
+
+    /**
+     * @param startKeys the start keys of the destination table's regions, in order. The first
+     *                  one is empty.
+     */
+    public BulkLoadPartitioner(byte[][] startKeys){
+        this.startKeys=startKeys;
+    }
+
+    @Override
+    public int numPartitions(){
+        return startKeys.length;
+    }
+
+    @Override
+    public int getPartition(Object key){
+        byte[] rowKey=(byte[])key;
+        // the last region whose start key is not after the row
+        int low=0;
+        int high=startKeys.length-1;
+        while(low<high){
+            int mid=(low+high+1)>>>1;
+            if(Bytes.BASE_COMPARATOR.compare(startKeys[mid],rowKey)<=0)
+                low=mid;
+            else
+                high=mid-1;
+        }
+        return low;
+    }
+
+    @Override
+    public boolean equals(Object o){
+        return o instanceof BulkLoadPartitioner && Arrays.deepEquals(startKeys,((BulkLoadPartitioner)o).startKeys);
+    }
+
+    @Override
+    public int hashCode(){
+        return Arrays.deepHashCode(startKeys);
+    }
+}
@@ -23,6 +23,7 @@ import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
 import com.splicemachine.derby.impl.sql.execute.operations.scanner.TableScannerBuilder;
 import com.splicemachine.derby.stream.control.ControlDataSet;
 import com.splicemachine.derby.stream.control.ControlDataSetProcessor;
+import com.splicemachine.derby.stream.control.spill.SpillBudget;
 import com.splicemachine.derby.stream.iapi.DataSet;
 import com.splicemachine.derby.stream.iapi.ScanSetBuilder;
 import com.splicemachine.derby.stream.iterator.TableScannerIterator;
@@ -50,8 +51,9 @@ public class HregionDataSetProcessor extends ControlDataSetProcessor {
 
     public HregionDataSetProcessor(TxnSupplier txnSupplier,
                                    Transactor transactory,
-                                   TxnOperationFactory txnOperationFactory){
-        super(txnSupplier, transactory, txnOperationFactory);
+                                   TxnOperationFactory txnOperationFactory,
+                                   SpillBudget spillBudget){
+        super(txnSupplier, transactory, txnOperationFactory, spillBudget);
     }
 
     @Override
@@ -89,7 +91,7 @@ public class HregionDataSetProcessor extends ControlDataSetProcessor {
 
                     TableScannerIterator tableScannerIterator = new TableScannerIterator(this, spliceOperation);
                     spliceOperation.registerCloseable(tableScannerIterator);
-                    return new ControlDataSet(tableScannerIterator);
+                    return new ControlDataSet(tableScannerIterator,spillBudget);
                 }catch(IOException e){
                     throw Exceptions.parseException(e);
                 }
@@ -0,0 +1,317 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.splicemachine.derby.stream.spark;
+
+import com.splicemachine.access.HConfiguration;
+import com.splicemachine.access.api.SConfiguration;
+import com.splicemachine.access.hbase.HBaseConnectionFactory;
+import com.splicemachine.access.hbase.HBaseTableInfoFactory;
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.types.SQLLongint;
+import com.splicemachine.db.iapi.types.SQLVarchar;
+import com.splicemachine.db.impl.sql.execute.ValueRow;
+import com.splicemachine.ddl.DDLMessage;
+import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
+import com.splicemachine.derby.impl.SpliceSpark;
+import com.splicemachine.derby.impl.sql.execute.operations.InsertOperation;
+import com.splicemachine.derby.impl.sql.execute.operations.LocatedRow;
+import com.splicemachine.derby.stream.iapi.DataSet;
+import com.splicemachine.derby.stream.iapi.OperationContext;
+import com.splicemachine.derby.stream.iapi.TableWriter;
+import com.splicemachine.derby.stream.output.DataSetWriter;
+import com.splicemachine.derby.stream.output.insert.InsertPipelineWriter;
+import com.splicemachine.kvpair.KVPair;
+import com.splicemachine.pipeline.ErrorState;
+import com.splicemachine.pipeline.Exceptions;
+import com.splicemachine.pipeline.constraint.ConstraintContext;
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.api.txn.Txn;
+import com.splicemachine.si.api.txn.TxnView;
+import com.splicemachine.si.impl.driver.SIDriver;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Admin;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.log4j.Logger;
+import org.apache.spark.api.java.JavaPairRDD;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.function.Function;
+import org.apache.spark.api.java.function.Function2;
+import org.apache.spark.api.java.function.PairFunction;
+import org.apache.spark.storage.StorageLevel;
+import scala.Tuple2;
+import scala.util.Either;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Writes an import as store files which are bulk loaded into the table and its indexes, instead of sending
+ * the rows through the write pipeline.
+ *
+ * The rows are encoded once, and the table and index entries for them are then sorted and written per
+ * conglomerate. A conglomerate which is still a single region is first split at points sampled from its
+ * entries. Everything is written by a child transaction of the import, which only commits once all of the
+ * files are loaded, so a failed import leaves nothing visible.
+ *
+ * There are no constraint checks or conflict detection, so the caller must make sure that the table
+ * allows it; see {@link InsertOperation}.
+ */
+public class SparkBulkImportDataSetWriter<K> implements DataSetWriter{
+    private static final Logger LOG=Logger.getLogger(SparkBulkImportDataSetWriter.class);
+    private static final long SPLIT_WAIT_MILLIS=60000l;
+
+    private final JavaPairRDD<K, Either<Exception, ExecRow>> rdd;
+    private final OperationContext<? extends SpliceOperation> opContext;
+    private final int[] pkCols;
+    private final String tableVersion;
+    private final ExecRow execRowDefinition;
+    private final int[] execRowTypeFormatIds;
+    private final long heapConglom;
+    private final List<DDLMessage.TentativeIndex> indexes;
+    private TxnView txn;
+
+    public SparkBulkImportDataSetWriter(JavaPairRDD<K, Either<Exception, ExecRow>> rdd,
+                                        OperationContext<? extends SpliceOperation> opContext,
+                                        int[] pkCols,
+                                        String tableVersion,
+                                        ExecRow execRowDefinition,
+                                        int[] execRowTypeFormatIds,
+                                        long heapConglom,
+                                        List<DDLMessage.TentativeIndex> indexes,
+                                        TxnView txn){
+        this.rdd=rdd;
+        this.opContext=opContext;
+        this.pkCols=pkCols;
+        this.tableVersion=tableVersion;
+        this.execRowDefinition=execRowDefinition;
+        this.execRowTypeFormatIds=execRowTypeFormatIds;
+        this.heapConglom=heapConglom;
+        this.indexes=indexes;
+        this.txn=txn;
+    }
+
+    @Override
+    public DataSet<LocatedRow> write() throws StandardException{
+        SConfiguration config=HConfiguration.getConfiguration();
+        Configuration conf=HConfiguration.unwrapDelegate();
+        HBaseTableInfoFactory tableInfoFactory=HBaseTableInfoFactory.getInstance(config);
+
+        long[] conglomerates=new long[indexes.size()+1];
+        byte[][] indexMessages=new byte[indexes.size()][];
+        conglomerates[0]=heapConglom;
+        for(int i=0;i<indexes.size();i++){
+            conglomerates[i+1]=indexes.get(i).getIndex().getConglomerate();
+            indexMessages[i]=indexes.get(i).toByteArray();
+        }
+
+        // row keys of tables without a primary key are generated, and would differ if the rows were encoded
+        // again, so the entries of every conglomerate must come from the same (replicated) copy
+        JavaPairRDD<Integer, KVPair> encoded=rdd.values()
+                .mapPartitionsToPair(new BulkImportEncodeFunction(pkCols,tableVersion,execRowTypeFormatIds,indexMessages))
+                .persist(StorageLevel.MEMORY_AND_DISK_SER_2());
+        Txn childTxn=null;
+        Path stagingDir=null;
+        FileSystem fs=null;
+        long rowCount=0;
+        try{
+            childTxn=SIDriver.driver().lifecycleManager().beginChildTransaction(txn,Bytes.toBytes(Long.toString(heapConglom)));
+            stagingDir=new Path(SparkBulkLoadDataSetWriter.getStagingDirectory(config,conf),
+                    "import-"+heapConglom+"-"+childTxn.getTxnId());
+            fs=stagingDir.getFileSystem(conf);
+            fs.delete(stagingDir,true);
+
+            Connection connection=HBaseConnectionFactory.getInstance(config).getConnection();
+            InsertOperation insertOperation=(InsertOperation)opContext.getOperation();
+            long regionSize=conf.getLong(HConstants.HREGION_MAX_FILESIZE,HConstants.DEFAULT_MAX_FILE_SIZE);
+            for(int i=0;i<conglomerates.length;i++){
+                TableName tableName=tableInfoFactory.getTableInfo(Long.toString(conglomerates[i]));
+                JavaRDD<KVPair> entries=encoded.filter(new ConglomerateFilter(i)).values();
+                splitIfSingleRegion(connection,tableName,entries,config.getBulkImportSampleFraction(),regionSize);
+                ConstraintContext uniqueConstraint=insertOperation==null?null:insertOperation.getBulkImportConstraint(conglomerates[i]);
+                long written=SparkBulkLoadDataSetWriter.writeStoreFiles(entries,connection,tableName,
+                        new Path(stagingDir,Long.toString(conglomerates[i])),childTxn.getTxnId(),false,uniqueConstraint);
+                if(i==0)
+                    rowCount=written;
+            }
+
+            ValueRow valueRow=new ValueRow(3);
+            valueRow.setColumn(1,new SQLLongint(rowCount));
+            valueRow.setColumn(2,new SQLLongint());
+            valueRow.setColumn(3,new SQLVarchar());
+            if(opContext.isPermissive()){
+                long numBadRecords=opContext.getBadRecords();
+                valueRow.setColumn(2,new SQLLongint(numBadRecords));
+                if(numBadRecords>0){
+                    String fileName=opContext.getBadRecordFileName();
+                    valueRow.setColumn(3,new SQLVarchar(fileName));
+                    if(insertOperation!=null && insertOperation.isAboveFailThreshold(numBadRecords))
+                        throw ErrorState.LANG_IMPORT_TOO_MANY_BAD_RECORDS.newException(fileName);
+                }
+            }
+
+            for(int i=conglomerates.length-1;i>=0;i--){
+                TableName tableName=tableInfoFactory.getTableInfo(Long.toString(conglomerates[i]));
+                SparkBulkLoadDataSetWriter.loadStoreFiles(connection,tableName,
+                        new Path(stagingDir,Long.toString(conglomerates[i])),conf);
+            }
+            childTxn.commit();
+            return new SparkDataSet<>(SpliceSpark.getContext().parallelize(Collections.singletonList(new LocatedRow(valueRow)),1));
+        }catch(Exception e){
+            if(childTxn!=null){
+                try{
+                    childTxn.rollback();
+                }catch(IOException e1){
+                    e.addSuppressed(e1);
+                }
+            }
+            throw Exceptions.parseException(e);
+        }finally{
+            encoded.unpersist();
+            SparkBulkLoadDataSetWriter.deleteStagingDirectory(fs,stagingDir);
+        }
+    }
+
+    @Override
+    public void setTxn(TxnView childTxn){
+        this.txn=childTxn;
+    }
+
+    @Override
+    public TableWriter getTableWriter() throws StandardException{
+        return new InsertPipelineWriter(pkCols,tableVersion,execRowDefinition,null,null,heapConglom,txn,opContext,false);
+    }
+
+    @Override
+    public TxnView getTxn(){
+        return txn;
+    }
+
+    @Override
+    public byte[] getDestinationTable(){
+        return Bytes.toBytes(heapConglom);
+    }
+
+    /**
+     * Split a table which is still a single region, so that each region receives about as much of the
+     * import as a region may hold. The split points are evenly spaced among a sample of the entries.
+     */
+    private static void splitIfSingleRegion(Connection connection,TableName tableName,JavaRDD<KVPair> entries,
+                                            double sampleFraction,long regionSize) throws IOException, InterruptedException{
+        try(RegionLocator locator=connection.getRegionLocator(tableName)){
+            if(locator.getStartKeys().length>1)
+                return;
+        }
+
+        JavaPairRDD<byte[], Long> sample=entries.sample(false,sampleFraction)
+                .mapToPair(new SampleFunction())
+                .persist(StorageLevel.MEMORY_AND_DISK_SER());
+        try{
+            long sampledRows=sample.count();
+            if(sampledRows==0)
+                return;
+            long sampledBytes=sample.values().reduce(new SumFunction());
+            long regions=(long)Math.ceil(sampledBytes/sampleFraction/regionSize);
+            if(regions<=1)
+                return;
+            regions=Math.min(regions,sampledRows);
+            final long step=sampledRows/regions;
+            List<byte[]> splitPoints=sample.sortByKey(new SparkBulkLoadDataSetWriter.RowKeyComparator())
+                    .keys()
+                    .zipWithIndex()
+                    .filter(new Function<Tuple2<byte[], Long>, Boolean>(){
+                        @Override
+                        public Boolean call(Tuple2<byte[], Long> key) throws Exception{
+                            return key._2()>0 && key._2()%step==0;
+                        }
+                    })
+                    .keys()
+                    .collect();
+            split(connection,tableName,splitPoints);
+        }finally{
+            sample.unpersist();
+        }
+    }
+
+    private static void split(Connection connection,TableName tableName,List<byte[]> splitPoints) throws IOException, InterruptedException{
+        if(LOG.isInfoEnabled())
+            LOG.info("Splitting "+tableName+" into "+(splitPoints.size()+1)+" regions for a bulk import");
+        try(Admin admin=connection.getAdmin();
+            RegionLocator locator=connection.getRegionLocator(tableName)){
+            byte[] previous=null;
+            for(byte[] splitPoint : splitPoints){
+                if(previous!=null && Bytes.equals(previous,splitPoint))
+                    continue;
+                admin.split(tableName,splitPoint);
+                // the next point falls in the daughter region, which must be online before it can be split
+                long deadline=System.currentTimeMillis()+SPLIT_WAIT_MILLIS;
+                while(!isStartKey(locator.getStartKeys(),splitPoint)){
+                    if(System.currentTimeMillis()>deadline){
+                        LOG.warn("Timed out splitting "+tableName+" for a bulk import, continuing with the regions it has");
+                        return;
+                    }
+                    Thread.sleep(100);
+                }
+                previous=splitPoint;
+            }
+        }
+    }
+
+    private static boolean isStartKey(byte[][] startKeys,byte[] key){
+        for(byte[] startKey : startKeys){
+            if(Bytes.equals(startKey,key))
+                return true;
+        }
+        return false;
+    }
+
+    private static class ConglomerateFilter implements Function<Tuple2<Integer, KVPair>, Boolean>{
+        private static final long serialVersionUID=1l;
+        private final int position;
+
+        ConglomerateFilter(int position){
+            this.position=position;
+        }
+
+        @Override
+        public Boolean call(Tuple2<Integer, KVPair> entry) throws Exception{
+            return entry._1()==position;
+        }
+    }
+
+    private static class SampleFunction implements PairFunction<KVPair, byte[], Long>{
+        private static final long serialVersionUID=1l;
+
+        @Override
+        public Tuple2<byte[], Long> call(KVPair kvPair) throws Exception{
+            return new Tuple2<>(kvPair.getRowKey(),kvPair.getSize());
+        }
+    }
+
+    private static class SumFunction implements Function2<Long, Long, Long>{
+        private static final long serialVersionUID=1l;
+
+        @Override
+        public Long call(Long a,Long b) throws Exception{
+            return a+b;
+        }
+    }
+}
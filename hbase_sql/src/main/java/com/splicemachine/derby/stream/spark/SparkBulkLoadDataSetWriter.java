@@ -0,0 +1,220 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.stream.spark;
+
+import com.splicemachine.access.HConfiguration;
+import com.splicemachine.access.api.SConfiguration;
+import com.splicemachine.access.hbase.HBaseConnectionFactory;
+import com.splicemachine.access.hbase.HBaseTableInfoFactory;
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.types.SQLLongint;
+import com.splicemachine.db.impl.sql.execute.ValueRow;
+import com.splicemachine.derby.impl.sql.execute.operations.LocatedRow;
+import com.splicemachine.derby.stream.iapi.DataSet;
+import com.splicemachine.derby.stream.iapi.OperationContext;
+import com.splicemachine.derby.stream.iapi.TableWriter;
+import com.splicemachine.derby.stream.output.DataSetWriter;
+import com.splicemachine.derby.stream.output.direct.DirectPipelineWriter;
+import com.splicemachine.kvpair.KVPair;
+import com.splicemachine.pipeline.Exceptions;
+import com.splicemachine.pipeline.constraint.ConstraintContext;
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.api.txn.TxnView;
+import com.splicemachine.si.constants.SIConstants;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.HColumnDescriptor;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Admin;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.mapreduce.LoadIncrementalHFiles;
+import org.apache.log4j.Logger;
+import org.apache.spark.api.java.JavaPairRDD;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.api.java.function.PairFunction;
+import scala.Tuple2;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Loads a data set of {@link KVPair}s into a table without the write pipeline: the rows are sorted and
+ * partitioned by the table's regions, each partition is written to a store file in a staging directory,
+ * and the files are bulk loaded into the regions.
+ *
+ * The rows are loaded as committed at the builder's timestamp, so there is no per-row locking, conflict
+ * detection or memstore traffic. It is up to the caller to choose a timestamp at which that is correct.
+ * Only inserts can be loaded this way.
+ */
+public class SparkBulkLoadDataSetWriter<K> implements DataSetWriter{
+    private static final Logger LOG=Logger.getLogger(SparkBulkLoadDataSetWriter.class);
+
+    private final JavaPairRDD<K, KVPair> rdd;
+    private final JavaSparkContext context;
+    private final OperationContext opContext;
+    private final boolean skipIndex;
+    private final long destConglom;
+    private TxnView txn;
+    private final long timestamp;
+
+    public SparkBulkLoadDataSetWriter(JavaPairRDD<K, KVPair> rdd,
+                                      JavaSparkContext context,
+                                      OperationContext opContext,
+                                      boolean skipIndex,
+                                      long destConglom,
+                                      TxnView txn,
+                                      long timestamp){
+        this.rdd=rdd;
+        this.context=context;
+        this.opContext=opContext;
+        this.skipIndex=skipIndex;
+        this.destConglom=destConglom;
+        this.txn=txn;
+        this.timestamp=timestamp;
+    }
+
+    @Override
+    public DataSet<LocatedRow> write() throws StandardException{
+        SConfiguration config=HConfiguration.getConfiguration();
+        Configuration conf=HConfiguration.unwrapDelegate();
+        TableName tableName=HBaseTableInfoFactory.getInstance(config).getTableInfo(Long.toString(destConglom));
+        Path stagingDir=null;
+        FileSystem fs=null;
+        long rowCount=0;
+        try{
+            stagingDir=new Path(getStagingDirectory(config,conf),"bulk-"+destConglom+"-"+txn.getTxnId());
+            fs=stagingDir.getFileSystem(conf);
+            fs.delete(stagingDir,true);
+
+            Connection connection=HBaseConnectionFactory.getInstance(config).getConnection();
+            rowCount=writeStoreFiles(rdd.values(),connection,tableName,stagingDir,timestamp,true,null);
+            loadStoreFiles(connection,tableName,stagingDir,conf);
+        }catch(Exception e){
+            throw Exceptions.parseException(e);
+        }finally{
+            deleteStagingDirectory(fs,stagingDir);
+        }
+
+        ValueRow valueRow=new ValueRow(1);
+        valueRow.setColumn(1,new SQLLongint(rowCount));
+        return new SparkDataSet<>(context.parallelize(Collections.singletonList(new LocatedRow(valueRow)), 1));
+    }
+
+    @Override
+    public void setTxn(TxnView childTxn){
+        this.txn = childTxn;
+    }
+
+    @Override
+    public TableWriter getTableWriter() throws StandardException{
+        return new DirectPipelineWriter(destConglom,txn,opContext,skipIndex);
+    }
+
+    @Override
+    public TxnView getTxn(){
+        return txn;
+    }
+
+    @Override
+    public byte[] getDestinationTable(){
+        return Bytes.toBytes(destConglom);
+    }
+
+    /**
+     * Write the rows to store files under the staging directory, one for each region of the table.
+     *
+     * @param committed true to write the rows already committed at the timestamp, false to write them as
+     *                  written by the transaction whose id is the timestamp
+     * @param uniqueConstraint the constraint reported when two rows share a key, or null to report the table
+     * @return the number of rows written
+     */
+    static long writeStoreFiles(JavaRDD<KVPair> rows,Connection connection,TableName tableName,Path stagingDir,
+                                long timestamp,boolean committed,ConstraintContext uniqueConstraint) throws IOException{
+        if(uniqueConstraint==null)
+            uniqueConstraint=ConstraintContext.unique(tableName.getQualifierAsString(),tableName.getQualifierAsString());
+        byte[][] startKeys;
+        HColumnDescriptor family;
+        try(RegionLocator locator=connection.getRegionLocator(tableName);
+            Table table=connection.getTable(tableName)){
+            startKeys=locator.getStartKeys();
+            family=table.getTableDescriptor().getFamily(SIConstants.DEFAULT_FAMILY_BYTES);
+        }
+
+        List<Long> counts=rows
+                .mapToPair(new RowKeyFunction())
+                .repartitionAndSortWithinPartitions(new BulkLoadPartitioner(startKeys),new RowKeyComparator())
+                .mapPartitions(new BulkLoadHFileFunction(stagingDir.toString(),timestamp,committed,
+                        family.getCompression().getName(),family.getBlocksize(),
+                        family.getDataBlockEncoding().name(),family.getBloomFilterType().name(),uniqueConstraint))
+                .collect();
+        long rowCount=0;
+        for(Long count : counts){
+            rowCount+=count;
+        }
+        return rowCount;
+    }
+
+    static void loadStoreFiles(Connection connection,TableName tableName,Path stagingDir,Configuration conf) throws Exception{
+        // regions may have split since we read the boundaries; the loader splits files as needed
+        try(Admin admin=connection.getAdmin();
+            Table table=connection.getTable(tableName);
+            RegionLocator locator=connection.getRegionLocator(tableName)){
+            new LoadIncrementalHFiles(conf).doBulkLoad(stagingDir,admin,table,locator);
+        }
+    }
+
+    static Path getStagingDirectory(SConfiguration config,Configuration conf){
+        String dir=config.getBulkLoadStagingDirectory();
+        if(dir==null)
+            dir=conf.get("hbase.fs.tmp.dir","/tmp");
+        return new Path(dir);
+    }
+
+    static void deleteStagingDirectory(FileSystem fs,Path stagingDir){
+        if(fs==null)
+            return;
+        try{
+            fs.delete(stagingDir,true);
+        }catch(IOException ioe){
+            LOG.warn("Unable to delete bulk load staging directory "+stagingDir,ioe);
+        }
+    }
+
+    private static class RowKeyFunction implements PairFunction<KVPair, byte[], byte[]>{
+        @Override
+        public Tuple2<byte[], byte[]> call(KVPair kvPair) throws Exception{
+            if(kvPair.getType()!=KVPair.Type.INSERT)
+                throw new IOException("Only inserts can be bulk loaded, not "+kvPair.getType());
+            return new Tuple2<>(kvPair.getRowKey(),kvPair.getValue());
+        }
+    }
+
+    static class RowKeyComparator implements Comparator<byte[]>, Serializable{
+        private static final long serialVersionUID=1l;
+
+        @Override
+        public int compare(byte[] o1,byte[] o2){
+            return Bytes.BASE_COMPARATOR.compare(o1,o2);
+        }
+    }
+}
@@ -48,6 +48,7 @@ import com.splicemachine.derby.stream.function.Partitioner;
 import com.splicemachine.derby.stream.iapi.DataSet;
 import com.splicemachine.derby.stream.iapi.DistributedDataSetProcessor;
 import com.splicemachine.derby.stream.iapi.OperationContext;
+import com.splicemachine.derby.stream.iapi.OperationStatistics;
 import com.splicemachine.derby.stream.iapi.PairDataSet;
 import com.splicemachine.derby.stream.iapi.ScanSetBuilder;
 import com.splicemachine.derby.stream.utils.StreamUtils;
@@ -149,6 +150,11 @@ public class SparkDataSetProcessor implements DistributedDataSetProcessor, Seria
         }
     }
 
+    @Override
+    public OperationStatistics createOperationStatistics(SpliceOperation spliceOperation) {
+        return new SparkOperationStatistics(spliceOperation);
+    }
+
     @Override
     public void setJobGroup(String jobName, String jobDescription) {
         if (LOG.isTraceEnabled())
@@ -47,6 +47,17 @@ public class SparkInsertTableWriterBuilder<K,V> extends InsertTableWriterBuilder
     @SuppressWarnings("unchecked")
     @Override
     public DataSetWriter build() throws StandardException{
+        if(bulkImportIndexes!=null){
+            return new SparkBulkImportDataSetWriter<>((JavaPairRDD)rdd,
+                    operationContext,
+                    pkCols,
+                    tableVersion,
+                    execRowDefinition,
+                    execRowTypeFormatIds,
+                    heapConglom,
+                    bulkImportIndexes,
+                    txn);
+        }
         if(operationContext.getOperation()!=null){
             operationContext.getOperation().fireBeforeStatementTriggers();
         }
@@ -369,6 +369,21 @@ public class SparkOperationContext<Op extends SpliceOperation> implements Operat
         return regionTooBusyExceptions.value();
     }
 
+    @Override
+    public void recordSpill(long rows,long bytes){
+        // Spark manages (and reports) its own shuffle spills
+    }
+
+    @Override
+    public long getRecordsSpilled(){
+        return 0l;
+    }
+
+    @Override
+    public long getBytesSpilled(){
+        return 0l;
+    }
+
 
     @Override
     public void pushScope(String displayName){
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.stream.spark;
+
+import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
+import com.splicemachine.derby.stream.iapi.OperationStatistics;
+import org.apache.spark.Accumulator;
+import org.apache.spark.AccumulatorParam;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * Statistics held in Spark accumulators, so the values recorded by the executors are
+ * visible on the driver once the job completes.
+ */
+public class SparkOperationStatistics implements OperationStatistics{
+    private Accumulator<Long> rowsProduced;
+    private Accumulator<Long> bytesProduced;
+    private Accumulator<Long> wallClockTime;
+    private Accumulator<Long> cpuTime;
+    private Accumulator<Long> remoteReads;
+
+    public SparkOperationStatistics(){
+    }
+
+    @SuppressWarnings("unchecked")
+    public SparkOperationStatistics(SpliceOperation op){
+        String baseName="("+op.resultSetNumber()+") "+op.getName();
+        AccumulatorParam param=AccumulatorParam.LongAccumulatorParam$.MODULE$;
+        this.rowsProduced=SpliceSpark.getContext().accumulator(0l,baseName+" analyzed rows",param);
+        this.bytesProduced=SpliceSpark.getContext().accumulator(0l,baseName+" analyzed bytes",param);
+        this.wallClockTime=SpliceSpark.getContext().accumulator(0l,baseName+" analyzed wall time",param);
+        this.cpuTime=SpliceSpark.getContext().accumulator(0l,baseName+" analyzed cpu time",param);
+        this.remoteReads=SpliceSpark.getContext().accumulator(0l,baseName+" analyzed remote reads",param);
+    }
+
+    @Override
+    public void recordProduced(long bytes){
+        rowsProduced.add(1l);
+        bytesProduced.add(bytes);
+    }
+
+    @Override
+    public void recordTime(long wallNanos,long cpuNanos){
+        wallClockTime.add(wallNanos);
+        cpuTime.add(cpuNanos);
+    }
+
+    @Override
+    public void recordRemoteReads(long reads){
+        remoteReads.add(reads);
+    }
+
+    @Override
+    public long getRowsProduced(){
+        return rowsProduced.value();
+    }
+
+    @Override
+    public long getBytesProduced(){
+        return bytesProduced.value();
+    }
+
+    @Override
+    public long getWallClockTime(){
+        return wallClockTime.value();
+    }
+
+    @Override
+    public long getCpuTime(){
+        return cpuTime.value();
+    }
+
+    @Override
+    public long getRemoteReads(){
+        return remoteReads.value();
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException{
+        out.writeObject(rowsProduced);
+        out.writeObject(bytesProduced);
+        out.writeObject(wallClockTime);
+        out.writeObject(cpuTime);
+        out.writeObject(remoteReads);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException{
+        rowsProduced=(Accumulator<Long>)in.readObject();
+        bytesProduced=(Accumulator<Long>)in.readObject();
+        wallClockTime=(Accumulator<Long>)in.readObject();
+        cpuTime=(Accumulator<Long>)in.readObject();
+        remoteReads=(Accumulator<Long>)in.readObject();
+    }
+}
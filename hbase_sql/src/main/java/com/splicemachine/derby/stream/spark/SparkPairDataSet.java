@@ -24,9 +24,11 @@ import com.splicemachine.derby.stream.function.*;
 import com.splicemachine.derby.stream.iapi.DataSet;
 import com.splicemachine.derby.stream.iapi.OperationContext;
 import com.splicemachine.derby.stream.iapi.PairDataSet;
+import com.splicemachine.derby.stream.output.BulkLoadDataSetWriterBuilder;
 import com.splicemachine.derby.stream.output.DataSetWriterBuilder;
 import com.splicemachine.derby.stream.output.InsertDataSetWriterBuilder;
 import com.splicemachine.derby.stream.output.UpdateDataSetWriterBuilder;
+import com.splicemachine.kvpair.KVPair;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.Optional;
 import scala.Tuple2;
@@ -240,6 +242,12 @@ public class SparkPairDataSet<K,V> implements PairDataSet<K, V>{
         return new SparkDirectWriterBuilder<>(wrapExceptions());
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public BulkLoadDataSetWriterBuilder bulkLoadData() throws StandardException{
+        return new SparkBulkLoadWriterBuilder<>((JavaPairRDD<K,KVPair>)rdd);
+    }
+
     private void pushScopeIfNeeded(AbstractSpliceFunction function, boolean pushScope, String scopeDetail) {
         if (pushScope) {
             if (function != null && function.operationContext != null)
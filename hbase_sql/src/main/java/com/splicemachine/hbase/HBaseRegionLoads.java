@@ -211,7 +211,7 @@ public class HBaseRegionLoads implements PartitionLoadWatcher{
                     .setType(HBaseProtos.RegionSpecifier.RegionSpecifierType.ENCODED_REGION_NAME).setValue(
                                         ZeroCopyLiteralByteString.copyFromUtf8(info.getFirst())).build());
                 ClusterStatusProtos.RegionLoad load = rl.build();
-                HPartitionLoad value=new HPartitionLoad(info.getFirst(),load.getStorefileSizeMB(),load.getMemstoreSizeMB(),load.getStorefileIndexSizeMB());
+                HPartitionLoad value=new HPartitionLoad(info.getFirst(),load.getStorefileSizeMB(),load.getMemstoreSizeMB(),load.getStorefileIndexSizeMB(),load.getWriteRequestsCount());
                 retMap.put(info.getFirst(),value);
             }
 
@@ -49,64 +49,22 @@ public class HBaseSubregionSplitter implements SubregionSplitter{
         final HBaseTableInfoFactory infoFactory = HBaseTableInfoFactory.getInstance(HConfiguration.getConfiguration());
         for (final Partition split : splits) {
             try {
-                byte[] probe;
-                byte[] start = split.getStartKey();
-                if (start.length == 0) {
-                    // first region, pick smallest rowkey possible
-                    probe = new byte[]{0};
-                } else {
-                    // any other region, pick start row
-                    probe = start;
-                }
-
-                Map<byte[], List<InputSplit>> splitResults = table.coprocessorService(SpliceMessage.SpliceDerbyCoprocessorService.class, probe, probe,
-                        new Batch.Call<SpliceMessage.SpliceDerbyCoprocessorService, List<InputSplit>>() {
-                            @Override
-                            public List<InputSplit> call(SpliceMessage.SpliceDerbyCoprocessorService instance) throws IOException {
-                                ServerRpcController controller = new ServerRpcController();
-                                byte[] startKey = split.getStartKey();
-                                byte[] stopKey = split.getEndKey();
-
-                                if (LOG.isDebugEnabled()) {
-                                    LOG.debug(String.format("Original split [%s,%s] with scan [%s,%s]",
-                                            CellUtils.toHex(startKey), CellUtils.toHex(stopKey),
-                                            CellUtils.toHex(scanStartRow), CellUtils.toHex(scanStopRow)));
-
-                                }
-
-                                SpliceMessage.SpliceSplitServiceRequest message = SpliceMessage.SpliceSplitServiceRequest.newBuilder()
-                                        .setBeginKey(ZeroCopyLiteralByteString.wrap(scanStartRow))
-                                        .setEndKey(ZeroCopyLiteralByteString.wrap(scanStopRow))
-                                        .setRegionEndKey(ZeroCopyLiteralByteString.wrap(stopKey)).build();
-
-                                BlockingRpcCallback<SpliceMessage.SpliceSplitServiceResponse> rpcCallback = new BlockingRpcCallback<>();
-                                instance.computeSplits(controller, message, rpcCallback);
-                                SpliceMessage.SpliceSplitServiceResponse response = rpcCallback.get();
-                                if (controller.failed()) {
-                                    throw controller.getFailedOn();
-                                }
-                                List<InputSplit> result = new ArrayList<>();
-                                Iterator<ByteString> it = response.getCutPointList().iterator();
-                                byte[] first = it.next().toByteArray();
-                                while (it.hasNext()) {
-                                    byte[] end = it.next().toByteArray();
-                                    result.add(new SMSplit(
-                                            new TableSplit(
-                                                    infoFactory.getTableInfo(split.getTableName()),
-                                                    first,
-                                                    end,
-                                                    split.owningServer().getHostname())));
+                List<byte[]> cutPoints = getCutPoints(table, split.getStartKey(), split.getEndKey(), scanStartRow, scanStopRow);
+                Iterator<byte[]> it = cutPoints.iterator();
+                byte[] first = it.next();
+                while (it.hasNext()) {
+                    byte[] end = it.next();
+                    results.add(new SMSplit(
+                            new TableSplit(
+                                    infoFactory.getTableInfo(split.getTableName()),
+                                    first,
+                                    end,
+                                    split.owningServer().getHostname())));
 
-                                    if (LOG.isDebugEnabled()) {
-                                        LOG.debug(String.format("New split [%s,%s]", CellUtils.toHex(first), CellUtils.toHex(end)));
-                                    }
-                                    first = end;
-                                }
-                                return result;
-                            }
-                        });
-                for (List<InputSplit> value : splitResults.values()) {
-                    results.addAll(value);
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug(String.format("New split [%s,%s]", CellUtils.toHex(first), CellUtils.toHex(end)));
+                    }
+                    first = end;
                 }
             } catch (HMissedSplitException ms) {
                 throw ms;
@@ -127,4 +85,61 @@ public class HBaseSubregionSplitter implements SubregionSplitter{
         }
         return results;
     }
+
+    /**
+     * Ask the region holding {@code regionStart} where to cut the part of it which the scan covers into
+     * chunks of about splice.splitBlockSize bytes.
+     *
+     * @return the cut points in order, starting with the start of the first chunk and ending with the
+     * end of the last one
+     */
+    public static List<byte[]> getCutPoints(Table table,
+                                            byte[] regionStart,
+                                            final byte[] regionEnd,
+                                            final byte[] scanStartRow,
+                                            final byte[] scanStopRow) throws Throwable {
+        byte[] probe;
+        if (regionStart.length == 0) {
+            // first region, pick smallest rowkey possible
+            probe = new byte[]{0};
+        } else {
+            // any other region, pick start row
+            probe = regionStart;
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(String.format("Original split [%s,%s] with scan [%s,%s]",
+                    CellUtils.toHex(regionStart), CellUtils.toHex(regionEnd),
+                    CellUtils.toHex(scanStartRow), CellUtils.toHex(scanStopRow)));
+        }
+
+        Map<byte[], List<byte[]>> cutPointResults = table.coprocessorService(SpliceMessage.SpliceDerbyCoprocessorService.class, probe, probe,
+                new Batch.Call<SpliceMessage.SpliceDerbyCoprocessorService, List<byte[]>>() {
+                    @Override
+                    public List<byte[]> call(SpliceMessage.SpliceDerbyCoprocessorService instance) throws IOException {
+                        ServerRpcController controller = new ServerRpcController();
+                        SpliceMessage.SpliceSplitServiceRequest message = SpliceMessage.SpliceSplitServiceRequest.newBuilder()
+                                .setBeginKey(ZeroCopyLiteralByteString.wrap(scanStartRow))
+                                .setEndKey(ZeroCopyLiteralByteString.wrap(scanStopRow))
+                                .setRegionEndKey(ZeroCopyLiteralByteString.wrap(regionEnd)).build();
+
+                        BlockingRpcCallback<SpliceMessage.SpliceSplitServiceResponse> rpcCallback = new BlockingRpcCallback<>();
+                        instance.computeSplits(controller, message, rpcCallback);
+                        SpliceMessage.SpliceSplitServiceResponse response = rpcCallback.get();
+                        if (controller.failed()) {
+                            throw controller.getFailedOn();
+                        }
+                        List<byte[]> result = new ArrayList<>(response.getCutPointCount());
+                        for (ByteString cutPoint : response.getCutPointList()) {
+                            result.add(cutPoint.toByteArray());
+                        }
+                        return result;
+                    }
+                });
+        List<byte[]> cutPoints = new ArrayList<>();
+        for (List<byte[]> value : cutPointResults.values()) {
+            cutPoints.addAll(value);
+        }
+        return cutPoints;
+    }
 }
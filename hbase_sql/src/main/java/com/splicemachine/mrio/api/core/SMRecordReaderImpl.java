@@ -25,6 +25,7 @@ import com.splicemachine.derby.impl.sql.execute.operations.scanner.TableScannerB
 import com.splicemachine.derby.impl.store.access.hbase.HBaseRowLocation;
 import com.splicemachine.derby.stream.ActivationHolder;
 import com.splicemachine.derby.stream.spark.SparkOperationContext;
+import com.splicemachine.derby.stream.stats.StatisticsScanner;
 import com.splicemachine.metrics.Metrics;
 import com.splicemachine.mrio.MRConstants;
 import com.splicemachine.primitives.Bytes;
@@ -47,6 +48,7 @@ import org.apache.log4j.Logger;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class SMRecordReaderImpl extends RecordReader<RowLocation, ExecRow> {
     protected static final Logger LOG = Logger.getLogger(SMRecordReaderImpl.class);
@@ -61,6 +63,11 @@ public class SMRecordReaderImpl extends RecordReader<RowLocation, ExecRow> {
 	protected RowLocation rowLocation;
 	private List<AutoCloseable> closeables = new ArrayList<>();
     private boolean statisticsRun = false;
+    /*
+     * The start and stop keys of the blocks which a sampled statistics run reads, or null to read the
+     * whole split
+     */
+    private List<byte[][]> sampledBlocks;
 	private Txn localTxn;
 	private ActivationHolder activationHolder;
 
@@ -100,6 +107,8 @@ public class SMRecordReaderImpl extends RecordReader<RowLocation, ExecRow> {
             setScan(((HScan)scan).unwrapDelegate());
             // TODO (wjk): this seems weird (added with DB-4483)
             this.statisticsRun = AbstractSMInputFormat.oneSplitPerRegion(config);
+            if (statisticsRun)
+                sampleBlocks(tSplit, scan);
 	    restart(scan.getStartKey());
 
             SparkOperationContext operationContext = (SparkOperationContext)builder.getOperationContext();
@@ -208,7 +217,11 @@ public class SMRecordReaderImpl extends RecordReader<RowLocation, ExecRow> {
             if (statisticsRun)
                 driver.getPartitionInfoCache().invalidate(htable.getName());
             Partition clientPartition = new ClientPartition(instance.getConnection(),htable.getName(),htable,clock,driver.getPartitionInfoCache());
-			SplitRegionScanner srs = new SplitRegionScanner(scan,
+			Scan firstScan = scan;
+			if (sampledBlocks != null) {
+				firstScan = blockScan(sampledBlocks.get(0)[0], sampledBlocks.get(0)[1]);
+			}
+			SplitRegionScanner srs = new SplitRegionScanner(firstScan,
 					htable,
 					clock,
 					clientPartition,
@@ -222,11 +235,28 @@ public class SMRecordReaderImpl extends RecordReader<RowLocation, ExecRow> {
             TransactionalRegion region=SIDriver.driver().transactionalPartition(conglomId,new RegionPartition(hregion));
             TxnView parentTxn = builder.getTxn();
             this.localTxn = SIDriver.driver().lifecycleManager().beginChildTransaction(parentTxn, parentTxn.getIsolationLevel(), true, null);
+            DataScanner dataScanner = new RegionDataScanner(new RegionPartition(hregion),mrs,statisticsRun?Metrics.basicMetricFactory():Metrics.noOpMetricFactory());
+            if (sampledBlocks != null) {
+                dataScanner = new SampledDataScanner(new RegionPartition(hregion),
+                        dataScanner,
+                        sampledBlocks.subList(1, sampledBlocks.size()).iterator(),
+                        new SampledDataScanner.BlockOpener() {
+                            @Override
+                            public DataScanner open(byte[] start, byte[] stop) throws IOException {
+                                SplitRegionScanner blockScanner = new SplitRegionScanner(blockScan(start, stop),
+                                        htable,
+                                        clock,
+                                        clientPartition,
+                                        driver.getConfiguration());
+                                return new RegionDataScanner(new RegionPartition(blockScanner.getRegion()),blockScanner,Metrics.basicMetricFactory());
+                            }
+                        });
+            }
             builder.region(region)
                     .template(template)
                     .transaction(localTxn)
                     .scan(new HScan(scan))
-                    .scanner(new RegionDataScanner(new RegionPartition(hregion),mrs,statisticsRun?Metrics.basicMetricFactory():Metrics.noOpMetricFactory()));
+                    .scanner(dataScanner);
 			if (LOG.isTraceEnabled())
 				SpliceLogUtils.trace(LOG, "restart with builder=%s",builder);
 			siTableScanner = builder.build();
@@ -238,6 +268,60 @@ public class SMRecordReaderImpl extends RecordReader<RowLocation, ExecRow> {
 	}
 
 
+    /**
+     * Choose which blocks of the region a sampled statistics run reads: every {@code step}th block of the
+     * region, starting from a random one, where the step comes from the sample fraction and the row budget.
+     * Each row read then stands for {@code step} rows of the region. The whole region is read when it is not
+     * sampled or when it cannot be cut into blocks.
+     */
+    private void sampleBlocks(TableSplit tSplit, DataScan scan) throws IOException {
+        double sampleFraction = builder.getSampleFraction();
+        long rowBudget = builder.getSampleRowBudget();
+        if ((sampleFraction <= 0d || sampleFraction >= 1d) && rowBudget <= 0)
+            return;
+        if (htable == null)
+            return;
+        List<byte[]> cutPoints;
+        try {
+            cutPoints = HBaseSubregionSplitter.getCutPoints(htable, tSplit.getStartRow(), tSplit.getEndRow(), scan.getStartKey(), scan.getStopKey());
+        } catch (Throwable t) {
+            LOG.warn("Error while computing cutpoints, reading the whole region for statistics", t);
+            return;
+        }
+        int blocks = cutPoints.size() - 1;
+        long step = StatisticsScanner.sampleStep(blocks, sampleFraction, rowBudget, estimateRowsPerBlock());
+        if (step <= 1)
+            return;
+        sampledBlocks = new ArrayList<>();
+        for (int i = (int) ThreadLocalRandom.current().nextLong(step); i < blocks; i += step) {
+            sampledBlocks.add(new byte[][]{cutPoints.get(i), cutPoints.get(i + 1)});
+        }
+        builder.sampleWeight(step);
+        if (LOG.isDebugEnabled())
+            SpliceLogUtils.debug(LOG, "sampling %d of %d blocks of split %s", sampledBlocks.size(), blocks, tSplit);
+    }
+
+    /*
+     * A rough estimate from the column widths; columns without a maximum width count as 8 bytes
+     */
+    private long estimateRowsPerBlock() {
+        long rowSize = 0;
+        int[] fieldLengths = builder.getFieldLengths();
+        if (fieldLengths != null) {
+            for (int fieldLength : fieldLengths) {
+                rowSize += fieldLength > 0 ? fieldLength : 8;
+            }
+        }
+        return SIDriver.driver().getConfiguration().getSplitBlockSize() / Math.max(1l, rowSize);
+    }
+
+    private Scan blockScan(byte[] start, byte[] stop) throws IOException {
+        Scan blockScan = new Scan(scan);
+        blockScan.setStartRow(start);
+        blockScan.setStopRow(stop);
+        return blockScan;
+    }
+
     public int[] getExecRowTypeFormatIds() {
 		if (builder == null) {
 			String tableScannerAsString = config.get(MRConstants.SPLICE_SCAN_INFO);
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.splicemachine.mrio.api.core;
+
+import com.splicemachine.metrics.Metrics;
+import com.splicemachine.metrics.MultiTimeView;
+import com.splicemachine.metrics.TimeView;
+import com.splicemachine.storage.DataCell;
+import com.splicemachine.storage.DataScanner;
+import com.splicemachine.storage.Partition;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Scans a sample of the blocks of a region, one after the other, without reading the blocks in between.
+ * The scanner for each block is only opened once the previous one is exhausted, and the metrics are
+ * totalled over all of them.
+ */
+class SampledDataScanner implements DataScanner{
+
+    interface BlockOpener{
+        DataScanner open(byte[] start,byte[] stop) throws IOException;
+    }
+
+    private final Partition partition;
+    private final Iterator<byte[][]> remainingBlocks;
+    private final BlockOpener opener;
+    private final MultiTimeView readTime=Metrics.multiTimeView();
+    private DataScanner current;
+    private long bytesOutput;
+    private long rowsFiltered;
+    private long rowsVisited;
+
+    /**
+     * @param partition the region being sampled
+     * @param first the already opened scanner over the first sampled block
+     * @param remainingBlocks the start and stop keys of the other sampled blocks, in order
+     * @param opener opens a scanner over a single block
+     */
+    SampledDataScanner(Partition partition,DataScanner first,Iterator<byte[][]> remainingBlocks,BlockOpener opener){
+        this.partition=partition;
+        this.current=first;
+        this.remainingBlocks=remainingBlocks;
+        this.opener=opener;
+    }
+
+    @Override
+    public @Nonnull List<DataCell> next(int limit) throws IOException{
+        while(current!=null){
+            List<DataCell> next=current.next(limit);
+            if(next.size()>0) return next;
+            finishCurrent();
+            if(remainingBlocks.hasNext()){
+                byte[][] block=remainingBlocks.next();
+                current=opener.open(block[0],block[1]);
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    public TimeView getReadTime(){
+        if(current==null) return readTime;
+        MultiTimeView total=Metrics.multiTimeView();
+        total.update(readTime);
+        total.update(current.getReadTime());
+        return total;
+    }
+
+    @Override
+    public long getBytesOutput(){
+        return current==null?bytesOutput:bytesOutput+current.getBytesOutput();
+    }
+
+    @Override
+    public long getRowsFiltered(){
+        return current==null?rowsFiltered:rowsFiltered+current.getRowsFiltered();
+    }
+
+    @Override
+    public long getRowsVisited(){
+        return current==null?rowsVisited:rowsVisited+current.getRowsVisited();
+    }
+
+    @Override
+    public Partition getPartition(){
+        return partition;
+    }
+
+    @Override
+    public void close() throws IOException{
+        if(current!=null)
+            finishCurrent();
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private void finishCurrent() throws IOException{
+        DataScanner finished=current;
+        current=null;
+        readTime.update(finished.getReadTime());
+        bytesOutput+=finished.getBytesOutput();
+        rowsFiltered+=finished.getRowsFiltered();
+        rowsVisited+=finished.getRowsVisited();
+        finished.close();
+    }
+}
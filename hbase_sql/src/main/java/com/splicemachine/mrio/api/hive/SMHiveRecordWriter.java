@@ -30,6 +30,7 @@ import com.splicemachine.derby.impl.sql.execute.operations.LocatedRow;
 import com.splicemachine.derby.impl.sql.execute.operations.VTIOperation;
 import com.splicemachine.derby.impl.store.access.hbase.HBaseRowLocation;
 import com.splicemachine.derby.stream.control.ControlDataSet;
+import com.splicemachine.derby.stream.control.spill.SpillBudget;
 import com.splicemachine.derby.stream.iapi.DataSet;
 import com.splicemachine.derby.vti.SpliceIteratorVTI;
 import com.splicemachine.mrio.MRConstants;
@@ -117,7 +118,8 @@ public class SMHiveRecordWriter implements RecordWriter<RowLocationWritable, Exe
         LocatedRow locatedRow = new LocatedRow(rowLocation, value.get());
         ArrayList<LocatedRow> rows = Lists.newArrayList();
         rows.add(locatedRow);
-        return new ControlDataSet(rows.iterator());
+        // a single row, which never needs to spill
+        return new ControlDataSet(rows.iterator(),SpillBudget.unbounded());
     }
 
     private void init() {
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.stream.spark;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.pipeline.constraint.ConstraintContext;
+import com.splicemachine.si.constants.SIConstants;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.io.hfile.CacheConfig;
+import org.apache.hadoop.hbase.io.hfile.HFile;
+import org.apache.hadoop.hbase.io.hfile.HFileScanner;
+import org.apache.hadoop.hbase.regionserver.StoreFile;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import scala.Tuple2;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+public class BulkLoadHFileFunctionTest{
+    private static final long TIMESTAMP=1234l;
+
+    @Rule
+    public TemporaryFolder tempFolder=new TemporaryFolder();
+
+    private Configuration conf;
+    private FileSystem fs;
+    private Path file;
+
+    @Before
+    public void setUp() throws Exception{
+        conf=HBaseConfiguration.create();
+        fs=FileSystem.getLocal(conf);
+        file=new Path(tempFolder.getRoot().getAbsolutePath(),"storeFile");
+    }
+
+    @Test
+    public void committedRowsAreWrittenAtTheDemarcationPoint() throws Exception{
+        long rowCount=function(true).writeStoreFile(rows("a","b","c"),conf,fs,file);
+        Assert.assertEquals(3l,rowCount);
+
+        List<Cell> cells=readCells();
+        Assert.assertEquals("Every row should have a commit timestamp and a data cell",6,cells.size());
+        String[] keys={"a","b","c"};
+        for(int i=0;i<keys.length;i++){
+            Cell commit=cells.get(2*i);
+            Assert.assertEquals(keys[i],Bytes.toString(CellUtil.cloneRow(commit)));
+            Assert.assertArrayEquals(SIConstants.SNAPSHOT_ISOLATION_COMMIT_TIMESTAMP_COLUMN_BYTES,CellUtil.cloneQualifier(commit));
+            Assert.assertEquals(TIMESTAMP,commit.getTimestamp());
+            Assert.assertEquals(TIMESTAMP,Bytes.toLong(CellUtil.cloneValue(commit)));
+
+            Cell data=cells.get(2*i+1);
+            Assert.assertEquals(keys[i],Bytes.toString(CellUtil.cloneRow(data)));
+            Assert.assertArrayEquals(SIConstants.DEFAULT_FAMILY_BYTES,CellUtil.cloneFamily(data));
+            Assert.assertArrayEquals(SIConstants.PACKED_COLUMN_BYTES,CellUtil.cloneQualifier(data));
+            Assert.assertEquals(TIMESTAMP,data.getTimestamp());
+            Assert.assertEquals("value-"+keys[i],Bytes.toString(CellUtil.cloneValue(data)));
+        }
+    }
+
+    @Test
+    public void committedFilesAreMarkedFullyResolved() throws Exception{
+        function(true).writeStoreFile(rows("a","b"),conf,fs,file);
+
+        Map<byte[], byte[]> fileInfo=readFileInfo();
+        Assert.assertTrue(Bytes.toBoolean(fileInfo.get(SIConstants.SI_FULLY_RESOLVED_FILE_INFO)));
+        Assert.assertEquals(TIMESTAMP,Bytes.toLong(fileInfo.get(SIConstants.SI_MAX_TXN_ID_FILE_INFO)));
+        Assert.assertEquals(TIMESTAMP,Bytes.toLong(fileInfo.get(SIConstants.SI_MAX_COMMIT_TIMESTAMP_FILE_INFO)));
+        Assert.assertFalse(Bytes.toBoolean(fileInfo.get(SIConstants.SI_HAS_TOMBSTONES_FILE_INFO)));
+        Assert.assertNotNull("Missing bulk load time",fileInfo.get(StoreFile.BULKLOAD_TIME_KEY));
+        Assert.assertFalse(Bytes.toBoolean(fileInfo.get(StoreFile.MAJOR_COMPACTION_KEY)));
+    }
+
+    @Test
+    public void uncommittedRowsAreLeftForResolution() throws Exception{
+        long rowCount=function(false).writeStoreFile(rows("a","b"),conf,fs,file);
+        Assert.assertEquals(2l,rowCount);
+
+        List<Cell> cells=readCells();
+        Assert.assertEquals("Only data cells should be written",2,cells.size());
+        for(Cell cell : cells){
+            Assert.assertArrayEquals(SIConstants.PACKED_COLUMN_BYTES,CellUtil.cloneQualifier(cell));
+            Assert.assertEquals(TIMESTAMP,cell.getTimestamp());
+        }
+
+        Map<byte[], byte[]> fileInfo=readFileInfo();
+        Assert.assertNull(fileInfo.get(SIConstants.SI_FULLY_RESOLVED_FILE_INFO));
+        Assert.assertNull(fileInfo.get(SIConstants.SI_MAX_TXN_ID_FILE_INFO));
+        Assert.assertNull(fileInfo.get(SIConstants.SI_MAX_COMMIT_TIMESTAMP_FILE_INFO));
+        Assert.assertNotNull("Missing bulk load time",fileInfo.get(StoreFile.BULKLOAD_TIME_KEY));
+    }
+
+    @Test
+    public void duplicateKeysFailAsUniqueViolations() throws Exception{
+        try{
+            function(true).writeStoreFile(rows("a","b","b","c"),conf,fs,file);
+            Assert.fail("Expected a unique violation");
+        }catch(StandardException se){
+            Assert.assertEquals("23505",se.getSQLState());
+        }
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private BulkLoadHFileFunction function(boolean committed){
+        return new BulkLoadHFileFunction(tempFolder.getRoot().getAbsolutePath(),TIMESTAMP,committed,
+                "none",64*1024,"NONE","ROW",ConstraintContext.unique("T","IDX"));
+    }
+
+    private static Iterator<Tuple2<byte[], byte[]>> rows(String... keys){
+        List<Tuple2<byte[], byte[]>> rows=new ArrayList<>(keys.length);
+        for(String key : keys){
+            rows.add(new Tuple2<>(Bytes.toBytes(key),Bytes.toBytes("value-"+key)));
+        }
+        return rows.iterator();
+    }
+
+    private List<Cell> readCells() throws IOException{
+        HFile.Reader reader=HFile.createReader(fs,file,new CacheConfig(conf),conf);
+        try{
+            reader.loadFileInfo();
+            List<Cell> cells=new ArrayList<>();
+            HFileScanner scanner=reader.getScanner(false,false);
+            if(scanner.seekTo()){
+                do{
+                    cells.add(scanner.getKeyValue());
+                }while(scanner.next());
+            }
+            return cells;
+        }finally{
+            reader.close();
+        }
+    }
+
+    private Map<byte[], byte[]> readFileInfo() throws IOException{
+        HFile.Reader reader=HFile.createReader(fs,file,new CacheConfig(conf),conf);
+        try{
+            return reader.loadFileInfo();
+        }finally{
+            reader.close();
+        }
+    }
+}
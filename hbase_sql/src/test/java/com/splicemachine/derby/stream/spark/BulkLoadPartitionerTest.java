@@ -0,0 +1,58 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.splicemachine.derby.stream.spark;
+
+import com.splicemachine.primitives.Bytes;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BulkLoadPartitionerTest{
+
+    private static final byte[][] START_KEYS={
+            new byte[0],Bytes.toBytes("d"),Bytes.toBytes("m"),Bytes.toBytes("t")
+    };
+
+    @Test
+    public void rowsGoToTheRegionContainingThem() throws Exception{
+        BulkLoadPartitioner partitioner=new BulkLoadPartitioner(START_KEYS);
+        Assert.assertEquals(4,partitioner.numPartitions());
+        Assert.assertEquals(0,partitioner.getPartition(new byte[0]));
+        Assert.assertEquals(0,partitioner.getPartition(Bytes.toBytes("a")));
+        Assert.assertEquals(0,partitioner.getPartition(Bytes.toBytes("czzz")));
+        Assert.assertEquals(1,partitioner.getPartition(Bytes.toBytes("d")));
+        Assert.assertEquals(1,partitioner.getPartition(Bytes.toBytes("d0")));
+        Assert.assertEquals(2,partitioner.getPartition(Bytes.toBytes("m")));
+        Assert.assertEquals(3,partitioner.getPartition(Bytes.toBytes("t")));
+        Assert.assertEquals(3,partitioner.getPartition(Bytes.toBytes("zzz")));
+    }
+
+    @Test
+    public void singleRegionTakesEveryRow() throws Exception{
+        BulkLoadPartitioner partitioner=new BulkLoadPartitioner(new byte[][]{new byte[0]});
+        Assert.assertEquals(0,partitioner.getPartition(Bytes.toBytes("anything")));
+        Assert.assertEquals(0,partitioner.getPartition(new byte[0]));
+    }
+
+    @Test
+    public void partitionersOverTheSameRegionsAreEqual() throws Exception{
+        BulkLoadPartitioner first=new BulkLoadPartitioner(START_KEYS);
+        BulkLoadPartitioner second=new BulkLoadPartitioner(new byte[][]{
+                new byte[0],Bytes.toBytes("d"),Bytes.toBytes("m"),Bytes.toBytes("t")
+        });
+        Assert.assertEquals(first,second);
+        Assert.assertEquals(first.hashCode(),second.hashCode());
+        Assert.assertNotEquals(first,new BulkLoadPartitioner(new byte[][]{new byte[0]}));
+    }
+}
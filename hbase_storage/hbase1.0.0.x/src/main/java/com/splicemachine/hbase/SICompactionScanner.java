@@ -57,6 +57,7 @@ public class SICompactionScanner implements InternalScanner {
     @Override
     public void close() throws IOException {
         delegate.close();
+        compactionState.close();
     }
 
     @Override
@@ -56,5 +56,6 @@ public class SICompactionScanner implements InternalScanner {
     @Override
     public void close() throws IOException {
         delegate.close();
+        compactionState.close();
     }
 }
\ No newline at end of file
@@ -293,4 +293,9 @@ public class ClientPartition extends SkeletonHBaseClientPartition{
     public BitSet getBloomInMemoryCheck(boolean hasConstraintChecker,Pair<KVPair, Lock>[] dataAndLocks) throws IOException {
         return null;
     }
+
+    @Override
+    public ResolvedDataSummary getResolvedDataSummary() throws IOException{
+        return null;
+    }
 }
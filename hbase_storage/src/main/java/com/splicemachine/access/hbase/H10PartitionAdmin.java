@@ -19,7 +19,9 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.spark_project.guava.base.Function;
 import org.apache.hadoop.hbase.*;
@@ -126,6 +128,23 @@ public class H10PartitionAdmin implements PartitionAdmin{
         });
     }
 
+    @Override
+    public Map<String,Long> tableWriteRequestCounts() throws IOException{
+        String namespace=SIDriver.driver().getConfiguration().getNamespace();
+        ClusterStatus clusterStatus=admin.getClusterStatus();
+        Map<String,Long> writeCounts=new HashMap<>();
+        for(ServerName server:clusterStatus.getServers()){
+            for(RegionLoad regionLoad:clusterStatus.getLoad(server).getRegionsLoad().values()){
+                TableName table=HRegionInfo.getTable(regionLoad.getName());
+                if(!namespace.equals(table.getNamespaceAsString())) continue;
+                String tableName=table.getQualifierAsString();
+                Long writes=writeCounts.get(tableName);
+                writeCounts.put(tableName,(writes==null?0l:writes)+regionLoad.getWriteRequestsCount());
+            }
+        }
+        return writeCounts;
+    }
+
     @Override
     public Iterable<? extends Partition> allPartitions(String tableName) throws IOException{
         TableName tn =tableInfoFactory.getTableInfo(tableName);
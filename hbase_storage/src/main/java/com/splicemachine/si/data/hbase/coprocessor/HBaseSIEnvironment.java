@@ -56,6 +56,7 @@ import com.splicemachine.storage.HFilterFactory;
 import com.splicemachine.storage.HNIOFileSystem;
 import com.splicemachine.storage.PartitionInfoCache;
 import com.splicemachine.timestamp.api.TimestampSource;
+import com.splicemachine.timestamp.hbase.ZkActiveTimestamps;
 import com.splicemachine.timestamp.hbase.ZkTimestampSource;
 
 /**
@@ -77,6 +78,7 @@ public class HBaseSIEnvironment implements SIEnvironment{
     private final Clock clock;
     private final DistributedFileSystem fileSystem;
     private final SnowflakeFactory snowflakeFactory;
+    private ZkActiveTimestamps activeTimestamps;
     private SIDriver siDriver;
 
 
@@ -104,7 +106,7 @@ public class HBaseSIEnvironment implements SIEnvironment{
         this.partitionCache = PartitionCacheService.loadPartitionCache(config);
         this.partitionFactory =TableFactoryService.loadTableFactory(clock,this.config,partitionCache);
         TxnNetworkLayerFactory txnNetworkLayerFactory= TableFactoryService.loadTxnNetworkLayer(this.config);
-        this.txnStore = new CoprocessorTxnStore(txnNetworkLayerFactory,timestampSource,null);
+        this.txnStore = new CoprocessorTxnStore(txnNetworkLayerFactory,timestampSource,null,config.getGroupCommitMaxBatchSize());
         int completedTxnCacheSize = config.getCompletedTxnCacheSize();
         int completedTxnConcurrency = config.getCompletedTxnConcurrency();
         this.txnSupplier = new CompletedTxnCacheSupplier(txnStore,completedTxnCacheSize,completedTxnConcurrency);
@@ -130,7 +132,7 @@ public class HBaseSIEnvironment implements SIEnvironment{
         this.partitionCache = PartitionCacheService.loadPartitionCache(config);
         this.partitionFactory =TableFactoryService.loadTableFactory(clock, this.config,partitionCache);
         TxnNetworkLayerFactory txnNetworkLayerFactory= TableFactoryService.loadTxnNetworkLayer(this.config);
-        this.txnStore = new CoprocessorTxnStore(txnNetworkLayerFactory,timestampSource,null);
+        this.txnStore = new CoprocessorTxnStore(txnNetworkLayerFactory,timestampSource,null,config.getGroupCommitMaxBatchSize());
         int completedTxnCacheSize = config.getCompletedTxnCacheSize();
         int completedTxnConcurrency = config.getCompletedTxnConcurrency();
         this.txnSupplier = new CompletedTxnCacheSupplier(txnStore,completedTxnCacheSize,completedTxnConcurrency);
@@ -147,6 +149,9 @@ public class HBaseSIEnvironment implements SIEnvironment{
                 config.getTransactionKeepAliveThreads(),
                 txnStore);
         siDriver = SIDriver.loadDriver(this);
+        //publish before anything can begin a transaction here, so that compactions never purge what it might read
+        this.activeTimestamps = new ZkActiveTimestamps(rzk,config.getSpliceRootPath());
+        activeTimestamps.startPublishing(siDriver.getActiveTransactions(),config.getActiveTimestampInterval());
     }
 
 
@@ -166,9 +166,8 @@ public class SIObserver extends BaseRegionObserver{
                                       InternalScanner scanner,ScanType scanType,CompactionRequest compactionRequest) throws IOException{
         if(tableEnvMatch){
             SIDriver driver=SIDriver.driver();
-            SICompactionState state = new SICompactionState(driver.getTxnSupplier(),
-                    driver.getRollForward(),
-                    driver.getConfiguration().getActiveTransactionCacheSize());
+            SICompactionState state = SICompactionState.forCompaction(driver,
+                    compactionRequest!=null && compactionRequest.isAllFiles());
             return new SICompactionScanner(state,scanner);
         }else{
             return super.preCompact(e,store,scanner,scanType,compactionRequest);
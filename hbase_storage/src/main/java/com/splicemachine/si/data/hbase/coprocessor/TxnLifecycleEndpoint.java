@@ -173,6 +173,51 @@ public class TxnLifecycleEndpoint extends TxnMessage.TxnLifecycleService impleme
         }
     }
 
+    @Override
+    public void getTransactions(RpcController controller,TxnMessage.TxnsRequest request,RpcCallback<TxnMessage.TxnsResponse> done){
+        try{
+            long[] txnIds=new long[request.getTxnIdsCount()];
+            for(int i=0;i<txnIds.length;i++){
+                txnIds[i]=request.getTxnIds(i);
+            }
+            TxnMessage.Txn[] transactions=lifecycleStore.getTransactions(txnIds);
+            TxnMessage.TxnsResponse.Builder response=TxnMessage.TxnsResponse.newBuilder();
+            for(TxnMessage.Txn transaction : transactions){
+                if(transaction!=null)
+                    response.addTxns(transaction);
+            }
+            done.run(response.build());
+        }catch(IOException ioe){
+            ResponseConverter.setControllerException(controller,ioe);
+        }
+    }
+
+    @Override
+    public void keepAliveTransactions(RpcController controller,TxnMessage.KeepAliveRequest request,RpcCallback<TxnMessage.KeepAliveResponse> done){
+        try{
+            long[] txnIds=new long[request.getTxnIdsCount()];
+            for(int i=0;i<txnIds.length;i++){
+                txnIds[i]=request.getTxnIds(i);
+            }
+            done.run(lifecycleStore.keepAlive(txnIds));
+        }catch(IOException ioe){
+            ResponseConverter.setControllerException(controller,ioe);
+        }
+    }
+
+    @Override
+    public void commitTransactions(RpcController controller,TxnMessage.CommitRequest request,RpcCallback<TxnMessage.CommitResponse> done){
+        try{
+            long[] txnIds=new long[request.getTxnIdsCount()];
+            for(int i=0;i<txnIds.length;i++){
+                txnIds[i]=request.getTxnIds(i);
+            }
+            done.run(lifecycleStore.commitTransactions(txnIds));
+        }catch(IOException ioe){
+            ResponseConverter.setControllerException(controller,ioe);
+        }
+    }
+
     @Override
     public void getActiveTransactionIds(RpcController controller,TxnMessage.ActiveTxnRequest request,RpcCallback<TxnMessage.ActiveTxnIdResponse> done){
         long endTxnId=request.getEndTxnId();
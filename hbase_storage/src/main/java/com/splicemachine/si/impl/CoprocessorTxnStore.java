@@ -39,6 +39,8 @@ import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicLong;
 
+import static com.splicemachine.si.constants.SIConstants.TRANSACTION_TABLE_BUCKET_COUNT;
+
 /**
  * Transaction Store which uses the TxnLifecycleEndpoint to manage and access transactions
  * remotely.
@@ -55,6 +57,7 @@ public class CoprocessorTxnStore implements TxnStore {
     private TxnSupplier cache; //a transaction store which uses a global cache for us
     @ThreadSafe
     private final TimestampSource timestampSource;
+    private final TxnGroupCommitter groupCommitter;
 
     /*monitoring fields*/
     private final AtomicLong lookups=new AtomicLong(0l);
@@ -65,10 +68,12 @@ public class CoprocessorTxnStore implements TxnStore {
 
     public CoprocessorTxnStore(TxnNetworkLayerFactory tableFactory,
                                TimestampSource timestampSource,
-                               @ThreadSafe TxnSupplier txnCache){
+                               @ThreadSafe TxnSupplier txnCache,
+                               int groupCommitMaxBatchSize){
         this.tableFactory=tableFactory;
         this.cache = txnCache==null?this:txnCache; // Not Used...
         this.timestampSource=timestampSource;
+        this.groupCommitter=new TxnGroupCommitter(tableFactory,groupCommitMaxBatchSize);
     }
 
     @Override
@@ -121,15 +126,9 @@ public class CoprocessorTxnStore implements TxnStore {
 
     @Override
     public long commit(long txnId) throws IOException{
-        byte[] rowKey=getTransactionRowKey(txnId);
-        TxnMessage.TxnLifecycleMessage lifecycle=TxnMessage.TxnLifecycleMessage.newBuilder()
-                .setTxnId(txnId).setAction(TxnMessage.LifecycleAction.COMMIT).build();
-
-        try(TxnNetworkLayer table = tableFactory.accessTxnNetwork()){
-            TxnMessage.ActionResponse response = table.lifecycleAction(rowKey,lifecycle);
-            commits.incrementAndGet();
-            return response.getCommitTs();
-        }
+        long commitTs=groupCommitter.commit(txnId);
+        commits.incrementAndGet();
+        return commitTs;
     }
 
     @Override
@@ -144,6 +143,53 @@ public class CoprocessorTxnStore implements TxnStore {
         }
     }
 
+    @Override
+    public Txn.State[] keepAlive(long[] txnIds) throws IOException{
+        /*
+         * As with getTransactions(), issue one request per bucket rather than one per transaction
+         */
+        TxnMessage.KeepAliveRequest.Builder[] buckets=new TxnMessage.KeepAliveRequest.Builder[TRANSACTION_TABLE_BUCKET_COUNT];
+        for(long txnId : txnIds){
+            int bucket=(int)(txnId&(TRANSACTION_TABLE_BUCKET_COUNT-1));
+            if(buckets[bucket]==null)
+                buckets[bucket]=TxnMessage.KeepAliveRequest.newBuilder();
+            buckets[bucket].addTxnIds(txnId);
+        }
+
+        Map<Long,Txn.State> outcomes=new HashMap<>(txnIds.length);
+        List<Long> missing=new ArrayList<>();
+        try(TxnNetworkLayer table=tableFactory.accessTxnNetwork()){
+            for(TxnMessage.KeepAliveRequest.Builder bucket : buckets){
+                if(bucket==null) continue;
+                byte[] rowKey=getTransactionRowKey(bucket.getTxnIds(0));
+                TxnMessage.KeepAliveResponse response=table.keepAlive(rowKey,bucket.build());
+                for(Long txnId : response.getActiveTxnIdsList()){
+                    outcomes.put(txnId,Txn.State.ACTIVE);
+                }
+                for(Long txnId : response.getTimedOutTxnIdsList()){
+                    outcomes.put(txnId,Txn.State.ROLLEDBACK);
+                }
+                missing.addAll(response.getMissingTxnIdsList());
+            }
+        }
+
+        //these live outside the region which served their bucket, so keep them alive individually
+        for(Long txnId : missing){
+            try{
+                if(keepAlive(txnId))
+                    outcomes.put(txnId,Txn.State.ACTIVE);
+            }catch(HTransactionTimeout tte){
+                outcomes.put(txnId,Txn.State.ROLLEDBACK);
+            }
+        }
+
+        Txn.State[] states=new Txn.State[txnIds.length];
+        for(int i=0;i<txnIds.length;i++){
+            states[i]=outcomes.get(txnIds[i]);
+        }
+        return states;
+    }
+
     @Override
     public void elevateTransaction(Txn txn,byte[] newDestinationTable) throws IOException{
         byte[] rowKey=getTransactionRowKey(txn.getTxnId());
@@ -242,6 +288,55 @@ public class CoprocessorTxnStore implements TxnStore {
         }
     }
 
+    @Override
+    public TxnView[] getTransactions(long[] txnIds) throws IOException{
+        TxnView[] txns=new TxnView[txnIds.length];
+        if(txnIds.length==1)
+            txns[0]=getTransaction(txnIds[0]);
+        if(txnIds.length<=1) return txns;
+
+        /*
+         * Every transaction in a bucket lives in the same region (unless that region is
+         * in the middle of a split), so we issue one request per bucket.
+         */
+        TxnMessage.TxnsRequest.Builder[] buckets=new TxnMessage.TxnsRequest.Builder[TRANSACTION_TABLE_BUCKET_COUNT];
+        for(long txnId : txnIds){
+            int bucket=(int)(txnId&(TRANSACTION_TABLE_BUCKET_COUNT-1));
+            if(buckets[bucket]==null)
+                buckets[bucket]=TxnMessage.TxnsRequest.newBuilder();
+            buckets[bucket].addTxnIds(txnId);
+        }
+
+        Map<Long,TxnView> found=new HashMap<>(txnIds.length);
+        try(TxnNetworkLayer table=tableFactory.accessTxnNetwork()){
+            for(TxnMessage.TxnsRequest.Builder bucket : buckets){
+                if(bucket==null) continue;
+                byte[] rowKey=getTransactionRowKey(bucket.getTxnIds(0));
+                TxnMessage.TxnsResponse response=table.getTxns(rowKey,bucket.build());
+                for(TxnMessage.Txn messageTxn : response.getTxnsList()){
+                    TxnView txn=decode(messageTxn);
+                    if(txn!=null)
+                        found.put(txn.getTxnId(),txn);
+                }
+            }
+        }catch(Throwable throwable){
+            throw new IOException(throwable);
+        }
+        lookups.addAndGet(found.size());
+
+        for(int i=0;i<txnIds.length;i++){
+            txns[i]=found.get(txnIds[i]);
+            if(txns[i]==null){
+                /*
+                 * Either the transaction does not exist, or it lives outside the region
+                 * which served its bucket; look it up individually
+                 */
+                txns[i]=getTransaction(txnIds[i]);
+            }
+        }
+        return txns;
+    }
+
     /*caching methods--since we don't have a cache, these are no-ops*/
     @Override
     public boolean transactionCached(long txnId){
@@ -17,28 +17,36 @@ package com.splicemachine.si.impl;
 
 import org.spark_project.guava.util.concurrent.ThreadFactoryBuilder;
 import com.splicemachine.annotations.ThreadSafe;
-import com.splicemachine.concurrent.ThreadLocalRandom;
 import com.splicemachine.si.api.txn.KeepAliveScheduler;
 import com.splicemachine.si.api.txn.Txn;
 import com.splicemachine.si.api.txn.TxnStore;
 import com.splicemachine.utils.SpliceLogUtils;
 import org.apache.log4j.Logger;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 /**
+ * KeepAliveScheduler which coalesces keep alives.
+ * <p/>
+ * Rather than issuing a keep alive call for each transaction, all scheduled transactions are kept alive together
+ * at regular intervals, through {@link TxnStore#keepAlive(long[])}, so that the number of keep alive calls grows
+ * with the number of transaction table regions rather than with the number of open transactions.
+ *
  * @author Scott Fines
  *         Date: 6/25/14
  */
 public class QueuedKeepAliveScheduler implements KeepAliveScheduler{
     private static final Logger LOG=Logger.getLogger(QueuedKeepAliveScheduler.class);
-    private final long maxWaitIntervalMs;
     private final long maxKeepAliveIntervalMs;
     private final ScheduledExecutorService threadPool;
-    private final com.splicemachine.concurrent.ThreadLocalRandom random;
+    private final Queue<KeepAlive> pending=new ConcurrentLinkedQueue<>();
 
     private final
     @ThreadSafe
@@ -49,21 +57,24 @@ public class QueuedKeepAliveScheduler implements KeepAliveScheduler{
 
     public QueuedKeepAliveScheduler(long maxWaitIntervalMs,long maxKeepAliveIntervalMs,
                                     int numKeepers,TxnStore txnStore){
-        this.maxWaitIntervalMs=maxWaitIntervalMs;
         ThreadFactory factory=new ThreadFactoryBuilder().setNameFormat("keepAlive-thread-%d").setDaemon(true).build();
 
         this.threadPool=Executors.newScheduledThreadPool(numKeepers,factory);
-        this.random=ThreadLocalRandom.current();
         this.txnStore=txnStore;
         this.maxKeepAliveIntervalMs=maxKeepAliveIntervalMs;
+        /*
+         * Individually scheduled keep alives used to wait a random interval of up to maxWaitIntervalMs, so
+         * we flush at half that to keep the same average keep alive rate per transaction.
+         */
+        long flushIntervalMs=Math.max(1l,maxWaitIntervalMs/2);
+        threadPool.scheduleWithFixedDelay(new Flush(),flushIntervalMs,flushIntervalMs,TimeUnit.MILLISECONDS);
     }
 
     @Override
     public void scheduleKeepAlive(Txn txn){
         if(shutdown) return;
 
-//				activeTxns.add(txn);
-        threadPool.schedule(new KeepAlive(txn),random.nextLong(maxWaitIntervalMs),TimeUnit.MILLISECONDS);
+        pending.add(new KeepAlive(txn));
     }
 
     @Override
@@ -76,7 +87,7 @@ public class QueuedKeepAliveScheduler implements KeepAliveScheduler{
         threadPool.shutdownNow();
     }
 
-    private class KeepAlive implements Runnable{
+    private static class KeepAlive{
         private final Txn txn;
         private long lastKeepAliveTime;
 
@@ -84,68 +95,97 @@ public class QueuedKeepAliveScheduler implements KeepAliveScheduler{
             this.txn=txn;
             this.lastKeepAliveTime=System.currentTimeMillis();
         }
+    }
+
+    private class Flush implements Runnable{
 
         @Override
         public void run(){
-            if(txn.getEffectiveState()!=Txn.State.ACTIVE){
-                return; //nothing to do, we no longer need to keep anything alive
+            if(shutdown) return;
+            try{
+                flush();
+            }catch(Throwable t){
+                //never let an error cancel the flush schedule
+                LOG.error("Unexpected error during transaction keep alive",t);
             }
-            long keepAliveTime=System.currentTimeMillis()-lastKeepAliveTime;
-
-            if(keepAliveTime>2*maxKeepAliveIntervalMs){
-                SpliceLogUtils.warn(LOG,"It has been %d ms since the last time we tried to perform"+
-                        "a keep alive, which is longer than the maximum interval");
-                                /*
-								 * We are the only ones trying to keep this transaction alive. If we know
-								 * for a fact that we had to wait longer than the transaction timeout, then
-								 * we don't need to keep trying--just roll back the transaction and return.
-								 *
-								 * However, we want to leave some room for network slop here, so we err
-								 * on the side of caution, and only use this if we exceed twice the actual
-								 * keep alive window. That way, we probably never need this, but it's available
-								 * if we do.
-								 */
-                try{
-                    txn.rollback();
-                }catch(IOException e){
-                    LOG.info("Unable to roll back transaction "+txn.getTxnId()
-                            +" but nothing to be concerned with, since it has already timed out",e);
+        }
+
+        private void flush(){
+            List<KeepAlive> toKeepAlive=new ArrayList<>(pending.size());
+            KeepAlive next;
+            while((next=pending.poll())!=null){
+                Txn txn=next.txn;
+                if(txn.getEffectiveState()!=Txn.State.ACTIVE)
+                    continue; //nothing to do, we no longer need to keep anything alive
+                long keepAliveTime=System.currentTimeMillis()-next.lastKeepAliveTime;
+
+                if(keepAliveTime>2*maxKeepAliveIntervalMs){
+                    SpliceLogUtils.warn(LOG,"It has been %d ms since the last time we tried to perform"+
+                            "a keep alive, which is longer than the maximum interval",keepAliveTime);
+                    /*
+                     * We are the only ones trying to keep this transaction alive. If we know
+                     * for a fact that we had to wait longer than the transaction timeout, then
+                     * we don't need to keep trying--just roll back the transaction and return.
+                     *
+                     * However, we want to leave some room for network slop here, so we err
+                     * on the side of caution, and only use this if we exceed twice the actual
+                     * keep alive window. That way, we probably never need this, but it's available
+                     * if we do.
+                     */
+                    rollback(txn);
+                    continue;
                 }
-                return;
+                toKeepAlive.add(next);
+            }
+            if(toKeepAlive.isEmpty()) return;
+
+            long[] txnIds=new long[toKeepAlive.size()];
+            for(int i=0;i<txnIds.length;i++){
+                txnIds[i]=toKeepAlive.get(i).txn.getTxnId();
             }
 
+            Txn.State[] states;
+            long time=System.currentTimeMillis();
             try{
-                long time=System.currentTimeMillis();
-                boolean reschedule=txnStore.keepAlive(txn.getTxnId());
-                time=System.currentTimeMillis()-time; //measure our latency
-                if(reschedule){
-                    //use a random slop factor to load-balance our keep alive requests.
-                    threadPool.schedule(this,random.nextLong(maxWaitIntervalMs),TimeUnit.MILLISECONDS);
-                    lastKeepAliveTime=System.currentTimeMillis(); //include network latency in our wait period
-                }
-                if(time>0.1*maxKeepAliveIntervalMs)
-                    SpliceLogUtils.warn(LOG,"It took longer than 10% of the keep-alive interval to perform"+
-                            "keep alive for transaction %d. This may be a sign that load will begin interfering"+
-                            "with the transaction system",txn.getTxnId());
-            }catch(HTransactionTimeout tte){
-                LOG.error("Transaction "+txn.getTxnId()+" has timed out");
-									/*
-									 * We attempted to keep alive a transaction that has already timed out for a different
-									 * reason. Ensure that the transaction is rolled back
-									 */
-                try{
-                    txn.rollback();
-                }catch(IOException e){
-                    LOG.info("Unable to roll back transaction "+
-                            txn.getTxnId()+" but nothing to be concerned with, since it has already timed out",e);
+                states=txnStore.keepAlive(txnIds);
+            }catch(IOException e){
+                /*
+                 * This could be a real problem, but we don't have anything that we can really do about this,
+                 * so we just log the error and hope it resolves itself.
+                 */
+                LOG.error("Unable to keep "+txnIds.length+" transactions alive. Will try again in a bit",e);
+                pending.addAll(toKeepAlive);
+                return;
+            }
+            time=System.currentTimeMillis()-time; //measure our latency
+            if(time>0.1*maxKeepAliveIntervalMs)
+                SpliceLogUtils.warn(LOG,"It took longer than 10%% of the keep-alive interval to perform"+
+                        "keep alive for %d transactions. This may be a sign that load will begin interfering"+
+                        "with the transaction system",txnIds.length);
+
+            long now=System.currentTimeMillis(); //include network latency in our wait period
+            for(int i=0;i<states.length;i++){
+                KeepAlive keepAlive=toKeepAlive.get(i);
+                if(states[i]==Txn.State.ACTIVE){
+                    keepAlive.lastKeepAliveTime=now;
+                    pending.add(keepAlive);
+                }else if(states[i]==Txn.State.ROLLEDBACK){
+                    LOG.error("Transaction "+keepAlive.txn.getTxnId()+" has timed out");
+                    /*
+                     * We attempted to keep alive a transaction that has already timed out for a different
+                     * reason. Ensure that the transaction is rolled back
+                     */
+                    rollback(keepAlive.txn);
                 }
+            }
+        }
+
+        private void rollback(Txn txn){
+            try{
+                txn.rollback();
             }catch(IOException e){
-								/*
-								 * This could be a real problem, but we don't have anything that we can really do about this,
-								 * so we just log the error and hope it resolves itself.
-								 */
-                LOG.error("Unable to keep transaction "+txn.getTxnId()+" alive. Will try again in a bit",e);
-                threadPool.schedule(this,random.nextLong(maxWaitIntervalMs),TimeUnit.MILLISECONDS);
+                LOG.info("Unable to roll back transaction "+txn.getTxnId()
+                        +" but nothing to be concerned with, since it has already timed out",e);
             }
         }
     }
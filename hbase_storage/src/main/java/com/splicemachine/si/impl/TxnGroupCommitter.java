@@ -0,0 +1,230 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.si.impl;
+
+import com.splicemachine.concurrent.MoreExecutors;
+import com.splicemachine.si.api.txn.Txn;
+import com.splicemachine.si.coprocessor.TxnMessage;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.splicemachine.si.constants.SIConstants.TRANSACTION_TABLE_BUCKET_COUNT;
+
+/**
+ * Commits transactions in groups.
+ * <p/>
+ * Only one group is committed at a time. Commits which arrive while a group is being committed wait for it to
+ * finish, and are then committed together as the next group, so the size of a group adapts to the rate of commits
+ * without ever delaying a commit when there is no contention.
+ * <p/>
+ * Each group is sent as one request per transaction table bucket. The requests for the different buckets are
+ * sent in parallel, so a group takes about as long as a single commit however many buckets it spans. The
+ * receiving region acquires the commit timestamps of the whole request at once, and writes all of its commit
+ * records in a single batch. Each transaction is still committed (or refused) exactly as if it had been
+ * committed on its own.
+ */
+class TxnGroupCommitter{
+    private static final Logger LOG=Logger.getLogger(TxnGroupCommitter.class);
+
+    private final TxnNetworkLayerFactory tableFactory;
+    private final int maxBatchSize;
+    private final Queue<PendingCommit> pending=new ConcurrentLinkedQueue<>();
+    private final Lock groupLock=new ReentrantLock();
+    /*
+     * Sends the requests of a group other than the one the committing thread sends itself. Only one group is
+     * committed at a time, so this never needs more threads than there are buckets.
+     */
+    private final ThreadPoolExecutor bucketSender;
+
+    TxnGroupCommitter(TxnNetworkLayerFactory tableFactory,int maxBatchSize){
+        this.tableFactory=tableFactory;
+        this.maxBatchSize=maxBatchSize;
+        this.bucketSender=MoreExecutors.namedThreadPool(TRANSACTION_TABLE_BUCKET_COUNT,TRANSACTION_TABLE_BUCKET_COUNT,
+                "txn-group-commit-%d",60,true);
+        this.bucketSender.allowCoreThreadTimeOut(true);
+    }
+
+    long commit(long txnId) throws IOException{
+        if(maxBatchSize<=1)
+            return commitIndividually(txnId);
+
+        PendingCommit commit=new PendingCommit(txnId);
+        pending.add(commit);
+        while(!commit.done){
+            groupLock.lock();
+            try{
+                //whoever held the lock before us may well have committed us as part of their group
+                if(!commit.done)
+                    commitGroup();
+            }finally{
+                groupLock.unlock();
+            }
+        }
+        if(commit.error!=null)
+            throw commit.error;
+        return commit.commitTs;
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private void commitGroup(){
+        @SuppressWarnings("unchecked") List<PendingCommit>[] buckets=new List[TRANSACTION_TABLE_BUCKET_COUNT];
+        PendingCommit next;
+        int size=0;
+        while(size<maxBatchSize && (next=pending.poll())!=null){
+            int bucket=(int)(next.txnId&(TRANSACTION_TABLE_BUCKET_COUNT-1));
+            if(buckets[bucket]==null)
+                buckets[bucket]=new ArrayList<>();
+            buckets[bucket].add(next);
+            size++;
+        }
+
+        List<Future<?>> sent=new ArrayList<>(buckets.length);
+        List<PendingCommit> ownBucket=null;
+        for(final List<PendingCommit> bucket : buckets){
+            if(bucket==null) continue;
+            if(ownBucket==null){
+                ownBucket=bucket;
+                continue;
+            }
+            sent.add(bucketSender.submit(new Runnable(){
+                @Override
+                public void run(){
+                    sendBucket(bucket);
+                }
+            }));
+        }
+        if(ownBucket!=null)
+            sendBucket(ownBucket);
+        waitFor(sent);
+    }
+
+    private void sendBucket(List<PendingCommit> bucket){
+        IOException error=null;
+        try{
+            commitBucket(bucket);
+        }catch(IOException e){
+            error=e;
+        }catch(RuntimeException e){
+            error=new IOException(e);
+        }finally{
+            //we don't know which of the unfinished commits made it, so they all fail, just as a single commit would
+            for(PendingCommit commit : bucket){
+                if(!commit.done)
+                    commit.fail(error!=null?error:new IOException("Group commit did not complete"));
+            }
+        }
+    }
+
+    /*
+     * The group isn't finished until every one of its requests has been answered, as the threads waiting on the
+     * group can't start the next one until then. So interrupts are put off until afterwards.
+     */
+    private static void waitFor(List<Future<?>> sent){
+        boolean interrupted=false;
+        for(Future<?> request : sent){
+            while(true){
+                try{
+                    request.get();
+                    break;
+                }catch(InterruptedException ie){
+                    interrupted=true;
+                }catch(ExecutionException ee){
+                    //sendBucket has already failed the unfinished commits, so this can only be an Error
+                    LOG.error("Unexpected error committing a group of transactions",ee.getCause());
+                    break;
+                }
+            }
+        }
+        if(interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    private void commitBucket(List<PendingCommit> bucket) throws IOException{
+        TxnMessage.CommitRequest.Builder request=TxnMessage.CommitRequest.newBuilder();
+        for(PendingCommit commit : bucket){
+            request.addTxnIds(commit.txnId);
+        }
+        TxnMessage.CommitResponse response;
+        try(TxnNetworkLayer table=tableFactory.accessTxnNetwork()){
+            response=table.commit(TxnUtils.getRowKey(bucket.get(0).txnId),request.build());
+        }
+
+        Set<Long> rolledBack=new HashSet<>(response.getRolledBackTxnIdsList());
+        Set<Long> missing=new HashSet<>(response.getMissingTxnIdsList());
+        for(int i=0;i<bucket.size();i++){
+            PendingCommit commit=bucket.get(i);
+            if(rolledBack.contains(commit.txnId))
+                commit.fail(new HCannotCommitException(commit.txnId,Txn.State.ROLLEDBACK));
+            else if(missing.contains(commit.txnId)){
+                //the region which served this bucket doesn't hold this transaction (e.g. it's splitting)
+                try{
+                    commit.complete(commitIndividually(commit.txnId));
+                }catch(IOException e){
+                    commit.fail(e);
+                }
+            }else
+                commit.complete(response.getCommitTs(i));
+        }
+        if(LOG.isTraceEnabled())
+            LOG.trace("Committed a group of "+bucket.size()+" transactions");
+    }
+
+    private long commitIndividually(long txnId) throws IOException{
+        TxnMessage.TxnLifecycleMessage lifecycle=TxnMessage.TxnLifecycleMessage.newBuilder()
+                .setTxnId(txnId).setAction(TxnMessage.LifecycleAction.COMMIT).build();
+        try(TxnNetworkLayer table=tableFactory.accessTxnNetwork()){
+            return table.lifecycleAction(TxnUtils.getRowKey(txnId),lifecycle).getCommitTs();
+        }
+    }
+
+    /*
+     * Written by the thread committing the group; the other fields are written before done, so they are
+     * visible to the waiting thread once it sees done.
+     */
+    private static class PendingCommit{
+        private final long txnId;
+        private volatile boolean done;
+        private long commitTs;
+        private IOException error;
+
+        PendingCommit(long txnId){
+            this.txnId=txnId;
+        }
+
+        void complete(long commitTs){
+            this.commitTs=commitTs;
+            this.done=true;
+        }
+
+        void fail(IOException error){
+            this.error=error;
+            this.done=true;
+        }
+    }
+}
@@ -38,5 +38,11 @@ public interface TxnNetworkLayer extends AutoCloseable{
 
     TxnMessage.Txn getTxn(byte[] rowKey,TxnMessage.TxnRequest request) throws IOException;
 
+    TxnMessage.TxnsResponse getTxns(byte[] rowKey,TxnMessage.TxnsRequest request) throws IOException;
+
+    TxnMessage.KeepAliveResponse keepAlive(byte[] rowKey,TxnMessage.KeepAliveRequest request) throws IOException;
+
+    TxnMessage.CommitResponse commit(byte[] rowKey,TxnMessage.CommitRequest request) throws IOException;
+
     void close() throws IOException;
 }
@@ -15,6 +15,7 @@
 
 package com.splicemachine.si.impl.readresolve;
 
+import com.carrotsearch.hppc.LongOpenHashSet;
 import com.splicemachine.annotations.ThreadSafe;
 import com.splicemachine.si.api.readresolve.KeyedReadResolver;
 import com.splicemachine.si.api.readresolve.ReadResolver;
@@ -27,15 +28,22 @@ import com.splicemachine.storage.Partition;
 import com.splicemachine.storage.RegionPartition;
 import com.splicemachine.utils.ByteSlice;
 import com.splicemachine.utils.TrafficControl;
+import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.hbase.NotServingRegionException;
 import org.apache.hadoop.hbase.RegionTooBusyException;
 import org.apache.hadoop.hbase.client.Delete;
 import org.apache.hadoop.hbase.client.Durability;
+import org.apache.hadoop.hbase.client.Mutation;
 import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.regionserver.OperationStatus;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.log4j.Logger;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Read-Resolver which resolves elements synchronously on the calling thread.
@@ -90,19 +98,13 @@ public class SynchronousReadResolver implements KeyedReadResolver{
                 }finally{
                     trafficControl.release(1);
                 }
-            }else{
-                TxnView t=transaction;
-                while(t.getState()==Txn.State.COMMITTED){
-                    t=t.getParentTxnView();
-                }
-                if(t==Txn.ROOT_TRANSACTION){
-                    trafficControl.acquire(1);
-                    try{
-                        SynchronousReadResolver.INSTANCE.resolveCommitted(region,rowKey,txnId,transaction.getEffectiveCommitTimestamp(),failOnError);
-                        resolved=true;
-                    }finally{
-                        trafficControl.release(1);
-                    }
+            }else if(isCommittedToRoot(transaction)){
+                trafficControl.acquire(1);
+                try{
+                    SynchronousReadResolver.INSTANCE.resolveCommitted(region,rowKey,txnId,transaction.getEffectiveCommitTimestamp(),failOnError);
+                    resolved=true;
+                }finally{
+                    trafficControl.release(1);
                 }
             }
             status.rowResolved();
@@ -119,8 +121,106 @@ public class SynchronousReadResolver implements KeyedReadResolver{
         }
     }
 
+    @Override
+    public boolean[] resolve(Partition region,ByteSlice[] rowKeys,long[] txnIds,int size,TxnSupplier supplier,RollForwardStatus status,boolean failOnError,TrafficControl trafficControl){
+        assert region instanceof RegionPartition: "Not on a region!";
+        boolean[] resolved=new boolean[size];
+        try{
+            Map<Long,TxnView> transactions=fetchTransactions(txnIds,size,supplier);
+            List<Mutation> mutations=new ArrayList<>(size);
+            int[] positions=new int[size];
+            for(int i=0;i<size;i++){
+                TxnView transaction=transactions.get(txnIds[i]);
+                if(transaction==null) continue; //read-only transactions have nothing to resolve
+                Mutation mutation=null;
+                if(transaction.getEffectiveState()==Txn.State.ROLLEDBACK){
+                    mutation=rollbackDelete(rowKeys[i],txnIds[i]);
+                }else if(isCommittedToRoot(transaction)){
+                    mutation=commitPut(rowKeys[i],txnIds[i],transaction.getEffectiveCommitTimestamp());
+                }
+                if(mutation!=null){
+                    positions[mutations.size()]=i;
+                    mutations.add(mutation);
+                }
+            }
+            if(mutations.size()>0 && !(DISABLED_ROLLFORWARD || region.isClosed() || region.isClosing())){
+                //never ask for more permits than exist, or we'll wait forever
+                int permits=Math.min(mutations.size(),trafficControl.getMaxPermits());
+                trafficControl.acquire(permits);
+                try{
+                    OperationStatus[] statuses=((RegionPartition)region).unwrapDelegate().batchMutate(mutations.toArray(new Mutation[mutations.size()]));
+                    for(int i=0;i<statuses.length;i++){
+                        resolved[positions[i]]=statuses[i].getOperationStatusCode()==HConstants.OperationStatusCode.SUCCESS;
+                    }
+                }catch(IOException e){
+                    if(!(e instanceof RegionTooBusyException) && !(e instanceof NotServingRegionException)){
+                        LOG.info("Exception encountered when attempting to resolve a batch of rows",e);
+                        if(failOnError)
+                            throw new RuntimeException(e);
+                    }
+                }finally{
+                    trafficControl.release(permits);
+                }
+            }
+            for(int i=0;i<size;i++){
+                status.rowResolved();
+            }
+        }catch(IOException e){
+            LOG.info("Unable to fetch transactions for read resolution, will not resolve",e);
+            if(failOnError)
+                throw new RuntimeException(e);
+        }catch(InterruptedException e){
+            LOG.debug("Interrupted which performing read resolution, will not resolve");
+            Thread.currentThread().interrupt();
+        }
+        return resolved;
+    }
+
     /******************************************************************************************************************/
     /*private helper methods */
+    private static Map<Long,TxnView> fetchTransactions(long[] txnIds,int size,TxnSupplier supplier) throws IOException{
+        LongOpenHashSet distinct=new LongOpenHashSet(size);
+        for(int i=0;i<size;i++){
+            distinct.add(txnIds[i]);
+        }
+        long[] toFetch=distinct.toArray();
+        TxnView[] fetched=supplier.getTransactions(toFetch);
+        Map<Long,TxnView> transactions=new HashMap<>(toFetch.length);
+        for(int i=0;i<toFetch.length;i++){
+            transactions.put(toFetch[i],fetched[i]);
+        }
+        return transactions;
+    }
+
+    private static boolean isCommittedToRoot(TxnView transaction){
+        TxnView t=transaction;
+        while(t.getState()==Txn.State.COMMITTED){
+            t=t.getParentTxnView();
+        }
+        return t==Txn.ROOT_TRANSACTION;
+    }
+
+    private static Put commitPut(ByteSlice rowKey,long txnId,long commitTimestamp){
+        Put put=new Put(rowKey.getByteCopy());
+        put.add(SIConstants.DEFAULT_FAMILY_BYTES,
+                SIConstants.SNAPSHOT_ISOLATION_COMMIT_TIMESTAMP_COLUMN_BYTES,txnId,
+                Bytes.toBytes(commitTimestamp));
+        put.setAttribute(SIConstants.SI_EXEMPT,SIConstants.TRUE_BYTES);
+        put.setAttribute(SIConstants.SUPPRESS_INDEXING_ATTRIBUTE_NAME,SIConstants.SUPPRESS_INDEXING_ATTRIBUTE_VALUE);
+        put.setDurability(Durability.SKIP_WAL);
+        return put;
+    }
+
+    private static Delete rollbackDelete(ByteSlice rowKey,long txnId){
+        Delete delete=new Delete(rowKey.getByteCopy(),txnId)
+                .deleteColumn(SIConstants.DEFAULT_FAMILY_BYTES,SIConstants.PACKED_COLUMN_BYTES,txnId) //delete all the columns for our family only
+                .deleteColumn(SIConstants.DEFAULT_FAMILY_BYTES,SIConstants.SNAPSHOT_ISOLATION_TOMBSTONE_COLUMN_BYTES,txnId) //delete all the columns for our family only
+                .deleteColumn(SIConstants.DEFAULT_FAMILY_BYTES,SIConstants.SNAPSHOT_ISOLATION_ANTI_TOMBSTONE_VALUE_BYTES,txnId); //delete all the columns for our family only
+        delete.setDurability(Durability.SKIP_WAL);
+        delete.setAttribute(SIConstants.SUPPRESS_INDEXING_ATTRIBUTE_NAME,SIConstants.SUPPRESS_INDEXING_ATTRIBUTE_VALUE);
+        return delete;
+    }
+
     private void resolveCommitted(Partition region,ByteSlice rowKey,long txnId,long commitTimestamp,boolean failOnError){
         assert region instanceof RegionPartition: "Not on a region!";
         /*
@@ -131,13 +231,7 @@ public class SynchronousReadResolver implements KeyedReadResolver{
         if(DISABLED_ROLLFORWARD || region.isClosed() || region.isClosing())
             return; //do nothing if we are closing or rollforward is disabled
 
-        Put put=new Put(rowKey.getByteCopy());
-        put.add(SIConstants.DEFAULT_FAMILY_BYTES,
-                SIConstants.SNAPSHOT_ISOLATION_COMMIT_TIMESTAMP_COLUMN_BYTES,txnId,
-                Bytes.toBytes(commitTimestamp));
-        put.setAttribute(SIConstants.SI_EXEMPT,SIConstants.TRUE_BYTES);
-        put.setAttribute(SIConstants.SUPPRESS_INDEXING_ATTRIBUTE_NAME,SIConstants.SUPPRESS_INDEXING_ATTRIBUTE_VALUE);
-        put.setDurability(Durability.SKIP_WAL);
+        Put put=commitPut(rowKey,txnId,commitTimestamp);
         try{
             ((RegionPartition)region).unwrapDelegate().put(put);
         }catch(IOException e){
@@ -159,12 +253,7 @@ public class SynchronousReadResolver implements KeyedReadResolver{
         if(DISABLED_ROLLFORWARD || region.isClosed() || region.isClosing())
             return; //do nothing if we are closing
 
-        Delete delete=new Delete(rowKey.getByteCopy(),txnId)
-                .deleteColumn(SIConstants.DEFAULT_FAMILY_BYTES,SIConstants.PACKED_COLUMN_BYTES,txnId) //delete all the columns for our family only
-                .deleteColumn(SIConstants.DEFAULT_FAMILY_BYTES,SIConstants.SNAPSHOT_ISOLATION_TOMBSTONE_COLUMN_BYTES,txnId) //delete all the columns for our family only
-                .deleteColumn(SIConstants.DEFAULT_FAMILY_BYTES,SIConstants.SNAPSHOT_ISOLATION_ANTI_TOMBSTONE_VALUE_BYTES,txnId); //delete all the columns for our family only
-        delete.setDurability(Durability.SKIP_WAL);
-        delete.setAttribute(SIConstants.SUPPRESS_INDEXING_ATTRIBUTE_NAME,SIConstants.SUPPRESS_INDEXING_ATTRIBUTE_VALUE);
+        Delete delete=rollbackDelete(rowKey,txnId);
         try{
             ((RegionPartition)region).unwrapDelegate().delete(delete);
         }catch(IOException ioe){
@@ -32,8 +32,11 @@ import com.splicemachine.utils.Source;
 import com.splicemachine.utils.SpliceLogUtils;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HRegionInfo;
 import org.apache.hadoop.hbase.client.*;
 import org.apache.hadoop.hbase.regionserver.HRegion;
+import org.apache.hadoop.hbase.regionserver.OperationStatus;
 import org.apache.hadoop.hbase.regionserver.RegionScanner;
 import org.apache.log4j.Logger;
 import java.io.IOException;
@@ -88,6 +91,27 @@ public class RegionTxnStore implements TxnPartition{
         return decode(txnId,result);
     }
 
+    @Override
+    public TxnMessage.Txn[] getTransactions(long[] txnIds) throws IOException{
+        if(LOG.isTraceEnabled())
+            SpliceLogUtils.trace(LOG,"getTransactions count=%d",txnIds.length);
+        TxnMessage.Txn[] txns=new TxnMessage.Txn[txnIds.length];
+        HRegionInfo regionInfo=region.getRegionInfo();
+        for(int i=0;i<txnIds.length;i++){
+            byte[] rowKey=getRowKey(txnIds[i]);
+            if(!HRegion.rowIsInRange(regionInfo,rowKey)) continue; //the caller will have to ask the right region
+            Result result=region.get(new Get(rowKey));
+            if(result!=null && !result.isEmpty())
+                txns[i]=decode(txnIds[i],result);
+        }
+        return txns;
+    }
+
+    @Override
+    public boolean containsTransaction(long txnId){
+        return HRegion.rowIsInRange(region.getRegionInfo(),getRowKey(txnId));
+    }
+
     @Override
     public void addDestinationTable(long txnId,byte[] destinationTable) throws IOException{
         if(LOG.isTraceEnabled())
@@ -156,6 +180,57 @@ public class RegionTxnStore implements TxnPartition{
         return true;
     }
 
+    @Override
+    public TxnMessage.KeepAliveResponse keepAlive(long[] txnIds) throws IOException{
+        if(LOG.isTraceEnabled())
+            SpliceLogUtils.trace(LOG,"keepAlive count=%d",txnIds.length);
+        TxnMessage.KeepAliveResponse.Builder response=TxnMessage.KeepAliveResponse.newBuilder();
+        HRegionInfo regionInfo=region.getRegionInfo();
+        List<Mutation> puts=new ArrayList<>(txnIds.length);
+        long[] putTxnIds=new long[txnIds.length];
+        long currTime=clock.currentTimeMillis();
+        for(long txnId : txnIds){
+            byte[] rowKey=getRowKey(txnId);
+            if(!HRegion.rowIsInRange(regionInfo,rowKey)){
+                response.addMissingTxnIds(txnId); //the caller will have to ask the right region
+                continue;
+            }
+            Get get=new Get(rowKey);
+            get.addColumn(FAMILY,V2TxnDecoder.KEEP_ALIVE_QUALIFIER_BYTES);
+            get.addColumn(FAMILY,V2TxnDecoder.STATE_QUALIFIER_BYTES);
+            Result result=region.get(get);
+            if(result==null) continue;
+
+            Cell stateKv=result.getColumnLatestCell(FAMILY,V2TxnDecoder.STATE_QUALIFIER_BYTES);
+            if(stateKv==null){
+                // couldn't find the transaction data, it's fine under Restore Mode, issue a warning nonetheless
+                LOG.warn("Couldn't load data for keeping alive transaction "+txnId+". This isn't an issue under Restore Mode");
+                continue;
+            }
+            Txn.State state=Txn.State.decode(stateKv.getValueArray(),stateKv.getValueOffset(),stateKv.getValueLength());
+            if(state!=Txn.State.ACTIVE) continue; //skip the put if we don't need to do it
+            Cell oldKAKV=result.getColumnLatestCell(FAMILY,V2TxnDecoder.KEEP_ALIVE_QUALIFIER_BYTES);
+            if(adjustStateForTimeout(state,oldKAKV)!=Txn.State.ACTIVE){
+                response.addTimedOutTxnIds(txnId);
+                continue;
+            }
+
+            Put newPut=new Put(rowKey);
+            newPut.add(FAMILY,V2TxnDecoder.KEEP_ALIVE_QUALIFIER_BYTES,Encoding.encode(currTime));
+            putTxnIds[puts.size()]=txnId;
+            puts.add(newPut);
+        }
+        if(puts.size()>0){
+            OperationStatus[] statuses=region.batchMutate(puts.toArray(new Mutation[puts.size()]));
+            for(int i=0;i<statuses.length;i++){
+                if(statuses[i].getOperationStatusCode()!=HConstants.OperationStatusCode.SUCCESS)
+                    throw new IOException("Unable to keep transaction "+putTxnIds[i]+" alive: "+statuses[i].getExceptionMsg());
+                response.addActiveTxnIds(putTxnIds[i]);
+            }
+        }
+        return response.build();
+    }
+
     @Override
     public Txn.State getState(long txnId) throws IOException{
         if(LOG.isTraceEnabled())
@@ -200,6 +275,24 @@ public class RegionTxnStore implements TxnPartition{
         region.put(put);
     }
 
+    @Override
+    public void recordCommits(long[] txnIds,long[] commitTs) throws IOException{
+        if(LOG.isTraceEnabled())
+            SpliceLogUtils.trace(LOG,"recordCommits count=%d",txnIds.length);
+        Mutation[] puts=new Mutation[txnIds.length];
+        for(int i=0;i<txnIds.length;i++){
+            Put put=new Put(getRowKey(txnIds[i]));
+            put.add(FAMILY,V2TxnDecoder.COMMIT_QUALIFIER_BYTES,Encoding.encode(commitTs[i]));
+            put.add(FAMILY,V2TxnDecoder.STATE_QUALIFIER_BYTES,Txn.State.COMMITTED.encode());
+            puts[i]=put;
+        }
+        OperationStatus[] statuses=region.batchMutate(puts);
+        for(int i=0;i<statuses.length;i++){
+            if(statuses[i].getOperationStatusCode()!=HConstants.OperationStatusCode.SUCCESS)
+                throw new IOException("Unable to record the commit of transaction "+txnIds[i]+": "+statuses[i].getExceptionMsg());
+        }
+    }
+
     @Override
     public void recordGlobalCommit(long txnId,long globalCommitTs) throws IOException{
         Put put=new Put(getRowKey(txnId));
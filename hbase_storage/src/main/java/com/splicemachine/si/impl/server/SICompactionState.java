@@ -15,21 +15,27 @@
 
 package com.splicemachine.si.impl.server;
 
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.LongOpenHashSet;
 import com.splicemachine.hbase.CellUtils;
+import com.splicemachine.hbase.ZkUtils;
 import com.splicemachine.primitives.Bytes;
 import com.splicemachine.si.api.readresolve.RollForward;
 import com.splicemachine.si.api.txn.Txn;
 import com.splicemachine.si.api.txn.TxnSupplier;
 import com.splicemachine.si.api.txn.TxnView;
 import com.splicemachine.si.constants.SIConstants;
+import com.splicemachine.si.impl.driver.SIDriver;
 import com.splicemachine.si.impl.store.ActiveTxnCacheSupplier;
 import com.splicemachine.si.impl.txn.CommittedTxn;
 import com.splicemachine.si.impl.txn.RolledBackTxn;
 import com.splicemachine.storage.CellType;
+import com.splicemachine.timestamp.hbase.ZkActiveTimestamps;
 import com.splicemachine.utils.ByteSlice;
 import com.splicemachine.utils.SpliceLogUtils;
 import org.apache.hadoop.hbase.Cell;
 import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.KeyValueUtil;
 import org.apache.log4j.Logger;
 
 import java.io.IOException;
@@ -42,18 +48,105 @@ import java.util.TreeSet;
  * guts for SICompactionScanner.
  * <p/>
  * It is handed key-values and can change them.
+ * <p/>
+ * When constructed with a purge watermark, it also removes versions which no transaction can see any longer. Every
+ * transaction which is active (or will begin) has a begin timestamp at or above the watermark, so a tombstone or
+ * anti-tombstone whose transaction committed below the watermark is visible to all of them, and every SI-managed
+ * cell written before it is hidden from all of them. Newer user data does <em>not</em> shadow older user data
+ * in the same way, because updates write only the columns which changed and readers merge them with older versions.
+ * <p/>
+ * While mutating, it also summarizes the versions it returns (whether every one of them carries a commit timestamp,
+ * the newest writing transaction and commit timestamp, and whether there are any tombstones), so that the summary
+ * can be stored with the compacted file.
  */
 public class SICompactionState {
     private static final Logger LOG = Logger.getLogger(SICompactionState.class);
+    public static final long NO_PURGE = -1L;
+    private static long cachedWatermark = NO_PURGE;
+    private static long watermarkTime;
     private final TxnSupplier transactionStore;
     private SortedSet<Cell> dataToReturn;
     private final RollForward rollForward;
     private ByteSlice rowSlice = new ByteSlice();
+    private final long purgeWatermark;
+    private final boolean allFiles;
+    private long purgedCells;
+    private long purgedBytes;
+    private final LongOpenHashSet resolvedVersions = new LongOpenHashSet();
+    private boolean fullyResolved = true;
+    private boolean hasTombstones;
+    private long maxTxnId;
+    private long maxCommitTimestamp;
 
     public SICompactionState(TxnSupplier transactionStore,RollForward rollForward,int activeTransactionCacheSize) {
+        this(transactionStore,rollForward,activeTransactionCacheSize,NO_PURGE,false);
+    }
+
+    /**
+     * @param purgeWatermark a timestamp at or below the begin timestamp of every active transaction, or
+     *                       {@link #NO_PURGE} to keep all committed versions
+     * @param allFiles whether every file of the store takes part in the compaction. Only then can cells be removed
+     *                 whose only purpose is to hide older versions, as no such versions remain in other files.
+     */
+    public SICompactionState(TxnSupplier transactionStore,RollForward rollForward,int activeTransactionCacheSize,
+                             long purgeWatermark,boolean allFiles) {
         this.rollForward = rollForward;
         this.transactionStore = new ActiveTxnCacheSupplier(transactionStore,activeTransactionCacheSize);
         this.dataToReturn  =new TreeSet<>(KeyValue.COMPARATOR);
+        this.purgeWatermark = purgeWatermark;
+        this.allFiles = allFiles;
+    }
+
+    /**
+     * Create the compaction state for a store of a transactional table, purging invisible versions if that
+     * is enabled in the configuration.
+     */
+    public static SICompactionState forCompaction(SIDriver driver,boolean allFiles) throws IOException{
+        long watermark = NO_PURGE;
+        if(driver.getConfiguration().getCompactionPurge()){
+            watermark = lowWatermark(driver);
+        }
+        return new SICompactionState(driver.getTxnSupplier(),
+                driver.getRollForward(),
+                driver.getConfiguration().getActiveTransactionCacheSize(),
+                watermark,
+                allFiles);
+    }
+
+    /**
+     * Determine a timestamp which is at or below the begin timestamp of every active transaction (read-only
+     * transactions included, and therefore of all their children), and of every transaction which has yet to begin.
+     * <p/>
+     * This is the oldest timestamp published by the processes of the cluster (see {@link ZkActiveTimestamps}). It
+     * is only read from ZooKeeper once per {@code splice.txn.activeTimestampInterval}, and reused by the compactions
+     * in between.
+     *
+     * @return the watermark, or {@link #NO_PURGE} if there is none yet
+     */
+    public static long lowWatermark(SIDriver driver) throws IOException{
+        long now = driver.getClock().currentTimeMillis();
+        long interval = driver.getConfiguration().getActiveTimestampInterval();
+        synchronized(SICompactionState.class){
+            if(watermarkTime<=0 || now-watermarkTime>=interval){
+                long oldest = ZkActiveTimestamps.oldestActiveTimestamp(ZkUtils.getRecoverableZooKeeper(),
+                        driver.getConfiguration().getSpliceRootPath());
+                /*
+                 * A process which has just started publishes 0 until it publishes its first real value, which
+                 * disables purging until then, as does not finding any process at all
+                 */
+                cachedWatermark = oldest>0 ? oldest : NO_PURGE;
+                watermarkTime = now;
+            }
+            return cachedWatermark;
+        }
+    }
+
+    public long getPurgedCells(){
+        return purgedCells;
+    }
+
+    public long getPurgedBytes(){
+        return purgedBytes;
     }
 
     /**
@@ -64,12 +157,171 @@ public class SICompactionState {
      */
     public void mutate(List<Cell> rawList, List<Cell> results) throws IOException {
         dataToReturn.clear();
-        for (Cell aRawList : rawList) {
-            mutate(aRawList);
-        }
+        loadTransactions(rawList);
+        if(purgeWatermark==NO_PURGE){
+            for (Cell aRawList : rawList) {
+                mutate(aRawList);
+            }
+        }else
+            purgeAndMutate(rawList);
+        summarize(dataToReturn);
         results.addAll(dataToReturn);
     }
 
+    /**
+     * @return true if every version returned so far carries a commit timestamp.
+     */
+    public boolean isFullyResolved(){
+        return fullyResolved;
+    }
+
+    /**
+     * @return true if a tombstone or anti-tombstone has been returned
+     */
+    public boolean hasTombstones(){
+        return hasTombstones;
+    }
+
+    /**
+     * @return the newest transaction which wrote a version returned so far
+     */
+    public long getMaxTxnId(){
+        return maxTxnId;
+    }
+
+    /**
+     * @return the newest commit timestamp of a version returned so far
+     */
+    public long getMaxCommitTimestamp(){
+        return maxCommitTimestamp;
+    }
+
+    /**
+     * Log the number of cells removed by this compaction, if any.
+     */
+    public void close(){
+        if(purgedCells>0)
+            SpliceLogUtils.info(LOG,"Compaction purged %d invisible cells (%d bytes) below watermark %d",
+                    purgedCells,purgedBytes,purgeWatermark);
+    }
+
+    /**
+     * Load the transactions of every version in the row before mutating it. Transactions which are resolved
+     * in the row are cached from their commit timestamps, and the remaining ones are fetched from the
+     * transaction table together, rather than one lookup per version.
+     */
+    private void loadTransactions(List<Cell> rawList) throws IOException{
+        for(Cell element : rawList){
+            if(getKeyValueType(element)==CellType.COMMIT_TIMESTAMP)
+                ensureTransactionCached(element.getTimestamp(),element);
+        }
+        LongArrayList toFetch = null;
+        for(Cell element : rawList){
+            switch(getKeyValueType(element)){
+                case TOMBSTONE:
+                case ANTI_TOMBSTONE:
+                case USER_DATA:
+                    long timestamp = element.getTimestamp();
+                    if(transactionStore.transactionCached(timestamp)) continue;
+                    if(toFetch==null) toFetch = new LongArrayList();
+                    if(!toFetch.contains(timestamp))
+                        toFetch.add(timestamp);
+                    break;
+                default:
+                    break;
+            }
+        }
+        if(toFetch!=null && toFetch.size()>1)
+            transactionStore.getTransactions(toFetch.toArray());
+    }
+
+    /**
+     * Fold a mutated row into the summary. Commit timestamps sort before the other SI columns of a row, so
+     * they have all been seen by the time the versions they resolve are.
+     */
+    private void summarize(SortedSet<Cell> row){
+        resolvedVersions.clear();
+        for(Cell element : row){
+            long timestamp = element.getTimestamp();
+            switch(getKeyValueType(element)){
+                case COMMIT_TIMESTAMP:
+                    if(isFailedCommitTimestamp(element) || element.getValueLength()!=Bytes.SIZEOF_LONG) break;
+                    resolvedVersions.add(timestamp);
+                    long commitTimestamp = Bytes.toLong(element.getValueArray(),element.getValueOffset(),element.getValueLength());
+                    if(commitTimestamp>maxCommitTimestamp)
+                        maxCommitTimestamp = commitTimestamp;
+                    break;
+                case TOMBSTONE:
+                case ANTI_TOMBSTONE:
+                    hasTombstones = true;
+                    //fall through
+                case USER_DATA:
+                    if(timestamp>maxTxnId)
+                        maxTxnId = timestamp;
+                    if(fullyResolved && !resolvedVersions.contains(timestamp))
+                        fullyResolved = false;
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private void purgeAndMutate(List<Cell> rawList) throws IOException{
+        /*
+         * Find the newest (anti-)tombstone which every transaction can see. Everything SI-managed which
+         * was written before it is hidden from every reader.
+         */
+        long boundary = NO_PURGE;
+        boolean boundaryIsTombstone = false;
+        for(Cell element : rawList){
+            CellType cellType = getKeyValueType(element);
+            if(cellType!=CellType.TOMBSTONE && cellType!=CellType.ANTI_TOMBSTONE) continue;
+            long timestamp = element.getTimestamp();
+            if(timestamp<=boundary || !committedBeforeWatermark(transactionStore.getTransaction(timestamp))) continue;
+            boundary = timestamp;
+            boundaryIsTombstone = cellType==CellType.TOMBSTONE;
+        }
+        /*
+         * Once nothing older remains, a tombstone no longer hides anything, so it (and the data written with it)
+         * can go as well. Anti-tombstones are kept, as they mark where the row was re-inserted.
+         */
+        boolean purgeBoundary = allFiles && boundaryIsTombstone;
+        for(Cell element : rawList){
+            if(isPurgeable(element,boundary,boundaryIsTombstone,purgeBoundary)){
+                purgedCells++;
+                purgedBytes+=KeyValueUtil.length(element);
+            }else
+                mutate(element);
+        }
+    }
+
+    private boolean isPurgeable(Cell element,long boundary,boolean boundaryIsTombstone,boolean purgeBoundary){
+        long timestamp = element.getTimestamp();
+        switch(getKeyValueType(element)){
+            case COMMIT_TIMESTAMP:
+                /*
+                 * Rollback markers are only needed while the rolled back data is still around, which can only be
+                 * guaranteed when every file is being rewritten.
+                 */
+                if(allFiles && isFailedCommitTimestamp(element)) return true;
+                //fall through
+            case TOMBSTONE:
+            case ANTI_TOMBSTONE:
+                return timestamp<boundary || (purgeBoundary && timestamp==boundary);
+            case USER_DATA:
+                return timestamp<boundary || (boundaryIsTombstone && timestamp==boundary);
+            default:
+                return false;
+        }
+    }
+
+    private boolean committedBeforeWatermark(TxnView transaction){
+        if(transaction.getEffectiveState()!=Txn.State.COMMITTED) return false;
+        long commitTimestamp = transaction.getEffectiveCommitTimestamp();
+        return commitTimestamp>=0 && commitTimestamp<purgeWatermark;
+    }
+
     /**
      * Apply SI mutation logic to an individual key-value. Return the "new" key-value.
      */
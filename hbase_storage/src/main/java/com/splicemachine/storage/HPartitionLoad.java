@@ -23,12 +23,14 @@ public class HPartitionLoad implements PartitionLoad{
     private final int storefileSizeMB;
     private final int memStoreSizeMB;
     private final int storefileIndexSizeMB;
+    private final long writeRequestCount;
     private final String name;
 
-    public HPartitionLoad(String name,int storefileSizeMB,int memStoreSizeMB,int storefileIndexSizeMB){
+    public HPartitionLoad(String name,int storefileSizeMB,int memStoreSizeMB,int storefileIndexSizeMB,long writeRequestCount){
         this.storefileSizeMB=storefileSizeMB;
         this.memStoreSizeMB=memStoreSizeMB;
         this.storefileIndexSizeMB=storefileIndexSizeMB;
+        this.writeRequestCount=writeRequestCount;
         this.name = name;
     }
 
@@ -51,4 +53,9 @@ public class HPartitionLoad implements PartitionLoad{
     public int getStorefileIndexSizeMB(){
         return storefileIndexSizeMB;
     }
+
+    @Override
+    public long getWriteRequestCount(){
+        return writeRequestCount;
+    }
 }
@@ -471,4 +471,9 @@ public class RegionPartition implements Partition{
     public BitSet getBloomInMemoryCheck(boolean hasConstraintChecker,Pair<KVPair, Lock>[] dataAndLocks) throws IOException {
         return HRegionUtil.keyExists(hasConstraintChecker,region.getStore(SIConstants.DEFAULT_FAMILY_BYTES),dataAndLocks);
     }
+
+    @Override
+    public ResolvedDataSummary getResolvedDataSummary() throws IOException{
+        return HRegionUtil.getResolvedDataSummary(region,SIConstants.DEFAULT_FAMILY_BYTES);
+    }
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.splicemachine.timestamp.hbase;
+
+import com.splicemachine.access.HConfiguration;
+import com.splicemachine.concurrent.MoreExecutors;
+import com.splicemachine.hbase.ZkUtils;
+import com.splicemachine.si.impl.ActiveTransactionTracker;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.zookeeper.RecoverableZooKeeper;
+import org.apache.log4j.Logger;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.ZooDefs;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shares the begin timestamp of the oldest active transaction of each process through ZooKeeper.
+ * <p/>
+ * Every process which begins transactions owns an ephemeral node under
+ * [SpliceRootPath]{@link HConfiguration#ACTIVE_TIMESTAMPS_PATH}, holding a timestamp at or below the begin timestamp of
+ * every transaction it is running or will begin (see {@link ActiveTransactionTracker#oldestActiveTimestamp()}).
+ * The node is created holding 0 before the process can begin any transaction, and is refreshed periodically after
+ * that. The smallest timestamp across all nodes is therefore a snapshot which no transaction in the cluster reads
+ * below, read-only transactions included.
+ */
+public class ZkActiveTimestamps{
+    private static final Logger LOG=Logger.getLogger(ZkActiveTimestamps.class);
+    private static final String NODE_PREFIX="ts-";
+
+    private final RecoverableZooKeeper rzk;
+    private final String activePath;
+    private volatile String node;
+    private ScheduledExecutorService publisher;
+
+    public ZkActiveTimestamps(RecoverableZooKeeper rzk,String rootPath){
+        this.rzk=rzk;
+        this.activePath=rootPath+HConfiguration.ACTIVE_TIMESTAMPS_PATH;
+    }
+
+    /**
+     * Create this process's node, then keep it up to date with the oldest transaction in {@code activeTransactions}
+     * every {@code interval} milliseconds.
+     */
+    public synchronized void startPublishing(final ActiveTransactionTracker activeTransactions,long interval) throws IOException{
+        if(publisher!=null) return;
+        try{
+            register(0l);
+        }catch(KeeperException|InterruptedException e){
+            throw new IOException("Unable to register the active timestamp node",e);
+        }
+        publisher=MoreExecutors.namedSingleThreadScheduledExecutor("activeTimestamps-%d");
+        publisher.scheduleWithFixedDelay(new Runnable(){
+            @Override
+            public void run(){
+                try{
+                    publish(activeTransactions.oldestActiveTimestamp());
+                }catch(Exception e){
+                    LOG.warn("Unable to publish the oldest active timestamp",e);
+                }
+            }
+        },interval,interval,TimeUnit.MILLISECONDS);
+    }
+
+    private void register(long timestamp) throws KeeperException, InterruptedException{
+        try{
+            node=rzk.create(activePath+"/"+NODE_PREFIX,Bytes.toBytes(timestamp),ZooDefs.Ids.OPEN_ACL_UNSAFE,CreateMode.EPHEMERAL_SEQUENTIAL);
+        }catch(KeeperException.NoNodeException nne){
+            ZkUtils.recursiveSafeCreate(activePath,new byte[]{},ZooDefs.Ids.OPEN_ACL_UNSAFE,CreateMode.PERSISTENT);
+            node=rzk.create(activePath+"/"+NODE_PREFIX,Bytes.toBytes(timestamp),ZooDefs.Ids.OPEN_ACL_UNSAFE,CreateMode.EPHEMERAL_SEQUENTIAL);
+        }
+    }
+
+    private void publish(long timestamp) throws KeeperException, InterruptedException{
+        try{
+            rzk.setData(node,Bytes.toBytes(timestamp),-1);
+        }catch(KeeperException.NoNodeException nne){
+            //our session expired and took the node with it
+            register(timestamp);
+        }
+    }
+
+    /**
+     * @return the smallest timestamp published by any process, or -1 if no process has published one.
+     */
+    public static long oldestActiveTimestamp(RecoverableZooKeeper rzk,String rootPath) throws IOException{
+        String activePath=rootPath+HConfiguration.ACTIVE_TIMESTAMPS_PATH;
+        try{
+            List<String> children;
+            try{
+                children=rzk.getChildren(activePath,false);
+            }catch(KeeperException.NoNodeException nne){
+                return -1l;
+            }
+            long oldest=-1l;
+            for(String child : children){
+                byte[] data;
+                try{
+                    data=rzk.getData(activePath+"/"+child,false,null);
+                }catch(KeeperException.NoNodeException nne){
+                    continue; //the process went away, so it has no active transactions
+                }
+                long timestamp=Bytes.toLong(data);
+                if(oldest<0 || timestamp<oldest)
+                    oldest=timestamp;
+            }
+            return oldest;
+        }catch(KeeperException|InterruptedException e){
+            throw new IOException(e);
+        }
+    }
+}
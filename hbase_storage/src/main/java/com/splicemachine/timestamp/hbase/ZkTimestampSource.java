@@ -60,7 +60,8 @@ public class ZkTimestampSource implements TimestampSource {
 		    	LOG.info("Creating the TimestampClient...");
                 HBaseConnectionFactory hbcf = HBaseConnectionFactory.getInstance(config);
                 _tc = new TimestampClient(timeout,
-                        new HBaseTimestampHostProvider(hbcf,timestampPort));
+                        new HBaseTimestampHostProvider(hbcf,timestampPort),
+                        config.getTimestampClientMaxBatchSize());
     		}
     	}
     }
@@ -90,6 +91,16 @@ public class ZkTimestampSource implements TimestampSource {
 		return nextTimestamp;
 	}
 
+    @Override
+    public long[] nextTimestamps(int count) {
+        try {
+            return getTimestampClient().getNextTimestamps(count);
+        } catch (Exception e) {
+            LOG.error("Unable to fetch new timestamps", e);
+            throw new RuntimeException("Unable to fetch new timestamps", e);
+        }
+    }
+
 	// The following two are same as ZooKeeperStatTimestampSource,
 	// and can probably stay this way.
 	
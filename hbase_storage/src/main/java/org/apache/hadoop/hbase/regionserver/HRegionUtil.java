@@ -41,6 +41,8 @@ import com.splicemachine.access.HConfiguration;
 import com.splicemachine.hbase.CellUtils;
 import com.splicemachine.kvpair.KVPair;
 import com.splicemachine.si.constants.SIConstants;
+import com.splicemachine.si.impl.server.SICompactionState;
+import com.splicemachine.storage.ResolvedDataSummary;
 import com.splicemachine.utils.Pair;
 import com.splicemachine.utils.SpliceLogUtils;
 
@@ -364,6 +366,60 @@ public class HRegionUtil extends BaseHRegionUtil{
         return ((DefaultMemStore) store.memstore).snapshot;
     }
 
+    /**
+     * Record the summary gathered by an SI compaction in the file it wrote.
+     */
+    public static void appendSIFileInfo(StoreFile.Writer writer, SICompactionState state) throws IOException {
+        appendSIFileInfo(writer, state.isFullyResolved(), state.getMaxTxnId(), state.getMaxCommitTimestamp(), state.hasTombstones());
+    }
+
+    /**
+     * Record the SI summary of a file written outside of a compaction, e.g. for a bulk load.
+     */
+    public static void appendSIFileInfo(StoreFile.Writer writer, boolean fullyResolved, long maxTxnId,
+                                        long maxCommitTimestamp, boolean hasTombstones) throws IOException {
+        writer.appendFileInfo(SIConstants.SI_FULLY_RESOLVED_FILE_INFO, Bytes.toBytes(fullyResolved));
+        writer.appendFileInfo(SIConstants.SI_MAX_TXN_ID_FILE_INFO, Bytes.toBytes(maxTxnId));
+        writer.appendFileInfo(SIConstants.SI_MAX_COMMIT_TIMESTAMP_FILE_INFO, Bytes.toBytes(maxCommitTimestamp));
+        writer.appendFileInfo(SIConstants.SI_HAS_TOMBSTONES_FILE_INFO, Bytes.toBytes(hasTombstones));
+    }
+
+    /**
+     * Summarize the data in a store, if all of it is in files which an SI compaction found to be fully resolved.
+     *
+     * @return the summary, or null if the memstore holds data, some file was not written (or not found to be
+     * fully resolved) by an SI compaction, or the region was opened outside of a region server. Such regions only
+     * read the store files, and the rest of the data comes from the memstore of the serving region.
+     */
+    public static ResolvedDataSummary getResolvedDataSummary(HRegion region, byte[] family) {
+        if (region.getRegionServerServices() == null)
+            return null;
+        HStore store = (HStore) region.getStore(family);
+        if (store == null || !getKvset(store).isEmpty() || !getSnapshot(store).isEmpty())
+            return null;
+        ResolvedDataSummary summary = null;
+        for (StoreFile file : store.getStorefiles()) {
+            ResolvedDataSummary fileSummary = getResolvedDataSummary(file);
+            if (fileSummary == null)
+                return null;
+            summary = summary == null ? fileSummary : ResolvedDataSummary.merge(summary, fileSummary);
+        }
+        return summary;
+    }
+
+    private static ResolvedDataSummary getResolvedDataSummary(StoreFile file) {
+        byte[] resolved = file.getMetadataValue(SIConstants.SI_FULLY_RESOLVED_FILE_INFO);
+        if (resolved == null || !Bytes.toBoolean(resolved))
+            return null;
+        byte[] maxTxnId = file.getMetadataValue(SIConstants.SI_MAX_TXN_ID_FILE_INFO);
+        byte[] maxCommitTimestamp = file.getMetadataValue(SIConstants.SI_MAX_COMMIT_TIMESTAMP_FILE_INFO);
+        byte[] hasTombstones = file.getMetadataValue(SIConstants.SI_HAS_TOMBSTONES_FILE_INFO);
+        if (maxTxnId == null || maxCommitTimestamp == null || hasTombstones == null)
+            return null;
+        return new ResolvedDataSummary(Bytes.toLong(maxTxnId), Bytes.toLong(maxCommitTimestamp),
+                Bytes.toBoolean(hasTombstones));
+    }
+
 
 
 }
@@ -33,6 +33,7 @@ import org.apache.hadoop.hbase.regionserver.HRegion;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 
 import static org.mockito.Matchers.any;
@@ -323,6 +324,85 @@ public class RegionTxnStoreTest{
         Assert.assertEquals("Incorrect length!",0,activeTxnIds.length);
     }
 
+    @Test
+    public void testCanCommitManyTransactions() throws Exception{
+        HRegion region=MockRegionUtils.getMockRegion();
+        RegionTxnStore store=new RegionTxnStore(region,txnSupplier,getTransactionResolver(),Long.MAX_VALUE,clock);
+
+        for(long txnId=1;txnId<=3;txnId++){
+            Assert.assertTrue("Region should hold every transaction!",store.containsTransaction(txnId));
+            store.recordTransaction(TxnMessage.TxnInfo.newBuilder()
+                    .setTxnId(txnId)
+                    .setBeginTs(txnId)
+                    .setAllowsWrites(true)
+                    .setIsolationLevel(Txn.IsolationLevel.SNAPSHOT_ISOLATION.getLevel())
+                    .build());
+        }
+        store.recordCommits(new long[]{1,3},new long[]{4,5});
+
+        Assert.assertEquals("Incorrect current state!",Txn.State.COMMITTED,store.getState(1));
+        Assert.assertEquals("Incorrect commit timestamp!",4l,store.getCommitTimestamp(1));
+        Assert.assertEquals("Incorrect current state!",Txn.State.ACTIVE,store.getState(2));
+        Assert.assertEquals("Incorrect current state!",Txn.State.COMMITTED,store.getState(3));
+        Assert.assertEquals("Incorrect commit timestamp!",5l,store.getCommitTimestamp(3));
+    }
+
+    @Test
+    public void testKeepAliveManyTransactions() throws Exception{
+        HRegion region=MockRegionUtils.getMockRegion();
+        RegionTxnStore store=new RegionTxnStore(region,txnSupplier,getTransactionResolver(),Long.MAX_VALUE,clock);
+
+        for(long txnId=1;txnId<=3;txnId++){
+            store.recordTransaction(TxnMessage.TxnInfo.newBuilder()
+                    .setTxnId(txnId)
+                    .setBeginTs(txnId)
+                    .setAllowsWrites(true)
+                    .setIsolationLevel(Txn.IsolationLevel.SNAPSHOT_ISOLATION.getLevel())
+                    .build());
+        }
+        store.recordCommit(2,4l);
+
+        TxnMessage.KeepAliveResponse response=store.keepAlive(new long[]{1,2,3,5});
+        Assert.assertEquals("Incorrect kept alive transactions!",Arrays.asList(1l,3l),response.getActiveTxnIdsList());
+        Assert.assertEquals("Should not have timed out!",0,response.getTimedOutTxnIdsCount());
+        Assert.assertEquals("Should not have been missing!",0,response.getMissingTxnIdsCount());
+    }
+
+    @Test
+    public void testKeepAliveManyReportsTimedOutTransactions() throws Exception{
+        HRegion region=MockRegionUtils.getMockRegion();
+        //the keep alive is recorded with the system clock, so read it a minute in the future to time it out
+        Clock future=new Clock(){
+            @Override
+            public long currentTimeMillis(){
+                return System.currentTimeMillis()+TimeUnit.MINUTES.toMillis(1);
+            }
+
+            @Override
+            public long nanoTime(){
+                return System.nanoTime();
+            }
+
+            @Override
+            public void sleep(long time,TimeUnit unit) throws InterruptedException{
+                unit.sleep(time);
+            }
+        };
+        RegionTxnStore store=new RegionTxnStore(region,txnSupplier,getTransactionResolver(),50,future);
+
+        store.recordTransaction(TxnMessage.TxnInfo.newBuilder()
+                .setTxnId(1)
+                .setBeginTs(1)
+                .setAllowsWrites(true)
+                .setIsolationLevel(Txn.IsolationLevel.SNAPSHOT_ISOLATION.getLevel())
+                .build());
+
+        TxnMessage.KeepAliveResponse response=store.keepAlive(new long[]{1});
+        Assert.assertEquals("Should not have kept alive!",0,response.getActiveTxnIdsCount());
+        Assert.assertEquals("Should have timed out!",1,response.getTimedOutTxnIdsCount());
+        Assert.assertEquals("Incorrect timed out transaction!",1l,response.getTimedOutTxnIds(0).longValue());
+    }
+
     protected TransactionResolver getTransactionResolver(){
         TransactionResolver resolver=mock(TransactionResolver.class);
         doNothing().when(resolver).resolveGlobalCommitTimestamp(any(TxnPartition.class),any(TxnMessage.Txn.class));
@@ -34,11 +34,13 @@ import com.splicemachine.si.impl.txn.WritableTxn;
 import com.splicemachine.storage.DataFilter;
 import com.splicemachine.storage.HCell;
 import com.splicemachine.storage.RegionPartition;
+import com.splicemachine.utils.ByteSlice;
 import com.splicemachine.utils.GreenLight;
 import com.splicemachine.utils.TrafficControl;
 import org.apache.hadoop.hbase.Cell;
 import org.apache.hadoop.hbase.CellUtil;
 import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Mutation;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.regionserver.HRegion;
@@ -48,9 +50,12 @@ import org.junit.Test;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 /**
  * Tests around the possibilities for the SynchronousReadResolver
@@ -220,4 +225,70 @@ public class SynchronousReadResolverTest {
         Assert.assertEquals("Incorrect committed txnId", childTxn.getTxnId(), commitTs.getTimestamp());
         Assert.assertEquals("Incorrect commit timestamp!", childTxn.getEffectiveCommitTimestamp(), Bytes.toLong(CellUtil.cloneValue(commitTs)));
     }
+
+    @Test
+    public void testResolvingBatchWritesOnce() throws Exception {
+        HRegion region = MockRegionUtils.getMockRegion();
+        RegionPartition rp = new RegionPartition(region);
+
+        final TestingTimestampSource commitTsGenerator = new TestingTimestampSource();
+        final TxnStore store = new TestingTxnStore(new IncrementingClock(),commitTsGenerator,HExceptionFactory.INSTANCE,Long.MAX_VALUE);
+        TxnLifecycleManager tc = mock(TxnLifecycleManager.class);
+        doAnswer(new Answer<Long>() {
+            @Override
+            public Long answer(InvocationOnMock invocationOnMock) throws Throwable {
+                long next = commitTsGenerator.nextTimestamp();
+                store.commit((Long) invocationOnMock.getArguments()[0]);
+                return next + 1;
+            }
+        }).when(tc).commit(anyLong());
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocationOnMock) throws Throwable {
+                store.rollback((Long) invocationOnMock.getArguments()[0]);
+                return null;
+            }
+        }).when(tc).rollback(anyLong());
+
+        Txn committedTxn = new WritableTxn(1l, 1l, Txn.IsolationLevel.SNAPSHOT_ISOLATION, Txn.ROOT_TRANSACTION, tc, false,HExceptionFactory.INSTANCE);
+        store.recordNewTransaction(committedTxn);
+        committedTxn.commit();
+        Txn rolledBackTxn = new WritableTxn(2l, 2l, Txn.IsolationLevel.SNAPSHOT_ISOLATION, Txn.ROOT_TRANSACTION, tc, false,HExceptionFactory.INSTANCE);
+        store.recordNewTransaction(rolledBackTxn);
+        rolledBackTxn.rollback();
+        Txn activeTxn = new WritableTxn(3l, 3l, Txn.IsolationLevel.SNAPSHOT_ISOLATION, Txn.ROOT_TRANSACTION, tc, false,HExceptionFactory.INSTANCE);
+        store.recordNewTransaction(activeTxn);
+
+        byte[] first = Encoding.encode("hello");
+        byte[] second = Encoding.encode("goodbye");
+        Txn[] writers = new Txn[]{committedTxn,rolledBackTxn,activeTxn};
+        for(Txn writer : writers){
+            for(byte[] rowKey : new byte[][]{first,second}){
+                Put testPut = new Put(rowKey);
+                testPut.add(SIConstants.DEFAULT_FAMILY_BYTES,
+                        SIConstants.PACKED_COLUMN_BYTES,
+                        writer.getTxnId(), Encoding.encode("hello2"));
+                region.put(testPut);
+            }
+        }
+
+        ByteSlice[] rowKeys = new ByteSlice[]{ByteSlice.wrap(first),ByteSlice.wrap(second),ByteSlice.wrap(first),ByteSlice.wrap(first)};
+        long[] txnIds = new long[]{committedTxn.getTxnId(),committedTxn.getTxnId(),rolledBackTxn.getTxnId(),activeTxn.getTxnId()};
+        boolean[] resolved = SynchronousReadResolver.INSTANCE.resolve(rp,rowKeys,txnIds,rowKeys.length,store,new RollForwardStatus(),true,GreenLight.INSTANCE);
+        Assert.assertArrayEquals("Incorrect resolution!",new boolean[]{true,true,true,false},resolved);
+        verify(region,times(1)).batchMutate(any(Mutation[].class));
+
+        Result result = region.get(new Get(first));
+        Assert.assertEquals("Incorrect result size after read resolve!", 3, result.size());
+        Cell commitTs = result.getColumnLatestCell(SIConstants.DEFAULT_FAMILY_BYTES, SIConstants.SNAPSHOT_ISOLATION_COMMIT_TIMESTAMP_COLUMN_BYTES);
+        Assert.assertNotNull("No Commit TS column found!", commitTs);
+        Assert.assertEquals("Incorrect committed txnId", committedTxn.getTxnId(), commitTs.getTimestamp());
+        Assert.assertEquals("Incorrect commit timestamp!", committedTxn.getEffectiveCommitTimestamp(), Bytes.toLong(CellUtil.cloneValue(commitTs)));
+        for(Cell cell : result.rawCells()){
+            Assert.assertTrue("Rolled back data was not removed!",cell.getTimestamp()!=rolledBackTxn.getTxnId());
+        }
+
+        result = region.get(new Get(second));
+        Assert.assertEquals("Incorrect result size after read resolve!", 4, result.size());
+    }
 }
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.si.impl;
+
+import com.splicemachine.si.coprocessor.TxnMessage;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.splicemachine.si.constants.SIConstants.TRANSACTION_TABLE_BUCKET_COUNT;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for committing transactions in groups, against a transaction table which hands out increasing commit
+ * timestamps.
+ * <p/>
+ * To get commits grouped, the first commit is held up in the table until the others are all waiting for it.
+ * Transaction ids which are multiples of the bucket count all fall into the same bucket, so they are sent in
+ * one request.
+ */
+public class TxnGroupCommitterTest{
+    private static final int WAITERS=8;
+
+    private final List<TxnMessage.CommitRequest> requests=new CopyOnWriteArrayList<>();
+    private final ConcurrentMap<Long,Long> commitTimestamps=new ConcurrentHashMap<>();
+    private final AtomicLong timestamps=new AtomicLong(100);
+    private final CountDownLatch firstSent=new CountDownLatch(1);
+    private final CountDownLatch releaseFirst=new CountDownLatch(1);
+    private volatile IOException groupError;
+
+    private TxnNetworkLayer table;
+    private TxnGroupCommitter committer;
+
+    @Before
+    public void setUp() throws Exception{
+        table=mock(TxnNetworkLayer.class);
+        when(table.commit(any(byte[].class),any(TxnMessage.CommitRequest.class))).thenAnswer(new Answer<TxnMessage.CommitResponse>(){
+            @Override
+            public TxnMessage.CommitResponse answer(InvocationOnMock invocation) throws Throwable{
+                TxnMessage.CommitRequest request=(TxnMessage.CommitRequest)invocation.getArguments()[1];
+                requests.add(request);
+                if(requests.size()==1){
+                    firstSent.countDown();
+                    releaseFirst.await();
+                }else if(groupError!=null)
+                    throw groupError;
+
+                TxnMessage.CommitResponse.Builder response=TxnMessage.CommitResponse.newBuilder();
+                for(long txnId : request.getTxnIdsList()){
+                    long commitTs=timestamps.incrementAndGet();
+                    commitTimestamps.put(txnId,commitTs);
+                    response.addCommitTs(commitTs);
+                }
+                return response.build();
+            }
+        });
+        TxnNetworkLayerFactory tableFactory=mock(TxnNetworkLayerFactory.class);
+        when(tableFactory.accessTxnNetwork()).thenReturn(table);
+        committer=new TxnGroupCommitter(tableFactory,WAITERS);
+    }
+
+    @Test(timeout=10000)
+    public void concurrentCommitsAreMergedIntoOneGroup() throws Exception{
+        List<Committer> waiters=commitBehindFirst();
+        releaseFirst.countDown();
+
+        Set<Long> seen=new HashSet<>();
+        for(Committer waiter : waiters){
+            waiter.join();
+            Assert.assertNull("Commit of "+waiter.txnId+" failed",waiter.error);
+            Assert.assertEquals("Incorrect commit timestamp for "+waiter.txnId,
+                    (long)commitTimestamps.get(waiter.txnId),waiter.commitTs);
+            Assert.assertTrue("Commit timestamp handed out twice",seen.add(waiter.commitTs));
+        }
+        Assert.assertEquals("Waiting commits were not merged into one request",2,requests.size());
+        Assert.assertEquals("Incorrect group size",WAITERS,requests.get(1).getTxnIdsCount());
+    }
+
+    @Test(timeout=10000)
+    public void failureOfAGroupFailsEveryCommitInIt() throws Exception{
+        groupError=new IOException("group failed");
+        List<Committer> waiters=commitBehindFirst();
+        releaseFirst.countDown();
+
+        for(Committer waiter : waiters){
+            waiter.join();
+            Assert.assertSame("Commit of "+waiter.txnId+" did not see the failure",groupError,waiter.error);
+        }
+        Assert.assertEquals("Waiting commits were not merged into one request",2,requests.size());
+    }
+
+    @Test(timeout=10000)
+    public void singleCommitDoesNotWait() throws Exception{
+        releaseFirst.countDown();
+
+        long commitTs=committer.commit(txnId(1));
+
+        Assert.assertEquals("Incorrect commit timestamp",(long)commitTimestamps.get(txnId(1)),commitTs);
+        Assert.assertEquals("Incorrect number of requests",1,requests.size());
+        Assert.assertEquals("Incorrect group size",1,requests.get(0).getTxnIdsCount());
+        verify(table,never()).lifecycleAction(any(byte[].class),any(TxnMessage.TxnLifecycleMessage.class));
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    /**
+     * Start a commit which is held up in the table, then {@link #WAITERS} more which queue up behind it.
+     *
+     * @return the queued commits, all waiting for the first one to finish
+     */
+    private List<Committer> commitBehindFirst() throws Exception{
+        Committer first=new Committer(txnId(0));
+        first.start();
+        firstSent.await();
+
+        List<Committer> waiters=new ArrayList<>(WAITERS);
+        for(int i=1;i<=WAITERS;i++){
+            Committer waiter=new Committer(txnId(i));
+            waiters.add(waiter);
+            waiter.start();
+        }
+        //a commit is queued before it blocks on the group in flight
+        for(Committer waiter : waiters){
+            while(waiter.getState()!=Thread.State.WAITING){
+                Thread.sleep(1);
+            }
+        }
+        return waiters;
+    }
+
+    private static long txnId(int i){
+        return (i+1)*(long)TRANSACTION_TABLE_BUCKET_COUNT;
+    }
+
+    private class Committer extends Thread{
+        private final long txnId;
+        private volatile long commitTs;
+        private volatile IOException error;
+
+        Committer(long txnId){
+            this.txnId=txnId;
+        }
+
+        @Override
+        public void run(){
+            try{
+                commitTs=committer.commit(txnId);
+            }catch(IOException e){
+                error=e;
+            }
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.si.impl.server;
+
+import com.splicemachine.si.api.readresolve.RollForward;
+import com.splicemachine.si.api.txn.Txn;
+import com.splicemachine.si.api.txn.TxnSupplier;
+import com.splicemachine.si.api.txn.TxnView;
+import com.splicemachine.si.constants.SIConstants;
+import com.splicemachine.si.impl.txn.CommittedTxn;
+import com.splicemachine.si.impl.txn.InheritingTxnView;
+import com.splicemachine.si.impl.txn.RolledBackTxn;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SICompactionStateTest{
+    private static final byte[] ROW = Bytes.toBytes("row");
+
+    private final Map<Long,TxnView> txns = new HashMap<>();
+
+    @Test
+    public void keepsEverythingWithoutWatermark() throws Exception{
+        txns.put(1l,new CommittedTxn(1l,2l));
+        txns.put(3l,new CommittedTxn(3l,4l));
+        SICompactionState state = new SICompactionState(supplier(),mock(RollForward.class),16);
+
+        List<Cell> results = compact(state,tombstone(3l),data(1l));
+        Assert.assertEquals("Nothing should have been purged",0l,state.getPurgedCells());
+        Assert.assertTrue("Missing tombstone",contains(results,SIConstants.SNAPSHOT_ISOLATION_TOMBSTONE_COLUMN_BYTES,3l));
+        Assert.assertTrue("Missing data",contains(results,SIConstants.PACKED_COLUMN_BYTES,1l));
+    }
+
+    @Test
+    public void purgesVersionsBelowVisibleTombstone() throws Exception{
+        txns.put(1l,new CommittedTxn(1l,2l));
+        txns.put(3l,new CommittedTxn(3l,4l));
+        txns.put(5l,new CommittedTxn(5l,6l));
+        SICompactionState state = new SICompactionState(supplier(),mock(RollForward.class),16,10l,false);
+
+        List<Cell> results = compact(state,commitTimestamp(1l,2l),tombstone(3l),data(5l),data(1l));
+        Assert.assertFalse("Data below the tombstone should be purged",contains(results,SIConstants.PACKED_COLUMN_BYTES,1l));
+        Assert.assertFalse("Commit timestamp below the tombstone should be purged",
+                contains(results,SIConstants.SNAPSHOT_ISOLATION_COMMIT_TIMESTAMP_COLUMN_BYTES,1l));
+        Assert.assertTrue("Tombstone should be kept for a minor compaction",
+                contains(results,SIConstants.SNAPSHOT_ISOLATION_TOMBSTONE_COLUMN_BYTES,3l));
+        Assert.assertTrue("Data above the tombstone should be kept",contains(results,SIConstants.PACKED_COLUMN_BYTES,5l));
+        Assert.assertEquals("Incorrect purged cell count",2l,state.getPurgedCells());
+        Assert.assertTrue("Purged bytes not counted",state.getPurgedBytes()>0);
+    }
+
+    @Test
+    public void purgesTombstoneWhenAllFilesAreCompacted() throws Exception{
+        txns.put(1l,new CommittedTxn(1l,2l));
+        txns.put(3l,new CommittedTxn(3l,4l));
+        SICompactionState state = new SICompactionState(supplier(),mock(RollForward.class),16,10l,true);
+
+        List<Cell> results = compact(state,tombstone(3l),data(1l));
+        Assert.assertTrue("Deleted row should be removed entirely, but found "+results,results.isEmpty());
+        Assert.assertEquals("Incorrect purged cell count",2l,state.getPurgedCells());
+    }
+
+    @Test
+    public void keepsVersionsBelowTombstoneCommittedAfterWatermark() throws Exception{
+        txns.put(1l,new CommittedTxn(1l,2l));
+        txns.put(3l,new CommittedTxn(3l,12l));
+        SICompactionState state = new SICompactionState(supplier(),mock(RollForward.class),16,10l,true);
+
+        List<Cell> results = compact(state,tombstone(3l),data(1l));
+        Assert.assertTrue("Data may still be visible to an active transaction",
+                contains(results,SIConstants.PACKED_COLUMN_BYTES,1l));
+        Assert.assertEquals("Nothing should have been purged",0l,state.getPurgedCells());
+    }
+
+    @Test
+    public void keepsOlderDataBelowNewerData() throws Exception{
+        txns.put(1l,new CommittedTxn(1l,2l));
+        txns.put(3l,new CommittedTxn(3l,4l));
+        SICompactionState state = new SICompactionState(supplier(),mock(RollForward.class),16,10l,true);
+
+        List<Cell> results = compact(state,data(3l),data(1l));
+        Assert.assertTrue("Updates only write changed columns, so older data is still needed",
+                contains(results,SIConstants.PACKED_COLUMN_BYTES,1l));
+        Assert.assertTrue("Missing newer data",contains(results,SIConstants.PACKED_COLUMN_BYTES,3l));
+    }
+
+    @Test
+    public void antiTombstoneIsKept() throws Exception{
+        txns.put(1l,new CommittedTxn(1l,2l));
+        txns.put(3l,new CommittedTxn(3l,4l));
+        txns.put(5l,new CommittedTxn(5l,6l));
+        SICompactionState state = new SICompactionState(supplier(),mock(RollForward.class),16,10l,true);
+
+        List<Cell> results = compact(state,antiTombstone(5l),tombstone(3l),data(5l),data(1l));
+        Assert.assertTrue("Missing anti-tombstone",contains(results,SIConstants.SNAPSHOT_ISOLATION_TOMBSTONE_COLUMN_BYTES,5l));
+        Assert.assertTrue("Missing re-inserted data",contains(results,SIConstants.PACKED_COLUMN_BYTES,5l));
+        Assert.assertFalse("Tombstone below anti-tombstone should be purged",
+                contains(results,SIConstants.SNAPSHOT_ISOLATION_TOMBSTONE_COLUMN_BYTES,3l));
+        Assert.assertFalse("Deleted data should be purged",contains(results,SIConstants.PACKED_COLUMN_BYTES,1l));
+    }
+
+    @Test
+    public void rolledBackDataIsRemoved() throws Exception{
+        txns.put(1l,new CommittedTxn(1l,2l));
+        txns.put(3l,new RolledBackTxn(3l));
+        SICompactionState state = new SICompactionState(supplier(),mock(RollForward.class),16,10l,false);
+
+        List<Cell> results = compact(state,tombstone(3l),data(1l));
+        Assert.assertFalse("Rolled back tombstone should be removed",
+                contains(results,SIConstants.SNAPSHOT_ISOLATION_TOMBSTONE_COLUMN_BYTES,3l));
+        Assert.assertTrue("Rolled back tombstone hides nothing",contains(results,SIConstants.PACKED_COLUMN_BYTES,1l));
+    }
+
+    @Test
+    public void summarizesResolvedVersions() throws Exception{
+        txns.put(1l,new CommittedTxn(1l,2l));
+        txns.put(3l,new CommittedTxn(3l,4l));
+        SICompactionState state = new SICompactionState(supplier(),mock(RollForward.class),16);
+
+        compact(state,data(3l),data(1l));
+        Assert.assertTrue("Committed versions should be resolved",state.isFullyResolved());
+        Assert.assertEquals("Incorrect max txn id",3l,state.getMaxTxnId());
+        Assert.assertEquals("Incorrect max commit timestamp",4l,state.getMaxCommitTimestamp());
+        Assert.assertFalse("No tombstones were written",state.hasTombstones());
+
+        compact(state,commitTimestamp(1l,2l),tombstone(1l));
+        Assert.assertTrue("Tombstone was resolved",state.isFullyResolved());
+        Assert.assertTrue("Tombstone not recorded",state.hasTombstones());
+    }
+
+    @Test
+    public void activeVersionIsNotResolved() throws Exception{
+        txns.put(1l,new CommittedTxn(1l,2l));
+        txns.put(5l,new InheritingTxnView(Txn.ROOT_TRANSACTION,5l,5l,Txn.IsolationLevel.SNAPSHOT_ISOLATION,Txn.State.ACTIVE));
+        SICompactionState state = new SICompactionState(supplier(),mock(RollForward.class),16);
+
+        compact(state,data(1l));
+        compact(state,data(5l));
+        Assert.assertFalse("Active version cannot be resolved",state.isFullyResolved());
+        Assert.assertEquals("Incorrect max txn id",5l,state.getMaxTxnId());
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private TxnSupplier supplier() throws Exception{
+        TxnSupplier supplier = mock(TxnSupplier.class);
+        Answer<TxnView> lookup = new Answer<TxnView>(){
+            @Override
+            public TxnView answer(InvocationOnMock invocation) throws Throwable{
+                return txns.get((Long)invocation.getArguments()[0]);
+            }
+        };
+        when(supplier.getTransaction(anyLong())).thenAnswer(lookup);
+        when(supplier.getTransaction(anyLong(),anyBoolean())).thenAnswer(lookup);
+        when(supplier.getTransactions(any(long[].class))).thenAnswer(new Answer<TxnView[]>(){
+            @Override
+            public TxnView[] answer(InvocationOnMock invocation) throws Throwable{
+                long[] txnIds = (long[])invocation.getArguments()[0];
+                TxnView[] found = new TxnView[txnIds.length];
+                for(int i=0;i<txnIds.length;i++){
+                    found[i] = txns.get(txnIds[i]);
+                }
+                return found;
+            }
+        });
+        return supplier;
+    }
+
+    private static List<Cell> compact(SICompactionState state,Cell... cells) throws Exception{
+        List<Cell> results = new ArrayList<>();
+        state.mutate(Arrays.asList(cells),results);
+        return results;
+    }
+
+    private static boolean contains(List<Cell> cells,byte[] qualifier,long timestamp){
+        for(Cell cell : cells){
+            if(cell.getTimestamp()==timestamp
+                    && Bytes.equals(cell.getQualifierArray(),cell.getQualifierOffset(),cell.getQualifierLength(),qualifier,0,qualifier.length))
+                return true;
+        }
+        return false;
+    }
+
+    private static Cell data(long timestamp){
+        return cell(SIConstants.PACKED_COLUMN_BYTES,timestamp,Bytes.toBytes("data"));
+    }
+
+    private static Cell tombstone(long timestamp){
+        return cell(SIConstants.SNAPSHOT_ISOLATION_TOMBSTONE_COLUMN_BYTES,timestamp,SIConstants.EMPTY_BYTE_ARRAY);
+    }
+
+    private static Cell antiTombstone(long timestamp){
+        return cell(SIConstants.SNAPSHOT_ISOLATION_TOMBSTONE_COLUMN_BYTES,timestamp,SIConstants.SNAPSHOT_ISOLATION_ANTI_TOMBSTONE_VALUE_BYTES);
+    }
+
+    private static Cell commitTimestamp(long timestamp,long commitTimestamp){
+        return cell(SIConstants.SNAPSHOT_ISOLATION_COMMIT_TIMESTAMP_COLUMN_BYTES,timestamp,Bytes.toBytes(commitTimestamp));
+    }
+
+    private static Cell cell(byte[] qualifier,long timestamp,byte[] value){
+        return new KeyValue(ROW,SIConstants.DEFAULT_FAMILY_BYTES,qualifier,timestamp,value);
+    }
+}
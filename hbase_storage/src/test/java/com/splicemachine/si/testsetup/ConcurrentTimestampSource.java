@@ -33,6 +33,15 @@ public class ConcurrentTimestampSource implements TimestampSource{
           return id.incrementAndGet();
      }
 
+     @Override
+     public long[] nextTimestamps(int count) {
+         long[] timestamps = new long[count];
+         for (int i = 0; i < count; i++) {
+             timestamps[i] = nextTimestamp();
+         }
+         return timestamps;
+     }
+
      @Override
      public void rememberTimestamp(long timestamp) {
           memory = timestamp;
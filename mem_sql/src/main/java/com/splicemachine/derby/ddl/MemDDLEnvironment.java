@@ -202,5 +202,11 @@ public class MemDDLEnvironment implements DDLEnvironment{
         public void deleteChangeNode(String changeId){
             changeStore.remove(changeId);
         }
+
+        @Override
+        public String getChangeVersion() throws StandardException{
+            //nothing in memory outlives the process, so there is no version worth persisting against
+            return null;
+        }
     }
 }
@@ -22,6 +22,7 @@ import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
 import com.splicemachine.derby.impl.sql.execute.operations.LocatedRow;
 import com.splicemachine.derby.impl.sql.execute.operations.SpliceBaseOperation;
 import com.splicemachine.derby.stream.control.ControlDataSetProcessor;
+import com.splicemachine.derby.stream.control.spill.SpillBudget;
 import com.splicemachine.derby.stream.iapi.DataSetProcessor;
 import com.splicemachine.derby.stream.iapi.DistributedDataSetProcessor;
 import com.splicemachine.derby.stream.iapi.RemoteQueryClient;
@@ -49,36 +50,37 @@ public class ControlOnlyDataSetProcessorFactory implements DataSetProcessorFacto
         driver=SIDriver.driver();
     }
 
-    private ControlDataSetProcessor createControlDataSetProcessor() {
+    private ControlDataSetProcessor createControlDataSetProcessor(@Nullable Activation activation) {
         return new ControlDataSetProcessor(driver.getTxnSupplier(),
                                            driver.getTransactor(),
-                                           driver.getOperationFactory());
+                                           driver.getOperationFactory(),
+                                           SpillBudget.forQuery(activation,driver.getConfiguration()));
     }
 
     @Override
     public DataSetProcessor chooseProcessor(@Nullable Activation activation,@Nullable SpliceOperation op){
         if (LOG.isTraceEnabled())
             SpliceLogUtils.trace(LOG, "chooseProcessor(): ControlDataSetProcessor provided for op %s", op);
-        return createControlDataSetProcessor();
+        return createControlDataSetProcessor(activation);
     }
 
     @Override
     public DataSetProcessor localProcessor(@Nullable Activation activation,@Nullable SpliceOperation op){
         if (LOG.isTraceEnabled())
             SpliceLogUtils.trace(LOG, "localProcessor(): ControlDataSetProcessor provided for op %s", op);
-        return createControlDataSetProcessor();
+        return createControlDataSetProcessor(activation);
     }
 
     @Override
     public DataSetProcessor bulkProcessor(@Nullable Activation activation, @Nullable SpliceOperation op) {
-        return createControlDataSetProcessor();
+        return createControlDataSetProcessor(activation);
     }
 
     @Override
     public DistributedDataSetProcessor distributedProcessor(){
         if (LOG.isTraceEnabled())
             SpliceLogUtils.trace(LOG, "distributedProcessor(): DistributedWrapper provided");
-        return new DistributedWrapper(createControlDataSetProcessor());
+        return new DistributedWrapper(createControlDataSetProcessor(null));
     }
 
     @Override
@@ -86,7 +88,7 @@ public class ControlOnlyDataSetProcessorFactory implements DataSetProcessorFacto
         return new RemoteQueryClient() {
             @Override
             public void submit() throws StandardException {
-                operation.openCore(createControlDataSetProcessor());
+                operation.openCore(createControlDataSetProcessor(operation.getActivation()));
             }
 
             @Override
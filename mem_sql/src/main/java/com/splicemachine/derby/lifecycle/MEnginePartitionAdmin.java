@@ -24,6 +24,7 @@ import com.splicemachine.storage.PartitionServer;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author Scott Fines
@@ -71,6 +72,11 @@ public class MEnginePartitionAdmin implements PartitionAdmin{
         return admin.allPartitions(tableName);
     }
 
+    @Override
+    public Map<String,Long> tableWriteRequestCounts() throws IOException{
+        return admin.tableWriteRequestCounts();
+    }
+
     @Override
     public TableDescriptor[] getTableDescriptors(List<String> tables) throws IOException{
         return admin.getTableDescriptors(tables);
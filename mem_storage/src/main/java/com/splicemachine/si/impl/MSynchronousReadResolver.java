@@ -113,6 +113,16 @@ public class MSynchronousReadResolver implements KeyedReadResolver{
         }
     }
 
+    @Override
+    public boolean[] resolve(Partition region,ByteSlice[] rowKeys,long[] txnIds,int size,TxnSupplier supplier,RollForwardStatus status,boolean failOnError,TrafficControl trafficControl){
+        //the in-memory store has no cheaper way to apply several writes, so just resolve them one at a time
+        boolean[] resolved=new boolean[size];
+        for(int i=0;i<size;i++){
+            resolved[i]=resolve(region,rowKeys[i],txnIds[i],supplier,status,failOnError,trafficControl);
+        }
+        return resolved;
+    }
+
     /******************************************************************************************************************/
     /*private helper methods */
     private void resolveCommitted(Partition region,ByteSlice rowKey,long txnId,long commitTimestamp,boolean failOnError){
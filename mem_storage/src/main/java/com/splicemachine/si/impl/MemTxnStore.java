@@ -83,6 +83,15 @@ public class MemTxnStore implements TxnStore{
         return getTransaction(txnId);
     }
 
+    @Override
+    public TxnView[] getTransactions(long[] txnIds) throws IOException{
+        TxnView[] txns=new TxnView[txnIds.length];
+        for(int i=0;i<txnIds.length;i++){
+            txns[i]=getTransaction(txnIds[i]);
+        }
+        return txns;
+    }
+
 
     @Override
     public boolean transactionCached(long txnId){
@@ -244,6 +253,20 @@ public class MemTxnStore implements TxnStore{
         }
     }
 
+    @Override
+    public Txn.State[] keepAlive(long[] txnIds) throws IOException{
+        Txn.State[] states=new Txn.State[txnIds.length];
+        for(int i=0;i<txnIds.length;i++){
+            try{
+                if(keepAlive(txnIds[i]))
+                    states[i]=Txn.State.ACTIVE;
+            }catch(MTransactionTimeout mtt){
+                states[i]=Txn.State.ROLLEDBACK;
+            }
+        }
+        return states;
+    }
+
     //		@Override
     public void timeout(long txnId) throws IOException{
         rollback(txnId);
@@ -91,11 +91,14 @@ public class TxnPartition implements Partition{
         get.setAllAttributes(attributes.allAttributes());
         txnReadController.preProcessGet(get);
         attachFilterIfNeeded(get);
+        if(basePartition instanceof MPartition)
+            return ((MPartition)basePartition).batchGet(get,rowKeys);
 
         List<DataResult> results = new ArrayList<>(rowKeys.size());
         for(byte[] key:rowKeys){
             get.setKey(key);
-            results.add(basePartition.get(get,null));
+            DataResult result=basePartition.get(get,null);
+            results.add(result!=null?result:new MResult(Collections.<DataCell>emptyList()));
         }
         return results.iterator();
     }
@@ -282,7 +285,7 @@ public class TxnPartition implements Partition{
 
     @Override
     public PartitionLoad getLoad() throws IOException{
-        throw new UnsupportedOperationException("IMPLEMENT");
+        return basePartition.getLoad();
     }
 
     @Override
@@ -344,4 +347,9 @@ public class TxnPartition implements Partition{
     public BitSet getBloomInMemoryCheck(boolean hasConstraintChecker,Pair<KVPair, Lock>[] dataAndLocks) throws IOException {
         return null;
     }
+
+    @Override
+    public ResolvedDataSummary getResolvedDataSummary() throws IOException{
+        return null;
+    }
 }
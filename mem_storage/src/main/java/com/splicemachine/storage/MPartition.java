@@ -114,7 +114,63 @@ public class MPartition implements Partition{
 
     @Override
     public Iterator<DataResult> batchGet(Attributable attributes,List<byte[]> rowKeys) throws IOException{
-        throw new UnsupportedOperationException("IMPLEMENT");
+        MGet get=new MGet();
+        get.setTimeRange(0l,Long.MAX_VALUE);
+        if(attributes!=null)
+            get.setAllAttributes(attributes.allAttributes());
+        return batchGet(get,rowKeys);
+    }
+
+    /**
+     * Fetch several rows using the versions, filter and families of {@code get} (its key is ignored).
+     * <p/>
+     * The keys are visited in sorted order against a single point in the write sequence, so the memstore is
+     * walked forwards once instead of being searched from the start for each key, and every row is read
+     * from the same view of the data. Each row is bounded to its own cells, rather than filtering the tail of
+     * the memstore as {@link #get(DataGet,DataResult)} does.
+     *
+     * @return one result for each entry in {@code rowKeys}, in the same order. Rows which have no
+     * (visible) data are returned as empty results.
+     */
+    public Iterator<DataResult> batchGet(DataGet get,List<byte[]> rowKeys) throws IOException{
+        final byte[][] keys=rowKeys.toArray(new byte[rowKeys.size()][]);
+        Integer[] order=new Integer[keys.length];
+        for(int i=0;i<order.length;i++){
+            order[i]=i;
+        }
+        Arrays.sort(order,new Comparator<Integer>(){
+            @Override
+            public int compare(Integer o1,Integer o2){
+                return ByteComparisons.comparator().compare(keys[o1],keys[o2]);
+            }
+        });
+
+        DataResult[] results=new DataResult[keys.length];
+        long curSeq = sequenceGen.get();
+        NavigableSet<DataCell> remaining=memstore;
+        byte[] lastKey=null;
+        DataResult lastResult=null;
+        for(Integer pos:order){
+            byte[] key=keys[pos];
+            if(lastKey!=null && Bytes.equals(lastKey,key)){
+                results[pos]=lastResult;
+                continue;
+            }
+            remaining=remaining.tailSet(rowStart(key),true);
+            NavigableSet<DataCell> row=remaining.headSet(rowStart(Arrays.copyOf(key,key.length+1)),false); //the next possible row key
+            List<DataCell> cells;
+            if(row.isEmpty()){
+                cells=Collections.emptyList();
+            }else{
+                try(SetScanner ss=new SetScanner(curSeq,row.iterator(),get.lowTimestamp(),get.highTimestamp(),get.filter(),this,Metrics.noOpMetricFactory())){
+                    cells=ss.next(-1);
+                    filterByFamilies(cells,get.familyQualifierMap());
+                }
+            }
+            lastKey=key;
+            lastResult=results[pos]=new MResult(cells);
+        }
+        return Arrays.asList(results).iterator();
     }
 
     @Override
@@ -392,7 +448,7 @@ public class MPartition implements Partition{
 
     @Override
     public PartitionLoad getLoad() throws IOException{
-        return new MPartitionLoad(getName());
+        return new MPartitionLoad(getName(),writes.get());
     }
 
     @Override
@@ -531,6 +587,10 @@ public class MPartition implements Partition{
     }
 
 
+    private static DataCell rowStart(byte[] key){
+        return new MCell(key,SIConstants.EMPTY_BYTE_ARRAY,SIConstants.EMPTY_BYTE_ARRAY,Long.MAX_VALUE,SIConstants.EMPTY_BYTE_ARRAY,CellType.USER_DATA);
+    }
+
     private void filterByFamilies(List<DataCell> toReturn,Map<byte[], ? extends Set<byte[]>> familyQualifierMap){
         if(familyQualifierMap==null||familyQualifierMap.size()<=0) return;
         Iterator<DataCell> dcIter = toReturn.iterator();
@@ -565,4 +625,9 @@ public class MPartition implements Partition{
     public BitSet getBloomInMemoryCheck(boolean hasConstraintChecker, Pair<KVPair, Lock>[] dataAndLocks) throws IOException {
         return null;
     }
+
+    @Override
+    public ResolvedDataSummary getResolvedDataSummary() throws IOException{
+        return null;
+    }
 }
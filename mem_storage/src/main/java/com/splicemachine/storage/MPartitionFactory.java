@@ -24,6 +24,7 @@ import com.splicemachine.primitives.Bytes;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -139,6 +140,15 @@ public class MPartitionFactory implements PartitionFactory<Object>{
             });
         }
 
+        @Override
+        public Map<String,Long> tableWriteRequestCounts() throws IOException{
+            Map<String,Long> writeCounts=new HashMap<>(partitionMap.size());
+            for(Map.Entry<String,Partition> partition:partitionMap.entrySet()){
+                writeCounts.put(partition.getKey(),partition.getValue().getLoad().getWriteRequestCount());
+            }
+            return writeCounts;
+        }
+
         @Override
         public TableDescriptor [] getTableDescriptors(List<String> tables) throws IOException{
             throw new UnsupportedOperationException("Cannot get table descriptors in an in-memory storage engine!");
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.storage;
+
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.constants.SIConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares fetching a batch of rows from the in-memory store with {@link MPartition#batchGet} against
+ * fetching the same rows with one {@link MPartition#get} each, which is the access pattern of index
+ * lookups and foreign key checks.
+ * <p/>
+ * Run with {@code main}, or through the JMH runner on the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MPartitionBatchGetBenchmark{
+
+    @Param({"10000","100000"})
+    public int numRows;
+
+    @Param({"10","100","1000"})
+    public int batchSize;
+
+    private MPartition partition;
+    private List<byte[]> keys;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void loadPartition() throws IOException{
+        partition=new MPartition("benchmark","benchmark");
+        byte[] value=new byte[64];
+        random=new Random(0l);
+        for(int i=0;i<numRows;i++){
+            MPut put=new MPut(Bytes.toBytes(i));
+            random.nextBytes(value);
+            put.addCell(SIConstants.DEFAULT_FAMILY_BYTES,SIConstants.PACKED_COLUMN_BYTES,1l,value);
+            partition.put(put);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void chooseKeys(){
+        keys=new ArrayList<>(batchSize);
+        for(int i=0;i<batchSize;i++){
+            keys.add(Bytes.toBytes(random.nextInt(numRows)));
+        }
+    }
+
+    @Benchmark
+    public void batchGet(Blackhole bh) throws IOException{
+        Iterator<DataResult> results=partition.batchGet(null,keys);
+        while(results.hasNext()){
+            bh.consume(results.next().size());
+        }
+    }
+
+    @Benchmark
+    public void singleGets(Blackhole bh) throws IOException{
+        MGet get=new MGet();
+        get.setTimeRange(0l,Long.MAX_VALUE);
+        for(byte[] key : keys){
+            get.setKey(key);
+            DataResult result=partition.get(get,null);
+            bh.consume(result==null?0:result.size());
+        }
+    }
+
+    public static void main(String... args) throws RunnerException{
+        new Runner(new OptionsBuilder().include(MPartitionBatchGetBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.storage;
+
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.constants.SIConstants;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+public class MPartitionTest{
+    private static final byte[] FAMILY=SIConstants.DEFAULT_FAMILY_BYTES;
+    private static final byte[] QUALIFIER=SIConstants.PACKED_COLUMN_BYTES;
+
+    private MPartition partition;
+
+    @Before
+    public void setUp() throws IOException{
+        partition=new MPartition("test","test");
+        put("b",1l,"b1");
+        put("d",1l,"d1");
+        put("d",2l,"d2");
+        put("row",1l,"row");
+        put("row1",1l,"row1");
+    }
+
+    @Test
+    public void resultsFollowTheOrderOfTheKeys() throws IOException{
+        List<DataResult> results=batchGet("row","b","d");
+        Assert.assertEquals(3,results.size());
+        assertValue("row",results.get(0));
+        assertValue("b1",results.get(1));
+        assertValue("d2",results.get(2));
+    }
+
+    @Test
+    public void missingRowsAreEmpty() throws IOException{
+        List<DataResult> results=batchGet("a","b","c","ro","zzz");
+        Assert.assertEquals("Every key should have a result",5,results.size());
+        Assert.assertEquals("Key before the first row",0,results.get(0).size());
+        assertValue("b1",results.get(1));
+        Assert.assertEquals("Key between two rows",0,results.get(2).size());
+        Assert.assertEquals("Key which prefixes other rows",0,results.get(3).size());
+        Assert.assertEquals("Key after the last row",0,results.get(4).size());
+    }
+
+    @Test
+    public void rowsDoNotIncludeLongerKeys() throws IOException{
+        List<DataResult> results=batchGet("row","row1");
+        Assert.assertEquals("row should not include the cells of row1",1,results.get(0).size());
+        assertValue("row",results.get(0));
+        Assert.assertEquals(1,results.get(1).size());
+        assertValue("row1",results.get(1));
+    }
+
+    @Test
+    public void duplicateKeysReturnTheSameRow() throws IOException{
+        List<DataResult> results=batchGet("d","b","d","c","d");
+        Assert.assertEquals(5,results.size());
+        assertValue("d2",results.get(0));
+        assertValue("b1",results.get(1));
+        assertValue("d2",results.get(2));
+        Assert.assertEquals(0,results.get(3).size());
+        assertValue("d2",results.get(4));
+    }
+
+    @Test
+    public void batchMatchesSingleGets() throws IOException{
+        String[] keys={"row1","a","d","b","row","d"};
+        List<DataResult> results=batchGet(keys);
+        MGet get=new MGet();
+        get.setTimeRange(0l,Long.MAX_VALUE);
+        for(int i=0;i<keys.length;i++){
+            get.setKey(Bytes.toBytes(keys[i]));
+            DataResult single=partition.get(get,null);
+            if(single==null)
+                Assert.assertEquals("Key "+keys[i],0,results.get(i).size());
+            else{
+                Assert.assertEquals("Key "+keys[i],single.size(),results.get(i).size());
+                Assert.assertArrayEquals("Key "+keys[i],
+                        single.latestCell(FAMILY,QUALIFIER).value(),results.get(i).latestCell(FAMILY,QUALIFIER).value());
+            }
+        }
+    }
+
+    @Test
+    public void emptyBatch() throws IOException{
+        Assert.assertFalse(partition.batchGet(null,new ArrayList<byte[]>()).hasNext());
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private void put(String key,long timestamp,String value) throws IOException{
+        MPut put=new MPut(Bytes.toBytes(key));
+        put.addCell(FAMILY,QUALIFIER,timestamp,Bytes.toBytes(value));
+        partition.put(put);
+    }
+
+    private List<DataResult> batchGet(String... keys) throws IOException{
+        List<byte[]> rowKeys=new ArrayList<>(keys.length);
+        for(String key : keys){
+            rowKeys.add(Bytes.toBytes(key));
+        }
+        List<DataResult> results=new ArrayList<>(keys.length);
+        Iterator<DataResult> iter=partition.batchGet(null,rowKeys);
+        while(iter.hasNext()){
+            results.add(iter.next());
+        }
+        return results;
+    }
+
+    private static void assertValue(String expected,DataResult result){
+        DataCell cell=result.latestCell(FAMILY,QUALIFIER);
+        Assert.assertNotNull("Missing cell, expected "+expected,cell);
+        Assert.assertEquals(expected,Bytes.toString(cell.value()));
+    }
+}
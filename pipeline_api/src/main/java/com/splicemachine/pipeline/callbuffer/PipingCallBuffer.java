@@ -205,6 +205,7 @@ public class PipingCallBuffer implements RecordingCallBuffer<KVPair>, Rebuildabl
                         writeConfiguration,
                         server,
                         (writer != null ? new RegulatedWriter(writer) : null),
+                        bufferConfiguration,
                         writeStats);
                 serverNameToRegionServerCBMap.put(server, regionServerCB);
             }
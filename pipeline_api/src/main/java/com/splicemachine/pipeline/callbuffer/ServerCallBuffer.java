@@ -40,6 +40,13 @@ import java.util.concurrent.Future;
  * This means the entries that are buffered by this class are pairs consisting of the starting row key and the call buffer for the region.
  * <em>Please Note:</em> This data structure also contains a table name.  So there will be multiple instances of this class
  * for each region server, since each table and region server combination will have an instance of this class.
+ * <p/>
+ * Flushes are pipelined: each flush is handed to the writer without waiting for it to complete, so that the caller
+ * can keep encoding rows while earlier writes are on the wire. The number of flushes in flight is limited to a
+ * window (at most {@link BufferConfiguration#getMaxFlushesPerRegion()}, since every flush carries at most one
+ * BulkWrite per region). When the window is full, the flushing thread waits for the oldest write to complete.
+ * The window is halved whenever a completed write had to be retried (typically because the server had no write
+ * permits left and rejected part of it), and grows back by one for each write that went through cleanly.
  */
 class ServerCallBuffer implements CallBuffer<Pair<byte[], PartitionBuffer>> {
 
@@ -62,6 +69,8 @@ class ServerCallBuffer implements CallBuffer<Pair<byte[], PartitionBuffer>> {
     private final WriteConfiguration writeConfiguration;
     private final byte[] tableName;
     private final TxnView txn;
+    private final BufferConfiguration bufferConfiguration;
+    private int window;
     private Pair<byte[], PartitionBuffer> lastElement;
 
     public ServerCallBuffer(byte[] tableName,
@@ -69,8 +78,11 @@ class ServerCallBuffer implements CallBuffer<Pair<byte[], PartitionBuffer>> {
                             WriteConfiguration writeConfiguration,
                             PartitionServer server,
                             Writer writer,
+                            BufferConfiguration bufferConfiguration,
                             final MergingWriteStats writeStats) {
         this.txn = txn;
+        this.bufferConfiguration = bufferConfiguration;
+        this.window = maxWindow();
         this.writeConfiguration = writeConfiguration;
         this.tableName = tableName;
         this.writeStats = writeStats;
@@ -116,6 +128,7 @@ class ServerCallBuffer implements CallBuffer<Pair<byte[], PartitionBuffer>> {
         flushBufferCheckPrevious();
         BulkWrites bulkWrites = getBulkWrites();
         if (bulkWrites!=null && bulkWrites.numEntries() != 0) {
+            waitForWindow();
             Future<WriteStats> write = writer.write(tableName, bulkWrites, writeConfiguration);
             outstandingRequests.add(write);
         }
@@ -129,8 +142,7 @@ class ServerCallBuffer implements CallBuffer<Pair<byte[], PartitionBuffer>> {
         while (futureIterator.hasNext()) {
             Future<WriteStats> future = futureIterator.next();
             futureIterator.remove();
-            WriteStats retStats = future.get();//check for errors
-            writeStats.merge(retStats);
+            completed(future.get());//check for errors
         }
     }
 
@@ -195,9 +207,33 @@ class ServerCallBuffer implements CallBuffer<Pair<byte[], PartitionBuffer>> {
             Future<WriteStats> future = futureIterator.next();
             if (future.isDone()) {
                 futureIterator.remove();
-                WriteStats retStats = future.get();//check for errors
-                writeStats.merge(retStats);
+                completed(future.get());//check for errors
             }
         }
     }
+
+    /*
+     * Block until there is room in the window for another flush, by waiting on the oldest writes first.
+     */
+    private void waitForWindow() throws Exception {
+        if (outstandingRequests.size() < Math.min(window, maxWindow())) return;
+        if (bufferConfiguration != null)
+            bufferConfiguration.writeRejected();
+        while (outstandingRequests.size() >= Math.min(window, maxWindow())) {
+            completed(outstandingRequests.remove(0).get());//check for errors
+        }
+    }
+
+    private void completed(WriteStats retStats) {
+        writeStats.merge(retStats);
+        if (retStats.getRetryCounter() > 0)
+            window = Math.max(1, window / 2);
+        else if (window < maxWindow())
+            window++;
+    }
+
+    private int maxWindow() {
+        int maxFlushes = bufferConfiguration == null ? 0 : bufferConfiguration.getMaxFlushesPerRegion();
+        return maxFlushes > 0 ? maxFlushes : Integer.MAX_VALUE;
+    }
 }
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.pipeline.callbuffer;
+
+import com.splicemachine.kvpair.KVPair;
+import com.splicemachine.metrics.Metrics;
+import com.splicemachine.pipeline.api.WriteStats;
+import com.splicemachine.pipeline.api.Writer;
+import com.splicemachine.pipeline.client.BulkWrites;
+import com.splicemachine.pipeline.client.MergingWriteStats;
+import com.splicemachine.pipeline.client.Monitor;
+import com.splicemachine.pipeline.client.SimpleWriteStats;
+import com.splicemachine.pipeline.config.WriteConfiguration;
+import com.splicemachine.pipeline.utils.PipelineUtils;
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import com.splicemachine.storage.Partition;
+import com.splicemachine.utils.Pair;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.management.MBeanServer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the window of in-flight writes kept by a {@link ServerCallBuffer}.
+ */
+@Category(ArchitectureIndependent.class)
+public class ServerCallBufferTest{
+    private List<PendingWrite> writes;
+    private Monitor monitor;
+    private PartitionBuffer partitionBuffer;
+
+    @Before
+    public void setUp() throws Exception{
+        writes=new ArrayList<>();
+        Partition partition=mock(Partition.class);
+        when(partition.getName()).thenReturn("region");
+        partitionBuffer=new PartitionBuffer(partition,PipelineUtils.noOpFlushHook,false);
+    }
+
+    @Test
+    public void flushesDoNotWaitWithinTheWindow() throws Exception{
+        ServerCallBuffer buffer=buffer(2);
+        flush(buffer,clean());
+        flush(buffer,clean());
+        Assert.assertFalse(writes.get(0).waited);
+        Assert.assertFalse(writes.get(1).waited);
+        Assert.assertEquals(0,monitor.getSynchronousFlushCount());
+
+        flush(buffer,clean());
+        Assert.assertTrue("Should have waited for the oldest write",writes.get(0).waited);
+        Assert.assertFalse(writes.get(1).waited);
+        Assert.assertEquals(1,monitor.getSynchronousFlushCount());
+    }
+
+    @Test
+    public void retriedWritesShrinkTheWindow() throws Exception{
+        ServerCallBuffer buffer=buffer(4);
+        flush(buffer,retried());
+        for(int i=0;i<3;i++){
+            flush(buffer,clean());
+        }
+        flush(buffer,clean());
+        /*
+         * The first write was retried, which halves the window to 2, so we have to wait for one more
+         * write (which grows it back to 3) before there's room for the new one.
+         */
+        Assert.assertTrue(writes.get(0).waited);
+        Assert.assertTrue(writes.get(1).waited);
+        Assert.assertFalse(writes.get(2).waited);
+        Assert.assertFalse(writes.get(3).waited);
+    }
+
+    @Test
+    public void flushAndWaitCompletesEveryWrite() throws Exception{
+        ServerCallBuffer buffer=buffer(3);
+        flush(buffer,clean());
+        flush(buffer,clean());
+        buffer.flushBufferAndWait();
+        for(PendingWrite write:writes){
+            Assert.assertTrue(write.waited);
+        }
+    }
+
+    /*****************************************************************************************************************/
+    /*private helper methods*/
+    private ServerCallBuffer buffer(int maxFlushes) throws Exception{
+        monitor=new Monitor(Long.MAX_VALUE,Integer.MAX_VALUE,1,0l,maxFlushes);
+        Writer writer=new Writer(){
+            @Override
+            public Future<WriteStats> write(byte[] tableName,BulkWrites action,WriteConfiguration writeConfiguration) throws ExecutionException{
+                return writes.get(writes.size()-1);
+            }
+
+            @Override public void stopWrites(){ }
+            @Override public void registerJMX(MBeanServer mbs){ }
+        };
+        ServerCallBuffer buffer=new ServerCallBuffer(Bytes.toBytes("table"),null,null,null,writer,monitor,
+                new MergingWriteStats(Metrics.noOpMetricFactory()));
+        buffer.add(Pair.newPair(new byte[]{},partitionBuffer));
+        return buffer;
+    }
+
+    private void flush(ServerCallBuffer buffer,WriteStats result) throws Exception{
+        partitionBuffer.add(new KVPair(Bytes.toBytes(writes.size()),Bytes.toBytes("value")));
+        writes.add(new PendingWrite(result));
+        buffer.flushBuffer();
+    }
+
+    private static WriteStats clean(){
+        return new SimpleWriteStats(1,0,0,0,0,0,0,0,0,0,0,0,0);
+    }
+
+    private static WriteStats retried(){
+        return new SimpleWriteStats(1,1,0,1,0,0,0,0,0,0,0,0,0);
+    }
+
+    /*
+     * A write which only completes when someone waits on it
+     */
+    private static class PendingWrite implements Future<WriteStats>{
+        private final WriteStats result;
+        private boolean waited;
+
+        PendingWrite(WriteStats result){
+            this.result=result;
+        }
+
+        @Override public boolean cancel(boolean mayInterruptIfRunning){ return false; }
+        @Override public boolean isCancelled(){ return false; }
+        @Override public boolean isDone(){ return waited; }
+
+        @Override
+        public WriteStats get(){
+            waited=true;
+            return result;
+        }
+
+        @Override
+        public WriteStats get(long timeout,TimeUnit unit){
+            return get();
+        }
+    }
+}
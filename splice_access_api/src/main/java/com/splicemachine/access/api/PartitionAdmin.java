@@ -21,6 +21,7 @@ import com.splicemachine.storage.PartitionServer;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author Scott Fines
@@ -42,6 +43,12 @@ public interface PartitionAdmin extends AutoCloseable{
 
     Iterable<? extends Partition> allPartitions(String tableName) throws IOException;
 
+    /**
+     * @return the number of writes each table's partitions have counted since they were opened, by table name.
+     * The counts for all the tables are taken together, at the cost of a single look at the cluster.
+     */
+    Map<String,Long> tableWriteRequestCounts() throws IOException;
+
     Iterable<TableDescriptor> listTables() throws IOException;
 
     TableDescriptor[] getTableDescriptors(List<String> tables) throws IOException;
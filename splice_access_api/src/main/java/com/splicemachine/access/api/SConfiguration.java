@@ -197,6 +197,12 @@ public interface SConfiguration {
 
     long getBroadcastRegionRowThreshold();
 
+    long getControlSideSpillThresholdMb();
+
+    int getControlSideSpillPartitions();
+
+    String getControlSideSpillDirectory();
+
     long getOptimizerPlanMaximumTimeout();
 
     long getOptimizerPlanMinimumTimeout();
@@ -257,4 +263,50 @@ public interface SConfiguration {
     int getReservedSlotsTimeout();
 
     int getOlapServerTickLimit();
+
+    boolean isBroadcastJoinOffHeap();
+
+    long getBroadcastJoinCacheSizeMb();
+
+    long getBroadcastJoinCacheExpirationSeconds();
+
+    int getTimestampClientMaxBatchSize();
+
+    boolean getCompactionPurge();
+
+    boolean getVectorizedScans();
+
+    int getVectorizedBatchSize();
+
+    boolean getPredicatePushdown();
+
+    int getLocalScanParallelism();
+
+    int getLocalScanQueueSize();
+
+    int getScanTxnPrefetchRows();
+
+    int getReadResolverBatchSize();
+
+    int getGroupCommitMaxBatchSize();
+
+    String getPlanStoreDirectory();
+
+    int getPlanStoreMaxEntries();
+
+    boolean getBulkIndexBuild();
+
+    String getBulkLoadStagingDirectory();
+
+    double getBulkImportSampleFraction();
+
+    int getRangeConflictCheckThreshold();
+
+    double getStatisticsSampleFraction();
+
+    double getStatisticsStaleWriteFraction();
+
+    long getActiveTimestampInterval();
+
+    long getStatisticsSampleRowBudget();
 }
@@ -111,6 +111,9 @@ public class ConfigurationBuilder {
     public int partitionserverPort;
     public long broadcastRegionMbThreshold;
     public long broadcastRegionRowThreshold;
+    public long controlSideSpillThresholdMb;
+    public int controlSideSpillPartitions;
+    public String controlSideSpillDirectory;
     public long optimizerPlanMaximumTimeout;
     public long optimizerPlanMinimumTimeout;
     public String networkBindAddress;
@@ -137,6 +140,29 @@ public class ConfigurationBuilder {
     public int sparkResultStreamingBatches;
     public int compactionReservedSlots;
     public int reservedSlotsTimeout;
+    public boolean broadcastJoinOffHeap;
+    public long broadcastJoinCacheSizeMb;
+    public long broadcastJoinCacheExpirationSeconds;
+    public int timestampClientMaxBatchSize;
+    public boolean compactionPurge;
+    public boolean vectorizedScans;
+    public int vectorizedBatchSize;
+    public boolean predicatePushdown;
+    public int localScanParallelism;
+    public int localScanQueueSize;
+    public int scanTxnPrefetchRows;
+    public int readResolverBatchSize;
+    public int groupCommitMaxBatchSize;
+    public String planStoreDirectory;
+    public int planStoreMaxEntries;
+    public boolean bulkIndexBuild;
+    public String bulkLoadStagingDirectory;
+    public double bulkImportSampleFraction;
+    public int rangeConflictCheckThreshold;
+    public double statisticsSampleFraction;
+    public double statisticsStaleWriteFraction;
+    public long activeTimestampInterval;
+    public long statisticsSampleRowBudget;
 
     /**
      * Build the {@link SConfiguration} given the list of subsystem defaults and the configuration source.<br/>
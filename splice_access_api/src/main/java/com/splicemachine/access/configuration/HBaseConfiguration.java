@@ -70,6 +70,12 @@ public class HBaseConfiguration implements ConfigurationDefault {
      */
     public static final String MINIMUM_ACTIVE_PATH = TRANSACTION_PATH+"/minimum";
 
+    /**
+     * The Path in zookeeper under which each server publishes the begin timestamp of its oldest
+     * active transaction. Defaults to [TRANSACTION_PATH]/active
+     */
+    public static final String ACTIVE_TIMESTAMPS_PATH = TRANSACTION_PATH+"/active";
+
     /**
      * Path in ZooKeeper for manipulating Conglomerate information.
      * Defaults to /conglomerates
@@ -135,6 +141,7 @@ public class HBaseConfiguration implements ConfigurationDefault {
         CONGLOMERATE_SCHEMA_PATH,
         MINIMUM_ACTIVE_PATH,
         TRANSACTION_PATH,
+        ACTIVE_TIMESTAMPS_PATH,
         MAX_RESERVED_TIMESTAMP_PATH,
         DDL_CHANGE_PATH,
         DDL_PATH,
@@ -134,6 +134,9 @@ public final class SConfigurationImpl implements SConfiguration {
     private final  int partitionserverPort;
     private final  long broadcastRegionMbThreshold;
     private final  long broadcastRegionRowThreshold;
+    private final  long controlSideSpillThresholdMb;
+    private final  int controlSideSpillPartitions;
+    private final  String controlSideSpillDirectory;
     private final  long optimizerPlanMaximumTimeout;
     private final  long optimizerPlanMinimumTimeout;
     private final  String networkBindAddress;
@@ -159,6 +162,29 @@ public final class SConfigurationImpl implements SConfiguration {
     private final  int splitBlockSize;
     private final  long regionMaxFileSize;
     private final  long tableSplitSleepInterval;
+    private final boolean broadcastJoinOffHeap;
+    private final long broadcastJoinCacheSizeMb;
+    private final long broadcastJoinCacheExpirationSeconds;
+    private final int timestampClientMaxBatchSize;
+    private final boolean compactionPurge;
+    private final boolean vectorizedScans;
+    private final int vectorizedBatchSize;
+    private final boolean predicatePushdown;
+    private final int localScanParallelism;
+    private final int localScanQueueSize;
+    private final int scanTxnPrefetchRows;
+    private final int readResolverBatchSize;
+    private final int groupCommitMaxBatchSize;
+    private final String planStoreDirectory;
+    private final int planStoreMaxEntries;
+    private final boolean bulkIndexBuild;
+    private final String bulkLoadStagingDirectory;
+    private final double bulkImportSampleFraction;
+    private final int rangeConflictCheckThreshold;
+    private final double statisticsSampleFraction;
+    private final double statisticsStaleWriteFraction;
+    private final long activeTimestampInterval;
+    private final long statisticsSampleRowBudget;
 
     // Gateway to hadoop config
     private final ConfigurationSource configSource;
@@ -479,6 +505,18 @@ public final class SConfigurationImpl implements SConfiguration {
         return broadcastRegionRowThreshold;
     }
     @Override
+    public long getControlSideSpillThresholdMb() {
+        return controlSideSpillThresholdMb;
+    }
+    @Override
+    public int getControlSideSpillPartitions() {
+        return controlSideSpillPartitions;
+    }
+    @Override
+    public String getControlSideSpillDirectory() {
+        return controlSideSpillDirectory;
+    }
+    @Override
     public long getOptimizerPlanMaximumTimeout() {
         return optimizerPlanMaximumTimeout;
     }
@@ -645,6 +683,9 @@ public final class SConfigurationImpl implements SConfiguration {
         partitionserverPort = builder.partitionserverPort;
         broadcastRegionMbThreshold = builder.broadcastRegionMbThreshold;
         broadcastRegionRowThreshold = builder.broadcastRegionRowThreshold;
+        controlSideSpillThresholdMb = builder.controlSideSpillThresholdMb;
+        controlSideSpillPartitions = builder.controlSideSpillPartitions;
+        controlSideSpillDirectory = builder.controlSideSpillDirectory;
         optimizerPlanMaximumTimeout = builder.optimizerPlanMaximumTimeout;
         optimizerPlanMinimumTimeout = builder.optimizerPlanMinimumTimeout;
         networkBindAddress = builder.networkBindAddress;
@@ -676,6 +717,29 @@ public final class SConfigurationImpl implements SConfiguration {
         reservedSlotsTimeout = builder.reservedSlotsTimeout;
         storageFactoryHome = builder.storageFactoryHome;
         nestedLoopJoinBatchSize = builder.nestedLoopJoinBatchSize;
+        broadcastJoinOffHeap = builder.broadcastJoinOffHeap;
+        broadcastJoinCacheSizeMb = builder.broadcastJoinCacheSizeMb;
+        broadcastJoinCacheExpirationSeconds = builder.broadcastJoinCacheExpirationSeconds;
+        timestampClientMaxBatchSize = builder.timestampClientMaxBatchSize;
+        compactionPurge = builder.compactionPurge;
+        vectorizedScans = builder.vectorizedScans;
+        vectorizedBatchSize = builder.vectorizedBatchSize;
+        predicatePushdown = builder.predicatePushdown;
+        localScanParallelism = builder.localScanParallelism;
+        localScanQueueSize = builder.localScanQueueSize;
+        scanTxnPrefetchRows = builder.scanTxnPrefetchRows;
+        readResolverBatchSize = builder.readResolverBatchSize;
+        groupCommitMaxBatchSize = builder.groupCommitMaxBatchSize;
+        planStoreDirectory = builder.planStoreDirectory;
+        planStoreMaxEntries = builder.planStoreMaxEntries;
+        bulkIndexBuild = builder.bulkIndexBuild;
+        bulkLoadStagingDirectory = builder.bulkLoadStagingDirectory;
+        bulkImportSampleFraction = builder.bulkImportSampleFraction;
+        rangeConflictCheckThreshold = builder.rangeConflictCheckThreshold;
+        statisticsSampleFraction = builder.statisticsSampleFraction;
+        statisticsStaleWriteFraction = builder.statisticsStaleWriteFraction;
+        activeTimestampInterval = builder.activeTimestampInterval;
+        statisticsSampleRowBudget = builder.statisticsSampleRowBudget;
 
     }
 
@@ -722,4 +786,119 @@ public final class SConfigurationImpl implements SConfiguration {
         return olapServerTickLimit;
     }
 
+    @Override
+    public boolean isBroadcastJoinOffHeap() {
+        return broadcastJoinOffHeap;
+    }
+
+    @Override
+    public long getBroadcastJoinCacheSizeMb() {
+        return broadcastJoinCacheSizeMb;
+    }
+
+    @Override
+    public long getBroadcastJoinCacheExpirationSeconds() {
+        return broadcastJoinCacheExpirationSeconds;
+    }
+
+    @Override
+    public int getTimestampClientMaxBatchSize() {
+        return timestampClientMaxBatchSize;
+    }
+
+    @Override
+    public boolean getCompactionPurge() {
+        return compactionPurge;
+    }
+
+    @Override
+    public boolean getVectorizedScans() {
+        return vectorizedScans;
+    }
+
+    @Override
+    public int getVectorizedBatchSize() {
+        return vectorizedBatchSize;
+    }
+
+    @Override
+    public boolean getPredicatePushdown() {
+        return predicatePushdown;
+    }
+
+    @Override
+    public int getLocalScanParallelism() {
+        return localScanParallelism;
+    }
+
+    @Override
+    public int getLocalScanQueueSize() {
+        return localScanQueueSize;
+    }
+
+    @Override
+    public int getScanTxnPrefetchRows() {
+        return scanTxnPrefetchRows;
+    }
+
+    @Override
+    public int getReadResolverBatchSize() {
+        return readResolverBatchSize;
+    }
+
+    @Override
+    public int getGroupCommitMaxBatchSize() {
+        return groupCommitMaxBatchSize;
+    }
+
+    @Override
+    public String getPlanStoreDirectory() {
+        return planStoreDirectory;
+    }
+
+    @Override
+    public int getPlanStoreMaxEntries() {
+        return planStoreMaxEntries;
+    }
+
+    @Override
+    public boolean getBulkIndexBuild() {
+        return bulkIndexBuild;
+    }
+
+    @Override
+    public String getBulkLoadStagingDirectory() {
+        return bulkLoadStagingDirectory;
+    }
+
+    @Override
+    public double getBulkImportSampleFraction() {
+        return bulkImportSampleFraction;
+    }
+
+    @Override
+    public int getRangeConflictCheckThreshold() {
+        return rangeConflictCheckThreshold;
+    }
+
+    @Override
+    public double getStatisticsSampleFraction() {
+        return statisticsSampleFraction;
+    }
+
+    @Override
+    public double getStatisticsStaleWriteFraction() {
+        return statisticsStaleWriteFraction;
+    }
+
+    @Override
+    public long getActiveTimestampInterval() {
+        return activeTimestampInterval;
+    }
+
+    @Override
+    public long getStatisticsSampleRowBudget() {
+        return statisticsSampleRowBudget;
+    }
+
 }
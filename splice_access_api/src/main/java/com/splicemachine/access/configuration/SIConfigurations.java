@@ -112,6 +112,14 @@ public class SIConfigurations implements ConfigurationDefault {
     public static final String TIMESTAMP_SERVER_BIND_PORT = "splice.timestamp_server.port";
     private static final int DEFAULT_TIMESTAMP_SERVER_BIND_PORT = 60012;
 
+    /**
+     * The maximum number of timestamps the timestamp client will request from the server in a single
+     * round trip. Callers which arrive while a request is outstanding are batched into the next request.
+     * Defaults to 1024
+     */
+    public static final String TIMESTAMP_CLIENT_MAX_BATCH_SIZE = "splice.timestamp_server.clientMaxBatchSize";
+    private static final int DEFAULT_TIMESTAMP_CLIENT_MAX_BATCH_SIZE = 1024;
+
 
     /**
      * The number of milliseconds the OLAP client should wait for a result.
@@ -149,6 +157,53 @@ public class SIConfigurations implements ConfigurationDefault {
     public static final String ACTIVE_TRANSACTION_CACHE_SIZE="splice.txn.activeCacheSize";
     private static final int DEFAULT_ACTIVE_TRANSACTION_CACHE_SIZE = 1<<12;
 
+    /**
+     * When enabled, compactions of transactional tables physically remove versions which no transaction
+     * can see any longer: row versions hidden by a delete which committed before the oldest active
+     * transaction began, read-only transactions included. Defaults to false.
+     */
+    public static final String COMPACTION_PURGE = "splice.txn.compaction.purge";
+    private static final boolean DEFAULT_COMPACTION_PURGE = false;
+
+    /**
+     * The number of rows a table scanner reads ahead so that the transactions which wrote them can be
+     * looked up with a single batched request, rather than one request per unresolved transaction.
+     * Values of 1 or less disable the read-ahead. Defaults to 32.
+     */
+    public static final String SCAN_TXN_PREFETCH_ROWS = "splice.txn.scanPrefetchRows";
+    private static final int DEFAULT_SCAN_TXN_PREFETCH_ROWS = 32;
+
+    /**
+     * The maximum number of rows which asynchronous read resolution applies to a region as a single batch
+     * of writes. Defaults to 1024.
+     */
+    public static final String READ_RESOLVER_BATCH_SIZE = "splice.txn.readresolver.batchSize";
+    private static final int DEFAULT_READ_RESOLVER_BATCH_SIZE = 1024;
+
+    /**
+     * The maximum number of transaction commits which are sent to the transaction table as a single group.
+     * Commits which arrive while a group is being committed wait to form the next group. Set to 1 to commit
+     * every transaction individually. Defaults to 256.
+     */
+    public static final String GROUP_COMMIT_MAX_BATCH_SIZE = "splice.txn.groupCommit.maxBatchSize";
+    private static final int DEFAULT_GROUP_COMMIT_MAX_BATCH_SIZE = 256;
+
+    /**
+     * The number of rows in a write batch which need a write-conflict check at or above which the rows are
+     * checked with a single scan over their key range, rather than with one read per row. Set to 0 to always
+     * read each row individually. Defaults to 64.
+     */
+    public static final String RANGE_CONFLICT_CHECK_THRESHOLD = "splice.txn.rangeConflictCheckThreshold";
+    private static final int DEFAULT_RANGE_CONFLICT_CHECK_THRESHOLD = 64;
+
+    /**
+     * How often (in milliseconds) each server publishes the begin timestamp of its oldest active transaction,
+     * and how long compactions reuse the purge watermark derived from those timestamps.
+     * Defaults to 10000 (10 seconds).
+     */
+    public static final String ACTIVE_TIMESTAMP_INTERVAL = "splice.txn.activeTimestampInterval";
+    private static final long DEFAULT_ACTIVE_TIMESTAMP_INTERVAL = 10000l;
+
     @Override
     public void setDefaults(ConfigurationBuilder builder, ConfigurationSource configurationSource) {
         builder.completedTxnConcurrency  = configurationSource.getInt(completedTxnConcurrency, DEFAULT_COMPLETED_TRANSACTION_CONCURRENCY);
@@ -159,7 +214,9 @@ public class SIConfigurations implements ConfigurationDefault {
 //        builder.readResolverQueueSize  = configurationSource.getInt(READ_RESOLVER_QUEUE_SIZE, DEFAULT_READ_RESOLVER_QUEUE_SIZE);
         builder.timestampClientWaitTime  = configurationSource.getInt(TIMESTAMP_CLIENT_WAIT_TIME, DEFAULT_TIMESTAMP_CLIENT_WAIT_TIME);
         builder.timestampServerBindPort  = configurationSource.getInt(TIMESTAMP_SERVER_BIND_PORT, DEFAULT_TIMESTAMP_SERVER_BIND_PORT);
+        builder.timestampClientMaxBatchSize  = configurationSource.getInt(TIMESTAMP_CLIENT_MAX_BATCH_SIZE, DEFAULT_TIMESTAMP_CLIENT_MAX_BATCH_SIZE);
         builder.activeTransactionCacheSize  = configurationSource.getInt(ACTIVE_TRANSACTION_CACHE_SIZE, DEFAULT_ACTIVE_TRANSACTION_CACHE_SIZE);
+        builder.compactionPurge = configurationSource.getBoolean(COMPACTION_PURGE, DEFAULT_COMPACTION_PURGE);
         builder.olapServerBindPort  = configurationSource.getInt(OLAP_SERVER_BIND_PORT, DEFAULT_OLAP_SERVER_BIND_PORT);
         builder.olapClientWaitTime  = configurationSource.getInt(OLAP_CLIENT_WAIT_TIME, DEFAULT_OLAP_CLIENT_WAIT_TIME);
         builder.olapClientTickTime  = configurationSource.getInt(OLAP_CLIENT_TICK_TIME, DEFAULT_OLAP_CLIENT_TICK_TIME);
@@ -169,5 +226,10 @@ public class SIConfigurations implements ConfigurationDefault {
         builder.transactionTimeout = configurationSource.getLong(TRANSACTION_TIMEOUT, DEFAULT_TRANSACTION_TIMEOUT);
         builder.transactionKeepAliveInterval = configurationSource.getLong(TRANSACTION_KEEP_ALIVE_INTERVAL, DEFAULT_TRANSACTION_KEEP_ALIVE_INTERVAL);
 
+        builder.scanTxnPrefetchRows = configurationSource.getInt(SCAN_TXN_PREFETCH_ROWS, DEFAULT_SCAN_TXN_PREFETCH_ROWS);
+        builder.readResolverBatchSize = configurationSource.getInt(READ_RESOLVER_BATCH_SIZE, DEFAULT_READ_RESOLVER_BATCH_SIZE);
+        builder.groupCommitMaxBatchSize = configurationSource.getInt(GROUP_COMMIT_MAX_BATCH_SIZE, DEFAULT_GROUP_COMMIT_MAX_BATCH_SIZE);
+        builder.rangeConflictCheckThreshold = configurationSource.getInt(RANGE_CONFLICT_CHECK_THRESHOLD, DEFAULT_RANGE_CONFLICT_CHECK_THRESHOLD);
+        builder.activeTimestampInterval = configurationSource.getLong(ACTIVE_TIMESTAMP_INTERVAL, DEFAULT_ACTIVE_TIMESTAMP_INTERVAL);
     }
 }
@@ -197,12 +197,137 @@ public class SQLConfiguration implements ConfigurationDefault {
     public static final String INDEX_LOOKUP_BLOCKS = "splice.index.numConcurrentLookups";
     private static final int DEFAULT_INDEX_LOOKUP_BLOCKS = 5;
 
+    /**
+     * The amount of memory (in megabytes) that a single control-side query may use to hold
+     * the build side of a hash join, or the groups of a group-by/distinct, before it starts
+     * partitioning rows out to local temporary files.
+     *
+     * Defaults to 5% of the maximum heap size.
+     */
+    public static final String CONTROL_SIDE_SPILL_THRESHOLD_MB = "splice.dataset.control.spillThresholdMB";
+    private static final long DEFAULT_CONTROL_SIDE_SPILL_THRESHOLD_MB = Runtime.getRuntime().maxMemory() / (1024l * 1024l * 20l);
+
+    /**
+     * The number of partitions (and therefore temporary files) that a spilling control-side
+     * operation splits its input into once the memory threshold has been reached.
+     *
+     * Defaults to 32
+     */
+    public static final String CONTROL_SIDE_SPILL_PARTITIONS = "splice.dataset.control.spillPartitions";
+    private static final int DEFAULT_CONTROL_SIDE_SPILL_PARTITIONS = 32;
+
+    /**
+     * The local directory in which control-side operations write their temporary spill files.
+     *
+     * Defaults to the value of the java.io.tmpdir system property
+     */
+    public static final String CONTROL_SIDE_SPILL_DIRECTORY = "splice.dataset.control.spillDirectory";
+
     public static final String PARTITIONSERVER_JMX_PORT = "hbase.regionserver.jmx.port";
     private static final int DEFAULT_PARTITIONSERVER_JMX_PORT = 10102;
 
     public static final String NESTEDLOOPJOIN_BATCH_SIZE = "splice.nestedLoopJoin.batchSize";
     private static final int DEFAULT_NESTEDLOOPJOIN_BATCH_SIZE = 10;
 
+    /**
+     * Whether the inner table of a broadcast join should be held in encoded form in off-heap memory,
+     * rather than as deserialized rows on the heap. Off-heap tables use several times less memory, at the
+     * cost of decoding each inner row as it is matched.
+     *
+     * Defaults to true
+     */
+    public static final String BROADCAST_JOIN_OFF_HEAP = "splice.execution.broadcastJoin.offHeap";
+    private static final boolean DEFAULT_BROADCAST_JOIN_OFF_HEAP = true;
+
+    /**
+     * The maximum number of megabytes of (encoded) inner tables which each server keeps in its broadcast
+     * join cache. Tables are evicted once the total size exceeds this limit, least recently used first.
+     *
+     * Defaults to 512 MB
+     */
+    public static final String BROADCAST_JOIN_CACHE_SIZE_MB = "splice.execution.broadcastJoin.cacheSizeMB";
+    private static final long DEFAULT_BROADCAST_JOIN_CACHE_SIZE_MB = 512l;
+
+    /**
+     * The number of seconds that an unused inner table is kept in the broadcast join cache, so that
+     * later statements reading the same snapshot of the same table can reuse it.
+     *
+     * Defaults to 60 seconds
+     */
+    public static final String BROADCAST_JOIN_CACHE_EXPIRATION_SECONDS = "splice.execution.broadcastJoin.cacheExpirationSeconds";
+    private static final long DEFAULT_BROADCAST_JOIN_CACHE_EXPIRATION_SECONDS = 60l;
+
+    /**
+     * If true, control-side table scans decode rows into column batches, and evaluate numeric scan
+     * qualifiers over a whole batch before materializing the rows which qualify. Defaults to false.
+     */
+    public static final String VECTORIZED_SCANS = "splice.execution.vectorizedScans";
+    private static final boolean DEFAULT_VECTORIZED_SCANS = false;
+
+    /**
+     * The number of rows in each column batch when vectorized scans are enabled. Defaults to 1024.
+     */
+    public static final String VECTORIZED_BATCH_SIZE = "splice.execution.vectorizedBatchSize";
+    private static final int DEFAULT_VECTORIZED_BATCH_SIZE = 1024;
+
+    /**
+     * If true, simple comparisons of integer and character columns against constants in scan qualifiers
+     * are also evaluated in the region scanner against the encoded row, so rows which fail them are
+     * rejected without being decoded or returned. Defaults to true.
+     */
+    public static final String PREDICATE_PUSHDOWN = "splice.execution.predicatePushdown";
+    private static final boolean DEFAULT_PREDICATE_PUSHDOWN = true;
+
+    /**
+     * The number of regions which a control-side scan over several regions reads concurrently, on a
+     * thread pool shared by all such scans. 0 or 1 disables parallel reading. Defaults to 0.
+     */
+    public static final String LOCAL_SCAN_PARALLELISM = "splice.execution.localScanParallelism";
+    private static final int DEFAULT_LOCAL_SCAN_PARALLELISM = 0;
+
+    /**
+     * The number of rows which may be read ahead from each region during a parallel control-side scan
+     * before the reading thread waits for the consumer. Defaults to 1024.
+     */
+    public static final String LOCAL_SCAN_QUEUE_SIZE = "splice.execution.localScanQueueSize";
+    private static final int DEFAULT_LOCAL_SCAN_QUEUE_SIZE = 1024;
+
+    /**
+     * Local directory in which compiled statement plans are kept, so that a restarted server can fill its
+     * statement cache without compiling. Plans are not persisted when unset, which is the default.
+     */
+    public static final String PLAN_STORE_DIRECTORY = "splice.execution.planStore.directory";
+    private static final String DEFAULT_PLAN_STORE_DIRECTORY = null;
+
+    /**
+     * The maximum number of compiled plans kept in the plan store directory. Defaults to 10000.
+     */
+    public static final String PLAN_STORE_MAX_ENTRIES = "splice.execution.planStore.maxEntries";
+    private static final int DEFAULT_PLAN_STORE_MAX_ENTRIES = 10000;
+
+    /**
+     * If true, CREATE INDEX on the OLAP engine sorts the index rows and writes them to store files
+     * which are bulk loaded into the new index, instead of sending every row through the write pipeline.
+     * Unique indexes are always populated through the pipeline, which checks for duplicates.
+     * Defaults to false
+     */
+    public static final String BULK_INDEX_BUILD = "splice.index.bulkBuild";
+    private static final boolean DEFAULT_BULK_INDEX_BUILD = false;
+
+    /**
+     * Directory, on the file system holding the HBase root, where bulk loads write their store files
+     * before they are moved into regions. Defaults to null, which uses hbase.fs.tmp.dir
+     */
+    public static final String BULK_LOAD_STAGING_DIRECTORY = "splice.bulkLoad.stagingDirectory";
+    private static final String DEFAULT_BULK_LOAD_STAGING_DIRECTORY = null;
+
+    /**
+     * Fraction of the rows which a bulk import samples to choose the points at which to split a table
+     * which is still a single region. Defaults to 0.005
+     */
+    public static final String BULK_IMPORT_SAMPLE_FRACTION = "splice.bulkImport.sampleFraction";
+    private static final double DEFAULT_BULK_IMPORT_SAMPLE_FRACTION = 0.005d;
+
     @Override
     public void setDefaults(ConfigurationBuilder builder, ConfigurationSource configurationSource) {
         // FIXME: JC - some of these are not referenced anywhere outside. Do we need them?
@@ -228,6 +353,9 @@ public class SQLConfiguration implements ConfigurationDefault {
         builder.optimizerPlanMinimumTimeout = configurationSource.getLong(OPTIMIZER_PLAN_MINIMUM_TIMEOUT, DEFAULT_OPTIMIZER_PLAN_MINIMUM_TIMEOUT);
         builder.broadcastRegionMbThreshold = configurationSource.getLong(BROADCAST_REGION_MB_THRESHOLD, DEFAULT_BROADCAST_REGION_MB_THRESHOLD);
         builder.broadcastRegionRowThreshold = configurationSource.getLong(BROADCAST_REGION_ROW_THRESHOLD, DEFAULT_BROADCAST_REGION_ROW_THRESHOLD);
+        builder.controlSideSpillThresholdMb = configurationSource.getLong(CONTROL_SIDE_SPILL_THRESHOLD_MB, DEFAULT_CONTROL_SIDE_SPILL_THRESHOLD_MB);
+        builder.controlSideSpillPartitions = configurationSource.getInt(CONTROL_SIDE_SPILL_PARTITIONS, DEFAULT_CONTROL_SIDE_SPILL_PARTITIONS);
+        builder.controlSideSpillDirectory = configurationSource.getString(CONTROL_SIDE_SPILL_DIRECTORY, System.getProperty("java.io.tmpdir"));
 
         //always disable debug statements by default
         builder.debugLogStatementContext = configurationSource.getBoolean(DEBUG_LOG_STATEMENT_CONTEXT, DEFAULT_LOG_STATEMENT_CONTEXT);
@@ -241,5 +369,18 @@ public class SQLConfiguration implements ConfigurationDefault {
 //        builder.controlSideRowcountThreshold = configurationSource.getDouble(CONTROL_SIDE_ROWCOUNT_THRESHOLD, DEFAULT_CONTROL_SIDE_ROWCOUNT_THRESHOLD);
 
         builder.networkBindAddress = configurationSource.getString(NETWORK_BIND_ADDRESS, DEFAULT_NETWORK_BIND_ADDRESS);
+        builder.broadcastJoinOffHeap = configurationSource.getBoolean(BROADCAST_JOIN_OFF_HEAP, DEFAULT_BROADCAST_JOIN_OFF_HEAP);
+        builder.broadcastJoinCacheSizeMb = configurationSource.getLong(BROADCAST_JOIN_CACHE_SIZE_MB, DEFAULT_BROADCAST_JOIN_CACHE_SIZE_MB);
+        builder.broadcastJoinCacheExpirationSeconds = configurationSource.getLong(BROADCAST_JOIN_CACHE_EXPIRATION_SECONDS, DEFAULT_BROADCAST_JOIN_CACHE_EXPIRATION_SECONDS);
+        builder.vectorizedScans = configurationSource.getBoolean(VECTORIZED_SCANS, DEFAULT_VECTORIZED_SCANS);
+        builder.vectorizedBatchSize = configurationSource.getInt(VECTORIZED_BATCH_SIZE, DEFAULT_VECTORIZED_BATCH_SIZE);
+        builder.predicatePushdown = configurationSource.getBoolean(PREDICATE_PUSHDOWN, DEFAULT_PREDICATE_PUSHDOWN);
+        builder.localScanParallelism = configurationSource.getInt(LOCAL_SCAN_PARALLELISM, DEFAULT_LOCAL_SCAN_PARALLELISM);
+        builder.localScanQueueSize = configurationSource.getInt(LOCAL_SCAN_QUEUE_SIZE, DEFAULT_LOCAL_SCAN_QUEUE_SIZE);
+        builder.planStoreDirectory = configurationSource.getString(PLAN_STORE_DIRECTORY, DEFAULT_PLAN_STORE_DIRECTORY);
+        builder.planStoreMaxEntries = configurationSource.getInt(PLAN_STORE_MAX_ENTRIES, DEFAULT_PLAN_STORE_MAX_ENTRIES);
+        builder.bulkIndexBuild = configurationSource.getBoolean(BULK_INDEX_BUILD, DEFAULT_BULK_INDEX_BUILD);
+        builder.bulkLoadStagingDirectory = configurationSource.getString(BULK_LOAD_STAGING_DIRECTORY, DEFAULT_BULK_LOAD_STAGING_DIRECTORY);
+        builder.bulkImportSampleFraction = configurationSource.getDouble(BULK_IMPORT_SAMPLE_FRACTION, DEFAULT_BULK_IMPORT_SAMPLE_FRACTION);
     }
 }
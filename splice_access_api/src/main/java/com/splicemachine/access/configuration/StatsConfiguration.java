@@ -125,6 +125,29 @@ public class StatsConfiguration implements ConfigurationDefault {
     public static final String FALLBACK_ROW_WIDTH="splice.statistics.fallbackMinimumRowWidth";
     public static final int DEFAULT_FALLBACK_ROW_WIDTH=170;
 
+    /**
+     * Fraction of the blocks of each region which statistics collection reads. Column statistics are
+     * built from the rows of those blocks and scaled up to the whole region. Defaults to 1.0, which reads
+     * every row.
+     */
+    public static final String STATISTICS_SAMPLE_FRACTION = "splice.statistics.sampleFraction";
+    private static final double DEFAULT_STATISTICS_SAMPLE_FRACTION = 1.0d;
+
+    /**
+     * Fraction of a region's rows which must have been written since statistics were last collected on it
+     * before a collection of stale statistics only will collect it again. Defaults to 0.1
+     */
+    public static final String STATISTICS_STALE_WRITE_FRACTION = "splice.statistics.staleWriteFraction";
+    private static final double DEFAULT_STATISTICS_STALE_WRITE_FRACTION = 0.1d;
+
+    /**
+     * About how many rows statistics collection reads from each region. Larger regions are sampled
+     * by reading fewer of their blocks, as with splice.statistics.sampleFraction. Defaults to 0, which
+     * sets no limit.
+     */
+    public static final String STATISTICS_SAMPLE_ROW_BUDGET = "splice.statistics.sampleRowBudget";
+    private static final long DEFAULT_STATISTICS_SAMPLE_ROW_BUDGET = 0l;
+
     @Override
     public void setDefaults(ConfigurationBuilder builder, ConfigurationSource configurationSource) {
         // FIXME: JC - some of these are not referenced anywhere outside. Do we need them?
@@ -147,5 +170,8 @@ public class StatsConfiguration implements ConfigurationDefault {
 //        builder.fallbackCardinalityFraction = configurationSource.getDouble(FALLBACK_CARDINALITY_FRACTION, DEFAULT_FALLBACK_CARDINALITY_FRACTION);
 //        builder.fallbackIndexSelectivityFraction = configurationSource.getDouble(FALLBACK_INDEX_SELECTIVITY_FRACTION, DEFAULT_FALLBACK_INDEX_SELECTIVITY_FRACTION);
         builder.optimizerExtraQualifierMultiplier = configurationSource.getDouble(OPTIMIZER_EXTRA_QUALIFIER_MULTIPLIER, DEFAULT_OPTIMIZER_EXTRA_QUALIFIER_MULTIPLIER);
+        builder.statisticsSampleFraction = configurationSource.getDouble(STATISTICS_SAMPLE_FRACTION, DEFAULT_STATISTICS_SAMPLE_FRACTION);
+        builder.statisticsStaleWriteFraction = configurationSource.getDouble(STATISTICS_STALE_WRITE_FRACTION, DEFAULT_STATISTICS_STALE_WRITE_FRACTION);
+        builder.statisticsSampleRowBudget = configurationSource.getLong(STATISTICS_SAMPLE_ROW_BUDGET, DEFAULT_STATISTICS_SAMPLE_ROW_BUDGET);
     }
 }
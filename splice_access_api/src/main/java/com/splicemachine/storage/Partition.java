@@ -167,4 +167,14 @@ public interface Partition extends AutoCloseable{
      */
     BitSet getBloomInMemoryCheck(boolean hasConstraintChecker, Pair<KVPair, Lock>[] dataAndLocks) throws IOException;
 
+    /**
+     * Optional Method: summarize the stored data, if every version in it is known to be committed.
+     *
+     * If the underlying architecture cannot tell, then this method should return null.
+     *
+     * @return the summary, or {@code null} if some data may not be resolved
+     * @throws IOException
+     */
+    ResolvedDataSummary getResolvedDataSummary() throws IOException;
+
 }
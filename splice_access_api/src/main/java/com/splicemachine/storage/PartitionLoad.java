@@ -26,5 +26,11 @@ public interface PartitionLoad{
 
     int getStorefileIndexSizeMB();
 
+    /**
+     * @return the number of writes made to the partition since it was opened. This is reset when the
+     * partition is moved, split or merged, so it only ever measures recent writes.
+     */
+    long getWriteRequestCount();
+
     String getPartitionName();
 }
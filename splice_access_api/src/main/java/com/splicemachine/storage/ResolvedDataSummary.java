@@ -0,0 +1,66 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.storage;
+
+/**
+ * Summary of data in which every version is known to be committed, as recorded by compactions.
+ * <p/>
+ * Any reader which can see the transaction {@link #getMaxTxnId()}, committed at {@link #getMaxCommitTimestamp()},
+ * can see every version summarized, so it need not look up the writing transactions.
+ */
+public final class ResolvedDataSummary{
+    private final long maxTxnId;
+    private final long maxCommitTimestamp;
+    private final boolean hasTombstones;
+
+    public ResolvedDataSummary(long maxTxnId,long maxCommitTimestamp,boolean hasTombstones){
+        this.maxTxnId=maxTxnId;
+        this.maxCommitTimestamp=maxCommitTimestamp;
+        this.hasTombstones=hasTombstones;
+    }
+
+    public long getMaxTxnId(){
+        return maxTxnId;
+    }
+
+    public long getMaxCommitTimestamp(){
+        return maxCommitTimestamp;
+    }
+
+    /**
+     * @return true if the data contains tombstones or anti-tombstones
+     */
+    public boolean hasTombstones(){
+        return hasTombstones;
+    }
+
+    /**
+     * @return a summary covering the data of both summaries, or {@code null} if either is null
+     */
+    public static ResolvedDataSummary merge(ResolvedDataSummary left,ResolvedDataSummary right){
+        if(left==null || right==null) return null;
+        return new ResolvedDataSummary(Math.max(left.maxTxnId,right.maxTxnId),
+                Math.max(left.maxCommitTimestamp,right.maxCommitTimestamp),
+                left.hasTombstones || right.hasTombstones);
+    }
+
+    @Override
+    public String toString(){
+        return "ResolvedDataSummary{maxTxnId="+maxTxnId+
+                ", maxCommitTimestamp="+maxCommitTimestamp+
+                ", hasTombstones="+hasTombstones+"}";
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.storage;
+
+import com.splicemachine.primitives.Bytes;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A disjunction of comparisons between one field of an encoded row and encoded constants, evaluated
+ * against the sort-order-preserving encoding of the field without decoding it.
+ * <p/>
+ * A predicate is only ever used to reject rows early: a row which passes may still fail the full qualifier,
+ * so anything which cannot be decided from the bytes alone (a null field, or a field whose encoding is not
+ * the one the predicate was built for) is passed rather than rejected.
+ */
+public class ColumnPredicate{
+    /**
+     * Constants encoded with {@link com.splicemachine.encoding.Encoding#encode(long)}; only applied to
+     * scalar fields.
+     */
+    public static final byte SCALAR=0x01;
+    /**
+     * Constants encoded with {@link com.splicemachine.encoding.Encoding#encode(String)}; only equality
+     * is supported, ignoring trailing spaces as SQL character comparisons do.
+     */
+    public static final byte STRING=0x02;
+
+    /*Operators, which match the values in Orderable*/
+    public static final int LESS_THAN=1;
+    public static final int EQUALS=2;
+    public static final int LESS_OR_EQUALS=3;
+    public static final int GREATER_THAN=4;
+    public static final int GREATER_OR_EQUALS=5;
+
+    private static final byte EMPTY_STRING=0x01;
+    private static final byte ENCODED_SPACE=' '+2;
+
+    private final int column;
+    private final byte type;
+    private final int[] operators;
+    private final boolean[] negate;
+    private final byte[][] values;
+
+    /**
+     * @param column the position of the field in the encoded row
+     * @param type the encoding of the constants, either {@link #SCALAR} or {@link #STRING}
+     * @param operators the comparison operator of each term
+     * @param negate whether the result of each term's comparison is negated
+     * @param values the encoded constant of each term, on the right-hand side of the comparison
+     */
+    public ColumnPredicate(int column,byte type,int[] operators,boolean[] negate,byte[][] values){
+        assert operators.length==negate.length && operators.length==values.length:"Terms have mismatched lengths";
+        assert type==SCALAR || type==STRING:"Unknown predicate type "+type;
+        this.column=column;
+        this.type=type;
+        this.operators=operators;
+        this.negate=negate;
+        this.values=values;
+        if(type==STRING){
+            for(int op : operators){
+                if(op!=EQUALS)
+                    throw new IllegalArgumentException("String predicates only support equality");
+            }
+        }
+    }
+
+    public int getColumn(){
+        return column;
+    }
+
+    /**
+     * @return false if the field definitely fails every term of this predicate, true otherwise.
+     */
+    public boolean matches(Indexed index,byte[] data,int offset,int length){
+        if(length<=0) return true; //nulls are left to the full qualifier
+        if(type==SCALAR){
+            if(!index.isScalarType(column)) return true;
+        }else if(index.isScalarType(column)||index.isFloatType(column)||index.isDoubleType(column))
+            return true;
+
+        for(int i=0;i<operators.length;i++){
+            boolean result;
+            if(type==SCALAR)
+                result=test(operators[i],Bytes.BASE_COMPARATOR.compare(data,offset,length,values[i],0,values[i].length));
+            else
+                result=stringEquals(data,offset,length,values[i]);
+            if(result!=negate[i])
+                return true;
+        }
+        return false;
+    }
+
+    public void write(DataOutput out) throws IOException{
+        out.writeInt(column);
+        out.writeByte(type);
+        out.writeInt(operators.length);
+        for(int i=0;i<operators.length;i++){
+            out.writeByte(operators[i]);
+            out.writeBoolean(negate[i]);
+            out.writeInt(values[i].length);
+            out.write(values[i]);
+        }
+    }
+
+    public static ColumnPredicate read(DataInput in) throws IOException{
+        int column=in.readInt();
+        byte type=in.readByte();
+        int size=in.readInt();
+        int[] operators=new int[size];
+        boolean[] negate=new boolean[size];
+        byte[][] values=new byte[size][];
+        for(int i=0;i<size;i++){
+            operators[i]=in.readByte();
+            negate[i]=in.readBoolean();
+            values[i]=new byte[in.readInt()];
+            in.readFully(values[i]);
+        }
+        return new ColumnPredicate(column,type,operators,negate,values);
+    }
+
+    /*****************************************************************************************************************/
+    /*private helper methods*/
+    private static boolean test(int operator,int compare){
+        switch(operator){
+            case LESS_THAN:
+                return compare<0;
+            case EQUALS:
+                return compare==0;
+            case LESS_OR_EQUALS:
+                return compare<=0;
+            case GREATER_THAN:
+                return compare>0;
+            case GREATER_OR_EQUALS:
+                return compare>=0;
+            default:
+                throw new IllegalStateException("Unknown operator "+operator);
+        }
+    }
+
+    /*
+     * Two strings are equal in SQL if they are equal once the shorter is padded with spaces. The encoding
+     * is the UTF-8 bytes shifted up by 2 (so a space is 0x22, which cannot appear inside a multi-byte
+     * character), with the empty string written as a single 0x01.
+     */
+    private static boolean stringEquals(byte[] data,int offset,int length,byte[] value){
+        int dataLength=unpaddedLength(data,offset,length);
+        int valueLength=unpaddedLength(value,0,value.length);
+        return dataLength==valueLength && Bytes.BASE_COMPARATOR.equals(data,offset,dataLength,value,0,valueLength);
+    }
+
+    private static int unpaddedLength(byte[] data,int offset,int length){
+        if(length==1 && data[offset]==EMPTY_STRING) return 0;
+        while(length>0 && data[offset+length-1]==ENCODED_SPACE)
+            length--;
+        return length;
+    }
+}
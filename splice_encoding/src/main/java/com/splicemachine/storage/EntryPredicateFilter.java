@@ -18,6 +18,10 @@ package com.splicemachine.storage;
 import com.splicemachine.encoding.MultiFieldDecoder;
 import com.splicemachine.primitives.Bytes;
 import com.splicemachine.utils.Pair;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import com.carrotsearch.hppc.BitSet;
 import org.spark_project.guava.base.Supplier;
@@ -30,6 +34,7 @@ public class EntryPredicateFilter {
     public static final EntryPredicateFilter EMPTY_PREDICATE = new EntryPredicateFilter(new BitSet());
     private BitSet fieldsToReturn;
     private boolean returnIndex;
+    private ColumnPredicate[] predicates;
     public static EntryPredicateFilter emptyPredicate(){ return EMPTY_PREDICATE; }
 
     public EntryPredicateFilter(BitSet fieldsToReturn){
@@ -37,13 +42,29 @@ public class EntryPredicateFilter {
     }
 
     public EntryPredicateFilter(BitSet fieldsToReturn, boolean returnIndex){
+        this(fieldsToReturn,returnIndex,null);
+    }
+
+    /**
+     * @param predicates predicates which each row value must pass, or {@code null}. These are only
+     *                   applied to the fields of row values, never to row keys.
+     */
+    public EntryPredicateFilter(BitSet fieldsToReturn, boolean returnIndex, ColumnPredicate[] predicates){
         this.fieldsToReturn = fieldsToReturn;
         this.returnIndex=returnIndex;
+        this.predicates = predicates!=null && predicates.length>0? predicates : null;
     }
 
 		public boolean match(Indexed index,
 												 Supplier<MultiFieldDecoder> decoderProvider,
 												 EntryAccumulator accumulator) throws IOException{
+				return match(index,decoderProvider,accumulator,false);
+		}
+
+		private boolean match(Indexed index,
+													Supplier<MultiFieldDecoder> decoderProvider,
+													EntryAccumulator accumulator,
+													boolean applyPredicates) throws IOException{
 				BitSet remainingFields = accumulator.getRemainingFields();
 
 				MultiFieldDecoder decoder = decoderProvider.get();
@@ -83,6 +104,8 @@ public class EntryPredicateFilter {
 						}else if(offset+limit>array.length){
 								limit = array.length-offset;
 						}
+						if(applyPredicates && !matchPredicates(index,encodedPos,array,offset,limit))
+								return false;
 						accumulate(index, encodedPos, accumulator, array, offset, limit);
 				}
 				return true;
@@ -90,7 +113,11 @@ public class EntryPredicateFilter {
 
 
 		public boolean match(EntryDecoder entry,EntryAccumulator accumulator) throws IOException {
-				return match(entry.getCurrentIndex(),entry, accumulator);
+				return match(entry.getCurrentIndex(),entry, accumulator,predicates!=null);
+    }
+
+    public ColumnPredicate[] getPredicates(){
+        return predicates;
     }
 
     public void rowReturned(){
@@ -107,27 +134,60 @@ public class EntryPredicateFilter {
 
     public byte[] toBytes() {
         //if we dont have any distinguishing information, just send over an empty byte array
-        if(fieldsToReturn.length()==0 && !returnIndex)
+        if(fieldsToReturn.length()==0 && !returnIndex && predicates==null)
             return new byte[]{};
 
         /*
          * Format is as follows:
          * BitSet bytes
          * 1-byte returnIndex
+         * (optional) 4-byte predicate count, followed by each predicate
          */
         byte[] bitSetBytes = Bytes.toByteArray(fieldsToReturn);
         byte[] finalData = new byte[bitSetBytes.length+1];
         System.arraycopy(bitSetBytes,0,finalData,0,bitSetBytes.length);
         finalData[bitSetBytes.length] = returnIndex? (byte)0x01: 0x00;
-        return finalData;
+        if(predicates==null)
+            return finalData;
+
+        try{
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(baos);
+            out.write(finalData);
+            out.writeInt(predicates.length);
+            for(ColumnPredicate predicate:predicates){
+                predicate.write(out);
+            }
+            out.flush();
+            return baos.toByteArray();
+        }catch(IOException e){
+            throw new RuntimeException(e); //can't happen writing to memory
+        }
     }
 
     public static EntryPredicateFilter fromBytes(byte[] data) throws IOException {
         if(data==null||data.length==0) return EMPTY_PREDICATE;
 
         Pair<BitSet,Integer> fieldsToReturn = Bytes.fromByteArray(data, 0);
+        int predicateOffset = fieldsToReturn.getSecond()+1;
         boolean returnIndex = data[fieldsToReturn.getSecond()] > 0;
-        return new EntryPredicateFilter(fieldsToReturn.getFirst(),returnIndex);
+        ColumnPredicate[] predicates = null;
+        if(predicateOffset<data.length){
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data,predicateOffset,data.length-predicateOffset));
+            predicates = new ColumnPredicate[in.readInt()];
+            for(int i=0;i<predicates.length;i++){
+                predicates[i] = ColumnPredicate.read(in);
+            }
+        }
+        return new EntryPredicateFilter(fieldsToReturn.getFirst(),returnIndex,predicates);
+    }
+
+    private boolean matchPredicates(Indexed index, int position, byte[] buffer, int offset, int length) {
+        for(ColumnPredicate predicate:predicates){
+            if(predicate.getColumn()==position && !predicate.matches(index,buffer,offset,length))
+                return false;
+        }
+        return true;
     }
 
     private void skipField(MultiFieldDecoder decoder, int position, Indexed index) {
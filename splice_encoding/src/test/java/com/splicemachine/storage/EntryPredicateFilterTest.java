@@ -16,6 +16,7 @@
 package com.splicemachine.storage;
 
 import com.carrotsearch.hppc.BitSet;
+import com.splicemachine.encoding.Encoding;
 import com.splicemachine.encoding.MultiFieldDecoder;
 import com.splicemachine.storage.index.BitIndex;
 import com.splicemachine.storage.index.BitIndexing;
@@ -140,4 +141,91 @@ public class EntryPredicateFilterTest {
         Assert.assertEquals("Incorrect string returned!",testType1,decodedField);
         Assert.assertTrue("more than one field available in field decoder!",fieldDecoder.nextIsNull());
     }
+
+    @Test
+    public void testScalarPredicateRejectsRowsWithoutDecoding() throws Exception {
+        ColumnPredicate greaterThanTen = new ColumnPredicate(0,ColumnPredicate.SCALAR,
+                new int[]{ColumnPredicate.GREATER_THAN},new boolean[]{false},new byte[][]{Encoding.encode(10l)});
+        EntryPredicateFilter predicateFilter = new EntryPredicateFilter(new BitSet(),true,new ColumnPredicate[]{greaterThanTen});
+
+        Assert.assertTrue("did not match!",predicateFilter.match(scalarAndStringRow(11,"a"),predicateFilter.newAccumulator()));
+        Assert.assertFalse("matched!",predicateFilter.match(scalarAndStringRow(10,"a"),predicateFilter.newAccumulator()));
+        Assert.assertFalse("matched!",predicateFilter.match(scalarAndStringRow(-200,"a"),predicateFilter.newAccumulator()));
+    }
+
+    @Test
+    public void testInListPredicateMatchesAnyTerm() throws Exception {
+        ColumnPredicate notInList = new ColumnPredicate(0,ColumnPredicate.SCALAR,
+                new int[]{ColumnPredicate.EQUALS,ColumnPredicate.EQUALS},new boolean[]{false,false},
+                new byte[][]{Encoding.encode(3l),Encoding.encode(700000l)});
+        EntryPredicateFilter predicateFilter = new EntryPredicateFilter(new BitSet(),true,new ColumnPredicate[]{notInList});
+
+        Assert.assertTrue("did not match!",predicateFilter.match(scalarAndStringRow(3,"a"),predicateFilter.newAccumulator()));
+        Assert.assertTrue("did not match!",predicateFilter.match(scalarAndStringRow(700000,"a"),predicateFilter.newAccumulator()));
+        Assert.assertFalse("matched!",predicateFilter.match(scalarAndStringRow(4,"a"),predicateFilter.newAccumulator()));
+    }
+
+    @Test
+    public void testStringPredicateIgnoresTrailingSpaces() throws Exception {
+        ColumnPredicate equalsAb = new ColumnPredicate(1,ColumnPredicate.STRING,
+                new int[]{ColumnPredicate.EQUALS},new boolean[]{false},new byte[][]{Encoding.encode("ab ")});
+        EntryPredicateFilter predicateFilter = new EntryPredicateFilter(new BitSet(),true,new ColumnPredicate[]{equalsAb});
+
+        Assert.assertTrue("did not match!",predicateFilter.match(scalarAndStringRow(1,"ab"),predicateFilter.newAccumulator()));
+        Assert.assertTrue("did not match!",predicateFilter.match(scalarAndStringRow(1,"ab    "),predicateFilter.newAccumulator()));
+        Assert.assertFalse("matched!",predicateFilter.match(scalarAndStringRow(1,"abc"),predicateFilter.newAccumulator()));
+        Assert.assertFalse("matched!",predicateFilter.match(scalarAndStringRow(1,"a"),predicateFilter.newAccumulator()));
+        Assert.assertFalse("matched!",predicateFilter.match(scalarAndStringRow(1,""),predicateFilter.newAccumulator()));
+
+        ColumnPredicate notEmpty = new ColumnPredicate(1,ColumnPredicate.STRING,
+                new int[]{ColumnPredicate.EQUALS},new boolean[]{true},new byte[][]{Encoding.encode("")});
+        predicateFilter = new EntryPredicateFilter(new BitSet(),true,new ColumnPredicate[]{notEmpty});
+        Assert.assertFalse("matched!",predicateFilter.match(scalarAndStringRow(1,"  "),predicateFilter.newAccumulator()));
+        Assert.assertTrue("did not match!",predicateFilter.match(scalarAndStringRow(1," a"),predicateFilter.newAccumulator()));
+    }
+
+    @Test
+    public void testPredicateIgnoresFieldsOfOtherTypes() throws Exception {
+        //a scalar predicate against the untyped string field can't be decided, so must not reject
+        ColumnPredicate scalarOnString = new ColumnPredicate(1,ColumnPredicate.SCALAR,
+                new int[]{ColumnPredicate.EQUALS},new boolean[]{false},new byte[][]{Encoding.encode(1l)});
+        EntryPredicateFilter predicateFilter = new EntryPredicateFilter(new BitSet(),true,new ColumnPredicate[]{scalarOnString});
+
+        Assert.assertTrue("did not match!",predicateFilter.match(scalarAndStringRow(1,"a"),predicateFilter.newAccumulator()));
+    }
+
+    @Test
+    public void testPredicatesSurviveSerialization() throws Exception {
+        BitSet fieldsToReturn = new BitSet(2);
+        fieldsToReturn.set(1);
+        ColumnPredicate lessThanZero = new ColumnPredicate(0,ColumnPredicate.SCALAR,
+                new int[]{ColumnPredicate.LESS_THAN},new boolean[]{false},new byte[][]{Encoding.encode(0l)});
+        EntryPredicateFilter predicateFilter = EntryPredicateFilter.fromBytes(
+                new EntryPredicateFilter(fieldsToReturn,true,new ColumnPredicate[]{lessThanZero}).toBytes());
+
+        Assert.assertEquals("Incorrect number of predicates!",1,predicateFilter.getPredicates().length);
+        Assert.assertTrue("did not match!",predicateFilter.match(scalarAndStringRow(-1,"a"),predicateFilter.newAccumulator()));
+        Assert.assertFalse("matched!",predicateFilter.match(scalarAndStringRow(1,"a"),predicateFilter.newAccumulator()));
+
+        Assert.assertNull("Should not have predicates",
+                EntryPredicateFilter.fromBytes(new EntryPredicateFilter(fieldsToReturn,true).toBytes()).getPredicates());
+    }
+
+    private static EntryDecoder scalarAndStringRow(long scalar,String string) throws Exception {
+        BitSet setCols = new BitSet(2);
+        setCols.set(0);
+        setCols.set(1);
+
+        BitSet scalarFields = new BitSet(2);
+        scalarFields.set(0);
+        BitSet floatFields = new BitSet(2);
+        BitSet doubleFields = new BitSet(2);
+        BitIndex index = BitIndexing.getBestIndex(setCols,scalarFields,floatFields,doubleFields);
+        EntryEncoder encoder = EntryEncoder.create(defaultPool,index);
+        encoder.getEntryEncoder().encodeNext(scalar).encodeNext(string);
+
+        EntryDecoder decoder = new EntryDecoder();
+        decoder.set(encoder.encode());
+        return decoder;
+    }
 }
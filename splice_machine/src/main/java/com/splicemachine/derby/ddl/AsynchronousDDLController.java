@@ -127,6 +127,11 @@ public class AsynchronousDDLController implements DDLController, CommunicationLi
         communicator.deleteChangeNode(changeId);
     }
 
+    @Override
+    public String getChangeVersion() throws StandardException{
+        return communicator.getChangeVersion();
+    }
+
     @Override
     public void onCommunicationEvent(String node){
         notificationLock.lock();
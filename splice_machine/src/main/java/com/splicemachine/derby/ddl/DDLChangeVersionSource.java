@@ -0,0 +1,82 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.splicemachine.derby.ddl;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.impl.sql.PersistentPlanStore;
+import com.splicemachine.ddl.DDLMessage;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versions the persisted plans by the DDL changes made to the cluster, without going to the cluster on every
+ * statement cache miss.
+ * <p/>
+ * The version is the build version plus the change version of the {@link DDLController}. It is read once and
+ * then kept until the {@link DDLWatcher} reports any change starting, finishing or failing; the next request
+ * reads it again. Statistics collection and removal are published as DDL changes too, so new statistics move
+ * the version like any schema change.
+ */
+public class DDLChangeVersionSource implements PersistentPlanStore.VersionSource, DDLWatcher.DDLListener{
+    private final DDLController controller;
+    private final String buildVersion;
+    private final AtomicLong generation=new AtomicLong(0l);
+    private volatile CachedVersion cached;
+
+    public DDLChangeVersionSource(DDLController controller,String buildVersion){
+        this.controller=controller;
+        this.buildVersion=buildVersion;
+    }
+
+    @Override
+    public String currentVersion() throws StandardException{
+        long currentGeneration=generation.get();
+        CachedVersion version=cached;
+        if(version!=null && version.generation==currentGeneration)
+            return version.version;
+
+        //generated classes are only usable by the build which generated them
+        String ddlVersion=controller.getChangeVersion();
+        version=new CachedVersion(currentGeneration,ddlVersion==null?null:buildVersion+"/"+ddlVersion);
+        /*
+         * if a change was reported while we read, this is already out of date, and the generation check
+         * makes the next request read again
+         */
+        cached=version;
+        return version.version;
+    }
+
+    @Override public void startGlobalChange(){ invalidate(); }
+    @Override public void finishGlobalChange(){ invalidate(); }
+    @Override public void startChange(DDLMessage.DDLChange change) throws StandardException{ invalidate(); }
+    @Override public void changeSuccessful(String changeId,DDLMessage.DDLChange change) throws StandardException{ invalidate(); }
+    @Override public void changeFailed(String changeId){ invalidate(); }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods and classes*/
+    private void invalidate(){
+        generation.incrementAndGet();
+    }
+
+    private static class CachedVersion{
+        private final long generation;
+        private final String version;
+
+        CachedVersion(long generation,String version){
+            this.generation=generation;
+            this.version=version;
+        }
+    }
+}
@@ -47,4 +47,10 @@ public interface DDLCommunicator{
     String getErrorMessage(String changeId, String errorId) throws StandardException;
 
     void deleteChangeNode(String changeId);
+
+    /**
+     * @return a token which changes whenever a DDL change is created or finished, or {@code null} if
+     * this communication scheme cannot provide one which is stable across restarts.
+     */
+    String getChangeVersion() throws StandardException;
 }
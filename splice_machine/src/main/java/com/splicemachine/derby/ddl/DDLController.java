@@ -30,4 +30,10 @@ public interface DDLController {
      */
     void finishMetadataChange(String changeId) throws StandardException;
 
+    /**
+     * @return a cluster-wide token which changes whenever a DDL change starts or finishes, or {@code null}
+     * if none is available.
+     */
+    String getChangeVersion() throws StandardException;
+
 }
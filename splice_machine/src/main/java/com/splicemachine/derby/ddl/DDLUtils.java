@@ -187,9 +187,17 @@ public class DDLUtils {
      * @throws IOException
      */
     public static long waitForConcurrentTransactions(Txn maximum, TxnView userTxn,long tableConglomId) throws IOException {
+        return waitForConcurrentTransactions(maximum.getTxnId(),userTxn,tableConglomId);
+    }
+
+    /**
+     * As {@link #waitForConcurrentTransactions(Txn, TxnView, long)}, for callers which have no transaction to
+     * mark the end of the wait, only a timestamp taken after their change was acknowledged.
+     */
+    public static long waitForConcurrentTransactions(long maximumTxnId, TxnView userTxn,long tableConglomId) throws IOException {
         byte[] conglomBytes = Bytes.toBytes(Long.toString(tableConglomId));
 
-        ActiveTransactionReader transactionReader = new ActiveTransactionReader(0l,maximum.getTxnId(),conglomBytes);
+        ActiveTransactionReader transactionReader = new ActiveTransactionReader(0l,maximumTxnId,conglomBytes);
         SConfiguration config = SIDriver.driver().getConfiguration();
         Clock clock = SIDriver.driver().getClock();
         long waitTime = config.getDdlRefreshInterval(); //the initial time to wait
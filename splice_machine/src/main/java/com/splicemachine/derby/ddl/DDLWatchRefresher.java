@@ -23,6 +23,7 @@ import com.splicemachine.ddl.DDLMessage.*;
 import com.splicemachine.derby.impl.store.access.SpliceTransactionManager;
 import com.splicemachine.si.api.data.ExceptionFactory;
 import com.splicemachine.si.api.filter.TransactionReadController;
+import com.splicemachine.si.api.txn.Txn;
 import com.splicemachine.si.api.txn.TxnSupplier;
 import com.splicemachine.si.api.txn.TxnView;
 import com.splicemachine.si.impl.DDLFilter;
@@ -48,6 +49,7 @@ public class DDLWatchRefresher{
     private final Map<String, Long> changeTimeouts;
     private final Map<String, DDLChange> currentDDLChanges;
     private final Map<String, DDLChange> tentativeDDLS;
+    private final Map<String, Long> transactionScopedChanges;
     private final AtomicReference<DDLFilter> ddlDemarcationPoint;
     private final DDLWatchChecker watchChecker;
     private final Clock clock;
@@ -72,6 +74,7 @@ public class DDLWatchRefresher{
         this.changeTimeouts=new ConcurrentHashMap<>();
         this.currentDDLChanges=new ConcurrentHashMap<>();
         this.tentativeDDLS=new ConcurrentHashMap<>();
+        this.transactionScopedChanges=new ConcurrentHashMap<>();
         this.watchChecker=watchChecker;
         this.exceptionFactory =exceptionFactory;
         this.txnSupplier = txnSupplier;
@@ -165,7 +168,7 @@ public class DDLWatchRefresher{
     }
 
     public boolean canUseCache(TransactionManager xact_mgr) {
-        return cacheIsValid() && canSeeDDLDemarcationPoint(xact_mgr);
+        return cacheIsValid() && !inTransactionScopedChange(xact_mgr) && canSeeDDLDemarcationPoint(xact_mgr);
     }
 
     /* ****************************************************************************************************************/
@@ -173,13 +176,62 @@ public class DDLWatchRefresher{
 
     private void processPreCommitChange(DDLChange ddlChange,
                                         Collection<DDLWatcher.DDLListener> ddlListeners) throws StandardException {
-        currChangeCount.incrementAndGet();
+        Long scope=transactionScope(ddlChange);
+        if(scope!=null)
+            transactionScopedChanges.put(ddlChange.getChangeId(),scope);
+        else
+            currChangeCount.incrementAndGet();
         tentativeDDLS.put(ddlChange.getChangeId(),ddlChange);
         for(DDLWatcher.DDLListener listener:ddlListeners){
             listener.startChange(ddlChange);
         }
     }
 
+    /**
+     * A change which only creates new objects cannot make anything which is already cached stale, and until it
+     * commits the objects it creates are only visible within its own transaction. Such a change only needs to keep
+     * that transaction away from the caches, rather than every transaction in the cluster. The same goes for a bulk
+     * import, which only fences off writes to its table and does not change the dictionary at all.
+     *
+     * @return the id of the top-level transaction the change runs under, or {@code null} if caching must be
+     * disabled for everyone until the change finishes.
+     */
+    private Long transactionScope(DDLChange ddlChange){
+        switch(ddlChange.getDdlChangeType()){
+            case CREATE_TABLE:
+            case CREATE_SCHEMA:
+            case CREATE_VIEW:
+            case CREATE_ALIAS:
+            case BULK_IMPORT:
+                if(txnSupplier==null) return null;
+                try{
+                    TxnView txn=txnSupplier.getTransaction(ddlChange.getTxnId());
+                    return txn==null?null:rootTxnId(txn);
+                }catch(IOException e){
+                    LOG.warn("Unable to read transaction for DDL change "+ddlChange.getChangeId()+", disabling caches until it finishes",e);
+                    return null;
+                }
+            default:
+                return null;
+        }
+    }
+
+    private boolean inTransactionScopedChange(TransactionManager xact_mgr){
+        if(transactionScopedChanges.isEmpty()) return false;
+        TxnView txn=((SpliceTransactionManager)xact_mgr).getActiveStateTxn();
+        // Stay on the safe side if we don't know which transaction we are in
+        return txn==null || transactionScopedChanges.containsValue(rootTxnId(txn));
+    }
+
+    private static long rootTxnId(TxnView txn){
+        TxnView parent=txn.getParentTxnView();
+        while(parent!=null && !Txn.ROOT_TRANSACTION.equals(parent)){
+            txn=parent;
+            parent=txn.getParentTxnView();
+        }
+        return txn.getTxnId();
+    }
+
     private void clearFinishedChanges(Collection<String> children,Collection<DDLWatcher.DDLListener> ddlListeners) throws StandardException {
         /*
          * Remove DDL changes which are known to be finished.
@@ -193,7 +245,8 @@ public class DDLWatchRefresher{
                 LOG.debug("Removing change with id " + entry);
                 changeTimeouts.remove(entry);
                 currentDDLChanges.remove(entry);
-                currChangeCount.decrementAndGet();
+                if(transactionScopedChanges.remove(entry)==null)
+                    currChangeCount.decrementAndGet();
                 DDLChange ddlChange = tentativeDDLS.remove(entry);
                 iterator.remove();
                 if(ddlChange!=null){
@@ -31,6 +31,7 @@ import com.splicemachine.db.iapi.sql.Activation;
 import com.splicemachine.db.iapi.sql.execute.ExecRow;
 import com.splicemachine.db.iapi.types.RowLocation;
 import com.splicemachine.derby.stream.iapi.OperationContext;
+import com.splicemachine.derby.stream.iapi.OperationStatistics;
 import com.splicemachine.si.api.txn.TxnView;
 
 /**
@@ -83,6 +84,29 @@ public interface SpliceOperation extends StandardCloseable, NoPutResultSet, Conv
      */
     DataSet<LocatedRow> getResultDataSet(DataSetProcessor dsp) throws StandardException;
 
+    /**
+     * Dataset as handed to a parent operation. Same as {@link #getDataSet(DataSetProcessor)}, unless runtime
+     * statistics are being collected for this operation (EXPLAIN ANALYZE), in which case the rows are counted
+     * and timed on their way out.
+     *
+     * @param dsp
+     * @return Dataset to be consumed by the parent operation
+     * @throws StandardException
+     */
+    DataSet<LocatedRow> getMeasuredDataSet(DataSetProcessor dsp) throws StandardException;
+
+    /**
+     * @return the runtime statistics collected for this operation, or {@code null} if none are collected
+     */
+    OperationStatistics getOperationStatistics();
+
+    /**
+     * Starts collecting runtime statistics for this operation.
+     *
+     * @param operationStatistics
+     */
+    void setOperationStatistics(OperationStatistics operationStatistics);
+
     /**
      *
      * Retrieve the operation context.  This context provides startup context for the different execution
@@ -59,6 +59,7 @@ import com.splicemachine.db.iapi.store.access.TransactionController;
 import com.splicemachine.db.impl.db.BasicDatabase;
 import com.splicemachine.db.shared.common.sanity.SanityManager;
 import com.splicemachine.ddl.DDLMessage.DDLChange;
+import com.splicemachine.derby.ddl.AddBulkImportFenceToPipeline;
 import com.splicemachine.derby.ddl.AddForeignKeyToPipeline;
 import com.splicemachine.derby.ddl.AddIndexToPipeline;
 import com.splicemachine.derby.ddl.AddUniqueConstraintToPipeline;
@@ -349,6 +350,7 @@ public class SpliceDatabase extends BasicDatabase{
                     case DICTIONARY_UPDATE:
                     case CREATE_TABLE:
                     case CREATE_SCHEMA:
+                    case BULK_IMPORT:
                         break;
                     case DROP_TABLE:
                         DDLUtils.preDropTable(change,dataDictionary,dependencyManager);
@@ -415,6 +417,7 @@ public class SpliceDatabase extends BasicDatabase{
                 ddlActions.add(new AddForeignKeyToPipeline());
                 ddlActions.add(new DropForeignKeyFromPipeline());
                 ddlActions.add(new AddUniqueConstraintToPipeline());
+                ddlActions.add(new AddBulkImportFenceToPipeline());
                 for (DDLAction action : ddlActions) {
                     action.accept(change);
                 }
@@ -46,6 +46,7 @@ import com.splicemachine.db.impl.jdbc.EmbedConnection;
 import com.splicemachine.db.impl.jdbc.EmbedResultSet40;
 import com.splicemachine.db.impl.load.ColumnInfo;
 import com.splicemachine.db.impl.sql.GenericColumnDescriptor;
+import com.splicemachine.db.impl.sql.compile.InsertNode;
 import com.splicemachine.db.impl.sql.execute.IteratorNoPutResultSet;
 import com.splicemachine.db.impl.sql.execute.ValueRow;
 import com.splicemachine.derby.utils.EngineUtils;
@@ -77,6 +78,9 @@ import com.splicemachine.utils.SpliceLogUtils;
  * favors situations in which a BlockLocation is co-located with a Region; as a consequence,
  * pre-splitting a Table into regions and spreading those regions out across the cluster is likely
  * to improve the performance of this import process.
+ * <p/>
+ * <p>For initial loads of tables whose constraints the write pipeline need not check, {@link #BULK_IMPORT_DATA}
+ * does use HBase's bulk load: the table and its indexes are written as store files and handed to the regions.
  *
  * @author Scott Fines
  */
@@ -181,7 +185,7 @@ public class HdfsImport {
                  badRecordDirectory,
                  oneLineRecords,
                  charset,
-                 true,
+                 InsertNode.InsertMode.UPSERT,
                  false,
                  results);
     }
@@ -261,7 +265,58 @@ public class HdfsImport {
                  badRecordDirectory,
                  oneLineRecords,
                  charset,
+                 InsertNode.InsertMode.INSERT,
                  false,
+                 results);
+    }
+
+    /**
+     * The SYSCS_UTIL.BULK_IMPORT_DATA system procedure imports data like {@link #IMPORT_DATA, SYSCS_UTIL.IMPORT_DATA},
+     * and takes the same arguments, but writes the table and its indexes as sorted store files which are then bulk
+     * loaded into the regions, rather than sending every row through the write pipeline. A table which is still a
+     * single region is first split at points sampled from the data.
+     * <p/>
+     * It is meant for initial loads of large tables:
+     * <ul>
+     * <li>The table may not have triggers or foreign keys.</li>
+     * <li>If the table has a primary key or a unique index, it must be empty, and the file may not hold duplicate
+     * keys.</li>
+     * <li>Rows written by other transactions while the import runs are not checked for conflicts.</li>
+     * </ul>
+     * The rows become visible when the import commits, as with any other import. Imports which run without Spark
+     * write through the pipeline instead.
+     *
+     * @see #IMPORT_DATA
+     */
+    public static void BULK_IMPORT_DATA(String schemaName,
+                                        String tableName,
+                                        String insertColumnList,
+                                        String fileName,
+                                        String columnDelimiter,
+                                        String characterDelimiter,
+                                        String timestampFormat,
+                                        String dateFormat,
+                                        String timeFormat,
+                                        long badRecordsAllowed,
+                                        String badRecordDirectory,
+                                        String oneLineRecords,
+                                        String charset,
+                                        ResultSet[] results
+    ) throws SQLException {
+        doImport(schemaName,
+                 tableName,
+                 insertColumnList,
+                 fileName,
+                 columnDelimiter,
+                 characterDelimiter,
+                 timestampFormat,
+                 dateFormat,
+                 timeFormat,
+                 badRecordsAllowed,
+                 badRecordDirectory,
+                 oneLineRecords,
+                 charset,
+                 InsertNode.InsertMode.BULK_IMPORT,
                  false,
                  results);
     }
@@ -280,17 +335,17 @@ public class HdfsImport {
                                  String badRecordDirectory,
                                  String oneLineRecords,
                                  String charset,
-                                 boolean isUpsert,
+                                 InsertNode.InsertMode insertMode,
                                  boolean isCheckScan,
                                  ResultSet[] results) throws SQLException {
         if (LOG.isTraceEnabled())
             SpliceLogUtils.trace(LOG, "doImport {schemaName=%s, tableName=%s, insertColumnList=%s, fileName=%s, " +
                                      "columnDelimiter=%s, characterDelimiter=%s, timestampFormat=%s, dateFormat=%s, " +
                 "timeFormat=%s, badRecordsAllowed=%d, badRecordDirectory=%s, oneLineRecords=%s, charset=%s, " +
-                "isUpsert=%s, isCheckScan=%s}",
+                "insertMode=%s, isCheckScan=%s}",
                                  schemaName, tableName, insertColumnListString, fileName, columnDelimiter, characterDelimiter,
                                  timestampFormat, dateFormat, timeFormat, badRecordsAllowed, badRecordDirectory,
-                                 oneLineRecords, charset, isUpsert, isCheckScan);
+                                 oneLineRecords, charset, insertMode, isCheckScan);
 
         if (charset == null) {
             charset = StandardCharsets.UTF_8.name();
@@ -369,7 +424,7 @@ public class HdfsImport {
 
             ColumnInfo columnInfo = new ColumnInfo(conn, schemaName, tableName, insertColumnList);
             String insertSql = "INSERT INTO " + entityName + "(" + columnInfo.getInsertColumnNames() + ") " +
-                "--splice-properties insertMode=" + (isUpsert ? "UPSERT" : "INSERT") + ", statusDirectory=" +
+                "--splice-properties insertMode=" + insertMode + ", statusDirectory=" +
                 badRecordDirectory + ", badRecordsAllowed=" + badRecordsAllowed + "\n" +
                 " SELECT * from " +
                 importVTI + " AS importVTI (" + columnInfo.getImportAsColumns() + ")";
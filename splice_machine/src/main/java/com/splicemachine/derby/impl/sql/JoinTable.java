@@ -29,6 +29,16 @@ public interface JoinTable extends AutoCloseable{
 
     interface Factory{
         JoinTable newTable();
+
+        /**
+         * @return an estimate of the number of bytes which are held by the tables created by this factory.
+         */
+        long estimatedSize();
+
+        /**
+         * Free the memory held by this factory. Must only be called once no table created by it is in use.
+         */
+        void release();
     }
 
     Iterator<ExecRow> fetchInner(ExecRow outer) throws IOException, StandardException;
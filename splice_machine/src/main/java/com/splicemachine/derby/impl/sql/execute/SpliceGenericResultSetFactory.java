@@ -1378,6 +1378,18 @@ public class SpliceGenericResultSetFactory implements ResultSetFactory {
         return new ExplainOperation(opSet.getOperation(), activation, resultSetNumber);
     }
 
+    @Override
+    public NoPutResultSet getExplainResultSet(ResultSet source, Activation activation, int resultSetNumber, boolean analyze) throws StandardException {
+        ConvertedResultSet opSet = (ConvertedResultSet)source;
+        return new ExplainOperation(opSet.getOperation(), activation, resultSetNumber, analyze);
+    }
+
+    @Override
+    public NoPutResultSet getExplainResultSet(NoPutResultSet source, Activation activation, int resultSetNumber, boolean analyze) throws StandardException {
+        ConvertedResultSet opSet = (ConvertedResultSet)source;
+        return new ExplainOperation(opSet.getOperation(), activation, resultSetNumber, analyze);
+    }
+
     @Override
     public NoPutResultSet getExportResultSet(NoPutResultSet source,
                                              Activation activation,
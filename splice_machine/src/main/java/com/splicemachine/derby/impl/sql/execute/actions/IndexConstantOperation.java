@@ -171,7 +171,8 @@ public abstract class IndexConstantOperation extends DDLSingleTableConstantOpera
 			String prefix = StreamUtils.getScopeString(this);
 			String userId = activation.getLanguageConnectionContext().getCurrentUserId(activation);
 			String jobGroup = userId + " <" +indexTransaction.getTxnId() +">";
-			EngineDriver.driver().getOlapClient().execute(new DistributedPopulateIndexJob(childTxn, builder, scope, jobGroup, prefix, tentativeIndex, indexFormatIds));
+			EngineDriver.driver().getOlapClient().execute(new DistributedPopulateIndexJob(childTxn, builder, scope, jobGroup, prefix, tentativeIndex, indexFormatIds,
+					getBulkLoadTimestamp(tentativeIndex, demarcationPoint)));
             childTxn.commit();
         } catch (IOException e) {
             throw Exceptions.parseException(e);
@@ -180,6 +181,25 @@ public abstract class IndexConstantOperation extends DDLSingleTableConstantOpera
 		}
 	}
 
+	/**
+	 * Index rows can be bulk loaded as committed at the demarcation point: they hold the base table
+	 * as of that point, every transaction which began before it has finished, and every later writer
+	 * maintains the index itself, with newer versions. Unique indexes need the pipeline's checks
+	 * against concurrent writers.
+	 *
+	 * @return the timestamp to bulk load the index rows at, or -1 to write them through the pipeline
+	 */
+	private static long getBulkLoadTimestamp(DDLMessage.TentativeIndex tentativeIndex, long demarcationPoint) {
+		return getBulkLoadTimestamp(SIDriver.driver().getConfiguration().getBulkIndexBuild(),
+				tentativeIndex.getIndex(), demarcationPoint);
+	}
+
+	static long getBulkLoadTimestamp(boolean bulkIndexBuild, DDLMessage.Index index, long demarcationPoint) {
+		if (!bulkIndexBuild || index.getUnique() || index.getUniqueWithDuplicateNulls() || demarcationPoint < 0)
+			return -1;
+		return demarcationPoint;
+	}
+
     protected Txn beginChildTransaction(TxnView parentTxn, long indexConglomId) throws IOException{
         TxnLifecycleManager tc = SIDriver.driver().lifecycleManager();
         return tc.beginChildTransaction(parentTxn,Bytes.toBytes(Long.toString(indexConglomId)));
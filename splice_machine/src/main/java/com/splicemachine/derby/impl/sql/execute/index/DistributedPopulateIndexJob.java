@@ -41,10 +41,12 @@ public class DistributedPopulateIndexJob extends DistributedJob implements Exter
     String prefix;
     DDLMessage.TentativeIndex tentativeIndex;
     int[] indexFormatIds;
+    long bulkLoadTimestamp; // < 0 means populate through the write pipeline
 
     public DistributedPopulateIndexJob() {}
     public DistributedPopulateIndexJob(TxnView childTxn, ScanSetBuilder<LocatedRow> scanSetBuilder, String scope,
-                                       String jobGroup, String prefix, DDLMessage.TentativeIndex tentativeIndex, int[] indexFormatIds) {
+                                       String jobGroup, String prefix, DDLMessage.TentativeIndex tentativeIndex, int[] indexFormatIds,
+                                       long bulkLoadTimestamp) {
         this.childTxn = childTxn;
         this.scanSetBuilder = scanSetBuilder;
         this.scope = scope;
@@ -52,6 +54,7 @@ public class DistributedPopulateIndexJob extends DistributedJob implements Exter
         this.prefix = prefix;
         this.tentativeIndex = tentativeIndex;
         this.indexFormatIds = indexFormatIds;
+        this.bulkLoadTimestamp = bulkLoadTimestamp;
     }
 
     @Override
@@ -72,6 +75,7 @@ public class DistributedPopulateIndexJob extends DistributedJob implements Exter
         out.writeUTF(prefix);
         out.writeObject(tentativeIndex.toByteArray());
         ArrayUtil.writeIntArray(out,indexFormatIds);
+        out.writeLong(bulkLoadTimestamp);
         SIDriver.driver().getOperationFactory().writeTxn(childTxn,out);
     }
 
@@ -84,6 +88,7 @@ public class DistributedPopulateIndexJob extends DistributedJob implements Exter
         byte[] bytes = (byte[]) in.readObject();
         tentativeIndex = DDLMessage.TentativeIndex.parseFrom(bytes);
         indexFormatIds = ArrayUtil.readIntArray(in);
+        bulkLoadTimestamp = in.readLong();
         childTxn = SIDriver.driver().getOperationFactory().readTxn(in);
     }
 }
@@ -17,6 +17,7 @@ package com.splicemachine.derby.impl.sql.execute.index;
 
 import com.splicemachine.EngineDriver;
 import com.splicemachine.concurrent.Clock;
+import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.ddl.DDLMessage;
 import com.splicemachine.derby.iapi.sql.olap.OlapStatus;
 import com.splicemachine.derby.iapi.sql.olap.SuccessfulOlapResult;
@@ -25,6 +26,7 @@ import com.splicemachine.derby.stream.function.IndexTransformFunction;
 import com.splicemachine.derby.stream.function.KVPairFunction;
 import com.splicemachine.derby.stream.iapi.*;
 import com.splicemachine.derby.stream.output.DataSetWriter;
+import com.splicemachine.derby.stream.output.DataSetWriterBuilder;
 import java.util.concurrent.Callable;
 
 /**
@@ -56,7 +58,7 @@ public class PopulateIndexJob implements Callable<Void> {
         PairDataSet dsToWrite = dataSet
                 .map(new IndexTransformFunction(tentativeIndex,request.indexFormatIds), null, false, true, scope + ": Prepare Index")
                 .index(new KVPairFunction(), false, true, scope + ": Populate Index");
-        DataSetWriter writer = dsToWrite.directWriteData()
+        DataSetWriter writer = writerBuilder(dsToWrite, request.bulkLoadTimestamp)
                 .operationContext(request.scanSetBuilder.getOperationContext())
                 .destConglomerate(tentativeIndex.getIndex().getConglomerate())
                 .txn(request.childTxn)
@@ -65,4 +67,14 @@ public class PopulateIndexJob implements Callable<Void> {
         jobStatus.markCompleted(new SuccessfulOlapResult());
         return null;
     }
+
+    /**
+     * @return a writer which bulk loads the index rows at {@code bulkLoadTimestamp}, or writes them
+     * through the pipeline if it is negative
+     */
+    static DataSetWriterBuilder writerBuilder(PairDataSet dsToWrite, long bulkLoadTimestamp) throws StandardException {
+        if (bulkLoadTimestamp >= 0)
+            return dsToWrite.bulkLoadData().timestamp(bulkLoadTimestamp);
+        return dsToWrite.directWriteData();
+    }
 }
@@ -17,29 +17,65 @@ package com.splicemachine.derby.impl.sql.execute.operations;
 
 import org.spark_project.guava.cache.Cache;
 import org.spark_project.guava.cache.CacheBuilder;
+import org.spark_project.guava.cache.CacheStats;
+import org.spark_project.guava.cache.RemovalListener;
+import org.spark_project.guava.cache.RemovalNotification;
+import org.spark_project.guava.cache.Weigher;
 import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.store.access.Qualifier;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
 import com.splicemachine.derby.impl.sql.JoinTable;
+import com.splicemachine.derby.management.BroadcastJoinCacheManagement;
+import com.splicemachine.hbase.jmx.JMXUtils;
 import com.splicemachine.pipeline.Exceptions;
 import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.api.txn.Txn;
+import com.splicemachine.si.api.txn.TxnView;
+import com.splicemachine.si.impl.driver.SIDriver;
+import com.splicemachine.storage.DataScan;
 import com.splicemachine.stream.Stream;
+import org.apache.log4j.Logger;
 
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents a Cache of records for use in a Broadcast Join.
  *
+ * Inner tables are cached by {@link Key}, which describes the rows that make up the table (the conglomerate
+ * which is scanned, the transactional snapshot it is read at, the projected columns and the scan predicate)
+ * rather than the operation which reads them. When the snapshot is stable, statements which read the same
+ * rows at the same snapshot therefore share a single copy of the table (see {@link Key} for which ones do).
+ *
+ * Loading is single-flight: when several joins ask for the same table at once, only one of them reads
+ * the inner rows and the others wait for it. The cache is bounded by the estimated size of the tables
+ * it holds, rather than by the number of tables. A table which is evicted is released (along with any off-heap
+ * memory it holds) as soon as the last join using it is closed.
+ *
  * @author Scott Fines
  *         Date: 10/27/15
  */
-public class BroadcastJoinCache{
-    private final Cache<Long,ReferenceCountingFactory> cache;
+public class BroadcastJoinCache implements BroadcastJoinCacheManagement{
+    private static final Logger LOG=Logger.getLogger(BroadcastJoinCache.class);
+    private static final long DEFAULT_MAX_BYTES = 512l*1024*1024;
+    private static final long DEFAULT_EXPIRATION_SECONDS = 60l;
+    private static volatile BroadcastJoinCache sharedCache;
+
+    private final Cache<Key,ReferenceCountingFactory> cache;
     private final JoinTableLoader tableLoader;
+    private final long maxBytes;
+    private final AtomicLong cachedBytes = new AtomicLong(0l);
 
     interface JoinTableLoader{
         JoinTable.Factory load(Callable<Stream<ExecRow>> streamLoader,
@@ -49,28 +85,72 @@ public class BroadcastJoinCache{
     }
 
     public BroadcastJoinCache(){
-       this(ByteBufferMapTableLoader.INSTANCE);
+       this(defaultLoader(),maxBytes(SIDriver.driver()),expirationSeconds(SIDriver.driver()));
     }
 
-    public BroadcastJoinCache(JoinTableLoader tableLoader){
+    public BroadcastJoinCache(JoinTableLoader tableLoader,long maxBytes,long expirationSeconds){
         this.tableLoader = tableLoader;
+        this.maxBytes = maxBytes;
         this.cache =CacheBuilder.newBuilder()
-                .maximumSize(1000)
-                .expireAfterAccess(2,TimeUnit.SECONDS)
-                .softValues()
+                /*
+                 * Guava splits the weight limit evenly between its segments, and evicts any entry which is larger
+                 * than the limit of its segment. Inner tables can be large relative to the total limit, so we
+                 * only use a single segment.
+                 */
+                .concurrencyLevel(1)
+                .maximumWeight(maxBytes)
+                .weigher(new Weigher<Key,ReferenceCountingFactory>(){
+                    @Override
+                    public int weigh(Key key,ReferenceCountingFactory value){
+                        return (int)Math.max(1l,Math.min(Integer.MAX_VALUE,value.size));
+                    }
+                })
+                .expireAfterAccess(expirationSeconds,TimeUnit.SECONDS)
+                .removalListener(new RemovalListener<Key,ReferenceCountingFactory>(){
+                    @Override
+                    public void onRemoval(RemovalNotification<Key,ReferenceCountingFactory> notification){
+                        ReferenceCountingFactory value=notification.getValue();
+                        if(value!=null){
+                            cachedBytes.addAndGet(-value.size);
+                            value.markEvicted();
+                        }
+                    }
+                })
+                .recordStats()
                 .build();
     }
 
-    public JoinTable.Factory get(Long operationId,
+    /**
+     * @return the cache which is shared by all broadcast joins executing in this JVM.
+     */
+    public static BroadcastJoinCache sharedCache(){
+        BroadcastJoinCache c=sharedCache;
+        if(c==null){
+            synchronized(BroadcastJoinCache.class){
+                c=sharedCache;
+                if(c==null){
+                    c=new BroadcastJoinCache();
+                    c.registerJMX(ManagementFactory.getPlatformMBeanServer());
+                    sharedCache=c;
+                }
+            }
+        }
+        return c;
+    }
+
+    public JoinTable.Factory get(Key key,
                          Callable<Stream<ExecRow>> loader,
                          int[] rightHashKeys,
                          int[] leftHashKeys,
                          ExecRow leftTemplateRow) throws IOException, StandardException{
         try{
-            Loader callable=new Loader(operationId,tableLoader,rightHashKeys,leftHashKeys,leftTemplateRow,loader);
-            ReferenceCountingFactory joinTable=cache.get(operationId,callable);
-            joinTable.refCount.incrementAndGet();
-            return joinTable;
+            Loader callable=new Loader(key,tableLoader,rightHashKeys,leftHashKeys,leftTemplateRow,loader);
+            while(true){
+                ReferenceCountingFactory joinTable=cache.get(key,callable);
+                if(joinTable==callable.loaded || joinTable.acquire())
+                    return joinTable;
+                //evicted before we could use it, so it has been (or is about to be) released; load it again
+            }
         }catch(ExecutionException e){
             Throwable c = e.getCause();
             if(c instanceof StandardException)
@@ -81,6 +161,257 @@ public class BroadcastJoinCache{
         }
     }
 
+    /* ****************************************************************************************************************/
+    /*JMX methods*/
+
+    @Override
+    public long getHitCount(){
+        return cache.stats().hitCount();
+    }
+
+    @Override
+    public long getMissCount(){
+        return cache.stats().missCount();
+    }
+
+    @Override
+    public double getHitRate(){
+        return cache.stats().hitRate();
+    }
+
+    @Override
+    public long getEvictionCount(){
+        return cache.stats().evictionCount();
+    }
+
+    @Override
+    public double getAverageLoadTime(){
+        CacheStats stats=cache.stats();
+        return stats.averageLoadPenalty()/TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public long getCachedEntries(){
+        return cache.size();
+    }
+
+    @Override
+    public long getCachedBytes(){
+        return cachedBytes.get();
+    }
+
+    @Override
+    public long getMaxCachedBytes(){
+        return maxBytes;
+    }
+
+    @Override
+    public void invalidateAll(){
+        cache.invalidateAll();
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private void registerJMX(MBeanServer mbs){
+        try{
+            mbs.registerMBean(this,new ObjectName(JMXUtils.BROADCAST_JOIN_CACHE_MANAGEMENT));
+        }catch(InstanceAlreadyExistsException ignored){
+            /*
+             * Can happen when more than one server runs in the same JVM (e.g. for testing purposes), in
+             * which case the first cache to be created is the one which is reported on.
+             */
+        }catch(Exception e){
+            LOG.warn("Unable to register the broadcast join cache with JMX",e);
+        }
+    }
+
+    private static JoinTableLoader defaultLoader(){
+        SIDriver driver=SIDriver.driver();
+        if(driver!=null && driver.getConfiguration().isBroadcastJoinOffHeap())
+            return OffHeapJoinTableLoader.INSTANCE;
+        return ByteBufferMapTableLoader.INSTANCE;
+    }
+
+    private static long maxBytes(SIDriver driver){
+        if(driver==null) return DEFAULT_MAX_BYTES;
+        return driver.getConfiguration().getBroadcastJoinCacheSizeMb()*1024*1024;
+    }
+
+    private static long expirationSeconds(SIDriver driver){
+        if(driver==null) return DEFAULT_EXPIRATION_SECONDS;
+        return driver.getConfiguration().getBroadcastJoinCacheExpirationSeconds();
+    }
+
+    /**
+     * Identifies the rows which make up the inner table of a broadcast join, along with the shape of the
+     * join keys which the table is indexed by.
+     *
+     * Only inner sides which are plain table scans, read at a stable snapshot (i.e. under snapshot isolation by a
+     * transaction which, like all of its parents, is read-only), can be described this way. For anything else we
+     * fall back to a key which is unique to the join operation, so the table is only shared between the tasks of a single execution.
+     *
+     * The snapshot is the begin timestamp of the reading transaction. Read-only children inherit the begin timestamp
+     * of their parent, so the statements (and tasks) of one read-only transaction share its tables, but separate
+     * transactions, such as two autocommit executions of the same statement, each begin at their own timestamp and
+     * load their own copy. Sharing between them would need the latest commit timestamp of any write to the
+     * conglomerate, to tell that nothing changed between their snapshots, and the transaction store does not track that.
+     */
+    public static final class Key{
+        private final long conglomerateId;
+        private final long snapshot;
+        private final int[] projectedColumns;
+        private final String predicate;
+        private final int[] innerHashKeys;
+        private final int[] outerHashKeys;
+        private final int[] outerFormatIds;
+        private final boolean shared;
+
+        Key(long conglomerateId,
+            long snapshot,
+            int[] projectedColumns,
+            String predicate,
+            int[] innerHashKeys,
+            int[] outerHashKeys,
+            int[] outerFormatIds,
+            boolean shared){
+            this.conglomerateId=conglomerateId;
+            this.snapshot=snapshot;
+            this.projectedColumns=projectedColumns;
+            this.predicate=predicate;
+            this.innerHashKeys=innerHashKeys;
+            this.outerHashKeys=outerHashKeys;
+            this.outerFormatIds=outerFormatIds;
+            this.shared=shared;
+        }
+
+        public static Key forJoin(JoinOperation join,ExecRow outerTemplateRow) throws StandardException{
+            int[] innerHashKeys=join.getRightHashKeys();
+            int[] outerHashKeys=join.getLeftHashKeys();
+            int[] outerFormatIds=formatIds(outerTemplateRow);
+            SpliceOperation right=join.getRightOperation();
+            if(right.getClass()==TableScanOperation.class){
+                TableScanOperation scan=(TableScanOperation)right;
+                long snapshot=sharedSnapshot(scan.getCurrentTransaction());
+                if(snapshot>=0){
+                    long conglomerateId=scan.getScanInformation().getConglomerateId();
+                    int[] projection=scan.getRootAccessedCols(conglomerateId);
+                    return new Key(conglomerateId,snapshot,projection,predicate(scan),
+                            innerHashKeys,outerHashKeys,outerFormatIds,true);
+                }
+            }
+            return new Key(-1l,join.getSequenceId(),null,null,innerHashKeys,outerHashKeys,outerFormatIds,false);
+        }
+
+        /**
+         * @return the snapshot at which {@code txn} reads, if it is stable enough for the rows read to be shared
+         * with other readers at the same snapshot, or -1 if it is not.
+         */
+        static long sharedSnapshot(TxnView txn){
+            if(txn==null || !isReadOnly(txn) || txn.getIsolationLevel()!=Txn.IsolationLevel.SNAPSHOT_ISOLATION)
+                return -1l;
+            return txn.getBeginTimestamp();
+        }
+
+        /*
+         * A read-only child inherits the begin timestamp of its parent, so if any transaction above it
+         * can write, rows it wrote after an earlier read would be visible under the same snapshot.
+         */
+        private static boolean isReadOnly(TxnView txn){
+            TxnView t=txn;
+            while(t!=null && !t.equals(Txn.ROOT_TRANSACTION)){
+                if(t.allowsWrites()) return false;
+                t=t.getParentTxnView();
+            }
+            return true;
+        }
+
+        /**
+         * @return true if the table may be reused by other operations (and so should stay cached once the
+         * operation which loaded it is finished with it).
+         */
+        public boolean isShared(){
+            return shared;
+        }
+
+        @Override
+        public boolean equals(Object o){
+            if(this==o) return true;
+            if(!(o instanceof Key)) return false;
+            Key key=(Key)o;
+            return conglomerateId==key.conglomerateId
+                    && snapshot==key.snapshot
+                    && shared==key.shared
+                    && Arrays.equals(projectedColumns,key.projectedColumns)
+                    && (predicate==null?key.predicate==null:predicate.equals(key.predicate))
+                    && Arrays.equals(innerHashKeys,key.innerHashKeys)
+                    && Arrays.equals(outerHashKeys,key.outerHashKeys)
+                    && Arrays.equals(outerFormatIds,key.outerFormatIds);
+        }
+
+        @Override
+        public int hashCode(){
+            int result=(int)(conglomerateId^(conglomerateId>>>32));
+            result=31*result+(int)(snapshot^(snapshot>>>32));
+            result=31*result+Arrays.hashCode(projectedColumns);
+            result=31*result+(predicate!=null?predicate.hashCode():0);
+            result=31*result+Arrays.hashCode(innerHashKeys);
+            result=31*result+Arrays.hashCode(outerHashKeys);
+            return result;
+        }
+
+        @Override
+        public String toString(){
+            return shared
+                    ?"Key{conglomerate="+conglomerateId+",snapshot="+snapshot+",predicate="+predicate+"}"
+                    :"Key{operation="+snapshot+"}";
+        }
+
+        private static int[] formatIds(ExecRow row){
+            if(row==null) return null;
+            DataValueDescriptor[] dvds=row.getRowArray();
+            int[] ids=new int[dvds.length];
+            for(int i=0;i<dvds.length;i++){
+                ids[i]=dvds[i]==null?-1:dvds[i].getTypeFormatId();
+            }
+            return ids;
+        }
+
+        /*
+         * Render the key range and qualifiers of the scan (including the runtime values which they compare
+         * against), so that two scans with the same predicate text but different parameters are kept apart.
+         */
+        private static String predicate(TableScanOperation scan) throws StandardException{
+            StringBuilder sb=new StringBuilder();
+            DataScan dataScan=scan.getNonSIScan();
+            byte[] start=dataScan.getStartKey();
+            byte[] stop=dataScan.getStopKey();
+            sb.append(start==null?"":Bytes.toHex(start)).append(',').append(stop==null?"":Bytes.toHex(stop));
+            Qualifier[][] qualifiers=scan.getScanInformation().getScanQualifiers();
+            if(qualifiers!=null){
+                for(Qualifier[] clause:qualifiers){
+                    sb.append('[');
+                    if(clause!=null){
+                        for(Qualifier q:clause){
+                            sb.append(q.getColumnId()).append(':')
+                                    .append(q.getOperator()).append(':')
+                                    .append(q.negateCompareResult()).append(':')
+                                    .append(q.getOrderedNulls()).append(':')
+                                    .append(q.getUnknownRV()).append(':');
+                            DataValueDescriptor value=q.getOrderable();
+                            if(value==null || value.isNull())
+                                sb.append("null");
+                            else
+                                sb.append(value.getTypeFormatId()).append('=').append(value.getString());
+                            sb.append(';');
+                        }
+                    }
+                    sb.append(']');
+                }
+            }
+            return sb.toString();
+        }
+    }
+
     private class Loader implements Callable<ReferenceCountingFactory>{
         private final JoinTableLoader loader;
         private final int[] innerHashKeys;
@@ -88,16 +419,18 @@ public class BroadcastJoinCache{
         private final ExecRow outerTemplateRow;
         private final Callable<Stream<ExecRow>> streamLoader;
 
-        private final Long operationId;
+        private final Key key;
+        /*the table loaded by this call, which is already acquired for the join which loaded it*/
+        ReferenceCountingFactory loaded;
 
-        public Loader(Long operationId,
+        public Loader(Key key,
                       JoinTableLoader loader,
                       int[] innerHashKeys,
                       int[] outerHashKeys,
                       ExecRow outerTemplateRow,
                       Callable<Stream<ExecRow>> streamLoader){
             this.loader=loader;
-            this.operationId=operationId;
+            this.key=key;
             this.innerHashKeys=innerHashKeys;
             this.outerHashKeys=outerHashKeys;
             this.outerTemplateRow=outerTemplateRow;
@@ -107,7 +440,15 @@ public class BroadcastJoinCache{
         @Override
         public ReferenceCountingFactory call() throws Exception{
             JoinTable.Factory load=loader.load(streamLoader,innerHashKeys,outerHashKeys,outerTemplateRow);
-            return new ReferenceCountingFactory(load,operationId);
+            ReferenceCountingFactory factory=new ReferenceCountingFactory(load,key);
+            /*
+             * Acquire it before the cache can see it, so that even a table which is evicted as soon as it is
+             * loaded (e.g. because it is larger than the cache) stays usable by the join which loaded it.
+             */
+            factory.acquire();
+            cachedBytes.addAndGet(factory.size);
+            loaded=factory;
+            return factory;
         }
     }
 
@@ -128,19 +469,22 @@ public class BroadcastJoinCache{
 
         @Override
         public void close(){
-            refFactory.markClosed();
             delegate.close();
+            refFactory.markClosed();
         }
     }
 
     private class ReferenceCountingFactory implements JoinTable.Factory{
         private final JoinTable.Factory delegate;
-        private final Long id;
-        private AtomicInteger refCount = new AtomicInteger(0);
+        private final Key key;
+        private final long size;
+        private int refCount;
+        private boolean evicted;
 
-        public ReferenceCountingFactory(JoinTable.Factory delegate,Long id){
+        public ReferenceCountingFactory(JoinTable.Factory delegate,Key key){
             this.delegate=delegate;
-            this.id=id;
+            this.key=key;
+            this.size=delegate.estimatedSize();
         }
 
         @Override
@@ -148,10 +492,50 @@ public class BroadcastJoinCache{
             return new ReferenceCountedJoinTable(delegate.newTable(),this);
         }
 
+        @Override
+        public long estimatedSize(){
+            return size;
+        }
+
+        //the cache releases the table once it is evicted and no join is using it
+        @Override public void release(){ }
+
+        /**
+         * @return false if the table has already been evicted, in which case it must not be used.
+         */
+        synchronized boolean acquire(){
+            if(evicted) return false;
+            refCount++;
+            return true;
+        }
+
         public void markClosed(){
-            int refC=refCount.decrementAndGet();
-            if(refC<=0)
-                cache.invalidate(id);
+            boolean invalidate;
+            synchronized(this){
+                refCount--;
+                if(evicted){
+                    if(refCount<=0)
+                        delegate.release();
+                    return;
+                }
+                /*
+                 * Tables which can be shared stay cached (subject to size and expiration limits) once their
+                 * last user is done with them, so that later statements can reuse them.
+                 */
+                invalidate=refCount<=0 && !key.isShared();
+            }
+            if(invalidate)
+                cache.invalidate(key);
+        }
+
+        /*
+         * Called once the table is removed from the cache. Joins which are still using it keep it alive, and the
+         * last of them to close releases it.
+         */
+        synchronized void markEvicted(){
+            evicted=true;
+            if(refCount<=0)
+                delegate.release();
         }
     }
 }
@@ -177,8 +177,8 @@ public class BroadcastJoinOperation extends JoinOperation{
     @SuppressWarnings({ "unchecked", "rawtypes" })
     public DataSet<LocatedRow> getDataSet(DataSetProcessor dsp) throws StandardException {
         OperationContext operationContext = dsp.createOperationContext(this);
-        DataSet<LocatedRow> leftDataSet = leftResultSet.getDataSet(dsp);
-        DataSet<LocatedRow> rightDataSet = rightResultSet.getDataSet(dsp);
+        DataSet<LocatedRow> leftDataSet = leftResultSet.getMeasuredDataSet(dsp);
+        DataSet<LocatedRow> rightDataSet = rightResultSet.getMeasuredDataSet(dsp);
 
 //        operationContext.pushScope();
         leftDataSet = leftDataSet.map(new CountJoinedLeftFunction(operationContext));
@@ -17,6 +17,7 @@ package com.splicemachine.derby.impl.sql.execute.operations;
 
 import com.splicemachine.db.iapi.sql.execute.ExecRow;
 import com.splicemachine.derby.impl.sql.JoinTable;
+import com.splicemachine.derby.stream.control.spill.SizeEstimator;
 import com.splicemachine.derby.utils.marshall.BareKeyHash;
 import com.splicemachine.derby.utils.marshall.KeyEncoder;
 import com.splicemachine.derby.utils.marshall.NoOpPostfix;
@@ -50,6 +51,7 @@ class ByteBufferMapTableLoader implements BroadcastJoinCache.JoinTableLoader{
 
         DescriptorSerializer[] innerSerializers=null;
         KeyEncoder innerKeyEncoder=null;
+        long estimatedSize=0l;
 
         try(Stream<ExecRow> innerRows=streamLoader.call()){
             ExecRow right;
@@ -65,8 +67,11 @@ class ByteBufferMapTableLoader implements BroadcastJoinCache.JoinTableLoader{
                 if(rows==null){
                     rows=new ArrayList<>(1);
                     table.put(key,rows);
+                    estimatedSize+=key.capacity();
                 }
-                rows.add(right.getClone());
+                ExecRow clone=right.getClone();
+                rows.add(clone);
+                estimatedSize+=SizeEstimator.estimate(clone);
             }
         }catch(StreamException e){
            throw new ExecutionException(e.getCause());
@@ -75,6 +80,6 @@ class ByteBufferMapTableLoader implements BroadcastJoinCache.JoinTableLoader{
             else throw new ExecutionException(e);
         }
 
-        return new ByteBufferMappedJoinTable.Factory(table,outerHashKeys,outerTemplateRow);
+        return new ByteBufferMappedJoinTable.Factory(table,outerHashKeys,outerTemplateRow,estimatedSize);
     }
 }
@@ -65,16 +65,26 @@ class ByteBufferMappedJoinTable implements JoinTable{
         private final Map<ByteBuffer,List<ExecRow>> table;
         private final int[] outerHashKeys;
         private final ExecRow outerTemplateRow;
+        private final long estimatedSize;
 
-        public Factory(Map<ByteBuffer, List<ExecRow>> table,int[] outerHashKeys,ExecRow outerTemplateRow){
+        public Factory(Map<ByteBuffer, List<ExecRow>> table,int[] outerHashKeys,ExecRow outerTemplateRow,long estimatedSize){
             this.table=table;
             this.outerHashKeys=outerHashKeys;
             this.outerTemplateRow=outerTemplateRow;
+            this.estimatedSize=estimatedSize;
         }
 
         @Override
         public JoinTable newTable(){
             return new ByteBufferMappedJoinTable(table,outerHashKeys,outerTemplateRow);
         }
+
+        @Override
+        public long estimatedSize(){
+            return estimatedSize;
+        }
+
+        //the table is on the heap, so it is returned once it is no longer referenced
+        @Override public void release(){ }
     }
 }
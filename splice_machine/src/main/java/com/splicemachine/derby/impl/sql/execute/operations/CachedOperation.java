@@ -148,7 +148,7 @@ public class CachedOperation extends SpliceBaseOperation {
             return ds;
         }
         else {
-            return source.getDataSet(dsp);
+            return source.getMeasuredDataSet(dsp);
         }
     }
 
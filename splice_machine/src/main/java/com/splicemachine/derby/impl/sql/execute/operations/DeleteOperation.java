@@ -70,7 +70,7 @@ public class DeleteOperation extends DMLWriteOperation {
     @SuppressWarnings("unchecked")
     @Override
     public DataSet<LocatedRow> getDataSet(DataSetProcessor dsp) throws StandardException {
-        DataSet set = source.getDataSet(dsp);
+        DataSet set = source.getMeasuredDataSet(dsp);
         OperationContext operationContext = dsp.createOperationContext(this);
         TxnView txn = getCurrentTransaction();
 		operationContext.pushScope();
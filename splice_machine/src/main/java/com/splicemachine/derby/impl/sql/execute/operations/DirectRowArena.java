@@ -0,0 +1,169 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.operations;
+
+import sun.misc.Cleaner;
+import sun.nio.ch.DirectBuffer;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only storage for encoded rows, held in direct (off-heap) pages.
+ *
+ * Each record is laid out as
+ * <pre>
+ *     [long next][int keyLength][key bytes][int rowLength][row bytes]
+ * </pre>
+ * where {@code next} is the address of the next record with the same join key (or 0 if there is none). This
+ * allows the index over the arena to store only the head of each chain.
+ *
+ * An address packs the page number (plus one, so that 0 is never a valid address) into the high 32 bits and
+ * the offset within the page into the low 32 bits.
+ *
+ * Writes must happen from a single thread, but once the arena is fully built it may be read concurrently.
+ */
+@NotThreadSafe
+class DirectRowArena{
+    static final long NULL_ADDRESS = 0l;
+    private static final int DEFAULT_PAGE_SIZE = 1<<20;
+    private static final int RECORD_OVERHEAD = 8+4+4;
+
+    private final int pageSize;
+    private final List<ByteBuffer> pages = new ArrayList<>();
+    private ByteBuffer current;
+    private long bytesUsed;
+    private long numRecords;
+
+    DirectRowArena(){
+        this(DEFAULT_PAGE_SIZE);
+    }
+
+    DirectRowArena(int pageSize){
+        this.pageSize=pageSize;
+    }
+
+    /**
+     * @param key the encoded key, or {@code null} if the key is held by the index itself
+     * @param row the encoded row
+     * @param next the address of the next record in the chain
+     * @return the address of the new record
+     */
+    long append(byte[] key,byte[] row,long next){
+        int keyLength = key==null?0:key.length;
+        int recordSize = RECORD_OVERHEAD+keyLength+row.length;
+        if(current==null || current.remaining()<recordSize){
+            current = ByteBuffer.allocateDirect(Math.max(pageSize,recordSize));
+            pages.add(current);
+        }
+        int offset = current.position();
+        current.putLong(next);
+        current.putInt(keyLength);
+        if(keyLength>0)
+            current.put(key);
+        current.putInt(row.length);
+        current.put(row);
+        bytesUsed+=recordSize;
+        numRecords++;
+        return (((long)pages.size())<<32) | offset;
+    }
+
+    long next(long address){
+        return page(address).getLong(offset(address));
+    }
+
+    boolean keyEquals(long address,byte[] key){
+        ByteBuffer page = page(address);
+        int pos = offset(address)+8;
+        int keyLength = page.getInt(pos);
+        if(keyLength!=key.length) return false;
+        pos+=4;
+        for(int i=0;i<keyLength;i++){
+            if(page.get(pos+i)!=key[i]) return false;
+        }
+        return true;
+    }
+
+    int rowLength(long address){
+        ByteBuffer page = page(address);
+        int pos = offset(address)+8;
+        return page.getInt(pos+4+page.getInt(pos));
+    }
+
+    /**
+     * Copy the encoded row at {@code address} into {@code destination}, which must be at least
+     * {@link #rowLength(long)} bytes long.
+     */
+    void readRow(long address,byte[] destination){
+        ByteBuffer page = page(address);
+        int pos = offset(address)+8;
+        pos+=4+page.getInt(pos);
+        int rowLength = page.getInt(pos);
+        pos+=4;
+        for(int i=0;i<rowLength;i++){
+            destination[i] = page.get(pos+i);
+        }
+    }
+
+    long bytesUsed(){
+        return bytesUsed;
+    }
+
+    long allocatedBytes(){
+        long size = 0l;
+        for(ByteBuffer page:pages){
+            size+=page.capacity();
+        }
+        return size;
+    }
+
+    long numRecords(){
+        return numRecords;
+    }
+
+    /**
+     * Free the off-heap pages. Direct buffers are otherwise only returned when they are garbage collected,
+     * which a heap with plenty of room may not do before the direct memory limit is reached, so the memory is
+     * freed here rather than left to the collector. No address into the arena may be read afterwards.
+     */
+    void release(){
+        for(ByteBuffer page:pages){
+            free(page);
+        }
+        pages.clear();
+        current = null;
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private ByteBuffer page(long address){
+        assert address!=NULL_ADDRESS: "Cannot dereference a null address";
+        return pages.get((int)(address>>>32)-1);
+    }
+
+    private static int offset(long address){
+        return (int)address;
+    }
+
+    private static void free(ByteBuffer page){
+        if(!(page instanceof DirectBuffer)) return;
+        Cleaner cleaner = ((DirectBuffer)page).cleaner();
+        if(cleaner!=null)
+            cleaner.clean();
+    }
+}
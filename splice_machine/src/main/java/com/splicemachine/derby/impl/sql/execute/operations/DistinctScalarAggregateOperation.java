@@ -118,7 +118,7 @@ public class DistinctScalarAggregateOperation extends GenericAggregateOperation
     @SuppressWarnings({ "unchecked", "rawtypes" })
     public DataSet<LocatedRow> getDataSet(DataSetProcessor dsp) throws StandardException {
         OperationContext operationContext = dsp.createOperationContext(this);
-        DataSet<LocatedRow> dataSet = source.getDataSet(dsp);
+        DataSet<LocatedRow> dataSet = source.getMeasuredDataSet(dsp);
         DataSet<LocatedRow> ds2 = dataSet.keyBy(new KeyerFunction(operationContext, keyColumns), null, true, "Prepare Keys")
             .reduceByKey(new MergeNonDistinctAggregatesFunction(operationContext), false, true, "Reduce")
             .values(null, false, operationContext, true, "Read Values");
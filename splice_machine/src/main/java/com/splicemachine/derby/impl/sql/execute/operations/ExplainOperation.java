@@ -25,12 +25,14 @@ import com.splicemachine.db.iapi.types.DataValueDescriptor;
 import com.splicemachine.db.iapi.types.SQLVarchar;
 import com.splicemachine.db.impl.ast.PlanPrinter;
 import com.splicemachine.db.impl.sql.compile.QueryTreeNode;
+import com.splicemachine.db.impl.sql.compile.ResultSetNode;
 import com.splicemachine.db.impl.sql.execute.ValueRow;
 import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
 import com.splicemachine.derby.iapi.sql.execute.SpliceOperationContext;
 import com.splicemachine.derby.stream.iapi.DataSet;
 import com.splicemachine.derby.stream.iapi.DataSetProcessor;
 import com.splicemachine.derby.stream.iapi.OperationContext;
+import com.splicemachine.derby.stream.iapi.OperationStatistics;
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.ObjectInput;
@@ -43,6 +45,13 @@ import java.util.*;
  *
  * "explain <statement>"
  *
+ * and
+ *
+ * "explain analyze <statement>"
+ *
+ * which executes the statement before returning the plan, annotating each line of the plan with the
+ * runtime statistics of the operation it describes.
+ *
  * @author Jun Yuan
  * Date: 6/9/14
  */
@@ -50,8 +59,14 @@ public class ExplainOperation extends SpliceBaseOperation {
     protected static final String NAME = ExplainOperation.class.getSimpleName().replaceAll("Operation", "");
     protected SpliceOperation source;
     protected ExecRow currentTemplate;
+    protected boolean analyze;
 
     List<String> explainString = new ArrayList<>();
+    /*
+     * The result set number of the operation described by each line of the plan, or -1 if the line doesn't
+     * describe a result set. Only populated when analyzing.
+     */
+    List<Integer> explainResultSetNumbers = new ArrayList<>();
 
     /**
      *
@@ -81,9 +96,24 @@ public class ExplainOperation extends SpliceBaseOperation {
      * @throws StandardException
      */
     public ExplainOperation(SpliceOperation source, Activation activation, int resultSetNumber) throws StandardException {
+        this(source, activation, resultSetNumber, false);
+    }
+
+    /**
+     *
+     * Constructor for explain plans which may execute the statement.
+     *
+     * @param source
+     * @param activation
+     * @param resultSetNumber
+     * @param analyze whether to execute the statement and report its runtime statistics
+     * @throws StandardException
+     */
+    public ExplainOperation(SpliceOperation source, Activation activation, int resultSetNumber, boolean analyze) throws StandardException {
         super(activation, resultSetNumber, 0, 0);
         this.activation = activation;
         this.source = source;
+        this.analyze = analyze;
         init();
     }
 
@@ -98,6 +128,8 @@ public class ExplainOperation extends SpliceBaseOperation {
     @Override
     public void init(SpliceOperationContext context) throws StandardException, IOException {
         super.init(context);
+        if (analyze)
+            source.init(context);
         currentTemplate = new ValueRow(1);
         currentTemplate.setRowArray(new DataValueDescriptor[]{new SQLVarchar()});
     }
@@ -120,6 +152,10 @@ public class ExplainOperation extends SpliceBaseOperation {
         m.remove(sql);
     }
 
+    public boolean isAnalyze() {
+        return analyze;
+    }
+
     @Override
     public boolean isReferencingTable(long tableNumber) {
         return source.isReferencingTable(tableNumber);
@@ -160,6 +196,16 @@ public class ExplainOperation extends SpliceBaseOperation {
                 useSpark = PlanPrinter.shouldUseSpark(opPlanMap);
 
             explainStringIter = PlanPrinter.planToIterator(opPlanMap, useSpark);
+            if (analyze) {
+                boolean first = true;
+                for (QueryTreeNode node : opPlanMap) {
+                    if (node instanceof ResultSetNode)
+                        explainResultSetNumbers.add(((ResultSetNode) node).getResultSetNumber());
+                    else // the statement itself (cursor or DML write) is the source of this operation
+                        explainResultSetNumbers.add(first ? source.resultSetNumber() : -1);
+                    first = false;
+                }
+            }
         } else
             explainStringIter = Iterators.emptyIterator();
         while (explainStringIter.hasNext()) {
@@ -167,11 +213,74 @@ public class ExplainOperation extends SpliceBaseOperation {
         }
     }
 
+    /**
+     * Starts collecting runtime statistics for every operation under {@code op}.
+     */
+    private void collectStatistics(SpliceOperation op, DataSetProcessor dsp, Map<Integer, SpliceOperation> operations) {
+        if (op == null)
+            return;
+        if (!operations.containsKey(op.resultSetNumber()))
+            operations.put(op.resultSetNumber(), op);
+        op.setOperationStatistics(dsp.createOperationStatistics(op));
+        for (SpliceOperation subOp : op.getSubOperations()) {
+            collectStatistics(subOp, dsp, operations);
+        }
+    }
+
+    /**
+     * Executes the statement, then annotates each line of the plan with the runtime statistics of
+     * the operation it describes.
+     */
+    private List<String> analyzePlan(DataSetProcessor dsp, Map<Integer, SpliceOperation> operations) throws StandardException {
+        source.getMeasuredDataSet(dsp).count();
+
+        List<String> plan = new ArrayList<>(explainString.size());
+        for (int i = 0; i < explainString.size(); i++) {
+            SpliceOperation op = i < explainResultSetNumbers.size() ? operations.get(explainResultSetNumbers.get(i)) : null;
+            if (op == null || op.getOperationStatistics() == null)
+                plan.add(explainString.get(i));
+            else
+                plan.add(explainString.get(i) + printRuntimeStatistics(op));
+        }
+        return plan;
+    }
+
+    private static String printRuntimeStatistics(SpliceOperation op) {
+        OperationStatistics statistics = op.getOperationStatistics();
+        StringBuilder sb = new StringBuilder(" actual(")
+                .append("outputRows=").append(statistics.getRowsProduced())
+                .append(",outputBytes=").append(statistics.getBytesProduced())
+                .append(",wallMs=").append(String.format("%.3f", statistics.getWallClockTime() / 1e6d))
+                .append(",cpuMs=").append(String.format("%.3f", statistics.getCpuTime() / 1e6d));
+        appendIfRecorded(sb, "remoteReads", statistics.getRemoteReads());
+        OperationContext context = op.getOperationContext();
+        if (context != null) {
+            appendIfRecorded(sb, "rowsRead", context.getRecordsRead());
+            appendIfRecorded(sb, "rowsFiltered", context.getRecordsFiltered());
+            appendIfRecorded(sb, "rowsWritten", context.getRecordsWritten());
+            appendIfRecorded(sb, "rowsSpilled", context.getRecordsSpilled());
+            appendIfRecorded(sb, "bytesSpilled", context.getBytesSpilled());
+            appendIfRecorded(sb, "retries", context.getRetryAttempts());
+        }
+        return sb.append(")").toString();
+    }
+
+    private static void appendIfRecorded(StringBuilder sb, String name, long value) {
+        if (value > 0)
+            sb.append(",").append(name).append("=").append(value);
+    }
+
     public DataSet<LocatedRow> getDataSet(DataSetProcessor dsp) throws StandardException {
+        Map<Integer, SpliceOperation> operations = new HashMap<>();
+        if (analyze) {
+            // must happen before the operation context is created, as Spark broadcasts the operations with it
+            collectStatistics(source, dsp, operations);
+        }
         OperationContext operationContext = dsp.createOperationContext(this);
         operationContext.pushScope();
         try {
-            return dsp.createDataSet(Iterators.transform(explainString.iterator(), new Function<String, LocatedRow>() {
+            List<String> plan = analyze ? analyzePlan(dsp, operations) : explainString;
+            return dsp.createDataSet(Iterators.transform(plan.iterator(), new Function<String, LocatedRow>() {
                                                              @Nullable
                                                              @Override
                                                              public LocatedRow apply(@Nullable String n) {
@@ -200,6 +309,14 @@ public class ExplainOperation extends SpliceBaseOperation {
         for (int i = 0; i < explainString.size(); ++i) {
             out.writeUTF(explainString.get(i));
         }
+        out.writeBoolean(analyze);
+        if (analyze) {
+            out.writeObject(source);
+            out.writeInt(explainResultSetNumbers.size());
+            for (int i = 0; i < explainResultSetNumbers.size(); ++i) {
+                out.writeInt(explainResultSetNumbers.get(i));
+            }
+        }
     }
 
     @Override
@@ -210,5 +327,14 @@ public class ExplainOperation extends SpliceBaseOperation {
         for (int i = 0; i < size; ++i) {
             explainString.add(in.readUTF());
         }
+        analyze = in.readBoolean();
+        if (analyze) {
+            source = (SpliceOperation) in.readObject();
+            size = in.readInt();
+            explainResultSetNumbers = new ArrayList<>(size);
+            for (int i = 0; i < size; ++i) {
+                explainResultSetNumbers.add(in.readInt());
+            }
+        }
     }
 }
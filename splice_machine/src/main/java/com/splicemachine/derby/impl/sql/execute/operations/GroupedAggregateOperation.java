@@ -130,7 +130,7 @@ public class GroupedAggregateOperation extends GenericAggregateOperation {
     public DataSet<LocatedRow> getDataSet(DataSetProcessor dsp) throws StandardException {
         OperationContext<GroupedAggregateOperation> operationContext = dsp.createOperationContext(this);
         
-        DataSet set = source.getDataSet(dsp);
+        DataSet set = source.getMeasuredDataSet(dsp);
 
         operationContext.pushScope();
         set = set.map(new CountReadFunction(operationContext));
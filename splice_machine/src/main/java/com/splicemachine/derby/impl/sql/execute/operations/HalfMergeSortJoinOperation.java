@@ -76,7 +76,7 @@ public class HalfMergeSortJoinOperation extends MergeJoinOperation {
     @Override
     public DataSet<LocatedRow> getDataSet(DataSetProcessor dsp) throws StandardException {
         OperationContext<JoinOperation> operationContext = dsp.<JoinOperation>createOperationContext(this);
-        DataSet<LocatedRow> left = leftResultSet.getDataSet(dsp);
+        DataSet<LocatedRow> left = leftResultSet.getMeasuredDataSet(dsp);
 
         operationContext.pushScope();
         try {
@@ -124,7 +124,7 @@ public class HalfMergeSortJoinOperation extends MergeJoinOperation {
     private Partitioner getPartitioner(DataSetProcessor dsp) throws StandardException {
         ScanOperation scanOperation = getScanOperation(rightResultSet);
         scanOperation.getExecRowDefinition().getNewNullRow();
-        return dsp.getPartitioner(rightResultSet.getDataSet(dsp),scanOperation.getExecRowDefinition().getNewNullRow()
+        return dsp.getPartitioner(rightResultSet.getMeasuredDataSet(dsp),scanOperation.getExecRowDefinition().getNewNullRow()
                 , scanOperation.getKeyDecodingMap(), getRightOrder(),rightHashKeys);
     }
 }
@@ -21,6 +21,7 @@ import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.sql.execute.ExecRow;
 import com.splicemachine.db.iapi.types.RowLocation;
 import com.splicemachine.derby.impl.store.access.hbase.HBaseRowLocation;
+import com.splicemachine.derby.stream.iapi.OperationStatistics;
 import com.splicemachine.derby.utils.marshall.KeyDecoder;
 import com.splicemachine.derby.utils.marshall.KeyHashDecoder;
 import com.splicemachine.pipeline.Exceptions;
@@ -63,6 +64,7 @@ public class IndexRowReader implements Iterator<LocatedRow>, Iterable<LocatedRow
     private final TxnView txn;
     private final TxnOperationFactory operationFactory;
     private final PartitionFactory tableFactory;
+    private final OperationStatistics statistics;
 
     private List<Pair<LocatedRow, DataResult>> currentResults;
     private List<Future<List<Pair<LocatedRow, DataResult>>>> resultFutures;
@@ -85,7 +87,8 @@ public class IndexRowReader implements Iterator<LocatedRow>, Iterable<LocatedRow
                    KeyHashDecoder rowDecoder,
                    int[] indexCols,
                    TxnOperationFactory operationFactory,
-                   PartitionFactory tableFactory){
+                   PartitionFactory tableFactory,
+                   OperationStatistics statistics){
         this.lookupService=lookupService;
         this.sourceIterator=sourceIterator;
         this.outputTemplate=outputTemplate;
@@ -100,6 +103,7 @@ public class IndexRowReader implements Iterator<LocatedRow>, Iterable<LocatedRow
         this.indexCols=indexCols;
         this.resultFutures=Lists.newArrayListWithCapacity(numConcurrentLookups);
         this.operationFactory = operationFactory;
+        this.statistics = statistics;
     }
 
     public void close() throws IOException{
@@ -172,6 +176,9 @@ public class IndexRowReader implements Iterator<LocatedRow>, Iterable<LocatedRow
             sourceRows.add(new LocatedRow(HBaseRowLocation.deepClone(rl), outputTemplate.getClone()));
         }
         if(sourceRows.size()>0){
+            // counted once per batch rather than per row, as this may be a Spark accumulator
+            if(statistics!=null)
+                statistics.recordRemoteReads(sourceRows.size());
             //submit to the background thread
             Lookup task=new Lookup(sourceRows);
             resultFutures.add(lookupService.submit(task));
@@ -23,6 +23,7 @@ import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.services.io.ArrayUtil;
 import com.splicemachine.db.iapi.services.io.FormatableBitSet;
 import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.derby.stream.iapi.OperationStatistics;
 import com.splicemachine.derby.stream.output.WriteReadUtils;
 import com.splicemachine.derby.utils.marshall.EntryDataDecoder;
 import com.splicemachine.derby.utils.marshall.KeyHashDecoder;
@@ -48,6 +49,7 @@ import java.util.concurrent.*;
  */
 public class IndexRowReaderBuilder implements Externalizable{
     private Iterator<LocatedRow> source;
+    private OperationStatistics statistics;
     private int lookupBatchSize;
     private int numConcurrentLookups=-1;
     private ExecRow outputTemplate;
@@ -91,6 +93,15 @@ public class IndexRowReaderBuilder implements Externalizable{
         return this;
     }
 
+    /**
+     * @param statistics where to count the base table lookups, or null if they aren't counted. Like the
+     *                   source, this is not serialized with the builder.
+     */
+    public IndexRowReaderBuilder statistics(OperationStatistics statistics){
+        this.statistics=statistics;
+        return this;
+    }
+
     public IndexRowReaderBuilder lookupBatchSize(int lookupBatchSize){
         this.lookupBatchSize=lookupBatchSize;
         return this;
@@ -222,7 +233,8 @@ public class IndexRowReaderBuilder implements Externalizable{
                 rowDecoder,
                 indexCols,
                 txnOperationFactory,
-                tableFactory);
+                tableFactory,
+                statistics);
     }
 
     @Override
@@ -288,7 +288,7 @@ public class IndexRowToBaseRowOperation extends SpliceBaseOperation{
         }
         OperationContext context = dsp.createOperationContext(this);
         readerBuilder.transaction(context.getTxn());
-        return source.getDataSet(dsp)
+        return source.getMeasuredDataSet(dsp)
             .mapPartitions(new IndexToBaseRowFlatMapFunction(context,readerBuilder), false, true, "Fetch Base Rows")
             .filter(new IndexToBaseRowFilterPredicateFunction(context), true, true, "Apply Filter");
     }
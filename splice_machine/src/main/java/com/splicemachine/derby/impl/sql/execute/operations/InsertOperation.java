@@ -18,6 +18,10 @@ package com.splicemachine.derby.impl.sql.execute.operations;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import com.splicemachine.derby.stream.iapi.*;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
@@ -27,18 +31,27 @@ import com.splicemachine.access.api.SConfiguration;
 import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.services.loader.GeneratedMethod;
 import com.splicemachine.db.iapi.sql.Activation;
+import com.splicemachine.db.iapi.sql.conn.LanguageConnectionContext;
+import com.splicemachine.db.iapi.sql.dictionary.ConglomerateDescriptor;
+import com.splicemachine.db.iapi.sql.dictionary.ConstraintDescriptor;
+import com.splicemachine.db.iapi.sql.dictionary.DataDictionary;
+import com.splicemachine.db.iapi.sql.dictionary.KeyConstraintDescriptor;
+import com.splicemachine.db.iapi.sql.dictionary.TableDescriptor;
 import com.splicemachine.db.iapi.sql.execute.ExecRow;
 import com.splicemachine.db.iapi.sql.execute.HasIncrement;
 import com.splicemachine.db.iapi.types.DataValueDescriptor;
 import com.splicemachine.db.iapi.types.RowLocation;
 import com.splicemachine.db.impl.sql.compile.InsertNode;
 import com.splicemachine.db.impl.sql.execute.BaseActivation;
+import com.splicemachine.ddl.DDLMessage;
+import com.splicemachine.derby.ddl.DDLUtils;
 import com.splicemachine.derby.iapi.sql.execute.DataSetProcessorFactory;
 import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
 import com.splicemachine.derby.iapi.sql.execute.SpliceOperationContext;
 import com.splicemachine.derby.impl.sql.execute.actions.InsertConstantOperation;
 import com.splicemachine.derby.impl.sql.execute.sequence.SequenceKey;
 import com.splicemachine.derby.impl.sql.execute.sequence.SpliceSequence;
+import com.splicemachine.derby.impl.store.access.SpliceTransactionManager;
 import com.splicemachine.derby.impl.store.access.hbase.HBaseRowLocation;
 import com.splicemachine.derby.stream.function.InsertPairFunction;
 import com.splicemachine.derby.stream.output.DataSetWriter;
@@ -46,8 +59,13 @@ import com.splicemachine.derby.stream.output.WriteReadUtils;
 import com.splicemachine.derby.stream.output.insert.InsertPipelineWriter;
 import com.splicemachine.pipeline.ErrorState;
 import com.splicemachine.pipeline.Exceptions;
+import com.splicemachine.pipeline.constraint.ConstraintContext;
+import com.splicemachine.protobuf.ProtoUtil;
+import com.splicemachine.si.api.txn.Txn;
 import com.splicemachine.si.api.txn.TxnView;
 import com.splicemachine.si.impl.driver.SIDriver;
+import com.splicemachine.storage.DataResultScanner;
+import com.splicemachine.storage.Partition;
 import com.splicemachine.utils.Pair;
 
 
@@ -64,6 +82,7 @@ public class InsertOperation extends DMLWriteOperation implements HasIncrement{
     private long nextIncrement=-1;
     private RowLocation[] autoIncrementRowLocationArray;
     private SpliceSequence[] spliceSequences;
+    private transient Map<Long, ConstraintContext> bulkImportConstraints;
     protected static final String NAME=InsertOperation.class.getSimpleName().replaceAll("Operation","");
     public InsertPipelineWriter tableWriter;
     public Pair<Long, Long>[] defaultAutoIncrementValues;
@@ -238,13 +257,16 @@ public class InsertOperation extends DMLWriteOperation implements HasIncrement{
             // if we have a status directory, we're an import and so permissive
             dsp.setPermissive(statusDirectory, getVTIFileName(), failBadRecordCount);
         }
-        DataSet set=source.getDataSet(dsp);
+        DataSet set=source.getMeasuredDataSet(dsp);
         OperationContext operationContext=dsp.createOperationContext(this);
         ExecRow execRow=getExecRowDefinition();
         int[] execRowTypeFormatIds=WriteReadUtils.getExecRowTypeFormatIds(execRow);
         if(insertMode.equals(InsertNode.InsertMode.UPSERT) && pkCols==null)
             throw ErrorState.UPSERT_NO_PRIMARY_KEYS.newException(""+heapConglom+"");
         TxnView txn=getCurrentTransaction();
+        List<DDLMessage.TentativeIndex> bulkImportIndexes=null;
+        if(insertMode.equals(InsertNode.InsertMode.BULK_IMPORT))
+            bulkImportIndexes=getBulkImportIndexes();
 
         operationContext.pushScope();
         try{
@@ -257,6 +279,7 @@ public class InsertOperation extends DMLWriteOperation implements HasIncrement{
                     .execRowTypeFormatIds(execRowTypeFormatIds)
                     .sequences(spliceSequences)
                     .isUpsert(insertMode.equals(InsertNode.InsertMode.UPSERT))
+                    .bulkImport(bulkImportIndexes)
                     .pkCols(pkCols)
                     .tableVersion(tableVersion)
                     .destConglomerate(heapConglom)
@@ -270,6 +293,118 @@ public class InsertOperation extends DMLWriteOperation implements HasIncrement{
 
     }
 
+    /**
+     * The indexes to write along with the table in a bulk import. Bulk imports skip the write pipeline, so
+     * they refuse tables with triggers or foreign keys, and only accept tables with a primary key or unique
+     * index while those are empty; duplicates within the import itself are caught when the keys are sorted,
+     * and fail the import as a violation of {@link #getBulkImportConstraint(long) the constraint} they break.
+     */
+    private List<DDLMessage.TentativeIndex> getBulkImportIndexes() throws StandardException{
+        LanguageConnectionContext lcc=activation.getLanguageConnectionContext();
+        DataDictionary dd=lcc.getDataDictionary();
+        TableDescriptor td=dd.getTableDescriptor(dd.getConglomerateDescriptor(heapConglom).getTableID());
+        if(getTriggerHandler()!=null)
+            throw ErrorState.LANG_BULK_IMPORT_NOT_SUPPORTED.newException(td.getQualifiedName(),"has triggers");
+
+        // several descriptors can share an index conglomerate; a unique one decides how it is encoded
+        Map<Long, ConglomerateDescriptor> indexConglomerates=new LinkedHashMap<>();
+        for(ConglomerateDescriptor cd : td.getConglomerateDescriptorList()){
+            if(!cd.isIndex())
+                continue;
+            ConglomerateDescriptor existing=indexConglomerates.get(cd.getConglomerateNumber());
+            if(existing==null || cd.getIndexDescriptor().isUnique())
+                indexConglomerates.put(cd.getConglomerateNumber(),cd);
+        }
+        // duplicate keys are reported against the constraint, like the write pipeline does
+        Map<Long, ConstraintContext> constraints=new LinkedHashMap<>();
+        List<DDLMessage.TentativeIndex> indexes=new ArrayList<>(indexConglomerates.size());
+        for(ConglomerateDescriptor cd : indexConglomerates.values()){
+            if(cd.getIndexDescriptor().isUnique())
+                constraints.put(cd.getConglomerateNumber(),ConstraintContext.unique(td.getName(),cd.getConglomerateName()));
+            indexes.add(ProtoUtil.createTentativeIndex(lcc,heapConglom,cd.getConglomerateNumber(),td,
+                    cd.getIndexDescriptor().getIndexDescriptor()));
+        }
+        for(ConstraintDescriptor cd : dd.getConstraintDescriptors(td)){
+            switch(cd.getConstraintType()){
+                case DataDictionary.FOREIGNKEY_CONSTRAINT:
+                    throw ErrorState.LANG_BULK_IMPORT_NOT_SUPPORTED.newException(td.getQualifiedName(),"has foreign keys");
+                case DataDictionary.PRIMARYKEY_CONSTRAINT:
+                    constraints.put(heapConglom,ConstraintContext.primaryKey(td.getName(),cd.getConstraintName()));
+                    break;
+                case DataDictionary.UNIQUE_CONSTRAINT:
+                    long indexConglom=((KeyConstraintDescriptor)cd).getIndexConglomerateDescriptor(dd).getConglomerateNumber();
+                    constraints.put(indexConglom,ConstraintContext.unique(td.getName(),cd.getConstraintName()));
+                    break;
+                default:
+                    break;
+            }
+        }
+        bulkImportConstraints=constraints;
+        if(hasUniqueKey(td) && !isEmpty(heapConglom))
+            throw ErrorState.LANG_BULK_IMPORT_NOT_SUPPORTED.newException(td.getQualifiedName(),
+                    "has a primary key or unique index, and is not empty");
+        return indexes;
+    }
+
+    /**
+     * @return the constraint to report when a bulk import finds two rows with the same key in the given
+     * conglomerate, or null if there is none.
+     */
+    public ConstraintContext getBulkImportConstraint(long conglomerate){
+        return bulkImportConstraints==null?null:bulkImportConstraints.get(conglomerate);
+    }
+
+    private boolean hasUniqueKey(TableDescriptor td){
+        if(pkCols!=null)
+            return true;
+        for(ConglomerateDescriptor cd : td.getConglomerateDescriptorList()){
+            if(cd.isIndex() && cd.getIndexDescriptor().isUnique())
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Keeps every other writer off a table with a unique key until the bulk import commits, so that the table
+     * is still empty when the HFiles are loaded. The fence goes up before the emptiness check, then we wait out
+     * any writer which began before it did; one which is still running fails the import rather than racing it.
+     */
+    private void fenceBulkImport() throws StandardException{
+        LanguageConnectionContext lcc=activation.getLanguageConnectionContext();
+        DataDictionary dd=lcc.getDataDictionary();
+        TableDescriptor td=dd.getTableDescriptor(dd.getConglomerateDescriptor(heapConglom).getTableID());
+        if(!hasUniqueKey(td))
+            return;
+        SpliceTransactionManager tc=(SpliceTransactionManager)lcc.getTransactionExecute();
+        //get the top-most transaction, that's the actual user transaction
+        TxnView userTxn=tc.getRawTransaction().getActiveStateTxn();
+        while(userTxn.getParentTxnView().getTxnId()!=Txn.ROOT_TRANSACTION.getTxnId()){
+            userTxn=userTxn.getParentTxnView();
+        }
+        DDLMessage.DDLChange ddlChange=ProtoUtil.createBulkImport(userTxn.getTxnId(),heapConglom);
+        tc.prepareDataDictionaryChange(DDLUtils.notifyMetadataChange(ddlChange));
+
+        long activeTxnId;
+        try{
+            long fenceTimestamp=SIDriver.driver().getTimestampSource().nextTimestamp();
+            activeTxnId=DDLUtils.waitForConcurrentTransactions(fenceTimestamp,userTxn,heapConglom);
+        }catch(IOException e){
+            throw Exceptions.parseException(e);
+        }
+        if(activeTxnId>=0)
+            throw ErrorState.DDL_ACTIVE_TRANSACTIONS.newException("BulkImport("+td.getQualifiedName()+")",activeTxnId);
+    }
+
+    private static boolean isEmpty(long conglomerate) throws StandardException{
+        // any version at all counts, committed or not
+        try(Partition table=SIDriver.driver().getTableFactory().getTable(Long.toString(conglomerate));
+            DataResultScanner scanner=table.openResultScanner(SIDriver.driver().baseOperationFactory().newScan().cacheRows(1))){
+            return scanner.next()==null;
+        }catch(Exception e){
+            throw Exceptions.parseException(e);
+        }
+    }
+
     @Override
     public String getVTIFileName(){
         return getSubOperations().get(0).getVTIFileName();
@@ -279,6 +414,9 @@ public class InsertOperation extends DMLWriteOperation implements HasIncrement{
     @Override
     public void openCore() throws StandardException{
 
+        if(insertMode.equals(InsertNode.InsertMode.BULK_IMPORT))
+            fenceBulkImport();
+        beginSpillBudget();
         DataSetProcessor dsp = EngineDriver.driver().processorFactory().chooseProcessor(activation,this);
         if (statusDirectory != null || dsp.getType() == DataSetProcessor.Type.SPARK) {
             remoteQueryClient = EngineDriver.driver().processorFactory().getRemoteQueryClient(this);
@@ -111,7 +111,7 @@ public class MergeJoinOperation extends JoinOperation {
     @Override
     public DataSet<LocatedRow> getDataSet(DataSetProcessor dsp) throws StandardException {
         OperationContext<JoinOperation> operationContext = dsp.<JoinOperation>createOperationContext(this);
-        DataSet<LocatedRow> left = leftResultSet.getDataSet(dsp);
+        DataSet<LocatedRow> left = leftResultSet.getMeasuredDataSet(dsp);
         
         operationContext.pushScope();
         try {
@@ -181,7 +181,7 @@ public class MergeSortJoinOperation extends JoinOperation {
 
         // Prepare Left
 
-        DataSet<LocatedRow> leftDataSet1 = leftResultSet.getDataSet(dsp);
+        DataSet<LocatedRow> leftDataSet1 = leftResultSet.getMeasuredDataSet(dsp);
 
        // operationContext.pushScopeForOp("Prepare Left Side");
         DataSet<LocatedRow> leftDataSet2 =
@@ -190,7 +190,7 @@ public class MergeSortJoinOperation extends JoinOperation {
             leftDataSet2 = leftDataSet2.filter(new InnerJoinNullFilterFunction(operationContext,leftHashKeys));
 
         // Prepare Right
-        DataSet<LocatedRow> rightDataSet1 = rightResultSet.getDataSet(dsp);
+        DataSet<LocatedRow> rightDataSet1 = rightResultSet.getMeasuredDataSet(dsp);
         DataSet<LocatedRow> rightDataSet2 =
             rightDataSet1.map(new CountJoinedRightFunction(operationContext));
 //        if (!isOuterJoin) Remove all nulls from the right side...
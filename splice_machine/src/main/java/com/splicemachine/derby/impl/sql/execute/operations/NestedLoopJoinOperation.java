@@ -92,7 +92,7 @@ public class NestedLoopJoinOperation extends JoinOperation {
 
 
     public DataSet<LocatedRow> getDataSet(DataSetProcessor dsp) throws StandardException {
-        DataSet<LocatedRow> left = leftResultSet.getDataSet(dsp);
+        DataSet<LocatedRow> left = leftResultSet.getMeasuredDataSet(dsp);
         OperationContext<NestedLoopJoinOperation> operationContext = dsp.createOperationContext(this);
 
         operationContext.pushScope();
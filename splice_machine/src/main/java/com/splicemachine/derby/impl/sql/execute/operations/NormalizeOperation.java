@@ -282,7 +282,7 @@ public class NormalizeOperation extends SpliceBaseOperation{
     @SuppressWarnings("unchecked")
     @Override
     public DataSet<LocatedRow> getDataSet(DataSetProcessor dsp) throws StandardException{
-        DataSet<LocatedRow> sourceSet=source.getDataSet(dsp);
+        DataSet<LocatedRow> sourceSet=source.getMeasuredDataSet(dsp);
         OperationContext operationContext=dsp.createOperationContext(this);
         operationContext.pushScope();
         try{
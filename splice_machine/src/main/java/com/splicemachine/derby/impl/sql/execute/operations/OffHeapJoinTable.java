@@ -0,0 +1,324 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.operations;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.derby.impl.sql.JoinTable;
+import com.splicemachine.derby.utils.marshall.BareKeyHash;
+import com.splicemachine.derby.utils.marshall.KeyEncoder;
+import com.splicemachine.derby.utils.marshall.KeyHashDecoder;
+import com.splicemachine.derby.utils.marshall.NoOpPostfix;
+import com.splicemachine.derby.utils.marshall.NoOpPrefix;
+import com.splicemachine.derby.utils.marshall.dvd.DescriptorSerializer;
+import com.splicemachine.derby.utils.marshall.dvd.VersionedSerializers;
+import com.splicemachine.hash.Hash32;
+import com.splicemachine.hash.HashFunctions;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A JoinTable whose inner rows are held in encoded form in a {@link DirectRowArena}, and only decoded
+ * when they are actually matched by an outer row.
+ *
+ * The arena is indexed either by the encoded join key bytes (the general case), or, when the join is on a single
+ * integral column, directly by the long value of that column.
+ *
+ * @see OffHeapJoinTableLoader
+ */
+class OffHeapJoinTable implements JoinTable{
+    private static final Hash32 KEY_HASH = HashFunctions.murmur3(0);
+
+    private final Factory factory;
+    private final KeyEncoder outerKeyEncoder;
+    private final KeyHashDecoder rowDecoder;
+    private byte[] scratch = new byte[128];
+
+    private OffHeapJoinTable(Factory factory){
+        this.factory=factory;
+        if(factory.longIndex==null){
+            DescriptorSerializer[] outerSerializers=VersionedSerializers.latestVersion(false).getSerializers(factory.outerTemplateRow);
+            this.outerKeyEncoder=new KeyEncoder(NoOpPrefix.INSTANCE,
+                    BareKeyHash.encoder(factory.outerHashKeys,null,outerSerializers),NoOpPostfix.INSTANCE);
+        }else
+            this.outerKeyEncoder=null;
+        DescriptorSerializer[] innerSerializers=VersionedSerializers.latestVersion(false).getSerializers(factory.innerTemplateRow);
+        this.rowDecoder=BareKeyHash.decoder(null,null,innerSerializers);
+    }
+
+    @Override
+    public Iterator<ExecRow> fetchInner(ExecRow outer) throws IOException, StandardException{
+        long head;
+        if(factory.longIndex!=null){
+            DataValueDescriptor dvd=outer.getColumn(factory.outerHashKeys[0]+1);
+            head=dvd.isNull()?factory.longIndex.nullHead:factory.longIndex.find(dvd.getLong());
+        }else{
+            byte[] outerKey=outerKeyEncoder.getKey(outer);
+            assert outerKey!=null: "Programmer error: outer row does not have row key";
+            head=factory.bytesIndex.find(outerKey);
+        }
+        if(head==DirectRowArena.NULL_ADDRESS)
+            return Collections.emptyIterator();
+        return new DecodingIterator(head);
+    }
+
+    @Override
+    public void close(){
+        try{
+            if(outerKeyEncoder!=null)
+                outerKeyEncoder.close();
+            rowDecoder.close();
+        }catch(IOException ignored){ }
+    }
+
+    private class DecodingIterator implements Iterator<ExecRow>{
+        private long next;
+
+        DecodingIterator(long head){
+            this.next=head;
+        }
+
+        @Override
+        public boolean hasNext(){
+            return next!=DirectRowArena.NULL_ADDRESS;
+        }
+
+        @Override
+        public ExecRow next(){
+            if(!hasNext()) throw new NoSuchElementException();
+            DirectRowArena arena=factory.arena;
+            int length=arena.rowLength(next);
+            if(scratch.length<length)
+                scratch=new byte[Math.max(length,2*scratch.length)];
+            arena.readRow(next,scratch);
+            rowDecoder.set(scratch,0,length);
+            ExecRow row=factory.innerTemplateRow.getNewNullRow();
+            try{
+                rowDecoder.decode(row);
+            }catch(StandardException e){
+                throw new RuntimeException(e);
+            }
+            next=arena.next(next);
+            return row;
+        }
+
+        @Override
+        public void remove(){
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    static class Factory implements JoinTable.Factory{
+        private final DirectRowArena arena;
+        private final BytesKeyIndex bytesIndex;
+        private final LongKeyIndex longIndex;
+        private final int[] outerHashKeys;
+        private final ExecRow outerTemplateRow;
+        private final ExecRow innerTemplateRow;
+
+        Factory(DirectRowArena arena,
+                BytesKeyIndex bytesIndex,
+                LongKeyIndex longIndex,
+                int[] outerHashKeys,
+                ExecRow outerTemplateRow,
+                ExecRow innerTemplateRow){
+            this.arena=arena;
+            this.bytesIndex=bytesIndex;
+            this.longIndex=longIndex;
+            this.outerHashKeys=outerHashKeys;
+            this.outerTemplateRow=outerTemplateRow;
+            this.innerTemplateRow=innerTemplateRow;
+        }
+
+        @Override
+        public JoinTable newTable(){
+            if(innerTemplateRow==null) return EmptyJoinTable.INSTANCE;
+            return new OffHeapJoinTable(this);
+        }
+
+        @Override
+        public long estimatedSize(){
+            if(arena==null) return 0l;
+            return arena.allocatedBytes()+(longIndex!=null?longIndex.heapSize():0l)+(bytesIndex!=null?bytesIndex.heapSize():0l);
+        }
+
+        @Override
+        public void release(){
+            if(arena!=null)
+                arena.release();
+        }
+    }
+
+    private static class EmptyJoinTable implements JoinTable{
+        private static final EmptyJoinTable INSTANCE = new EmptyJoinTable();
+
+        @Override
+        public Iterator<ExecRow> fetchInner(ExecRow outer){
+            return Collections.emptyIterator();
+        }
+
+        @Override public void close(){ }
+    }
+
+    /**
+     * Open-addressing (linear probing) index from encoded key bytes to the head of a record chain in the arena.
+     */
+    static class BytesKeyIndex{
+        private final DirectRowArena arena;
+        private int[] hashes;
+        private long[] heads;
+        private int size;
+
+        BytesKeyIndex(DirectRowArena arena){
+            this.arena=arena;
+            this.hashes=new int[16];
+            this.heads=new long[16];
+        }
+
+        void insert(byte[] key,byte[] row){
+            if(size>=heads.length>>1)
+                resize();
+            int hash=KEY_HASH.hash(key,0,key.length);
+            int mask=heads.length-1;
+            int pos=hash&mask;
+            while(heads[pos]!=DirectRowArena.NULL_ADDRESS){
+                if(hashes[pos]==hash && arena.keyEquals(heads[pos],key)){
+                    heads[pos]=arena.append(key,row,heads[pos]);
+                    return;
+                }
+                pos=(pos+1)&mask;
+            }
+            hashes[pos]=hash;
+            heads[pos]=arena.append(key,row,DirectRowArena.NULL_ADDRESS);
+            size++;
+        }
+
+        long heapSize(){
+            return 12l*heads.length;
+        }
+
+        long find(byte[] key){
+            int hash=KEY_HASH.hash(key,0,key.length);
+            int mask=heads.length-1;
+            int pos=hash&mask;
+            long head;
+            while((head=heads[pos])!=DirectRowArena.NULL_ADDRESS){
+                if(hashes[pos]==hash && arena.keyEquals(head,key))
+                    return head;
+                pos=(pos+1)&mask;
+            }
+            return DirectRowArena.NULL_ADDRESS;
+        }
+
+        private void resize(){
+            int[] oldHashes=hashes;
+            long[] oldHeads=heads;
+            hashes=new int[oldHashes.length<<1];
+            heads=new long[oldHeads.length<<1];
+            int mask=heads.length-1;
+            for(int i=0;i<oldHeads.length;i++){
+                if(oldHeads[i]==DirectRowArena.NULL_ADDRESS) continue;
+                int pos=oldHashes[i]&mask;
+                while(heads[pos]!=DirectRowArena.NULL_ADDRESS)
+                    pos=(pos+1)&mask;
+                hashes[pos]=oldHashes[i];
+                heads[pos]=oldHeads[i];
+            }
+        }
+    }
+
+    /**
+     * Open-addressing (linear probing) index from a single integral join key to the head of a record chain in the
+     * arena. Avoids encoding (and allocating) a key for every inner and outer row.
+     */
+    static class LongKeyIndex{
+        private final DirectRowArena arena;
+        private long[] keys;
+        private long[] heads;
+        private int size;
+        long nullHead = DirectRowArena.NULL_ADDRESS;
+
+        LongKeyIndex(DirectRowArena arena){
+            this.arena=arena;
+            this.keys=new long[16];
+            this.heads=new long[16];
+        }
+
+        void insertNull(byte[] row){
+            nullHead=arena.append(null,row,nullHead);
+        }
+
+        void insert(long key,byte[] row){
+            if(size>=heads.length>>1)
+                resize();
+            int mask=heads.length-1;
+            int pos=hash(key)&mask;
+            while(heads[pos]!=DirectRowArena.NULL_ADDRESS){
+                if(keys[pos]==key){
+                    heads[pos]=arena.append(null,row,heads[pos]);
+                    return;
+                }
+                pos=(pos+1)&mask;
+            }
+            keys[pos]=key;
+            heads[pos]=arena.append(null,row,DirectRowArena.NULL_ADDRESS);
+            size++;
+        }
+
+        long heapSize(){
+            return 16l*heads.length;
+        }
+
+        long find(long key){
+            int mask=heads.length-1;
+            int pos=hash(key)&mask;
+            long head;
+            while((head=heads[pos])!=DirectRowArena.NULL_ADDRESS){
+                if(keys[pos]==key)
+                    return head;
+                pos=(pos+1)&mask;
+            }
+            return DirectRowArena.NULL_ADDRESS;
+        }
+
+        private void resize(){
+            long[] oldKeys=keys;
+            long[] oldHeads=heads;
+            keys=new long[oldKeys.length<<1];
+            heads=new long[oldHeads.length<<1];
+            int mask=heads.length-1;
+            for(int i=0;i<oldHeads.length;i++){
+                if(oldHeads[i]==DirectRowArena.NULL_ADDRESS) continue;
+                int pos=hash(oldKeys[i])&mask;
+                while(heads[pos]!=DirectRowArena.NULL_ADDRESS)
+                    pos=(pos+1)&mask;
+                keys[pos]=oldKeys[i];
+                heads[pos]=oldHeads[i];
+            }
+        }
+
+        private static int hash(long key){
+            key^=key>>>33;
+            key*=0xff51afd7ed558ccdL;
+            key^=key>>>33;
+            return (int)key;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.operations;
+
+import com.splicemachine.db.iapi.services.io.StoredFormatIds;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.derby.impl.sql.JoinTable;
+import com.splicemachine.derby.utils.marshall.BareKeyHash;
+import com.splicemachine.derby.utils.marshall.DataHash;
+import com.splicemachine.derby.utils.marshall.KeyEncoder;
+import com.splicemachine.derby.utils.marshall.NoOpPostfix;
+import com.splicemachine.derby.utils.marshall.NoOpPrefix;
+import com.splicemachine.derby.utils.marshall.dvd.DescriptorSerializer;
+import com.splicemachine.derby.utils.marshall.dvd.VersionedSerializers;
+import com.splicemachine.stream.Stream;
+import com.splicemachine.stream.StreamException;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Loads the inner side of a broadcast join into an {@link OffHeapJoinTable}.
+ *
+ * Rather than holding a fully deserialized ExecRow for every inner row on the heap, each row is encoded
+ * and appended to an off-heap arena. Only the (primitive) index over the arena lives on the heap,
+ * and rows are decoded lazily when they are matched.
+ *
+ * @see ByteBufferMapTableLoader
+ */
+@ThreadSafe
+class OffHeapJoinTableLoader implements BroadcastJoinCache.JoinTableLoader{
+    public static BroadcastJoinCache.JoinTableLoader INSTANCE = new OffHeapJoinTableLoader();
+
+    private OffHeapJoinTableLoader(){} //singleton class
+
+    @Override
+    public JoinTable.Factory load(Callable<Stream<ExecRow>> streamLoader,int[] innerHashKeys,int[] outerHashKeys,ExecRow outerTemplateRow) throws ExecutionException{
+        DirectRowArena arena=new DirectRowArena();
+        OffHeapJoinTable.BytesKeyIndex bytesIndex=null;
+        OffHeapJoinTable.LongKeyIndex longIndex=null;
+        ExecRow innerTemplateRow=null;
+
+        KeyEncoder innerKeyEncoder=null;
+        DataHash<ExecRow> rowEncoder=null;
+
+        try(Stream<ExecRow> innerRows=streamLoader.call()){
+            ExecRow right;
+            while((right=innerRows.next())!=null){
+                if(innerTemplateRow==null){
+                    innerTemplateRow=right.getNewNullRow();
+                    DescriptorSerializer[] innerSerializers=VersionedSerializers.latestVersion(false).getSerializers(right);
+                    rowEncoder=BareKeyHash.encoder(null,null,innerSerializers);
+                    if(isIntegral(right,innerHashKeys) && isIntegral(outerTemplateRow,outerHashKeys))
+                        longIndex=new OffHeapJoinTable.LongKeyIndex(arena);
+                    else{
+                        bytesIndex=new OffHeapJoinTable.BytesKeyIndex(arena);
+                        innerKeyEncoder=new KeyEncoder(NoOpPrefix.INSTANCE,
+                                BareKeyHash.encoder(innerHashKeys,null,innerSerializers),NoOpPostfix.INSTANCE);
+                    }
+                }
+
+                rowEncoder.setRow(right);
+                byte[] row=rowEncoder.encode();
+                if(longIndex!=null){
+                    DataValueDescriptor key=right.getColumn(innerHashKeys[0]+1);
+                    if(key.isNull())
+                        longIndex.insertNull(row);
+                    else
+                        longIndex.insert(key.getLong(),row);
+                }else
+                    bytesIndex.insert(innerKeyEncoder.getKey(right),row);
+            }
+        }catch(StreamException e){
+            arena.release();
+            throw new ExecutionException(e.getCause());
+        }catch(Exception e){
+            arena.release();
+            if(e instanceof ExecutionException) throw (ExecutionException)e;
+            else throw new ExecutionException(e);
+        }
+
+        return new OffHeapJoinTable.Factory(arena,bytesIndex,longIndex,outerHashKeys,outerTemplateRow,innerTemplateRow);
+    }
+
+    /*
+     * We only use the primitive index when joining on a single column which is stored as a (widened) long on both
+     * sides of the join.
+     */
+    private static boolean isIntegral(ExecRow row,int[] hashKeys){
+        if(row==null || hashKeys==null || hashKeys.length!=1) return false;
+        DataValueDescriptor[] dvds=row.getRowArray();
+        if(hashKeys[0]<0 || hashKeys[0]>=dvds.length || dvds[hashKeys[0]]==null) return false;
+        switch(dvds[hashKeys[0]].getTypeFormatId()){
+            case StoredFormatIds.SQL_TINYINT_ID:
+            case StoredFormatIds.SQL_SMALLINT_ID:
+            case StoredFormatIds.SQL_INTEGER_ID:
+            case StoredFormatIds.SQL_LONGINT_ID:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -285,7 +285,7 @@ public class ProjectRestrictOperation extends SpliceBaseOperation {
             return dsp.getEmpty();
         }
         OperationContext operationContext = dsp.createOperationContext(this);
-        DataSet<LocatedRow> sourceSet = source.getDataSet(dsp);
+        DataSet<LocatedRow> sourceSet = source.getMeasuredDataSet(dsp);
         try {
             operationContext.pushScope();
             return sourceSet.flatMap(new ProjectRestrictFlatMapFunction<SpliceOperation>(operationContext), true);
@@ -189,12 +189,12 @@ public class RowCountOperation extends SpliceBaseOperation {
     @Override
     public DataSet<LocatedRow> getDataSet(DataSetProcessor dsp) throws StandardException {
         if (dsp.getType() == DataSetProcessor.Type.SPARK) {
-            return source.getDataSet(dsp);
+            return source.getMeasuredDataSet(dsp);
         }
         final long fetchLimit = getFetchLimit();
         long offset = getTotalOffset();
         OperationContext operationContext = dsp.createOperationContext(this);
-        DataSet<LocatedRow> sourceSet = source.getDataSet(dsp);
+        DataSet<LocatedRow> sourceSet = source.getMeasuredDataSet(dsp);
         return sourceSet.zipWithIndex().mapPartitions(new OffsetFunction<SpliceOperation, LocatedRow>(operationContext, offset, fetchLimit));
     }
 
@@ -157,12 +157,12 @@ public class SetOpOperation extends SpliceBaseOperation {
     @Override
     public DataSet<LocatedRow> getDataSet(DataSetProcessor dsp) throws StandardException {
         if (this.opType==IntersectOrExceptNode.INTERSECT_OP) {
-            return leftSource.getDataSet(dsp).intersect(
-                    rightSource.getDataSet(dsp));
+            return leftSource.getMeasuredDataSet(dsp).intersect(
+                    rightSource.getMeasuredDataSet(dsp));
         }
         else if (this.opType==IntersectOrExceptNode.EXCEPT_OP) {
-            return leftSource.getDataSet(dsp).subtract(
-                    rightSource.getDataSet(dsp));
+            return leftSource.getMeasuredDataSet(dsp).subtract(
+                    rightSource.getMeasuredDataSet(dsp));
         } else {
             throw new RuntimeException("Operation Type not Supported "+opType);
         }
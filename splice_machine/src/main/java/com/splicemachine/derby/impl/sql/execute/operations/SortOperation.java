@@ -199,7 +199,7 @@ public class SortOperation extends SpliceBaseOperation{
     @SuppressWarnings({"rawtypes","unchecked"})
     public DataSet<LocatedRow> getDataSet(DataSetProcessor dsp) throws StandardException{
         OperationContext operationContext=dsp.createOperationContext(this);
-        DataSet dataSet=source.getDataSet(dsp);
+        DataSet dataSet=source.getMeasuredDataSet(dsp);
 
         if (distinct) {
             dataSet = dataSet.distinct(OperationContext.Scope.DISTINCT.displayName(),
@@ -28,6 +28,8 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 
+import com.splicemachine.derby.stream.control.spill.SpillBudget;
+import com.splicemachine.derby.stream.function.OperationStatisticsFunction;
 import com.splicemachine.derby.stream.iapi.*;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.apache.commons.lang3.StringUtils;
@@ -81,6 +83,7 @@ public abstract class SpliceBaseOperation implements SpliceOperation, ScopeNamed
     protected RowLocation currentRowLocation;
     protected boolean executed=false;
     protected OperationContext operationContext;
+    protected OperationStatistics operationStatistics;
     protected boolean isOpen=true;
     protected int resultSetNumber;
     protected OperationInformation operationInformation;
@@ -127,6 +130,8 @@ public abstract class SpliceBaseOperation implements SpliceOperation, ScopeNamed
         this.optimizerEstimatedRowCount=in.readDouble();
         this.operationInformation=(OperationInformation)in.readObject();
         isTopResultSet=in.readBoolean();
+        if(in.readBoolean())
+            operationStatistics=(OperationStatistics)in.readObject();
     }
 
     @Override
@@ -136,6 +141,9 @@ public abstract class SpliceBaseOperation implements SpliceOperation, ScopeNamed
         out.writeDouble(optimizerEstimatedRowCount);
         out.writeObject(operationInformation);
         out.writeBoolean(isTopResultSet);
+        out.writeBoolean(operationStatistics!=null);
+        if(operationStatistics!=null)
+            out.writeObject(operationStatistics);
     }
 
     @Override
@@ -395,7 +403,8 @@ public abstract class SpliceBaseOperation implements SpliceOperation, ScopeNamed
                 LOG.trace(String.format("openCore %s",this));
             isOpen=true;
             String sql=activation.getPreparedStatement().getSource();
-            if (!(this instanceof ExplainOperation || activation.isMaterialized()))
+            boolean explainOnly=this instanceof ExplainOperation && !((ExplainOperation)this).isAnalyze();
+            if (!(explainOnly || activation.isMaterialized()))
                 activation.materialize();
             long txnId=getCurrentTransaction().getTxnId();
             sql=sql==null?this.toString():sql;
@@ -415,8 +424,19 @@ public abstract class SpliceBaseOperation implements SpliceOperation, ScopeNamed
         return Thread.currentThread().currentThread().getName().startsWith("olap-worker");
     }
 
+    /**
+     * Start a new spill budget for this execution of the statement, shared by every processor created for
+     * the activation until it is executed again. Only the top operation starts one, so that opening a
+     * subquery does not replace the budget of the query it belongs to.
+     */
+    protected void beginSpillBudget(){
+        if(activation.getResultSet()==this)
+            SpillBudget.beginQuery(activation,EngineDriver.driver().getConfiguration());
+    }
+
     @Override
     public void openCore() throws StandardException{
+        beginSpillBudget();
         DataSetProcessor dsp = EngineDriver.driver().processorFactory().chooseProcessor(activation,this);
         if (dsp.getType() == DataSetProcessor.Type.SPARK && !isOlapServer()) {
             remoteQueryClient = EngineDriver.driver().processorFactory().getRemoteQueryClient(this);
@@ -807,6 +827,25 @@ public abstract class SpliceBaseOperation implements SpliceOperation, ScopeNamed
 
     @Override
     public DataSet<LocatedRow> getResultDataSet(DataSetProcessor dsp) throws StandardException {
-        return getDataSet(dsp);
+        return getMeasuredDataSet(dsp);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public DataSet<LocatedRow> getMeasuredDataSet(DataSetProcessor dsp) throws StandardException {
+        DataSet<LocatedRow> dataSet = getDataSet(dsp);
+        if (operationStatistics == null)
+            return dataSet;
+        return dataSet.mapPartitions(new OperationStatisticsFunction(operationContext, operationStatistics));
+    }
+
+    @Override
+    public OperationStatistics getOperationStatistics(){
+        return operationStatistics;
+    }
+
+    @Override
+    public void setOperationStatistics(OperationStatistics operationStatistics){
+        this.operationStatistics=operationStatistics;
     }
 }
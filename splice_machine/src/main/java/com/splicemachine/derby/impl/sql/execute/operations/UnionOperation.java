@@ -153,8 +153,8 @@ public class UnionOperation extends SpliceBaseOperation {
     @Override
     public DataSet<LocatedRow> getDataSet(DataSetProcessor dsp) throws StandardException {
 		OperationContext operationContext = dsp.createOperationContext(this);
-		DataSet<LocatedRow> left = leftResultSet.getDataSet(dsp);
-		DataSet<LocatedRow> right = rightResultSet.getDataSet(dsp);
+		DataSet<LocatedRow> left = leftResultSet.getMeasuredDataSet(dsp);
+		DataSet<LocatedRow> right = rightResultSet.getMeasuredDataSet(dsp);
 		operationContext.pushScope();
 		DataSet<LocatedRow> result = left
 		    .union(right)
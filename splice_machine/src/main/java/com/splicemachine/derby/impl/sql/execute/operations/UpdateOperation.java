@@ -170,7 +170,7 @@ public class UpdateOperation extends DMLWriteOperation{
     @SuppressWarnings({ "unchecked" })
     @Override
     public DataSet<LocatedRow> getDataSet(DataSetProcessor dsp) throws StandardException{
-        DataSet set=source.getDataSet(dsp);
+        DataSet set=source.getMeasuredDataSet(dsp);
         OperationContext operationContext=dsp.createOperationContext(this);
         TxnView txn=getCurrentTransaction();
         ExecRow execRow=getExecRowDefinition();
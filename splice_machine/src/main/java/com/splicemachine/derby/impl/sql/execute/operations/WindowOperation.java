@@ -124,7 +124,7 @@ public class WindowOperation extends SpliceBaseOperation {
     @Override
     public DataSet<LocatedRow> getDataSet(DataSetProcessor dsp) throws StandardException {
         OperationContext<WindowOperation> operationContext = dsp.createOperationContext(this);
-        DataSet dataSet = source.getDataSet(dsp);
+        DataSet dataSet = source.getMeasuredDataSet(dsp);
         
         operationContext.pushScopeForOp(OperationContext.Scope.SORT_KEYER);
         KeyerFunction f = new KeyerFunction(operationContext, windowContext.getPartitionColumns());
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.operations.batch;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.services.io.StoredFormatIds;
+import com.splicemachine.db.iapi.store.access.Qualifier;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.iapi.types.NumberDataType;
+import com.splicemachine.db.iapi.types.Orderable;
+
+/**
+ * Scan qualifiers evaluated over a whole {@link ColumnBatch} at a time.
+ * <p/>
+ * This gives the same answer as {@link com.splicemachine.derby.utils.Scans#qualifyRecordFromRow} would for each
+ * row of the batch, but compares primitive column values against constants evaluated once, rather than
+ * comparing DataValueDescriptors row by row. Only comparisons of numeric columns against non-null,
+ * invariant, non-DECIMAL constants are supported; {@link #compile} returns {@code null} for anything else,
+ * in which case the caller must qualify the materialized rows instead.
+ */
+public class BatchQualifier{
+    private final Term[] andTerms;
+    private final Term[][] orGroups;
+
+    private BatchQualifier(Term[] andTerms,Term[][] orGroups){
+        this.andTerms=andTerms;
+        this.orGroups=orGroups;
+    }
+
+    /**
+     * @return a qualifier for the batch, or {@code null} if one or more of the qualifiers cannot be evaluated
+     * column-wise.
+     */
+    public static BatchQualifier compile(Qualifier[][] quals,
+                                         int[] baseColumnMap,
+                                         DataValueDescriptor probeValue,
+                                         ColumnBatch batch) throws StandardException{
+        Term[] andTerms=new Term[quals[0].length];
+        for(int i=0;i<andTerms.length;i++){
+            Qualifier q=quals[0][i];
+            q.clearOrderableCache();
+            andTerms[i]=compileTerm(q,probeValue==null || i!=0?q.getOrderable():probeValue,baseColumnMap,batch);
+            if(andTerms[i]==null) return null;
+        }
+        Term[][] orGroups=new Term[quals.length-1][];
+        for(int and_idx=1;and_idx<quals.length;and_idx++){
+            Term[] group=new Term[quals[and_idx].length];
+            for(int or_idx=0;or_idx<group.length;or_idx++){
+                Qualifier q=quals[and_idx][or_idx];
+                q.clearOrderableCache();
+                group[or_idx]=compileTerm(q,q.getOrderable(),baseColumnMap,batch);
+                if(group[or_idx]==null) return null;
+            }
+            orGroups[and_idx-1]=group;
+        }
+        return new BatchQualifier(andTerms,orGroups);
+    }
+
+    /**
+     * Remove the rows which do not qualify from the batch's selection.
+     */
+    public void filter(ColumnBatch batch){
+        int[] selected=batch.selected();
+        int n=batch.numSelected();
+        for(Term term : andTerms){
+            int k=0;
+            for(int i=0;i<n;i++){
+                int row=selected[i];
+                if(term.matches(row))
+                    selected[k++]=row;
+            }
+            n=k;
+        }
+        for(Term[] group : orGroups){
+            int k=0;
+            for(int i=0;i<n;i++){
+                int row=selected[i];
+                for(Term term : group){
+                    if(term.matches(row)){
+                        selected[k++]=row;
+                        break;
+                    }
+                }
+            }
+            n=k;
+        }
+        batch.setNumSelected(n);
+    }
+
+    /*****************************************************************************************************************/
+    /*private helper methods and classes*/
+    private static Term compileTerm(Qualifier q,
+                                    DataValueDescriptor orderable,
+                                    int[] baseColumnMap,
+                                    ColumnBatch batch) throws StandardException{
+        if(q.getVariantType()==Qualifier.VARIANT || q.getOrderedNulls()) return null;
+        if(orderable==null || orderable.isNull()) return null;
+        int op=q.getOperator();
+        if(op<Orderable.ORDER_OP_LESSTHAN || op>Orderable.ORDER_OP_GREATEROREQUALS) return null;
+
+        int pos=baseColumnMap!=null?baseColumnMap[q.getStoragePosition()]:q.getStoragePosition();
+        if(pos<0) return null;
+        ColumnVector column=batch.column(pos);
+        if(column==null) return null;
+
+        int orderableType=orderable.getTypeFormatId();
+        boolean integral=isIntegral(orderableType);
+        if(!integral && orderableType!=StoredFormatIds.SQL_REAL_ID && orderableType!=StoredFormatIds.SQL_DOUBLE_ID)
+            return null;
+
+        if(column instanceof LongColumnVector){
+            if(integral)
+                return new LongTerm((LongColumnVector)column,orderable.getLong(),op,q.negateCompareResult(),q.getUnknownRV());
+            if(orderableType==StoredFormatIds.SQL_DOUBLE_ID)
+                return new DoubleTerm(column,orderable.getDouble(),op,q.negateCompareResult(),q.getUnknownRV());
+            //an integral column against a REAL compares as floats, which a double comparison doesn't reproduce
+            return null;
+        }else if(column instanceof DoubleColumnVector){
+            double constant;
+            if(((DoubleColumnVector)column).isReal() && orderableType!=StoredFormatIds.SQL_DOUBLE_ID)
+                constant=NumberDataType.normalizeREAL(orderable.getFloat());
+            else
+                constant=orderable.getDouble();
+            return new DoubleTerm(column,constant,op,q.negateCompareResult(),q.getUnknownRV());
+        }
+        return null;
+    }
+
+    private static boolean isIntegral(int formatId){
+        switch(formatId){
+            case StoredFormatIds.SQL_TINYINT_ID:
+            case StoredFormatIds.SQL_SMALLINT_ID:
+            case StoredFormatIds.SQL_INTEGER_ID:
+            case StoredFormatIds.SQL_LONGINT_ID:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static abstract class Term{
+        private final ColumnVector column;
+        private final int operator;
+        private final boolean negate;
+        private final boolean nullResult;
+
+        Term(ColumnVector column,int operator,boolean negate,boolean unknownRV){
+            this.column=column;
+            this.operator=operator;
+            this.negate=negate;
+            this.nullResult=negate!=unknownRV;
+        }
+
+        boolean matches(int row){
+            if(column.isNull(row)) return nullResult;
+            int cmp=compare(row);
+            boolean result;
+            switch(operator){
+                case Orderable.ORDER_OP_LESSTHAN:
+                    result=cmp<0;
+                    break;
+                case Orderable.ORDER_OP_EQUALS:
+                    result=cmp==0;
+                    break;
+                case Orderable.ORDER_OP_LESSOREQUALS:
+                    result=cmp<=0;
+                    break;
+                case Orderable.ORDER_OP_GREATERTHAN:
+                    result=cmp>0;
+                    break;
+                default:
+                    result=cmp>=0;
+            }
+            return negate!=result;
+        }
+
+        abstract int compare(int row);
+    }
+
+    private static class LongTerm extends Term{
+        private final LongColumnVector column;
+        private final long constant;
+
+        LongTerm(LongColumnVector column,long constant,int operator,boolean negate,boolean unknownRV){
+            super(column,operator,negate,unknownRV);
+            this.column=column;
+            this.constant=constant;
+        }
+
+        @Override
+        int compare(int row){
+            long value=column.get(row);
+            return value==constant?0:(value<constant?-1:1);
+        }
+    }
+
+    private static class DoubleTerm extends Term{
+        private final LongColumnVector longColumn;
+        private final DoubleColumnVector doubleColumn;
+        private final double constant;
+
+        DoubleTerm(ColumnVector column,double constant,int operator,boolean negate,boolean unknownRV){
+            super(column,operator,negate,unknownRV);
+            this.longColumn=column instanceof LongColumnVector?(LongColumnVector)column:null;
+            this.doubleColumn=column instanceof DoubleColumnVector?(DoubleColumnVector)column:null;
+            this.constant=constant;
+        }
+
+        @Override
+        int compare(int row){
+            double value=longColumn!=null?longColumn.get(row):doubleColumn.get(row);
+            return value==constant?0:(value<constant?-1:1);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.operations.batch;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.derby.utils.marshall.dvd.DescriptorSerializer;
+
+/**
+ * Vector for every other type. It holds a slice of the encoded value for each row (pointing into the
+ * scanned cell, not copied), and defers decoding to the column's serializer until the row is materialized.
+ */
+public class BytesColumnVector extends ColumnVector{
+    private final DescriptorSerializer serializer;
+    private final byte[][] data;
+    private final int[] offsets;
+    private final int[] lengths;
+
+    public BytesColumnVector(DescriptorSerializer serializer,int capacity){
+        super(capacity);
+        this.serializer=serializer;
+        this.data=new byte[capacity][];
+        this.offsets=new int[capacity];
+        this.lengths=new int[capacity];
+    }
+
+    @Override
+    public void decode(int row,byte[] data,int offset,int length){
+        this.data[row]=data;
+        this.offsets[row]=offset;
+        this.lengths[row]=length;
+        setNotNull(row);
+    }
+
+    @Override
+    public void setNull(int row){
+        super.setNull(row);
+        data[row]=null;
+    }
+
+    @Override
+    public void read(int row,DataValueDescriptor dvd) throws StandardException{
+        if(isNull(row))
+            dvd.setToNull();
+        else
+            serializer.decodeDirect(dvd,data[row],offsets[row],lengths[row],false);
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.operations.batch;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.iapi.types.RowLocation;
+import com.splicemachine.derby.impl.store.access.hbase.HBaseRowLocation;
+import com.splicemachine.derby.utils.marshall.dvd.DescriptorSerializer;
+import com.splicemachine.derby.utils.marshall.dvd.VersionedSerializers;
+import com.splicemachine.utils.ByteSlice;
+
+import java.io.IOException;
+
+/**
+ * A batch of scanned rows held column-wise.
+ * <p/>
+ * Each non-null column of the template row has a {@link ColumnVector}, so a qualifier can be evaluated
+ * for every row of the batch in a tight loop over primitive arrays. Rows which survive are tracked in a
+ * selection vector, and only those are turned back into ExecRows with {@link #materialize(int, ExecRow)}.
+ */
+public class ColumnBatch implements AutoCloseable{
+    public static final int DEFAULT_CAPACITY=1024;
+
+    private final ExecRow template;
+    private final ColumnVector[] columns;
+    private final DescriptorSerializer[] serializers;
+    private final int capacity;
+    private int size;
+
+    private final byte[][] keyArrays;
+    private final int[] keyOffsets;
+    private final int[] keyLengths;
+
+    private final int[] selected;
+    private int numSelected;
+
+    public ColumnBatch(ExecRow template,String tableVersion,int capacity){
+        this.template=template;
+        this.capacity=capacity;
+        DataValueDescriptor[] dvds=template.getRowArray();
+        this.serializers=VersionedSerializers.forVersion(tableVersion,false).getSerializers(template);
+        this.columns=new ColumnVector[dvds.length];
+        for(int i=0;i<dvds.length;i++){
+            if(dvds[i]!=null)
+                columns[i]=ColumnVector.newVector(dvds[i],serializers[i],capacity);
+        }
+        this.keyArrays=new byte[capacity][];
+        this.keyOffsets=new int[capacity];
+        this.keyLengths=new int[capacity];
+        this.selected=new int[capacity];
+    }
+
+    public ExecRow getTemplate(){
+        return template;
+    }
+
+    /**
+     * @return the vector for the (0-based) template position, or {@code null} if the template
+     * does not read that column.
+     */
+    public ColumnVector column(int position){
+        return columns[position];
+    }
+
+    public int capacity(){
+        return capacity;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public boolean isFull(){
+        return size>=capacity;
+    }
+
+    public void reset(){
+        size=0;
+        numSelected=0;
+    }
+
+    /**
+     * Start a new row at the end of the batch, with every column null until it is decoded.
+     *
+     * @return the index of the new row
+     */
+    public int startRow(){
+        for(ColumnVector column : columns){
+            if(column!=null)
+                column.setNull(size);
+        }
+        return size;
+    }
+
+    /**
+     * Keep the row started by {@link #startRow()}. A row which is not finished is overwritten by the next one.
+     */
+    public void finishRow(byte[] keyArray,int keyOffset,int keyLength){
+        keyArrays[size]=keyArray;
+        keyOffsets[size]=keyOffset;
+        keyLengths[size]=keyLength;
+        size++;
+    }
+
+    public void selectAll(){
+        for(int i=0;i<size;i++){
+            selected[i]=i;
+        }
+        numSelected=size;
+    }
+
+    public int[] selected(){
+        return selected;
+    }
+
+    public int numSelected(){
+        return numSelected;
+    }
+
+    public void setNumSelected(int numSelected){
+        this.numSelected=numSelected;
+    }
+
+    /**
+     * @return a new row of the template's shape, suitable for handing to {@link #materialize(int, ExecRow)}
+     */
+    public ExecRow newRow(){
+        return template.getNewNullRow();
+    }
+
+    public void materialize(int row,ExecRow destination) throws StandardException{
+        DataValueDescriptor[] dvds=destination.getRowArray();
+        for(int i=0;i<columns.length;i++){
+            if(columns[i]!=null)
+                columns[i].read(row,dvds[i]);
+        }
+    }
+
+    public RowLocation rowLocation(int row){
+        return new HBaseRowLocation(ByteSlice.wrap(keyArrays[row],keyOffsets[row],keyLengths[row]));
+    }
+
+    @Override
+    public void close(){
+        for(DescriptorSerializer serializer : serializers){
+            try{ serializer.close(); }catch(IOException ignored){ }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.operations.batch;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.services.io.StoredFormatIds;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.derby.utils.marshall.dvd.DescriptorSerializer;
+
+/**
+ * The values of a single column for every row of a {@link ColumnBatch}, together with a bitmap
+ * of which rows are null.
+ * <p/>
+ * Values are decoded straight from their stored (row-value) encoding, without going through a
+ * {@link DataValueDescriptor}. A value only becomes a DataValueDescriptor again when a row is materialized.
+ */
+public abstract class ColumnVector{
+    protected final int capacity;
+    private final long[] nulls;
+
+    protected ColumnVector(int capacity){
+        this.capacity=capacity;
+        this.nulls=new long[(capacity+63)>>>6];
+    }
+
+    public static ColumnVector newVector(DataValueDescriptor template,DescriptorSerializer serializer,int capacity){
+        int formatId=template.getTypeFormatId();
+        switch(formatId){
+            case StoredFormatIds.SQL_TINYINT_ID:
+            case StoredFormatIds.SQL_SMALLINT_ID:
+            case StoredFormatIds.SQL_INTEGER_ID:
+            case StoredFormatIds.SQL_LONGINT_ID:
+                return new LongColumnVector(formatId,capacity);
+            case StoredFormatIds.SQL_REAL_ID:
+                return new DoubleColumnVector(true,capacity);
+            case StoredFormatIds.SQL_DOUBLE_ID:
+                return new DoubleColumnVector(false,capacity);
+            default:
+                return new BytesColumnVector(serializer,capacity);
+        }
+    }
+
+    public int capacity(){
+        return capacity;
+    }
+
+    public boolean isNull(int row){
+        return (nulls[row>>>6]&(1L<<row))!=0;
+    }
+
+    public void setNull(int row){
+        nulls[row>>>6]|=1L<<row;
+    }
+
+    protected void setNotNull(int row){
+        nulls[row>>>6]&=~(1L<<row);
+    }
+
+    /**
+     * Set the value of {@code row} from its stored encoding.
+     */
+    public abstract void decode(int row,byte[] data,int offset,int length);
+
+    /**
+     * Set {@code dvd} to the value of {@code row}.
+     */
+    public abstract void read(int row,DataValueDescriptor dvd) throws StandardException;
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.operations.batch;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.encoding.Encoding;
+
+/**
+ * Vector for REAL and DOUBLE columns. REAL values are held widened to double, which is exact.
+ */
+public class DoubleColumnVector extends ColumnVector{
+    private final boolean real;
+    private final double[] values;
+
+    public DoubleColumnVector(boolean real,int capacity){
+        super(capacity);
+        this.real=real;
+        this.values=new double[capacity];
+    }
+
+    public boolean isReal(){
+        return real;
+    }
+
+    public double get(int row){
+        return values[row];
+    }
+
+    public void set(int row,double value){
+        values[row]=value;
+        setNotNull(row);
+    }
+
+    @Override
+    public void decode(int row,byte[] data,int offset,int length){
+        set(row,real?Encoding.decodeFloat(data,offset,false):Encoding.decodeDouble(data,offset,false));
+    }
+
+    @Override
+    public void read(int row,DataValueDescriptor dvd) throws StandardException{
+        if(isNull(row))
+            dvd.setToNull();
+        else if(real)
+            dvd.setValue((float)values[row]);
+        else
+            dvd.setValue(values[row]);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.operations.batch;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.services.io.StoredFormatIds;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.encoding.Encoding;
+
+/**
+ * Vector for the integral types (TINYINT, SMALLINT, INTEGER and BIGINT), which all share the same
+ * scalar encoding.
+ */
+public class LongColumnVector extends ColumnVector{
+    private final int formatId;
+    private final long[] values;
+
+    public LongColumnVector(int formatId,int capacity){
+        super(capacity);
+        this.formatId=formatId;
+        this.values=new long[capacity];
+    }
+
+    public long get(int row){
+        return values[row];
+    }
+
+    public void set(int row,long value){
+        values[row]=value;
+        setNotNull(row);
+    }
+
+    @Override
+    public void decode(int row,byte[] data,int offset,int length){
+        set(row,Encoding.decodeLong(data,offset,false));
+    }
+
+    @Override
+    public void read(int row,DataValueDescriptor dvd) throws StandardException{
+        if(isNull(row))
+            dvd.setToNull();
+        else if(formatId==StoredFormatIds.SQL_LONGINT_ID)
+            dvd.setValue(values[row]);
+        else
+            dvd.setValue((int)values[row]);
+    }
+}
@@ -187,7 +187,7 @@ public class BatchOnceOperation extends SpliceBaseOperation {
 
     @Override
     public DataSet<LocatedRow> getDataSet(DataSetProcessor dsp) throws StandardException {
-        DataSet set = source.getDataSet(dsp);
+        DataSet set = source.getMeasuredDataSet(dsp);
         OperationContext<BatchOnceOperation> operationContext = dsp.createOperationContext(this);
         return set.mapPartitions(new BatchOnceFunction(operationContext));
     }
@@ -183,7 +183,7 @@ public class ExportOperation extends SpliceBaseOperation {
     public DataSet<LocatedRow> getDataSet(DataSetProcessor dsp) throws StandardException {
         if (LOG.isTraceEnabled())
             SpliceLogUtils.trace(LOG, "getDataSet(): begin");
-        DataSet<LocatedRow> dataset = source.getDataSet(dsp);
+        DataSet<LocatedRow> dataset = source.getMeasuredDataSet(dsp);
         OperationContext<ExportOperation> operationContext = dsp.createOperationContext(this);
         DataSetWriter writer = dataset.writeToDisk()
             .directory(exportParams.getDirectory())
@@ -24,6 +24,8 @@ import com.splicemachine.db.iapi.services.io.FormatableBitSet;
 import com.splicemachine.db.iapi.services.io.StoredFormatIds;
 import com.splicemachine.db.iapi.sql.execute.ExecRow;
 import com.splicemachine.db.iapi.types.RowLocation;
+import com.splicemachine.derby.impl.sql.execute.operations.batch.ColumnBatch;
+import com.splicemachine.derby.impl.store.ColumnBatchAccumulator;
 import com.splicemachine.derby.impl.store.ExecRowAccumulator;
 import com.splicemachine.derby.impl.store.access.hbase.HBaseRowLocation;
 import com.splicemachine.derby.utils.StandardIterator;
@@ -35,6 +37,7 @@ import com.splicemachine.si.api.filter.SIFilter;
 import com.splicemachine.si.api.server.TransactionalRegion;
 import com.splicemachine.si.api.txn.TxnView;
 import com.splicemachine.si.constants.SIConstants;
+import com.splicemachine.si.impl.driver.SIDriver;
 import com.splicemachine.si.impl.filter.HRowAccumulator;
 import com.splicemachine.si.impl.txn.DDLTxnView;
 import com.splicemachine.si.impl.filter.PackedTxnFilter;
@@ -46,6 +49,8 @@ import com.splicemachine.utils.SpliceLogUtils;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.apache.log4j.Logger;
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
@@ -83,6 +88,11 @@ public class SITableScanner<Data> implements StandardIterator<ExecRow>,AutoClose
     private final Counter outputBytesCounter;
     private long demarcationPoint;
     private DataValueDescriptor optionalProbeValue;
+    private ColumnBatch batch;
+    private ColumnBatchAccumulator batchAccumulator;
+    private SIFilter batchFilter;
+    private final int prefetchRows;
+    private final ArrayDeque<List<DataCell>> readAhead=new ArrayDeque<>();
 
     protected SITableScanner(DataScanner scanner,
                              final TransactionalRegion region,
@@ -116,6 +126,8 @@ public class SITableScanner<Data> implements StandardIterator<ExecRow>,AutoClose
         this.keyDecoderProvider = getKeyDecoder(accessedPks, keyColumnEncodingOrder,
                 keyColumnTypes, VersionedSerializers.typesForVersion(tableVersion));
         this.tableVersion = tableVersion;
+        SIDriver driver = SIDriver.driver();
+        this.prefetchRows = driver==null?1:driver.getConfiguration().getScanTxnPrefetchRows();
         if(filterFactory==null){
             this.filterFactory = createFilterFactory(txn, demarcationPoint);
         }
@@ -180,7 +192,7 @@ public class SITableScanner<Data> implements StandardIterator<ExecRow>,AutoClose
         SIFilter filter = getSIFilter();
         do{
             template.resetRowArray(); //necessary to deal with null entries--maybe make the underlying call faster?
-            List<DataCell> keyValues=regionScanner.next(-1);
+            List<DataCell> keyValues=nextRowCells(filter);
 
             if(keyValues.size()<=0){
                 currentRowLocation = null;
@@ -209,6 +221,49 @@ public class SITableScanner<Data> implements StandardIterator<ExecRow>,AutoClose
         }while(true); //TODO -sf- this doesn't seem quite right
     }
 
+    /**
+     * @return true if rows can be read column-wise with {@link #nextBatch(ColumnBatch)}. This is the case
+     * when every column comes from the row value; rows whose columns are decoded from the row key (primary
+     * key columns, or the base row location of an index) must be read with {@link #next()}.
+     */
+    public boolean supportsBatches(){
+        return !isKeyed && indexName==null && rowDecodingMap!=null && template.nColumns()>0;
+    }
+
+    public ColumnBatch newBatch(int capacity){
+        assert supportsBatches():"Scanner cannot read batches";
+        if(batch==null)
+            batch=new ColumnBatch(template,tableVersion,capacity);
+        return batch;
+    }
+
+    /**
+     * Fill {@code batch} with the next visible rows, stopping when it is full or the scan is exhausted. The batch
+     * must have been created by {@link #newBatch(int)}, and all of its rows are initially selected.
+     *
+     * @return the number of rows in the batch; 0 when the scan is exhausted.
+     */
+    public int nextBatch(ColumnBatch batch) throws StandardException, IOException{
+        SIFilter filter=getBatchFilter(batch);
+        batch.reset();
+        while(!batch.isFull()){
+            List<DataCell> keyValues=nextRowCells(filter);
+            if(keyValues.size()<=0)
+                break;
+            batchAccumulator.setCurrentRow(batch.startRow());
+            if(!filterRow(filter,keyValues)){
+                filterCounter.increment();
+                continue;
+            }
+            measureOutputSize(keyValues);
+            DataCell first=keyValues.get(0);
+            batch.finishRow(first.keyArray(),first.keyOffset(),first.keyLength());
+        }
+        currentRowLocation=null;
+        batch.selectAll();
+        return batch.size();
+    }
+
     public long getBytesOutput(){
         return outputBytesCounter.getTotal();
     }
@@ -250,6 +305,8 @@ public class SITableScanner<Data> implements StandardIterator<ExecRow>,AutoClose
             keyAccumulator.close();
         if(siFilter!=null)
             siFilter.getAccumulator().close();
+        if(batch!=null)
+            batch.close();
         if (regionScanner != null)
             regionScanner.close();
     }
@@ -350,6 +407,18 @@ public class SITableScanner<Data> implements StandardIterator<ExecRow>,AutoClose
         return siFilter;
     }
 
+    @SuppressWarnings("unchecked")
+    private SIFilter getBatchFilter(ColumnBatch batch) throws IOException {
+        if(batchFilter==null) {
+            boolean isCountStar = scan.getAttribute(SIConstants.SI_COUNT_STAR)!=null;
+            if(predicateFilter==null)
+                predicateFilter= buildInitialPredicateFilter();
+            batchAccumulator = ColumnBatchAccumulator.newAccumulator(predicateFilter, batch, rowDecodingMap);
+            batchFilter = filterFactory.newFilter(predicateFilter,getRowEntryDecoder(),batchAccumulator,isCountStar);
+        }
+        return batchFilter;
+    }
+
     protected EntryDecoder getRowEntryDecoder() {
         return new EntryDecoder();
     }
@@ -402,6 +471,46 @@ public class SITableScanner<Data> implements StandardIterator<ExecRow>,AutoClose
         }
     }
 
+    /**
+     * Read the next row from the region scanner. Rows which the filter can resolve from its cache are returned
+     * as they are. When a row needs a transaction lookup, the rows after it are read ahead in a block, so
+     * that the transactions which wrote the block can be looked up together.
+     */
+    private List<DataCell> nextRowCells(SIFilter filter) throws IOException {
+        List<DataCell> next=readAhead.poll();
+        if(next!=null) return next;
+        List<DataCell> cells=regionScanner.next(-1);
+        if(prefetchRows<=1 || cells.size()<=0 || !(filter instanceof TxnFilter))
+            return cells;
+        TxnFilter txnFilter=(TxnFilter)filter;
+        if(!txnFilter.needsLookup(cells))
+            return cells;
+
+        List<List<DataCell>> rows=new ArrayList<>(prefetchRows);
+        rows.add(copy(cells));
+        while(rows.size()<prefetchRows){
+            cells=regionScanner.next(-1);
+            if(cells.size()<=0) break;
+            rows.add(copy(cells));
+        }
+        if(rows.size()>1)
+            txnFilter.prefetch(rows);
+        readAhead.addAll(rows);
+        return readAhead.poll();
+    }
+
+    /*
+     * the scanner reuses its row buffer (and some scanners reuse the cell wrappers too), so
+     * we have to hold on to a copy of each cell which is read ahead
+     */
+    private static List<DataCell> copy(List<DataCell> cells){
+        List<DataCell> copy=new ArrayList<>(cells.size());
+        for(DataCell cell:cells){
+            copy.add(cell.getClone());
+        }
+        return copy;
+    }
+
     @SuppressFBWarnings(value = "SF_SWITCH_NO_DEFAULT",justification = "Intentional")
     private boolean filterRow(SIFilter filter,List<DataCell> keyValues) throws IOException {
         filter.nextRow();
@@ -74,6 +74,13 @@ public abstract class TableScannerBuilder<V> implements Externalizable, ScanSetB
     protected OperationContext operationContext;
     protected int[] fieldLengths;
     protected int[] columnPositionMap;
+    protected double sampleFraction=1d;
+    protected long sampleRowBudget=0l;
+    /*
+     * The number of rows each row read by a statistics scan stands for. This is chosen where the scan
+     * runs, when it decides which blocks of the region to read, so it is not serialized.
+     */
+    protected transient long sampleWeight=1l;
     protected long baseTableConglomId=-1l;
     protected long demarcationPoint=-1;
     protected boolean oneSplitPerRegion=false;
@@ -321,6 +328,23 @@ public abstract class TableScannerBuilder<V> implements Externalizable, ScanSetB
         return this;
     }
 
+    @Override
+    public ScanSetBuilder<V> sampleFraction(double sampleFraction){
+        this.sampleFraction=sampleFraction;
+        return this;
+    }
+
+    @Override
+    public ScanSetBuilder<V> sampleRowBudget(long sampleRowBudget){
+        this.sampleRowBudget=sampleRowBudget;
+        return this;
+    }
+
+    public TableScannerBuilder<V> sampleWeight(long sampleWeight){
+        this.sampleWeight=sampleWeight;
+        return this;
+    }
+
     @Override
     public ScanSetBuilder<V> baseTableConglomId(long baseTableConglomId){
         this.baseTableConglomId=baseTableConglomId;
@@ -358,7 +382,8 @@ public abstract class TableScannerBuilder<V> implements Externalizable, ScanSetB
                     tableVersion,
                     filterFactory,
                     fieldLengths,
-                    columnPositionMap);
+                    columnPositionMap,
+                    sampleWeight);
         }else{
             return new SITableScanner(
                     scanner,
@@ -456,6 +481,8 @@ public abstract class TableScannerBuilder<V> implements Externalizable, ScanSetB
                     out.writeInt(columnPositionMap[i]);
                 }
                 out.writeLong(baseTableConglomId);
+                out.writeDouble(sampleFraction);
+                out.writeLong(sampleRowBudget);
             }
             out.writeLong(demarcationPoint);
             out.writeBoolean(optionalProbeValue !=null);
@@ -536,6 +563,8 @@ public abstract class TableScannerBuilder<V> implements Externalizable, ScanSetB
                     columnPositionMap[i]=in.readInt();
                 }
                 baseTableConglomId=in.readLong();
+                sampleFraction=in.readDouble();
+                sampleRowBudget=in.readLong();
             }
             demarcationPoint=in.readLong();
             if (in.readBoolean())
@@ -605,6 +634,22 @@ public abstract class TableScannerBuilder<V> implements Externalizable, ScanSetB
         return operationContext;
     }
 
+    /**
+     * @return the lengths of the columns a statistics scan collects, or null if this is not a statistics scan
+     */
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP",justification = "Intentional")
+    public int[] getFieldLengths(){
+        return fieldLengths;
+    }
+
+    public double getSampleFraction(){
+        return sampleFraction;
+    }
+
+    public long getSampleRowBudget(){
+        return sampleRowBudget;
+    }
+
     public long getDemarcationPoint() {
         return this.demarcationPoint;
     }
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.impl.store;
+
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.derby.impl.sql.execute.operations.batch.ColumnBatch;
+import com.splicemachine.si.constants.SIConstants;
+import com.splicemachine.storage.ByteEntryAccumulator;
+import com.splicemachine.storage.EntryPredicateFilter;
+import com.carrotsearch.hppc.BitSet;
+
+/**
+ * Accumulator which decodes the fields of a row into the column vectors of a {@link ColumnBatch},
+ * rather than into the DataValueDescriptors of an ExecRow as {@link ExecRowAccumulator} does.
+ * <p/>
+ * The row being filled is chosen with {@link #setCurrentRow(int)} before each row is accumulated.
+ */
+public class ColumnBatchAccumulator extends ByteEntryAccumulator{
+    private final ColumnBatch batch;
+    private final int[] columnMap;
+    private int currentRow;
+
+    private ColumnBatchAccumulator(EntryPredicateFilter predicateFilter,
+                                   BitSet fieldsToCollect,
+                                   ColumnBatch batch,
+                                   int[] columnMap){
+        super(predicateFilter,false,fieldsToCollect);
+        this.batch=batch;
+        this.columnMap=columnMap;
+    }
+
+    public static ColumnBatchAccumulator newAccumulator(EntryPredicateFilter predicateFilter,
+                                                        ColumnBatch batch,
+                                                        int[] columnMap){
+        DataValueDescriptor[] dvds=batch.getTemplate().getRowArray();
+        BitSet fieldsToCollect=new BitSet(dvds.length);
+        for(int i=0;i<columnMap.length;i++){
+            int pos=columnMap[i];
+            if(pos<0) continue;
+            if(dvds[pos]!=null)
+                fieldsToCollect.set(i);
+        }
+        return new ColumnBatchAccumulator(predicateFilter,fieldsToCollect,batch,columnMap);
+    }
+
+    public void setCurrentRow(int currentRow){
+        this.currentRow=currentRow;
+    }
+
+    @Override
+    protected void occupy(int position,byte[] data,int offset,int length){
+        decode(position,data,offset,length);
+        super.occupy(position,data,offset,length);
+    }
+
+    @Override
+    protected void occupyDouble(int position,byte[] data,int offset,int length){
+        decode(position,data,offset,length);
+        super.occupyDouble(position,data,offset,length);
+    }
+
+    @Override
+    protected void occupyFloat(int position,byte[] data,int offset,int length){
+        decode(position,data,offset,length);
+        super.occupyFloat(position,data,offset,length);
+    }
+
+    @Override
+    protected void occupyScalar(int position,byte[] data,int offset,int length){
+        decode(position,data,offset,length);
+        super.occupyScalar(position,data,offset,length);
+    }
+
+    @Override
+    public byte[] finish(){
+        return SIConstants.EMPTY_BYTE_ARRAY;
+    }
+
+    private void decode(int position,byte[] data,int offset,int length){
+        batch.column(columnMap[position]).decode(currentRow,data,offset,length);
+    }
+}
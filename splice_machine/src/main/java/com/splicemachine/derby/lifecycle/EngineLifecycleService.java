@@ -18,6 +18,7 @@ package com.splicemachine.derby.lifecycle;
 import javax.management.InstanceAlreadyExistsException;
 import javax.management.MBeanServer;
 import javax.management.ObjectName;
+import java.io.File;
 import java.io.IOException;
 import java.sql.Connection;
 import java.util.Properties;
@@ -28,12 +29,17 @@ import com.splicemachine.EngineDriver;
 import com.splicemachine.SqlEnvironment;
 import com.splicemachine.access.api.DatabaseVersion;
 import com.splicemachine.access.api.SConfiguration;
+import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.reference.Property;
+import com.splicemachine.db.iapi.sql.dictionary.DataDictionary;
 import com.splicemachine.db.impl.jdbc.EmbedConnection;
+import com.splicemachine.db.impl.sql.PersistentPlanStore;
+import com.splicemachine.derby.ddl.DDLChangeVersionSource;
 import com.splicemachine.derby.ddl.DDLDriver;
 import com.splicemachine.derby.ddl.DDLEnvironmentLoader;
 import com.splicemachine.derby.impl.db.SpliceDatabase;
 import com.splicemachine.derby.impl.store.access.SpliceAccessManager;
+import com.splicemachine.hbase.jmx.JMXUtils;
 import com.splicemachine.lifecycle.DatabaseLifecycleService;
 import com.splicemachine.pipeline.ContextFactoryDriverService;
 import com.splicemachine.pipeline.DerbyContextFactoryLoader;
@@ -41,6 +47,8 @@ import com.splicemachine.pipeline.PipelineDriver;
 import com.splicemachine.pipeline.contextfactory.ContextFactoryDriver;
 import com.splicemachine.pipeline.contextfactory.ContextFactoryLoader;
 import com.splicemachine.pipeline.contextfactory.ReferenceCountingFactoryDriver;
+import com.splicemachine.si.api.txn.TransactionCacheManagement;
+import com.splicemachine.si.api.txn.TxnSupplier;
 import com.splicemachine.si.impl.driver.SIDriver;
 import com.splicemachine.tools.EmbedConnectionMaker;
 import com.splicemachine.tools.version.ManifestReader;
@@ -120,6 +128,7 @@ public class EngineLifecycleService implements DatabaseLifecycleService{
         DDLDriver.loadDriver(DDLEnvironmentLoader.loadEnvironment(configuration,EngineDriver.driver().getExceptionFactory()));
         SpliceDatabase db = (SpliceDatabase)((EmbedConnection)internalConnection).getLanguageConnection().getDatabase();
         db.registerDDL();
+        startPlanStore(((EmbedConnection)internalConnection).getLanguageConnection().getDataDictionary());
         logging = new LogManager();
     }
 
@@ -138,6 +147,24 @@ public class EngineLifecycleService implements DatabaseLifecycleService{
              * this exception and don't worry about it too much.
              */
         }
+
+        TxnSupplier txnSupplier=SIDriver.driver().getTxnSupplier();
+        if(txnSupplier instanceof TransactionCacheManagement){
+            try{
+                ObjectName on=new ObjectName(JMXUtils.TRANSACTION_CACHE_MANAGEMENT);
+                mbs.registerMBean(txnSupplier,on);
+            }catch(InstanceAlreadyExistsException ignored){
+                //the transaction cache is shared by everything in this JVM, so it only needs registering once
+            }
+        }
+
+        try{
+            DataDictionary dd=((EmbedConnection)internalConnection).getLanguageConnection().getDataDictionary();
+            ObjectName on=new ObjectName(JMXUtils.DATA_DICTIONARY_CACHE_MANAGEMENT);
+            mbs.registerMBean(dd.getDataDictionaryCache().getManagement(),on);
+        }catch(InstanceAlreadyExistsException ignored){
+            //only one database is booted in a JVM
+        }
     }
 
     @Override
@@ -158,6 +185,23 @@ public class EngineLifecycleService implements DatabaseLifecycleService{
         }
     }
 
+    private void startPlanStore(DataDictionary dd){
+        String directory=configuration.getPlanStoreDirectory();
+        if(directory==null)
+            return;
+        DDLDriver ddlDriver=DDLDriver.driver();
+        DDLChangeVersionSource versionSource=new DDLChangeVersionSource(ddlDriver.ddlController(),spliceVersion.getImplementationVersion());
+        ddlDriver.ddlWatcher().registerDDLListener(versionSource);
+        try{
+            PersistentPlanStore planStore=new PersistentPlanStore(new File(directory),versionSource,configuration.getPlanStoreMaxEntries());
+            planStore.warm();
+            dd.getDataDictionaryCache().setPlanStore(planStore);
+        }catch(IOException|StandardException e){
+            ddlDriver.ddlWatcher().unregisterDDLListener(versionSource);
+            LOG.warn("Unable to open plan store in "+directory+", compiled plans will not be persisted",e);
+        }
+    }
+
     private void loadManifest(){
         manifestReader = new ManifestReader();
         spliceVersion = manifestReader.createVersion();
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.management;
+
+import javax.management.MXBean;
+
+/**
+ * Exposes the state of the broadcast join cache of a single server over JMX.
+ */
+@MXBean
+public interface BroadcastJoinCacheManagement{
+
+    /**
+     * @return the number of times a broadcast join found its inner table already in the cache (or
+     * already being loaded by another join).
+     */
+    long getHitCount();
+
+    /**
+     * @return the number of times a broadcast join had to load its inner table.
+     */
+    long getMissCount();
+
+    double getHitRate();
+
+    /**
+     * @return the number of inner tables which were removed from the cache, either to stay under its size
+     * limit or because they went unused for too long.
+     */
+    long getEvictionCount();
+
+    /**
+     * @return the average time (in milliseconds) taken to load an inner table.
+     */
+    double getAverageLoadTime();
+
+    long getCachedEntries();
+
+    /**
+     * @return the (estimated) number of bytes held by the inner tables currently in the cache.
+     */
+    long getCachedBytes();
+
+    long getMaxCachedBytes();
+
+    /**
+     * Remove all tables from the cache. Tables which are in use remain valid until their joins complete.
+     */
+    void invalidateAll();
+}
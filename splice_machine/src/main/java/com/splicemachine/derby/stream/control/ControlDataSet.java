@@ -26,6 +26,8 @@ import com.splicemachine.access.api.DistributedFileSystem;
 import com.splicemachine.db.iapi.sql.Activation;
 import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
 import com.splicemachine.derby.stream.control.output.ControlExportDataSetWriter;
+import com.splicemachine.derby.stream.control.spill.SpillBudget;
+import com.splicemachine.derby.stream.control.spill.SpillableMultimap;
 import com.splicemachine.derby.stream.function.*;
 import com.splicemachine.derby.stream.iapi.DataSet;
 import com.splicemachine.derby.stream.iapi.OperationContext;
@@ -56,8 +58,10 @@ import static com.splicemachine.derby.stream.control.ControlUtils.entryToTuple;
 public class ControlDataSet<V> implements DataSet<V> {
     protected Iterator<V> iterator;
     protected Map<String,String> attributes;
-    public ControlDataSet(Iterator<V> iterator) {
+    protected final SpillBudget budget;
+    public ControlDataSet(Iterator<V> iterator, SpillBudget budget) {
         this.iterator = iterator;
+        this.budget = budget;
     }
 
     @Override
@@ -73,7 +77,7 @@ public class ControlDataSet<V> implements DataSet<V> {
     @Override
     public <Op extends SpliceOperation, U> DataSet<U> mapPartitions(SpliceFlatMapFunction<Op,Iterator<V>, U> f) {
         try {
-            return new ControlDataSet<>(f.call(iterator));
+            return new ControlDataSet<>(f.call(iterator),budget);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -91,12 +95,38 @@ public class ControlDataSet<V> implements DataSet<V> {
 
     @Override
     public DataSet<V> distinct() {
-        return new ControlDataSet<>(Sets.<V>newHashSet(iterator).iterator());
+        return distinct(null);
     }
 
     @Override
     public DataSet<V> distinct(String name, boolean isLast, OperationContext context, boolean pushScope, String scopeDetail) {
-        return distinct();
+        return distinct(context);
+    }
+
+    private DataSet<V> distinct(OperationContext context) {
+        SpillableMultimap<V,Boolean> seen = new SpillableMultimap<>(budget,context);
+        try {
+            while (iterator.hasNext()) {
+                V v = iterator.next();
+                if (seen.isSpilled() || seen.get(v).isEmpty())
+                    seen.put(v,Boolean.TRUE);
+            }
+            return new ControlDataSet<>(Iterators.transform(seen.entries(),new Function<Map.Entry<V, Collection<Boolean>>, V>() {
+                @Nullable
+                @Override
+                public V apply(@Nullable Map.Entry<V, Collection<Boolean>> e) {
+                    assert e!=null: "E cannot be null";
+                    return e.getKey();
+                }
+            }),budget);
+        } catch (IOException e) {
+            seen.close();
+            throw new RuntimeException(e);
+        }
+    }
+
+    public SpillBudget getSpillBudget() {
+        return budget;
     }
 
     public <Op extends SpliceOperation, K,U>PairDataSet<K, U> index(final SplicePairFunction<Op,V,K,U> function) {
@@ -110,7 +140,7 @@ public class ControlDataSet<V> implements DataSet<V> {
                     throw new RuntimeException(e);
                 }
             }
-        }));
+        }),budget,function.operationContext);
     }
 
     @Override
@@ -125,7 +155,7 @@ public class ControlDataSet<V> implements DataSet<V> {
 
     @Override
     public <Op extends SpliceOperation, U> DataSet<U> map(SpliceFunction<Op,V,U> function) {
-        return new ControlDataSet<U>(Iterators.transform(iterator, function));
+        return new ControlDataSet<U>(Iterators.transform(iterator, function),budget);
     }
 
     @Override
@@ -145,7 +175,7 @@ public class ControlDataSet<V> implements DataSet<V> {
 
     @Override
     public <Op extends SpliceOperation, K> PairDataSet<K, V> keyBy(final SpliceFunction<Op, V, K> function) {
-        return new ControlPairDataSet<>(entryToTuple(Multimaps.index(iterator,function).entries()));
+        return new ControlPairDataSet<>(entryToTuple(Multimaps.index(iterator,function).entries()),budget,function.operationContext);
     }
 
     @Override
@@ -171,7 +201,7 @@ public class ControlDataSet<V> implements DataSet<V> {
 
     @Override
     public DataSet<V> union(DataSet< V> dataSet) {
-        return new ControlDataSet<>(Iterators.concat(iterator, ((ControlDataSet<V>) dataSet).iterator));
+        return new ControlDataSet<>(Iterators.concat(iterator, ((ControlDataSet<V>) dataSet).iterator),budget);
     }
 
     @Override
@@ -181,7 +211,7 @@ public class ControlDataSet<V> implements DataSet<V> {
 
     @Override
     public <Op extends SpliceOperation> DataSet< V> filter(SplicePredicateFunction<Op, V> f) {
-        return new ControlDataSet<>(Iterators.filter(iterator,f));
+        return new ControlDataSet<>(Iterators.filter(iterator,f),budget);
     }
 
     @Override
@@ -195,14 +225,14 @@ public class ControlDataSet<V> implements DataSet<V> {
         Set<V> left=Sets.newHashSet(iterator);
         Set<V> right=Sets.newHashSet(((ControlDataSet<V>)dataSet).iterator);
         Sets.SetView<V> intersection=Sets.intersection(left,right);
-        return new ControlDataSet<>(intersection.iterator());
+        return new ControlDataSet<>(intersection.iterator(),budget);
     }
 
     @Override
     public DataSet< V> subtract(DataSet< V> dataSet) {
         Set<V> left=Sets.newHashSet(iterator);
         Set<V> right=Sets.newHashSet(((ControlDataSet<V>)dataSet).iterator);
-        return new ControlDataSet<>(Sets.difference(left,right).iterator());
+        return new ControlDataSet<>(Sets.difference(left,right).iterator(),budget);
     }
 
     @Override
@@ -212,7 +242,7 @@ public class ControlDataSet<V> implements DataSet<V> {
 
     @Override
     public <Op extends SpliceOperation,U> DataSet<U> flatMap(SpliceFlatMapFunction<Op, V, U> f) {
-        return new ControlDataSet(Iterators.concat(Iterators.transform(iterator,f)));
+        return new ControlDataSet(Iterators.concat(Iterators.transform(iterator,f)),budget);
     }
 
     @Override
@@ -233,7 +263,7 @@ public class ControlDataSet<V> implements DataSet<V> {
     @Override
     public <Op extends SpliceOperation> DataSet<V> take(TakeFunction<Op,V> f) {
         try {
-            return new ControlDataSet<>(f.call(iterator));
+            return new ControlDataSet<>(f.call(iterator),budget);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -276,7 +306,7 @@ public class ControlDataSet<V> implements DataSet<V> {
             public Tuple2<V, Long> apply(@Nullable V v) {
                 return new Tuple2<>(v, counter++);
             }
-        }));
+        }),budget);
     }
 
     @Override
@@ -40,10 +40,12 @@ import com.splicemachine.db.iapi.sql.execute.ExecRow;
 import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
 import com.splicemachine.derby.impl.sql.execute.operations.LocatedRow;
 import com.splicemachine.derby.impl.sql.execute.operations.scanner.TableScannerBuilder;
+import com.splicemachine.derby.stream.control.spill.SpillBudget;
 import com.splicemachine.derby.stream.function.Partitioner;
 import com.splicemachine.derby.stream.iapi.DataSet;
 import com.splicemachine.derby.stream.iapi.DataSetProcessor;
 import com.splicemachine.derby.stream.iapi.OperationContext;
+import com.splicemachine.derby.stream.iapi.OperationStatistics;
 import com.splicemachine.derby.stream.iapi.PairDataSet;
 import com.splicemachine.derby.stream.iapi.ScanSetBuilder;
 import com.splicemachine.derby.stream.iterator.TableScannerIterator;
@@ -73,13 +75,21 @@ public class ControlDataSetProcessor implements DataSetProcessor{
     protected final TxnSupplier txnSupplier;
     protected final Transactor transactory;
     protected final TxnOperationFactory txnOperationFactory;
+    /*
+     * The memory available to materializing operations (hash joins, group-bys, distincts)
+     * executed through this processor before they start spilling to local disk. This is the budget
+     * of the whole query, shared with every other processor created for it.
+     */
+    protected final SpillBudget spillBudget;
 
     public ControlDataSetProcessor(TxnSupplier txnSupplier,
                                    Transactor transactory,
-                                   TxnOperationFactory txnOperationFactory){
+                                   TxnOperationFactory txnOperationFactory,
+                                   SpillBudget spillBudget){
         this.txnSupplier=txnSupplier;
         this.transactory=transactory;
         this.txnOperationFactory=txnOperationFactory;
+        this.spillBudget=spillBudget;
     }
 
     @Override
@@ -122,7 +132,7 @@ public class ControlDataSetProcessor implements DataSetProcessor{
                         spliceOperation.registerCloseable(tableScannerIterator);
                         spliceOperation.registerCloseable(p);
                     }
-                    return new ControlDataSet(tableScannerIterator);
+                    return new ControlDataSet(tableScannerIterator,spillBudget);
                 }catch(IOException e){
                     throw Exceptions.parseException(e);
                 }
@@ -132,7 +142,7 @@ public class ControlDataSetProcessor implements DataSetProcessor{
 
     @Override
     public <V> DataSet<V> getEmpty(){
-        return new ControlDataSet<>(Collections.<V>emptyList().iterator());
+        return new ControlDataSet<>(Collections.<V>emptyList().iterator(),spillBudget);
     }
 
     @Override
@@ -142,7 +152,7 @@ public class ControlDataSetProcessor implements DataSetProcessor{
 
     @Override
     public <V> DataSet<V> singleRowDataSet(V value){
-        return new ControlDataSet<>(new SingletonIterator(value));
+        return new ControlDataSet<>(new SingletonIterator(value),spillBudget);
     }
 
     @Override
@@ -152,7 +162,7 @@ public class ControlDataSetProcessor implements DataSetProcessor{
 
     @Override
     public <K,V> PairDataSet<K, V> singleRowPairDataSet(K key,V value){
-        return new ControlPairDataSet<>(new SingletonIterator(new Tuple2<>(key,value)));
+        return new ControlPairDataSet<>(new SingletonIterator(new Tuple2<>(key,value)),spillBudget);
     }
 
     @Override
@@ -170,6 +180,11 @@ public class ControlDataSetProcessor implements DataSetProcessor{
         return new ControlOperationContext<>(null);
     }
 
+    @Override
+    public OperationStatistics createOperationStatistics(SpliceOperation spliceOperation){
+        return new ControlOperationStatistics();
+    }
+
     @Override
     public void setJobGroup(String jobName,String jobDescription){
     }
@@ -193,7 +208,7 @@ public class ControlDataSetProcessor implements DataSetProcessor{
     public DataSet<String> readTextFile(final String s){
         try{
             InputStream is=getFileStream(s);
-            return new ControlDataSet<>(new TextFileIterator(is));
+            return new ControlDataSet<>(new TextFileIterator(is),spillBudget);
         }catch(IOException e) {
             throw new RuntimeException(e);
         }
@@ -208,17 +223,21 @@ public class ControlDataSetProcessor implements DataSetProcessor{
 
     @Override
     public <K,V> PairDataSet<K, V> getEmptyPair(){
-        return new ControlPairDataSet<>(Collections.<Tuple2<K, V>>emptyList().iterator());
+        return new ControlPairDataSet<>(Collections.<Tuple2<K, V>>emptyList().iterator(),spillBudget);
     }
 
     @Override
     public <V> DataSet<V> createDataSet(Iterator<V> value){
-        return new ControlDataSet<>(value);
+        return new ControlDataSet<>(value,spillBudget);
     }
 
     @Override
     public <V> DataSet<V> createDataSet(Iterator<V> value, String name) {
-        return new ControlDataSet<>(value);
+        return new ControlDataSet<>(value,spillBudget);
+    }
+
+    public SpillBudget getSpillBudget(){
+        return spillBudget;
     }
 
     @Override
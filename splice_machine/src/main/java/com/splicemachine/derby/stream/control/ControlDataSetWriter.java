@@ -95,7 +95,7 @@ public class ControlDataSetWriter<K> implements DataSetWriter{
                 }
             }
             txn.commit();
-            return new ControlDataSet<>(new SingletonIterator(new LocatedRow(valueRow)));
+            return new ControlDataSet<>(new SingletonIterator(new LocatedRow(valueRow)),dataSet.getSpillBudget());
         }catch(Exception e){
             if(txn!=null){
                 try{
@@ -49,6 +49,8 @@ public class ControlOperationContext<Op extends SpliceOperation> implements Oper
         long rowsJoinedLeft;
         long rowsJoinedRight;
         long rowsProduced;
+        long rowsSpilled;
+        long bytesSpilled;
         List<String> badRecords;
         public ActivationHolder activationHolder;
         public SpliceTransactionResourceImpl impl;
@@ -270,6 +272,22 @@ public class ControlOperationContext<Op extends SpliceOperation> implements Oper
         return tooBusy;
     }
 
+    @Override
+    public void recordSpill(long rows,long bytes) {
+        rowsSpilled+=rows;
+        bytesSpilled+=bytes;
+    }
+
+    @Override
+    public long getRecordsSpilled() {
+        return rowsSpilled;
+    }
+
+    @Override
+    public long getBytesSpilled() {
+        return bytesSpilled;
+    }
+
     @Override
     public void pushScope(String displayName) {
         // no op
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.stream.control;
+
+import com.splicemachine.derby.stream.iapi.OperationStatistics;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics held in local counters. The counters are thread safe because the local parallel
+ * processor reads several partitions of the same operation at once.
+ */
+public class ControlOperationStatistics implements OperationStatistics{
+    private final AtomicLong rowsProduced=new AtomicLong();
+    private final AtomicLong bytesProduced=new AtomicLong();
+    private final AtomicLong wallClockTime=new AtomicLong();
+    private final AtomicLong cpuTime=new AtomicLong();
+    private final AtomicLong remoteReads=new AtomicLong();
+
+    public ControlOperationStatistics(){
+    }
+
+    @Override
+    public void recordProduced(long bytes){
+        rowsProduced.incrementAndGet();
+        bytesProduced.addAndGet(bytes);
+    }
+
+    @Override
+    public void recordTime(long wallNanos,long cpuNanos){
+        wallClockTime.addAndGet(wallNanos);
+        cpuTime.addAndGet(cpuNanos);
+    }
+
+    @Override
+    public void recordRemoteReads(long reads){
+        remoteReads.addAndGet(reads);
+    }
+
+    @Override
+    public long getRowsProduced(){
+        return rowsProduced.get();
+    }
+
+    @Override
+    public long getBytesProduced(){
+        return bytesProduced.get();
+    }
+
+    @Override
+    public long getWallClockTime(){
+        return wallClockTime.get();
+    }
+
+    @Override
+    public long getCpuTime(){
+        return cpuTime.get();
+    }
+
+    @Override
+    public long getRemoteReads(){
+        return remoteReads.get();
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException{
+        out.writeLong(rowsProduced.get());
+        out.writeLong(bytesProduced.get());
+        out.writeLong(wallClockTime.get());
+        out.writeLong(cpuTime.get());
+        out.writeLong(remoteReads.get());
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException{
+        rowsProduced.set(in.readLong());
+        bytesProduced.set(in.readLong());
+        wallClockTime.set(in.readLong());
+        cpuTime.set(in.readLong());
+        remoteReads.set(in.readLong());
+    }
+}
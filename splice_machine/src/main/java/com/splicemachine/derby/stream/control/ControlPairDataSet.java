@@ -20,14 +20,19 @@ import org.spark_project.guava.base.Function;
 import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.sql.execute.ExecRow;
 import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
+import com.splicemachine.derby.stream.control.spill.GraceHashJoin;
+import com.splicemachine.derby.stream.control.spill.SpillBudget;
+import com.splicemachine.derby.stream.control.spill.SpillableMultimap;
 import com.splicemachine.derby.stream.function.*;
 import com.splicemachine.derby.stream.iapi.DataSet;
 import com.splicemachine.derby.stream.iapi.OperationContext;
 import com.splicemachine.derby.stream.iapi.PairDataSet;
+import com.splicemachine.derby.stream.output.BulkLoadDataSetWriterBuilder;
 import com.splicemachine.derby.stream.output.DataSetWriter;
 import com.splicemachine.derby.stream.output.DataSetWriterBuilder;
 import com.splicemachine.derby.stream.output.InsertDataSetWriterBuilder;
 import com.splicemachine.derby.stream.output.UpdateDataSetWriterBuilder;
+import com.splicemachine.derby.stream.output.bulk.BulkLoadTableWriterBuilder;
 import com.splicemachine.derby.stream.output.delete.DeletePipelineWriter;
 import com.splicemachine.derby.stream.output.delete.DeleteTableWriterBuilder;
 import com.splicemachine.derby.stream.output.direct.DirectDataSetWriter;
@@ -39,15 +44,13 @@ import com.splicemachine.derby.stream.output.update.UpdatePipelineWriter;
 import com.splicemachine.derby.stream.output.update.UpdateTableWriterBuilder;
 import com.splicemachine.kvpair.KVPair;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-import org.spark_project.guava.base.Predicate;
 import org.spark_project.guava.collect.*;
 import scala.Tuple2;
 import javax.annotation.Nullable;
+import java.io.IOException;
 import java.util.*;
 import java.util.stream.Stream;
-import static com.splicemachine.derby.stream.control.ControlUtils.entryToTuple;
 import static com.splicemachine.derby.stream.control.ControlUtils.multimapFromIterator;
-import static org.spark_project.guava.collect.Maps.*;
 
 /**
  *
@@ -59,11 +62,18 @@ import static org.spark_project.guava.collect.Maps.*;
  */
 public class ControlPairDataSet<K,V> implements PairDataSet<K,V> {
     public Iterator<Tuple2<K,V>> source;
-    public ControlPairDataSet(Iterator<Tuple2<K,V>> source) {
-        this.source = source;
+    protected final SpillBudget budget;
+    /* the context of the operation which keyed this data set, charged with anything it spills (may be null) */
+    protected final OperationContext context;
+    public ControlPairDataSet(Iterator<Tuple2<K,V>> source, SpillBudget budget) {
+        this(source,budget,null);
     }
 
-
+    public ControlPairDataSet(Iterator<Tuple2<K,V>> source, SpillBudget budget, OperationContext context) {
+        this.source = source;
+        this.budget = budget;
+        this.context = context;
+    }
 
     @Override
     public DataSet<V> values() {
@@ -73,7 +83,7 @@ public class ControlPairDataSet<K,V> implements PairDataSet<K,V> {
                 assert t!=null;
                 return t._2();
             }
-        }));
+        }),budget);
     }
 
     @Override
@@ -95,27 +105,27 @@ public class ControlPairDataSet<K,V> implements PairDataSet<K,V> {
                 assert t!=null;
                 return t._1();
             }
-        }));
+        }),budget);
     }
 
     @Override
     public <Op extends SpliceOperation> PairDataSet<K, V> reduceByKey(final SpliceFunction2<Op,V, V, V> function2) {
-        Multimap<K,V> newMap = multimapFromIterator(source);
-        return new ControlPairDataSet<>(entryToTuple(Multimaps.<K,V>forMap(transformValues(newMap.asMap(),
-                new Function<Collection<V>, V>() {
+        return new ControlPairDataSet<>(Iterators.transform(groupSource(function2.operationContext),
+                new Function<Map.Entry<K, Collection<V>>, Tuple2<K, V>>() {
             @Override
-            public V apply(@Nullable Collection<V> vs) {
+            public Tuple2<K, V> apply(@Nullable Map.Entry<K, Collection<V>> e) {
+                assert e!=null: "E cannot be null";
                 try {
                     V returnValue = null;
-                    for (V v : vs) {
+                    for (V v : e.getValue()) {
                         returnValue = function2.call(returnValue, v);
                     }
-                    return returnValue;
-                } catch (Exception e) {
-                    throw new RuntimeException(e);
+                    return new Tuple2<>(e.getKey(),returnValue);
+                } catch (Exception ex) {
+                    throw new RuntimeException(ex);
                 }
             }
-        })).entries()));
+        }),budget,function2.operationContext);
     }
 
     @Override
@@ -125,7 +135,7 @@ public class ControlPairDataSet<K,V> implements PairDataSet<K,V> {
     
     @Override
     public <Op extends SpliceOperation, U> DataSet<U> map(final SpliceFunction<Op,Tuple2<K, V>, U> function) {
-        return new ControlDataSet<U>(Iterators.transform(source,function));
+        return new ControlDataSet<U>(Iterators.transform(source,function),budget);
     }
 
     @Override
@@ -141,7 +151,7 @@ public class ControlPairDataSet<K,V> implements PairDataSet<K,V> {
             public int compare(Tuple2<K, V> o1, Tuple2<K, V> o2) {
                 return comparator.compare(o1._1(), o2._1());
             }
-        }).immutableSortedCopy(() -> source).iterator());
+        }).immutableSortedCopy(() -> source).iterator(),budget,context);
     }
 
     @Override
@@ -158,15 +168,14 @@ public class ControlPairDataSet<K,V> implements PairDataSet<K,V> {
 
     @Override
     public PairDataSet<K, Iterable<V>> groupByKey() {
-        Multimap<K,V> newMap = multimapFromIterator(source);
-        return new ControlPairDataSet<>(FluentIterable.from(newMap.asMap().entrySet()).transform(new Function<Map.Entry<K, Collection<V>>, Tuple2<K, Iterable<V>>>() {
+        return new ControlPairDataSet<>(Iterators.transform(groupSource(context),new Function<Map.Entry<K, Collection<V>>, Tuple2<K, Iterable<V>>>() {
             @Nullable
             @Override
             public Tuple2<K, Iterable<V>> apply(@Nullable Map.Entry<K, Collection<V>> e) {
                 assert e!=null: "E cannot be null";
                 return new Tuple2<K, Iterable<V>>(e.getKey(), e.getValue());
             }
-        }).iterator());
+        }),budget,context);
     }
 
     @Override
@@ -176,25 +185,21 @@ public class ControlPairDataSet<K,V> implements PairDataSet<K,V> {
 
     @Override
     public <W> PairDataSet< K, Tuple2<V, Optional<W>>> hashLeftOuterJoin(final PairDataSet< K, W> rightDataSet) {
-        // Materializes the right side
-        final Multimap<K,W> rightSide = multimapFromIterator(((ControlPairDataSet) rightDataSet).source);
-        return new ControlPairDataSet(Iterators.concat(Iterators.transform(source,new Function<Tuple2<K, V>, Iterable<Tuple2<K, Tuple2<V, Optional<W>>>>>() {
-            @Nullable
+        // Materializes the right side, spilling both sides to disk if it grows beyond the budget
+        return new ControlPairDataSet<>(GraceHashJoin.join(source,((ControlPairDataSet<K,W>) rightDataSet).source,budget,context,
+                new GraceHashJoin.Joiner<K, V, W, Tuple2<K, Tuple2<V, Optional<W>>>>() {
             @Override
-            public Iterable<Tuple2<K, Tuple2<V, Optional<W>>>> apply(@Nullable Tuple2<K, V> t) {
-                assert t!=null: "T cannot be null";
+            public Iterator<Tuple2<K, Tuple2<V, Optional<W>>>> join(K key, V value, Collection<W> rightValues) {
                 List<Tuple2<K,Tuple2<V,Optional<W>>>> result = new ArrayList<>();
-                K key = t._1();
-                V value = t._2();
-                if (rightSide.containsKey(key)) {
-                    for (W rightValue : rightSide.get(key)) {
+                if (!rightValues.isEmpty()) {
+                    for (W rightValue : rightValues) {
                         result.add(new Tuple2<>(key,new Tuple2<>(value,Optional.of(rightValue))));
                     }
                 } else
                     result.add(new Tuple2<>(key,new Tuple2<>(value,Optional.<W>empty())));
-                return result;
+                return result.iterator();
             }
-        })));
+        }),budget,context);
 
     }
 
@@ -218,27 +223,23 @@ public class ControlPairDataSet<K,V> implements PairDataSet<K,V> {
                     result.add(new Tuple2<>(key,new Tuple2<>(Optional.<V>absent(),value)));
                 return result.iterator();
             }
-        }));
+        }),budget,context);
     }
 
     @Override
     public <W> PairDataSet< K, Tuple2<V, W>> hashJoin(PairDataSet< K, W> rightDataSet) {
-        // Materializes the right side
-        final Multimap<K,W> rightSide = multimapFromIterator(((ControlPairDataSet<K,W>) rightDataSet).source);
-        return new ControlPairDataSet(Iterators.concat(Iterators.transform(source,new Function<Tuple2<K, V>, Iterator<Tuple2<K, Tuple2<V, W>>>>() {
-            @Nullable
+        // Materializes the right side, spilling both sides to disk if it grows beyond the budget
+        return new ControlPairDataSet<>(GraceHashJoin.join(source,((ControlPairDataSet<K,W>) rightDataSet).source,budget,context,
+                new GraceHashJoin.Joiner<K, V, W, Tuple2<K, Tuple2<V, W>>>() {
             @Override
-            public Iterator<Tuple2<K, Tuple2<V, W>>> apply(@Nullable Tuple2<K, V> t) {
-                assert t!=null: "Tuple cannot be null";
+            public Iterator<Tuple2<K, Tuple2<V, W>>> join(K key, V value, Collection<W> rightValues) {
                 List<Tuple2<K,Tuple2<V,W>>> result = new ArrayList<>();
-                K key = t._1();
-                V value = t._2();
-                for (W rightValue : rightSide.get(key)) {
+                for (W rightValue : rightValues) {
                     result.add(new Tuple2<>(key,new Tuple2<>(value,rightValue)));
                 }
                 return result.iterator();
             }
-        })));
+        }),budget,context);
     }
 
     @Override
@@ -249,15 +250,16 @@ public class ControlPairDataSet<K,V> implements PairDataSet<K,V> {
     
     @Override
     public <W> PairDataSet< K, V> subtractByKey(PairDataSet< K, W> rightDataSet) {
-        // Materializes the right side
-        final Multimap<K,W> rightSide = multimapFromIterator(((ControlPairDataSet<K,W>) rightDataSet).source);
-        return new ControlPairDataSet<>(Iterators.filter(source, new Predicate<Tuple2<K, V>>() {
+        // Materializes the right side, spilling both sides to disk if it grows beyond the budget
+        return new ControlPairDataSet<>(GraceHashJoin.join(source,((ControlPairDataSet<K,W>) rightDataSet).source,budget,context,
+                new GraceHashJoin.Joiner<K, V, W, Tuple2<K, V>>() {
             @Override
-            public boolean apply(@Nullable Tuple2<K, V> t) {
-                assert t!=null: "T cannot be null";
-                return rightSide.get(t._1()).isEmpty();
+            public Iterator<Tuple2<K, V>> join(K key, V value, Collection<W> rightValues) {
+                if (rightValues.isEmpty())
+                    return Iterators.singletonIterator(new Tuple2<>(key,value));
+                return Iterators.emptyIterator();
             }
-        }));
+        }),budget,context);
     }
 
     @Override
@@ -266,6 +268,24 @@ public class ControlPairDataSet<K,V> implements PairDataSet<K,V> {
         return subtractByKey(rightDataSet);
     }
 
+    public SpillBudget getSpillBudget() {
+        return budget;
+    }
+
+    /*
+     * Groups the source by key, spilling to disk if the groups grow beyond the budget
+     */
+    private Iterator<Map.Entry<K, Collection<V>>> groupSource(OperationContext context) {
+        SpillableMultimap<K,V> groups = new SpillableMultimap<>(budget,context);
+        try {
+            groups.putAll(source);
+            return groups.entries();
+        } catch (IOException e) {
+            groups.close();
+            throw new RuntimeException(e);
+        }
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("ControlPairDataSet [");
@@ -283,7 +303,7 @@ public class ControlPairDataSet<K,V> implements PairDataSet<K,V> {
     @Override
     public <Op extends SpliceOperation, U> DataSet<U> mapPartitions(SpliceFlatMapFunction<Op, Iterator<Tuple2<K, V>>, U> f) {
         try {
-            return new ControlDataSet<>(f.call(source));
+            return new ControlDataSet<>(f.call(source),budget);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -298,7 +318,7 @@ public class ControlPairDataSet<K,V> implements PairDataSet<K,V> {
                 Tuple2<K, V> entry = source.next();
                 iterator = Iterators.concat(iterator, function.call(new Tuple2<>(entry._1(),entry._2())));
             }
-            return new ControlDataSet<>(iterator);
+            return new ControlDataSet<>(iterator,budget);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -320,7 +340,7 @@ public class ControlPairDataSet<K,V> implements PairDataSet<K,V> {
             Collection<W> ws=right.get(key);
             result.add(new Tuple2<>(key,new Tuple2<Iterable<V>, Iterable<W>>(vs,ws)));
         }
-        return new ControlPairDataSet<>(result.iterator());
+        return new ControlPairDataSet<>(result.iterator(),budget,context);
     }
 
     @Override
@@ -331,7 +351,7 @@ public class ControlPairDataSet<K,V> implements PairDataSet<K,V> {
 
     @Override
     public PairDataSet<K, V> union(PairDataSet<K, V> dataSet) {
-        return new ControlPairDataSet(Iterators.concat(source,((ControlPairDataSet<K,V>)dataSet).source));
+        return new ControlPairDataSet(Iterators.concat(source,((ControlPairDataSet<K,V>)dataSet).source),budget,context);
     }
 
     @Override
@@ -403,4 +423,21 @@ public class ControlPairDataSet<K,V> implements PairDataSet<K,V> {
         };
     }
 
+    @Override
+    @SuppressFBWarnings(value = "SE_NO_SUITABLE_CONSTRUCTOR_FOR_EXTERNALIZATION",justification = "Serialization" +
+            "of Control-side operations does not happen and would be a mistake")
+    public BulkLoadDataSetWriterBuilder bulkLoadData() throws StandardException{
+        // Control-side data sets are small, so load them through the pipeline
+        return new BulkLoadTableWriterBuilder(){
+            @Override
+            public DataSetWriter build() throws StandardException{
+                assert txn!=null: "Txn is null";
+                DirectPipelineWriter writer = new DirectPipelineWriter(destConglomerate,
+                        txn, opCtx,skipIndex);
+
+                return new DirectDataSetWriter<>((ControlPairDataSet<K,KVPair>)ControlPairDataSet.this,writer);
+            }
+        };
+    }
+
 }
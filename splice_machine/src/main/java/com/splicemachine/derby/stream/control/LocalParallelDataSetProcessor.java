@@ -0,0 +1,163 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.stream.control;
+
+import com.splicemachine.access.api.SConfiguration;
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
+import com.splicemachine.derby.impl.sql.execute.operations.scanner.SITableScanner;
+import com.splicemachine.derby.impl.sql.execute.operations.scanner.TableScannerBuilder;
+import com.splicemachine.derby.stream.control.spill.SpillBudget;
+import com.splicemachine.derby.stream.iapi.DataSet;
+import com.splicemachine.derby.stream.iapi.ScanSetBuilder;
+import com.splicemachine.derby.stream.iterator.ParallelTableScannerIterator;
+import com.splicemachine.derby.stream.iterator.TableScannerIterator;
+import com.splicemachine.pipeline.Exceptions;
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.api.data.TxnOperationFactory;
+import com.splicemachine.si.api.server.Transactor;
+import com.splicemachine.si.api.txn.TxnSupplier;
+import com.splicemachine.si.impl.TxnRegion;
+import com.splicemachine.si.impl.driver.SIDriver;
+import com.splicemachine.si.impl.readresolve.NoOpReadResolver;
+import com.splicemachine.si.impl.rollforward.NoopRollForward;
+import com.splicemachine.storage.DataScan;
+import com.splicemachine.storage.Partition;
+import org.spark_project.guava.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Control side DataSetProcessor which reads table scans spanning several regions from up to
+ * {@code splice.execution.localScanParallelism} regions at once.
+ * <p/>
+ * Everything other than the scans themselves behaves exactly as in {@link ControlDataSetProcessor}.
+ */
+public class LocalParallelDataSetProcessor extends ControlDataSetProcessor{
+    private static volatile ExecutorService scanExecutor;
+
+    public LocalParallelDataSetProcessor(TxnSupplier txnSupplier,
+                                         Transactor transactory,
+                                         TxnOperationFactory txnOperationFactory,
+                                         SpillBudget spillBudget){
+        super(txnSupplier,transactory,txnOperationFactory,spillBudget);
+    }
+
+    @Override
+    public <Op extends SpliceOperation,V> ScanSetBuilder<V> newScanSet(final Op spliceOperation,final String tableName) throws StandardException{
+        return new TableScannerBuilder<V>(){
+            @Override
+            public DataSet<V> buildDataSet() throws StandardException{
+                Partition p;
+                try{
+                    p =SIDriver.driver().getTableFactory().getTable(tableName);
+                    SConfiguration config=SIDriver.driver().getConfiguration();
+                    int parallelism=config.getLocalScanParallelism();
+                    DataScan scan=getScan();
+                    List<Partition> regions=null;
+                    if(parallelism>1 && fieldLengths==null && !scan.isDescendingScan())
+                        regions=p.subPartitions(scan.getStartKey(),scan.getStopKey());
+
+                    if(regions==null || regions.size()<=1){
+                        TxnRegion localRegion=new TxnRegion(p,NoopRollForward.INSTANCE,NoOpReadResolver.INSTANCE,
+                                txnSupplier,transactory,txnOperationFactory);
+                        this.region(localRegion).scanner(p.openScanner(scan,metricFactory)); //set the scanner
+                        TableScannerIterator tableScannerIterator=new TableScannerIterator(this,spliceOperation);
+                        if(spliceOperation!=null){
+                            spliceOperation.registerCloseable(tableScannerIterator);
+                            spliceOperation.registerCloseable(p);
+                        }
+                        return new ControlDataSet(tableScannerIterator,spillBudget);
+                    }
+
+                    ParallelTableScannerIterator parallelIterator=new ParallelTableScannerIterator(regionScanners(regions),
+                            getScanExecutor(parallelism),
+                            parallelism,
+                            Math.max(1,config.getLocalScanQueueSize()),
+                            spliceOperation,
+                            getOptionalProbeValue());
+                    if(spliceOperation!=null){
+                        spliceOperation.registerCloseable(parallelIterator);
+                        spliceOperation.registerCloseable(p);
+                    }
+                    return new ControlDataSet(parallelIterator,spillBudget);
+                }catch(IOException e){
+                    throw Exceptions.parseException(e);
+                }
+            }
+
+            private List<ParallelTableScannerIterator.RegionScannerFactory> regionScanners(List<Partition> regions){
+                final DataScan scan=getScan();
+                final ExecRow rowTemplate=template;
+                List<ParallelTableScannerIterator.RegionScannerFactory> scanners=new ArrayList<>(regions.size());
+                for(final Partition region:regions){
+                    scanners.add(new ParallelTableScannerIterator.RegionScannerFactory(){
+                        @Override
+                        public SITableScanner open() throws StandardException, IOException{
+                            /*
+                             * The scanners are built one at a time by the consuming thread, so it's safe to
+                             * re-point the builder at each region in turn. Each scanner needs its own row, since
+                             * they are read concurrently, and rows are copied out of them so there is no row
+                             * location to reuse.
+                             */
+                            DataScan regionScan=SIDriver.driver().baseOperationFactory().newScan()
+                                    .startKey(Bytes.max(Bytes.startComparator,scan.getStartKey(),region.getStartKey()))
+                                    .stopKey(Bytes.min(Bytes.endComparator,scan.getStopKey(),region.getEndKey()))
+                                    .filter(scan.getFilter());
+                            regionScan.setAllAttributes(scan.allAttributes());
+                            regionScan.setTimeRange(scan.lowVersion(),scan.highVersion());
+                            regionScan.returnAllVersions();
+                            TxnRegion localRegion=new TxnRegion(region,NoopRollForward.INSTANCE,NoOpReadResolver.INSTANCE,
+                                    txnSupplier,transactory,txnOperationFactory);
+                            template(rowTemplate.getNewNullRow());
+                            scan(regionScan);
+                            reuseRowLocation(false);
+                            region(localRegion).scanner(region.openScanner(regionScan,metricFactory));
+                            SITableScanner scanner=build();
+                            scanner.open();
+                            return scanner;
+                        }
+                    });
+                }
+                return scanners;
+            }
+        };
+    }
+
+    private static ExecutorService getScanExecutor(int parallelism){
+        ExecutorService executor=scanExecutor;
+        if(executor==null){
+            synchronized(LocalParallelDataSetProcessor.class){
+                executor=scanExecutor;
+                if(executor==null){
+                    ThreadPoolExecutor pool=new ThreadPoolExecutor(parallelism,parallelism,60,TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<Runnable>(),
+                            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("parallel-scan-%d").build());
+                    pool.allowCoreThreadTimeOut(true);
+                    scanExecutor=executor=pool;
+                }
+            }
+        }
+        return executor;
+    }
+}
@@ -47,12 +47,12 @@ import java.util.zip.GZIPOutputStream;
 public class ControlExportDataSetWriter<V> implements DataSetWriter{
     private final String path;
     private final SpliceFunction2<? extends SpliceOperation, OutputStream, Iterator<V>, Integer> exportFunction;
-    private final DataSet<V> dataSet;
+    private final ControlDataSet<V> dataSet;
     private static final Logger LOG = Logger.getLogger(ControlExportDataSetWriter.class);
 
     public ControlExportDataSetWriter(String path,
                                       SpliceFunction2<? extends SpliceOperation, OutputStream, Iterator<V>, Integer> exportFunction,
-                                      DataSet<V> dataSet){
+                                      ControlDataSet<V> dataSet){
 
         this.path=path;
         this.exportFunction=exportFunction;
@@ -91,7 +91,7 @@ public class ControlExportDataSetWriter<V> implements DataSetWriter{
         ValueRow valueRow = new ValueRow(2);
         valueRow.setColumn(1,new SQLLongint(count));
         valueRow.setColumn(2,new SQLInteger(0));
-        return new ControlDataSet<>(new SingletonIterator(new LocatedRow(valueRow)));
+        return new ControlDataSet<>(new SingletonIterator(new LocatedRow(valueRow)),dataSet.getSpillBudget());
     }
 
     @Override
@@ -117,9 +117,9 @@ public class ControlExportDataSetWriter<V> implements DataSetWriter{
     public static class Builder<V> implements ExportDataSetWriterBuilder{
         private String directory;
         private SpliceFunction2<? extends SpliceOperation,OutputStream,Iterator<V>,Integer> exportFunction;
-        private final DataSet<V> dataSet;
+        private final ControlDataSet<V> dataSet;
 
-        public Builder(DataSet<V> dataSet){
+        public Builder(ControlDataSet<V> dataSet){
             this.dataSet=dataSet;
         }
 
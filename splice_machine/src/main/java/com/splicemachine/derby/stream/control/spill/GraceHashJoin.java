@@ -0,0 +1,142 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.stream.control.spill;
+
+import com.splicemachine.derby.stream.iapi.OperationContext;
+import org.spark_project.guava.collect.AbstractIterator;
+import org.spark_project.guava.collect.Iterators;
+import scala.Tuple2;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * A control-side hash join which respects a {@link SpillBudget}.
+ *
+ * The build side is loaded into a {@link SpillableMultimap}. If it fits, the probe side is streamed against
+ * it exactly as an ordinary in-memory hash join would be. If it does not, the probe side is partitioned to disk
+ * using the same hash function, and each (probe,build) partition pair is then joined independently, recursing
+ * if a build partition is still too large.
+ *
+ * Output ordering is not preserved when the build side spills.
+ */
+public class GraceHashJoin{
+
+    /**
+     * Produces the output rows for a single probe row and its matching build rows.
+     */
+    public interface Joiner<K,P,B,O>{
+        /**
+         * @param key the join key
+         * @param probe the probe row
+         * @param matches the matching build rows (empty if there are none, never null)
+         * @return the joined output rows
+         */
+        Iterator<O> join(K key,P probe,Collection<B> matches);
+    }
+
+    private GraceHashJoin(){}
+
+    public static <K,P,B,O> Iterator<O> join(Iterator<Tuple2<K,P>> probe,
+                                             Iterator<Tuple2<K,B>> build,
+                                             SpillBudget budget,
+                                             OperationContext context,
+                                             Joiner<K,P,B,O> joiner){
+        try{
+            return join(probe,build,new SpillableMultimap<K,B>(budget,context),joiner);
+        }catch(IOException e){
+            throw new RuntimeException(e);
+        }
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private static <K,P,B,O> Iterator<O> join(final Iterator<Tuple2<K,P>> probe,
+                                              Iterator<Tuple2<K,B>> build,
+                                              final SpillableMultimap<K,B> table,
+                                              final Joiner<K,P,B,O> joiner) throws IOException{
+        try{
+            table.putAll(build);
+        }catch(IOException|RuntimeException e){
+            table.close();
+            throw e;
+        }
+        if(!table.isSpilled()){
+            return Iterators.concat(table.closeOnExhaustion(new AbstractIterator<Iterator<O>>(){
+                @Override
+                protected Iterator<O> computeNext(){
+                    if(!probe.hasNext()) return endOfData();
+                    Tuple2<K,P> t = probe.next();
+                    return joiner.join(t._1(),t._2(),table.get(t._1()));
+                }
+            }));
+        }
+
+        table.finishSpill();
+        final SpillFile<Tuple2<K,P>>[] probePartitions = partitionProbe(probe,table);
+        return Iterators.concat(new AbstractIterator<Iterator<O>>(){
+            private int next = 0;
+            @Override
+            protected Iterator<O> computeNext(){
+                if(next>=probePartitions.length){
+                    table.close();
+                    return endOfData();
+                }
+                int p = next++;
+                try{
+                    SpillableMultimap<K,B> child = new SpillableMultimap<>(table.getBudget(),table.getContext(),table.getDepth()+1);
+                    return join(probePartitions[p].readAndDelete(),table.drainPartition(p),child,joiner);
+                }catch(IOException e){
+                    for(SpillFile<Tuple2<K,P>> partition:probePartitions){
+                        partition.close();
+                    }
+                    table.close();
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K,P,B> SpillFile<Tuple2<K,P>>[] partitionProbe(Iterator<Tuple2<K,P>> probe,
+                                                                 SpillableMultimap<K,B> table) throws IOException{
+        SpillFile<Tuple2<K,P>>[] partitions = new SpillFile[table.numPartitions()];
+        long bytes = 0l;
+        long rows = 0l;
+        try{
+            for(int i=0;i<partitions.length;i++){
+                partitions[i] = table.getBudget().newSpillFile(table.getContext());
+            }
+            while(probe.hasNext()){
+                Tuple2<K,P> t = probe.next();
+                partitions[table.partitionFor(t._1())].write(t);
+            }
+            for(SpillFile<Tuple2<K,P>> partition:partitions){
+                rows+=partition.size();
+                bytes+=partition.finish();
+            }
+        }catch(IOException|RuntimeException e){
+            for(SpillFile<Tuple2<K,P>> partition:partitions){
+                if(partition!=null) partition.close();
+            }
+            table.close();
+            throw e;
+        }
+        table.getBudget().recordSpill(table.getContext(),rows,bytes);
+        return partitions;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.stream.control.spill;
+
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.derby.impl.sql.execute.operations.LocatedRow;
+import scala.Tuple2;
+
+/**
+ * Rough heap-size estimates for the values which flow through control-side DataSets.
+ *
+ * These are not meant to be exact; they only need to be close enough that the
+ * {@link SpillBudget} spills before the JVM runs out of memory.
+ */
+public final class SizeEstimator{
+    static final int REFERENCE_SIZE = 8;
+    static final int OBJECT_OVERHEAD = 16;
+    /**
+     * Size charged for objects we know nothing about.
+     */
+    static final int DEFAULT_OBJECT_SIZE = 64;
+    /**
+     * Per-entry bookkeeping of the multimap (hash entry plus backing list slot).
+     */
+    static final int ENTRY_OVERHEAD = 48;
+
+    private SizeEstimator(){}
+
+    public static long estimate(Object o){
+        if(o==null) return REFERENCE_SIZE;
+        if(o instanceof LocatedRow){
+            LocatedRow lr = (LocatedRow)o;
+            return OBJECT_OVERHEAD+estimate(lr.getRowLocation())+estimate(lr.getRow());
+        }else if(o instanceof ExecRow){
+            DataValueDescriptor[] dvds = ((ExecRow)o).getRowArray();
+            long size = OBJECT_OVERHEAD+REFERENCE_SIZE*(dvds==null?0:dvds.length);
+            if(dvds!=null){
+                for(DataValueDescriptor dvd:dvds){
+                    if(dvd!=null)
+                        size+=dvd.estimateMemoryUsage();
+                }
+            }
+            return size;
+        }else if(o instanceof DataValueDescriptor){
+            return ((DataValueDescriptor)o).estimateMemoryUsage();
+        }else if(o instanceof Tuple2){
+            Tuple2 t = (Tuple2)o;
+            return OBJECT_OVERHEAD+estimate(t._1())+estimate(t._2());
+        }else if(o instanceof byte[]){
+            return OBJECT_OVERHEAD+((byte[])o).length;
+        }else if(o instanceof String){
+            return OBJECT_OVERHEAD+2*((String)o).length();
+        }
+        return DEFAULT_OBJECT_SIZE;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.stream.control.spill;
+
+import com.splicemachine.access.api.SConfiguration;
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.Activation;
+import com.splicemachine.derby.stream.iapi.OperationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The memory budget shared by all of the materializing steps (hash join build sides, group-by and
+ * distinct tables) of a single control-side query.
+ *
+ * Each step reserves an estimate of the heap it uses as it consumes rows. Once a reservation would
+ * push the query over its limit, the step stops buffering and instead partitions its rows out to
+ * local temporary files (grace-hash style), processing one partition at a time afterwards.
+ */
+public class SpillBudget{
+    /**
+     * The number of times a partition may be re-partitioned before we give up and hold it in memory
+     * regardless of the limit. This guards against unbounded recursion when a single key is larger than
+     * the budget.
+     */
+    static final int MAX_SPILL_DEPTH = 3;
+
+    /*
+     * The budget of the execution each activation is currently running. Nested processors (e.g. the inner
+     * side of a nested loop join) are created from the activation alone, so this is how they find the budget
+     * of the query they belong to. Keys are weak so that a budget goes away along with its activation.
+     */
+    private static final Map<Activation,SpillBudget> QUERY_BUDGETS =
+            Collections.synchronizedMap(new WeakHashMap<Activation,SpillBudget>());
+
+    private final long maxBytes;
+    private final int numPartitions;
+    private final File spillDirectory;
+
+    private final AtomicLong reservedBytes = new AtomicLong(0l);
+    private final AtomicLong spilledRows = new AtomicLong(0l);
+    private final AtomicLong spilledBytes = new AtomicLong(0l);
+
+    public SpillBudget(long maxBytes,int numPartitions,File spillDirectory){
+        assert numPartitions>0: "Must have at least one spill partition";
+        this.maxBytes=maxBytes;
+        this.numPartitions=numPartitions;
+        this.spillDirectory=spillDirectory;
+    }
+
+    /**
+     * @return a budget which never spills. Operations using this budget behave as if no limit existed.
+     */
+    public static SpillBudget unbounded(){
+        return new SpillBudget(Long.MAX_VALUE,1,null);
+    }
+
+    public static SpillBudget fromConfiguration(SConfiguration config){
+        long maxBytes = config.getControlSideSpillThresholdMb()*1024l*1024l;
+        String dir = config.getControlSideSpillDirectory();
+        return new SpillBudget(maxBytes,
+                Math.max(1,config.getControlSideSpillPartitions()),
+                dir==null?null:new File(dir));
+    }
+
+    /**
+     * Start a new budget for an execution of {@code activation}. Every processor created for the activation
+     * until its next execution shares this budget, so the limit applies to the query as a whole.
+     *
+     * A new budget is started for each execution, rather than re-using the previous one, so that
+     * reservations which were never released (e.g. by an execution which was closed early) do not count
+     * against later executions.
+     */
+    public static SpillBudget beginQuery(Activation activation,SConfiguration config){
+        SpillBudget budget = fromConfiguration(config);
+        if(activation!=null)
+            QUERY_BUDGETS.put(activation,budget);
+        return budget;
+    }
+
+    /**
+     * @return the budget of the query which {@code activation} is executing. If no execution has begun
+     * (e.g. on a Spark executor, where the activation is deserialized for each task), a budget is started for it.
+     */
+    public static SpillBudget forQuery(Activation activation,SConfiguration config){
+        if(activation==null) return fromConfiguration(config);
+        synchronized(QUERY_BUDGETS){
+            SpillBudget budget = QUERY_BUDGETS.get(activation);
+            if(budget==null){
+                budget = fromConfiguration(config);
+                QUERY_BUDGETS.put(activation,budget);
+            }
+            return budget;
+        }
+    }
+
+    /**
+     * Attempt to reserve {@code bytes} of heap against this budget.
+     *
+     * @param bytes the estimated size of the data about to be buffered
+     * @return true if the reservation was granted, false if the caller should spill instead.
+     */
+    public boolean reserve(long bytes){
+        if(maxBytes==Long.MAX_VALUE) return true;
+        long current;
+        do{
+            current = reservedBytes.get();
+            if(current+bytes>maxBytes) return false;
+        }while(!reservedBytes.compareAndSet(current,current+bytes));
+        return true;
+    }
+
+    /**
+     * Reserve {@code bytes} regardless of the limit. Used once the maximum re-partitioning depth has been
+     * reached and there is no other option than to buffer.
+     */
+    public void forceReserve(long bytes){
+        if(maxBytes==Long.MAX_VALUE) return;
+        reservedBytes.addAndGet(bytes);
+    }
+
+    public void release(long bytes){
+        if(maxBytes==Long.MAX_VALUE) return;
+        reservedBytes.addAndGet(-bytes);
+    }
+
+    public void recordSpill(OperationContext context,long rows,long bytes){
+        spilledRows.addAndGet(rows);
+        spilledBytes.addAndGet(bytes);
+        if(context!=null)
+            context.recordSpill(rows,bytes);
+    }
+
+    /**
+     * Create a spill file in this budget's directory. If {@code context} has an operation, the file is
+     * registered with it, so that the file is removed when the operation is closed even if it is never read
+     * back to the end (e.g. under a LIMIT, or when the query is cancelled or fails).
+     */
+    public <T> SpillFile<T> newSpillFile(OperationContext context) throws IOException{
+        SpillFile<T> file = new SpillFile<>(spillDirectory);
+        if(context!=null && context.getOperation()!=null){
+            try{
+                context.getOperation().registerCloseable(file);
+            }catch(StandardException e){
+                file.close();
+                throw new IOException(e);
+            }
+        }
+        return file;
+    }
+
+    public int partitionFor(Object key,int depth){
+        int h = key==null?0:key.hashCode();
+        /*
+         * Mix in the depth so that a partition which is re-spilled will distribute its rows differently
+         * than it did the first time around.
+         */
+        h ^= depth*0x9E3779B9;
+        h ^= h>>>16;
+        h *= 0x85ebca6b;
+        h ^= h>>>13;
+        h *= 0xc2b2ae35;
+        h ^= h>>>16;
+        return (h & Integer.MAX_VALUE)%numPartitions;
+    }
+
+    public long getMaxBytes(){ return maxBytes; }
+
+    public long getReservedBytes(){ return reservedBytes.get(); }
+
+    public int getNumPartitions(){ return numPartitions; }
+
+    public File getSpillDirectory(){ return spillDirectory; }
+
+    public long getSpilledRows(){ return spilledRows.get(); }
+
+    public long getSpilledBytes(){ return spilledBytes.get(); }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.stream.control.spill;
+
+import org.apache.log4j.Logger;
+import org.spark_project.guava.collect.AbstractIterator;
+
+import java.io.*;
+import java.util.Iterator;
+
+/**
+ * An append-once, read-once local temporary file of serialized objects.
+ *
+ * Rows are written with java serialization (everything which flows through a control DataSet is already
+ * {@link Externalizable}), and the file is deleted as soon as it has been fully read back or closed. Files
+ * created through {@link SpillBudget#newSpillFile} are also closed along with the operation which spilled them.
+ */
+public class SpillFile<T> implements Closeable{
+    private static final Logger LOG=Logger.getLogger(SpillFile.class);
+    /**
+     * The number of objects written between stream resets. ObjectOutputStream holds on to every
+     * object it writes (to handle back-references) until it is reset, which would defeat the purpose of
+     * spilling.
+     */
+    private static final int RESET_INTERVAL = 512;
+    private static final int BUFFER_SIZE = 1<<16;
+
+    private final File file;
+    private ObjectOutputStream out;
+    private ObjectInputStream in;
+    private long count;
+
+    public SpillFile(File directory) throws IOException{
+        this.file = File.createTempFile("splice-spill-",".tmp",directory);
+        this.out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(file),BUFFER_SIZE));
+    }
+
+    public void write(T item) throws IOException{
+        assert out!=null: "Cannot write to a spill file after it has been finished";
+        out.writeObject(item);
+        count++;
+        if(count%RESET_INTERVAL==0)
+            out.reset();
+    }
+
+    /**
+     * Stop writing to this file.
+     *
+     * @return the number of bytes written to disk
+     * @throws IOException if the file cannot be flushed
+     */
+    public long finish() throws IOException{
+        if(out!=null){
+            out.close();
+            out = null;
+        }
+        return file.length();
+    }
+
+    public long size(){
+        return count;
+    }
+
+    /**
+     * Read back the contents of this file. The file is deleted once the returned iterator is exhausted.
+     */
+    public Iterator<T> readAndDelete() throws IOException{
+        finish();
+        in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file),BUFFER_SIZE));
+        return new AbstractIterator<T>(){
+            private long read = 0l;
+            @Override
+            @SuppressWarnings("unchecked")
+            protected T computeNext(){
+                if(read>=count){
+                    close();
+                    return endOfData();
+                }
+                try{
+                    read++;
+                    return (T)in.readObject();
+                }catch(IOException | ClassNotFoundException e){
+                    close();
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void close(){
+        try{
+            if(out!=null){
+                out.close();
+                out = null;
+            }
+            if(in!=null){
+                in.close();
+                in = null;
+            }
+        }catch(IOException e){
+            LOG.warn("Unable to close spill file "+file,e);
+        }
+        if(file.exists() && !file.delete())
+            LOG.warn("Unable to delete spill file "+file);
+    }
+}
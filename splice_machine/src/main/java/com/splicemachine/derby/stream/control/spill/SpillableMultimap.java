@@ -0,0 +1,204 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.stream.control.spill;
+
+import com.splicemachine.derby.stream.iapi.OperationContext;
+import org.spark_project.guava.collect.AbstractIterator;
+import org.spark_project.guava.collect.ArrayListMultimap;
+import org.spark_project.guava.collect.Iterators;
+import org.spark_project.guava.collect.Multimap;
+import scala.Tuple2;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * A Multimap which holds its entries on the heap until its {@link SpillBudget} is exhausted, and then
+ * hash-partitions all of its entries (and any later ones) out to {@link SpillFile}s.
+ *
+ * Once spilled, the grouped entries are produced one partition at a time, so at most one partition's worth
+ * of data is in memory at once. A partition which is itself too large is re-partitioned recursively, up
+ * to {@link SpillBudget#MAX_SPILL_DEPTH} levels.
+ */
+public class SpillableMultimap<K,V> implements AutoCloseable{
+    private final SpillBudget budget;
+    private final OperationContext context;
+    private final int depth;
+
+    private Multimap<K,V> inMemory = ArrayListMultimap.create();
+    private long reservedBytes;
+    private SpillFile<Tuple2<K,V>>[] partitions;
+
+    public SpillableMultimap(SpillBudget budget,OperationContext context){
+        this(budget,context,0);
+    }
+
+    SpillableMultimap(SpillBudget budget,OperationContext context,int depth){
+        this.budget=budget;
+        this.context=context;
+        this.depth=depth;
+    }
+
+    public void putAll(Iterator<Tuple2<K,V>> source) throws IOException{
+        while(source.hasNext()){
+            Tuple2<K,V> t = source.next();
+            put(t._1(),t._2());
+        }
+    }
+
+    public void put(K key,V value) throws IOException{
+        if(partitions!=null){
+            partitions[partitionFor(key)].write(new Tuple2<>(key,value));
+            return;
+        }
+        long size = SizeEstimator.ENTRY_OVERHEAD+SizeEstimator.estimate(key)+SizeEstimator.estimate(value);
+        if(depth>=SpillBudget.MAX_SPILL_DEPTH){
+            budget.forceReserve(size);
+        }else if(!budget.reserve(size)){
+            spill();
+            partitions[partitionFor(key)].write(new Tuple2<>(key,value));
+            return;
+        }
+        reservedBytes+=size;
+        inMemory.put(key,value);
+    }
+
+    public boolean isSpilled(){
+        return partitions!=null;
+    }
+
+    /**
+     * @return the values associated with {@code key}. Only valid while the map is held in memory.
+     */
+    public Collection<V> get(K key){
+        assert partitions==null: "Cannot perform point lookups against a spilled map";
+        return inMemory.get(key);
+    }
+
+    public int numPartitions(){
+        return partitions==null?1:partitions.length;
+    }
+
+    public int partitionFor(K key){
+        return budget.partitionFor(key,depth);
+    }
+
+    int getDepth(){
+        return depth;
+    }
+
+    SpillBudget getBudget(){
+        return budget;
+    }
+
+    OperationContext getContext(){
+        return context;
+    }
+
+    /**
+     * Read back (and remove) a single spilled partition.
+     */
+    public Iterator<Tuple2<K,V>> drainPartition(int partition) throws IOException{
+        assert partitions!=null: "Cannot drain the partitions of an un-spilled map";
+        return partitions[partition].readAndDelete();
+    }
+
+    /**
+     * Finish writing all partitions, and record the spill against the budget and operation.
+     */
+    public void finishSpill() throws IOException{
+        if(partitions==null) return;
+        long rows = 0l;
+        long bytes = 0l;
+        for(SpillFile<Tuple2<K,V>> partition:partitions){
+            rows+=partition.size();
+            bytes+=partition.finish();
+        }
+        budget.recordSpill(context,rows,bytes);
+    }
+
+    /**
+     * @return each key along with all of its values. The map is closed once the iterator is exhausted.
+     */
+    public Iterator<Map.Entry<K,Collection<V>>> entries() throws IOException{
+        if(partitions==null){
+            return closeOnExhaustion(inMemory.asMap().entrySet().iterator());
+        }
+        finishSpill();
+        return Iterators.concat(new AbstractIterator<Iterator<Map.Entry<K,Collection<V>>>>(){
+            private int next = 0;
+            @Override
+            protected Iterator<Map.Entry<K,Collection<V>>> computeNext(){
+                if(next>=partitions.length){
+                    close();
+                    return endOfData();
+                }
+                try{
+                    SpillableMultimap<K,V> child = new SpillableMultimap<>(budget,context,depth+1);
+                    child.putAll(drainPartition(next++));
+                    return child.entries();
+                }catch(IOException e){
+                    close();
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+    }
+
+    <T> Iterator<T> closeOnExhaustion(final Iterator<T> delegate){
+        return new AbstractIterator<T>(){
+            @Override
+            protected T computeNext(){
+                if(delegate.hasNext())
+                    return delegate.next();
+                close();
+                return endOfData();
+            }
+        };
+    }
+
+    @Override
+    public void close(){
+        if(inMemory!=null){
+            inMemory = null;
+            budget.release(reservedBytes);
+            reservedBytes = 0l;
+        }
+        if(partitions!=null){
+            for(SpillFile<Tuple2<K,V>> partition:partitions){
+                partition.close();
+            }
+        }
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    @SuppressWarnings("unchecked")
+    private void spill() throws IOException{
+        partitions = new SpillFile[budget.getNumPartitions()];
+        for(int i=0;i<partitions.length;i++){
+            partitions[i] = budget.newSpillFile(context);
+        }
+        for(Map.Entry<K,V> entry:inMemory.entries()){
+            partitions[partitionFor(entry.getKey())].write(new Tuple2<>(entry.getKey(),entry.getValue()));
+        }
+        inMemory = null;
+        budget.release(reservedBytes);
+        reservedBytes = 0l;
+    }
+}
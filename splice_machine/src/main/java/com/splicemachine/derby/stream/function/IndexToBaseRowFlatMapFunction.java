@@ -64,7 +64,9 @@ public class IndexToBaseRowFlatMapFunction<Op extends SpliceOperation> extends S
     public Iterator<LocatedRow> call(Iterator<LocatedRow> locatedRows) throws Exception {
         if (!initialized) {
             indexRowToBaseRowOperation = (IndexRowToBaseRowOperation) getOperation();
-            reader = indexRowReaderBuilder.source(locatedRows).build();
+            reader = indexRowReaderBuilder.source(locatedRows)
+                    .statistics(indexRowToBaseRowOperation.getOperationStatistics())
+                    .build();
             initialized = true;
         }
         indexRowToBaseRowOperation.registerCloseable(new AutoCloseable() {
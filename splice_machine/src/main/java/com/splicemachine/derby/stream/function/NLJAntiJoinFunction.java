@@ -59,7 +59,7 @@ public class NLJAntiJoinFunction<Op extends SpliceOperation> extends SpliceJoinF
         checkInit();
         DataSet dataSet = null;
         try {
-            op.getRightOperation().openCore(EngineDriver.driver().processorFactory().localProcessor(null,op));
+            op.getRightOperation().openCore(EngineDriver.driver().processorFactory().localProcessor(op.getActivation(),op));
             Iterator<LocatedRow> rightSideNLJ = op.getRightOperation().getLocatedRowIterator();
             if (rightSideNLJ.hasNext()) {
                 StreamLogUtils.logOperationRecordWithMessage(from, operationContext, "anti-join filtered");
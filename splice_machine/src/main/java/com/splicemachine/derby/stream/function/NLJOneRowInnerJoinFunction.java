@@ -60,7 +60,7 @@ public class NLJOneRowInnerJoinFunction<Op extends SpliceOperation> extends Spli
         leftRow = from;
         DataSet dataSet = null;
         try {
-            op.getRightOperation().openCore(EngineDriver.driver().processorFactory().localProcessor(null,op));
+            op.getRightOperation().openCore(EngineDriver.driver().processorFactory().localProcessor(op.getActivation(),op));
             rightSideNLJIterator = op.getRightOperation().getLocatedRowIterator();
 
             if (rightSideNLJIterator.hasNext()) {
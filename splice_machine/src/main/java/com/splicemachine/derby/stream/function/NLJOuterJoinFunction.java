@@ -61,7 +61,7 @@ public class NLJOuterJoinFunction<Op extends SpliceOperation> extends SpliceJoin
         DataSet dataSet = null;
         try {
             leftRow = from;
-            op.getRightOperation().openCore(EngineDriver.driver().processorFactory().localProcessor(null,op));
+            op.getRightOperation().openCore(EngineDriver.driver().processorFactory().localProcessor(op.getActivation(),op));
             rightSideNLJIterator = op.getRightOperation().getLocatedRowIterator();
             if (!rightSideNLJIterator.hasNext()) {
                 // No Rows Right Side...
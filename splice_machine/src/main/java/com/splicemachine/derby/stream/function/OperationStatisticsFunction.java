@@ -0,0 +1,104 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.stream.function;
+
+import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
+import com.splicemachine.derby.impl.sql.execute.operations.LocatedRow;
+import com.splicemachine.derby.stream.control.spill.SizeEstimator;
+import com.splicemachine.derby.stream.iapi.OperationContext;
+import com.splicemachine.derby.stream.iapi.OperationStatistics;
+import com.splicemachine.metrics.Metrics;
+import com.splicemachine.metrics.TimeView;
+import com.splicemachine.metrics.Timer;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Iterator;
+
+/**
+ * Passes rows through unchanged, recording how many were produced, their estimated size
+ * and the time spent producing them.
+ */
+public class OperationStatisticsFunction<Op extends SpliceOperation> extends SpliceFlatMapFunction<Op,Iterator<LocatedRow>,LocatedRow> {
+    private OperationStatistics statistics;
+
+    public OperationStatisticsFunction() {
+        super();
+    }
+
+    public OperationStatisticsFunction(OperationContext<Op> operationContext, OperationStatistics statistics) {
+        super(operationContext);
+        this.statistics = statistics;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        super.writeExternal(out);
+        out.writeObject(statistics);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        super.readExternal(in);
+        statistics = (OperationStatistics) in.readObject();
+    }
+
+    @Override
+    public Iterator<LocatedRow> call(final Iterator<LocatedRow> locatedRows) throws Exception {
+        final Timer timer = Metrics.newTimer();
+        return new Iterator<LocatedRow>() {
+            private long wallClockTime;
+            private long cpuTime;
+
+            @Override
+            public boolean hasNext() {
+                timer.startTiming();
+                try {
+                    return locatedRows.hasNext();
+                } finally {
+                    stop();
+                }
+            }
+
+            @Override
+            public LocatedRow next() {
+                timer.startTiming();
+                LocatedRow locatedRow;
+                try {
+                    locatedRow = locatedRows.next();
+                } finally {
+                    stop();
+                }
+                statistics.recordProduced(SizeEstimator.estimate(locatedRow));
+                return locatedRow;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            private void stop() {
+                timer.stopTiming();
+                TimeView time = timer.getTime();
+                statistics.recordTime(time.getWallClockTime() - wallClockTime, time.getCpuTime() - cpuTime);
+                wallClockTime = time.getWallClockTime();
+                cpuTime = time.getCpuTime();
+            }
+        };
+    }
+}
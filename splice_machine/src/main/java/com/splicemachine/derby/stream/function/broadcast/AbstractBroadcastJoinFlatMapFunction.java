@@ -39,7 +39,6 @@ import java.util.concurrent.Callable;
  * Created by dgomezferro on 11/4/15.
  */
 public abstract class AbstractBroadcastJoinFlatMapFunction<In, Out> extends SpliceFlatMapFunction<JoinOperation, Iterator<In>, Out> {
-    private static final BroadcastJoinCache broadcastJoinCache = new BroadcastJoinCache();
     private JoinOperation operation;
 
     public AbstractBroadcastJoinFlatMapFunction() {
@@ -62,7 +61,7 @@ public abstract class AbstractBroadcastJoinFlatMapFunction<In, Out> extends Spli
                     @Override
                     public Iterator<LocatedRow> iterator(){
                         try{
-                            return operation.getRightOperation().getDataSet(dsp).filter(new InnerJoinNullFilterFunction(operationContext,operation.getRightHashKeys())).toLocalIterator();
+                            return operation.getRightOperation().getMeasuredDataSet(dsp).filter(new InnerJoinNullFilterFunction(operationContext,operation.getRightHashKeys())).toLocalIterator();
                         }catch(StandardException e){
                             throw new RuntimeException(e);
                         }
@@ -79,7 +78,8 @@ public abstract class AbstractBroadcastJoinFlatMapFunction<In, Out> extends Spli
             }
         };
         ExecRow leftTemplate = operation.getLeftOperation().getExecRowDefinition();
-        joinTable = broadcastJoinCache.get(operation.getSequenceId(), rhsLoader, operation.getRightHashKeys(), operation.getLeftHashKeys(), leftTemplate).newTable();
+        BroadcastJoinCache.Key key = BroadcastJoinCache.Key.forJoin(operation, leftTemplate);
+        joinTable = BroadcastJoinCache.sharedCache().get(key, rhsLoader, operation.getRightHashKeys(), operation.getLeftHashKeys(), leftTemplate).newTable();
 
         return call(locatedRows, joinTable).iterator();
     }
@@ -79,7 +79,7 @@ public abstract class AbstractMergeJoinFlatMapFunction extends SpliceFlatMapFunc
         }
         final SpliceOperation rightSide = joinOperation.getRightOperation();
         DataSetProcessor dsp =EngineDriver.driver().processorFactory().bulkProcessor(getOperation().getActivation(), rightSide);
-        final Iterator<LocatedRow> rightIterator = Iterators.transform(rightSide.getDataSet(dsp).toLocalIterator(), new Function<LocatedRow, LocatedRow>() {
+        final Iterator<LocatedRow> rightIterator = Iterators.transform(rightSide.getMeasuredDataSet(dsp).toLocalIterator(), new Function<LocatedRow, LocatedRow>() {
             @Override
             public LocatedRow apply(@Nullable LocatedRow locatedRow) {
                 operationContext.recordJoinedRight();
@@ -71,6 +71,11 @@ public interface DataSetProcessor {
      */
     <Op extends SpliceOperation> OperationContext<Op> createOperationContext(Activation activation);
 
+    /**
+     * Creates the runtime statistics collected for an operation under EXPLAIN ANALYZE.
+     */
+    OperationStatistics createOperationStatistics(SpliceOperation spliceOperation);
+
     /**
      * Sets the job group for execution.
      */
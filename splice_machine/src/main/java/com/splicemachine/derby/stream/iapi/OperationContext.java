@@ -42,6 +42,16 @@ public interface OperationContext<Op extends SpliceOperation> extends Externaliz
     long getRetryAttempts();
     long getRegionTooBusyExceptions();
 
+    /**
+     * Record that a memory-budgeted operation wrote rows out to local temporary storage.
+     *
+     * @param rows the number of rows spilled
+     * @param bytes the number of bytes written to disk
+     */
+    void recordSpill(long rows,long bytes);
+    long getRecordsSpilled();
+    long getBytesSpilled();
+
     BadRecordsRecorder getBadRecordsRecorder();
 
     boolean isPermissive();
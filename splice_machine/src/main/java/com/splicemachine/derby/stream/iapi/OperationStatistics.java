@@ -0,0 +1,57 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.stream.iapi;
+
+import java.io.Externalizable;
+
+/**
+ * Runtime statistics for the rows an operation hands to its parent, collected while
+ * running under {@code EXPLAIN ANALYZE}.
+ *
+ * Times are inclusive: they cover the work of every input the operation pulls rows from
+ * within the same stage of execution.
+ */
+public interface OperationStatistics extends Externalizable{
+
+    /**
+     * Record a row produced by the operation.
+     *
+     * @param bytes the estimated size of the row
+     */
+    void recordProduced(long bytes);
+
+    /**
+     * Record time spent producing rows.
+     *
+     * @param wallNanos the elapsed wall clock time
+     * @param cpuNanos the elapsed CPU time, or 0 if the JVM does not measure it
+     */
+    void recordTime(long wallNanos,long cpuNanos);
+
+    /**
+     * Record point reads issued against another table while producing rows (e.g. base row lookups
+     * for an index scan).
+     *
+     * @param reads the number of rows fetched
+     */
+    void recordRemoteReads(long reads);
+
+    long getRowsProduced();
+    long getBytesProduced();
+    long getWallClockTime();
+    long getCpuTime();
+    long getRemoteReads();
+}
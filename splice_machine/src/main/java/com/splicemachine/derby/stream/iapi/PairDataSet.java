@@ -18,6 +18,7 @@ package com.splicemachine.derby.stream.iapi;
 import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
 import com.splicemachine.derby.stream.function.*;
+import com.splicemachine.derby.stream.output.BulkLoadDataSetWriterBuilder;
 import com.splicemachine.derby.stream.output.DataSetWriterBuilder;
 import com.splicemachine.derby.stream.output.InsertDataSetWriterBuilder;
 import com.splicemachine.derby.stream.output.UpdateDataSetWriterBuilder;
@@ -169,5 +170,16 @@ public interface PairDataSet<K,V> {
     InsertDataSetWriterBuilder insertData(OperationContext operationContext) throws StandardException;
     UpdateDataSetWriterBuilder updateData(OperationContext operationContext) throws StandardException;
     DataSetWriterBuilder directWriteData() throws StandardException;
+
+    /**
+     *
+     * Write KVPairs into the destination conglomerate as sorted store files, without
+     * going through the write pipeline. Engines which cannot do that write through the
+     * pipeline instead, as {@link #directWriteData()} does.
+     *
+     * @return
+     * @throws StandardException
+     */
+    BulkLoadDataSetWriterBuilder bulkLoadData() throws StandardException;
     String toString();
 }
\ No newline at end of file
@@ -76,6 +76,18 @@ public interface ScanSetBuilder<V>{
 
     ScanSetBuilder<V> columnPositionMap(int[] columnPositionMap);
 
+    /**
+     * @param sampleFraction the fraction of the blocks of each region which a statistics scan reads. Only
+     *                       applies when {@link #fieldLengths(int[])} is set.
+     */
+    ScanSetBuilder<V> sampleFraction(double sampleFraction);
+
+    /**
+     * @param sampleRowBudget about how many rows a statistics scan may read from each region, or 0 for no
+     *                        limit. Only applies when {@link #fieldLengths(int[])} is set.
+     */
+    ScanSetBuilder<V> sampleRowBudget(long sampleRowBudget);
+
     ScanSetBuilder<V> baseTableConglomId(long baseTableConglomId);
 
     ScanSetBuilder<V> demarcationPoint(long demarcationPoint);
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.stream.iterator;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.store.access.Qualifier;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
+import com.splicemachine.derby.impl.sql.execute.operations.LocatedRow;
+import com.splicemachine.derby.impl.sql.execute.operations.ScanOperation;
+import com.splicemachine.derby.impl.sql.execute.operations.scanner.SITableScanner;
+import com.splicemachine.derby.stream.utils.StreamLogUtils;
+import com.splicemachine.derby.utils.Scans;
+import org.apache.log4j.Logger;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Iterator over a scan which spans several regions, which reads ahead in up to {@code parallelism} regions
+ * at once on a shared executor.
+ * <p/>
+ * Rows are still returned in region order, exactly as a single {@link TableScannerIterator} over the whole
+ * range would return them. Each region is read into its own bounded queue; when the consumer reaches a region
+ * whose read has not started yet (because the executor is busy), it reads that region on its own thread
+ * instead of waiting, so a saturated executor degrades to a sequential scan rather than stalling.
+ * <p/>
+ * Only the scanning (SI filtering, decoding and pushed-down predicates) happens on other threads; qualifiers
+ * and everything that touches the operation are evaluated by the consumer, since activations are not thread-safe.
+ */
+@NotThreadSafe
+public class ParallelTableScannerIterator implements Iterable<LocatedRow>, Iterator<LocatedRow>, Closeable{
+    private static final Logger LOG=Logger.getLogger(ParallelTableScannerIterator.class);
+
+    /**
+     * Opens the scanner for a single region. Called on the consumer's thread.
+     */
+    public interface RegionScannerFactory{
+        SITableScanner open() throws StandardException, IOException;
+    }
+
+    private final List<RegionScannerFactory> regions;
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final int queueSize;
+    private final ScanOperation operation;
+    private final DataValueDescriptor probeValue;
+    private Qualifier[][] qualifiers;
+    private int[] baseColumnMap;
+    private boolean rowIdKey;
+
+    private final List<RegionRead> reads;
+    private int currentRegion;
+    private final AtomicBoolean closed=new AtomicBoolean(false);
+    private LocatedRow next;
+
+    public ParallelTableScannerIterator(List<RegionScannerFactory> regions,
+                                        ExecutorService executor,
+                                        int parallelism,
+                                        int queueSize,
+                                        SpliceOperation operation,
+                                        DataValueDescriptor probeValue) throws StandardException{
+        assert parallelism>0:"Parallelism must be positive";
+        this.regions=regions;
+        this.executor=executor;
+        this.parallelism=parallelism;
+        this.queueSize=queueSize;
+        this.operation=(ScanOperation)operation;
+        this.probeValue=probeValue;
+        this.reads=new ArrayList<>(regions.size());
+        if(operation!=null){
+            this.qualifiers=this.operation.getScanInformation().getScanQualifiers();
+            this.baseColumnMap=this.operation.getOperationInformation().getBaseColumnMap();
+            this.rowIdKey=this.operation.getRowIdKey();
+        }
+    }
+
+    @Override
+    public Iterator<LocatedRow> iterator(){
+        return this;
+    }
+
+    @Override
+    public boolean hasNext(){
+        if(next!=null) return true;
+        try{
+            while(currentRegion<regions.size()){
+                readAhead();
+                RegionRead read=reads.get(currentRegion);
+                LocatedRow row=read.next();
+                if(row==null){
+                    read.close();
+                    currentRegion++;
+                    continue;
+                }
+                if(qualifiers==null || rowIdKey || Scans.qualifyRecordFromRow(row.getRow().getRowArray(),qualifiers,baseColumnMap,probeValue)){
+                    next=row;
+                    return true;
+                }
+            }
+            return false;
+        }catch(Exception e){
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public LocatedRow next(){
+        if(!hasNext()) throw new NoSuchElementException();
+        LocatedRow locatedRow=next;
+        next=null;
+        if(operation!=null){
+            StreamLogUtils.logOperationRecord(locatedRow,operation);
+            operation.setCurrentLocatedRow(locatedRow);
+        }
+        return locatedRow;
+    }
+
+    @Override
+    public void remove(){
+        throw new RuntimeException("Not Implemented");
+    }
+
+    @Override
+    public void close() throws IOException{
+        if(!closed.compareAndSet(false,true)) return;
+        IOException error=null;
+        for(int i=currentRegion;i<reads.size();i++){
+            try{
+                reads.get(i).close();
+            }catch(IOException e){
+                error=e;
+            }
+        }
+        if(error!=null)
+            throw error;
+    }
+
+    /*****************************************************************************************************************/
+    /*private helper methods and classes*/
+
+    /*
+     * Open and schedule the regions within the read-ahead window of the current region.
+     */
+    private void readAhead() throws StandardException, IOException{
+        int limit=Math.min(regions.size(),currentRegion+parallelism);
+        while(reads.size()<limit){
+            RegionRead read=new RegionRead(regions.get(reads.size()).open());
+            reads.add(read);
+            if(reads.size()-1==currentRegion)
+                continue; //we are about to read this one ourselves
+            read.queue=new ArrayBlockingQueue<>(queueSize);
+            try{
+                executor.execute(read);
+            }catch(RejectedExecutionException ree){
+                //the executor is shutting down, so the consumer will read the region itself
+                LOG.debug("Unable to read ahead, reading sequentially",ree);
+            }
+        }
+    }
+
+    private static final LocatedRow END=new LocatedRow();
+
+    private class RegionRead implements Runnable{
+        private final SITableScanner scanner;
+        private final AtomicBoolean started=new AtomicBoolean(false);
+        /*
+         * Only set for regions which are handed to the executor; execute() publishes it to the reader
+         */
+        private BlockingQueue<LocatedRow> queue;
+        private volatile Throwable error;
+        private boolean inline;
+        private boolean finished;
+
+        RegionRead(SITableScanner scanner){
+            this.scanner=scanner;
+        }
+
+        @Override
+        public void run(){
+            if(!started.compareAndSet(false,true)) return; //claimed by the consumer, or closed
+            BlockingQueue<LocatedRow> q=queue;
+            try{
+                ExecRow row;
+                while(!closed.get() && (row=scanner.next())!=null){
+                    if(!offer(q,new LocatedRow(scanner.getCurrentRowLocation(),row.getClone())))
+                        return;
+                }
+            }catch(Throwable t){
+                error=t;
+            }finally{
+                try{
+                    scanner.close();
+                }catch(Exception e){
+                    if(error==null) error=e;
+                }
+                offer(q,END);
+            }
+        }
+
+        LocatedRow next() throws StandardException, IOException{
+            if(finished) return null;
+            if(!inline && started.compareAndSet(false,true)){
+                //nobody has picked this region up yet, so read it ourselves rather than wait for the executor
+                inline=true;
+            }
+            if(inline){
+                ExecRow row=scanner.next();
+                if(row==null){
+                    finished=true;
+                    return null;
+                }
+                return new LocatedRow(scanner.getCurrentRowLocation(),row.getClone());
+            }
+            LocatedRow row;
+            try{
+                row=queue.take();
+            }catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            if(row==END){
+                finished=true;
+                if(error!=null){
+                    if(error instanceof StandardException) throw (StandardException)error;
+                    if(error instanceof IOException) throw (IOException)error;
+                    throw new IOException(error);
+                }
+                return null;
+            }
+            return row;
+        }
+
+        void close() throws IOException{
+            if(inline || started.compareAndSet(false,true)){
+                //nobody else will ever read this region, so it's ours to close
+                inline=true;
+                finished=true;
+                try{
+                    scanner.close();
+                }catch(StandardException e){
+                    throw new IOException(e);
+                }
+            }
+            //otherwise a reader owns the scanner, and will close it once it sees that we are closed
+        }
+
+        private boolean offer(BlockingQueue<LocatedRow> q,LocatedRow row){
+            try{
+                while(!q.offer(row,100,TimeUnit.MILLISECONDS)){
+                    if(closed.get()) return false;
+                }
+                return true;
+            }catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+}
@@ -17,14 +17,19 @@ package com.splicemachine.derby.stream.iterator;
 
 import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.access.api.SConfiguration;
 import com.splicemachine.db.iapi.store.access.Qualifier;
+import com.splicemachine.db.iapi.types.RowLocation;
 import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
 import com.splicemachine.derby.impl.sql.execute.operations.LocatedRow;
 import com.splicemachine.derby.impl.sql.execute.operations.ScanOperation;
+import com.splicemachine.derby.impl.sql.execute.operations.batch.BatchQualifier;
+import com.splicemachine.derby.impl.sql.execute.operations.batch.ColumnBatch;
 import com.splicemachine.derby.impl.sql.execute.operations.scanner.SITableScanner;
 import com.splicemachine.derby.impl.sql.execute.operations.scanner.TableScannerBuilder;
 import com.splicemachine.derby.stream.utils.StreamLogUtils;
 import com.splicemachine.derby.utils.Scans;
+import com.splicemachine.si.impl.driver.SIDriver;
 import javax.annotation.concurrent.NotThreadSafe;
 import java.io.Closeable;
 import java.io.IOException;
@@ -46,6 +51,14 @@ public class TableScannerIterator implements Iterable<LocatedRow>, Iterator<Loca
     protected Qualifier[][] qualifiers;
     protected int[] baseColumnMap;
     protected boolean rowIdKey; // HACK Row ID Qualifiers point to the projection above them ?  TODO JL
+    /*
+     * When vectorized scans are enabled, rows are read from the scanner a batch at a time, and the qualifiers
+     * are applied to the whole batch before any row is materialized.
+     */
+    private ColumnBatch batch;
+    private BatchQualifier batchQualifier;
+    private int batchPosition;
+    private RowLocation batchRowLocation;
 
     public TableScannerIterator(TableScannerBuilder siTableBuilder, SpliceOperation operation) throws StandardException {
         this.siTableBuilder = siTableBuilder;
@@ -86,6 +99,14 @@ public class TableScannerIterator implements Iterable<LocatedRow>, Iterator<Loca
                     });
                 }
             }
+            if (batch == null && useBatches()) {
+                batch = tableScanner.newBatch(SIDriver.driver().getConfiguration().getVectorizedBatchSize());
+                batchPosition = 0;
+                if (qualifiers != null && !rowIdKey)
+                    batchQualifier = BatchQualifier.compile(qualifiers, baseColumnMap, siTableBuilder.getOptionalProbeValue(), batch);
+            }
+            if (batch != null)
+                return hasNextInBatch();
             while (true) {
                 execRow = tableScanner.next();
                 if (execRow == null) {
@@ -105,11 +126,52 @@ public class TableScannerIterator implements Iterable<LocatedRow>, Iterator<Loca
         }
     }
 
+    private boolean useBatches() {
+        if (operation == null || !tableScanner.supportsBatches())
+            return false;
+        SIDriver driver = SIDriver.driver();
+        if (driver == null)
+            return false;
+        SConfiguration config = driver.getConfiguration();
+        return config.getVectorizedScans() && config.getVectorizedBatchSize() > 0;
+    }
+
+    private boolean hasNextInBatch() throws Exception {
+        while (true) {
+            if (batchPosition >= batch.numSelected()) {
+                if (tableScanner.nextBatch(batch) <= 0) {
+                    tableScanner.close();
+                    initialized = false;
+                    batch = null;
+                    batchQualifier = null;
+                    hasNext = false;
+                    return hasNext;
+                }
+                if (batchQualifier != null)
+                    batchQualifier.filter(batch);
+                batchPosition = 0;
+                continue;
+            }
+            int row = batch.selected()[batchPosition++];
+            execRow = batch.newRow();
+            batch.materialize(row, execRow);
+            if (qualifiers == null || rowIdKey || batchQualifier != null || Scans.qualifyRecordFromRow(execRow.getRowArray(), qualifiers,baseColumnMap,siTableBuilder.getOptionalProbeValue() )) {
+                batchRowLocation = batch.rowLocation(row);
+                hasNext = true;
+                return hasNext;
+            }
+        }
+    }
+
     @Override
     public LocatedRow next() {
         slotted = false;
         rows++;
-        LocatedRow locatedRow = new LocatedRow(tableScanner.getCurrentRowLocation(),execRow.getClone());
+        LocatedRow locatedRow;
+        if (batch != null) // batch rows are already private to the caller
+            locatedRow = new LocatedRow(batchRowLocation,execRow);
+        else
+            locatedRow = new LocatedRow(tableScanner.getCurrentRowLocation(),execRow.getClone());
         if (operation != null) {
             StreamLogUtils.logOperationRecord(locatedRow, operation);
             operation.setCurrentLocatedRow(locatedRow);
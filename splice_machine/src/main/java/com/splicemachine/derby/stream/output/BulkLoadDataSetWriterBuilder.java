@@ -0,0 +1,30 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.stream.output;
+
+/**
+ * Builder for writers which bypass the write pipeline and load the data into the destination
+ * conglomerate as pre-sorted store files.
+ */
+public interface BulkLoadDataSetWriterBuilder extends DataSetWriterBuilder{
+
+    /**
+     * @param timestamp the version, and the commit timestamp, the loaded rows carry. Rows are loaded
+     *                  as already committed at this timestamp, so it must precede every transaction
+     *                  which can write the destination conglomerate concurrently with the load.
+     */
+    BulkLoadDataSetWriterBuilder timestamp(long timestamp);
+}
@@ -17,8 +17,11 @@ package com.splicemachine.derby.stream.output;
 
 import com.splicemachine.db.iapi.sql.execute.ExecRow;
 import com.splicemachine.db.iapi.types.RowLocation;
+import com.splicemachine.ddl.DDLMessage;
 import com.splicemachine.derby.impl.sql.execute.sequence.SpliceSequence;
 
+import java.util.List;
+
 /**
  * @author Scott Fines
  *         Date: 1/8/16
@@ -38,4 +41,12 @@ public interface InsertDataSetWriterBuilder extends DataSetWriterBuilder{
     InsertDataSetWriterBuilder pkCols(int[] keyCols);
 
     InsertDataSetWriterBuilder tableVersion(String tableVersion);
+
+    /**
+     * Write the rows, and the entries of the given indexes, as store files which are bulk loaded into the
+     * tables, rather than through the write pipeline. Engines which cannot do that write through the pipeline.
+     *
+     * @param indexes the indexes of the table, or null to write through the pipeline
+     */
+    InsertDataSetWriterBuilder bulkImport(List<DDLMessage.TentativeIndex> indexes);
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.stream.output.bulk;
+
+import com.splicemachine.derby.stream.output.BulkLoadDataSetWriterBuilder;
+import com.splicemachine.derby.stream.output.direct.DirectTableWriterBuilder;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * Base for bulk load writers. Engines which cannot write store files directly may fall back to
+ * {@link #buildTableWriter()}, which goes through the write pipeline with the builder's transaction.
+ */
+public abstract class BulkLoadTableWriterBuilder extends DirectTableWriterBuilder implements BulkLoadDataSetWriterBuilder{
+    protected long timestamp;
+
+    @Override
+    public BulkLoadDataSetWriterBuilder timestamp(long timestamp){
+        this.timestamp = timestamp;
+        return this;
+    }
+
+    public long getTimestamp(){
+        return timestamp;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException{
+        super.writeExternal(out);
+        out.writeLong(timestamp);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException{
+        super.readExternal(in);
+        timestamp = in.readLong();
+    }
+}
@@ -56,7 +56,7 @@ public class DirectDataSetWriter<K> implements DataSetWriter{
 
             ValueRow valueRow=new ValueRow(1);
             valueRow.setColumn(1,new SQLLongint(rows.count));
-            return new ControlDataSet<>(new SingletonIterator(new LocatedRow(valueRow)));
+            return new ControlDataSet<>(new SingletonIterator(new LocatedRow(valueRow)),dataSet.getSpillBudget());
         }catch(Exception e){
             throw Exceptions.parseException(e);
         }
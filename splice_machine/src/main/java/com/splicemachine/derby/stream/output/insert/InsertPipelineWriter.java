@@ -142,6 +142,14 @@ public class InsertPipelineWriter extends AbstractPipelineWriter<ExecRow>{
 
 
     public KeyEncoder getKeyEncoder() throws StandardException {
+        return getKeyEncoder(pkCols,tableVersion,execRowDefinition);
+    }
+
+    public DataHash getRowHash() throws StandardException {
+        return getRowHash(pkCols,tableVersion,execRowDefinition);
+    }
+
+    public static KeyEncoder getKeyEncoder(int[] pkCols,String tableVersion,ExecRow execRowDefinition) throws StandardException {
         HashPrefix prefix;
         DataHash dataHash;
         KeyPostfix postfix = NoOpPostfix.INSTANCE;
@@ -160,7 +168,7 @@ public class InsertPipelineWriter extends AbstractPipelineWriter<ExecRow>{
         return new KeyEncoder(prefix,dataHash,postfix);
     }
 
-    public DataHash getRowHash() throws StandardException {
+    public static DataHash getRowHash(int[] pkCols,String tableVersion,ExecRow execRowDefinition) throws StandardException {
         //get all columns that are being set
         int[] columns = getEncodingColumns(execRowDefinition.nColumns(),pkCols);
         DescriptorSerializer[] serializers = VersionedSerializers.forVersion(tableVersion,true).getSerializers(execRowDefinition);
@@ -19,6 +19,7 @@ import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.services.io.ArrayUtil;
 import com.splicemachine.db.iapi.sql.execute.ExecRow;
 import com.splicemachine.db.iapi.types.RowLocation;
+import com.splicemachine.ddl.DDLMessage;
 import com.splicemachine.derby.impl.sql.execute.sequence.SpliceSequence;
 import com.splicemachine.derby.stream.iapi.OperationContext;
 import com.splicemachine.derby.stream.iapi.TableWriter;
@@ -35,6 +36,8 @@ import java.io.Externalizable;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.List;
 import org.apache.commons.codec.binary.Base64;
 
 /**
@@ -51,6 +54,7 @@ public abstract class InsertTableWriterBuilder implements Externalizable,InsertD
     protected TxnView txn;
     protected OperationContext operationContext;
     protected boolean isUpsert;
+    protected List<DDLMessage.TentativeIndex> bulkImportIndexes;
 
     @Override
     @SuppressFBWarnings(value="EI_EXPOSE_REP2", justification="Intentional")
@@ -82,6 +86,12 @@ public abstract class InsertTableWriterBuilder implements Externalizable,InsertD
         return this;
     }
 
+    @Override
+    public InsertDataSetWriterBuilder bulkImport(List<DDLMessage.TentativeIndex> indexes) {
+        this.bulkImportIndexes = indexes;
+        return this;
+    }
+
     @Override
     public InsertDataSetWriterBuilder txn(TxnView txn) {
         this.txn = txn;
@@ -162,6 +172,15 @@ public abstract class InsertTableWriterBuilder implements Externalizable,InsertD
                 out.writeObject(spliceSequences[i]);
             }
             out.writeLong(heapConglom);
+            out.writeBoolean(bulkImportIndexes!=null);
+            if (bulkImportIndexes!=null) {
+                out.writeInt(bulkImportIndexes.size());
+                for (DDLMessage.TentativeIndex index : bulkImportIndexes) {
+                    byte[] message = index.toByteArray();
+                    out.writeInt(message.length);
+                    out.write(message);
+                }
+            }
         } catch (Exception e) {
             throw new IOException(e);
         }
@@ -184,6 +203,15 @@ public abstract class InsertTableWriterBuilder implements Externalizable,InsertD
         for (int i =0; i< spliceSequences.length; i++)
             spliceSequences[i] = (SpliceSequence) in.readObject();
         heapConglom = in.readLong();
+        if (in.readBoolean()) {
+            int size = in.readInt();
+            bulkImportIndexes = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                byte[] message = new byte[in.readInt()];
+                in.readFully(message);
+                bulkImportIndexes.add(DDLMessage.TentativeIndex.parseFrom(message));
+            }
+        }
         execRowDefinition = WriteReadUtils.getExecRowFromTypeFormatIds(execRowTypeFormatIds);
     }
 
@@ -36,6 +36,7 @@ import com.splicemachine.si.api.txn.TxnView;
 import com.splicemachine.si.constants.SIConstants;
 import com.splicemachine.si.impl.driver.SIDriver;
 import com.splicemachine.stats.ColumnStatistics;
+import com.splicemachine.stats.cardinality.CardinalityEstimators;
 import com.splicemachine.stats.collector.ColumnStatsCollector;
 import com.splicemachine.storage.DataResult;
 import com.splicemachine.storage.DataResultScanner;
@@ -61,6 +62,11 @@ public class StatisticsCollector {
     private final long tableConglomerateId;
     private final SITableScanner scanner;
     private final String regionId;
+    /*
+     * The number of rows in the region which each collected row stands for. This is 1 unless the
+     * scanner only reads a sample of the region's blocks.
+     */
+    private final long sampleWeight;
 
     protected transient long openScannerTimeMicros = -1l;
     protected transient long closeScannerTimeMicros = -1l;
@@ -72,12 +78,14 @@ public class StatisticsCollector {
                                ExecRow template,
                                int[] columnPositionMap,
                                int[] lengths,
-                               SITableScanner scanner) {
+                               SITableScanner scanner,
+                               long sampleWeight) {
         this.txn = txn;
         this.template = template;
         this.columnPositionMap = columnPositionMap;
         this.lengths = lengths;
         this.scanner = scanner;
+        this.sampleWeight = sampleWeight;
         DataScanner regionScanner = scanner.getRegionScanner();
         Partition region = regionScanner.getPartition();
         String conglomId = region.getTableName();
@@ -100,8 +108,9 @@ public class StatisticsCollector {
         List<ColumnStatistics> columnStats = getFinalColumnStats(dvdCollectors);
 
 //        TimeView readTime = scanner.getTime();
-        long byteCount = scanner.getBytesOutput();
-        long rowCount = scanner.getRowsVisited() - scanner.getRowsFiltered();
+        long byteCount = scanner.getBytesOutput()*sampleWeight;
+        // only the sampled blocks are visited, so visible and invisible rows alike are scaled up from them
+        long rowCount = (scanner.getRowsVisited() - scanner.getRowsFiltered())*sampleWeight;
 //        long localReadTimeMicros = readTime.getWallClockTime() / 1000; //scale to microseconds
 //        long remoteReadTimeMicros = getRemoteReadTime(rowCount);
 //        if (remoteReadTimeMicros > 0) {
@@ -134,8 +143,8 @@ public class StatisticsCollector {
         DataValueDescriptor[] dvds = row.getRowArray();
         for (int i = 0; i < dvds.length; i++) {
             DataValueDescriptor dvd = dvds[i];
-            dvdCollectors[i].update(dvd);
-            dvdCollectors[i].updateSize(fieldLengths[i]);
+            dvdCollectors[i].update(dvd,sampleWeight);
+            dvdCollectors[i].updateSize((int)(fieldLengths[i]*sampleWeight));
         }
     }
 
@@ -196,7 +205,16 @@ public class StatisticsCollector {
     protected List<ColumnStatistics> getFinalColumnStats(ColumnStatsCollector<DataValueDescriptor>[] dvdCollectors) {
         List<ColumnStatistics> columnStats = new ArrayList<>(dvdCollectors.length);
         for (int i = 0; i < dvdCollectors.length; i++) {
-            columnStats.add(dvdCollectors[i].build());
+            ColumnStatistics stats = dvdCollectors[i].build();
+            if (sampleWeight > 1l) {
+                /*
+                 * Counts and frequencies are already weighted, but the distinct count of the sample
+                 * has to be extrapolated to the region
+                 */
+                long nonNullCount = stats.nonNullCount();
+                CardinalityEstimators.scaleToPopulation(stats.getCardinalityEstimator(), nonNullCount / sampleWeight, nonNullCount);
+            }
+            columnStats.add(stats);
         }
         return columnStats;
     }
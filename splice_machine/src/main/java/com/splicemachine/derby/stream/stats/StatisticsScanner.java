@@ -63,14 +63,38 @@ public class StatisticsScanner<Data> extends SITableScanner<Data>{
                              final String tableVersion,
                              SIFilterFactory filterFactory,
                              int[] fieldLengths,
-                             int[] columnPositionMap){
+                             int[] columnPositionMap,
+                             long sampleWeight){
         super(scanner,region,template,scan,rowDecodingMap,txn,keyColumnEncodingOrder,
                 keyColumnSortOrder,keyColumnTypes,keyDecodingMap,accessedPks,reuseRowLocation,indexName,
                 tableVersion,filterFactory);
         this.columnPositionMap=columnPositionMap;
         this.conglomId = conglomId;
         regionId = region.getRegionName();
-        collector=new StatisticsCollector(txn,template,columnPositionMap,fieldLengths,this);
+        collector=new StatisticsCollector(txn,template,columnPositionMap,fieldLengths,this,sampleWeight);
+    }
+
+    /**
+     * Choose how sparsely to read the blocks of a region when sampling it: every {@code step}th block is read,
+     * starting from a random one of the first {@code step}, and each row read stands for {@code step} rows of
+     * the region. Every block is equally likely to be read, so the scaled counts are unbiased.
+     *
+     * @param blocks the number of blocks in the region
+     * @param sampleFraction the fraction of the blocks to read
+     * @param rowBudget about how many rows to read, or 0 for no limit
+     * @param rowsPerBlock the (estimated) number of rows in a block
+     * @return the step between the blocks to read, which is 1 to read them all
+     */
+    public static long sampleStep(int blocks,double sampleFraction,long rowBudget,long rowsPerBlock){
+        if(blocks<=1) return 1l;
+        long step=1l;
+        if(sampleFraction>0d && sampleFraction<1d)
+            step=Math.round(1d/sampleFraction);
+        if(rowBudget>0 && rowsPerBlock>0){
+            long budgetBlocks=Math.max(1l,rowBudget/rowsPerBlock);
+            step=Math.max(step,(blocks+budgetBlocks-1)/budgetBlocks);
+        }
+        return Math.max(1l,Math.min(step,blocks));
     }
 
     @Override
@@ -83,6 +107,12 @@ public class StatisticsScanner<Data> extends SITableScanner<Data>{
         return rows.remove(0);
     }
 
+    @Override
+    public boolean supportsBatches(){
+        //the rows returned are statistics rows, not the rows scanned
+        return false;
+    }
+
     private void initialize() throws StandardException, IOException{
         try{
             ExecRow next;
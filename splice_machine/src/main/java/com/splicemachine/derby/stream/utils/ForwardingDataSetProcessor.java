@@ -91,6 +91,11 @@ public abstract class ForwardingDataSetProcessor implements DataSetProcessor{
         return delegate.createOperationContext(activation);
     }
 
+    @Override
+    public OperationStatistics createOperationStatistics(SpliceOperation spliceOperation){
+        return delegate.createOperationStatistics(spliceOperation);
+    }
+
     @Override
     public void setJobGroup(String jobName,String jobDescription){
         delegate.setJobGroup(jobName,jobDescription);
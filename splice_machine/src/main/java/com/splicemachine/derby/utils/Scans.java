@@ -15,7 +15,10 @@
 
 package com.splicemachine.derby.utils;
 
+import com.splicemachine.db.iapi.services.io.StoredFormatIds;
+import com.splicemachine.db.iapi.types.CollationElementsInterface;
 import com.splicemachine.db.iapi.types.DataType;
+import com.splicemachine.encoding.Encoding;
 import com.splicemachine.derby.impl.sql.execute.operations.QualifierUtils;
 import com.splicemachine.derby.impl.store.access.hbase.HBaseRowLocation;
 import com.splicemachine.primitives.Bytes;
@@ -31,6 +34,8 @@ import com.splicemachine.db.iapi.types.DataValueDescriptor;
 import com.splicemachine.db.iapi.types.DataValueFactory;
 import org.apache.log4j.Logger;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import com.carrotsearch.hppc.BitSet;
 
 /**
@@ -184,7 +189,40 @@ public class Scans extends SpliceUtils {
                     colsToReturn.clear(col);
             }
         }
-        return new EntryPredicateFilter(colsToReturn, true);
+        ColumnPredicate[] predicates = null;
+        SIDriver driver = SIDriver.driver();
+        if (driver != null && driver.getConfiguration().getPredicatePushdown())
+            predicates = getColumnPredicates(qualifiers, keyColumnEncodingOrder);
+        return new EntryPredicateFilter(colsToReturn, true, predicates);
+    }
+
+    /**
+     * Compile the qualifiers which can be checked directly against the encoded row value into
+     * {@link ColumnPredicate}s, so that the region scanner can reject rows without decoding them.
+     * <p>
+     * Each AND clause, and each OR clause whose terms all reference the same column (e.g. an IN list), becomes
+     * one predicate, provided that every term compares an integer column against an integer constant, or
+     * a character column for equality against a character constant. Everything else is left to
+     * {@link #qualifyRecordFromRow}, which still checks every row that passes these predicates.
+     *
+     * @return the predicates, or {@code null} if none of the qualifiers can be pushed down
+     */
+    public static ColumnPredicate[] getColumnPredicates(Qualifier[][] qualifiers,
+                                                        int[] keyColumnEncodingOrder) throws StandardException {
+        if (qualifiers == null)
+            return null;
+        List<ColumnPredicate> predicates = new ArrayList<>();
+        for (Qualifier qualifier : qualifiers[0]) {
+            ColumnPredicate predicate = toColumnPredicate(new Qualifier[]{qualifier}, keyColumnEncodingOrder);
+            if (predicate != null)
+                predicates.add(predicate);
+        }
+        for (int and_idx = 1; and_idx < qualifiers.length; and_idx++) {
+            ColumnPredicate predicate = toColumnPredicate(qualifiers[and_idx], keyColumnEncodingOrder);
+            if (predicate != null)
+                predicates.add(predicate);
+        }
+        return predicates.isEmpty() ? null : predicates.toArray(new ColumnPredicate[predicates.size()]);
     }
 
     private static void attachScanKeys(DataScan scan,
@@ -265,6 +303,61 @@ public class Scans extends SpliceUtils {
         }
     }
 
+    private static ColumnPredicate toColumnPredicate(Qualifier[] orClause,
+                                                     int[] keyColumnEncodingOrder) throws StandardException {
+        if (orClause == null || orClause.length == 0)
+            return null;
+        int column = orClause[0].getStoragePosition();
+        if (keyColumnEncodingOrder != null) {
+            for (int keyColumn : keyColumnEncodingOrder) {
+                if (keyColumn == column)
+                    return null; //key columns are not in the row value
+            }
+        }
+        byte type = 0;
+        int[] operators = new int[orClause.length];
+        boolean[] negate = new boolean[orClause.length];
+        byte[][] values = new byte[orClause.length][];
+        for (int i = 0; i < orClause.length; i++) {
+            Qualifier q = orClause[i];
+            if (q.getStoragePosition() != column || q.getVariantType() == Qualifier.VARIANT)
+                return null;
+            int operator = q.getOperator();
+            if (operator < DataType.ORDER_OP_LESSTHAN || operator > DataType.ORDER_OP_GREATEROREQUALS)
+                return null;
+            DataValueDescriptor orderable = q.getOrderable();
+            if (orderable == null || orderable.isNull())
+                return null;
+            byte termType;
+            switch (orderable.getTypeFormatId()) {
+                case StoredFormatIds.SQL_TINYINT_ID:
+                case StoredFormatIds.SQL_SMALLINT_ID:
+                case StoredFormatIds.SQL_INTEGER_ID:
+                case StoredFormatIds.SQL_LONGINT_ID:
+                    termType = ColumnPredicate.SCALAR;
+                    values[i] = Encoding.encode(orderable.getLong());
+                    break;
+                case StoredFormatIds.SQL_CHAR_ID:
+                case StoredFormatIds.SQL_VARCHAR_ID:
+                case StoredFormatIds.SQL_LONGVARCHAR_ID:
+                    //byte order is not the collation order, and range comparisons are in UTF-16 order
+                    if (operator != DataType.ORDER_OP_EQUALS || orderable instanceof CollationElementsInterface)
+                        return null;
+                    termType = ColumnPredicate.STRING;
+                    values[i] = Encoding.encode(orderable.getString());
+                    break;
+                default:
+                    return null;
+            }
+            if (type != 0 && type != termType)
+                return null;
+            type = termType;
+            operators[i] = operator;
+            negate[i] = q.negateCompareResult();
+        }
+        return new ColumnPredicate(column, type, operators, negate, values);
+    }
+
     private static boolean isEmpty(int[] array) {
         if (array == null || array.length == 0) {
             return true;
@@ -19,6 +19,7 @@ import org.spark_project.guava.base.Function;
 import com.splicemachine.derby.iapi.sql.olap.OlapResult;
 import com.splicemachine.derby.iapi.sql.olap.OlapStatus;
 import com.splicemachine.derby.utils.stats.DistributedStatsCollection;
+import com.splicemachine.derby.utils.stats.StaleStatisticsTracker;
 import com.splicemachine.derby.utils.stats.StatsResult;
 import org.spark_project.guava.collect.FluentIterable;
 import org.spark_project.guava.collect.Lists;
@@ -176,11 +177,19 @@ public class StatisticsAdmin extends BaseAdminProcedures {
                 // No point in continuing with empty TableDescriptor list, possible NPE
                 return;
             }
+            if (staleOnly) {
+                tds = StaleStatisticsTracker.staleTables(tds, dd, tc);
+                if (tds.isEmpty()) {
+                    outputResults[0] = new EmbedResultSet40(conn, wrapResults(conn, Collections.<ExecRow>emptyList()), false, null, true);
+                    return;
+                }
+            }
             authorize(tds);
             TransactionController transactionExecute = lcc.getTransactionExecute();
             transactionExecute.elevate("statistics");
             dropTableStatistics(tds,dd,tc);
             ddlNotification(tc,tds);
+            StaleStatisticsTracker.collecting(tds);
 //            ExecRow templateOutputRow = buildOutputTemplateRow();
             TxnView txn = ((SpliceTransactionManager) transactionExecute).getRawTransaction().getActiveStateTxn();
 
@@ -257,10 +266,15 @@ public class StatisticsAdmin extends BaseAdminProcedures {
             List<TableDescriptor> tds = Collections.singletonList(tableDesc);
             authorize(tds);
             DataDictionary dd = conn.getLanguageConnection().getDataDictionary();
-            dd.startWriting(conn.getLanguageConnection());
             TransactionController tc = conn.getLanguageConnection().getTransactionExecute();
+            if (staleOnly && StaleStatisticsTracker.staleTables(tds, dd, tc).isEmpty()) {
+                outputResults[0] = new EmbedResultSet40(conn, wrapResults(conn, Collections.<ExecRow>emptyList()), false, null, true);
+                return;
+            }
+            dd.startWriting(conn.getLanguageConnection());
             dropTableStatistics(tds,dd,tc);
             ddlNotification(tc, tds);
+            StaleStatisticsTracker.collecting(tds);
             TxnView txn = ((SpliceTransactionManager) tc).getRawTransaction().getActiveStateTxn();
             HashMap<Long,Pair<String,String>> display = new HashMap<>();
             display.put(tableDesc.getHeapConglomerateId(),Pair.newPair(schema,table));
@@ -450,6 +464,8 @@ public class StatisticsAdmin extends BaseAdminProcedures {
                 .tableVersion(table.getVersion())
                 .fieldLengths(fieldLengths)
                 .columnPositionMap(columnPositionMap)
+                .sampleFraction(EngineDriver.driver().getConfiguration().getStatisticsSampleFraction())
+                .sampleRowBudget(EngineDriver.driver().getConfiguration().getStatisticsSampleRowBudget())
                 .oneSplitPerRegion(true);
     }
 
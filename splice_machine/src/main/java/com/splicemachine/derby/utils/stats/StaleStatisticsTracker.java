@@ -0,0 +1,122 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.splicemachine.derby.utils.stats;
+
+import com.splicemachine.EngineDriver;
+import com.splicemachine.access.api.PartitionAdmin;
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.dictionary.DataDictionary;
+import com.splicemachine.db.iapi.sql.dictionary.PartitionStatisticsDescriptor;
+import com.splicemachine.db.iapi.sql.dictionary.TableDescriptor;
+import com.splicemachine.db.iapi.store.access.TransactionController;
+import com.splicemachine.pipeline.Exceptions;
+import com.splicemachine.si.impl.driver.SIDriver;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Picks the tables whose statistics are stale, for a collection of stale statistics only.
+ *
+ * A table is stale when it has no statistics, or when the number of writes made to it since its statistics
+ * were collected reaches a configured fraction of its row count. Writes are counted by each partition from
+ * the time it is opened. The count at the time of the last collection is only kept in memory, so when it
+ * isn't known (or the partitions have been reopened since, resetting their counts) every write the partitions
+ * have counted is taken to have come after the last collection.
+ */
+public class StaleStatisticsTracker{
+    private static final ConcurrentMap<Long,Long> collectedWriteCounts=new ConcurrentHashMap<>();
+
+    private StaleStatisticsTracker(){} //utility class
+
+    public static List<TableDescriptor> staleTables(List<TableDescriptor> tables,
+                                                    DataDictionary dd,
+                                                    TransactionController tc) throws StandardException{
+        double staleWriteFraction=EngineDriver.driver().getConfiguration().getStatisticsStaleWriteFraction();
+        return staleTables(tables,dd,tc,writeCounts(),staleWriteFraction);
+    }
+
+    /**
+     * Remember the number of writes made to each of the tables so far, as statistics are about to be collected on them.
+     */
+    public static void collecting(List<TableDescriptor> tables) throws StandardException{
+        collecting(tables,writeCounts());
+    }
+
+    /* ****************************************************************************************************************/
+    /*package-local methods, for testing*/
+    static List<TableDescriptor> staleTables(List<TableDescriptor> tables,
+                                             DataDictionary dd,
+                                             TransactionController tc,
+                                             Map<String,Long> writeCounts,
+                                             double staleWriteFraction) throws StandardException{
+        List<TableDescriptor> stale=new ArrayList<>(tables.size());
+        for(TableDescriptor table : tables){
+            if(isStale(table.getHeapConglomerateId(),staleWriteFraction,dd,tc,writeCounts))
+                stale.add(table);
+        }
+        return stale;
+    }
+
+    static void collecting(List<TableDescriptor> tables,Map<String,Long> writeCounts){
+        for(TableDescriptor table : tables){
+            long conglomerateId=table.getHeapConglomerateId();
+            collectedWriteCounts.put(conglomerateId,writeCount(conglomerateId,writeCounts));
+        }
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private static boolean isStale(long conglomerateId,
+                                   double staleWriteFraction,
+                                   DataDictionary dd,
+                                   TransactionController tc,
+                                   Map<String,Long> writeCounts) throws StandardException{
+        List<PartitionStatisticsDescriptor> partitionStatistics=dd.getPartitionStatistics(conglomerateId,tc);
+        if(partitionStatistics.isEmpty()) return true;
+        long rowCount=0l;
+        for(PartitionStatisticsDescriptor partition : partitionStatistics){
+            if(partition.isStale()) return true;
+            rowCount+=partition.getRowCount();
+        }
+
+        long writes=writeCount(conglomerateId,writeCounts);
+        Long collectedWrites=collectedWriteCounts.get(conglomerateId);
+        if(collectedWrites!=null && collectedWrites<=writes)
+            writes-=collectedWrites;
+        return writes>0 && writes>=staleWriteFraction*rowCount;
+    }
+
+    private static long writeCount(long conglomerateId,Map<String,Long> writeCounts){
+        Long writes=writeCounts.get(Long.toString(conglomerateId));
+        return writes==null?0l:writes;
+    }
+
+    /*
+     * The write counts of all the tables, fetched together so that checking many tables costs a single look
+     * at the cluster rather than one per table
+     */
+    private static Map<String,Long> writeCounts() throws StandardException{
+        try(PartitionAdmin admin=SIDriver.driver().getTableFactory().getAdmin()){
+            return admin.tableWriteRequestCounts();
+        }catch(IOException e){
+            throw Exceptions.parseException(e);
+        }
+    }
+}
@@ -30,6 +30,7 @@ import org.spark_project.guava.collect.Lists;
 
 import com.splicemachine.EngineDriver;
 import com.splicemachine.access.api.DatabaseVersion;
+import com.splicemachine.derby.management.BroadcastJoinCacheManagement;
 import com.splicemachine.derby.management.StatementManagement;
 import com.splicemachine.derby.utils.DatabasePropertyManagement;
 import com.splicemachine.pipeline.PipelineDriver;
@@ -50,6 +51,9 @@ public class JMXUtils {
     public static final String TIMESTAMP_MASTER_MANAGEMENT = "com.splicemachine.si.client.timestamp.generator:type=TimestampMasterManagement";
     public static final String TIMESTAMP_REGION_MANAGEMENT = "com.splicemachine.si.client.timestamp.request:type=TimestampRegionManagement";
 	public static final String DATABASE_PROPERTY_MANAGEMENT = "com.splicemachine.derby.utils:type=DatabasePropertyManagement";
+    public static final String BROADCAST_JOIN_CACHE_MANAGEMENT = "com.splicemachine.derby.impl.sql.execute.operations:type=BroadcastJoinCache";
+    public static final String TRANSACTION_CACHE_MANAGEMENT = "com.splicemachine.si.impl.store:type=TransactionCacheManagement";
+    public static final String DATA_DICTIONARY_CACHE_MANAGEMENT = "com.splicemachine.db.impl.sql.catalog:type=DataDictionaryCacheManagement";
 
     public static List<Pair<String,JMXConnector>> getMBeanServerConnections(Collection<Pair<String,String>> serverConnections) throws IOException {
         List<Pair<String,JMXConnector>> mbscArray =new ArrayList<>(serverConnections.size());
@@ -132,6 +136,14 @@ public class JMXUtils {
         return dbProps;
     }
 
+    public static List<Pair<String,BroadcastJoinCacheManagement>> getBroadcastJoinCacheManagement(List<Pair<String, JMXConnector>> connections) throws MalformedObjectNameException, IOException {
+        List<Pair<String,BroadcastJoinCacheManagement>> managers = Lists.newArrayListWithCapacity(connections.size());
+        for (Pair<String,JMXConnector> connectorPair : connections) {
+            managers.add(Pair.newPair(connectorPair.getFirst(), getNewMXBeanProxy(connectorPair.getSecond(), BROADCAST_JOIN_CACHE_MANAGEMENT, BroadcastJoinCacheManagement.class)));
+        }
+        return managers;
+    }
+
 	public static <T> T getNewMBeanProxy(JMXConnector mbsc, String mbeanName, Class<T> type) throws MalformedObjectNameException, IOException {
 		ObjectName objectName = new ObjectName(mbeanName);
 		return JMX.newMBeanProxy(mbsc.getMBeanServerConnection(), objectName,type, true);
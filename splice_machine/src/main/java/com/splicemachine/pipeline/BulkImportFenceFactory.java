@@ -0,0 +1,107 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.pipeline;
+
+import com.splicemachine.kvpair.KVPair;
+import com.splicemachine.pipeline.api.Code;
+import com.splicemachine.pipeline.client.WriteResult;
+import com.splicemachine.pipeline.context.PipelineWriteContext;
+import com.splicemachine.pipeline.context.WriteContext;
+import com.splicemachine.pipeline.contextfactory.LocalWriteFactory;
+import com.splicemachine.pipeline.writehandler.WriteHandler;
+import com.splicemachine.si.api.txn.Txn;
+import com.splicemachine.si.api.txn.TxnView;
+
+import java.io.IOException;
+
+/**
+ * Keeps other writers off a table while a bulk import is loading HFiles into it.
+ *
+ * The import decides whether it may skip uniqueness checks by looking at the table once, before it loads anything,
+ * and the HFiles it loads never pass through the write pipeline. Any row written by somebody else between that look
+ * and the import committing could therefore end up duplicated, so such writes fail with a write conflict instead.
+ * Writers which belong to the importing transaction, which begin after it commits, or which arrive after it rolls
+ * back are let through untouched.
+ */
+class BulkImportFenceFactory implements LocalWriteFactory{
+    private final TxnView importTxn;
+    private final long conglomId;
+
+    BulkImportFenceFactory(TxnView importTxn,long conglomId){
+        this.importTxn=importTxn;
+        this.conglomId=conglomId;
+    }
+
+    @Override
+    public void addTo(PipelineWriteContext ctx,boolean keepState,int expectedWrites) throws IOException{
+        TxnView txn=ctx.getTxn();
+        if(importTxn.getEffectiveState()==Txn.State.ROLLEDBACK) return;
+        if(txn.canSee(importTxn)) return;
+        ctx.addLast(new FenceHandler(importTxn));
+    }
+
+    @Override
+    public long getConglomerateId(){
+        return conglomId;
+    }
+
+    @Override
+    public boolean canReplace(LocalWriteFactory newContext){
+        return false;
+    }
+
+    @Override
+    public void replace(LocalWriteFactory newFactory){
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean equals(Object o){
+        if(this==o) return true;
+        if(!(o instanceof BulkImportFenceFactory)) return false;
+        BulkImportFenceFactory that=(BulkImportFenceFactory)o;
+        return conglomId==that.conglomId && importTxn.getTxnId()==that.importTxn.getTxnId();
+    }
+
+    @Override
+    public int hashCode(){
+        return 31*Long.hashCode(conglomId)+Long.hashCode(importTxn.getTxnId());
+    }
+
+    private static class FenceHandler implements WriteHandler{
+        private final TxnView importTxn;
+
+        FenceHandler(TxnView importTxn){
+            this.importTxn=importTxn;
+        }
+
+        @Override
+        public void next(KVPair mutation,WriteContext ctx){
+            String message=ctx.exceptionFactory().writeWriteConflict(ctx.getTxn().getTxnId(),importTxn.getTxnId()).getMessage();
+            ctx.failed(mutation,new WriteResult(Code.WRITE_CONFLICT,message));
+        }
+
+        @Override
+        public void flush(WriteContext ctx) throws IOException{
+            // no op
+        }
+
+        @Override
+        public void close(WriteContext ctx) throws IOException{
+            // no op
+        }
+    }
+}
@@ -216,6 +216,11 @@ public class DerbyContextFactoryLoader implements ContextFactoryLoader{
                     indexFactories.addFactory(new DropIndexFactory(txn,null,indexConglomId));
                 }
                 break;
+            case BULK_IMPORT:
+                if(ddlChange.getBulkImport().getConglomerate()==conglomId){
+                    ddlFactories.addFactory(new BulkImportFenceFactory(DDLUtils.getLazyTransaction(ddlChange.getTxnId()),conglomId));
+                }
+                break;
             // ignored
             default:
                 break;
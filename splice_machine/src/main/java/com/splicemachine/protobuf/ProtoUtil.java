@@ -415,6 +415,13 @@ public class ProtoUtil {
                 .build();
     }
 
+    public static DDLChange createBulkImport(long txnId, long conglomerate) {
+        return DDLChange.newBuilder().setDdlChangeType(DDLChangeType.BULK_IMPORT)
+                .setTxnId(txnId)
+                .setBulkImport(BulkImport.newBuilder().setConglomerate(conglomerate).build())
+                .build();
+    }
+
     public static DDLChange createRevokeSchemaPrivilege(long txnId, SchemaPermsDescriptor permissionsDescriptor) {
         RevokeSchemaPrivilege revokeSchemaPrivilege = RevokeSchemaPrivilege.newBuilder()
                 .setSchemaId(transferDerbyUUID((BasicUUID) permissionsDescriptor.getSchemaUUID()))
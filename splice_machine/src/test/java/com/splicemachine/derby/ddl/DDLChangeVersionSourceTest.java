@@ -0,0 +1,81 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.splicemachine.derby.ddl;
+
+import com.splicemachine.ddl.DDLMessage;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Category(ArchitectureIndependent.class)
+public class DDLChangeVersionSourceTest{
+    private final DDLController controller=mock(DDLController.class);
+    private final DDLChangeVersionSource versionSource=new DDLChangeVersionSource(controller,"1.0");
+
+    @Test
+    public void versionIsReadOnce() throws Exception{
+        when(controller.getChangeVersion()).thenReturn("7-3");
+        Assert.assertEquals("1.0/7-3",versionSource.currentVersion());
+        Assert.assertEquals("1.0/7-3",versionSource.currentVersion());
+        verify(controller,times(1)).getChangeVersion();
+    }
+
+    @Test
+    public void startedChangeInvalidatesVersion() throws Exception{
+        when(controller.getChangeVersion()).thenReturn("7-3","7-4");
+        Assert.assertEquals("1.0/7-3",versionSource.currentVersion());
+        versionSource.startChange(DDLMessage.DDLChange.getDefaultInstance());
+        Assert.assertEquals("1.0/7-4",versionSource.currentVersion());
+        verify(controller,times(2)).getChangeVersion();
+    }
+
+    @Test
+    public void finishedStatisticsChangeInvalidatesVersion() throws Exception{
+        when(controller.getChangeVersion()).thenReturn("7-4","7-5");
+        Assert.assertEquals("1.0/7-4",versionSource.currentVersion());
+        DDLMessage.DDLChange alterStats=DDLMessage.DDLChange.newBuilder()
+                .setDdlChangeType(DDLMessage.DDLChangeType.ALTER_STATS)
+                .setTxnId(1l)
+                .buildPartial();
+        versionSource.changeSuccessful("change",alterStats);
+        Assert.assertEquals("1.0/7-5",versionSource.currentVersion());
+    }
+
+    @Test
+    public void everyChangeEventInvalidatesVersion() throws Exception{
+        when(controller.getChangeVersion()).thenReturn("1","2","3","4");
+        Assert.assertEquals("1.0/1",versionSource.currentVersion());
+        versionSource.startGlobalChange();
+        Assert.assertEquals("1.0/2",versionSource.currentVersion());
+        versionSource.changeFailed("change");
+        Assert.assertEquals("1.0/3",versionSource.currentVersion());
+        versionSource.finishGlobalChange();
+        Assert.assertEquals("1.0/4",versionSource.currentVersion());
+    }
+
+    @Test
+    public void missingChangeVersionIsKeptToo() throws Exception{
+        when(controller.getChangeVersion()).thenReturn(null);
+        Assert.assertNull(versionSource.currentVersion());
+        Assert.assertNull(versionSource.currentVersion());
+        verify(controller,times(1)).getChangeVersion();
+    }
+}
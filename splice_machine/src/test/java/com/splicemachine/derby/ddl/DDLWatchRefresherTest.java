@@ -202,6 +202,35 @@ public class DDLWatchRefresherTest{
 //        Assert.assertEquals("Incorrect global stop count!",1,assertionListener.getEndGlobalCount());
     }
 
+    @Test
+    public void creatingChangesDoNotDisableCachesGlobally() throws Exception{
+        TestChecker checker=getTestChecker();
+        Clock clock = new IncrementingClock(0);
+
+        TxnStore supplier = new TestingTxnStore(clock,new TestingTimestampSource(),null,100l);
+        supplier.recordNewTransaction(txn);
+        SITransactionReadController txnController=new SITransactionReadController(supplier);
+        DDLWatchRefresher refresher = new DDLWatchRefresher(checker,txnController,clock,ef,10l,supplier);
+        CountingListener assertionListener = new CountingListener();
+
+        DDLChange createChange  = ProtoUtil.createNoOpDDLChange(txn.getTxnId(),"create",DDLMessage.DDLChangeType.CREATE_TABLE);
+        checker.addChange(createChange);
+        Assert.assertTrue("Returned an error State!",refresher.refreshDDL(Collections.<DDLWatcher.DDLListener>singleton(assertionListener)));
+        Assert.assertEquals("Incorrect initiated count!",1,assertionListener.getCount(createChange));
+        Assert.assertTrue("Creating a table should not disable caches for everyone!",refresher.cacheIsValid());
+
+        DDLChange alterChange  = ProtoUtil.createNoOpDDLChange(txn.getTxnId(),"alter",DDLMessage.DDLChangeType.CHANGE_PK);
+        checker.addChange(alterChange);
+        Assert.assertTrue("Returned an error State!",refresher.refreshDDL(Collections.<DDLWatcher.DDLListener>singleton(assertionListener)));
+        Assert.assertFalse("Changing a primary key should disable caches!",refresher.cacheIsValid());
+        Assert.assertEquals("Incorrect current change count!",1,refresher.numCurrentDDLChanges());
+
+        //both changes finish
+        Assert.assertTrue("Returned an error State!",refresher.refreshDDL(Collections.<DDLWatcher.DDLListener>singleton(assertionListener)));
+        Assert.assertTrue("Caches should be valid once changes finish!",refresher.cacheIsValid());
+        Assert.assertEquals("Incorrect current change count!",0,refresher.numCurrentDDLChanges());
+    }
+
     @Test
     public void testDDLTimesOut() throws Exception{
         /*
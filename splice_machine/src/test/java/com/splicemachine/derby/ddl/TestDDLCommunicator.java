@@ -94,4 +94,9 @@ class TestDDLCommunicator implements DDLCommunicator{
     public String getErrorMessage(String changeId, String errorId) throws StandardException {
         throw new RuntimeException("Not Implemented");
     }
+
+    @Override
+    public String getChangeVersion() throws StandardException{
+        return null;
+    }
 }
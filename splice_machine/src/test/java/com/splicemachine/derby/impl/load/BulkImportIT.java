@@ -0,0 +1,222 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.splicemachine.derby.impl.load;
+
+import org.spark_project.guava.collect.Lists;
+import com.splicemachine.derby.test.framework.SpliceIndexWatcher;
+import com.splicemachine.derby.test.framework.SpliceNetConnection;
+import com.splicemachine.derby.test.framework.SpliceSchemaWatcher;
+import com.splicemachine.derby.test.framework.SpliceTableWatcher;
+import com.splicemachine.derby.test.framework.SpliceUnitTest;
+import com.splicemachine.derby.test.framework.TestConnection;
+
+import org.junit.*;
+import org.junit.rules.RuleChain;
+import org.junit.rules.TestRule;
+
+import java.io.File;
+import java.sql.*;
+import java.util.List;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Correctness tests around the "BULK_IMPORT_DATA" functionality.
+ */
+public class BulkImportIT extends SpliceUnitTest {
+    private static final SpliceSchemaWatcher schema =
+            new SpliceSchemaWatcher(BulkImportIT.class.getSimpleName().toUpperCase());
+    private static final SpliceTableWatcher indexedTable =
+            new SpliceTableWatcher("indexed",schema.schemaName,"(a int, b int)");
+    private static final SpliceIndexWatcher indexedTableIndex =
+            new SpliceIndexWatcher(indexedTable.tableName,schema.schemaName,"indexed_b",schema.schemaName,"(b)");
+    private static final SpliceTableWatcher occupiedTable =
+            new SpliceTableWatcher("occ_table",schema.schemaName,"(a int, b int, primary key(a))");
+    private static final SpliceTableWatcher childTable =
+            new SpliceTableWatcher("child",schema.schemaName,"(a int, b int references "+schema.schemaName+".occ_table(a))");
+    private static final SpliceTableWatcher duplicateTable =
+            new SpliceTableWatcher("dup_table",schema.schemaName,"(a int, b int, constraint dup_pk primary key(a))");
+    private static final SpliceTableWatcher committedTable =
+            new SpliceTableWatcher("fenced_commit",schema.schemaName,"(a int, b int, primary key(a))");
+    private static final SpliceTableWatcher rolledBackTable =
+            new SpliceTableWatcher("fenced_rollback",schema.schemaName,"(a int, b int, primary key(a))");
+
+    private static TestConnection conn;
+    private static File BADDIR;
+
+    @ClassRule public static TestRule chain = RuleChain.outerRule(schema)
+            .around(indexedTable)
+            .around(indexedTableIndex)
+            .around(occupiedTable)
+            .around(childTable)
+            .around(duplicateTable)
+            .around(committedTable)
+            .around(rolledBackTable);
+    private static int size;
+    private static SpliceUnitTest.TestFileGenerator fullTestFile;
+    private static SpliceUnitTest.TestFileGenerator duplicateTestFile;
+    private static List<int[]> correctFullData;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        BADDIR = createBadLogDirectory(schema.schemaName);
+        assertNotNull(BADDIR);
+        File IMPORTDIR = createImportFileDirectory(schema.schemaName);
+        assertNotNull(IMPORTDIR);
+
+        size = 5;
+        correctFullData = Lists.newArrayListWithExpectedSize(size);
+        fullTestFile = generateFullRow(IMPORTDIR, "full", size, correctFullData, false);
+        duplicateTestFile = generateFullRow(IMPORTDIR, "duplicate", size, Lists.<int[]>newArrayList(), true);
+    }
+
+    @Before
+    public void before() throws Exception {
+        conn = createConnection();
+        conn.setAutoCommit(false);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            // ignore
+        }
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            // ignore
+        }
+    }
+
+    @Test
+    public void testBulkImportPopulatesTableAndIndex() throws Exception {
+        CallableStatement statement = bulkImport(indexedTable.tableName);
+
+        ResultSet resultSet = statement.executeQuery();
+        validateImportResults(resultSet,size,0);
+
+        Assert.assertEquals("Incorrect row count!",size,
+                conn.count("select * from "+indexedTable));
+        for(int[] row:correctFullData){
+            ResultSet rs = conn.query("select a from "+indexedTable+" --splice-properties index=indexed_b\n where b = "+row[1]);
+            Assert.assertTrue("Row not found through the index!",rs.next());
+            Assert.assertEquals("Incorrect value for column A!",row[0],rs.getInt(1));
+            Assert.assertFalse("Too many rows found through the index!",rs.next());
+        }
+    }
+
+    @Test
+    public void testBulkImportFailsIntoOccupiedPkTable() throws Exception {
+        PreparedStatement ps = conn.prepareStatement("insert into " + occupiedTable + "(a,b) values (?,?)");
+        ps.setInt(1,size+1); ps.setInt(2,size+1); ps.executeUpdate();
+
+        assertNotSupported(bulkImport(occupiedTable.tableName));
+    }
+
+    @Test
+    public void testBulkImportFailsWithForeignKey() throws Exception {
+        assertNotSupported(bulkImport(childTable.tableName));
+    }
+
+    @Test
+    public void testBulkImportFailsOnDuplicateKeys() throws Exception {
+        try{
+            bulkImport(duplicateTable.tableName,duplicateTestFile).execute();
+            Assert.fail("Did not throw exception");
+        }catch(SQLException se){
+            Assert.assertEquals("Incorrect SQL State!","23505",se.getSQLState());
+            Assert.assertTrue("Constraint not named in message: "+se.getMessage(),
+                    se.getMessage().toUpperCase().contains("DUP_PK"));
+        }
+    }
+
+    @Test
+    public void testBulkImportFencesOtherWritersUntilCommit() throws Exception {
+        validateImportResults(bulkImport(committedTable.tableName).executeQuery(),size,0);
+
+        try(TestConnection other = createConnection()){
+            assertFenced(other,committedTable);
+
+            conn.commit();
+            insertRow(other,committedTable,size+1);
+            Assert.assertEquals("Incorrect row count!",size+1,other.count("select * from "+committedTable));
+        }
+    }
+
+    @Test
+    public void testBulkImportFencesOtherWritersUntilRollback() throws Exception {
+        validateImportResults(bulkImport(rolledBackTable.tableName).executeQuery(),size,0);
+
+        try(TestConnection other = createConnection()){
+            assertFenced(other,rolledBackTable);
+
+            conn.rollback();
+            insertRow(other,rolledBackTable,size+1);
+            Assert.assertEquals("Incorrect row count!",1,other.count("select * from "+rolledBackTable));
+        }
+    }
+
+    /*****************************************************************************************************************/
+    /*private helper methods*/
+    private CallableStatement bulkImport(String tableName) throws Exception {
+        return bulkImport(tableName,fullTestFile);
+    }
+
+    private CallableStatement bulkImport(String tableName,SpliceUnitTest.TestFileGenerator file) throws Exception {
+        CallableStatement statement =
+                conn.prepareCall("call SYSCS_UTIL.BULK_IMPORT_DATA(?,?,null,?,null,null,null,null,null,0,?,null,null)");
+        statement.setString(1,schema.schemaName);
+        statement.setString(2,tableName);
+        statement.setString(3,file.getFilePath());
+        statement.setString(4,BADDIR.getCanonicalPath());
+        return statement;
+    }
+
+    private static void assertNotSupported(CallableStatement statement) {
+        try{
+            statement.execute();
+            Assert.fail("Did not throw exception");
+        }catch(SQLException se){
+            Assert.assertEquals("Incorrect SQL State!", "SE023", se.getSQLState());
+        }
+    }
+
+    private static void insertRow(TestConnection writer,SpliceTableWatcher table,int key) throws SQLException {
+        try(PreparedStatement ps = writer.prepareStatement("insert into " + table + "(a,b) values (?,?)")){
+            ps.setInt(1,key); ps.setInt(2,key);
+            ps.executeUpdate();
+        }
+    }
+
+    private static void assertFenced(TestConnection writer,SpliceTableWatcher table) {
+        try{
+            insertRow(writer,table,size+1);
+            Assert.fail("Write was not fenced off by the import");
+        }catch(SQLException se){
+            //SE014 = ErrorState.WRITE_WRITE_CONFLICT
+            Assert.assertEquals("Incorrect SQL State!","SE014",se.getSQLState());
+        }
+    }
+
+    private static TestConnection createConnection() throws Exception {
+        Connection baseConn = SpliceNetConnection.getConnectionAs(
+                SpliceNetConnection.DEFAULT_USER,
+                SpliceNetConnection.DEFAULT_USER_PASSWORD);
+        TestConnection conn = new TestConnection(baseConn);
+        conn.setSchema(schema.schemaName);
+        return conn;
+    }
+}
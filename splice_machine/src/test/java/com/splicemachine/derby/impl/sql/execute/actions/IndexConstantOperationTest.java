@@ -0,0 +1,61 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.actions;
+
+import com.splicemachine.ddl.DDLMessage;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(ArchitectureIndependent.class)
+public class IndexConstantOperationTest{
+    private static final long DEMARCATION_POINT=1000l;
+
+    @Test
+    public void nonUniqueIndexesAreBulkLoadedAtTheDemarcationPoint() throws Exception{
+        Assert.assertEquals(DEMARCATION_POINT,
+                IndexConstantOperation.getBulkLoadTimestamp(true,index(false,false),DEMARCATION_POINT));
+    }
+
+    @Test
+    public void uniqueIndexesAreWrittenThroughThePipeline() throws Exception{
+        Assert.assertEquals(-1l,IndexConstantOperation.getBulkLoadTimestamp(true,index(true,false),DEMARCATION_POINT));
+        Assert.assertEquals(-1l,IndexConstantOperation.getBulkLoadTimestamp(true,index(false,true),DEMARCATION_POINT));
+    }
+
+    @Test
+    public void nothingIsBulkLoadedWhenBulkBuildIsDisabled() throws Exception{
+        Assert.assertEquals(-1l,IndexConstantOperation.getBulkLoadTimestamp(false,index(false,false),DEMARCATION_POINT));
+    }
+
+    @Test
+    public void nothingIsBulkLoadedWithoutADemarcationPoint() throws Exception{
+        Assert.assertEquals(-1l,IndexConstantOperation.getBulkLoadTimestamp(true,index(false,false),-1l));
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private static DDLMessage.Index index(boolean unique,boolean uniqueWithDuplicateNulls){
+        return DDLMessage.Index.newBuilder()
+                .setConglomerate(1l)
+                .addIndexColsToMainColMap(1)
+                .setUnique(unique)
+                .setUniqueWithDuplicateNulls(uniqueWithDuplicateNulls)
+                .addDescColumns(false)
+                .build();
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.index;
+
+import com.splicemachine.derby.stream.iapi.PairDataSet;
+import com.splicemachine.derby.stream.output.BulkLoadDataSetWriterBuilder;
+import com.splicemachine.derby.stream.output.DataSetWriterBuilder;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.mockito.Mockito.*;
+
+@Category(ArchitectureIndependent.class)
+public class PopulateIndexJobTest{
+
+    @Test
+    public void bulkLoadsAtTheGivenTimestamp() throws Exception{
+        PairDataSet dataSet=mock(PairDataSet.class);
+        BulkLoadDataSetWriterBuilder bulkLoad=mock(BulkLoadDataSetWriterBuilder.class);
+        BulkLoadDataSetWriterBuilder timestamped=mock(BulkLoadDataSetWriterBuilder.class);
+        when(dataSet.bulkLoadData()).thenReturn(bulkLoad);
+        when(bulkLoad.timestamp(1000l)).thenReturn(timestamped);
+
+        Assert.assertSame(timestamped,PopulateIndexJob.writerBuilder(dataSet,1000l));
+        verify(bulkLoad).timestamp(1000l);
+        verify(dataSet,never()).directWriteData();
+    }
+
+    @Test
+    public void bulkLoadsAtTheStartOfTime() throws Exception{
+        PairDataSet dataSet=mock(PairDataSet.class);
+        BulkLoadDataSetWriterBuilder bulkLoad=mock(BulkLoadDataSetWriterBuilder.class);
+        when(dataSet.bulkLoadData()).thenReturn(bulkLoad);
+        when(bulkLoad.timestamp(0l)).thenReturn(bulkLoad);
+
+        Assert.assertSame(bulkLoad,PopulateIndexJob.writerBuilder(dataSet,0l));
+        verify(bulkLoad).timestamp(0l);
+    }
+
+    @Test
+    public void writesThroughThePipelineWithoutATimestamp() throws Exception{
+        PairDataSet dataSet=mock(PairDataSet.class);
+        DataSetWriterBuilder direct=mock(DataSetWriterBuilder.class);
+        when(dataSet.directWriteData()).thenReturn(direct);
+
+        Assert.assertSame(direct,PopulateIndexJob.writerBuilder(dataSet,-1l));
+        verify(dataSet,never()).bulkLoadData();
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.operations;
+
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.derby.impl.sql.JoinTable;
+import com.splicemachine.si.api.txn.Txn;
+import com.splicemachine.si.api.txn.TxnView;
+import com.splicemachine.si.impl.txn.InheritingTxnView;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import com.splicemachine.stream.Stream;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Category(ArchitectureIndependent.class)
+public class BroadcastJoinCacheTest{
+
+    @Test
+    public void sharedTablesAreReusedAfterClose() throws Exception{
+        CountingLoader loader = new CountingLoader(100);
+        BroadcastJoinCache cache = new BroadcastJoinCache(loader,1024,60);
+        BroadcastJoinCache.Key key = sharedKey(1l,"a");
+
+        cache.get(key,null,null,null,null).newTable().close();
+        cache.get(sharedKey(1l,"a"),null,null,null,null).newTable().close();
+
+        Assert.assertEquals("Table should only have been loaded once",1,loader.loads.get());
+        Assert.assertEquals("Incorrect hit count",1l,cache.getHitCount());
+        Assert.assertEquals("Incorrect miss count",1l,cache.getMissCount());
+        Assert.assertEquals("Incorrect cached bytes",100l,cache.getCachedBytes());
+    }
+
+    @Test
+    public void differentSnapshotsAreNotShared() throws Exception{
+        CountingLoader loader = new CountingLoader(100);
+        BroadcastJoinCache cache = new BroadcastJoinCache(loader,1024,60);
+
+        cache.get(sharedKey(1l,"a"),null,null,null,null).newTable().close();
+        cache.get(sharedKey(2l,"a"),null,null,null,null).newTable().close();
+        cache.get(sharedKey(1l,"b"),null,null,null,null).newTable().close();
+
+        Assert.assertEquals("Each snapshot and predicate should have its own table",3,loader.loads.get());
+    }
+
+    @Test
+    public void operationTablesAreDroppedAfterClose() throws Exception{
+        CountingLoader loader = new CountingLoader(100);
+        BroadcastJoinCache cache = new BroadcastJoinCache(loader,1024,60);
+        BroadcastJoinCache.Key key = new BroadcastJoinCache.Key(-1l,10l,null,null,null,null,null,false);
+
+        cache.get(key,null,null,null,null).newTable().close();
+        Assert.assertEquals("Operation table should have been removed",0l,cache.getCachedEntries());
+        Assert.assertEquals("Incorrect cached bytes",0l,cache.getCachedBytes());
+    }
+
+    @Test
+    public void evictsBySize() throws Exception{
+        CountingLoader loader = new CountingLoader(400);
+        BroadcastJoinCache cache = new BroadcastJoinCache(loader,1000,60);
+        for(long i=0;i<5;i++){
+            cache.get(sharedKey(i,"a"),null,null,null,null).newTable().close();
+        }
+        Assert.assertTrue("Cache exceeds its size limit",cache.getCachedBytes()<=1000l);
+        Assert.assertTrue("Nothing was evicted",cache.getEvictionCount()>0);
+        Assert.assertEquals("Evicted tables should have been released",cache.getEvictionCount(),(long)loader.releases.get());
+    }
+
+    @Test
+    public void evictedTablesAreReleasedByTheirLastUser() throws Exception{
+        CountingLoader loader = new CountingLoader(100);
+        BroadcastJoinCache cache = new BroadcastJoinCache(loader,1024,60);
+        JoinTable inUse = cache.get(sharedKey(1l,"a"),null,null,null,null).newTable();
+        cache.get(sharedKey(2l,"a"),null,null,null,null).newTable().close();
+
+        cache.invalidateAll();
+        Assert.assertEquals("Only the unused table should have been released",1,loader.releases.get());
+        Assert.assertEquals("Incorrect cached bytes",0l,cache.getCachedBytes());
+
+        inUse.close();
+        Assert.assertEquals("Table should have been released by its last user",2,loader.releases.get());
+
+        cache.get(sharedKey(1l,"a"),null,null,null,null).newTable().close();
+        Assert.assertEquals("Released table should have been loaded again",3,loader.loads.get());
+    }
+
+    @Test
+    public void operationTablesAreReleasedAfterClose() throws Exception{
+        CountingLoader loader = new CountingLoader(100);
+        BroadcastJoinCache cache = new BroadcastJoinCache(loader,1024,60);
+        BroadcastJoinCache.Key key = new BroadcastJoinCache.Key(-1l,10l,null,null,null,null,null,false);
+
+        JoinTable first = cache.get(key,null,null,null,null).newTable();
+        JoinTable second = cache.get(key,null,null,null,null).newTable();
+        first.close();
+        Assert.assertEquals("Table is still in use",0,loader.releases.get());
+        second.close();
+        Assert.assertEquals("Table should have been released",1,loader.releases.get());
+    }
+
+    @Test
+    public void tablesLargerThanTheCacheAreUsableUntilClosed() throws Exception{
+        CountingLoader loader = new CountingLoader(2000);
+        BroadcastJoinCache cache = new BroadcastJoinCache(loader,1000,60);
+
+        JoinTable table = cache.get(sharedKey(1l,"a"),null,null,null,null).newTable();
+        Assert.assertEquals("Table should not be cached",0l,cache.getCachedEntries());
+        Assert.assertEquals("Table is still in use",0,loader.releases.get());
+        table.close();
+        Assert.assertEquals("Table should have been released",1,loader.releases.get());
+    }
+
+    @Test
+    public void transactionsAtTheSameSnapshotShareOneBuild() throws Exception{
+        TxnView parent = new InheritingTxnView(Txn.ROOT_TRANSACTION,100l,100l,false,Txn.IsolationLevel.SNAPSHOT_ISOLATION,Txn.State.ACTIVE);
+        TxnView first = new InheritingTxnView(parent,101l,100l,false,Txn.IsolationLevel.SNAPSHOT_ISOLATION,Txn.State.ACTIVE);
+        TxnView second = new InheritingTxnView(parent,102l,100l,false,Txn.IsolationLevel.SNAPSHOT_ISOLATION,Txn.State.ACTIVE);
+        long snapshot = BroadcastJoinCache.Key.sharedSnapshot(first);
+        Assert.assertEquals("Read-only children read at the snapshot of their parent",100l,snapshot);
+        Assert.assertEquals("Read-only children read at the snapshot of their parent",snapshot,BroadcastJoinCache.Key.sharedSnapshot(second));
+
+        CountingLoader loader = new CountingLoader(100);
+        BroadcastJoinCache cache = new BroadcastJoinCache(loader,1024,60);
+        JoinTable firstTable = cache.get(sharedKey(snapshot,"a"),null,null,null,null).newTable();
+        JoinTable secondTable = cache.get(sharedKey(BroadcastJoinCache.Key.sharedSnapshot(second),"a"),null,null,null,null).newTable();
+        firstTable.close();
+        secondTable.close();
+        Assert.assertEquals("Both transactions should share one build",1,loader.loads.get());
+    }
+
+    @Test
+    public void writableTransactionsDoNotShare() throws Exception{
+        TxnView writable = new InheritingTxnView(Txn.ROOT_TRANSACTION,100l,100l,true,Txn.IsolationLevel.SNAPSHOT_ISOLATION,Txn.State.ACTIVE);
+        TxnView readOnlyChild = new InheritingTxnView(writable,101l,100l,false,Txn.IsolationLevel.SNAPSHOT_ISOLATION,Txn.State.ACTIVE);
+        TxnView readCommitted = new InheritingTxnView(Txn.ROOT_TRANSACTION,102l,102l,false,Txn.IsolationLevel.READ_COMMITTED,Txn.State.ACTIVE);
+        Assert.assertEquals(-1l,BroadcastJoinCache.Key.sharedSnapshot(writable));
+        Assert.assertEquals("Parent can write at the same snapshot",-1l,BroadcastJoinCache.Key.sharedSnapshot(readOnlyChild));
+        Assert.assertEquals(-1l,BroadcastJoinCache.Key.sharedSnapshot(readCommitted));
+        Assert.assertEquals(-1l,BroadcastJoinCache.Key.sharedSnapshot(null));
+    }
+
+    @Test
+    public void concurrentLoadsAreSingleFlight() throws Exception{
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountingLoader loader = new CountingLoader(100){
+            @Override
+            public JoinTable.Factory load(Callable<Stream<ExecRow>> streamLoader,int[] innerHashKeys,int[] outerHashKeys,ExecRow outerTemplateRow) throws ExecutionException{
+                try{
+                    release.await(10,TimeUnit.SECONDS);
+                }catch(InterruptedException e){
+                    throw new ExecutionException(e);
+                }
+                return super.load(streamLoader,innerHashKeys,outerHashKeys,outerTemplateRow);
+            }
+        };
+        final BroadcastJoinCache cache = new BroadcastJoinCache(loader,1024,60);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try{
+            List<Future<JoinTable.Factory>> futures = new ArrayList<>();
+            for(int i=0;i<4;i++){
+                futures.add(executor.submit(new Callable<JoinTable.Factory>(){
+                    @Override
+                    public JoinTable.Factory call() throws Exception{
+                        return cache.get(sharedKey(1l,"a"),null,null,null,null);
+                    }
+                }));
+            }
+            release.countDown();
+            JoinTable.Factory first = futures.get(0).get();
+            for(Future<JoinTable.Factory> future:futures){
+                Assert.assertSame("All joins should share the same table",first,future.get());
+            }
+            Assert.assertEquals("Table should only have been loaded once",1,loader.loads.get());
+        }finally{
+            executor.shutdownNow();
+        }
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private static BroadcastJoinCache.Key sharedKey(long snapshot,String predicate){
+        return new BroadcastJoinCache.Key(1184l,snapshot,new int[]{0,1},predicate,new int[]{0},new int[]{1},new int[]{80,80},true);
+    }
+
+    private static class CountingLoader implements BroadcastJoinCache.JoinTableLoader{
+        final AtomicInteger loads = new AtomicInteger(0);
+        final AtomicInteger releases = new AtomicInteger(0);
+        private final long tableSize;
+
+        CountingLoader(long tableSize){
+            this.tableSize=tableSize;
+        }
+
+        @Override
+        public JoinTable.Factory load(Callable<Stream<ExecRow>> streamLoader,int[] innerHashKeys,int[] outerHashKeys,ExecRow outerTemplateRow) throws ExecutionException{
+            loads.incrementAndGet();
+            return new JoinTable.Factory(){
+                @Override
+                public JoinTable newTable(){
+                    return new JoinTable(){
+                        @Override
+                        public Iterator<ExecRow> fetchInner(ExecRow outer){
+                            return Collections.emptyIterator();
+                        }
+
+                        @Override public void close(){ }
+                    };
+                }
+
+                @Override
+                public long estimatedSize(){
+                    return tableSize;
+                }
+
+                @Override
+                public void release(){
+                    releases.incrementAndGet();
+                }
+            };
+        }
+    }
+}
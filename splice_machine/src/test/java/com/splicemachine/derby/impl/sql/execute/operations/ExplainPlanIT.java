@@ -43,10 +43,17 @@ public class ExplainPlanIT extends SpliceUnitTest  {
     private static String tableDef = "(I INT)";
     protected static SpliceTableWatcher spliceTableWatcher = new SpliceTableWatcher(TABLE_NAME,CLASS_NAME, tableDef);
 
+    public static final String INDEXED_TABLE_NAME = "B";
+    public static final String INDEX_NAME = "B_IDX";
+    protected static SpliceTableWatcher spliceIndexedTableWatcher = new SpliceTableWatcher(INDEXED_TABLE_NAME,CLASS_NAME, "(I INT, J INT)");
+    protected static SpliceIndexWatcher spliceIndexWatcher = new SpliceIndexWatcher(INDEXED_TABLE_NAME,CLASS_NAME, INDEX_NAME,CLASS_NAME, "(I)");
+
     @ClassRule
     public static TestRule chain = RuleChain.outerRule(spliceClassWatcher)
             .around(spliceSchemaWatcher)
             .around(spliceTableWatcher)
+            .around(spliceIndexedTableWatcher)
+            .around(spliceIndexWatcher)
             .around(new SpliceDataWatcher(){
                 @Override
                 protected void starting(Description description){
@@ -62,6 +69,13 @@ public class ExplainPlanIT extends SpliceUnitTest  {
                         for (int i = 0; i < 11; ++i) {
                             ps.execute();
                         }
+                        ps=spliceClassWatcher.prepareStatement(format("insert into %s.%s values (?,?)",CLASS_NAME,INDEXED_TABLE_NAME));
+                        for(int i=0;i<10;i++){
+                            ps.setInt(1, i);
+                            ps.setInt(2, i);
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
                         ps = spliceClassWatcher.prepareStatement(format("analyze schema %s", CLASS_NAME));
                         ps.execute();
                     }catch(Exception e){
@@ -143,6 +157,90 @@ public class ExplainPlanIT extends SpliceUnitTest  {
 
     }
 
+    @Test
+    public void testExplainAnalyzeControl() throws Exception {
+        assertScanAnalyzed(format("explain analyze select * from %s.%s --SPLICE-PROPERTIES useSpark=false", CLASS_NAME, TABLE_NAME));
+    }
+
+    @Test
+    public void testExplainAnalyzeSpark() throws Exception {
+        assertScanAnalyzed(format("explain analyze select * from %s.%s --SPLICE-PROPERTIES useSpark=true", CLASS_NAME, TABLE_NAME));
+    }
+
+    private void assertScanAnalyzed(String sql) throws Exception {
+        ResultSet rs  = methodWatcher.executeQuery(sql);
+        boolean foundScan = false;
+        while (rs.next()) {
+            String line = rs.getString(1);
+            if (line.contains("TableScan")) {
+                foundScan = true;
+                Assert.assertTrue("expect runtime statistics for the scan: " + line, line.contains("actual(outputRows=20480,"));
+            }
+        }
+        Assert.assertTrue("expect a table scan in the plan", foundScan);
+    }
+
+    @Test
+    public void testExplainAnalyzeIndexLookupControl() throws Exception {
+        assertIndexLookupAnalyzed(false);
+    }
+
+    @Test
+    public void testExplainAnalyzeIndexLookupSpark() throws Exception {
+        assertIndexLookupAnalyzed(true);
+    }
+
+    private void assertIndexLookupAnalyzed(boolean useSpark) throws Exception {
+        ResultSet rs  = methodWatcher.executeQuery(format("explain analyze select * from %s.%s --SPLICE-PROPERTIES index=%s, useSpark=%s \n" +
+                "where i < 5", CLASS_NAME, INDEXED_TABLE_NAME, INDEX_NAME, useSpark));
+        boolean foundLookup = false;
+        while (rs.next()) {
+            String line = rs.getString(1);
+            if (line.contains("IndexLookup")) {
+                foundLookup = true;
+                Assert.assertTrue("expect runtime statistics for the lookup: " + line, line.contains("actual(outputRows=5,"));
+                Assert.assertTrue("expect one remote read per looked up row: " + line, line.contains("remoteReads=5"));
+            }
+            else if (line.contains("IndexScan")) {
+                Assert.assertTrue("expect runtime statistics for the index scan: " + line, line.contains("actual(outputRows=5,"));
+                Assert.assertFalse("an index scan reads no other table: " + line, line.contains("remoteReads="));
+            }
+        }
+        Assert.assertTrue("expect an index lookup in the plan", foundLookup);
+    }
+
+    @Test
+    public void testExplainAnalyzeJoinControl() throws Exception {
+        assertJoinAnalyzed(false);
+    }
+
+    @Test
+    public void testExplainAnalyzeJoinSpark() throws Exception {
+        assertJoinAnalyzed(true);
+    }
+
+    private void assertJoinAnalyzed(boolean useSpark) throws Exception {
+        ResultSet rs  = methodWatcher.executeQuery(format("explain analyze select * from %1$s.%2$s, %1$s.%3$s " +
+                "--SPLICE-PROPERTIES index=null, joinStrategy=BROADCAST, useSpark=%4$s \n" +
+                "where %2$s.i = %3$s.i", CLASS_NAME, TABLE_NAME, INDEXED_TABLE_NAME, useSpark));
+        boolean foundJoin = false;
+        int scans = 0;
+        while (rs.next()) {
+            String line = rs.getString(1);
+            if (line.contains("BroadcastJoin")) {
+                foundJoin = true;
+                // every row of A matches exactly one row of B
+                Assert.assertTrue("expect runtime statistics for the join: " + line, line.contains("actual(outputRows=20480,"));
+            }
+            else if (line.contains("TableScan")) {
+                scans++;
+                Assert.assertTrue("expect runtime statistics for the scan: " + line, line.contains("actual(outputRows="));
+            }
+        }
+        Assert.assertTrue("expect a broadcast join in the plan", foundJoin);
+        Assert.assertEquals("expect both sides of the join to be scanned", 2, scans);
+    }
+
     @Test
     public void testSparkConnection() throws Exception {
         String url = "jdbc:splice://localhost:1527/splicedb;create=true;user=splice;password=admin;useSpark=true";
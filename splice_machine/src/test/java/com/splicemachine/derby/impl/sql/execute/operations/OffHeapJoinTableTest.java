@@ -0,0 +1,125 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.operations;
+
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.Set;
+
+@Category(ArchitectureIndependent.class)
+public class OffHeapJoinTableTest{
+
+    @Test
+    public void arenaSpansPages() throws Exception{
+        DirectRowArena arena = new DirectRowArena(64);
+        long first = arena.append(Bytes.toBytes("key"),Bytes.toBytes("a row which is longer than one page of the arena"),DirectRowArena.NULL_ADDRESS);
+        long second = arena.append(Bytes.toBytes("key"),Bytes.toBytes("row2"),first);
+
+        Assert.assertEquals("Incorrect chain",first,arena.next(second));
+        Assert.assertEquals("Incorrect chain",DirectRowArena.NULL_ADDRESS,arena.next(first));
+        Assert.assertTrue("Key does not match",arena.keyEquals(second,Bytes.toBytes("key")));
+        Assert.assertFalse("Key should not match",arena.keyEquals(second,Bytes.toBytes("kez")));
+        Assert.assertEquals("Incorrect row","a row which is longer than one page of the arena",Bytes.toString(readRow(arena,first)));
+        Assert.assertEquals("Incorrect row","row2",Bytes.toString(readRow(arena,second)));
+        Assert.assertEquals("Incorrect record count",2l,arena.numRecords());
+    }
+
+    @Test
+    public void bytesIndexChainsDuplicateKeys() throws Exception{
+        DirectRowArena arena = new DirectRowArena(1024);
+        OffHeapJoinTable.BytesKeyIndex index = new OffHeapJoinTable.BytesKeyIndex(arena);
+        for(int i=0;i<1000;i++){
+            index.insert(Bytes.toBytes("key-"+(i%100)),Bytes.toBytes(i));
+        }
+        for(int k=0;k<100;k++){
+            Set<Integer> rows = chain(arena,index.find(Bytes.toBytes("key-"+k)));
+            Assert.assertEquals("Incorrect number of matches for key "+k,10,rows.size());
+            for(Integer row:rows){
+                Assert.assertEquals("Row in the wrong chain",k,row%100);
+            }
+        }
+        Assert.assertEquals("Found a missing key",DirectRowArena.NULL_ADDRESS,index.find(Bytes.toBytes("key-100")));
+    }
+
+    @Test
+    public void longIndexChainsDuplicateKeysAndNulls() throws Exception{
+        DirectRowArena arena = new DirectRowArena(1024);
+        OffHeapJoinTable.LongKeyIndex index = new OffHeapJoinTable.LongKeyIndex(arena);
+        for(int i=0;i<1000;i++){
+            if(i%10==0)
+                index.insertNull(Bytes.toBytes(i));
+            else
+                index.insert(i%50-25,Bytes.toBytes(i));
+        }
+        for(long k=-25;k<25;k++){
+            Set<Integer> rows = chain(arena,index.find(k));
+            for(Integer row:rows){
+                Assert.assertEquals("Row in the wrong chain",k,row%50-25);
+            }
+            Assert.assertEquals("Incorrect number of matches for key "+k,(k+25)%10==0?0:20,rows.size());
+        }
+        Assert.assertEquals("Incorrect number of null-keyed rows",100,chain(arena,index.nullHead).size());
+        Assert.assertEquals("Found a missing key",DirectRowArena.NULL_ADDRESS,index.find(25l));
+    }
+
+    @Test
+    public void releaseFreesDirectMemory() throws Exception{
+        int pageSize = 1<<20;
+        long before = directMemoryUsed();
+        DirectRowArena arena = new DirectRowArena(pageSize);
+        for(int i=0;i<8;i++){
+            arena.append(Bytes.toBytes(i),new byte[pageSize-64],DirectRowArena.NULL_ADDRESS);
+        }
+        Assert.assertEquals("Incorrect allocation",8l*pageSize,arena.allocatedBytes());
+        long allocated = directMemoryUsed();
+        Assert.assertTrue("Pages were not allocated off-heap",allocated-before>=8l*pageSize);
+
+        arena.release();
+        Assert.assertEquals("Pages should have been dropped",0l,arena.allocatedBytes());
+        Assert.assertTrue("Direct memory was not freed",allocated-directMemoryUsed()>=8l*pageSize);
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private static long directMemoryUsed(){
+        for(BufferPoolMXBean pool:ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)){
+            if("direct".equals(pool.getName()))
+                return pool.getMemoryUsed();
+        }
+        throw new AssertionError("No direct buffer pool");
+    }
+
+    private static byte[] readRow(DirectRowArena arena,long address){
+        byte[] row = new byte[arena.rowLength(address)];
+        arena.readRow(address,row);
+        return row;
+    }
+
+    private static Set<Integer> chain(DirectRowArena arena,long head){
+        Set<Integer> rows = new HashSet<>();
+        for(long address=head;address!=DirectRowArena.NULL_ADDRESS;address=arena.next(address)){
+            rows.add(Bytes.toInt(readRow(arena,address)));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.operations.batch;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.store.access.Qualifier;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.iapi.types.Orderable;
+import com.splicemachine.db.iapi.types.SQLDecimal;
+import com.splicemachine.db.iapi.types.SQLDouble;
+import com.splicemachine.db.iapi.types.SQLInteger;
+import com.splicemachine.db.iapi.types.SQLLongint;
+import com.splicemachine.db.iapi.types.SQLReal;
+import com.splicemachine.db.iapi.types.SQLVarchar;
+import com.splicemachine.db.impl.sql.execute.GenericScanQualifier;
+import com.splicemachine.db.impl.sql.execute.ValueRow;
+import com.splicemachine.derby.utils.Scans;
+import com.splicemachine.encoding.Encoding;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that qualifying a {@link ColumnBatch} with a {@link BatchQualifier} selects exactly the rows which
+ * {@link Scans#qualifyRecordFromRow} accepts.
+ */
+@Category(ArchitectureIndependent.class)
+public class BatchQualifierTest{
+    private static final int NUM_ROWS=200;
+
+    private Random random;
+    private ColumnBatch batch;
+
+    @Before
+    public void setUp() throws Exception{
+        random=new Random(0l);
+        ExecRow template=new ValueRow(4);
+        template.setColumn(1,new SQLInteger());
+        template.setColumn(2,new SQLDouble());
+        template.setColumn(3,new SQLReal());
+        template.setColumn(4,new SQLVarchar());
+        batch=new ColumnBatch(template,"2.0",NUM_ROWS);
+        for(int i=0;i<NUM_ROWS;i++){
+            int row=batch.startRow();
+            if(random.nextInt(10)!=0)
+                batch.column(0).decode(row,Encoding.encode(random.nextInt(20)-10),0,0);
+            if(random.nextInt(10)!=0)
+                batch.column(1).decode(row,Encoding.encode((random.nextInt(40)-20)/2d),0,0);
+            if(random.nextInt(10)!=0)
+                batch.column(2).decode(row,Encoding.encode((random.nextInt(40)-20)/4f),0,0);
+            finishRow(batch,i);
+        }
+    }
+
+    @Test
+    public void decodedValuesMaterialize() throws Exception{
+        ColumnBatch batch=new ColumnBatch(this.batch.getTemplate(),"2.0",2);
+        int row=batch.startRow();
+        batch.column(0).decode(row,Encoding.encode(-7),0,0);
+        batch.column(1).decode(row,Encoding.encode(2.5d),0,0);
+        batch.column(2).decode(row,Encoding.encode(-0.25f),0,0);
+        finishRow(batch,0);
+        row=batch.startRow();
+        finishRow(batch,1);
+
+        ExecRow first=batch.newRow();
+        batch.materialize(0,first);
+        Assert.assertEquals(-7,first.getColumn(1).getInt());
+        Assert.assertEquals(2.5d,first.getColumn(2).getDouble(),0d);
+        Assert.assertEquals(-0.25f,first.getColumn(3).getFloat(),0f);
+        Assert.assertTrue(first.getColumn(4).isNull());
+
+        ExecRow second=batch.newRow();
+        batch.materialize(row,second);
+        for(DataValueDescriptor dvd : second.getRowArray()){
+            Assert.assertTrue(dvd.isNull());
+        }
+    }
+
+    @Test
+    public void matchesRowQualificationForSingleTerms() throws Exception{
+        DataValueDescriptor[] orderables={
+                new SQLInteger(3),new SQLLongint(-2l),new SQLDouble(1.5d),new SQLReal(-0.75f)
+        };
+        for(int column=0;column<3;column++){
+            for(DataValueDescriptor orderable : orderables){
+                for(int op=Orderable.ORDER_OP_LESSTHAN;op<=Orderable.ORDER_OP_GREATEROREQUALS;op++){
+                    for(int flags=0;flags<4;flags++){
+                        Qualifier[][] quals={{qualifier(column,orderable,op,(flags&1)!=0,(flags&2)!=0)}};
+                        assertSameRows(quals,column==0 && orderable instanceof SQLReal);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void matchesRowQualificationForAndOfOrs() throws Exception{
+        for(int i=0;i<200;i++){
+            Qualifier[][] quals=new Qualifier[1+random.nextInt(3)][];
+            for(int j=0;j<quals.length;j++){
+                quals[j]=new Qualifier[1+random.nextInt(3)];
+                for(int k=0;k<quals[j].length;k++){
+                    int column=random.nextInt(3);
+                    DataValueDescriptor orderable=column==0?new SQLInteger(random.nextInt(20)-10):new SQLDouble((random.nextInt(40)-20)/4d);
+                    quals[j][k]=qualifier(column,orderable,1+random.nextInt(5),random.nextBoolean(),random.nextBoolean());
+                }
+            }
+            assertSameRows(quals,false);
+        }
+    }
+
+    @Test
+    public void unsupportedQualifiersAreNotCompiled() throws Exception{
+        Assert.assertNull(BatchQualifier.compile(new Qualifier[][]{{qualifier(3,new SQLVarchar("a"),Orderable.ORDER_OP_EQUALS,false,false)}},null,null,batch));
+        Assert.assertNull(BatchQualifier.compile(new Qualifier[][]{{qualifier(0,new SQLDecimal("1.5"),Orderable.ORDER_OP_EQUALS,false,false)}},null,null,batch));
+        Assert.assertNull(BatchQualifier.compile(new Qualifier[][]{{qualifier(0,new SQLInteger(),Orderable.ORDER_OP_EQUALS,false,false)}},null,null,batch));
+
+        GenericScanQualifier orderedNulls=new GenericScanQualifier();
+        orderedNulls.setQualifier(0,new SQLInteger(1),Orderable.ORDER_OP_EQUALS,false,true,false);
+        Assert.assertNull(BatchQualifier.compile(new Qualifier[][]{{orderedNulls}},null,null,batch));
+    }
+
+    /*****************************************************************************************************************/
+    /*private helper methods*/
+    private static void finishRow(ColumnBatch batch,int row){
+        byte[] key=Encoding.encode(row);
+        batch.finishRow(key,0,key.length);
+    }
+
+    private Qualifier qualifier(int column,DataValueDescriptor orderable,int operator,boolean negate,boolean unknownRV){
+        GenericScanQualifier q=new GenericScanQualifier();
+        q.setQualifier(column,orderable,operator,negate,false,unknownRV);
+        return q;
+    }
+
+    private void assertSameRows(Qualifier[][] quals,boolean expectUnsupported) throws StandardException{
+        BatchQualifier qualifier=BatchQualifier.compile(quals,null,null,batch);
+        if(expectUnsupported){
+            Assert.assertNull("Should not have compiled",qualifier);
+            return;
+        }
+        Assert.assertNotNull("Did not compile",qualifier);
+
+        List<Integer> expected=new ArrayList<>();
+        ExecRow row=batch.newRow();
+        for(int i=0;i<batch.size();i++){
+            batch.materialize(i,row);
+            if(Scans.qualifyRecordFromRow(row.getRowArray(),quals,null,null))
+                expected.add(i);
+        }
+
+        batch.selectAll();
+        qualifier.filter(batch);
+        List<Integer> actual=new ArrayList<>(batch.numSelected());
+        for(int i=0;i<batch.numSelected();i++){
+            actual.add(batch.selected()[i]);
+        }
+        Assert.assertEquals("Incorrect rows selected",expected,actual);
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.lifecycle;
+
+import com.splicemachine.db.drda.NetworkServerControl;
+import com.splicemachine.db.iapi.reference.Property;
+import com.splicemachine.derby.test.framework.SpliceNetConnection;
+import com.splicemachine.test.SerialTest;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.net.InetAddress;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tests for parking idle DRDA sessions, run against a server started with
+ * {@code derby.drda.parkIdleSessions=true}.
+ *
+ * Each test caps the connection threads at the size the pool already has, then holds more connections than that.
+ * A session which kept its thread while idle would leave the statements of the others queued forever, so the tests
+ * time out rather than fail if parking is broken. They change the server's maxThreads, hence run serially.
+ */
+@Category(SerialTest.class)
+public class ParkedSessionIT {
+    private static final int EXTRA_SESSIONS = 4;
+    private static final String SEPARATOR = "-------------------------------------------------------------\n";
+    private static final Pattern TRAILING_NUMBER = Pattern.compile("(\\d+)\\s*$");
+
+    private static NetworkServerControl server;
+    private static int maxThreads;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        server = new NetworkServerControl(InetAddress.getByName("localhost"),1527,
+                SpliceNetConnection.DEFAULT_USER,
+                SpliceNetConnection.DEFAULT_USER_PASSWORD);
+        Assume.assumeTrue("Server does not park idle sessions",
+                Boolean.parseBoolean(server.getCurrentProperties().getProperty(Property.DRDA_PROP_PARKIDLESESSIONS)));
+        maxThreads = server.getMaxThreads();
+    }
+
+    @Test(timeout = 60000)
+    public void testMoreIdleSessionsThanThreads() throws Exception {
+        int threads = capThreads();
+        final List<Connection> conns = new ArrayList<>();
+        try{
+            for(int i=0;i<threads+EXTRA_SESSIONS;i++){
+                Connection conn = SpliceNetConnection.getConnection();
+                conns.add(conn);
+                assertRunsStatement(conn,i);
+            }
+            // every session is parked now, and each has to get a thread back for its next statement
+            for(int i=0;i<conns.size();i++){
+                assertRunsStatement(conns.get(i),i);
+            }
+
+            // and again with all of them asking at once
+            ExecutorService executor = Executors.newFixedThreadPool(conns.size());
+            try{
+                List<Future<Void>> futures = new ArrayList<>(conns.size());
+                for(int i=0;i<conns.size();i++){
+                    final int value = i;
+                    futures.add(executor.submit(new Callable<Void>(){
+                        @Override
+                        public Void call() throws Exception{
+                            assertRunsStatement(conns.get(value),value);
+                            return null;
+                        }
+                    }));
+                }
+                for(Future<Void> future:futures){
+                    future.get();
+                }
+            }finally{
+                executor.shutdownNow();
+            }
+        }finally{
+            closeAll(conns);
+            server.setMaxThreads(maxThreads);
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testClientDisconnectingWhileParked() throws Exception {
+        int threads = capThreads();
+        List<Connection> conns = new ArrayList<>();
+        try{
+            // a parked session whose client goes away must give up its thread once the server notices
+            for(int i=0;i<threads+EXTRA_SESSIONS;i++){
+                Connection conn = SpliceNetConnection.getConnection();
+                assertRunsStatement(conn,i);
+                conn.close();
+            }
+
+            // the server still serves as many sessions as before
+            for(int i=0;i<threads+EXTRA_SESSIONS;i++){
+                Connection conn = SpliceNetConnection.getConnection();
+                conns.add(conn);
+                assertRunsStatement(conn,i);
+            }
+            for(int i=0;i<conns.size();i++){
+                assertRunsStatement(conns.get(i),i);
+            }
+        }finally{
+            closeAll(conns);
+            server.setMaxThreads(maxThreads);
+        }
+    }
+
+    /*****************************************************************************************************************/
+    /*private helper methods*/
+
+    /**
+     * Stop the server from starting more connection threads than it has now.
+     *
+     * @return the number of connection threads the server is limited to
+     */
+    private static int capThreads() throws Exception {
+        String info = server.getRuntimeInfo();
+        String threadsLine = info.substring(info.lastIndexOf(SEPARATOR)+SEPARATOR.length()).split("\n")[0];
+        Matcher matcher = TRAILING_NUMBER.matcher(threadsLine);
+        Assert.assertTrue("No thread count in runtime info: "+info,matcher.find());
+        int threads = Math.max(Integer.parseInt(matcher.group(1)),1);
+        server.setMaxThreads(threads);
+        return threads;
+    }
+
+    private static void assertRunsStatement(Connection conn,int value) throws SQLException {
+        try(Statement s = conn.createStatement();
+            ResultSet rs = s.executeQuery("values "+value)){
+            Assert.assertTrue("No rows returned!",rs.next());
+            Assert.assertEquals("Incorrect value returned!",value,rs.getInt(1));
+        }
+    }
+
+    private static void closeAll(List<Connection> conns) {
+        for(Connection conn:conns){
+            try{
+                conn.close();
+            }catch(SQLException e){
+                // ignore
+            }
+        }
+    }
+}
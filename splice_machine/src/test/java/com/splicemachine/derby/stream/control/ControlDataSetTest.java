@@ -17,6 +17,7 @@ package com.splicemachine.derby.stream.control;
 
 import com.splicemachine.db.iapi.sql.execute.ExecRow;
 import com.splicemachine.derby.stream.AbstractDataSetTest;
+import com.splicemachine.derby.stream.control.spill.SpillBudget;
 import com.splicemachine.derby.stream.iapi.DataSet;
 import com.splicemachine.si.testenv.ArchitectureIndependent;
 import org.junit.experimental.categories.Category;
@@ -29,7 +30,7 @@ public class ControlDataSetTest extends AbstractDataSetTest{
 
     @Override
     protected DataSet<ExecRow> getTenRowsTwoDuplicateRecordsDataSet() {
-        return new ControlDataSet<>(tenRowsTwoDuplicateRecords.iterator());
+        return new ControlDataSet<>(tenRowsTwoDuplicateRecords.iterator(),SpillBudget.unbounded());
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.stream.control.spill;
+
+import com.splicemachine.access.api.SConfiguration;
+import com.splicemachine.db.iapi.sql.Activation;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.mockito.Mockito.*;
+
+@Category(ArchitectureIndependent.class)
+public class SpillBudgetTest{
+
+    @Test
+    public void processorsOfOneQueryShareItsBudget() throws Exception{
+        SConfiguration config = config();
+        Activation activation = mock(Activation.class);
+        SpillBudget query = SpillBudget.beginQuery(activation,config);
+        Assert.assertSame("Nested processor did not get the query's budget",query,SpillBudget.forQuery(activation,config));
+        Assert.assertSame("Nested processor did not get the query's budget",query,SpillBudget.forQuery(activation,config));
+
+        Assert.assertTrue(query.reserve(768l*1024));
+        Assert.assertFalse("Reservations of one processor should count against the other",
+                SpillBudget.forQuery(activation,config).reserve(512l*1024));
+    }
+
+    @Test
+    public void eachExecutionStartsWithTheFullBudget() throws Exception{
+        SConfiguration config = config();
+        Activation activation = mock(Activation.class);
+        SpillBudget first = SpillBudget.beginQuery(activation,config);
+        Assert.assertTrue(first.reserve(1024l*1024));
+
+        SpillBudget second = SpillBudget.beginQuery(activation,config);
+        Assert.assertNotSame("Executions should not share a budget",first,second);
+        Assert.assertSame(second,SpillBudget.forQuery(activation,config));
+        Assert.assertEquals("Reservations leaked into the next execution",0l,second.getReservedBytes());
+    }
+
+    @Test
+    public void queriesDoNotShareBudgets() throws Exception{
+        SConfiguration config = config();
+        Activation a = mock(Activation.class);
+        Activation b = mock(Activation.class);
+        SpillBudget budgetA = SpillBudget.beginQuery(a,config);
+        Assert.assertNotSame("Separate queries should not share a budget",budgetA,SpillBudget.forQuery(b,config));
+        Assert.assertSame(SpillBudget.forQuery(b,config),SpillBudget.forQuery(b,config));
+        Assert.assertNotSame("A processor outside any query should get its own budget",
+                SpillBudget.forQuery(null,config),SpillBudget.forQuery(null,config));
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private static SConfiguration config(){
+        SConfiguration config = mock(SConfiguration.class);
+        when(config.getControlSideSpillThresholdMb()).thenReturn(1l);
+        when(config.getControlSideSpillPartitions()).thenReturn(4);
+        return config;
+    }
+}
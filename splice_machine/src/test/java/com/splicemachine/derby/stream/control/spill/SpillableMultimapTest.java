@@ -0,0 +1,139 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.stream.control.spill;
+
+import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
+import com.splicemachine.derby.stream.iapi.OperationContext;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import scala.Tuple2;
+
+import java.util.*;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@Category(ArchitectureIndependent.class)
+public class SpillableMultimapTest{
+    @Rule public TemporaryFolder spillDir = new TemporaryFolder();
+
+    @Test
+    public void groupsStayInMemoryWhenUnderBudget() throws Exception{
+        SpillBudget budget = new SpillBudget(Long.MAX_VALUE,4,spillDir.getRoot());
+        SpillableMultimap<Integer,String> map = new SpillableMultimap<>(budget,null);
+        map.putAll(rows(100,10).iterator());
+        Assert.assertFalse("Should not have spilled",map.isSpilled());
+        assertGroups(map.entries(),10,10);
+        Assert.assertEquals("Incorrect spilled row count",0l,budget.getSpilledRows());
+    }
+
+    @Test
+    public void groupsAreCorrectAfterSpilling() throws Exception{
+        SpillBudget budget = new SpillBudget(1024,4,spillDir.getRoot());
+        SpillableMultimap<Integer,String> map = new SpillableMultimap<>(budget,null);
+        map.putAll(rows(1000,50).iterator());
+        Assert.assertTrue("Should have spilled",map.isSpilled());
+        assertGroups(map.entries(),50,20);
+        Assert.assertTrue("Spilled rows not recorded",budget.getSpilledRows()>0);
+        Assert.assertEquals("Memory reservation leaked",0l,budget.getReservedBytes());
+        Assert.assertEquals("Spill files not removed",0,spillDir.getRoot().listFiles().length);
+    }
+
+    @Test
+    public void joinIsCorrectAfterSpilling() throws Exception{
+        SpillBudget budget = new SpillBudget(1024,4,spillDir.getRoot());
+        List<Tuple2<Integer,String>> build = rows(500,100);
+        List<Tuple2<Integer,String>> probe = rows(200,200);
+        Iterator<Tuple2<Integer,Integer>> joined = GraceHashJoin.join(probe.iterator(),build.iterator(),budget,null,
+                new GraceHashJoin.Joiner<Integer,String,String,Tuple2<Integer,Integer>>(){
+                    @Override
+                    public Iterator<Tuple2<Integer,Integer>> join(Integer key,String probe,Collection<String> matches){
+                        return Collections.singletonList(new Tuple2<>(key,matches.size())).iterator();
+                    }
+                });
+        int count = 0;
+        while(joined.hasNext()){
+            Tuple2<Integer,Integer> t = joined.next();
+            Assert.assertEquals("Incorrect number of matches for key "+t._1(),t._1()<100?5:0,t._2().intValue());
+            count++;
+        }
+        Assert.assertEquals("Incorrect number of probe rows",200,count);
+        Assert.assertTrue("Spilled rows not recorded",budget.getSpilledRows()>0);
+        Assert.assertEquals("Memory reservation leaked",0l,budget.getReservedBytes());
+        Assert.assertEquals("Spill files not removed",0,spillDir.getRoot().listFiles().length);
+    }
+
+    @Test
+    public void abandonedJoinRemovesSpillFilesWhenOperationCloses() throws Exception{
+        SpillBudget budget = new SpillBudget(1024,4,spillDir.getRoot());
+        final List<AutoCloseable> closeables = new ArrayList<>();
+        SpliceOperation op = mock(SpliceOperation.class);
+        doAnswer(new Answer<Void>(){
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable{
+                closeables.add((AutoCloseable)invocation.getArguments()[0]);
+                return null;
+            }
+        }).when(op).registerCloseable(any(AutoCloseable.class));
+        OperationContext context = mock(OperationContext.class);
+        when(context.getOperation()).thenReturn(op);
+
+        Iterator<Tuple2<Integer,Integer>> joined = GraceHashJoin.join(rows(200,200).iterator(),rows(500,100).iterator(),budget,context,
+                new GraceHashJoin.Joiner<Integer,String,String,Tuple2<Integer,Integer>>(){
+                    @Override
+                    public Iterator<Tuple2<Integer,Integer>> join(Integer key,String probe,Collection<String> matches){
+                        return Collections.singletonList(new Tuple2<>(key,matches.size())).iterator();
+                    }
+                });
+        Assert.assertTrue("Should have produced rows",joined.hasNext());
+        joined.next(); // e.g. a LIMIT 1 above the join
+        Assert.assertTrue("Spill files should have been written",spillDir.getRoot().listFiles().length>0);
+        Assert.assertFalse("Spill files should have been registered with the operation",closeables.isEmpty());
+        verify(context,atLeastOnce()).recordSpill(anyLong(),anyLong());
+
+        for(AutoCloseable closeable:closeables){
+            closeable.close();
+        }
+        Assert.assertEquals("Spill files not removed",0,spillDir.getRoot().listFiles().length);
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private static List<Tuple2<Integer,String>> rows(int numRows,int numKeys){
+        List<Tuple2<Integer,String>> rows = new ArrayList<>(numRows);
+        for(int i=0;i<numRows;i++){
+            rows.add(new Tuple2<>(i%numKeys,"value-"+i));
+        }
+        return rows;
+    }
+
+    private static void assertGroups(Iterator<Map.Entry<Integer,Collection<String>>> groups,int numKeys,int groupSize){
+        Set<Integer> seen = new HashSet<>();
+        while(groups.hasNext()){
+            Map.Entry<Integer,Collection<String>> group = groups.next();
+            Assert.assertTrue("Key "+group.getKey()+" returned twice",seen.add(group.getKey()));
+            Assert.assertEquals("Incorrect group size",groupSize,group.getValue().size());
+        }
+        Assert.assertEquals("Incorrect number of groups",numKeys,seen.size());
+    }
+}
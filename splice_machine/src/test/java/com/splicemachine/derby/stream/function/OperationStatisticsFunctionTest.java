@@ -0,0 +1,142 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.stream.function;
+
+import com.splicemachine.derby.impl.sql.execute.operations.LocatedRow;
+import com.splicemachine.derby.stream.BaseStreamTest;
+import com.splicemachine.derby.stream.control.ControlOperationStatistics;
+import com.splicemachine.derby.stream.control.spill.SizeEstimator;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Category(ArchitectureIndependent.class)
+public class OperationStatisticsFunctionTest extends BaseStreamTest{
+    private static final long SOURCE_DELAY_MS = 2;
+    private static final long CONSUMER_DELAY_MS = 20;
+
+    @Test
+    public void countsRowsAndBytesProduced() throws Exception{
+        ControlOperationStatistics statistics = new ControlOperationStatistics();
+        List<LocatedRow> rows = rows(10);
+        Iterator<LocatedRow> measured = new OperationStatisticsFunction<>(null,statistics).call(rows.iterator());
+
+        long expectedBytes = 0l;
+        int i = 0;
+        while(measured.hasNext()){
+            LocatedRow row = measured.next();
+            Assert.assertSame("Rows should be passed through unchanged",rows.get(i++),row);
+            expectedBytes+=SizeEstimator.estimate(row);
+        }
+        Assert.assertEquals("Incorrect number of rows",10,i);
+        Assert.assertEquals("Incorrect row count",10l,statistics.getRowsProduced());
+        Assert.assertEquals("Incorrect byte count",expectedBytes,statistics.getBytesProduced());
+        Assert.assertEquals("Nothing was read remotely",0l,statistics.getRemoteReads());
+    }
+
+    @Test
+    public void timesOnlyTheWorkOfTheSource() throws Exception{
+        ControlOperationStatistics statistics = new ControlOperationStatistics();
+        final Iterator<LocatedRow> source = rows(5).iterator();
+        Iterator<LocatedRow> slowSource = new Iterator<LocatedRow>(){
+            @Override
+            public boolean hasNext(){
+                return source.hasNext();
+            }
+
+            @Override
+            public LocatedRow next(){
+                sleep(SOURCE_DELAY_MS);
+                return source.next();
+            }
+
+            @Override
+            public void remove(){
+                throw new UnsupportedOperationException();
+            }
+        };
+        Iterator<LocatedRow> measured = new OperationStatisticsFunction<>(null,statistics).call(slowSource);
+
+        long start = System.nanoTime();
+        int count = 0;
+        while(measured.hasNext()){
+            measured.next();
+            count++;
+            sleep(CONSUMER_DELAY_MS);
+        }
+        long elapsed = System.nanoTime()-start;
+
+        Assert.assertEquals(5,count);
+        long wallClockTime = statistics.getWallClockTime();
+        Assert.assertTrue("Time spent in the source should be recorded: "+wallClockTime,
+                wallClockTime>=TimeUnit.MILLISECONDS.toNanos(count*SOURCE_DELAY_MS));
+        Assert.assertTrue("Time spent by the consumer should not be recorded: "+wallClockTime,
+                wallClockTime<=elapsed-TimeUnit.MILLISECONDS.toNanos(count*CONSUMER_DELAY_MS));
+        Assert.assertTrue("CPU time should not be negative",statistics.getCpuTime()>=0);
+    }
+
+    @Test
+    public void statisticsSurviveSerialization() throws Exception{
+        ControlOperationStatistics statistics = new ControlOperationStatistics();
+        statistics.recordProduced(100);
+        statistics.recordProduced(50);
+        statistics.recordTime(1000,500);
+        statistics.recordRemoteReads(7);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(ObjectOutputStream out = new ObjectOutputStream(bytes)){
+            out.writeObject(statistics);
+        }
+        ControlOperationStatistics copy;
+        try(ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))){
+            copy = (ControlOperationStatistics)in.readObject();
+        }
+        Assert.assertEquals(2l,copy.getRowsProduced());
+        Assert.assertEquals(150l,copy.getBytesProduced());
+        Assert.assertEquals(1000l,copy.getWallClockTime());
+        Assert.assertEquals(500l,copy.getCpuTime());
+        Assert.assertEquals(7l,copy.getRemoteReads());
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private static List<LocatedRow> rows(int numRows){
+        List<LocatedRow> rows = new ArrayList<>(numRows);
+        for(int i=0;i<numRows;i++){
+            rows.add(new LocatedRow(getExecRow(i)));
+        }
+        return rows;
+    }
+
+    private static void sleep(long millis){
+        try{
+            Thread.sleep(millis);
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
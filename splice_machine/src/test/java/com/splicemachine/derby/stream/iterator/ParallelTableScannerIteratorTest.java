@@ -0,0 +1,170 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.derby.stream.iterator;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.types.SQLInteger;
+import com.splicemachine.db.impl.sql.execute.ValueRow;
+import com.splicemachine.derby.impl.sql.execute.operations.LocatedRow;
+import com.splicemachine.derby.impl.sql.execute.operations.scanner.SITableScanner;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests that reading regions concurrently returns the same rows, in the same order, as reading them one after another.
+ */
+@Category(ArchitectureIndependent.class)
+public class ParallelTableScannerIteratorTest{
+    private static final int ROWS_PER_REGION=100;
+
+    private ExecutorService executor;
+    private List<SITableScanner> scanners;
+
+    @Before
+    public void setUp() throws Exception{
+        executor=Executors.newFixedThreadPool(2);
+        scanners=new ArrayList<>();
+    }
+
+    @After
+    public void tearDown() throws Exception{
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void returnsRowsInRegionOrder() throws Exception{
+        try(ParallelTableScannerIterator iterator=iterator(5,3,4,executor)){
+            assertReadsAll(iterator,5*ROWS_PER_REGION);
+        }
+        for(SITableScanner scanner:scanners){
+            verify(scanner,timeout(10000).atLeastOnce()).close();
+        }
+    }
+
+    @Test
+    public void readsInlineWhenExecutorIsBusy() throws Exception{
+        ExecutorService stalled=mock(ExecutorService.class); //never runs anything it is given
+        try(ParallelTableScannerIterator iterator=iterator(4,4,1,stalled)){
+            assertReadsAll(iterator,4*ROWS_PER_REGION);
+        }
+        for(SITableScanner scanner:scanners){
+            verify(scanner,atLeastOnce()).close();
+        }
+    }
+
+    @Test
+    public void closingEarlyClosesEveryOpenedScanner() throws Exception{
+        ParallelTableScannerIterator iterator=iterator(6,3,2,executor);
+        for(int i=0;i<ROWS_PER_REGION+10;i++){
+            Assert.assertTrue(iterator.hasNext());
+            iterator.next();
+        }
+        iterator.close();
+        Assert.assertEquals("Should only have opened the read-ahead window",4,scanners.size());
+        for(SITableScanner scanner:scanners){
+            verify(scanner,timeout(10000).atLeastOnce()).close();
+        }
+    }
+
+    @Test
+    public void errorsInReadAheadAreRethrown() throws Exception{
+        final List<ParallelTableScannerIterator.RegionScannerFactory> regions=regions(3);
+        regions.set(1,new ParallelTableScannerIterator.RegionScannerFactory(){
+            @Override
+            public SITableScanner open() throws StandardException, IOException{
+                SITableScanner scanner=mock(SITableScanner.class);
+                when(scanner.next()).thenThrow(new IOException("broken region"));
+                return scanner;
+            }
+        });
+        try(ParallelTableScannerIterator iterator=new ParallelTableScannerIterator(regions,executor,3,4,null,null)){
+            int count=0;
+            while(iterator.hasNext()){
+                iterator.next();
+                count++;
+            }
+            Assert.fail("Should have failed after "+count+" rows");
+        }catch(RuntimeException re){
+            Throwable cause=re.getCause();
+            Assert.assertTrue("Unexpected error "+cause,cause instanceof IOException);
+            Assert.assertEquals("broken region",cause.getMessage());
+        }
+    }
+
+    /*****************************************************************************************************************/
+    /*private helper methods*/
+    private ParallelTableScannerIterator iterator(int numRegions,int parallelism,int queueSize,ExecutorService executor) throws StandardException{
+        return new ParallelTableScannerIterator(regions(numRegions),executor,parallelism,queueSize,null,null);
+    }
+
+    private List<ParallelTableScannerIterator.RegionScannerFactory> regions(int numRegions){
+        List<ParallelTableScannerIterator.RegionScannerFactory> regions=new ArrayList<>(numRegions);
+        for(int i=0;i<numRegions;i++){
+            final int start=i*ROWS_PER_REGION;
+            regions.add(new ParallelTableScannerIterator.RegionScannerFactory(){
+                @Override
+                public SITableScanner open() throws StandardException, IOException{
+                    SITableScanner scanner=scanner(start,start+ROWS_PER_REGION);
+                    scanners.add(scanner);
+                    return scanner;
+                }
+            });
+        }
+        return regions;
+    }
+
+    private static SITableScanner scanner(final int start,final int stop) throws StandardException, IOException{
+        SITableScanner scanner=mock(SITableScanner.class);
+        final ExecRow row=new ValueRow(1);
+        row.setColumn(1,new SQLInteger());
+        when(scanner.next()).thenAnswer(new Answer<ExecRow>(){
+            private int next=start;
+
+            @Override
+            public ExecRow answer(InvocationOnMock invocation) throws Throwable{
+                if(next>=stop) return null;
+                row.getColumn(1).setValue(next++); //rows are reused, as in a real scanner
+                return row;
+            }
+        });
+        return scanner;
+    }
+
+    private static void assertReadsAll(ParallelTableScannerIterator iterator,int numRows) throws StandardException{
+        int expected=0;
+        while(iterator.hasNext()){
+            LocatedRow row=iterator.next();
+            Assert.assertEquals("Incorrect row order",expected,row.getRow().getColumn(1).getInt());
+            expected++;
+        }
+        Assert.assertEquals("Incorrect number of rows",numRows,expected);
+    }
+}
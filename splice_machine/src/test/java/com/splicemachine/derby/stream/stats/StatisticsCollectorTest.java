@@ -0,0 +1,160 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.splicemachine.derby.stream.stats;
+
+import com.splicemachine.EngineDriver;
+import com.splicemachine.SqlEnvironment;
+import com.splicemachine.access.api.SConfiguration;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.types.SQLInteger;
+import com.splicemachine.db.impl.sql.execute.ValueRow;
+import com.splicemachine.derby.impl.sql.execute.operations.scanner.SITableScanner;
+import com.splicemachine.derby.impl.stats.SimpleOverheadManagedPartitionStatistics;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import com.splicemachine.stats.ColumnStatistics;
+import com.splicemachine.storage.DataScanner;
+import com.splicemachine.storage.Partition;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.Arrays;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests that the statistics collected from a sample of a region's blocks are scaled up to the whole region.
+ */
+@Category(ArchitectureIndependent.class)
+public class StatisticsCollectorTest{
+
+    @BeforeClass
+    public static void setUpDriver(){
+        if(EngineDriver.driver()!=null) return;
+        SConfiguration config=mock(SConfiguration.class);
+        when(config.getCardinalityPrecision()).thenReturn(14);
+        when(config.getTopkSize()).thenReturn(10);
+        SqlEnvironment environment=mock(SqlEnvironment.class);
+        when(environment.getConfiguration()).thenReturn(config);
+        EngineDriver.loadDriver(environment);
+    }
+
+    @Test
+    public void unsampledRegionIsCountedAsIs() throws Exception{
+        SITableScanner scanner=scanner(100l,0l,1000l);
+        StatisticsCollector collector=collector(scanner,1l);
+        collectDistinct(collector,100);
+
+        SimpleOverheadManagedPartitionStatistics stats=collector.getStatistics();
+        Assert.assertEquals("Incorrect row count",100l,stats.rowCount());
+        Assert.assertEquals("Incorrect size",1000l,stats.totalSize());
+        ColumnStatistics column=stats.columnStatistics().get(0);
+        Assert.assertEquals("Incorrect non-null count",100l,column.nonNullCount());
+        Assert.assertEquals("Incorrect column size",400l,column.totalBytes());
+    }
+
+    @Test
+    public void sampledCountsAndSizesAreScaledByTheWeight() throws Exception{
+        SITableScanner scanner=scanner(100l,0l,1000l);
+        StatisticsCollector collector=collector(scanner,4l);
+        collectDistinct(collector,100);
+
+        SimpleOverheadManagedPartitionStatistics stats=collector.getStatistics();
+        Assert.assertEquals("Incorrect row count",400l,stats.rowCount());
+        Assert.assertEquals("Incorrect size",4000l,stats.totalSize());
+        ColumnStatistics column=stats.columnStatistics().get(0);
+        Assert.assertEquals("Incorrect non-null count",400l,column.nonNullCount());
+        Assert.assertEquals("Incorrect column size",1600l,column.totalBytes());
+    }
+
+    @Test
+    public void invisibleRowsInTheSampleAreExtrapolated() throws Exception{
+        //110 rows were read from the sampled blocks, 10 of which this transaction cannot see
+        SITableScanner scanner=scanner(110l,10l,1000l);
+        StatisticsCollector collector=collector(scanner,4l);
+        collectDistinct(collector,100);
+
+        SimpleOverheadManagedPartitionStatistics stats=collector.getStatistics();
+        Assert.assertEquals("Invisible rows should be scaled like the visible ones",400l,stats.rowCount());
+    }
+
+    @Test
+    public void distinctSampleExtrapolatesCardinality() throws Exception{
+        StatisticsCollector collector=collector(scanner(100l,0l,1000l),4l);
+        collectDistinct(collector,100);
+
+        long cardinality=collector.getStatistics().columnStatistics().get(0).cardinality();
+        Assert.assertTrue("Every sampled value was distinct, so the region should be too, but got "+cardinality,
+                cardinality>300 && cardinality<=400);
+    }
+
+    @Test
+    public void repetitiveSampleDoesNotExtrapolateCardinality() throws Exception{
+        StatisticsCollector collector=collector(scanner(100l,0l,1000l),4l);
+        for(int i=0;i<100;i++){
+            collector.collect(row(i%5));
+        }
+
+        long cardinality=collector.getStatistics().columnStatistics().get(0).cardinality();
+        Assert.assertTrue("The sample saw every value many times, but the estimate grew to "+cardinality,
+                cardinality>=5 && cardinality<=7);
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private static void collectDistinct(StatisticsCollector collector,int rows) throws Exception{
+        for(int i=0;i<rows;i++){
+            collector.collect(row(i));
+        }
+    }
+
+    private static ExecRow row(int value){
+        ExecRow row=new ValueRow(1);
+        row.setColumn(1,new SQLInteger(value));
+        return row;
+    }
+
+    private static SITableScanner scanner(long rowsVisited,long rowsFiltered,long bytesOutput){
+        Partition partition=mock(Partition.class);
+        when(partition.getTableName()).thenReturn("1184");
+        when(partition.getName()).thenReturn("1184,,1");
+        DataScanner regionScanner=mock(DataScanner.class);
+        when(regionScanner.getPartition()).thenReturn(partition);
+
+        SITableScanner scanner=mock(SITableScanner.class);
+        when(scanner.getRegionScanner()).thenReturn(regionScanner);
+        when(scanner.getRowsVisited()).thenReturn(rowsVisited);
+        when(scanner.getRowsFiltered()).thenReturn(rowsFiltered);
+        when(scanner.getBytesOutput()).thenReturn(bytesOutput);
+        doAnswer(new Answer<Void>(){
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable{
+                Arrays.fill((int[])invocation.getArguments()[0],4);
+                return null;
+            }
+        }).when(scanner).recordFieldLengths(any(int[].class));
+        return scanner;
+    }
+
+    private static StatisticsCollector collector(SITableScanner scanner,long sampleWeight){
+        return new StatisticsCollector(null,row(0),new int[]{1},new int[]{-1},scanner,sampleWeight);
+    }
+}
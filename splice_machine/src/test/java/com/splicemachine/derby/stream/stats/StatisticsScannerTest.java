@@ -0,0 +1,61 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.splicemachine.derby.stream.stats;
+
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(ArchitectureIndependent.class)
+public class StatisticsScannerTest{
+
+    @Test
+    public void unsampledRegionReadsEveryBlock() throws Exception{
+        Assert.assertEquals(1l,StatisticsScanner.sampleStep(100,1d,0l,1000l));
+        Assert.assertEquals(1l,StatisticsScanner.sampleStep(100,0d,0l,1000l));
+    }
+
+    @Test
+    public void singleBlockRegionIsReadWhole() throws Exception{
+        Assert.assertEquals(1l,StatisticsScanner.sampleStep(1,0.1d,10l,1000l));
+        Assert.assertEquals(1l,StatisticsScanner.sampleStep(0,0.1d,10l,1000l));
+    }
+
+    @Test
+    public void stepFollowsTheSampleFraction() throws Exception{
+        Assert.assertEquals(10l,StatisticsScanner.sampleStep(100,0.1d,0l,1000l));
+        Assert.assertEquals(3l,StatisticsScanner.sampleStep(100,0.3d,0l,1000l));
+    }
+
+    @Test
+    public void rowBudgetWidensTheStep() throws Exception{
+        //the budget allows reading 5 of the 100 blocks
+        Assert.assertEquals(20l,StatisticsScanner.sampleStep(100,0.5d,5000l,1000l));
+        Assert.assertEquals(20l,StatisticsScanner.sampleStep(100,1d,5000l,1000l));
+        //a budget smaller than a block still reads one block
+        Assert.assertEquals(100l,StatisticsScanner.sampleStep(100,1d,10l,1000l));
+    }
+
+    @Test
+    public void generousRowBudgetDoesNotNarrowTheStep() throws Exception{
+        Assert.assertEquals(10l,StatisticsScanner.sampleStep(100,0.1d,1000000l,1000l));
+    }
+
+    @Test
+    public void stepNeverPassesTheLastBlock() throws Exception{
+        Assert.assertEquals(4l,StatisticsScanner.sampleStep(4,0.01d,0l,1000l));
+    }
+}
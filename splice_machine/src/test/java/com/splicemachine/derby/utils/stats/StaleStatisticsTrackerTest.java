@@ -0,0 +1,116 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.splicemachine.derby.utils.stats;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.dictionary.DataDictionary;
+import com.splicemachine.db.iapi.sql.dictionary.PartitionStatisticsDescriptor;
+import com.splicemachine.db.iapi.sql.dictionary.TableDescriptor;
+import com.splicemachine.db.iapi.store.access.TransactionController;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Category(ArchitectureIndependent.class)
+public class StaleStatisticsTrackerTest{
+    private final DataDictionary dd=mock(DataDictionary.class);
+    private final TransactionController tc=mock(TransactionController.class);
+    private final Map<String,Long> writeCounts=new HashMap<>();
+
+    @Test
+    public void tableWithoutStatisticsIsStale() throws Exception{
+        TableDescriptor table=table(1001l);
+        Assert.assertEquals(Collections.singletonList(table),stale(table));
+    }
+
+    @Test
+    public void partitionMarkedStaleMakesTableStale() throws Exception{
+        TableDescriptor table=table(1002l,partition(1002l,false,100l),partition(1002l,true,100l));
+        Assert.assertEquals(Collections.singletonList(table),stale(table));
+    }
+
+    @Test
+    public void tableIsStaleOnceEnoughWritesAreMade() throws Exception{
+        TableDescriptor table=table(1003l,partition(1003l,false,60l),partition(1003l,false,40l));
+        writeCounts.put("1003",9l);
+        Assert.assertTrue("Too few writes to be stale",stale(table).isEmpty());
+        writeCounts.put("1003",10l);
+        Assert.assertEquals(Collections.singletonList(table),stale(table));
+    }
+
+    @Test
+    public void unwrittenTableIsNotStale() throws Exception{
+        TableDescriptor table=table(1004l,partition(1004l,false,0l));
+        Assert.assertTrue("A table without writes is not stale",stale(table).isEmpty());
+    }
+
+    @Test
+    public void writesBeforeCollectionAreNotCounted() throws Exception{
+        TableDescriptor table=table(1005l,partition(1005l,false,100l));
+        writeCounts.put("1005",50l);
+        StaleStatisticsTracker.collecting(Collections.singletonList(table),writeCounts);
+        writeCounts.put("1005",59l);
+        Assert.assertTrue("Only 9 writes since the collection",stale(table).isEmpty());
+        writeCounts.put("1005",60l);
+        Assert.assertEquals(Collections.singletonList(table),stale(table));
+    }
+
+    @Test
+    public void reopenedPartitionsCountAllTheirWrites() throws Exception{
+        TableDescriptor table=table(1006l,partition(1006l,false,100l));
+        writeCounts.put("1006",500l);
+        StaleStatisticsTracker.collecting(Collections.singletonList(table),writeCounts);
+        //the partitions were reopened since, so their counts started over
+        writeCounts.put("1006",10l);
+        Assert.assertEquals(Collections.singletonList(table),stale(table));
+    }
+
+    @Test
+    public void onlyStaleTablesArePicked() throws Exception{
+        TableDescriptor fresh=table(1007l,partition(1007l,false,100l));
+        TableDescriptor written=table(1008l,partition(1008l,false,100l));
+        TableDescriptor unknown=table(1009l);
+        writeCounts.put("1007",1l);
+        writeCounts.put("1008",100l);
+        Assert.assertEquals(Arrays.asList(written,unknown),stale(fresh,written,unknown));
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private List<TableDescriptor> stale(TableDescriptor... tables) throws StandardException{
+        return StaleStatisticsTracker.staleTables(Arrays.asList(tables),dd,tc,writeCounts,0.1d);
+    }
+
+    private TableDescriptor table(long conglomerateId,PartitionStatisticsDescriptor... partitions) throws StandardException{
+        TableDescriptor table=mock(TableDescriptor.class);
+        when(table.getHeapConglomerateId()).thenReturn(conglomerateId);
+        when(dd.getPartitionStatistics(conglomerateId,tc)).thenReturn(Arrays.asList(partitions));
+        return table;
+    }
+
+    private static PartitionStatisticsDescriptor partition(long conglomerateId,boolean stale,long rowCount){
+        return new PartitionStatisticsDescriptor(conglomerateId,"region",0l,stale,false,rowCount,rowCount*10,10);
+    }
+}
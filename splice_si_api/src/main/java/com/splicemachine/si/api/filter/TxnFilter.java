@@ -18,9 +18,27 @@ package com.splicemachine.si.api.filter;
 import com.splicemachine.storage.DataCell;
 import com.splicemachine.storage.DataFilter;
 
+import java.io.IOException;
+import java.util.List;
+
 public interface TxnFilter extends DataFilter{
     void nextRow();
 
+    /**
+     * Warm the transaction cache for a block of rows which are about to be filtered, so that
+     * the transactions which wrote them can be fetched together rather than one at a time.
+     *
+     * @param rows the cells of each row which will be filtered next.
+     */
+    void prefetch(List<List<DataCell>> rows) throws IOException;
+
+    /**
+     * @param row the cells of the row which will be filtered next.
+     * @return true if filtering the row may have to look up a transaction which is not cached, in which
+     * case it is worth reading the rows after it ahead and {@link #prefetch prefetching} them together.
+     */
+    boolean needsLookup(List<DataCell> row);
+
     DataCell produceAccumulatedResult();
     boolean getExcludeRow();
 
@@ -26,6 +26,10 @@ import com.splicemachine.utils.ByteSlice;
 import com.splicemachine.utils.TrafficControl;
 import org.apache.log4j.Logger;
 import org.spark_project.guava.util.concurrent.ThreadFactoryBuilder;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -36,6 +40,10 @@ import java.util.concurrent.TimeUnit;
  * <p/>
  * This implementation uses an LMAX disruptor to asynchronously pass Read-resolve events
  * to a background thread, which in turn uses a SynchronousReadResolver to actually perform the resolution.
+ * <p/>
+ * Rather than resolving each event on its own, the background thread groups the events it receives by region
+ * (dropping duplicate rows), and resolves each group as a single batch once it has drained the events which are
+ * available, or has accumulated {@code maxBatchSize} of them.
  *
  * @author Scott Fines
  *         Date: 7/1/14
@@ -52,8 +60,9 @@ public class AsyncReadResolver{
     private final RollForwardStatus status;
     private final TrafficControl trafficControl;
     private final KeyedReadResolver synchronousResolver;
+    private final int maxBatchSize;
 
-    public AsyncReadResolver(int maxThreads,int bufferSize,
+    public AsyncReadResolver(int maxThreads,int bufferSize,int maxBatchSize,
                              TxnSupplier txnSupplier,
                              RollForwardStatus status,
                              TrafficControl trafficControl,
@@ -62,6 +71,7 @@ public class AsyncReadResolver{
         this.trafficControl=trafficControl;
         this.status=status;
         this.synchronousResolver = synchronousResolver;
+        this.maxBatchSize=Math.max(1,maxBatchSize);
         consumerThreads=new ThreadPoolExecutor(maxThreads,maxThreads,
                 60,TimeUnit.SECONDS,
                 new LinkedBlockingQueue<Runnable>(),
@@ -97,6 +107,45 @@ public class AsyncReadResolver{
         long txnId;
         ByteSlice rowKey=new ByteSlice();
         RollForward rollForward;
+        long submitTime;
+    }
+
+    /**
+     * The distinct rows of a single region which are waiting to be resolved.
+     */
+    private static class PendingBatch{
+        final Partition region;
+        final RollForward rollForward;
+        final Set<RowVersion> versions=new LinkedHashSet<>();
+        long oldestSubmitTime=Long.MAX_VALUE;
+
+        PendingBatch(Partition region,RollForward rollForward){
+            this.region=region;
+            this.rollForward=rollForward;
+        }
+    }
+
+    private static class RowVersion{
+        final ByteSlice rowKey;
+        final long txnId;
+
+        RowVersion(ByteSlice rowKey,long txnId){
+            this.rowKey=rowKey;
+            this.txnId=txnId;
+        }
+
+        @Override
+        public boolean equals(Object o){
+            if(this==o) return true;
+            if(!(o instanceof RowVersion)) return false;
+            RowVersion that=(RowVersion)o;
+            return txnId==that.txnId && rowKey.equals(that.rowKey);
+        }
+
+        @Override
+        public int hashCode(){
+            return 31*rowKey.hashCode()+(int)(txnId^(txnId>>>32));
+        }
     }
 
     private static class ResolveEventFactory implements EventFactory<ResolveEvent>{
@@ -108,23 +157,72 @@ public class AsyncReadResolver{
     }
 
     private class ResolveEventHandler implements EventHandler<ResolveEvent>{
+        private final Map<Partition,PendingBatch> pending=new IdentityHashMap<>();
+        private int pendingSize;
 
         @Override
         public void onEvent(ResolveEvent event,long sequence,boolean endOfBatch) throws Exception{
+            PendingBatch batch=pending.get(event.region);
+            if(batch==null){
+                batch=new PendingBatch(event.region,event.rollForward);
+                pending.put(event.region,batch);
+            }
+            /*
+             * The event is reused once we return, but the row key array is copied each time an event
+             * is published, so we only need a new slice over it.
+             */
+            ByteSlice rowKey=ByteSlice.wrap(event.rowKey.array(),event.rowKey.offset(),event.rowKey.length());
+            if(batch.versions.add(new RowVersion(rowKey,event.txnId))){
+                pendingSize++;
+                if(event.submitTime<batch.oldestSubmitTime)
+                    batch.oldestSubmitTime=event.submitTime;
+            }else
+                status.rowResolved(); //someone else already asked for this row
+
+            if(endOfBatch || pendingSize>=maxBatchSize){
+                try{
+                    flush();
+                }catch(Exception e){
+                    LOG.info("Error during read resolution",e);
+                    throw e;
+                }
+            }
+        }
+
+        private void flush(){
             try{
-                if(synchronousResolver.resolve(event.region,
-                        event.rowKey,
-                        event.txnId,
-                        txnSupplier,
-                        status,
-                        false,
-                        trafficControl)){
-                    event.rollForward.recordResolved(event.rowKey,event.txnId);
+                for(PendingBatch batch : pending.values()){
+                    resolve(batch);
                 }
-            }catch(Exception e){
-                LOG.info("Error during read resolution",e);
-                throw e;
+            }finally{
+                pending.clear();
+                pendingSize=0;
+            }
+        }
+
+        private void resolve(PendingBatch batch){
+            int size=batch.versions.size();
+            ByteSlice[] rowKeys=new ByteSlice[size];
+            long[] txnIds=new long[size];
+            int i=0;
+            for(RowVersion version : batch.versions){
+                rowKeys[i]=version.rowKey;
+                txnIds[i]=version.txnId;
+                i++;
+            }
+            boolean[] resolved=synchronousResolver.resolve(batch.region,
+                    rowKeys,
+                    txnIds,
+                    size,
+                    txnSupplier,
+                    status,
+                    false,
+                    trafficControl);
+            for(i=0;i<size;i++){
+                if(resolved[i])
+                    batch.rollForward.recordResolved(rowKeys[i],txnIds[i]);
             }
+            status.batchResolved(size,System.currentTimeMillis()-batch.oldestSubmitTime);
         }
     }
 
@@ -155,6 +253,7 @@ public class AsyncReadResolver{
                 event.txnId=txnId;
                 event.rowKey.set(rowKey.getByteCopy());
                 event.rollForward=rollForward;
+                event.submitTime=System.currentTimeMillis();
             }finally{
                 ringBuffer.publish(sequence);
             }
@@ -33,4 +33,22 @@ public interface KeyedReadResolver{
                     RollForwardStatus status,
                     boolean failOnError,
                     TrafficControl trafficControl);
+
+    /**
+     * Resolve several versions held in the same region, looking up each transaction once and
+     * applying the resulting writes to the region as a single batch.
+     *
+     * @param rowKeys the row key of each version
+     * @param txnIds the transaction id of each version
+     * @param size the number of versions to resolve
+     * @return for each version, whether or not it was resolved
+     */
+    boolean[] resolve(Partition region,
+                      ByteSlice[] rowKeys,
+                      long[] txnIds,
+                      int size,
+                      TxnSupplier txnSupplier,
+                      RollForwardStatus status,
+                      boolean failOnError,
+                      TrafficControl trafficControl);
 }
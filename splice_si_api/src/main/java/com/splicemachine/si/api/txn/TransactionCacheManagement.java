@@ -26,4 +26,38 @@ import javax.management.MXBean;
 @MXBean
 public interface TransactionCacheManagement {
 
+    /**
+     * @return the total number of lookups made against the cache
+     */
+    long getTotalRequests();
+
+    /**
+     * @return the number of lookups which were served from the cache
+     */
+    long getTotalHits();
+
+    /**
+     * @return the number of lookups which had to go to the transaction table
+     */
+    long getTotalMisses();
+
+    /**
+     * @return the fraction of lookups which were served from the cache
+     */
+    double getHitPercentage();
+
+    /**
+     * @return the number of transactions which have been evicted to make room for others
+     */
+    long getTotalEvictedEntries();
+
+    /**
+     * @return the number of transactions currently held in the cache
+     */
+    int getCurrentSize();
+
+    /**
+     * @return the maximum number of transactions the cache can hold
+     */
+    int getMaxSize();
 }
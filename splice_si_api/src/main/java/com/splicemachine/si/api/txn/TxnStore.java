@@ -38,6 +38,17 @@ public interface TxnStore extends TxnSupplier{
 
     boolean keepAlive(long txnId) throws IOException;
 
+    /**
+     * Keep several transactions alive at once, in as few network calls as possible.
+     *
+     * @param txnIds the transactions to keep alive
+     * @return for each of {@code txnIds}, in the same order: {@link Txn.State#ACTIVE} if the transaction
+     * was kept alive, {@link Txn.State#ROLLEDBACK} if it had already timed out (and should be rolled back), or
+     * {@code null} if it is no longer active and needs no further keep alives.
+     * @throws IOException if something goes wrong
+     */
+    Txn.State[] keepAlive(long[] txnIds) throws IOException;
+
     void elevateTransaction(Txn txn,byte[] newDestinationTable) throws IOException;
 
     /**
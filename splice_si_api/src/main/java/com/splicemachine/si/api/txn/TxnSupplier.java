@@ -43,6 +43,18 @@ public interface TxnSupplier {
 		 */
 		TxnView getTransaction(long txnId,boolean getDestinationTables) throws IOException;
 
+		/**
+		 * Get the transactions associated with each of {@code txnIds}, using as few
+		 * remote calls as possible.
+		 *
+		 * Functionally equivalent to calling {@link #getTransaction(long)} for each id.
+		 *
+		 * @param txnIds the transaction ids to fetch.
+		 * @return the transactions, in the same order as {@code txnIds}. An entry is null wherever
+		 * {@link #getTransaction(long)} would have returned null.
+		 */
+		TxnView[] getTransactions(long[] txnIds) throws IOException;
+
 		/**
 		 * Determines whether this Store has the transaction in its local cache
 		 * or not.
@@ -36,8 +36,29 @@ public interface TxnLifecycleStore{
 
     boolean keepAlive(long txnId) throws IOException;
 
+    /**
+     * Keep several transactions alive at once.
+     *
+     * @return which of {@code txnIds} were kept alive, which had timed out, and which are not held by this store
+     */
+    TxnMessage.KeepAliveResponse keepAlive(long[] txnIds) throws IOException;
+
+    /**
+     * Commit several transactions at once, acquiring all of their commit timestamps together.
+     *
+     * @return the commit timestamp of each of {@code txnIds}, along with those which could not be committed
+     * and those which are not held by this store
+     */
+    TxnMessage.CommitResponse commitTransactions(long[] txnIds) throws IOException;
+
     TxnMessage.Txn getTransaction(long txnId) throws IOException;
 
+    /**
+     * @return the transactions for each of {@code txnIds}, in the same order. Entries are null for
+     * transactions which do not exist or which are not held by this store.
+     */
+    TxnMessage.Txn[] getTransactions(long[] txnIds) throws IOException;
+
     long[] getActiveTransactionIds(byte[] destTable, long startId, long endId) throws IOException;
 
     Source<TxnMessage.Txn> getActiveTransactions(byte[] destTable, long startId, long endId) throws IOException;
@@ -61,6 +61,22 @@ public interface TxnPartition{
      */
     TxnMessage.Txn getTransaction(long txnId) throws IOException;
 
+    /**
+     * Fetch all information about several transactions at once.
+     *
+     * @param txnIds the transaction ids to fetch
+     * @return the recorded transaction information for each of {@code txnIds}, in the same order. Entries
+     * are null for transactions which do not exist, or which belong to a different partition.
+     * @throws IOException if something goes wrong when fetching transactions
+     */
+    TxnMessage.Txn[] getTransactions(long[] txnIds) throws IOException;
+
+    /**
+     * @param txnId the transaction id
+     * @return true if {@code txnId} belongs in this partition
+     */
+    boolean containsTransaction(long txnId);
+
     /**
      * Get a list of transaction ids which are considered ACTIVE <em>at the time that they are visited</em>.
      * <p/>
@@ -137,6 +153,15 @@ public interface TxnPartition{
      */
     void recordCommit(long txnId,long commitTs) throws IOException;
 
+    /**
+     * Record the commits of several transactions at once.
+     *
+     * @param txnIds the transactions which have committed
+     * @param commitTs the commit timestamp of each of {@code txnIds}, in the same order
+     * @throws IOException if something goes wrong
+     */
+    void recordCommits(long[] txnIds,long[] commitTs) throws IOException;
+
     /**
      * Record that the transaction was globally committed, and assign the committed timestamp to it.
      * <p/>
@@ -180,5 +205,19 @@ public interface TxnPartition{
      */
     boolean keepAlive(long txnId) throws IOException;
 
+    /**
+     * Keep several transactions alive at once. The same locking requirements apply as for
+     * {@link #keepAlive(long)}.
+     * <p/>
+     * Unlike the single-transaction form, timed out transactions do not cause an error; they are
+     * reported in the response instead, alongside those which were kept alive and those which belong to a
+     * different partition.
+     *
+     * @param txnIds the transaction ids to keep alive
+     * @return the outcome for each transaction
+     * @throws IOException if something goes wrong
+     */
+    TxnMessage.KeepAliveResponse keepAlive(long[] txnIds) throws IOException;
+
     void rollbackTransactionsAfter(long txnId) throws IOException;
 }
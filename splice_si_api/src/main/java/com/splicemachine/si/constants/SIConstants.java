@@ -98,4 +98,18 @@ public class SIConstants {
 
     public static final String TABLE_DISPLAY_NAME_ATTR = "tableDisplayName";
     public static final String INDEX_DISPLAY_NAME_ATTR = "indexDisplayName";
+
+    /*
+     * Store file metadata written by SI compactions. Files without it (e.g. flushed files) are treated
+     * as possibly holding unresolved versions.
+     *
+     * SI_FULLY_RESOLVED = every version in the file carries a commit timestamp
+     * SI_MAX_TXN_ID = the newest transaction which wrote a version in the file
+     * SI_MAX_COMMIT_TIMESTAMP = the newest commit timestamp of a version in the file
+     * SI_HAS_TOMBSTONES = the file holds tombstones or anti-tombstones
+     */
+    public static final byte[] SI_FULLY_RESOLVED_FILE_INFO = Bytes.toBytes("SI_FULLY_RESOLVED");
+    public static final byte[] SI_MAX_TXN_ID_FILE_INFO = Bytes.toBytes("SI_MAX_TXN_ID");
+    public static final byte[] SI_MAX_COMMIT_TIMESTAMP_FILE_INFO = Bytes.toBytes("SI_MAX_COMMIT_TIMESTAMP");
+    public static final byte[] SI_HAS_TOMBSTONES_FILE_INFO = Bytes.toBytes("SI_HAS_TOMBSTONES");
 }
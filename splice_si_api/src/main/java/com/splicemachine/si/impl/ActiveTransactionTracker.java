@@ -0,0 +1,110 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.splicemachine.si.impl;
+
+import com.splicemachine.annotations.ThreadSafe;
+import com.splicemachine.timestamp.api.TimestampSource;
+
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps track of the begin timestamps of the top-level transactions which were started in this process and
+ * are still active, whether they are read-only or writable.
+ * <p/>
+ * Read-only transactions are never recorded in the transaction table, so this is the only place which
+ * knows about them. Child transactions always begin at or after their parent, so tracking the top-level
+ * transactions is enough to know the oldest snapshot which any transaction of this process may read at.
+ *
+ * @see #oldestActiveTimestamp()
+ */
+@ThreadSafe
+public class ActiveTransactionTracker{
+    private final TimestampSource timestampSource;
+    private final ConcurrentSkipListSet<Long> activeTimestamps=new ConcurrentSkipListSet<>();
+    /*
+     * Held shared while a transaction obtains its begin timestamp and is tracked, and exclusively
+     * while the oldest active timestamp is determined, so that no transaction can be half way through
+     * beginning when we look.
+     */
+    private final ReadWriteLock beginLock=new ReentrantReadWriteLock();
+
+    public ActiveTransactionTracker(TimestampSource timestampSource){
+        this.timestampSource=timestampSource;
+    }
+
+    /**
+     * Obtain a new begin timestamp and track it as active.
+     */
+    public long beginTimestamp(){
+        Lock lock=beginLock.readLock();
+        lock.lock();
+        try{
+            long timestamp=timestampSource.nextTimestamp();
+            activeTimestamps.add(timestamp);
+            return timestamp;
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the lock to hold while obtaining a begin timestamp by some other means than
+     * {@link #beginTimestamp()}, until it is passed to {@link #track(long)}.
+     */
+    public Lock beginLock(){
+        return beginLock.readLock();
+    }
+
+    public void track(long beginTimestamp){
+        activeTimestamps.add(beginTimestamp);
+    }
+
+    /**
+     * Stop tracking a transaction. Does nothing if the transaction is not tracked (e.g. because it is not
+     * a top-level transaction), or has already completed.
+     */
+    public void complete(long beginTimestamp){
+        activeTimestamps.remove(beginTimestamp);
+    }
+
+    public int getActiveCount(){
+        return activeTimestamps.size();
+    }
+
+    /**
+     * @return a timestamp at or below the begin timestamp of every transaction of this process which is active,
+     * or which will begin later on. This is the begin timestamp of the oldest active transaction, or a new
+     * timestamp if there is none.
+     */
+    public long oldestActiveTimestamp(){
+        Lock lock=beginLock.writeLock();
+        lock.lock();
+        try{
+            Long oldest=activeTimestamps.ceiling(Long.MIN_VALUE);
+            if(oldest!=null)
+                return oldest;
+            /*
+             * Nothing is active, and nothing can begin until we release the lock, so everything which
+             * begins later gets a newer timestamp than this one
+             */
+            return timestampSource.nextTimestamp();
+        }finally{
+            lock.unlock();
+        }
+    }
+}
@@ -23,6 +23,8 @@ import com.splicemachine.si.impl.txn.WritableTxn;
 import com.splicemachine.timestamp.api.TimestampSource;
 
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
 
 /**
  * Represents a Client Transaction Lifecycle Manager.
@@ -40,6 +42,7 @@ public class ClientTxnLifecycleManager implements TxnLifecycleManager{
     @ThreadSafe private TxnStore store;
     @ThreadSafe private KeepAliveScheduler keepAliveScheduler;
     @ThreadSafe private final ExceptionFactory exceptionFactory;
+    @ThreadSafe private final ActiveTransactionTracker activeTransactions;
 
     private volatile boolean restoreMode=false;
 
@@ -47,6 +50,14 @@ public class ClientTxnLifecycleManager implements TxnLifecycleManager{
                                      ExceptionFactory exceptionFactory){
         this.timestampSource = timestampSource;
         this.exceptionFactory= exceptionFactory;
+        this.activeTransactions = new ActiveTransactionTracker(timestampSource);
+    }
+
+    /**
+     * @return the top-level transactions begun through this manager which are still active
+     */
+    public ActiveTransactionTracker getActiveTransactions(){
+        return activeTransactions;
     }
 
     public void setTxnStore(TxnStore store){
@@ -103,7 +114,7 @@ public class ClientTxnLifecycleManager implements TxnLifecycleManager{
         if(parentTxn.getState()!=Txn.State.ACTIVE)
             throw exceptionFactory.doNotRetry("Cannot create a child of an inactive transaction. Parent: "+parentTxn);
         if(destinationTable!=null){
-            long timestamp=timestampSource.nextTimestamp();
+            long timestamp=parentTxn.equals(Txn.ROOT_TRANSACTION)?activeTransactions.beginTimestamp():timestampSource.nextTimestamp();
             return createWritableTransaction(timestamp,isolationLevel,additive,parentTxn,destinationTable);
         }else
             return createReadableTransaction(isolationLevel,additive,parentTxn);
@@ -134,17 +145,31 @@ public class ClientTxnLifecycleManager implements TxnLifecycleManager{
              */
             throw exceptionFactory.doNotRetry("Cannot chain a read-only parent transaction from a read-only transaction. Elevate the transaction("+txnToCommit.getTxnId()+") first");
         }
-        txnToCommit.commit();
-        long oldTs=txnToCommit.getCommitTimestamp();
-
-        if(destinationTable!=null)
-            return createWritableTransaction(oldTs,isolationLevel,additive,parentTxn,destinationTable);
-        else{
-            if(parentTxn.equals(Txn.ROOT_TRANSACTION)){
-                return ReadOnlyTxn.createReadOnlyParentTransaction(oldTs,oldTs,isolationLevel,this,exceptionFactory,additive);
-            }else{
+        if(!parentTxn.equals(Txn.ROOT_TRANSACTION)){
+            txnToCommit.commit();
+            long oldTs=txnToCommit.getCommitTimestamp();
+            if(destinationTable!=null)
+                return createWritableTransaction(oldTs,isolationLevel,additive,parentTxn,destinationTable);
+            else
                 return ReadOnlyTxn.createReadOnlyTransaction(oldTs,parentTxn,oldTs,isolationLevel,additive,this,exceptionFactory);
-            }
+        }
+
+        /*
+         * The new transaction begins at the commit timestamp of the old one, so it has to be tracked before
+         * anyone can look for the oldest active transaction in between.
+         */
+        Lock beginLock=activeTransactions.beginLock();
+        beginLock.lock();
+        try{
+            txnToCommit.commit();
+            long oldTs=txnToCommit.getCommitTimestamp();
+            activeTransactions.track(oldTs);
+            if(destinationTable!=null)
+                return createWritableTransaction(oldTs,isolationLevel,additive,parentTxn,destinationTable);
+            else
+                return new TrackedReadOnlyTxn(oldTs,isolationLevel,additive);
+        }finally{
+            beginLock.unlock();
         }
     }
 
@@ -158,6 +183,8 @@ public class ClientTxnLifecycleManager implements TxnLifecycleManager{
         if(!txn.allowsWrites()){
             //we've elevated from a read-only to a writable, so make sure that we add
             //it to the keep alive
+            if(txn instanceof TrackedReadOnlyTxn)
+                ((TrackedReadOnlyTxn)txn).handOff(); //the writable transaction is tracked from now on
             Txn writableTxn=new WritableTxn(txn,this,destinationTable,exceptionFactory);
             store.recordNewTransaction(writableTxn);
             keepAliveScheduler.scheduleKeepAlive(writableTxn);
@@ -169,6 +196,7 @@ public class ClientTxnLifecycleManager implements TxnLifecycleManager{
 
     @Override
     public long commit(long txnId) throws IOException{
+        activeTransactions.complete(txnId);
         if(restoreMode){
             return -1; // we are in restore mode, don't try to access the store
         }
@@ -178,6 +206,7 @@ public class ClientTxnLifecycleManager implements TxnLifecycleManager{
 
     @Override
     public void rollback(long txnId) throws IOException{
+        activeTransactions.complete(txnId);
         if(restoreMode){
             return; // we are in restore mode, don't try to access the store
         }
@@ -201,7 +230,12 @@ public class ClientTxnLifecycleManager implements TxnLifecycleManager{
         WritableTxn newTxn=new WritableTxn(timestamp,
                 timestamp,isolationLevel,parentTxn,this,additive,destinationTable,exceptionFactory);
         //record the transaction on the transaction table--network call
-        store.recordNewTransaction(newTxn);
+        try{
+            store.recordNewTransaction(newTxn);
+        }catch(IOException|RuntimeException e){
+            activeTransactions.complete(timestamp);
+            throw e;
+        }
         keepAliveScheduler.scheduleKeepAlive(newTxn);
 
         return newTxn;
@@ -226,11 +260,45 @@ public class ClientTxnLifecycleManager implements TxnLifecycleManager{
 		 *
 		 */
         if(parentTxn.equals(Txn.ROOT_TRANSACTION)){
-            long beginTimestamp=timestampSource.nextTimestamp();
-            return ReadOnlyTxn.createReadOnlyParentTransaction(beginTimestamp,beginTimestamp,isolationLevel,this,exceptionFactory,additive);
+            long beginTimestamp=activeTransactions.beginTimestamp();
+            return new TrackedReadOnlyTxn(beginTimestamp,isolationLevel,additive);
         }else{
             return ReadOnlyTxn.createReadOnlyChildTransaction(parentTxn,this,additive,exceptionFactory);
         }
     }
 
+    /*
+     * A top-level read-only transaction. These never reach the transaction store, so they stop being tracked
+     * as active when they commit or roll back, unless they have been elevated (in which case the writable
+     * transaction stops being tracked when it completes).
+     */
+    private class TrackedReadOnlyTxn extends ReadOnlyTxn{
+        private final AtomicBoolean tracked=new AtomicBoolean(true);
+
+        TrackedReadOnlyTxn(long beginTimestamp,Txn.IsolationLevel isolationLevel,boolean additive){
+            super(beginTimestamp,beginTimestamp,isolationLevel,Txn.ROOT_TRANSACTION,ClientTxnLifecycleManager.this,exceptionFactory,additive);
+        }
+
+        void handOff(){
+            tracked.set(false);
+        }
+
+        @Override
+        public void commit() throws IOException{
+            super.commit();
+            complete();
+        }
+
+        @Override
+        public void rollback() throws IOException{
+            super.rollback();
+            complete();
+        }
+
+        private void complete(){
+            if(tracked.compareAndSet(true,false))
+                activeTransactions.complete(getTxnId());
+        }
+    }
+
 }
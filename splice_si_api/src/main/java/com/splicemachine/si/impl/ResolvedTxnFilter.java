@@ -0,0 +1,119 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.si.impl;
+
+import com.carrotsearch.hppc.LongArrayList;
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.api.filter.RowAccumulator;
+import com.splicemachine.si.api.filter.TxnFilter;
+import com.splicemachine.storage.DataCell;
+import com.splicemachine.storage.DataFilter;
+import com.splicemachine.storage.ResolvedDataSummary;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Transaction filter for data which is known to be fully resolved and visible to the reader, as
+ * described by a {@link ResolvedDataSummary}.
+ * <p/>
+ * Every version of such data carries a commit timestamp no newer than the summary's, so a version is visible as
+ * soon as its commit timestamp has been seen in the row, without looking up the transaction or keeping track of
+ * tombstones. The summary is taken before the data is read, though, so the rest of any row holding something
+ * else (an unresolved version, a tombstone, or a version outside the summary) is handed to a full filter instead.
+ */
+public class ResolvedTxnFilter implements TxnFilter{
+    private final long maxTxnId;
+    private final long maxCommitTimestamp;
+    private final TxnFilter delegate;
+    //per row fields
+    private final LongArrayList resolvedVersions=new LongArrayList(1); //usually, there is only one version
+    private boolean delegating;
+
+    public ResolvedTxnFilter(ResolvedDataSummary summary,TxnFilter delegate){
+        this.maxTxnId=summary.getMaxTxnId();
+        this.maxCommitTimestamp=summary.getMaxCommitTimestamp();
+        this.delegate=delegate;
+    }
+
+    @Override
+    public DataFilter.ReturnCode filterCell(DataCell keyValue) throws IOException{
+        if(delegating)
+            return delegate.filterCell(keyValue);
+        switch(keyValue.dataType()){
+            case COMMIT_TIMESTAMP:
+                long version=keyValue.version();
+                if(version<=maxTxnId && keyValue.valueLength()==Bytes.SIZEOF_LONG && keyValue.valueAsLong()<=maxCommitTimestamp)
+                    resolvedVersions.add(version);
+                return DataFilter.ReturnCode.SKIP;
+            case FOREIGN_KEY_COUNTER:
+                /* Transactional reads always ignore this column, no exceptions. */
+                return DataFilter.ReturnCode.SKIP;
+            case USER_DATA:
+                if(resolvedVersions.contains(keyValue.version()))
+                    return DataFilter.ReturnCode.INCLUDE;
+                //fall through
+            default:
+                delegating=true;
+                return delegate.filterCell(keyValue);
+        }
+    }
+
+    @Override
+    public boolean filterRow(){
+        return getExcludeRow();
+    }
+
+    @Override
+    public void reset(){
+        nextRow();
+    }
+
+    @Override
+    public void nextRow(){
+        resolvedVersions.clear();
+        delegating=false;
+        delegate.nextRow();
+    }
+
+    @Override
+    public void prefetch(List<List<DataCell>> rows) throws IOException{
+        /*
+         * Versions of resolved data are visible from the commit timestamp in their row, so
+         * there are no transactions to fetch ahead of time.
+         */
+    }
+
+    @Override
+    public boolean needsLookup(List<DataCell> row){
+        return false;
+    }
+
+    @Override
+    public DataCell produceAccumulatedResult(){
+        return null;
+    }
+
+    @Override
+    public boolean getExcludeRow(){
+        return false;
+    }
+
+    @Override
+    public RowAccumulator getAccumulator(){
+        return delegate.getAccumulator();
+    }
+}
@@ -17,6 +17,7 @@ package com.splicemachine.si.impl;
 
 import com.carrotsearch.hppc.LongArrayList;
 import com.carrotsearch.hppc.LongOpenHashSet;
+import com.carrotsearch.hppc.cursors.LongCursor;
 import com.splicemachine.si.api.filter.RowAccumulator;
 import com.splicemachine.si.api.filter.TxnFilter;
 import com.splicemachine.si.api.readresolve.ReadResolver;
@@ -30,6 +31,7 @@ import com.splicemachine.storage.DataFilter;
 import com.splicemachine.utils.ByteSlice;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  * Transaction filter which performs basic transactional filtering (i.e. row visibility, tombstones,
@@ -47,6 +49,7 @@ public class SimpleTxnFilter implements TxnFilter{
     private final LongArrayList tombstonedTxnRows=new LongArrayList(1); //usually, there are very few deletes
     private final LongArrayList antiTombstonedTxnRows=new LongArrayList(1);
     private final ByteSlice rowKey=new ByteSlice();
+    private final LongArrayList lookupResolvedVersions=new LongArrayList(1);
     private final String tableName;
 
     /*
@@ -130,6 +133,63 @@ public class SimpleTxnFilter implements TxnFilter{
         return false;
     }
 
+    @Override
+    public void prefetch(List<List<DataCell>> rows) throws IOException{
+        /*
+         * Versions which carry a commit timestamp are resolved from the cell itself, so
+         * we only need to look up the writers of unresolved versions which we don't
+         * already have cached.
+         */
+        LongOpenHashSet resolved=new LongOpenHashSet();
+        LongOpenHashSet unresolved=new LongOpenHashSet();
+        for(List<DataCell> row : rows){
+            for(DataCell cell : row){
+                switch(cell.dataType()){
+                    case COMMIT_TIMESTAMP:
+                        resolved.add(cell.version());
+                        break;
+                    case USER_DATA:
+                    case TOMBSTONE:
+                    case ANTI_TOMBSTONE:
+                        unresolved.add(cell.version());
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        LongArrayList toFetch=new LongArrayList(unresolved.size());
+        for(LongCursor txnId : unresolved){
+            if(!resolved.contains(txnId.value) && !transactionStore.transactionCached(txnId.value))
+                toFetch.add(txnId.value);
+        }
+        if(toFetch.size()>1)
+            transactionStore.getTransactions(toFetch.toArray());
+    }
+
+
+    @Override
+    public boolean needsLookup(List<DataCell> row){
+        //commit timestamps sort ahead of the versions which they resolve
+        lookupResolvedVersions.clear();
+        for(DataCell cell : row){
+            switch(cell.dataType()){
+                case COMMIT_TIMESTAMP:
+                    lookupResolvedVersions.add(cell.version());
+                    break;
+                case USER_DATA:
+                case TOMBSTONE:
+                case ANTI_TOMBSTONE:
+                    long version=cell.version();
+                    if(!lookupResolvedVersions.contains(version) && !transactionStore.transactionCached(version))
+                        return true;
+                    break;
+                default:
+                    break;
+            }
+        }
+        return false;
+    }
 
     private void readResolve(DataCell element) throws IOException{
         /*
@@ -27,6 +27,7 @@ import com.splicemachine.si.api.txn.TxnSupplier;
 import com.splicemachine.si.api.txn.TxnView;
 import com.splicemachine.si.impl.filter.HRowAccumulator;
 import com.splicemachine.si.impl.filter.PackedTxnFilter;
+import com.splicemachine.si.impl.txn.CommittedTxn;
 import com.splicemachine.storage.*;
 import com.splicemachine.utils.ByteSlice;
 import org.spark_project.guava.collect.Iterators;
@@ -68,7 +69,16 @@ public class TxnRegion<InternalScanner> implements TransactionalRegion<InternalS
 
     @Override
     public TxnFilter unpackedFilter(TxnView txn) throws IOException{
-        return new SimpleTxnFilter(tableName,txn,readResolver,txnSupplier);
+        TxnFilter filter=new SimpleTxnFilter(tableName,txn,readResolver,txnSupplier);
+        /*
+         * If all the data is resolved, and the reader can see the newest version of it, then it can see
+         * every version, so we can bypass transaction lookups.
+         */
+        ResolvedDataSummary summary=region==null?null:region.getResolvedDataSummary();
+        if(summary!=null && !summary.hasTombstones()
+                && txn.canSee(new CommittedTxn(summary.getMaxTxnId(),summary.getMaxCommitTimestamp())))
+            return new ResolvedTxnFilter(summary,filter);
+        return filter;
     }
 
     @Override
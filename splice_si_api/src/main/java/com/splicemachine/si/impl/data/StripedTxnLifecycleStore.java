@@ -15,6 +15,7 @@
 
 package com.splicemachine.si.impl.data;
 
+import com.carrotsearch.hppc.LongArrayList;
 import com.splicemachine.concurrent.LongStripedSynchronizer;
 import com.splicemachine.si.api.txn.lifecycle.TxnLifecycleStore;
 import com.splicemachine.access.api.ServerControl;
@@ -27,6 +28,11 @@ import com.splicemachine.utils.SpliceLogUtils;
 import org.apache.log4j.Logger;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -113,6 +119,67 @@ public class StripedTxnLifecycleStore implements TxnLifecycleStore{
         }
     }
 
+    @Override
+    public TxnMessage.CommitResponse commitTransactions(long[] txnIds) throws IOException{
+        TxnMessage.CommitResponse.Builder response=TxnMessage.CommitResponse.newBuilder();
+        long[] commitTs=new long[txnIds.length];
+        Arrays.fill(commitTs,-1l);
+        List<Lock> locks=new ArrayList<>();
+        try{
+            for(ReadWriteLock stripe : lockStriper.bulkGet(txnIds)){
+                Lock lock=stripe.writeLock();
+                acquireLock(lock);
+                locks.add(lock);
+            }
+
+            /*
+             * Apply the same checks as commitTransaction() to each transaction, then acquire the commit timestamps
+             * of all those which can commit at once
+             */
+            int[] toCommit=new int[txnIds.length];
+            int numToCommit=0;
+            for(int i=0;i<txnIds.length;i++){
+                long txnId=txnIds[i];
+                if(!baseStore.containsTransaction(txnId)){
+                    response.addMissingTxnIds(txnId);
+                    continue;
+                }
+                Txn.State state=baseStore.getState(txnId);
+                if(state==null) continue; //read-only
+                switch(state){
+                    case COMMITTED:
+                        SpliceLogUtils.warn(LOG,"attempting to commit already committed txn=%d",txnId);
+                        commitTs[i]=baseStore.getCommitTimestamp(txnId);
+                        break;
+                    case ROLLEDBACK:
+                        SpliceLogUtils.error(LOG,"attempting to commit rolled back txn=%d",txnId);
+                        response.addRolledBackTxnIds(txnId);
+                        break;
+                    default:
+                        toCommit[numToCommit++]=i;
+                }
+            }
+
+            if(numToCommit>0){
+                long[] timestamps=timestampSource.nextTimestamps(numToCommit);
+                long[] committing=new long[numToCommit];
+                for(int i=0;i<numToCommit;i++){
+                    committing[i]=txnIds[toCommit[i]];
+                    commitTs[toCommit[i]]=timestamps[i];
+                }
+                baseStore.recordCommits(committing,timestamps);
+            }
+        }finally{
+            for(Lock lock : locks){
+                unlock(lock);
+            }
+        }
+        for(long ts : commitTs){
+            response.addCommitTs(ts);
+        }
+        return response.build();
+    }
+
     @Override
     public void rollbackTransaction(long txnId) throws IOException{
         Lock lock=lockStriper.get(txnId).writeLock();
@@ -146,6 +213,36 @@ public class StripedTxnLifecycleStore implements TxnLifecycleStore{
         }
     }
 
+    @Override
+    public TxnMessage.KeepAliveResponse keepAlive(long[] txnIds) throws IOException{
+        /*
+         * Keep alive each stripe's transactions together, holding only that stripe's write lock, so that we
+         * never hold more than one write lock at a time.
+         */
+        Map<Lock,LongArrayList> stripes=new IdentityHashMap<>();
+        for(long txnId : txnIds){
+            Lock lock=lockStriper.get(txnId).writeLock();
+            LongArrayList stripeIds=stripes.get(lock);
+            if(stripeIds==null){
+                stripeIds=new LongArrayList();
+                stripes.put(lock,stripeIds);
+            }
+            stripeIds.add(txnId);
+        }
+
+        TxnMessage.KeepAliveResponse.Builder response=TxnMessage.KeepAliveResponse.newBuilder();
+        for(Map.Entry<Lock,LongArrayList> stripe : stripes.entrySet()){
+            Lock lock=stripe.getKey();
+            acquireLock(lock);
+            try{
+                response.mergeFrom(baseStore.keepAlive(stripe.getValue().toArray()));
+            }finally{
+                unlock(lock);
+            }
+        }
+        return response.build();
+    }
+
 
     @Override
     public TxnMessage.Txn getTransaction(long txnId) throws IOException{
@@ -162,6 +259,28 @@ public class StripedTxnLifecycleStore implements TxnLifecycleStore{
         }
     }
 
+    @Override
+    public TxnMessage.Txn[] getTransactions(long[] txnIds) throws IOException{
+        /*
+         * Hold the read lock of every stripe involved for the duration of the read. Stripes are always
+         * locked in the same order (including by group commits, which hold several write locks), so this
+         * can't deadlock.
+         */
+        List<Lock> locks=new ArrayList<>();
+        try{
+            for(ReadWriteLock stripe : lockStriper.bulkGet(txnIds)){
+                Lock lock=stripe.readLock();
+                acquireLock(lock);
+                locks.add(lock);
+            }
+            return baseStore.getTransactions(txnIds);
+        }finally{
+            for(Lock lock : locks){
+                unlock(lock);
+            }
+        }
+    }
+
     @Override
     public long[] getActiveTransactionIds(byte[] destTable,long startId,long endId) throws IOException{
         if(endId<0)
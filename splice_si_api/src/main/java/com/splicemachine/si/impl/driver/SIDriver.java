@@ -34,6 +34,7 @@ import com.splicemachine.si.api.server.Transactor;
 import com.splicemachine.si.api.txn.TxnLifecycleManager;
 import com.splicemachine.si.api.txn.TxnStore;
 import com.splicemachine.si.api.txn.TxnSupplier;
+import com.splicemachine.si.impl.ActiveTransactionTracker;
 import com.splicemachine.si.impl.ClientTxnLifecycleManager;
 import com.splicemachine.si.impl.TxnRegion;
 import com.splicemachine.si.impl.readresolve.NoOpReadResolver;
@@ -82,6 +83,7 @@ public class SIDriver {
     private final TxnOperationFactory txnOpFactory;
     private final RollForward rollForward;
     private final TxnLifecycleManager lifecycleManager;
+    private final ActiveTransactionTracker activeTransactions;
     private final DataFilterFactory filterFactory;
     private final Clock clock;
     private final AsyncReadResolver readResolver;
@@ -111,11 +113,13 @@ public class SIDriver {
                 this.txnOpFactory,
                 env.baseOperationFactory(),
                 this.operationStatusFactory,
-                this.exceptionFactory);
+                this.exceptionFactory,
+                config.getRangeConflictCheckThreshold());
         ClientTxnLifecycleManager clientTxnLifecycleManager=new ClientTxnLifecycleManager(this.timestampSource,env.exceptionFactory());
         clientTxnLifecycleManager.setTxnStore(this.txnStore);
         clientTxnLifecycleManager.setKeepAliveScheduler(env.keepAliveScheduler());
         this.lifecycleManager =clientTxnLifecycleManager;
+        this.activeTransactions = clientTxnLifecycleManager.getActiveTransactions();
         readController = new SITransactionReadController(txnSupplier);
         readResolver = initializedReadResolver(config,env.keyedReadResolver());
         this.fileSystem = env.fileSystem();
@@ -186,6 +190,13 @@ public class SIDriver {
         return lifecycleManager;
     }
 
+    /**
+     * @return the top-level transactions begun in this process which are still active
+     */
+    public ActiveTransactionTracker getActiveTransactions(){
+        return activeTransactions;
+    }
+
     public DataFilterFactory filterFactory(){
         return filterFactory;
     }
@@ -229,6 +240,7 @@ public class SIDriver {
         if(bufferSize<=0) return null;
         final AsyncReadResolver asyncReadResolver=new AsyncReadResolver(maxThreads,
                 bufferSize,
+                config.getReadResolverBatchSize(),
                 txnSupplier,
                 new RollForwardStatus(),
                 GreenLight.INSTANCE,keyedResolver);
@@ -23,6 +23,7 @@ import com.splicemachine.storage.DataCell;
 import com.splicemachine.storage.DataFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 public class PackedTxnFilter implements TxnFilter, SIFilter{
     private final TxnFilter simpleFilter;
@@ -115,6 +116,16 @@ public class PackedTxnFilter implements TxnFilter, SIFilter{
         return excludeRow || lastValidCell==null;
     }
 
+    @Override
+    public void prefetch(List<List<DataCell>> rows) throws IOException{
+        simpleFilter.prefetch(rows);
+    }
+
+    @Override
+    public boolean needsLookup(List<DataCell> row){
+        return simpleFilter.needsLookup(row);
+    }
+
     @Override
     public void nextRow(){
         simpleFilter.nextRow();
@@ -32,6 +32,15 @@ public class HLCTimestampSource implements TimestampSource {
         return hlc.sendOrLocalEvent();
     }
 
+    @Override
+    public long[] nextTimestamps(int count) {
+        long[] timestamps = new long[count];
+        for (int i = 0; i < count; i++) {
+            timestamps[i] = nextTimestamp();
+        }
+        return timestamps;
+    }
+
     @Override
     public void rememberTimestamp(long timestamp) {
         // No Op
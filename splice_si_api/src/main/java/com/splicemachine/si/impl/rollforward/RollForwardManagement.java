@@ -28,4 +28,20 @@ public interface RollForwardManagement {
     long getTotalUpdates();
 
     long getTotalRowsToResolve();
+
+    /**
+     * @return the number of batches which have been resolved asynchronously
+     */
+    long getTotalBatches();
+
+    /**
+     * @return the average number of rows in each asynchronously resolved batch
+     */
+    double getAverageBatchSize();
+
+    /**
+     * @return the time (in milliseconds) between the oldest row of the most recent batch being submitted
+     * for resolution and the batch being resolved
+     */
+    long getResolutionLag();
 }
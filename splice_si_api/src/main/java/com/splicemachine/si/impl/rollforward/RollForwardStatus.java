@@ -24,9 +24,27 @@ import java.util.concurrent.atomic.AtomicLong;
 public class RollForwardStatus implements RollForwardManagement{
     private final AtomicLong numUpdates = new AtomicLong(0l);
     private final AtomicLong rowsToResolve = new AtomicLong(0l);
+    private final AtomicLong numBatches = new AtomicLong(0l);
+    private final AtomicLong batchedRows = new AtomicLong(0l);
+    private volatile long resolutionLag = 0l;
 
     @Override public long getTotalUpdates() { return numUpdates.get(); }
     @Override public long getTotalRowsToResolve() { return  rowsToResolve.get(); }
+    @Override public long getTotalBatches() { return numBatches.get(); }
+    @Override public long getResolutionLag() { return resolutionLag; }
+
+    @Override
+    public double getAverageBatchSize(){
+        long batches = numBatches.get();
+        if(batches<=0) return 0d;
+        return ((double)batchedRows.get())/batches;
+    }
+
+    public void batchResolved(int size,long lagMillis){
+        numBatches.incrementAndGet();
+        batchedRows.addAndGet(size);
+        resolutionLag = lagMillis;
+    }
 
     public void rowResolved(){
         boolean shouldContinue;
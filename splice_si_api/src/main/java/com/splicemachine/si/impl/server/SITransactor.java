@@ -62,17 +62,33 @@ public class SITransactor implements Transactor{
 
     private final TxnOperationFactory txnOperationFactory;
     private final TxnSupplier txnSupplier;
+    private final int rangeConflictCheckThreshold;
 
     public SITransactor(TxnSupplier txnSupplier,
                         TxnOperationFactory txnOperationFactory,
                         OperationFactory opFactory,
                         OperationStatusFactory operationStatusLib,
                         ExceptionFactory exceptionFactory){
+        this(txnSupplier,txnOperationFactory,opFactory,operationStatusLib,exceptionFactory,0);
+    }
+
+    /**
+     * @param rangeConflictCheckThreshold the number of rows in a batch which need a conflict check at or above
+     *                                    which they are read with a single range scan. If {@code <= 0}, each
+     *                                    row is always read individually.
+     */
+    public SITransactor(TxnSupplier txnSupplier,
+                        TxnOperationFactory txnOperationFactory,
+                        OperationFactory opFactory,
+                        OperationStatusFactory operationStatusLib,
+                        ExceptionFactory exceptionFactory,
+                        int rangeConflictCheckThreshold){
         this.txnSupplier=txnSupplier;
         this.txnOperationFactory=txnOperationFactory;
         this.opFactory= opFactory;
         this.operationStatusLib = operationStatusLib;
         this.exceptionLib = exceptionFactory;
+        this.rangeConflictCheckThreshold = rangeConflictCheckThreshold;
     }
 
     // Operation pre-processing. These are to be called "server-side" when we are about to process an operation.
@@ -234,52 +250,178 @@ public class SITransactor implements Transactor{
                                                                    TxnFilter constraintStateFilter,
                                                                    MutationStatus[] finalStatus) throws IOException {
         IntObjectOpenHashMap<DataPut> finalMutationsToWrite = IntObjectOpenHashMap.newInstance(dataAndLocks.length, 0.9f);
-        DataResult possibleConflicts = null;
         BitSet bloomInMemoryCheck  = table.getBloomInMemoryCheck(constraintChecker!=null,dataAndLocks);
+        /*
+         * Rows which have to be read are set aside, so that a large batch can read them all in a single
+         * pass over its key range. Everything else can be checked right away.
+         */
+        int[] toRead=new int[dataAndLocks.length];
+        int numToRead=0;
         for(int i=0;i<dataAndLocks.length;i++){
             Pair<KVPair, Lock> baseDataAndLock=dataAndLocks[i];
             if(baseDataAndLock==null) continue;
 
-            ConflictResults conflictResults=ConflictResults.NO_CONFLICT;
             KVPair kvPair=baseDataAndLock.getFirst();
-            KVPair.Type writeType=kvPair.getType();
-            if(constraintChecker!=null || !KVPair.Type.INSERT.equals(writeType)){
-                /*
-                 *
-                 * If the table has no keys, then the hbase row key is a randomly generated UUID, so it's not
-                 * going to incur a write/write penalty, because there isn't any other row there (as long as we are inserting).
-                 * Therefore, we do not need to perform a write/write conflict check or a constraint check
-                 *
-                 * We know that this is the case because there is no constraint checker (constraint checkers are only
-                 * applied on key elements.
-                 */
-                //todo -sf remove the Row key copy here
-                possibleConflicts=bloomInMemoryCheck==null||bloomInMemoryCheck.get(i)?table.getLatest(kvPair.getRowKey(),possibleConflicts):null;
-                if(possibleConflicts!=null){
-                    //we need to check for write conflicts
-                    conflictResults=ensureNoWriteConflict(transaction,writeType,possibleConflicts);
-                    if(applyConstraint(constraintChecker,constraintStateFilter,i,kvPair,possibleConflicts,finalStatus,conflictResults.hasAdditiveConflicts())) //filter this row out, it fails the constraint
-                        continue;
-                }
-                //TODO -sf- if type is an UPSERT, and conflict type is ADDITIVE_CONFLICT, then we
-                //set the status on the row to ADDITIVE_CONFLICT_DURING_UPSERT
-                if(KVPair.Type.UPSERT.equals(writeType)){
-                    /*
-                     * If the type is an upsert, then we want to check for an ADDITIVE conflict. If so,
-                     * we fail this row with an ADDITIVE_UPSERT_CONFLICT.
-                     */
-                    if(conflictResults.hasAdditiveConflicts()){
-                        finalStatus[i]=operationStatusLib.failure(exceptionLib.additiveWriteConflict());
+            /*
+             * If the table has no keys, then the hbase row key is a randomly generated UUID, so it's not
+             * going to incur a write/write penalty, because there isn't any other row there (as long as we are inserting).
+             * Therefore, we do not need to perform a write/write conflict check or a constraint check
+             *
+             * We know that this is the case because there is no constraint checker (constraint checkers are only
+             * applied on key elements.
+             */
+            boolean needsCheck=constraintChecker!=null || !KVPair.Type.INSERT.equals(kvPair.getType());
+            if(needsCheck && (bloomInMemoryCheck==null||bloomInMemoryCheck.get(i)))
+                toRead[numToRead++]=i;
+            else
+                checkConflictsForRow(table,rollForwardQueue,i,kvPair,null,conflictingChildren,transaction,family,qualifier,
+                        constraintChecker,constraintStateFilter,finalStatus,finalMutationsToWrite);
+        }
+
+        if(rangeConflictCheckThreshold>0 && numToRead>=rangeConflictCheckThreshold)
+            checkConflictsByRange(table,rollForwardQueue,dataAndLocks,toRead,numToRead,conflictingChildren,transaction,
+                    family,qualifier,constraintChecker,constraintStateFilter,finalStatus,finalMutationsToWrite);
+        else
+            checkConflictsByRow(table,rollForwardQueue,dataAndLocks,toRead,0,numToRead,conflictingChildren,transaction,
+                    family,qualifier,constraintChecker,constraintStateFilter,finalStatus,finalMutationsToWrite);
+        return finalMutationsToWrite;
+    }
+
+    /**
+     * Reads the rows at positions {@code toRead[start..stop)} one at a time and checks them for conflicts.
+     */
+    private void checkConflictsByRow(Partition table,
+                                     RollForward rollForwardQueue,
+                                     Pair<KVPair, Lock>[] dataAndLocks,
+                                     int[] toRead,int start,int stop,
+                                     LongOpenHashSet[] conflictingChildren,
+                                     TxnView transaction,
+                                     byte[] family,byte[] qualifier,
+                                     ConstraintChecker constraintChecker,
+                                     TxnFilter constraintStateFilter,
+                                     MutationStatus[] finalStatus,
+                                     IntObjectOpenHashMap<DataPut> finalMutationsToWrite) throws IOException{
+        DataResult possibleConflicts=null;
+        for(int n=start;n<stop;n++){
+            int i=toRead[n];
+            KVPair kvPair=dataAndLocks[i].getFirst();
+            //todo -sf remove the Row key copy here
+            possibleConflicts=table.getLatest(kvPair.getRowKey(),possibleConflicts);
+            checkConflictsForRow(table,rollForwardQueue,i,kvPair,possibleConflicts,conflictingChildren,transaction,family,qualifier,
+                    constraintChecker,constraintStateFilter,finalStatus,finalMutationsToWrite);
+        }
+    }
+
+    /**
+     * Sorts the rows at positions {@code toRead[0..numToRead)} by key, and reads them all with a single forward
+     * scan from the smallest to the largest key, instead of one read per row.
+     * <p>
+     * Rows between the keys which are not part of the batch are read and skipped. Should the scan skip more
+     * rows than there are keys to check (that is, when the batch is sparse in its range), the scan is abandoned
+     * and the remaining rows are read individually.
+     */
+    private void checkConflictsByRange(Partition table,
+                                       RollForward rollForwardQueue,
+                                       final Pair<KVPair, Lock>[] dataAndLocks,
+                                       int[] toRead,int numToRead,
+                                       LongOpenHashSet[] conflictingChildren,
+                                       TxnView transaction,
+                                       byte[] family,byte[] qualifier,
+                                       ConstraintChecker constraintChecker,
+                                       TxnFilter constraintStateFilter,
+                                       MutationStatus[] finalStatus,
+                                       IntObjectOpenHashMap<DataPut> finalMutationsToWrite) throws IOException{
+        Integer[] order=new Integer[numToRead];
+        for(int n=0;n<numToRead;n++){
+            order[n]=toRead[n];
+        }
+        Arrays.sort(order,new Comparator<Integer>(){
+            @Override
+            public int compare(Integer o1,Integer o2){
+                return dataAndLocks[o1].getFirst().rowKeySlice().compareTo(dataAndLocks[o2].getFirst().rowKeySlice());
+            }
+        });
+        for(int n=0;n<numToRead;n++){
+            toRead[n]=order[n];
+        }
+
+        ByteSlice first=dataAndLocks[toRead[0]].getFirst().rowKeySlice();
+        ByteSlice last=dataAndLocks[toRead[numToRead-1]].getFirst().rowKeySlice();
+        //the stop key is exclusive, so stop at the smallest key after the last one
+        byte[] stopKey=new byte[last.length()+1];
+        System.arraycopy(last.array(),last.offset(),stopKey,0,last.length());
+        DataScan scan=opFactory.newScan().startKey(first.getByteCopy()).stopKey(stopKey);
+
+        try(DataResultScanner scanner=table.openResultScanner(scan)){
+            DataResult current=scanner.next();
+            boolean currentMatched=false;
+            int skipped=0;
+            for(int n=0;n<numToRead;n++){
+                int i=toRead[n];
+                KVPair kvPair=dataAndLocks[i].getFirst();
+                ByteSlice rowKey=kvPair.rowKeySlice();
+                while(current!=null && compareKeys(rowKey,current)>0){
+                    if(!currentMatched && ++skipped>numToRead){
+                        checkConflictsByRow(table,rollForwardQueue,dataAndLocks,toRead,n,numToRead,conflictingChildren,
+                                transaction,family,qualifier,constraintChecker,constraintStateFilter,finalStatus,finalMutationsToWrite);
+                        return;
                     }
+                    current=scanner.next();
+                    currentMatched=false;
+                }
+                DataResult possibleConflicts=null;
+                if(current!=null && compareKeys(rowKey,current)==0){
+                    //duplicate keys in the batch are adjacent, and all see the same row
+                    possibleConflicts=current;
+                    currentMatched=true;
                 }
+                checkConflictsForRow(table,rollForwardQueue,i,kvPair,possibleConflicts,conflictingChildren,transaction,family,qualifier,
+                        constraintChecker,constraintStateFilter,finalStatus,finalMutationsToWrite);
             }
+        }
+    }
 
-            conflictingChildren[i]=conflictResults.getChildConflicts();
-            DataPut mutationToRun=getMutationToRun(table,rollForwardQueue,kvPair,
-                    family,qualifier,transaction,conflictResults);
-            finalMutationsToWrite.put(i,mutationToRun);
+    private static int compareKeys(ByteSlice rowKey,DataResult row){
+        byte[] key=row.key();
+        return rowKey.compareTo(key,0,key.length);
+    }
+
+    private void checkConflictsForRow(Partition table,
+                                      RollForward rollForwardQueue,
+                                      int i,
+                                      KVPair kvPair,
+                                      DataResult possibleConflicts,
+                                      LongOpenHashSet[] conflictingChildren,
+                                      TxnView transaction,
+                                      byte[] family,byte[] qualifier,
+                                      ConstraintChecker constraintChecker,
+                                      TxnFilter constraintStateFilter,
+                                      MutationStatus[] finalStatus,
+                                      IntObjectOpenHashMap<DataPut> finalMutationsToWrite) throws IOException{
+        ConflictResults conflictResults=ConflictResults.NO_CONFLICT;
+        KVPair.Type writeType=kvPair.getType();
+        if(possibleConflicts!=null){
+            //we need to check for write conflicts
+            conflictResults=ensureNoWriteConflict(transaction,writeType,possibleConflicts);
+            if(applyConstraint(constraintChecker,constraintStateFilter,i,kvPair,possibleConflicts,finalStatus,conflictResults.hasAdditiveConflicts())) //filter this row out, it fails the constraint
+                return;
         }
-        return finalMutationsToWrite;
+        //TODO -sf- if type is an UPSERT, and conflict type is ADDITIVE_CONFLICT, then we
+        //set the status on the row to ADDITIVE_CONFLICT_DURING_UPSERT
+        if(KVPair.Type.UPSERT.equals(writeType)){
+            /*
+             * If the type is an upsert, then we want to check for an ADDITIVE conflict. If so,
+             * we fail this row with an ADDITIVE_UPSERT_CONFLICT.
+             */
+            if(conflictResults.hasAdditiveConflicts()){
+                finalStatus[i]=operationStatusLib.failure(exceptionLib.additiveWriteConflict());
+            }
+        }
+
+        conflictingChildren[i]=conflictResults.getChildConflicts();
+        DataPut mutationToRun=getMutationToRun(table,rollForwardQueue,kvPair,
+                family,qualifier,transaction,conflictResults);
+        finalMutationsToWrite.put(i,mutationToRun);
     }
 
     private boolean applyConstraint(ConstraintChecker constraintChecker,
@@ -62,9 +62,36 @@ public class ActiveTxnCacheSupplier implements TxnSupplier {
 				return txn;
 		}
 
+		@Override
+		public TxnView[] getTransactions(long[] txnIds) throws IOException {
+				TxnView[] txns = new TxnView[txnIds.length];
+				int missing = 0;
+				for(int i=0;i<txnIds.length;i++){
+						txns[i] = cache.get(txnIds[i]);
+						if(txns[i]==null) missing++;
+				}
+				if(missing==0) return txns;
+
+				long[] toFetch = new long[missing];
+				int pos = 0;
+				for(int i=0;i<txnIds.length;i++){
+						if(txns[i]==null) toFetch[pos++] = txnIds[i];
+				}
+				TxnView[] fetched = delegate.getTransactions(toFetch);
+				pos = 0;
+				for(int i=0;i<txns.length;i++){
+						if(txns[i]!=null) continue;
+						TxnView txn = fetched[pos++];
+						txns[i] = txn;
+						if(txn!=null && txn.getEffectiveState()== Txn.State.ACTIVE)
+            this.cache.put(txnIds[i],txn);
+				}
+				return txns;
+		}
+
 		@Override
 		public boolean transactionCached(long txnId) {
-        return cache.get(txnId) !=null;
+        return cache.get(txnId) !=null || delegate.transactionCached(txnId);
 		}
 
 		@Override
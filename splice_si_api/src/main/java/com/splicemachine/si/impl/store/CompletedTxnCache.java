@@ -0,0 +1,253 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.si.impl.store;
+
+import com.splicemachine.si.api.txn.Txn;
+import com.splicemachine.si.api.txn.TxnSupplier;
+import com.splicemachine.si.api.txn.TxnView;
+import com.splicemachine.si.impl.txn.InheritingTxnView;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compact cache of completed transactions, keyed by (primitive) transaction id.
+ * <p/>
+ * Rather than holding on to a TxnView for each transaction, the cache holds the fields of each transaction in
+ * parallel primitive arrays, and only builds a view when one is asked for. Parents are referred to by id, and
+ * looked up again when the view is built.
+ * <p/>
+ * The cache is split into lock-striped segments, each of which is set-associative: a transaction can only
+ * be held in one of {@link #WAYS} slots, and when they are all full, one of them is chosen for eviction
+ * using the CLOCK algorithm.
+ * <p/>
+ * This class is thread-safe.
+ */
+public class CompletedTxnCache{
+    static final int WAYS=8;
+    private static final long EMPTY=Long.MIN_VALUE;
+
+    private static final int STATE_MASK=0x07;
+    private static final int ISOLATION_SHIFT=3;
+    private static final int ISOLATION_MASK=0x03;
+    private static final int ADDITIVE=0x20;
+    private static final int ALLOW_WRITES=0x40;
+
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final int setsPerSegment;
+    private final AtomicLong evictions=new AtomicLong();
+
+    public CompletedTxnCache(int maxSize,int concurrencyLevel){
+        int numSegments=1;
+        while(numSegments<concurrencyLevel)
+            numSegments<<=1;
+        int sets=1;
+        while((long)sets*WAYS*numSegments<maxSize)
+            sets<<=1;
+        this.segments=new Segment[numSegments];
+        for(int i=0;i<numSegments;i++){
+            segments[i]=new Segment(sets);
+        }
+        this.segmentMask=numSegments-1;
+        this.setsPerSegment=sets;
+    }
+
+    /**
+     * @return true if the transaction is held in the cache. Does not allocate.
+     */
+    public boolean contains(long txnId){
+        long hash=hash(txnId);
+        return segmentFor(hash).indexOf(txnId,setFor(hash))>=0;
+    }
+
+    /**
+     * Look up a transaction.
+     *
+     * @param parentSupplier supplier to look up the parent of the transaction with, if it has one.
+     * @return a view of the transaction, or {@code null} if it is not in the cache.
+     */
+    public TxnView get(long txnId,TxnSupplier parentSupplier) throws IOException{
+        long hash=hash(txnId);
+        Segment segment=segmentFor(hash);
+        long parentTxnId;
+        long beginTimestamp;
+        long commitTimestamp;
+        long globalCommitTimestamp;
+        int flags;
+        segment.lock.readLock().lock();
+        try{
+            int slot=segment.indexOf(txnId,setFor(hash));
+            if(slot<0) return null;
+            segment.referenced[slot]=true;
+            parentTxnId=segment.parentTxnIds[slot];
+            beginTimestamp=segment.beginTimestamps[slot];
+            commitTimestamp=segment.commitTimestamps[slot];
+            globalCommitTimestamp=segment.globalCommitTimestamps[slot];
+            flags=segment.flags[slot];
+        }finally{
+            segment.lock.readLock().unlock();
+        }
+
+        TxnView parent=parentTxnId<0?Txn.ROOT_TRANSACTION:parentSupplier.getTransaction(parentTxnId);
+        int isolation=(flags>>>ISOLATION_SHIFT)&ISOLATION_MASK;
+        return new InheritingTxnView(parent,txnId,beginTimestamp,
+                isolation==0?null:Txn.IsolationLevel.fromInt(isolation),
+                true,(flags&ADDITIVE)!=0,
+                true,(flags&ALLOW_WRITES)!=0,
+                commitTimestamp,globalCommitTimestamp,
+                Txn.State.fromInt(flags&STATE_MASK));
+    }
+
+    public void put(TxnView txn){
+        long txnId=txn.getTxnId();
+        TxnView parent=txn.getParentTxnView();
+        long parentTxnId=parent==null?-1l:parent.getTxnId();
+        Txn.IsolationLevel isolationLevel=txn.getIsolationLevel();
+        int flags=txn.getState().getId()&STATE_MASK;
+        if(isolationLevel!=null)
+            flags|=(isolationLevel.getLevel()&ISOLATION_MASK)<<ISOLATION_SHIFT;
+        if(txn.isAdditive())
+            flags|=ADDITIVE;
+        if(txn.allowsWrites())
+            flags|=ALLOW_WRITES;
+
+        long hash=hash(txnId);
+        Segment segment=segmentFor(hash);
+        segment.lock.writeLock().lock();
+        try{
+            int set=setFor(hash);
+            int slot=segment.indexOf(txnId,set);
+            if(slot<0){
+                slot=segment.victim(set);
+                if(segment.txnIds[slot]!=EMPTY)
+                    evictions.incrementAndGet();
+                else
+                    segment.size++;
+            }
+            segment.txnIds[slot]=txnId;
+            segment.parentTxnIds[slot]=parentTxnId;
+            segment.beginTimestamps[slot]=txn.getBeginTimestamp();
+            segment.commitTimestamps[slot]=txn.getCommitTimestamp();
+            segment.globalCommitTimestamps[slot]=txn.getGlobalCommitTimestamp();
+            segment.flags[slot]=(byte)flags;
+            segment.referenced[slot]=true;
+        }finally{
+            segment.lock.writeLock().unlock();
+        }
+    }
+
+    public int size(){
+        int size=0;
+        for(Segment segment : segments){
+            size+=segment.size;
+        }
+        return size;
+    }
+
+    public int capacity(){
+        return segments.length*setsPerSegment*WAYS;
+    }
+
+    public long evictionCount(){
+        return evictions.get();
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private static long hash(long txnId){
+        //the finalization step of murmur3, which spreads sequential ids over all the bits
+        long h=txnId;
+        h^=h>>>33;
+        h*=0xff51afd7ed558ccdL;
+        h^=h>>>33;
+        h*=0xc4ceb9fe1a85ec53L;
+        h^=h>>>33;
+        return h;
+    }
+
+    private Segment segmentFor(long hash){
+        return segments[(int)(hash>>>32)&segmentMask];
+    }
+
+    private int setFor(long hash){
+        return (int)hash&(setsPerSegment-1);
+    }
+
+    private static class Segment{
+        private final ReadWriteLock lock=new ReentrantReadWriteLock();
+        private final long[] txnIds;
+        private final long[] parentTxnIds;
+        private final long[] beginTimestamps;
+        private final long[] commitTimestamps;
+        private final long[] globalCommitTimestamps;
+        private final byte[] flags;
+        /*
+         * CLOCK reference bits. These are set by readers while holding only the read lock; a lost update
+         * just makes eviction a little less accurate.
+         */
+        private final boolean[] referenced;
+        private final byte[] hands;
+        private volatile int size;
+
+        Segment(int sets){
+            int slots=sets*WAYS;
+            this.txnIds=new long[slots];
+            Arrays.fill(txnIds,EMPTY);
+            this.parentTxnIds=new long[slots];
+            this.beginTimestamps=new long[slots];
+            this.commitTimestamps=new long[slots];
+            this.globalCommitTimestamps=new long[slots];
+            this.flags=new byte[slots];
+            this.referenced=new boolean[slots];
+            this.hands=new byte[sets];
+        }
+
+        int indexOf(long txnId,int set){
+            int start=set*WAYS;
+            for(int i=start;i<start+WAYS;i++){
+                if(txnIds[i]==txnId) return i;
+            }
+            return -1;
+        }
+
+        /**
+         * Choose the slot in {@code set} to write a new transaction to: an empty slot if there is
+         * one, otherwise the first slot the clock hand reaches which has not been referenced since it last passed.
+         * Must be called under the write lock.
+         */
+        int victim(int set){
+            int start=set*WAYS;
+            for(int i=start;i<start+WAYS;i++){
+                if(txnIds[i]==EMPTY) return i;
+            }
+            int hand=hands[set];
+            while(true){
+                int slot=start+hand;
+                hand=(hand+1)&(WAYS-1);
+                if(referenced[slot])
+                    referenced[slot]=false;
+                else{
+                    hands[set]=(byte)hand;
+                    return slot;
+                }
+            }
+        }
+    }
+}
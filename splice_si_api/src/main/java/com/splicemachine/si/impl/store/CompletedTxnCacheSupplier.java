@@ -15,7 +15,8 @@
 
 package com.splicemachine.si.impl.store;
 
-import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import com.carrotsearch.hppc.LongArrayList;
+import com.splicemachine.si.api.txn.TransactionCacheManagement;
 import com.splicemachine.si.api.txn.Txn;
 import com.splicemachine.si.api.txn.TxnSupplier;
 import com.splicemachine.si.api.txn.TxnView;
@@ -28,29 +29,62 @@ import java.util.concurrent.atomic.AtomicLong;
  * TxnSupplier which caches transaction which have "Completed"--i.e. which have entered the COMMITTED or ROLLEDBACK
  * state.
  * <p/>
+ * Transactions are held in a {@link CompletedTxnCache}, so that checking whether a transaction is cached
+ * does not allocate, and the cache does not hold on to a graph of views.
+ * <p/>
  * This class is thread-safe, and safe to be shared between many threads.
  *
  * @author Scott Fines
  *         Date: 6/18/14
  */
-public class CompletedTxnCacheSupplier implements TxnSupplier{
-    private ConcurrentLinkedHashMap<Long, TxnView> cache; // autobox for now
+public class CompletedTxnCacheSupplier implements TxnSupplier,TransactionCacheManagement{
+    private final CompletedTxnCache cache;
     private final TxnSupplier delegate;
     private final AtomicLong hits=new AtomicLong();
     private final AtomicLong requests=new AtomicLong();
 
     public CompletedTxnCacheSupplier(TxnSupplier delegate,int maxSize,int concurrencyLevel){
-        cache=new ConcurrentLinkedHashMap.Builder<Long, TxnView>()
-                .maximumWeightedCapacity(maxSize)
-                .concurrencyLevel(concurrencyLevel)
-                .build();
+        cache=new CompletedTxnCache(maxSize,concurrencyLevel);
         this.delegate=delegate;
     }
 
-    public int getMaxSize(){
+    @Override
+    public long getTotalRequests(){
+        return requests.get();
+    }
+
+    @Override
+    public long getTotalHits(){
+        return hits.get();
+    }
+
+    @Override
+    public long getTotalMisses(){
+        return getTotalRequests()-getTotalHits();
+    }
+
+    @Override
+    public double getHitPercentage(){
+        long r=getTotalRequests();
+        if(r==0) return 0d;
+        return ((double)getTotalHits())/r;
+    }
+
+    @Override
+    public long getTotalEvictedEntries(){
+        return cache.evictionCount();
+    }
+
+    @Override
+    public int getCurrentSize(){
         return cache.size();
     }
 
+    @Override
+    public int getMaxSize(){
+        return cache.capacity();
+    }
+
     @Override
     public TxnView getTransaction(long txnId) throws IOException{
         if(txnId==-1)
@@ -64,7 +98,7 @@ public class CompletedTxnCacheSupplier implements TxnSupplier{
         if(txnId==-1)
             return Txn.ROOT_TRANSACTION;
         requests.incrementAndGet();
-        TxnView txn=cache.get(txnId); // autobox until Cliff C merge
+        TxnView txn=cache.get(txnId,this);
         if(txn!=null){
             hits.incrementAndGet();
             return txn;
@@ -77,26 +111,68 @@ public class CompletedTxnCacheSupplier implements TxnSupplier{
         switch(transaction.getEffectiveState()){
             case COMMITTED:
             case ROLLEDBACK:
-                cache.put(transaction.getTxnId(),transaction); // Cache for Future Use
+                cache.put(transaction); // Cache for Future Use
         }
         return transaction;
     }
 
+    @Override
+    public TxnView[] getTransactions(long[] txnIds) throws IOException{
+        TxnView[] txns=new TxnView[txnIds.length];
+        LongArrayList missing=null;
+        requests.addAndGet(txnIds.length);
+        for(int i=0;i<txnIds.length;i++){
+            long txnId=txnIds[i];
+            if(txnId==-1)
+                txns[i]=Txn.ROOT_TRANSACTION;
+            else
+                txns[i]=cache.get(txnId,this);
+            if(txns[i]!=null)
+                hits.incrementAndGet();
+            else{
+                if(missing==null) missing=new LongArrayList();
+                missing.add(txnId);
+            }
+        }
+        if(missing==null) return txns;
+
+        TxnView[] fetched=delegate.getTransactions(missing.toArray());
+        int next=0;
+        for(int i=0;i<txns.length;i++){
+            if(txns[i]!=null) continue;
+            TxnView transaction=fetched[next++];
+            txns[i]=transaction;
+            if(transaction==null) continue; //don't cache read-only transactions
+            switch(transaction.getEffectiveState()){
+                case COMMITTED:
+                case ROLLEDBACK:
+                    cache.put(transaction);
+            }
+        }
+        return txns;
+    }
+
     @Override
     public boolean transactionCached(long txnId){
-        return cache.get(txnId)!=null;
+        return cache.contains(txnId);
     }
 
     @Override
     public void cache(TxnView toCache){
         if(toCache.getState()==Txn.State.ACTIVE) return; //cannot cache incomplete transactions
-        cache.put(toCache.getTxnId(),toCache);
+        cache.put(toCache);
     }
 
     @Override
     public TxnView getTransactionFromCache(long txnId){
         requests.incrementAndGet();
-        TxnView txn=cache.get(txnId);
+        TxnView txn;
+        try{
+            txn=cache.get(txnId,this);
+        }catch(IOException e){
+            //we couldn't fetch the parent, so treat it as a cache miss
+            return null;
+        }
         if(txn!=null)
             hits.incrementAndGet();
         return txn;
@@ -58,6 +58,32 @@ public class SimpleCompletedTxnCacheSupplier implements TxnSupplier{
         }
     }
 
+    @Override
+    public TxnView[] getTransactions(long[] txnIds) throws IOException {
+        TxnView[] txns = new TxnView[txnIds.length];
+        int missing = 0;
+        for (int i = 0; i < txnIds.length; i++) {
+            txns[i] = cache.getIfPresent(txnIds[i]);
+            if (txns[i] == null) missing++;
+        }
+        if (missing == 0) return txns;
+
+        long[] toFetch = new long[missing];
+        int pos = 0;
+        for (int i = 0; i < txnIds.length; i++) {
+            if (txns[i] == null) toFetch[pos++] = txnIds[i];
+        }
+        TxnView[] fetched = delegate.getTransactions(toFetch);
+        pos = 0;
+        for (int i = 0; i < txns.length; i++) {
+            if (txns[i] != null) continue;
+            txns[i] = fetched[pos++];
+            if (txns[i] != null)
+                cache.put(txnIds[i], txns[i]);
+        }
+        return txns;
+    }
+
     @Override
     public boolean transactionCached(long txnId) {
         return getTransactionFromCache(txnId)!=null;
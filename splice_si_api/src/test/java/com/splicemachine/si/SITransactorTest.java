@@ -29,6 +29,7 @@ import org.junit.experimental.categories.Category;
 import org.junit.rules.ExpectedException;
 import org.spark_project.guava.collect.Lists;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -107,6 +108,32 @@ public class SITransactorTest {
         Assert.assertEquals("joe8 absent", testUtility.read(t2, "joe8"));
     }
 
+    @Test
+    public void batchRead() throws IOException {
+        Txn t1 = control.beginTransaction();
+        t1 = t1.elevateToWritable(Bytes.toBytes("t"));
+        testUtility.insertAge(t1, "batchjoe0", 50);
+        testUtility.insertAge(t1, "batchjoe1", 51);
+        t1.commit();
+
+        Txn t2 = control.beginTransaction();
+        t2 = t2.elevateToWritable(Bytes.toBytes("t"));
+        testUtility.insertAge(t2, "batchjoe2", 52);
+
+        Txn t3 = control.beginTransaction();
+        try {
+            // out of order, with a missing row, an uncommitted row and a duplicate
+            Assert.assertEquals(Arrays.asList("batchjoe1 age=51 job=null", "batchjoe3 absent", "batchjoe0 age=50 job=null",
+                    "batchjoe2 absent", "batchjoe1 age=51 job=null"),
+                    testUtility.batchRead(t3, "batchjoe1", "batchjoe3", "batchjoe0", "batchjoe2", "batchjoe1"));
+            Assert.assertEquals("the writer should see its own row",
+                    Arrays.asList("batchjoe2 age=52 job=null", "batchjoe0 age=50 job=null"),
+                    testUtility.batchRead(t2, "batchjoe2", "batchjoe0"));
+        } finally {
+            t3.commit();
+        }
+    }
+
     @Test
     public void testGetActiveTransactionsFiltersOutChildrenCommit() throws Exception {
         Txn parent = control.beginTransaction(DESTINATION_TABLE);
@@ -1992,6 +2019,44 @@ public class SITransactorTest {
         Assert.assertEquals("bob144 age=30 job=null", testUtility.read(t2, "bob144"));
     }
 
+    @Test
+    public void batchWriteConflict() throws IOException {
+        Txn t1 = control.beginTransaction(DESTINATION_TABLE);
+        testUtility.insertAge(t1, "147b", 20);
+        Txn t2 = control.beginTransaction(DESTINATION_TABLE);
+        t1.commit();
+
+        try {
+            testUtility.insertAgeBatch(new Object[]{t2, "147c", 30}, new Object[]{t2, "147a", 10},
+                    new Object[]{t2, "147b", 21});
+            Assert.fail("was able to insert batch");
+        } catch (IOException e) {
+            testUtility.assertWriteConflict(e);
+        }
+    }
+
+    @Test
+    public void batchWriteReadSparseRange() throws IOException {
+        Txn t1 = control.beginTransaction(DESTINATION_TABLE);
+        testUtility.insertAge(t1, "148b", 20);
+        testUtility.insertAge(t1, "148c", 30);
+        testUtility.insertAge(t1, "148d", 40);
+        testUtility.insertAge(t1, "148da", 45);
+        testUtility.insertAge(t1, "148e", 50);
+        t1.commit();
+
+        Txn t2 = control.beginTransaction(DESTINATION_TABLE);
+        testUtility.insertAgeBatch(new Object[]{t2, "148f", 60}, new Object[]{t2, "148a", 10},
+                new Object[]{t2, "148e", 51});
+        t2.commit();
+
+        Txn t3 = control.beginTransaction();
+        Assert.assertEquals("148a age=10 job=null", testUtility.read(t3, "148a"));
+        Assert.assertEquals("148c age=30 job=null", testUtility.read(t3, "148c"));
+        Assert.assertEquals("148e age=51 job=null", testUtility.read(t3, "148e"));
+        Assert.assertEquals("148f age=60 job=null", testUtility.read(t3, "148f"));
+    }
+
     @Test
     public void testDeleteThenInsertWithinChildTransactions() throws Exception {
         Txn t1 = control.beginTransaction(DESTINATION_TABLE);
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.splicemachine.si.impl;
+
+import com.splicemachine.concurrent.IncrementingClock;
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.api.txn.Txn;
+import com.splicemachine.si.api.txn.TxnStore;
+import com.splicemachine.si.impl.store.TestingTimestampSource;
+import com.splicemachine.si.impl.store.TestingTxnStore;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import com.splicemachine.timestamp.api.TimestampSource;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Tests that the transactions begun through a {@link ClientTxnLifecycleManager} are tracked until they complete.
+ */
+@Category(ArchitectureIndependent.class)
+public class ActiveTransactionTrackerTest{
+    private static final byte[] TABLE=Bytes.toBytes("1184");
+
+    private ClientTxnLifecycleManager lifecycleManager;
+    private ActiveTransactionTracker tracker;
+
+    @Before
+    public void setUp() throws Exception{
+        TimestampSource tss=new TestingTimestampSource();
+        TxnStore txnStore=new TestingTxnStore(new IncrementingClock(),tss,null,Long.MAX_VALUE);
+        lifecycleManager=new ClientTxnLifecycleManager(tss,null);
+        lifecycleManager.setTxnStore(txnStore);
+        lifecycleManager.setKeepAliveScheduler(new ManualKeepAliveScheduler(txnStore));
+        tracker=lifecycleManager.getActiveTransactions();
+    }
+
+    @Test
+    public void readOnlyTransactionIsTrackedUntilCommit() throws Exception{
+        Txn txn=lifecycleManager.beginTransaction();
+        Assert.assertFalse(txn.allowsWrites());
+        Assert.assertEquals(txn.getBeginTimestamp(),tracker.oldestActiveTimestamp());
+
+        txn.commit();
+        Assert.assertEquals(0,tracker.getActiveCount());
+        Assert.assertTrue("Watermark did not move past the committed transaction",
+                tracker.oldestActiveTimestamp()>txn.getBeginTimestamp());
+    }
+
+    @Test
+    public void oldestTransactionIsReported() throws Exception{
+        Txn first=lifecycleManager.beginTransaction();
+        Txn second=lifecycleManager.beginTransaction(TABLE);
+        Assert.assertEquals(first.getBeginTimestamp(),tracker.oldestActiveTimestamp());
+
+        first.rollback();
+        Assert.assertEquals(second.getBeginTimestamp(),tracker.oldestActiveTimestamp());
+
+        second.commit();
+        Assert.assertEquals(0,tracker.getActiveCount());
+    }
+
+    @Test
+    public void childTransactionsAreNotTracked() throws Exception{
+        Txn parent=lifecycleManager.beginTransaction(TABLE);
+        Txn child=lifecycleManager.beginChildTransaction(parent,TABLE);
+        Txn readOnlyChild=lifecycleManager.beginChildTransaction(parent,null);
+        Assert.assertEquals(1,tracker.getActiveCount());
+
+        child.commit();
+        readOnlyChild.commit();
+        Assert.assertEquals(parent.getBeginTimestamp(),tracker.oldestActiveTimestamp());
+        parent.commit();
+        Assert.assertEquals(0,tracker.getActiveCount());
+    }
+
+    @Test
+    public void elevatedTransactionIsTrackedUntilCommit() throws Exception{
+        Txn readOnly=lifecycleManager.beginTransaction();
+        Txn writable=readOnly.elevateToWritable(TABLE);
+        Assert.assertEquals(readOnly.getBeginTimestamp(),tracker.oldestActiveTimestamp());
+
+        writable.commit();
+        Assert.assertEquals(0,tracker.getActiveCount());
+    }
+
+    @Test
+    public void chainedTransactionIsTracked() throws Exception{
+        Txn txn=lifecycleManager.beginTransaction(TABLE);
+        Txn chained=lifecycleManager.chainTransaction(Txn.ROOT_TRANSACTION,Txn.IsolationLevel.SNAPSHOT_ISOLATION,false,null,txn);
+        Assert.assertEquals(txn.getCommitTimestamp(),chained.getBeginTimestamp());
+        Assert.assertEquals(1,tracker.getActiveCount());
+        Assert.assertEquals(chained.getBeginTimestamp(),tracker.oldestActiveTimestamp());
+
+        chained.commit();
+        Assert.assertEquals(0,tracker.getActiveCount());
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.si.impl;
+
+import com.splicemachine.si.api.filter.RowAccumulator;
+import com.splicemachine.si.api.filter.TxnFilter;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import com.splicemachine.storage.CellType;
+import com.splicemachine.storage.DataCell;
+import com.splicemachine.storage.DataFilter;
+import com.splicemachine.storage.ResolvedDataSummary;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.*;
+
+@Category(ArchitectureIndependent.class)
+public class ResolvedTxnFilterTest{
+    private TxnFilter delegate;
+    private ResolvedTxnFilter filter;
+
+    @Before
+    public void setUp() throws Exception{
+        delegate=mock(TxnFilter.class);
+        when(delegate.filterCell(any(DataCell.class))).thenReturn(DataFilter.ReturnCode.SKIP);
+        filter=new ResolvedTxnFilter(new ResolvedDataSummary(10l,20l,false),delegate);
+    }
+
+    @Test
+    public void includesResolvedVersionsWithoutLookups() throws Exception{
+        Assert.assertEquals(DataFilter.ReturnCode.SKIP,filter.filterCell(commitTimestamp(5l,15l)));
+        Assert.assertEquals(DataFilter.ReturnCode.SKIP,filter.filterCell(commitTimestamp(3l,4l)));
+        Assert.assertEquals(DataFilter.ReturnCode.INCLUDE,filter.filterCell(cell(CellType.USER_DATA,5l)));
+        Assert.assertEquals(DataFilter.ReturnCode.INCLUDE,filter.filterCell(cell(CellType.USER_DATA,3l)));
+        Assert.assertEquals(DataFilter.ReturnCode.SKIP,filter.filterCell(cell(CellType.FOREIGN_KEY_COUNTER,3l)));
+        verify(delegate,never()).filterCell(any(DataCell.class));
+    }
+
+    @Test
+    public void accumulatorIsTheFullFilters() throws Exception{
+        RowAccumulator accumulator=mock(RowAccumulator.class);
+        when(delegate.getAccumulator()).thenReturn(accumulator);
+        Assert.assertSame(accumulator,filter.getAccumulator());
+    }
+
+    @Test
+    public void neverNeedsLookupsAhead() throws Exception{
+        Assert.assertFalse(filter.needsLookup(Arrays.asList(commitTimestamp(3l,4l),cell(CellType.USER_DATA,3l))));
+        Assert.assertFalse(filter.needsLookup(Collections.singletonList(cell(CellType.USER_DATA,5l))));
+        verify(delegate,never()).needsLookup(anyListOf(DataCell.class));
+    }
+
+    @Test
+    public void handsUnresolvedVersionToFullFilter() throws Exception{
+        filter.filterCell(commitTimestamp(3l,4l));
+        DataCell unresolved=cell(CellType.USER_DATA,5l);
+        DataCell resolved=cell(CellType.USER_DATA,3l);
+        Assert.assertEquals(DataFilter.ReturnCode.SKIP,filter.filterCell(unresolved));
+        Assert.assertEquals("The rest of the row belongs to the full filter",
+                DataFilter.ReturnCode.SKIP,filter.filterCell(resolved));
+        verify(delegate).filterCell(unresolved);
+        verify(delegate).filterCell(resolved);
+
+        filter.nextRow();
+        verify(delegate).nextRow();
+        filter.filterCell(commitTimestamp(3l,4l));
+        Assert.assertEquals(DataFilter.ReturnCode.INCLUDE,filter.filterCell(cell(CellType.USER_DATA,3l)));
+    }
+
+    @Test
+    public void handsVersionsOutsideSummaryToFullFilter() throws Exception{
+        filter.filterCell(commitTimestamp(11l,12l));
+        DataCell newerTxn=cell(CellType.USER_DATA,11l);
+        Assert.assertEquals(DataFilter.ReturnCode.SKIP,filter.filterCell(newerTxn));
+        verify(delegate).filterCell(newerTxn);
+
+        filter.nextRow();
+        filter.filterCell(commitTimestamp(5l,21l));
+        DataCell newerCommit=cell(CellType.USER_DATA,5l);
+        Assert.assertEquals(DataFilter.ReturnCode.SKIP,filter.filterCell(newerCommit));
+        verify(delegate).filterCell(newerCommit);
+    }
+
+    @Test
+    public void handsTombstonesToFullFilter() throws Exception{
+        filter.filterCell(commitTimestamp(3l,4l));
+        DataCell tombstone=cell(CellType.TOMBSTONE,3l);
+        filter.filterCell(tombstone);
+        verify(delegate).filterCell(tombstone);
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private static DataCell commitTimestamp(long version,long commitTimestamp){
+        DataCell cell=cell(CellType.COMMIT_TIMESTAMP,version);
+        when(cell.valueLength()).thenReturn(8);
+        when(cell.valueAsLong()).thenReturn(commitTimestamp);
+        return cell;
+    }
+
+    private static DataCell cell(CellType type,long version){
+        DataCell cell=mock(DataCell.class);
+        when(cell.dataType()).thenReturn(type);
+        when(cell.version()).thenReturn(version);
+        return cell;
+    }
+}
@@ -48,6 +48,8 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
 
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyLong;
@@ -132,6 +134,26 @@ public class SimpleTxnFilterTest{
     }
 
 
+    @Test
+    public void onlyRowsWithUncachedWritersNeedLookups() throws Exception{
+        TxnView myTxn=new InheritingTxnView(Txn.ROOT_TRANSACTION,1000l,1000l,Txn.IsolationLevel.SNAPSHOT_ISOLATION,Txn.State.ACTIVE);
+        SimpleTxnFilter filter=new SimpleTxnFilter(null,myTxn,NoOpReadResolver.INSTANCE,txnStore);
+
+        Txn active=txnLifecycleManager.beginTransaction(Bytes.toBytes("hello"));
+        DataCell userCell=getUserCell(active);
+        Assert.assertTrue("Writer has not been looked up yet",filter.needsLookup(Collections.singletonList(userCell)));
+
+        DataPut commitPut=operationFactory.newDataPut(active,Encoding.encode("1"));
+        commitPut.addCell(SIConstants.DEFAULT_FAMILY_BYTES,SIConstants.SNAPSHOT_ISOLATION_COMMIT_TIMESTAMP_COLUMN_BYTES,
+                active.getBeginTimestamp(),Bytes.toBytes(active.getBeginTimestamp()+1));
+        DataCell commitCell=commitPut.cells().iterator().next();
+        Assert.assertFalse("Version is resolved by its commit timestamp",filter.needsLookup(Arrays.asList(commitCell,userCell)));
+
+        filter.filterCell(userCell);
+        filter.nextRow();
+        Assert.assertFalse("Writer is cached",filter.needsLookup(Collections.singletonList(userCell)));
+    }
+
 	/*Tests that Read-Resolution doesn't happen with active transactions*/
 
     @Test
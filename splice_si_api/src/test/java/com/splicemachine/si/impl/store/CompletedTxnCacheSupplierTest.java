@@ -26,6 +26,8 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static com.splicemachine.si.impl.TxnTestUtils.assertTxnsMatch;
@@ -160,4 +162,51 @@ public class CompletedTxnCacheSupplierTest{
         TxnView fromCache=store.getTransaction(txn.getTxnId());
         assertTxnsMatch("Transaction from store is not correct!",txn,fromCache);
     }
+
+    @Test
+    public void testBatchLookupOnlyFetchesUncachedTransactions() throws Exception{
+        final AtomicLong al=new AtomicLong(0l);
+        TxnLifecycleManager tc=mock(TxnLifecycleManager.class);
+        when(tc.commit(anyLong())).thenAnswer(new Answer<Long>(){
+
+            @Override
+            public Long answer(InvocationOnMock invocationOnMock) throws Throwable{
+                return al.incrementAndGet();
+            }
+        });
+        Txn committed=new WritableTxn(1,1,Txn.IsolationLevel.SNAPSHOT_ISOLATION,Txn.ROOT_TRANSACTION,tc,false,null);
+        committed.commit();
+        Txn rolledBack=new WritableTxn(2,2,Txn.IsolationLevel.SNAPSHOT_ISOLATION,Txn.ROOT_TRANSACTION,tc,false,null);
+        rolledBack.rollback();
+        Txn active=new WritableTxn(3,3,Txn.IsolationLevel.SNAPSHOT_ISOLATION,Txn.ROOT_TRANSACTION,tc,false,null);
+
+        final List<long[]> requests=new ArrayList<>();
+        TxnStore backStore=new TestingTxnStore(new IncrementingClock(),new TestingTimestampSource(),null,Long.MAX_VALUE){
+            @Override
+            public TxnView[] getTransactions(long[] txnIds) throws IOException{
+                requests.add(txnIds);
+                return super.getTransactions(txnIds);
+            }
+        };
+        backStore.recordNewTransaction(committed);
+        backStore.recordNewTransaction(rolledBack);
+        backStore.recordNewTransaction(active);
+
+        TxnSupplier store=new CompletedTxnCacheSupplier(backStore,10,16);
+
+        TxnView[] fromStore=store.getTransactions(new long[]{3,1,4,2});
+        Assert.assertEquals("Incorrect number of store requests!",1,requests.size());
+        Assert.assertArrayEquals("Incorrect transactions requested!",new long[]{3,1,4,2},requests.get(0));
+        assertTxnsMatch("Transaction from store is not correct!",active,fromStore[0]);
+        assertTxnsMatch("Transaction from store is not correct!",committed,fromStore[1]);
+        Assert.assertNull("Found a transaction which does not exist!",fromStore[2]);
+        assertTxnsMatch("Transaction from store is not correct!",rolledBack,fromStore[3]);
+
+        TxnView[] fromCache=store.getTransactions(new long[]{2,3,1});
+        Assert.assertEquals("Incorrect number of store requests!",2,requests.size());
+        Assert.assertArrayEquals("Completed transactions should have been fed from cache!",new long[]{3},requests.get(1));
+        assertTxnsMatch("Transaction from cache is not correct!",rolledBack,fromCache[0]);
+        assertTxnsMatch("Transaction from store is not correct!",active,fromCache[1]);
+        assertTxnsMatch("Transaction from cache is not correct!",committed,fromCache[2]);
+    }
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.si.impl.store;
+
+import com.splicemachine.si.api.txn.Txn;
+import com.splicemachine.si.api.txn.TxnSupplier;
+import com.splicemachine.si.api.txn.TxnView;
+import com.splicemachine.si.impl.txn.CommittedTxn;
+import com.splicemachine.si.impl.txn.InheritingTxnView;
+import com.splicemachine.si.impl.txn.RolledBackTxn;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static com.splicemachine.si.impl.TxnTestUtils.assertTxnsMatch;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Category(ArchitectureIndependent.class)
+public class CompletedTxnCacheTest{
+
+    @Test
+    public void testCachedTransactionsMatch() throws Exception{
+        CompletedTxnCache cache=new CompletedTxnCache(16,4);
+        TxnSupplier parents=mock(TxnSupplier.class);
+        TxnView committed=new CommittedTxn(1,3);
+        TxnView rolledBack=new RolledBackTxn(2);
+        cache.put(committed);
+        cache.put(rolledBack);
+
+        Assert.assertTrue("Cache does not think it is present!",cache.contains(1));
+        Assert.assertTrue("Cache does not think it is present!",cache.contains(2));
+        Assert.assertFalse("Cache thinks it has a transaction it was never given!",cache.contains(4));
+        Assert.assertNull("Found a transaction which was never cached!",cache.get(4,parents));
+
+        TxnView fromCache=cache.get(1,parents);
+        assertTxnsMatch("Committed transaction from cache is not correct!",committed,fromCache);
+        Assert.assertEquals("Incorrect effective state!",Txn.State.COMMITTED,fromCache.getEffectiveState());
+        Assert.assertEquals("Incorrect effective commit timestamp!",3,fromCache.getEffectiveCommitTimestamp());
+
+        fromCache=cache.get(2,parents);
+        assertTxnsMatch("Rolled back transaction from cache is not correct!",rolledBack,fromCache);
+        Assert.assertEquals("Incorrect effective state!",Txn.State.ROLLEDBACK,fromCache.getEffectiveState());
+    }
+
+    @Test
+    public void testChildTransactionsLookUpTheirParent() throws Exception{
+        CompletedTxnCache cache=new CompletedTxnCache(16,4);
+        TxnView parent=new CommittedTxn(1,5);
+        TxnView child=new InheritingTxnView(parent,2,2,null,
+                false,false,
+                true,true,
+                3,-1l,Txn.State.COMMITTED);
+        TxnSupplier parents=mock(TxnSupplier.class);
+        when(parents.getTransaction(1)).thenReturn(parent);
+        cache.put(child);
+
+        TxnView fromCache=cache.get(2,parents);
+        assertTxnsMatch("Child transaction from cache is not correct!",child,fromCache);
+        Assert.assertEquals("Incorrect isolation level!",parent.getIsolationLevel(),fromCache.getIsolationLevel());
+        Assert.assertEquals("Incorrect effective commit timestamp!",5,fromCache.getEffectiveCommitTimestamp());
+    }
+
+    @Test
+    public void testDoesNotGrowPastCapacity() throws Exception{
+        CompletedTxnCache cache=new CompletedTxnCache(64,4);
+        TxnSupplier parents=mock(TxnSupplier.class);
+        int capacity=cache.capacity();
+        Assert.assertTrue("Capacity is smaller than requested!",capacity>=64);
+        for(int i=1;i<=4*capacity;i++){
+            cache.put(new CommittedTxn(i,i+1));
+            Assert.assertTrue("Cache does not think it is present!",cache.contains(i));
+        }
+        Assert.assertTrue("Cache grew past its capacity!",cache.size()<=capacity);
+        Assert.assertEquals("Incorrect number of evictions!",4*capacity-cache.size(),cache.evictionCount());
+
+        //the most recently added transaction always survives
+        TxnView last=cache.get(4*capacity,parents);
+        Assert.assertNotNull("Most recent transaction was evicted!",last);
+        Assert.assertEquals("Incorrect commit timestamp!",4*capacity+1,last.getCommitTimestamp());
+    }
+
+    @Test
+    public void testRecachingDoesNotEvict() throws Exception{
+        CompletedTxnCache cache=new CompletedTxnCache(16,1);
+        for(int i=0;i<10;i++){
+            cache.put(new CommittedTxn(1,2));
+        }
+        Assert.assertEquals("Incorrect size!",1,cache.size());
+        Assert.assertEquals("Should not have evicted anything!",0,cache.evictionCount());
+    }
+}
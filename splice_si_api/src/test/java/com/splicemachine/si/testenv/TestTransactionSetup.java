@@ -87,7 +87,8 @@ public class TestTransactionSetup {
                 txnOperationFactory,
                 testEnv.getBaseOperationFactory(),
                 testEnv.getOperationStatusFactory(),
-                testEnv.getExceptionFactory());
+                testEnv.getExceptionFactory(),
+                2); //single rows are read directly, batches with a range scan
 
         if (!simple) {
             listener.setTransactor(transactor);
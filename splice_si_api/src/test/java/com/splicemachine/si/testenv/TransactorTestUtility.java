@@ -67,6 +67,28 @@ public class TransactorTestUtility {
         return readAgeDirect(transactorSetup,testEnv, txn, name);
     }
 
+    /**
+     * Read several rows with a single {@link Partition#batchGet}, in the order of {@code names}.
+     */
+    public List<String> batchRead(Txn txn, String... names) throws IOException {
+        List<byte[]> keys = new ArrayList<>(names.length);
+        for (String name : names) {
+            keys.add(newRowKey(name));
+        }
+        DataGet get = transactorSetup.txnOperationFactory.newDataGet(txn, keys.get(0),null);
+        addPredicateFilter(get);
+        List<String> rows = new ArrayList<>(names.length);
+        try (Partition p = transactorSetup.getPersonTable(testEnv)){
+            Iterator<DataResult> results = p.batchGet(get,keys);
+            for (String name : names) {
+                Assert.assertTrue("Missing result for "+name,results.hasNext());
+                rows.add(readRawTuple(name,results.next(), true, false));
+            }
+            Assert.assertFalse("Too many results",results.hasNext());
+        }
+        return rows;
+    }
+
     private static void insertAgeDirect(TestTransactionSetup transactorSetup,SITestEnv testEnv,
                                         Txn txn,String name,Integer age) throws IOException {
         insertField(transactorSetup,testEnv, txn, name, transactorSetup.agePosition, age);
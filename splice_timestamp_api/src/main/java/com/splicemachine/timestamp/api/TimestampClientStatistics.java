@@ -30,5 +30,21 @@ public interface TimestampClientStatistics{
 	long getNumberTimestampRequests();
 	
  	double getAvgTimestampRequestDuration();
+
+	/**
+	 * @return the number of requests sent to the timestamp server. Each request
+	 * asks for a batch of one or more timestamps.
+	 */
+	long getNumberTimestampBatches();
+
+	double getAvgTimestampBatchSize();
+
+	int getMaxTimestampBatchSize();
+
+	/**
+	 * @return the distribution of batch sizes, where element {@code i} is the number of
+	 * batches with between {@code 2^i} and {@code 2^(i+1)-1} timestamps.
+	 */
+	long[] getTimestampBatchSizeDistribution();
 	
 }
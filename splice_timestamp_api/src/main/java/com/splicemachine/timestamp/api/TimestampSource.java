@@ -20,6 +20,15 @@ package com.splicemachine.timestamp.api;
  */
 public interface TimestampSource {
     long nextTimestamp();
+
+    /**
+     * Generate several timestamps at once. Implementations should do so more cheaply than by calling
+     * {@link #nextTimestamp()} repeatedly (e.g. with a single network call).
+     *
+     * @param count the number of timestamps to generate
+     * @return {@code count} new timestamps, in ascending order
+     */
+    long[] nextTimestamps(int count);
     void rememberTimestamp(long timestamp);
     long retrieveTimestamp();
     void shutdown();
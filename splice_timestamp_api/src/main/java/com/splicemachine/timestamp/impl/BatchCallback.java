@@ -0,0 +1,61 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.timestamp.impl;
+
+import com.splicemachine.timestamp.api.Callback;
+
+import java.util.List;
+
+/**
+ * Callback for a single request to the {@link TimestampServer} made on behalf of several
+ * callers. The server responds with the first timestamp of a contiguous range which is as
+ * long as the batch, and each caller receives its own timestamp from that range.
+ */
+class BatchCallback implements Callback {
+
+    private final short callerId;
+    private final List<ClientCallback> callers;
+
+    BatchCallback(short callerId, List<ClientCallback> callers) {
+        this.callerId = callerId;
+        this.callers = callers;
+        for (ClientCallback caller : callers) {
+            caller.assignCallerId(callerId);
+        }
+    }
+
+    int size() {
+        return callers.size();
+    }
+
+    @Override
+    public void error(Exception e) {
+        for (ClientCallback caller : callers) {
+            caller.error(e);
+        }
+    }
+
+    @Override
+    public void complete(long firstTimestamp) {
+        for (int i = 0; i < callers.size(); i++) {
+            callers.get(i).complete(firstTimestamp + i);
+        }
+    }
+
+    public String toString() {
+        return "BatchCallback (callerId = " + callerId + ", size = " + callers.size() + ")";
+    }
+}
@@ -22,11 +22,17 @@ import java.util.concurrent.TimeUnit;
 
 public class ClientCallback implements Callback {
 
-    private final short _callerId;
+    private static final short UNASSIGNED = -1;
+
+    private volatile short _callerId;
     private volatile long _newTimestamp = -1l;
-    private Exception _e = null;
+    private volatile Exception _e = null;
     private CountDownLatch _latch = new CountDownLatch(1);
-    		
+
+    public ClientCallback() {
+        this(UNASSIGNED);
+    }
+
     public ClientCallback(short callerId) {
     	_callerId = callerId;
     }
@@ -34,6 +40,17 @@ public class ClientCallback implements Callback {
     public short getCallerId() {
     	return _callerId;
     }
+
+    /**
+     * @return true once this caller has been included in a request to the server.
+     */
+    public boolean isAssigned() {
+        return _callerId != UNASSIGNED;
+    }
+
+    void assignCallerId(short callerId) {
+        _callerId = callerId;
+    }
     
     public Exception getException() {
        return _e;
@@ -17,9 +17,13 @@ package com.splicemachine.timestamp.impl;
 
 import java.lang.management.ManagementFactory;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
@@ -53,6 +57,17 @@ import org.apache.log4j.Logger;
  * For the caller, the invocation of {@link #getNextTimestamp()}
  * is synchronous.
  * <p>
+ * Only a small number of requests to the server are outstanding at any one time.
+ * Callers which arrive while those requests are in flight are queued, and are then
+ * sent together as a single request for a contiguous batch of timestamps. This way
+ * timestamp throughput grows with the number of concurrent callers, rather than
+ * being bound by the round trip time to the server.
+ * <p>
+ * Each connection starts with a hello which tells us whether the server takes batched
+ * requests (see {@link TimestampServer#HELLO_CLIENT_ID}). Until it is answered, callers
+ * are only queued. If the server predates batching, every caller is sent as a request
+ * of its own instead, as older clients did.
+ * <p>
  * This class should generally not be constructed directly.
  *
  * @author Walt Koetke
@@ -64,6 +79,13 @@ public class TimestampClient extends TimestampBaseHandler implements TimestampCl
 
     private static final short CLIENT_COUNTER_INIT = 100; // actual value doesn't matter
 
+    /**
+     * The number of batch requests which may be awaiting a response from the server at once.
+     */
+    private static final int MAX_OUTSTANDING_BATCHES = 2;
+
+    private static final int DEFAULT_MAX_BATCH_SIZE = 1024;
+
     /**
      * Fixed number of bytes in the message we expect to receive back from the server.
      */
@@ -73,13 +95,27 @@ public class TimestampClient extends TimestampBaseHandler implements TimestampCl
         DISCONNECTED, CONNECTING, CONNECTED, SHUTDOWN
     }
 
+    private enum Protocol {
+        UNKNOWN, // the server has not answered our hello yet
+        LEGACY, // one timestamp per request
+        BATCHED
+    }
+
     /**
      * A map representing all currently active callers to this TimestampClient
      * waiting for their response.
      */
     private ConcurrentMap<Short, Callback> clientCallbacks = null;
 
+    /**
+     * Callers which are waiting to be included in the next batch request.
+     */
+    private final ConcurrentLinkedQueue<ClientCallback> pendingCallers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger outstandingBatches = new AtomicInteger(0);
+    private final int maxBatchSize;
+
     private final AtomicReference<State> state = new AtomicReference<>(State.DISCONNECTED);
+    private volatile Protocol protocol = Protocol.UNKNOWN;
 
     private ClientBootstrap bootstrap;
     private volatile Channel channel;
@@ -102,12 +138,22 @@ public class TimestampClient extends TimestampBaseHandler implements TimestampCl
     // for solid definitions of each metric.
     private AtomicLong numRequests = new AtomicLong(0);
     private AtomicLong totalRequestDuration = new AtomicLong(0);
+    private AtomicLong numBatches = new AtomicLong(0);
+    private AtomicLong numBatchedTimestamps = new AtomicLong(0);
+    private AtomicInteger maxBatchSizeSeen = new AtomicInteger(0);
+    private AtomicLongArray batchSizeDistribution = new AtomicLongArray(Short.SIZE);
     private TimestampHostProvider timestampHostProvider;
 
 
     public TimestampClient(int timeoutMillis,TimestampHostProvider timestampHostProvider) {
+        this(timeoutMillis,timestampHostProvider,DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    public TimestampClient(int timeoutMillis,TimestampHostProvider timestampHostProvider,int maxBatchSize) {
         this.timeoutMillis = timeoutMillis;
         this.timestampHostProvider = timestampHostProvider;
+        // the batch size is sent to the server as a short
+        this.maxBatchSize = Math.max(1,Math.min(maxBatchSize,Short.MAX_VALUE));
         clientCallbacks = new ConcurrentHashMap<>();
 
         ExecutorService workerExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("timestampClient-worker-%d").setDaemon(true).build());
@@ -215,51 +261,72 @@ public class TimestampClient extends TimestampBaseHandler implements TimestampCl
 
         connectIfNeeded();
 
-        short clientCallId = (short) clientCallCounter.getAndIncrement();
-        final ClientCallback callback = new ClientCallback(clientCallId);
-        SpliceLogUtils.debug(LOG, "Starting new client call with id %s", clientCallId);
+        final ClientCallback callback = new ClientCallback();
+        pendingCallers.add(callback);
+        sendPendingBatches();
+
+        // We might not have received the response for our batch yet, so we need to
+        // wait for that now.
+        long timestamp = awaitTimestamp(callback);
+
+        // Since request was successful, update JMX metrics
+        numRequests.incrementAndGet();
+        totalRequestDuration.addAndGet(System.currentTimeMillis() - requestStartTime);
+
+        return timestamp;
+    }
+
+    /**
+     * Fetch several timestamps at once. The callers are queued together, so unless the request is larger than
+     * the maximum batch size, they are all served by a single round trip to the server.
+     *
+     * @return {@code count} new timestamps, in ascending order
+     */
+    public long[] getNextTimestamps(int count) throws TimestampIOException {
+        long requestStartTime = System.currentTimeMillis();
 
-        // Add this caller (id and callback) to the map of current clients.
-        // If an entry was already present for this caller id, that is a bug,
-        // so throw an exception.
-        if (clientCallbacks.putIfAbsent(clientCallId, callback) != null) {
-            doClientErrorThrow(LOG, "Found existing client callback with caller id %s, so unable to handle new call.", null, clientCallId);
+        connectIfNeeded();
+
+        ClientCallback[] callbacks = new ClientCallback[count];
+        for (int i = 0; i < count; i++) {
+            callbacks[i] = new ClientCallback();
         }
+        pendingCallers.addAll(Arrays.asList(callbacks));
+        sendPendingBatches();
 
-        try {
-            ChannelBuffer buffer = ChannelBuffers.buffer(2);
-            buffer.writeShort(clientCallId);
-            SpliceLogUtils.trace(LOG, "Writing request message to server for client: %s", callback);
-            ChannelFuture futureWrite = channel.write(buffer);
-            futureWrite.addListener(new ChannelFutureListener() {
-                @Override
-                public void operationComplete(ChannelFuture future) throws Exception {
-                    if (!future.isSuccess()) {
-                        doClientErrorThrow(LOG, "Error writing message from timestamp client to server", future.getCause());
-                    } else {
-                        SpliceLogUtils.trace(LOG, "Request sent. Waiting for response for client: %s", callback);
-                    }
-                }
-            });
-        } catch (Exception e) { // Correct to catch all Exceptions in this case so we can remove client call
-            clientCallbacks.remove(clientCallId);
-            callback.error(e);
-            doClientErrorThrow(LOG, "Exception writing message to timestamp server for client: %s", e, callback);
+        long[] timestamps = new long[count];
+        for (int i = 0; i < count; i++) {
+            timestamps[i] = awaitTimestamp(callbacks[i]);
         }
+        Arrays.sort(timestamps); // in case the callers were split across batches
 
-        // If we get here, request was successfully sent without exception.
-        // However, we might not have received response yet, so we need to
-        // wait for that now.
+        numRequests.incrementAndGet();
+        totalRequestDuration.addAndGet(System.currentTimeMillis() - requestStartTime);
+        return timestamps;
+    }
 
+    private long awaitTimestamp(ClientCallback callback) throws TimestampIOException {
         try {
             boolean success = callback.await(timeoutMillis);
             if (!success) {
+                if (callback.isAssigned()) {
+                    // Fail the rest of our batch as well, so that the request no longer counts against
+                    // the outstanding limit
+                    failBatch(callback.getCallerId(), new TimestampIOException("Timed out waiting for timestamp batch"));
+                } else {
+                    pendingCallers.remove(callback);
+                }
                 doClientErrorThrow(LOG, "Client timed out after %s ms waiting for new timestamp: %s", null, timeoutMillis, callback);
             }
         } catch (InterruptedException e) {
+            pendingCallers.remove(callback);
             doClientErrorThrow(LOG, "Interrupted waiting for timestamp client: %s", e, callback);
         }
 
+        if (callback.getException() != null) {
+            doClientErrorThrow(LOG, "Unable to fetch timestamp for client: %s", callback.getException(), callback);
+        }
+
         // If we get here, it should mean the client received the response with the timestamp,
         // which we can fetch now from the callback and send it back to the caller.
 
@@ -269,12 +336,116 @@ public class TimestampClient extends TimestampBaseHandler implements TimestampCl
         }
 
         SpliceLogUtils.debug(LOG, "Client call complete: %s", callback);
+        return timestamp;
+    }
 
-        // Since request was successful, update JMX metrics
-        numRequests.incrementAndGet();
-        totalRequestDuration.addAndGet(System.currentTimeMillis() - requestStartTime);
+    /**
+     * Send the pending callers to the server, in batches of at most {@link #maxBatchSize}, for as long
+     * as there is room for another outstanding request. Whenever a response arrives, this is called again
+     * so that any callers which queued up in the meantime are sent as the next batch.
+     */
+    private void sendPendingBatches() {
+        Protocol protocol = this.protocol;
+        if (protocol == Protocol.UNKNOWN) return; // the answer to our hello will send them
+        boolean batched = protocol == Protocol.BATCHED;
+        int maxOutstanding = batched ? MAX_OUTSTANDING_BATCHES : Integer.MAX_VALUE;
+        int batchSize = batched ? maxBatchSize : 1;
+        while (!pendingCallers.isEmpty()) {
+            int outstanding = outstandingBatches.get();
+            if (outstanding >= maxOutstanding) return; // the next response will send them
+            if (!outstandingBatches.compareAndSet(outstanding, outstanding + 1)) continue;
+
+            List<ClientCallback> batch = new ArrayList<>();
+            ClientCallback next;
+            while (batch.size() < batchSize && (next = pendingCallers.poll()) != null) {
+                batch.add(next);
+            }
+            if (batch.isEmpty()) {
+                outstandingBatches.decrementAndGet();
+                continue;
+            }
+            sendBatch(batch, batched);
+        }
+    }
 
-        return timestamp;
+    private void sendHello(Channel channel) {
+        ChannelBuffer buffer = ChannelBuffers.buffer(TimestampServer.FIXED_MSG_RECEIVED_LENGTH);
+        buffer.writeShort(TimestampServer.HELLO_CLIENT_ID);
+        buffer.writeShort(TimestampServer.BATCHING_VERSION);
+        SpliceLogUtils.debug(LOG, "Sending batching hello to server");
+        channel.write(buffer).addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) throws Exception {
+                if (!future.isSuccess()) {
+                    // queued callers will time out
+                    LOG.error("Error writing hello from timestamp client to server", future.getCause());
+                }
+            }
+        });
+    }
+
+    private void sendBatch(List<ClientCallback> callers, boolean batched) {
+        final short clientCallId = nextCallId();
+        final BatchCallback batch = new BatchCallback(clientCallId, callers);
+        SpliceLogUtils.debug(LOG, "Starting new client call with id %s", clientCallId);
+
+        // Add this batch (id and callback) to the map of current requests.
+        // If an entry was already present for this caller id, that is a bug.
+        if (clientCallbacks.putIfAbsent(clientCallId, batch) != null) {
+            outstandingBatches.decrementAndGet();
+            batch.error(new TimestampIOException("Found existing client callback with caller id " + clientCallId + ", so unable to handle new call."));
+            return;
+        }
+        recordBatch(batch.size());
+
+        try {
+            ChannelBuffer buffer = ChannelBuffers.buffer(batched ? TimestampServer.FIXED_MSG_RECEIVED_LENGTH : TimestampServer.LEGACY_MSG_RECEIVED_LENGTH);
+            buffer.writeShort(clientCallId);
+            if (batched)
+                buffer.writeShort(batch.size());
+            SpliceLogUtils.trace(LOG, "Writing request message to server for client: %s", batch);
+            ChannelFuture futureWrite = channel.write(buffer);
+            futureWrite.addListener(new ChannelFutureListener() {
+                @Override
+                public void operationComplete(ChannelFuture future) throws Exception {
+                    if (!future.isSuccess()) {
+                        failBatch(clientCallId, new TimestampIOException("Error writing message from timestamp client to server", future.getCause()));
+                    } else {
+                        SpliceLogUtils.trace(LOG, "Request sent. Waiting for response for client: %s", batch);
+                    }
+                }
+            });
+        } catch (Exception e) { // Correct to catch all Exceptions in this case so we can remove client call
+            LOG.error("Exception writing message to timestamp server for client: " + batch, e);
+            failBatch(clientCallId, e);
+        }
+    }
+
+    private void failBatch(short clientCallId, Exception e) {
+        Callback cb = clientCallbacks.remove(clientCallId);
+        if (cb == null) return; // already completed (or failed)
+        outstandingBatches.decrementAndGet();
+        cb.error(e);
+        sendPendingBatches();
+    }
+
+    private short nextCallId() {
+        short id;
+        do {
+            id = (short) clientCallCounter.getAndIncrement();
+        } while (id == -1 // reserved for callers which have not been sent yet
+                || id == TimestampServer.HELLO_CLIENT_ID || id == TimestampServer.BATCHING_VERSION);
+        return id;
+    }
+
+    private void recordBatch(int size) {
+        numBatches.incrementAndGet();
+        numBatchedTimestamps.addAndGet(size);
+        batchSizeDistribution.incrementAndGet(31 - Integer.numberOfLeadingZeros(size));
+        int max;
+        while (size > (max = maxBatchSizeSeen.get())) {
+            if (maxBatchSizeSeen.compareAndSet(max, size)) break;
+        }
     }
 
     @Override
@@ -287,20 +458,38 @@ public class TimestampClient extends TimestampBaseHandler implements TimestampCl
         ensureReadableBytes(buf, 8);
 
         long timestamp = buf.readLong();
-        assert (timestamp > 0);
         ensureReadableBytes(buf, 0);
 
         SpliceLogUtils.debug(LOG, "Response from server: clientCallerId = %s, timestamp = %s", clientCallerId, timestamp);
-        Callback cb = clientCallbacks.remove(clientCallerId);
-        if (cb == null) {
-            doClientErrorThrow(LOG, "Client callback with id %s not found, so unable to deliver timestamp %s", null, clientCallerId, timestamp);
+        if (clientCallerId == TimestampServer.HELLO_CLIENT_ID) {
+            // The answer to our hello: 0 from a server which takes batches, a real timestamp from an older one
+            if (timestamp == 0) {
+                protocol = Protocol.BATCHED;
+            } else {
+                LOG.warn("TimestampServer does not support batched requests, requesting one timestamp at a time");
+                protocol = Protocol.LEGACY;
+            }
+            sendPendingBatches();
+        } else if (clientCallerId == TimestampServer.BATCHING_VERSION) {
+            // An older server's answer to the second half of our hello, which nobody is waiting for
+            SpliceLogUtils.debug(LOG, "Ignoring timestamp %s for the second half of the hello", timestamp);
+        } else {
+            assert (timestamp > 0);
+            Callback cb = clientCallbacks.remove(clientCallerId);
+            if (cb == null) {
+                // the batch has already been failed, most likely because one of its callers timed out
+                LOG.warn(String.format("Client callback with id %s not found, so unable to deliver timestamp %s", clientCallerId, timestamp));
+            } else {
+                outstandingBatches.decrementAndGet();
+
+                // This releases the latches the original client threads are waiting for
+                // (to provide the synchronous behavior for those callers) and also
+                // provides each of them with its timestamp.
+                cb.complete(timestamp);
+                sendPendingBatches();
+            }
         }
 
-        // This releases the latch the original client thread is waiting for
-        // (to provide the synchronous behavior for that caller) and also
-        // provides the timestamp.
-        cb.complete(timestamp);
-
         super.messageReceived(ctx, e);
     }
 
@@ -309,6 +498,7 @@ public class TimestampClient extends TimestampBaseHandler implements TimestampCl
         SpliceLogUtils.info(LOG, "Successfully connected to server");
         channel = e.getChannel();
         state.set(State.CONNECTED);
+        sendHello(channel);
         super.channelConnected(ctx, e);
     }
 
@@ -322,6 +512,12 @@ public class TimestampClient extends TimestampBaseHandler implements TimestampCl
             channel=null;
             shouldContinue = !state.compareAndSet(s,State.DISCONNECTED);
         }while(shouldContinue);
+        // the next server may be a different version, so wait for it to answer a new hello
+        protocol = Protocol.UNKNOWN;
+        // responses to requests which were in flight will never arrive
+        for(Short clientCallId:clientCallbacks.keySet()){
+            failBatch(clientCallId,new TimestampIOException("TimestampClient was disconnected from the server"));
+        }
         connectIfNeeded();
     }
 
@@ -353,6 +549,32 @@ public class TimestampClient extends TimestampBaseHandler implements TimestampCl
         return a / b;
     }
 
+    @Override
+    public long getNumberTimestampBatches() {
+        return numBatches.get();
+    }
+
+    @Override
+    public double getAvgTimestampBatchSize() {
+        double a = (double) numBatchedTimestamps.get();
+        double b = (double) numBatches.get();
+        return a / b;
+    }
+
+    @Override
+    public int getMaxTimestampBatchSize() {
+        return maxBatchSizeSeen.get();
+    }
+
+    @Override
+    public long[] getTimestampBatchSizeDistribution() {
+        long[] distribution = new long[batchSizeDistribution.length()];
+        for (int i = 0; i < distribution.length; i++) {
+            distribution[i] = batchSizeDistribution.get(i);
+        }
+        return distribution;
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, ExceptionEvent e) throws Exception {
         if(state.get() != State.SHUTDOWN) {
@@ -64,7 +64,7 @@ public class TimestampOracle implements TimestampOracleStatistics{
 		return to;
 	}
 	
-	private TimestampOracle(TimestampBlockManager timestampBlockManager, int blockSize) throws TimestampIOException {
+	TimestampOracle(TimestampBlockManager timestampBlockManager, int blockSize) throws TimestampIOException {
         this.timestampBlockManager=timestampBlockManager;
         this.blockSize = blockSize;
 		initialize();
@@ -88,19 +88,34 @@ public class TimestampOracle implements TimestampOracleStatistics{
     }
 
 	public long getNextTimestamp() throws TimestampIOException {
-		long nextTS = _timestampCounter.getAndIncrement();
-		long maxTS = _maxReservedTimestamp; // avoid the double volatile read
-		if (nextTS > maxTS) {
-			reserveNextBlock(maxTS);
+		return getNextTimestamps(1);
+	}
+
+	/**
+	 * Hand out a contiguous range of timestamps.
+	 *
+	 * @param count the number of timestamps in the range
+	 * @return the first timestamp of the range. The caller owns all timestamps from this one up to
+	 * (but not including) {@code first + count}.
+	 */
+	public long getNextTimestamps(int count) throws TimestampIOException {
+		assert count > 0 : "Must request at least one timestamp";
+		long nextTS = _timestampCounter.getAndAdd(count);
+		long lastTS = nextTS + count - 1;
+		if (lastTS > _maxReservedTimestamp) {
+			reserveThrough(lastTS);
 		}
-		_numTimestampsCreated.incrementAndGet(); // JMX metric
+		_numTimestampsCreated.addAndGet(count); // JMX metric
 		return nextTS;
 	}
 
-    private void reserveNextBlock(long priorMaxReservedTimestamp) throws TimestampIOException {
+    private void reserveThrough(long timestamp) throws TimestampIOException {
         synchronized(this)  {
-            if (_maxReservedTimestamp > priorMaxReservedTimestamp) return; // some other thread got there first
+            if (_maxReservedTimestamp >= timestamp) return; // some other thread got there first
             long nextMax = _maxReservedTimestamp + blockSize;
+            while (nextMax < timestamp) {
+                nextMax += blockSize; // a single range may span more than one block
+            }
             timestampBlockManager.reserveNextBlock(nextMax);
             _maxReservedTimestamp = nextMax;
             _numBlocksReserved.incrementAndGet(); // JMX metric
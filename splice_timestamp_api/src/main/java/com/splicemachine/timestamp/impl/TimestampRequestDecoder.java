@@ -0,0 +1,71 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.timestamp.impl;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.handler.codec.frame.FrameDecoder;
+
+/**
+ * Splits the stream of requests from one client connection into messages of
+ * {@link TimestampServer#FIXED_MSG_RECEIVED_LENGTH} bytes.
+ * <p>
+ * Connections which open with the batching hello (see {@link TimestampServer#HELLO_CLIENT_ID}) carry
+ * batched requests. The hello itself is passed on as a request for 0 timestamps. On any other
+ * connection, each 2 byte client id is passed on as a request for a single timestamp, so the handler
+ * only ever sees the batched format.
+ * <p>
+ * Not sharable: a new decoder must be created for each connection.
+ */
+class TimestampRequestDecoder extends FrameDecoder {
+
+    private boolean helloChecked = false;
+    private boolean batching = false;
+
+    @Override
+    protected Object decode(ChannelHandlerContext ctx, Channel channel, ChannelBuffer buffer) throws Exception {
+        if (!helloChecked) {
+            if (buffer.readableBytes() < TimestampServer.LEGACY_MSG_RECEIVED_LENGTH) return null;
+            if (buffer.getShort(buffer.readerIndex()) == TimestampServer.HELLO_CLIENT_ID) {
+                // this may be the hello, or an older client's request which happens to use the same id, in
+                // which case it is answered once that client sends its next request
+                if (buffer.readableBytes() < TimestampServer.FIXED_MSG_RECEIVED_LENGTH) return null;
+                batching = buffer.getShort(buffer.readerIndex() + TimestampServer.LEGACY_MSG_RECEIVED_LENGTH) == TimestampServer.BATCHING_VERSION;
+            }
+            helloChecked = true;
+            if (batching) {
+                buffer.skipBytes(TimestampServer.FIXED_MSG_RECEIVED_LENGTH);
+                return request(TimestampServer.HELLO_CLIENT_ID, (short) 0);
+            }
+        }
+
+        if (batching) {
+            if (buffer.readableBytes() < TimestampServer.FIXED_MSG_RECEIVED_LENGTH) return null;
+            return buffer.readBytes(TimestampServer.FIXED_MSG_RECEIVED_LENGTH);
+        }
+        if (buffer.readableBytes() < TimestampServer.LEGACY_MSG_RECEIVED_LENGTH) return null;
+        return request(buffer.readShort(), (short) 1);
+    }
+
+    private static ChannelBuffer request(short clientId, short count) {
+        ChannelBuffer request = ChannelBuffers.buffer(TimestampServer.FIXED_MSG_RECEIVED_LENGTH);
+        request.writeShort(clientId);
+        request.writeShort(count);
+        return request;
+    }
+}
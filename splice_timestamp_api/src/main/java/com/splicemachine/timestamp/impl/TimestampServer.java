@@ -34,12 +34,34 @@ public class TimestampServer {
     /**
      * Fixed number of bytes in the message we expect to receive from the client.
      */
-    static final int FIXED_MSG_RECEIVED_LENGTH = 2; // 2 byte client id
+    static final int FIXED_MSG_RECEIVED_LENGTH = 4; // 2 byte client id + 2 byte number of timestamps
+
+    /**
+     * Number of bytes in a request from a client which predates batching.
+     */
+    static final int LEGACY_MSG_RECEIVED_LENGTH = 2; // 2 byte client id
+
+    /**
+     * Clients which predate batched requests send only a 2 byte client id, and expect a single timestamp
+     * in return. To tell the two formats apart, a batching client opens each connection with a hello made of
+     * two shorts: this reserved client id followed by {@link #BATCHING_VERSION}. Clients of either version
+     * can then talk to servers of either version, so servers and clients may be upgraded in any order:
+     * <ul>
+     *     <li>A server which understands the hello answers it with a timestamp of 0, and reads every
+     *     later message on the connection as a batched request. Connections which don't start with the hello
+     *     are read in the old format.</li>
+     *     <li>An older server takes the hello for two requests from an older client, and answers both with
+     *     real timestamps. The client then falls back to requesting one timestamp per message.</li>
+     * </ul>
+     * Neither value is ever used as the id of a real request.
+     */
+    static final short HELLO_CLIENT_ID = Short.MIN_VALUE;
+    static final short BATCHING_VERSION = 2;
 
     /**
      * Fixed number of bytes in the message we expect to send back to the client.
      */
-    static final int FIXED_MSG_SENT_LENGTH = 10; // 2 byte client id + 8 byte timestamp
+    static final int FIXED_MSG_SENT_LENGTH = 10; // 2 byte client id + 8 byte first timestamp of the range
 
     private int port;
     private ChannelFactory factory;
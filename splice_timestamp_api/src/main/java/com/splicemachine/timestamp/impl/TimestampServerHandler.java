@@ -60,11 +60,23 @@ public class TimestampServerHandler extends TimestampBaseHandler {
         ensureReadableBytes(buf, TimestampServer.FIXED_MSG_RECEIVED_LENGTH);
 
         final short callerId = buf.readShort();
-        ensureReadableBytes(buf, 0);
+        ensureReadableBytes(buf, 2);
 
-        SpliceLogUtils.trace(LOG, "Received timestamp request from client. Caller id = %s", callerId);
-        long nextTimestamp = oracle.getNextTimestamp();
-        assert nextTimestamp > 0;
+        short count = buf.readShort();
+        ensureReadableBytes(buf, 0);
+        long nextTimestamp;
+        if (count == 0 && callerId == TimestampServer.HELLO_CLIENT_ID) {
+            // A batching client's hello. Answer with 0 (never a real timestamp) to say we understand batches
+            SpliceLogUtils.debug(LOG, "Received batching hello from client");
+            nextTimestamp = 0l;
+        } else if (count < 1) {
+            throw new TimestampIOException("Invalid number of timestamps " + count + " requested by caller id " + callerId);
+        } else {
+            SpliceLogUtils.trace(LOG, "Received timestamp request from client. Caller id = %s, count = %s", callerId, count);
+            // The caller owns the whole range [nextTimestamp, nextTimestamp+count)
+            nextTimestamp = oracle.getNextTimestamps(count);
+            assert nextTimestamp > 0;
+        }
 
 
         //
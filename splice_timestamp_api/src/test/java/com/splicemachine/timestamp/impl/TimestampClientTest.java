@@ -0,0 +1,278 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.timestamp.impl;
+
+import com.splicemachine.timestamp.api.TimestampIOException;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelStateEvent;
+import org.jboss.netty.channel.MessageEvent;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.Arrays;
+import java.util.concurrent.*;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests the batching of the client against a fake channel, so that the test decides when (and whether)
+ * the server answers each request.
+ */
+public class TimestampClientTest{
+    private final BlockingQueue<ChannelBuffer> requests = new LinkedBlockingQueue<>();
+    private ChannelHandlerContext ctx;
+    private ChannelStateEvent connection;
+    private ExecutorService callers;
+    private TimestampClient client;
+
+    @Before
+    public void setUp() throws Exception{
+        ctx = mock(ChannelHandlerContext.class);
+        final ChannelFuture writeFuture = mock(ChannelFuture.class);
+        Channel channel = mock(Channel.class);
+        when(channel.write(any())).thenAnswer(new Answer<ChannelFuture>(){
+            @Override
+            public ChannelFuture answer(InvocationOnMock invocation) throws Throwable{
+                requests.add((ChannelBuffer)invocation.getArguments()[0]);
+                return writeFuture;
+            }
+        });
+        connection = mock(ChannelStateEvent.class);
+        when(connection.getChannel()).thenReturn(channel);
+        callers = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() throws Exception{
+        callers.shutdownNow();
+        if(client!=null)
+            client.shutdown();
+    }
+
+    @Test
+    public void queuedCallersAreSentAsOneBatchAndEachGetsItsOwnTimestamp() throws Exception{
+        connect(60000,16,true);
+
+        Future<Long> first = nextTimestamp();
+        short firstId = nextRequest(1);
+        Future<Long> second = nextTimestamp();
+        short secondId = nextRequest(1);
+
+        // both requests are in flight, so these callers have to wait for one of them to be answered
+        Future<Long> third = nextTimestamp();
+        Future<Long> fourth = nextTimestamp();
+        Future<Long> fifth = nextTimestamp();
+        Assert.assertNull("Sent more than two requests at once",requests.poll(200,TimeUnit.MILLISECONDS));
+
+        respond(firstId,100l);
+        Assert.assertEquals(100l,(long)first.get(10,TimeUnit.SECONDS));
+        short batchId = nextRequest(3);
+
+        respond(batchId,200l);
+        long[] batched = {third.get(10,TimeUnit.SECONDS),fourth.get(10,TimeUnit.SECONDS),fifth.get(10,TimeUnit.SECONDS)};
+        Arrays.sort(batched);
+        Assert.assertArrayEquals("Each caller in the batch should get its own timestamp from the range",
+                new long[]{200l,201l,202l},batched);
+
+        respond(secondId,300l);
+        Assert.assertEquals(300l,(long)second.get(10,TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void largeRequestsAreSplitIntoSeveralBatches() throws Exception{
+        connect(60000,2,true);
+
+        Future<long[]> timestamps = nextTimestamps(5);
+        short firstId = nextRequest(2);
+        short secondId = nextRequest(2);
+        Assert.assertNull("Sent more than two requests at once",requests.poll(200,TimeUnit.MILLISECONDS));
+
+        respond(secondId,10l);
+        short thirdId = nextRequest(1);
+        respond(thirdId,30l);
+        respond(firstId,20l);
+
+        Assert.assertArrayEquals("Incorrect timestamps",
+                new long[]{10l,11l,20l,21l,30l},timestamps.get(10,TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void timeoutFailsTheWholeBatch() throws Exception{
+        connect(1000,16,true);
+
+        Future<Long> first = nextTimestamp();
+        short firstId = nextRequest(1);
+        Future<Long> second = nextTimestamp();
+        nextRequest(1);
+        Future<Long> third = nextTimestamp();
+        Future<Long> fourth = nextTimestamp();
+        Assert.assertNull("Sent more than two requests at once",requests.poll(200,TimeUnit.MILLISECONDS));
+
+        respond(firstId,100l);
+        Assert.assertEquals(100l,(long)first.get(10,TimeUnit.SECONDS));
+        short batchId = nextRequest(2);
+
+        // neither the second request nor the batch are ever answered
+        assertFails(second);
+        assertFails(third);
+        assertFails(fourth);
+
+        // the failed requests no longer count against the limit, and a late answer is dropped
+        respond(batchId,200l);
+        Future<Long> fifth = nextTimestamp();
+        short fifthId = nextRequest(1);
+        Future<Long> sixth = nextTimestamp();
+        short sixthId = nextRequest(1);
+        respond(fifthId,300l);
+        respond(sixthId,400l);
+        Assert.assertEquals(300l,(long)fifth.get(10,TimeUnit.SECONDS));
+        Assert.assertEquals(400l,(long)sixth.get(10,TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void disconnectFailsRequestsInFlightAndKeepsQueuedCallersForTheNextConnection() throws Exception{
+        connect(60000,16,true);
+
+        Future<Long> first = nextTimestamp();
+        nextRequest(1);
+        Future<Long> second = nextTimestamp();
+        nextRequest(1);
+        Future<Long> queued = nextTimestamp();
+        Assert.assertNull("Sent more than two requests at once",requests.poll(200,TimeUnit.MILLISECONDS));
+
+        client.channelDisconnected(ctx,connection);
+        // fails straight away, rather than waiting for the timeout
+        assertFails(first);
+        assertFails(second);
+        Assert.assertNull("Sent a request before the new connection answered the hello",requests.poll(200,TimeUnit.MILLISECONDS));
+        Assert.assertFalse(queued.isDone());
+
+        reconnect(true);
+        short queuedId = nextRequest(1);
+        respond(queuedId,500l);
+        Assert.assertEquals(500l,(long)queued.get(10,TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void olderServersGetOneTimestampPerRequest() throws Exception{
+        connect(60000,16,false);
+
+        Future<Long> first = nextTimestamp();
+        short firstId = nextRequest(-1);
+        Future<Long> second = nextTimestamp();
+        short secondId = nextRequest(-1);
+        Future<Long> third = nextTimestamp();
+        // older servers take any number of requests at once
+        short thirdId = nextRequest(-1);
+
+        respond(thirdId,30l);
+        respond(firstId,10l);
+        respond(secondId,20l);
+        Assert.assertEquals(10l,(long)first.get(10,TimeUnit.SECONDS));
+        Assert.assertEquals(20l,(long)second.get(10,TimeUnit.SECONDS));
+        Assert.assertEquals(30l,(long)third.get(10,TimeUnit.SECONDS));
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private void connect(int timeoutMillis,int maxBatchSize,boolean batchingServer) throws Exception{
+        client = new TimestampClient(timeoutMillis,null,maxBatchSize){
+            @Override
+            protected void connectIfNeeded(){
+                // connections are made (and lost) by the test
+            }
+        };
+        reconnect(batchingServer);
+    }
+
+    private void reconnect(boolean batchingServer) throws Exception{
+        client.channelConnected(ctx,connection);
+        ChannelBuffer hello = requests.poll(10,TimeUnit.SECONDS);
+        Assert.assertNotNull("No hello sent",hello);
+        Assert.assertEquals("Incorrect hello length",TimestampServer.FIXED_MSG_RECEIVED_LENGTH,hello.readableBytes());
+        Assert.assertEquals(TimestampServer.HELLO_CLIENT_ID,hello.readShort());
+        Assert.assertEquals(TimestampServer.BATCHING_VERSION,hello.readShort());
+        if(batchingServer)
+            respond(TimestampServer.HELLO_CLIENT_ID,0l);
+        else{
+            // an older server takes the hello for two requests
+            respond(TimestampServer.HELLO_CLIENT_ID,1l);
+            respond(TimestampServer.BATCHING_VERSION,2l);
+        }
+    }
+
+    /**
+     * @param expectedCount the number of timestamps requested, or -1 for a request in the older format
+     * @return the client id of the next request the client sends
+     */
+    private short nextRequest(int expectedCount) throws Exception{
+        ChannelBuffer request = requests.poll(10,TimeUnit.SECONDS);
+        Assert.assertNotNull("No request sent",request);
+        if(expectedCount<0){
+            Assert.assertEquals("Incorrect request length",TimestampServer.LEGACY_MSG_RECEIVED_LENGTH,request.readableBytes());
+            return request.readShort();
+        }
+        Assert.assertEquals("Incorrect request length",TimestampServer.FIXED_MSG_RECEIVED_LENGTH,request.readableBytes());
+        short clientId = request.readShort();
+        Assert.assertEquals("Incorrect number of timestamps requested",expectedCount,request.readShort());
+        return clientId;
+    }
+
+    private void respond(short clientId,long timestamp) throws Exception{
+        ChannelBuffer response = ChannelBuffers.buffer(TimestampServer.FIXED_MSG_SENT_LENGTH);
+        response.writeShort(clientId);
+        response.writeLong(timestamp);
+        MessageEvent event = mock(MessageEvent.class);
+        when(event.getMessage()).thenReturn(response);
+        client.messageReceived(ctx,event);
+    }
+
+    private Future<Long> nextTimestamp(){
+        return callers.submit(new Callable<Long>(){
+            @Override
+            public Long call() throws Exception{
+                return client.getNextTimestamp();
+            }
+        });
+    }
+
+    private Future<long[]> nextTimestamps(final int count){
+        return callers.submit(new Callable<long[]>(){
+            @Override
+            public long[] call() throws Exception{
+                return client.getNextTimestamps(count);
+            }
+        });
+    }
+
+    private static void assertFails(Future<?> timestamp) throws Exception{
+        try{
+            timestamp.get(10,TimeUnit.SECONDS);
+            Assert.fail("Expected the request to fail");
+        }catch(ExecutionException e){
+            Assert.assertTrue("Unexpected error "+e.getCause(),e.getCause() instanceof TimestampIOException);
+        }
+    }
+}
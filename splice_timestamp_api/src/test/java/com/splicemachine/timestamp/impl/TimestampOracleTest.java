@@ -0,0 +1,136 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.timestamp.impl;
+
+import com.splicemachine.timestamp.api.TimestampBlockManager;
+import com.splicemachine.timestamp.api.TimestampIOException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class TimestampOracleTest{
+
+    @Test
+    public void rangesWithinABlockReserveNothing() throws Exception{
+        RecordingBlockManager blocks = new RecordingBlockManager(100);
+        TimestampOracle oracle = new TimestampOracle(blocks,10);
+
+        Assert.assertEquals("Incorrect first timestamp",101l,oracle.getNextTimestamps(4));
+        Assert.assertEquals("Incorrect range start",105l,oracle.getNextTimestamps(3));
+        Assert.assertEquals("Incorrect single timestamp",108l,oracle.getNextTimestamp());
+        Assert.assertEquals("Should reserve one block at a time",1,blocks.reservations.size());
+        Assert.assertEquals("Incorrect reservation",110l,(long)blocks.reservations.get(0));
+    }
+
+    @Test
+    public void rangeSpanningSeveralBlocksReservesThemAllAtOnce() throws Exception{
+        RecordingBlockManager blocks = new RecordingBlockManager(100);
+        TimestampOracle oracle = new TimestampOracle(blocks,10);
+
+        long first = oracle.getNextTimestamps(25);
+        Assert.assertEquals("Incorrect range start",101l,first);
+        Assert.assertEquals("Should reserve the whole range with a single write",1,blocks.reservations.size());
+        Assert.assertEquals("Range not covered by the reservation",130l,(long)blocks.reservations.get(0));
+
+        // the rest of the last block is used before another is reserved
+        Assert.assertEquals(126l,oracle.getNextTimestamps(5));
+        Assert.assertEquals(1,blocks.reservations.size());
+        Assert.assertEquals(131l,oracle.getNextTimestamp());
+        Assert.assertEquals("Incorrect reservation",140l,(long)blocks.reservations.get(1));
+    }
+
+    @Test
+    public void concurrentRangesDoNotOverlapAndAreReserved() throws Exception{
+        final RecordingBlockManager blocks = new RecordingBlockManager(0);
+        final TimestampOracle oracle = new TimestampOracle(blocks,64);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try{
+            List<Future<List<long[]>>> futures = new ArrayList<>();
+            for(int t=0;t<8;t++){
+                futures.add(executor.submit(new Callable<List<long[]>>(){
+                    @Override
+                    public List<long[]> call() throws Exception{
+                        List<long[]> ranges = new ArrayList<>();
+                        for(int i=0;i<1000;i++){
+                            int count = ThreadLocalRandom.current().nextInt(1,100);
+                            long first = oracle.getNextTimestamps(count);
+                            long last = first+count-1;
+                            Assert.assertTrue("Timestamp "+last+" handed out before it was reserved",last<=blocks.maxReserved());
+                            ranges.add(new long[]{first,last});
+                        }
+                        return ranges;
+                    }
+                }));
+            }
+            List<long[]> ranges = new ArrayList<>();
+            for(Future<List<long[]>> future:futures){
+                ranges.addAll(future.get());
+            }
+            Collections.sort(ranges,new Comparator<long[]>(){
+                @Override
+                public int compare(long[] o1,long[] o2){
+                    return Long.compare(o1[0],o2[0]);
+                }
+            });
+            long expectedStart = 1l;
+            for(long[] range:ranges){
+                Assert.assertEquals("Ranges overlap or leave a gap",expectedStart,range[0]);
+                expectedStart = range[1]+1;
+            }
+            for(int i=1;i<blocks.reservations.size();i++){
+                Assert.assertTrue("Reservations went backwards",blocks.reservations.get(i)>blocks.reservations.get(i-1));
+            }
+        }finally{
+            executor.shutdownNow();
+        }
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper classes*/
+    private static class RecordingBlockManager implements TimestampBlockManager{
+        private final long initialMax;
+        private final List<Long> reservations = Collections.synchronizedList(new ArrayList<Long>());
+
+        RecordingBlockManager(long initialMax){
+            this.initialMax=initialMax;
+        }
+
+        @Override
+        public void reserveNextBlock(long currentMaxReserved) throws TimestampIOException{
+            reservations.add(currentMaxReserved);
+        }
+
+        @Override
+        public long initialize() throws TimestampIOException{
+            return initialMax;
+        }
+
+        long maxReserved(){
+            synchronized(reservations){
+                return reservations.isEmpty()?initialMax:reservations.get(reservations.size()-1);
+            }
+        }
+    }
+}
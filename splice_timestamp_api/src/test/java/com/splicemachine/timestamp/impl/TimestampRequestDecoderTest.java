@@ -0,0 +1,88 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.splicemachine.timestamp.impl;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.handler.codec.embedder.DecoderEmbedder;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimestampRequestDecoderTest{
+
+    @Test
+    public void batchedConnectionsStartWithTheHello() throws Exception{
+        DecoderEmbedder<ChannelBuffer> decoder = new DecoderEmbedder<>(new TimestampRequestDecoder());
+        decoder.offer(shorts(TimestampServer.HELLO_CLIENT_ID,TimestampServer.BATCHING_VERSION,(short)100,(short)3,(short)101,(short)1));
+
+        assertRequest(decoder.poll(),TimestampServer.HELLO_CLIENT_ID,0);
+        assertRequest(decoder.poll(),100,3);
+        assertRequest(decoder.poll(),101,1);
+        Assert.assertNull(decoder.poll());
+    }
+
+    @Test
+    public void olderClientsRequestOneTimestampAtATime() throws Exception{
+        DecoderEmbedder<ChannelBuffer> decoder = new DecoderEmbedder<>(new TimestampRequestDecoder());
+        decoder.offer(shorts((short)100,(short)101,(short)102));
+
+        assertRequest(decoder.poll(),100,1);
+        assertRequest(decoder.poll(),101,1);
+        assertRequest(decoder.poll(),102,1);
+        Assert.assertNull(decoder.poll());
+    }
+
+    @Test
+    public void olderClientUsingTheHelloIdIsNotMistakenForABatchingClient() throws Exception{
+        DecoderEmbedder<ChannelBuffer> decoder = new DecoderEmbedder<>(new TimestampRequestDecoder());
+        decoder.offer(shorts(TimestampServer.HELLO_CLIENT_ID));
+        Assert.assertNull("Cannot tell the request from a hello yet",decoder.poll());
+
+        decoder.offer(shorts((short)(TimestampServer.HELLO_CLIENT_ID+1),(short)5));
+        assertRequest(decoder.poll(),TimestampServer.HELLO_CLIENT_ID,1);
+        assertRequest(decoder.poll(),TimestampServer.HELLO_CLIENT_ID+1,1);
+        assertRequest(decoder.poll(),5,1);
+    }
+
+    @Test
+    public void requestsSplitAcrossReadsAreReassembled() throws Exception{
+        DecoderEmbedder<ChannelBuffer> decoder = new DecoderEmbedder<>(new TimestampRequestDecoder());
+        ChannelBuffer stream = shorts(TimestampServer.HELLO_CLIENT_ID,TimestampServer.BATCHING_VERSION,(short)7,(short)9);
+        while(stream.readable()){
+            decoder.offer(stream.readBytes(1));
+        }
+        assertRequest(decoder.poll(),TimestampServer.HELLO_CLIENT_ID,0);
+        assertRequest(decoder.poll(),7,9);
+        Assert.assertNull(decoder.poll());
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private static ChannelBuffer shorts(short... values){
+        ChannelBuffer buffer = ChannelBuffers.buffer(values.length*2);
+        for(short value:values){
+            buffer.writeShort(value);
+        }
+        return buffer;
+    }
+
+    private static void assertRequest(ChannelBuffer request,int clientId,int count){
+        Assert.assertNotNull("Missing request",request);
+        Assert.assertEquals("Incorrect request length",TimestampServer.FIXED_MSG_RECEIVED_LENGTH,request.readableBytes());
+        Assert.assertEquals("Incorrect client id",clientId,request.readShort());
+        Assert.assertEquals("Incorrect number of timestamps",count,request.readShort());
+    }
+}
@@ -165,6 +165,23 @@ public class CardinalityEstimators {
         return new BytesEncoder(DEFAULT_HASH_FUNCTION);
     }
 
+    /**
+     * Extrapolate the estimate of a cardinality estimator which has only seen a random sample of a data set
+     * to the whole data set. Estimators which are not HyperLogLog-based are left alone. The estimator keeps
+     * the sample, so estimators from several samples can still be merged; see
+     * {@link SparseHyperLogLog#setSample(long, long)} for how the estimate is extrapolated.
+     *
+     * @param estimator the estimator which saw the sample
+     * @param sampleSize the number of (non-null) values in the sample
+     * @param populationSize the (estimated) number of (non-null) values in the whole data set
+     */
+    public static void scaleToPopulation(CardinalityEstimator<?> estimator,long sampleSize,long populationSize){
+        if(sampleSize<=0 || populationSize<sampleSize) return;
+        BaseLogLogCounter counter = counterOf(estimator);
+        if(!(counter instanceof SparseHyperLogLog)) return;
+        ((SparseHyperLogLog)counter).setSample(sampleSize,populationSize);
+    }
+
     /* ****************************************************************************************************************/
     /*private classes*/
     private static class BytesHyperLogLog implements BytesCardinalityEstimator {
@@ -573,4 +590,15 @@ public class CardinalityEstimators {
 
         protected abstract T newEstimator(SparseHyperLogLog count);
     }
+
+    private static BaseLogLogCounter counterOf(CardinalityEstimator<?> estimator){
+        if(estimator instanceof BytesHyperLogLog) return ((BytesHyperLogLog)estimator).counter;
+        else if(estimator instanceof DoubleHyperLogLog) return ((DoubleHyperLogLog)estimator).counter;
+        else if(estimator instanceof FloatHyperLogLog) return ((FloatHyperLogLog)estimator).counter;
+        else if(estimator instanceof LongHyperLogLog) return ((LongHyperLogLog)estimator).counter;
+        else if(estimator instanceof IntHyperLogLog) return ((IntHyperLogLog)estimator).counter;
+        else if(estimator instanceof ShortHyperLogLog) return ((ShortHyperLogLog)estimator).counter;
+        else if(estimator instanceof HyperLogLog) return ((HyperLogLog)estimator).counter;
+        else return null;
+    }
 }
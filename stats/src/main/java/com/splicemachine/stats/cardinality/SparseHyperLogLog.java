@@ -100,6 +100,15 @@ public class SparseHyperLogLog extends BaseBiasAdjustedHyperLogLogCounter{
     private final int maxBufferSize;
     private int bufferSize;
 
+    /*
+     * When the counter was built from a sample of the data, the number of values in the sample and in the
+     * population it was drawn from. The registers only ever hold the sample; the estimate is extrapolated
+     * from them to the population when it is asked for, so that merged counters extrapolate from their
+     * combined sample. Both are 0 if the counter has seen all of the data.
+     */
+    private long sampleSize = 0l;
+    private long populationSize = 0l;
+
     public SparseHyperLogLog(int size,Hash64 hashFunction){
         this(size,hashFunction,HyperLogLogBiasEstimators.biasEstimate(size));
     }
@@ -184,13 +193,44 @@ public class SparseHyperLogLog extends BaseBiasAdjustedHyperLogLogCounter{
 
     @Override
     public BaseLogLogCounter getClone(){
+        SparseHyperLogLog clone;
         if(isSparse){
             int[] newSparseArray = sparseArray!=null? Arrays.copyOf(sparseArray,sparseArray.length): null;
-            return new SparseHyperLogLog(precision,hashFunction,biasAdjuster,sparseSize,newSparseArray);
+            clone = new SparseHyperLogLog(precision,hashFunction,biasAdjuster,sparseSize,newSparseArray);
         }else{
             byte[] newDense = denseRegisters!=null? Arrays.copyOf(denseRegisters,denseRegisters.length): null;
-            return new SparseHyperLogLog(precision,hashFunction,biasAdjuster,newDense);
+            clone = new SparseHyperLogLog(precision,hashFunction,biasAdjuster,newDense);
         }
+        clone.sampleSize = sampleSize;
+        clone.populationSize = populationSize;
+        return clone;
+    }
+
+    /**
+     * Mark this counter as having seen only a random sample of a data set, so that its estimates are
+     * extrapolated to the whole data set.
+     *
+     * <p>If every sampled value is distinct, then the data set is assumed to be distinct as well, and the
+     * estimate scales up with the data set. If the sample is dominated by repeated values, then the sample has
+     * most likely already seen every distinct value, and the estimate barely moves. In between, the scale
+     * interpolates geometrically, using the fraction of distinct values in the sample. The estimate is never
+     * more than {@code populationSize}.</p>
+     *
+     * @param sampleSize the number of values in the sample
+     * @param populationSize the (estimated) number of values in the whole data set
+     */
+    public void setSample(long sampleSize,long populationSize){
+        assert sampleSize>=0 && populationSize>=sampleSize: "Population cannot be smaller than its sample";
+        this.sampleSize = sampleSize;
+        this.populationSize = populationSize;
+    }
+
+    public long getSampleSize(){
+        return sampleSize;
+    }
+
+    public long getPopulationSize(){
+        return populationSize;
     }
 
     /**
@@ -224,6 +264,7 @@ public class SparseHyperLogLog extends BaseBiasAdjustedHyperLogLogCounter{
         }
 
         SparseHyperLogLog other = (SparseHyperLogLog)otherCounter;
+        mergeSample(other);
         other.mergeBuffer(); //ensure that the other has merged its buffer
         if(other.isSparse){
             int[] otherSparse=other.sparseArray;
@@ -255,6 +296,33 @@ public class SparseHyperLogLog extends BaseBiasAdjustedHyperLogLogCounter{
 
     @Override
     public long getEstimate(){
+        long estimate = getRawEstimate();
+        if(sampleSize<=0 || populationSize<=sampleSize || estimate<=0) return estimate;
+
+        double distinctFraction = Math.min(1d,((double)estimate)/sampleSize);
+        double scale = Math.pow(((double)populationSize)/sampleSize,distinctFraction);
+        scale = Math.min(scale,((double)populationSize)/estimate);
+        if(scale<=1d) return estimate;
+        return Math.round(estimate*scale);
+    }
+
+    /*
+     * A counter which saw all of its data counts as a sample of itself. We don't know how many values it
+     * saw, but at least as many as it has distinct values
+     */
+    private void mergeSample(SparseHyperLogLog other){
+        if(sampleSize<=0 && other.sampleSize<=0) return;
+        long mySample = sampleSize, myPopulation = populationSize;
+        if(mySample<=0)
+            mySample = myPopulation = getRawEstimate();
+        long otherSample = other.sampleSize, otherPopulation = other.populationSize;
+        if(otherSample<=0)
+            otherSample = otherPopulation = other.getRawEstimate();
+        sampleSize = mySample+otherSample;
+        populationSize = myPopulation+otherPopulation;
+    }
+
+    private long getRawEstimate(){
         if(isSparse)
             mergeBuffer();
 
@@ -630,6 +698,15 @@ public class SparseHyperLogLog extends BaseBiasAdjustedHyperLogLogCounter{
 
         @Override
         public void encode(SparseHyperLogLog item,DataOutput encoder) throws IOException{
+            if(item.sampleSize>0){
+                /*
+                 * Sampled counters are prefixed with their sample, so that counters written before
+                 * sampling existed still decode the same way
+                 */
+                encoder.writeByte(0x02);
+                encoder.writeLong(item.sampleSize);
+                encoder.writeLong(item.populationSize);
+            }
             if(item.isSparse){
                 item.mergeBuffer();
                 if(item.isSparse){
@@ -642,7 +719,14 @@ public class SparseHyperLogLog extends BaseBiasAdjustedHyperLogLogCounter{
 
         @Override
         public SparseHyperLogLog decode(DataInput input) throws IOException{
-            if(input.readByte()==0x01){
+            byte type=input.readByte();
+            if(type==0x02){
+                long sampleSize=input.readLong();
+                long populationSize=input.readLong();
+                SparseHyperLogLog counter=decode(input);
+                counter.setSample(sampleSize,populationSize);
+                return counter;
+            }else if(type==0x01){
                 return decodeSparse(input);
             }else return decodeDense(input);
         }
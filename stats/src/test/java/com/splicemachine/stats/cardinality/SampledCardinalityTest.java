@@ -0,0 +1,132 @@
+/*
+ * Copyright 2012 - 2016 Splice Machine, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.splicemachine.stats.cardinality;
+
+import com.splicemachine.encoding.Encoder;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Tests for extrapolating the cardinality of a sample to the population it was drawn from.
+ */
+public class SampledCardinalityTest{
+
+    @Test
+    public void distinctSampleScalesWithPopulation() throws Exception{
+        IntCardinalityEstimator estimator=CardinalityEstimators.hyperLogLogInt(14);
+        for(int i=0;i<1000;i++){
+            estimator.update(i);
+        }
+        long sampleEstimate=estimator.getEstimate();
+
+        CardinalityEstimators.scaleToPopulation(estimator,1000,10000);
+        Assert.assertEquals("Incorrect scaled estimate!",10*sampleEstimate,estimator.getEstimate(),10);
+    }
+
+    @Test
+    public void repetitiveSampleBarelyScales() throws Exception{
+        IntCardinalityEstimator estimator=CardinalityEstimators.hyperLogLogInt(14);
+        for(int i=0;i<1000;i++){
+            estimator.update(i%10);
+        }
+        Assert.assertEquals(10,estimator.getEstimate());
+
+        CardinalityEstimators.scaleToPopulation(estimator,1000,100000);
+        Assert.assertEquals("Incorrect scaled estimate!",10,estimator.getEstimate());
+    }
+
+    @Test
+    public void scaledEstimateNeverExceedsPopulation() throws Exception{
+        IntCardinalityEstimator estimator=CardinalityEstimators.hyperLogLogInt(14);
+        for(int i=0;i<1000;i++){
+            estimator.update(i);
+        }
+
+        CardinalityEstimators.scaleToPopulation(estimator,990,1500);
+        Assert.assertTrue("Estimate exceeds the population!",estimator.getEstimate()<=1500);
+    }
+
+    @Test
+    public void mergedSamplesExtrapolateTogether() throws Exception{
+        // a distinct region sampled at 10%, and a repetitive one sampled at 50%
+        IntCardinalityEstimator distinct=CardinalityEstimators.hyperLogLogInt(14);
+        for(int i=0;i<1000;i++){
+            distinct.update(i);
+        }
+        CardinalityEstimators.scaleToPopulation(distinct,1000,10000);
+        IntCardinalityEstimator repetitive=CardinalityEstimators.hyperLogLogInt(14);
+        for(int i=0;i<1000;i++){
+            repetitive.update(100000+i%10);
+        }
+        CardinalityEstimators.scaleToPopulation(repetitive,1000,2000);
+        long distinctEstimate=distinct.getEstimate();
+
+        IntCardinalityEstimator merged=((IntCardinalityEstimator)distinct.getClone()).merge(repetitive);
+        long mergedEstimate=merged.getEstimate();
+        Assert.assertTrue("Merged estimate kept the scale of the first region!",mergedEstimate<distinctEstimate);
+        Assert.assertTrue("Merged estimate was not extrapolated!",mergedEstimate>2000);
+
+        IntCardinalityEstimator reversed=((IntCardinalityEstimator)repetitive.getClone()).merge(distinct);
+        Assert.assertEquals("Merge order changed the estimate!",mergedEstimate,reversed.getEstimate(),0.01*mergedEstimate);
+    }
+
+    @Test
+    public void unsampledRegionMergesWithSampledRegion() throws Exception{
+        IntCardinalityEstimator unsampled=CardinalityEstimators.hyperLogLogInt(14);
+        for(int i=0;i<1000;i++){
+            unsampled.update(i);
+        }
+        IntCardinalityEstimator sampled=CardinalityEstimators.hyperLogLogInt(14);
+        for(int i=0;i<1000;i++){
+            sampled.update(100000+i);
+        }
+        CardinalityEstimators.scaleToPopulation(sampled,1000,10000);
+
+        IntCardinalityEstimator merged=((IntCardinalityEstimator)unsampled.getClone()).merge(sampled);
+        Assert.assertEquals("Incorrect merged estimate!",unsampled.getEstimate()+sampled.getEstimate(),merged.getEstimate(),
+                0.05*(unsampled.getEstimate()+sampled.getEstimate()));
+    }
+
+    @Test
+    public void scaleSurvivesEncoding() throws Exception{
+        Encoder<IntCardinalityEstimator> encoder=CardinalityEstimators.intEncoder();
+        IntCardinalityEstimator estimator=CardinalityEstimators.hyperLogLogInt(10);
+        for(int i=0;i<5000;i++){
+            estimator.update(i);
+        }
+        IntCardinalityEstimator unscaled=roundTrip(encoder,estimator);
+        Assert.assertEquals("Incorrect unscaled estimate after decoding!",estimator.getEstimate(),unscaled.getEstimate());
+
+        CardinalityEstimators.scaleToPopulation(estimator,5000,50000);
+        IntCardinalityEstimator scaled=roundTrip(encoder,estimator);
+        Assert.assertEquals("Incorrect scaled estimate after decoding!",estimator.getEstimate(),scaled.getEstimate());
+        Assert.assertNotEquals("Estimate was not scaled!",unscaled.getEstimate(),scaled.getEstimate());
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private static IntCardinalityEstimator roundTrip(Encoder<IntCardinalityEstimator> encoder,
+                                                     IntCardinalityEstimator estimator) throws IOException{
+        ByteArrayOutputStream baos=new ByteArrayOutputStream();
+        encoder.encode(estimator,new DataOutputStream(baos));
+        return encoder.decode(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+    }
+}
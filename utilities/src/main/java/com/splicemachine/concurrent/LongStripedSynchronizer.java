@@ -17,6 +17,8 @@ package com.splicemachine.concurrent;
 
 import org.spark_project.guava.base.Supplier;
 import org.spark_project.guava.primitives.Longs;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -80,8 +82,31 @@ public class LongStripedSynchronizer<T> {
     }
     @SuppressWarnings("unchecked")
     public T get(long key){
-        int elementPos = smear(Longs.hashCode(key)) & (syncs.length-1);
-        return (T)syncs[elementPos]; //can supress because we fill the elements ourselves
+        return (T)syncs[indexFor(key)]; //can supress because we fill the elements ourselves
+    }
+
+    /**
+     * Get the distinct synchronizers for all of {@code keys}.
+     * <p/>
+     * The synchronizers are always returned in the same relative order, whatever the order of the keys,
+     * so callers which acquire several of them in the returned order cannot deadlock each other.
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> bulkGet(long[] keys){
+        boolean[] used = new boolean[syncs.length];
+        for(long key:keys){
+            used[indexFor(key)] = true;
+        }
+        List<T> result = new ArrayList<>();
+        for(int i=0;i<used.length;i++){
+            if(used[i])
+                result.add((T)syncs[i]);
+        }
+        return result;
+    }
+
+    private int indexFor(long key){
+        return smear(Longs.hashCode(key)) & (syncs.length-1);
     }
 
     /*
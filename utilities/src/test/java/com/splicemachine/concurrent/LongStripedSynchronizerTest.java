@@ -18,10 +18,12 @@ package com.splicemachine.concurrent;
 import org.spark_project.guava.collect.Sets;
 import org.junit.Test;
 
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class LongStripedSynchronizerTest {
 
@@ -41,4 +43,23 @@ public class LongStripedSynchronizerTest {
         assertEquals(128, locks.size());
     }
 
+    @Test
+    public void bulkGetIsDistinctAndOrderIndependent() {
+        // given
+        LongStripedSynchronizer<ReadWriteLock> striped = LongStripedSynchronizer.stripedReadWriteLock(16, false);
+
+        // when
+        List<ReadWriteLock> forward = striped.bulkGet(new long[]{1, 2, 3, 4, 5, 1, 2});
+        List<ReadWriteLock> backward = striped.bulkGet(new long[]{2, 1, 5, 4, 3});
+
+        // then
+        assertEquals(forward, backward);
+        Set<ReadWriteLock> distinct = Sets.newIdentityHashSet();
+        distinct.addAll(forward);
+        assertEquals(forward.size(), distinct.size());
+        for (long i = 1; i <= 5; i++) {
+            assertTrue(forward.contains(striped.get(i)));
+        }
+    }
+
 }
\ No newline at end of file